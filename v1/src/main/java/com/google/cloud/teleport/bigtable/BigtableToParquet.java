@@ -25,14 +25,31 @@ import com.google.cloud.teleport.bigtable.BigtableToParquet.Options;
 import com.google.cloud.teleport.metadata.Template;
 import com.google.cloud.teleport.metadata.TemplateCategory;
 import com.google.cloud.teleport.metadata.TemplateParameter;
+import com.google.cloud.teleport.metadata.TemplateParameter.TemplateEnumOption;
+import java.io.IOException;
+import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.GenericRecordBuilder;
 import org.apache.beam.runners.dataflow.options.DataflowPipelineOptions;
 import org.apache.beam.sdk.Pipeline;
 import org.apache.beam.sdk.PipelineResult;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.CoderRegistry;
+import org.apache.beam.sdk.coders.SerializableCoder;
 import org.apache.beam.sdk.extensions.avro.coders.AvroCoder;
 import org.apache.beam.sdk.io.FileIO;
 import org.apache.beam.sdk.io.gcp.bigtable.BigtableIO;
@@ -41,14 +58,25 @@ import org.apache.beam.sdk.options.Default;
 import org.apache.beam.sdk.options.PipelineOptions;
 import org.apache.beam.sdk.options.PipelineOptionsFactory;
 import org.apache.beam.sdk.options.ValueProvider;
+import org.apache.beam.sdk.transforms.Combine;
+import org.apache.beam.sdk.transforms.Combine.CombineFn;
+import org.apache.beam.sdk.transforms.Contextful;
 import org.apache.beam.sdk.transforms.MapElements;
+import org.apache.beam.sdk.transforms.Requirements;
 import org.apache.beam.sdk.transforms.SimpleFunction;
 import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionView;
+import org.apache.commons.lang3.StringUtils;
 
 /**
  * Dataflow pipeline that exports data from a Cloud Bigtable table to Parquet files in GCS.
  * Currently, filtering on Cloud Bigtable table is not supported.
  *
+ * <p>By default each row is written with the nested {@link BigtableRow} schema, a key and a list of
+ * cells. The {@code COLUMNAR} export mode instead writes one Parquet column per Bigtable column,
+ * from a projection of {@code family:qualifier} columns or, without one, from the columns found in
+ * all the rows.
+ *
  * <p>Check out <a
  * href="https://github.com/GoogleCloudPlatform/DataflowTemplates/blob/main/v1/README_Cloud_Bigtable_to_GCS_Parquet.md">README</a>
  * for instructions on how to use or modify this template.
@@ -155,8 +183,74 @@ public class BigtableToParquet {
 
     @SuppressWarnings("unused")
     void setBigtableAppProfileId(ValueProvider<String> appProfileId);
+
+    @TemplateParameter.Enum(
+        order = 8,
+        groupName = "Target",
+        optional = true,
+        enumOptions = {@TemplateEnumOption("NESTED"), @TemplateEnumOption("COLUMNAR")},
+        description = "Export mode",
+        helpText =
+            "Possible values are `NESTED` or `COLUMNAR`. `NESTED` writes each row as a key and a list of cells. `COLUMNAR` writes one column per Bigtable column, which allows column pruning and predicate pushdown when querying the files. Defaults to `NESTED`.")
+    @Default.String(NESTED_EXPORT_MODE)
+    String getExportMode();
+
+    @SuppressWarnings("unused")
+    void setExportMode(String exportMode);
+
+    @TemplateParameter.Text(
+        order = 9,
+        groupName = "Target",
+        optional = true,
+        parentName = "exportMode",
+        parentTriggerValues = {COLUMNAR_EXPORT_MODE},
+        description = "Columns",
+        helpText =
+            "A comma-separated list of the `family:qualifier` columns to export. If you don't specify columns, the columns found in any of the rows are exported, which requires reading the column names of every row before the first file is written. Only use this option when the value for `exportMode` is `COLUMNAR`. For example: `cf1:name,cf1:age,cf2:city`.")
+    String getColumns();
+
+    @SuppressWarnings("unused")
+    void setColumns(String columns);
+
+    @TemplateParameter.Integer(
+        order = 10,
+        groupName = "Target",
+        optional = true,
+        parentName = "exportMode",
+        parentTriggerValues = {COLUMNAR_EXPORT_MODE},
+        description = "Maximum cell versions",
+        helpText =
+            "The number of cell versions to export for each column. With `1`, each column holds the value of the latest cell. With more, each column holds a list of the latest `timestamp` and `value` pairs. Defaults to: 1.")
+    @Default.Integer(1)
+    ValueProvider<Integer> getMaxVersions();
+
+    @SuppressWarnings("unused")
+    void setMaxVersions(ValueProvider<Integer> maxVersions);
+
+    @TemplateParameter.Integer(
+        order = 11,
+        groupName = "Target",
+        optional = true,
+        description = "Parquet row group size",
+        helpText =
+            "The size in bytes of the Parquet row groups. Each writer buffers a row group in memory before writing it. Defaults to: 134217728 (128 MiB), the default of Parquet writers.")
+    @Default.Integer(DEFAULT_ROW_GROUP_SIZE)
+    ValueProvider<Integer> getRowGroupSize();
+
+    @SuppressWarnings("unused")
+    void setRowGroupSize(ValueProvider<Integer> rowGroupSize);
   }
 
+  static final String NESTED_EXPORT_MODE = "NESTED";
+
+  static final String COLUMNAR_EXPORT_MODE = "COLUMNAR";
+
+  /**
+   * Size in bytes of the Parquet row groups. The default block size of Parquet writers, so the
+   * files are unchanged unless the option is set.
+   */
+  static final int DEFAULT_ROW_GROUP_SIZE = 128 * 1024 * 1024;
+
   /**
    * Main entry point for pipeline execution.
    *
@@ -192,13 +286,61 @@ public class BigtableToParquet {
       read = read.withoutValidation();
     }
 
+    PCollection<Row> rows = pipeline.apply("Read from Bigtable", read);
+
+    if (COLUMNAR_EXPORT_MODE.equals(options.getExportMode())) {
+      /*
+       * Steps: 1) Read records from Bigtable. 2) Find the columns to export, from the projection
+       * or, without one, the columns of all the rows. 3) Convert each Bigtable Row to a
+       * GenericRecord with a column per exported column and write them to GCS in parquet format.
+       */
+      List<String> projection = parseColumns(options.getColumns());
+      Contextful<Contextful.Fn<Row, GenericRecord>> toRecord;
+      if (projection.isEmpty()) {
+        PCollectionView<List<String>> columns =
+            rows.apply("Find columns", Combine.globally(new CollectColumnsFn()).asSingletonView());
+        toRecord =
+            Contextful.fn(
+                new BigtableToColumnarParquetFn(columns, null, options.getMaxVersions()),
+                Requirements.requiresSideInputs(columns));
+      } else {
+        // The projection is known when the pipeline is built, no pass over the rows is needed.
+        toRecord =
+            Contextful.fn(
+                new BigtableToColumnarParquetFn(null, projection, options.getMaxVersions()),
+                Requirements.empty());
+      }
+      FileIO.Write<Void, Row> write =
+          FileIO.<Row>write()
+              .via(
+                  toRecord,
+                  new ParquetSink(
+                      columnarSchema(new ArrayList<>(), 1).toString(), options.getRowGroupSize()));
+      rows.apply("Write to Parquet in GCS", withOutput(write, options));
+
+      return pipeline.run();
+    }
+
     /**
      * Steps: 1) Read records from Bigtable. 2) Convert a Bigtable Row to a GenericRecord. 3) Write
      * GenericRecord(s) to GCS in parquet format.
      */
-    FileIO.Write<Void, GenericRecord> write =
-        FileIO.<GenericRecord>write()
-            .via(ParquetIO.sink(BigtableRow.getClassSchema()))
+    ParquetSink sink =
+        new ParquetSink(BigtableRow.getClassSchema().toString(), options.getRowGroupSize());
+    rows.apply("Transform to Parquet", MapElements.via(new BigtableToParquetFn()))
+        .setCoder(AvroCoder.of(GenericRecord.class, BigtableRow.getClassSchema()))
+        .apply(
+            "Write to Parquet in GCS",
+            withOutput(FileIO.<GenericRecord>write().via(sink), options));
+
+    return pipeline.run();
+  }
+
+  /** Sets the output files and the number of shards of a Parquet {@link FileIO.Write}. */
+  private static <T> FileIO.Write<Void, T> withOutput(
+      FileIO.Write<Void, T> write, Options options) {
+    write =
+        write
             .to(options.getOutputDirectory())
             .withPrefix(options.getFilenamePrefix())
             .withSuffix(".parquet");
@@ -209,13 +351,7 @@ public class BigtableToParquet {
         write = write.withNumShards(options.getNumShards());
       }
     }
-    pipeline
-        .apply("Read from Bigtable", read)
-        .apply("Transform to Parquet", MapElements.via(new BigtableToParquetFn()))
-        .setCoder(AvroCoder.of(GenericRecord.class, BigtableRow.getClassSchema()))
-        .apply("Write to Parquet in GCS", write);
-
-    return pipeline.run();
+    return write;
   }
 
   /**
@@ -244,4 +380,260 @@ public class BigtableToParquet {
           .build();
     }
   }
+
+  /**
+   * Parses a comma-separated projection of {@code family:qualifier} columns.
+   *
+   * @param columns the projection, or null for none
+   * @return the columns of the projection in order, empty if there is none
+   */
+  static List<String> parseColumns(@Nullable String columns) {
+    List<String> projection = new ArrayList<>();
+    if (columns != null) {
+      for (String column : columns.split(",")) {
+        if (!StringUtils.isBlank(column)) {
+          projection.add(column.trim());
+        }
+      }
+    }
+    return projection;
+  }
+
+  /**
+   * Finds the {@code family:qualifier} columns of a columnar export without projection: the union
+   * of the columns of all the rows, in sorted order. The union does not depend on how the rows are
+   * split between combiners, so retries export the same columns.
+   */
+  static class CollectColumnsFn extends CombineFn<Row, CollectColumnsFn.Accumulator, List<String>> {
+
+    @Override
+    public Accumulator createAccumulator() {
+      return new Accumulator();
+    }
+
+    @Override
+    public Accumulator addInput(Accumulator accumulator, Row row) {
+      for (Family family : row.getFamiliesList()) {
+        for (Column column : family.getColumnsList()) {
+          accumulator.columns.add(family.getName() + ":" + column.getQualifier().toStringUtf8());
+        }
+      }
+      return accumulator;
+    }
+
+    @Override
+    public Accumulator mergeAccumulators(Iterable<Accumulator> accumulators) {
+      Accumulator merged = createAccumulator();
+      for (Accumulator accumulator : accumulators) {
+        merged.columns.addAll(accumulator.columns);
+      }
+      return merged;
+    }
+
+    @Override
+    public List<String> extractOutput(Accumulator accumulator) {
+      return new ArrayList<>(accumulator.columns);
+    }
+
+    @Override
+    public Coder<Accumulator> getAccumulatorCoder(CoderRegistry registry, Coder<Row> inputCoder) {
+      return SerializableCoder.of(Accumulator.class);
+    }
+
+    /** The columns of the rows seen by a combiner. */
+    static class Accumulator implements Serializable {
+      private final TreeSet<String> columns = new TreeSet<>();
+    }
+  }
+
+  /**
+   * Translates a Bigtable {@link Row} to a {@link GenericRecord} with a column per exported column,
+   * holding the value of the latest cell or a list of the latest cells. The exported columns are
+   * either the projection or, without one, read from a side input.
+   */
+  static class BigtableToColumnarParquetFn implements Contextful.Fn<Row, GenericRecord> {
+    @Nullable private final PCollectionView<List<String>> columnsView;
+    @Nullable private final List<String> projection;
+    private final ValueProvider<Integer> maxVersions;
+    private transient List<String> columns;
+    private transient Schema schema;
+    private transient Map<String, Integer> fieldPositions;
+
+    /**
+     * @param columnsView side input of the columns to export, null with a projection
+     * @param projection columns to export, null to read them from {@code columnsView}
+     * @param maxVersions number of cells exported per column
+     */
+    BigtableToColumnarParquetFn(
+        @Nullable PCollectionView<List<String>> columnsView,
+        @Nullable List<String> projection,
+        ValueProvider<Integer> maxVersions) {
+      this.columnsView = columnsView;
+      this.projection = projection;
+      this.maxVersions = maxVersions;
+    }
+
+    @Override
+    public GenericRecord apply(Row row, Context c) {
+      return toRecord(row, projection != null ? projection : c.sideInput(columnsView));
+    }
+
+    GenericRecord toRecord(Row row, List<String> exportedColumns) {
+      int versions = maxVersions.get();
+      // The columns are the same list for all the rows, the schema is only built once.
+      if (exportedColumns != columns) {
+        schema = columnarSchema(exportedColumns, versions);
+        fieldPositions = new HashMap<>();
+        for (int i = 0; i < exportedColumns.size(); i++) {
+          // Field 0 is the row key.
+          fieldPositions.put(exportedColumns.get(i), i + 1);
+        }
+        columns = exportedColumns;
+      }
+
+      GenericRecord record = new GenericData.Record(schema);
+      record.put(0, ByteBuffer.wrap(toByteArray(row.getKey())));
+      for (Family family : row.getFamiliesList()) {
+        for (Column column : family.getColumnsList()) {
+          Integer position =
+              fieldPositions.get(family.getName() + ":" + column.getQualifier().toStringUtf8());
+          if (position == null || column.getCellsCount() == 0) {
+            continue;
+          }
+          if (versions == 1) {
+            record.put(position, ByteBuffer.wrap(toByteArray(latestCell(column).getValue())));
+          } else {
+            record.put(position, latestCells(column, versions, schema.getFields().get(position)));
+          }
+        }
+      }
+      return record;
+    }
+
+    private static Cell latestCell(Column column) {
+      Cell latest = column.getCells(0);
+      for (Cell cell : column.getCellsList()) {
+        if (cell.getTimestampMicros() > latest.getTimestampMicros()) {
+          latest = cell;
+        }
+      }
+      return latest;
+    }
+
+    private static List<GenericRecord> latestCells(
+        Column column, int versions, Schema.Field field) {
+      Schema cellSchema = field.schema().getTypes().get(1).getElementType();
+      List<Cell> cells = new ArrayList<>(column.getCellsList());
+      cells.sort(Comparator.comparingLong(Cell::getTimestampMicros).reversed());
+      List<GenericRecord> latest = new ArrayList<>();
+      for (Cell cell : cells.subList(0, Math.min(versions, cells.size()))) {
+        latest.add(
+            new GenericRecordBuilder(cellSchema)
+                .set("timestamp", cell.getTimestampMicros())
+                .set("value", ByteBuffer.wrap(toByteArray(cell.getValue())))
+                .build());
+      }
+      return latest;
+    }
+  }
+
+  /**
+   * Builds the schema of the columnar export: the row key followed by a nullable field per column.
+   * Field names are the family and qualifier joined by an underscore with the characters Avro does
+   * not allow in names replaced, the {@code family:qualifier} column is kept as the field doc.
+   *
+   * @param columns {@code family:qualifier} columns to export
+   * @param maxVersions number of cells exported per column
+   */
+  static Schema columnarSchema(List<String> columns, int maxVersions) {
+    if (maxVersions < 1) {
+      throw new IllegalArgumentException("maxVersions must be at least 1, got " + maxVersions);
+    }
+    Schema cellSchema =
+        SchemaBuilder.record("BigtableColumnarCell")
+            .namespace(BigtableToParquet.class.getPackage().getName())
+            .fields()
+            .requiredLong("timestamp")
+            .requiredBytes("value")
+            .endRecord();
+    SchemaBuilder.FieldAssembler<Schema> fields =
+        SchemaBuilder.record("BigtableColumnarRow")
+            .namespace(BigtableToParquet.class.getPackage().getName())
+            .fields()
+            .requiredBytes("key");
+    Set<String> fieldNames = new HashSet<>();
+    fieldNames.add("key");
+    for (String column : columns) {
+      String fieldName = toFieldName(column);
+      for (int i = 2; !fieldNames.add(fieldName); i++) {
+        fieldName = toFieldName(column) + "_" + i;
+      }
+      Schema valueSchema =
+          maxVersions == 1 ? Schema.create(Schema.Type.BYTES) : Schema.createArray(cellSchema);
+      fields =
+          fields
+              .name(fieldName)
+              .doc(column)
+              .type(Schema.createUnion(Schema.create(Schema.Type.NULL), valueSchema))
+              .withDefault(null);
+    }
+    return fields.endRecord();
+  }
+
+  private static String toFieldName(String column) {
+    String fieldName = column.replaceFirst(":", "_").replaceAll("[^A-Za-z0-9_]", "_");
+    return Character.isDigit(fieldName.charAt(0)) ? "_" + fieldName : fieldName;
+  }
+
+  /**
+   * A Parquet {@link FileIO.Sink} which takes the schema of the file from its first record, since
+   * the columns of the columnar export are only known once the pipeline runs. The row group size is
+   * read from its {@link ValueProvider} when the file is opened, so templates can set it at launch.
+   */
+  static class ParquetSink implements FileIO.Sink<GenericRecord> {
+    private final String emptySchema;
+    private final ValueProvider<Integer> rowGroupSize;
+    private transient WritableByteChannel channel;
+    private transient ParquetIO.Sink sink;
+
+    /**
+     * @param emptySchema JSON schema of the files without records
+     * @param rowGroupSize size in bytes of the row groups
+     */
+    ParquetSink(String emptySchema, ValueProvider<Integer> rowGroupSize) {
+      this.emptySchema = emptySchema;
+      this.rowGroupSize = rowGroupSize;
+    }
+
+    @Override
+    public void open(WritableByteChannel channel) {
+      this.channel = channel;
+      this.sink = null;
+    }
+
+    @Override
+    public void write(GenericRecord record) throws IOException {
+      if (sink == null) {
+        openSink(record.getSchema());
+      }
+      sink.write(record);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (sink == null) {
+        // An empty shard still has to be a valid Parquet file.
+        openSink(new Schema.Parser().parse(emptySchema));
+      }
+      sink.flush();
+    }
+
+    private void openSink(Schema schema) throws IOException {
+      Integer size = rowGroupSize == null ? null : rowGroupSize.get();
+      sink =
+          ParquetIO.sink(schema)
+              .withRowGroupSize(size == null || size <= 0 ? DEFAULT_ROW_GROUP_SIZE : size);
+      sink.open(channel);
+    }
+  }
 }
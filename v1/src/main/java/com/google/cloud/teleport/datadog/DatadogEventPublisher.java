@@ -18,7 +18,6 @@ package com.google.cloud.teleport.datadog;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.api.client.http.ByteArrayContent;
-import com.google.api.client.http.GZipEncoding;
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpBackOffIOExceptionHandler;
 import com.google.api.client.http.HttpContent;
@@ -35,12 +34,18 @@ import com.google.api.client.util.Sleeper;
 import com.google.auto.value.AutoValue;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.io.CountingOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 import javax.annotation.Nullable;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
@@ -97,6 +102,9 @@ public abstract class DatadogEventPublisher {
   @Nullable
   abstract Integer maxElapsedMillis();
 
+  @Nullable
+  abstract Integer maxConnections();
+
   /**
    * Executes a POST for the list of {@link DatadogEvent} objects into Datadog's Logs API.
    *
@@ -104,11 +112,20 @@ public abstract class DatadogEventPublisher {
    * @return {@link HttpResponse} for the POST.
    */
   public HttpResponse execute(List<DatadogEvent> events) throws IOException {
+    return execute(GzipPayload.of(events));
+  }
 
-    HttpContent content = getContent(events);
+  /**
+   * Same as {@link DatadogEventPublisher#execute(List)} but with an already encoded payload.
+   *
+   * @param payload {@link GzipPayload} of a list of {@link DatadogEvent}s
+   * @return {@link HttpResponse} for the POST.
+   */
+  HttpResponse execute(GzipPayload payload) throws IOException {
+
+    HttpContent content = new ByteArrayContent(CONTENT_TYPE, payload.getBytes());
     HttpRequest request = requestFactory().buildPostRequest(genericUrl(), content);
 
-    request.setEncoding(new GZipEncoding());
     request.setUnsuccessfulResponseHandler(
         new HttpSendLogsUnsuccessfulResponseHandler(getConfiguredBackOff()));
     request.setIOExceptionHandler(new HttpBackOffIOExceptionHandler(getConfiguredBackOff()));
@@ -158,17 +175,51 @@ public abstract class DatadogEventPublisher {
   }
 
   /**
-   * Utility method to marshall a list of {@link DatadogEvent}s into an {@link HttpContent} object
-   * that can be used to create an {@link HttpRequest}.
+   * Utility method to marshall a list of {@link DatadogEvent}s into a gzip compressed {@link
+   * HttpContent} object that can be used to create an {@link HttpRequest}.
    *
    * @param events List of {@link DatadogEvent}s
    * @return {@link HttpContent} that can be used to create an {@link HttpRequest}.
    */
   @VisibleForTesting
-  protected HttpContent getContent(List<DatadogEvent> events) {
-    String payload = DatadogEventSerializer.getPayloadString(events);
-    LOG.debug("Payload content: {}", payload);
-    return ByteArrayContent.fromString(CONTENT_TYPE, payload);
+  protected HttpContent getContent(List<DatadogEvent> events) throws IOException {
+    return new ByteArrayContent(CONTENT_TYPE, GzipPayload.of(events).getBytes());
+  }
+
+  /**
+   * The gzip compressed JSON payload of a list of {@link DatadogEvent}s. The events are serialized
+   * straight into the compressed buffer, so the uncompressed payload is never held in memory.
+   */
+  static class GzipPayload {
+    private final byte[] bytes;
+    private final long uncompressedSize;
+
+    private GzipPayload(byte[] bytes, long uncompressedSize) {
+      this.bytes = bytes;
+      this.uncompressedSize = uncompressedSize;
+    }
+
+    static GzipPayload of(List<DatadogEvent> events) throws IOException {
+      ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+      CountingOutputStream uncompressed =
+          new CountingOutputStream(new GZIPOutputStream(compressed));
+      try (Writer writer = new OutputStreamWriter(uncompressed, StandardCharsets.UTF_8)) {
+        DatadogEventSerializer.writePayload(events, writer);
+      }
+      return new GzipPayload(compressed.toByteArray(), uncompressed.getCount());
+    }
+
+    byte[] getBytes() {
+      return bytes;
+    }
+
+    long getCompressedSize() {
+      return bytes.length;
+    }
+
+    long getUncompressedSize() {
+      return uncompressedSize;
+    }
   }
 
   static class HttpSendLogsUnsuccessfulResponseHandler implements HttpUnsuccessfulResponseHandler {
@@ -228,6 +279,10 @@ public abstract class DatadogEventPublisher {
 
     abstract Integer maxElapsedMillis();
 
+    abstract Builder setMaxConnections(Integer maxConnections);
+
+    abstract Integer maxConnections();
+
     abstract DatadogEventPublisher autoBuild();
 
     /**
@@ -265,6 +320,18 @@ public abstract class DatadogEventPublisher {
       return setMaxElapsedMillis(maxElapsedMillis);
     }
 
+    /**
+     * Method to set the max number of connections, which bounds the number of concurrent POSTs.
+     * Otherwise uses a single connection.
+     *
+     * @param maxConnections max number of connections to the Logs API.
+     * @return {@link Builder}
+     */
+    public Builder withMaxConnections(Integer maxConnections) {
+      checkNotNull(maxConnections, "withMaxConnections(maxConnections) called with null input.");
+      return setMaxConnections(maxConnections);
+    }
+
     /**
      * Validates and builds a {@link DatadogEventPublisher} object.
      *
@@ -282,7 +349,11 @@ public abstract class DatadogEventPublisher {
         setMaxElapsedMillis(ExponentialBackOff.DEFAULT_MAX_ELAPSED_TIME_MILLIS);
       }
 
-      CloseableHttpClient httpClient = getHttpClient(DEFAULT_MAX_CONNECTIONS);
+      if (maxConnections() == null) {
+        setMaxConnections(DEFAULT_MAX_CONNECTIONS);
+      }
+
+      CloseableHttpClient httpClient = getHttpClient(maxConnections());
 
       setTransport(new ApacheHttpTransport(httpClient));
       setRequestFactory(transport().createRequestFactory());
@@ -324,6 +395,7 @@ public abstract class DatadogEventPublisher {
       }
 
       builder.setMaxConnTotal(maxConnections);
+      builder.setMaxConnPerRoute(maxConnections);
       builder.setDefaultRequestConfig(
           RequestConfig.custom().setCookieSpec(CookieSpecs.STANDARD).build());
 
@@ -31,6 +31,11 @@ public class DatadogEventSerializer {
     return GSON.toJson(events);
   }
 
+  /** Utility method to write the payload of a list of {@link DatadogEvent}s to an appendable. */
+  public static void writePayload(List<DatadogEvent> events, Appendable writer) {
+    GSON.toJson(events, writer);
+  }
+
   /** Utility method to get payload string from a {@link DatadogEvent}. */
   public static String getPayloadString(DatadogEvent event) {
     return GSON.toJson(event);
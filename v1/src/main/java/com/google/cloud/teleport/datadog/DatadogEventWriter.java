@@ -21,15 +21,27 @@ import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Pr
 import com.google.api.client.http.HttpResponse;
 import com.google.api.client.http.HttpResponseException;
 import com.google.auto.value.AutoValue;
+import com.google.cloud.teleport.datadog.DatadogEventPublisher.GzipPayload;
+import com.google.cloud.teleport.util.PendingBatches;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.Lists;
 import com.google.common.net.InetAddresses;
 import com.google.common.net.InternetDomainName;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.Nullable;
@@ -49,10 +61,19 @@ import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.values.KV;
 import org.joda.time.Duration;
+import org.joda.time.Instant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** A {@link DoFn} to write {@link DatadogEvent}s to Datadog's Logs API. */
+/**
+ * A {@link DoFn} to write {@link DatadogEvent}s to Datadog's Logs API.
+ *
+ * <p>Batches are sent as gzip compressed JSON. With more than one in-flight request, a flush starts
+ * the POST of the batch on a background thread and returns, blocking only while the max number of
+ * requests of the worker are in flight. The writers of a worker share its threads and limit. The
+ * failures of completed batches are output by the following elements, and the bundle finishes once
+ * all its batches have completed.
+ */
 @AutoValue
 public abstract class DatadogEventWriter
     extends DoFn<KV<Integer, DatadogEvent>, DatadogWriteError> {
@@ -60,6 +81,7 @@ public abstract class DatadogEventWriter
   private static final Integer MIN_BATCH_COUNT = 10;
   private static final Integer DEFAULT_BATCH_COUNT = 100;
   private static final Integer MAX_BATCH_COUNT = 1000;
+  private static final Integer DEFAULT_MAX_IN_FLIGHT_REQUESTS = 1;
   private static final Logger LOG = LoggerFactory.getLogger(DatadogEventWriter.class);
   private static final long DEFAULT_FLUSH_DELAY = 2;
   private static final Long MAX_BUFFER_SIZE = 5L * 1000 * 1000; // 5MB
@@ -83,12 +105,21 @@ public abstract class DatadogEventWriter
       Metrics.distribution(DatadogEventWriter.class, "write_to_datadog_batch");
   private static final Distribution SUCCESSFUL_WRITE_PAYLOAD_SIZE =
       Metrics.distribution(DatadogEventWriter.class, "write_to_datadog_bytes");
+  private static final Distribution COMPRESSED_PAYLOAD_SIZE =
+      Metrics.distribution(DatadogEventWriter.class, "write_to_datadog_compressed_bytes");
+  private static final Distribution COMPRESSED_PAYLOAD_SIZE_PERCENT =
+      Metrics.distribution(DatadogEventWriter.class, "write_to_datadog_compressed_size_percent");
+  private static final Distribution COMPRESSION_LATENCY_MS =
+      Metrics.distribution(DatadogEventWriter.class, "write_to_datadog_compression_ms");
   private static final String BUFFER_STATE_NAME = "buffer";
   private static final String COUNT_STATE_NAME = "count";
   private static final String BUFFER_SIZE_STATE_NAME = "buffer_size";
   private static final String TIME_ID_NAME = "expiry";
   private static final Pattern URL_PATTERN = Pattern.compile("^http(s?)://([^:]+)(:[0-9]+)?$");
 
+  /** The limits of the JVM, by url and limit value. Guarded by itself. */
+  private static final Map<String, WorkerLimits> WORKER_LIMITS = new HashMap<>();
+
   @VisibleForTesting
   protected static final String INVALID_URL_FORMAT_MESSAGE =
       "Invalid url format. Url format should match PROTOCOL://HOST[:PORT], where PORT is optional. "
@@ -108,7 +139,11 @@ public abstract class DatadogEventWriter
 
   private Integer batchCount;
   private Long maxBufferSize;
+  private Integer maxInFlightRequests;
   private DatadogEventPublisher publisher;
+  private transient String limitsKey;
+  private transient WorkerLimits limits;
+  private transient PendingBatches<BatchResult, DatadogWriteError> pendingBatches;
 
   public static Builder newBuilder() {
     return newBuilder(null);
@@ -134,6 +169,9 @@ public abstract class DatadogEventWriter
   @Nullable
   abstract Long maxBufferSize();
 
+  @Nullable
+  abstract ValueProvider<Integer> maxInFlightRequests();
+
   @Setup
   public void setup() {
 
@@ -160,13 +198,39 @@ public abstract class DatadogEventWriter
         "batchCount must be less than or equal to %s",
         MAX_BATCH_COUNT);
 
+    if (maxInFlightRequests() != null) {
+      maxInFlightRequests = maxInFlightRequests().get();
+    }
+    maxInFlightRequests =
+        MoreObjects.firstNonNull(maxInFlightRequests, DEFAULT_MAX_IN_FLIGHT_REQUESTS);
+    LOG.info("Max in-flight requests set to: {}", maxInFlightRequests);
+
+    checkArgument(maxInFlightRequests > 0, "maxInFlightRequests must be greater than 0");
+
     try {
       DatadogEventPublisher.Builder builder =
-          DatadogEventPublisher.newBuilder().withUrl(url().get()).withApiKey(apiKey().get());
+          DatadogEventPublisher.newBuilder()
+              .withUrl(url().get())
+              .withApiKey(apiKey().get())
+              .withMaxConnections(maxInFlightRequests);
 
       publisher = builder.build();
       LOG.info("Successfully created HttpEventPublisher");
 
+      if (maxInFlightRequests > 1) {
+        limitsKey = url().get() + "/" + maxInFlightRequests;
+        synchronized (WORKER_LIMITS) {
+          WorkerLimits workerLimits = WORKER_LIMITS.get(limitsKey);
+          if (workerLimits == null) {
+            workerLimits = new WorkerLimits(maxInFlightRequests);
+            WORKER_LIMITS.put(limitsKey, workerLimits);
+          }
+          workerLimits.references++;
+          limits = workerLimits;
+        }
+        pendingBatches = new PendingBatches<>(this::handleResult);
+      }
+
     } catch (NoSuchAlgorithmException | KeyManagementException | IOException e) {
       LOG.error("Error creating HttpEventPublisher: {}", e.getMessage());
       throw new RuntimeException(e);
@@ -178,11 +242,12 @@ public abstract class DatadogEventWriter
       @Element KV<Integer, DatadogEvent> input,
       OutputReceiver<DatadogWriteError> receiver,
       BoundedWindow window,
+      @Timestamp Instant timestamp,
       @StateId(BUFFER_STATE_NAME) BagState<DatadogEvent> bufferState,
       @StateId(COUNT_STATE_NAME) ValueState<Long> countState,
       @StateId(BUFFER_SIZE_STATE_NAME) ValueState<Long> bufferSizeState,
       @TimerId(TIME_ID_NAME) Timer timer)
-      throws IOException {
+      throws IOException, InterruptedException {
 
     DatadogEvent event = input.getValue();
     INPUT_COUNTER.inc();
@@ -203,7 +268,7 @@ public abstract class DatadogEventWriter
     long bufferSize = MoreObjects.<Long>firstNonNull(bufferSizeState.read(), 0L);
     if (bufferSize + eventPayloadSize > maxBufferSize) {
       LOG.debug("Flushing batch of {} events of size {} due to max buffer size", count, bufferSize);
-      flush(receiver, bufferState, countState, bufferSizeState);
+      flush(receiver, window, timestamp, bufferState, countState, bufferSizeState);
 
       count = 0L;
       bufferSize = 0L;
@@ -219,29 +284,50 @@ public abstract class DatadogEventWriter
 
     if (count >= batchCount) {
       LOG.debug("Flushing batch of {} events of size {} due to batch count", count, bufferSize);
-      flush(receiver, bufferState, countState, bufferSizeState);
+      flush(receiver, window, timestamp, bufferState, countState, bufferSizeState);
+    } else if (pendingBatches != null) {
+      pendingBatches.outputCompleted(receiver, window, timestamp);
     }
   }
 
   @OnTimer(TIME_ID_NAME)
   public void onExpiry(
       OutputReceiver<DatadogWriteError> receiver,
+      BoundedWindow window,
+      @Timestamp Instant timestamp,
       @StateId(BUFFER_STATE_NAME) BagState<DatadogEvent> bufferState,
       @StateId(COUNT_STATE_NAME) ValueState<Long> countState,
       @StateId(BUFFER_SIZE_STATE_NAME) ValueState<Long> bufferSizeState)
-      throws IOException {
+      throws IOException, InterruptedException {
 
     long count = MoreObjects.<Long>firstNonNull(countState.read(), 0L);
     long bufferSize = MoreObjects.<Long>firstNonNull(bufferSizeState.read(), 0L);
 
     if (count > 0) {
       LOG.debug("Flushing batch of {} events of size {} due to timer", count, bufferSize);
-      flush(receiver, bufferState, countState, bufferSizeState);
+      flush(receiver, window, timestamp, bufferState, countState, bufferSizeState);
+    }
+  }
+
+  @FinishBundle
+  public void finishBundle(FinishBundleContext context)
+      throws InterruptedException, ExecutionException {
+    if (pendingBatches != null) {
+      pendingBatches.finish(context);
     }
   }
 
   @Teardown
   public void tearDown() {
+    if (this.limits != null) {
+      synchronized (WORKER_LIMITS) {
+        if (--limits.references == 0) {
+          WORKER_LIMITS.remove(limitsKey);
+          limits.executor.shutdownNow();
+        }
+      }
+      this.limits = null;
+    }
     if (this.publisher != null) {
       try {
         this.publisher.close();
@@ -260,102 +346,160 @@ public abstract class DatadogEventWriter
    */
   private void flush(
       OutputReceiver<DatadogWriteError> receiver,
+      BoundedWindow window,
+      Instant timestamp,
       @StateId(BUFFER_STATE_NAME) BagState<DatadogEvent> bufferState,
       @StateId(COUNT_STATE_NAME) ValueState<Long> countState,
       @StateId(BUFFER_SIZE_STATE_NAME) ValueState<Long> bufferSizeState)
-      throws IOException {
+      throws InterruptedException {
 
     if (!bufferState.isEmpty().read()) {
-
-      HttpResponse response = null;
       List<DatadogEvent> events = Lists.newArrayList(bufferState.read());
-      long startTime = System.nanoTime();
+
+      // States are cleared regardless of write success or failure since we
+      // write failed events to an output PCollection.
+      bufferState.clear();
+      countState.clear();
+      bufferSizeState.clear();
+
+      if (pendingBatches == null) {
+        handleResult(send(events), receiver::output);
+        return;
+      }
+
+      // Failed events of the batch are written to the output PCollection before the bundle
+      // finishes.
+      Semaphore inFlightRequests = limits.inFlightRequests;
+      inFlightRequests.acquire();
       try {
-        // Important to close this response to avoid connection leak.
-        response = publisher.execute(events);
-        if (!response.isSuccessStatusCode()) {
-          UNSUCCESSFUL_WRITE_LATENCY_MS.update(nanosToMillis(System.nanoTime() - startTime));
-          FAILED_WRITES.inc(countState.read());
-          int statusCode = response.getStatusCode();
-          if (statusCode >= 400 && statusCode < 500) {
-            INVALID_REQUESTS.inc();
-          } else if (statusCode >= 500 && statusCode < 600) {
-            SERVER_ERROR_REQUESTS.inc();
-          }
+        Future<BatchResult> result =
+            CompletableFuture.supplyAsync(() -> send(events), limits.executor)
+                .whenComplete((r, e) -> inFlightRequests.release());
+        pendingBatches.add(result, window, timestamp);
+      } catch (RuntimeException e) {
+        inFlightRequests.release();
+        throw e;
+      }
+    }
 
-          logWriteFailures(
-              countState,
-              response.getStatusCode(),
-              response.parseAsString(),
-              response.getStatusMessage());
-          flushWriteFailures(
-              events, response.getStatusMessage(), response.getStatusCode(), receiver);
-
-        } else {
-          SUCCESSFUL_WRITE_LATENCY_MS.update(nanosToMillis(System.nanoTime() - startTime));
-          SUCCESS_WRITES.inc(countState.read());
-          VALID_REQUESTS.inc();
-          SUCCESSFUL_WRITE_BATCH_SIZE.update(countState.read());
-          SUCCESSFUL_WRITE_PAYLOAD_SIZE.update(bufferSizeState.read());
-
-          LOG.debug("Successfully wrote {} events", countState.read());
-        }
+    if (pendingBatches != null) {
+      pendingBatches.outputCompleted(receiver, window, timestamp);
+    }
+  }
 
-      } catch (HttpResponseException e) {
-        UNSUCCESSFUL_WRITE_LATENCY_MS.update(nanosToMillis(System.nanoTime() - startTime));
-        FAILED_WRITES.inc(countState.read());
-        int statusCode = e.getStatusCode();
-        if (statusCode >= 400 && statusCode < 500) {
-          INVALID_REQUESTS.inc();
-        } else if (statusCode >= 500 && statusCode < 600) {
-          SERVER_ERROR_REQUESTS.inc();
+  /**
+   * Utility method to POST a batch of events. Runs on the bundle thread or on a background thread,
+   * so it only collects the outcome and leaves metrics and outputs to {@link #handleResult}.
+   *
+   * @param events List of {@link DatadogEvent}s to write
+   * @return the {@link BatchResult} of the POST, for HTTP and connection errors as well.
+   */
+  private BatchResult send(List<DatadogEvent> events) {
+    HttpResponse response = null;
+    GzipPayload payload = null;
+    long compressionMillis = 0;
+    long startTime = System.nanoTime();
+    try {
+      payload = GzipPayload.of(events);
+      compressionMillis = nanosToMillis(System.nanoTime() - startTime);
+      // The write latency only covers the POST.
+      startTime = System.nanoTime();
+      // Important to close this response to avoid connection leak.
+      response = publisher.execute(payload);
+      return new BatchResult(
+          events,
+          payload,
+          compressionMillis,
+          nanosToMillis(System.nanoTime() - startTime),
+          response.isSuccessStatusCode(),
+          response.getStatusCode(),
+          response.getStatusMessage(),
+          response.isSuccessStatusCode() ? null : response.parseAsString());
+
+    } catch (HttpResponseException e) {
+      return new BatchResult(
+          events,
+          payload,
+          compressionMillis,
+          nanosToMillis(System.nanoTime() - startTime),
+          false,
+          e.getStatusCode(),
+          e.getStatusMessage(),
+          e.getContent());
+
+    } catch (IOException ioe) {
+      return new BatchResult(
+          events,
+          payload,
+          compressionMillis,
+          nanosToMillis(System.nanoTime() - startTime),
+          false,
+          null,
+          ioe.getMessage(),
+          ioe.getMessage());
+
+    } finally {
+      // We've observed cases where errors at this point can cause the pipeline to keep retrying
+      // the same events over and over (e.g. from Dataflow Runner's Pub/Sub implementation). Since
+      // the events have either been published or wrapped for error handling, we can safely
+      // ignore this error, though there may or may not be a leak of some type depending on
+      // HttpResponse's implementation. However, any potential leak would still happen if we let
+      // the exception fall through, so this isn't considered a major issue.
+      try {
+        if (response != null) {
+          response.ignore();
         }
+      } catch (IOException e) {
+        LOG.warn(
+            "Error ignoring response from Datadog. Messages should still have published, but there"
+                + " might be a connection leak.",
+            e);
+      }
+    }
+  }
 
-        logWriteFailures(countState, e.getStatusCode(), e.getContent(), e.getStatusMessage());
-        flushWriteFailures(events, e.getStatusMessage(), e.getStatusCode(), receiver);
-
-      } catch (IOException ioe) {
-        UNSUCCESSFUL_WRITE_LATENCY_MS.update(nanosToMillis(System.nanoTime() - startTime));
-        FAILED_WRITES.inc(countState.read());
-        INVALID_REQUESTS.inc();
-
-        logWriteFailures(countState, 0, ioe.getMessage(), null);
-        flushWriteFailures(events, ioe.getMessage(), null, receiver);
-
-      } finally {
-        // States are cleared regardless of write success or failure since we
-        // write failed events to an output PCollection.
-        bufferState.clear();
-        countState.clear();
-        bufferSizeState.clear();
-
-        // We've observed cases where errors at this point can cause the pipeline to keep retrying
-        // the same events over and over (e.g. from Dataflow Runner's Pub/Sub implementation). Since
-        // the events have either been published or wrapped for error handling, we can safely
-        // ignore this error, though there may or may not be a leak of some type depending on
-        // HttpResponse's implementation. However, any potential leak would still happen if we let
-        // the exception fall through, so this isn't considered a major issue.
-        try {
-          if (response != null) {
-            response.ignore();
-          }
-        } catch (IOException e) {
-          LOG.warn(
-              "Error ignoring response from Datadog. Messages should still have published, but there"
-                  + " might be a connection leak.",
-              e);
-        }
+  /**
+   * Utility method to update the metrics of a written batch and un-batch its events if it failed.
+   * Must run on the bundle thread for the metrics to be reported.
+   *
+   * @param result {@link BatchResult} of the batch
+   * @param output Consumer to write {@link DatadogWriteError}s to
+   */
+  private void handleResult(BatchResult result, Consumer<DatadogWriteError> output) {
+    long count = result.events.size();
+    if (result.payload != null) {
+      COMPRESSION_LATENCY_MS.update(result.compressionMillis);
+      COMPRESSED_PAYLOAD_SIZE.update(result.payload.getCompressedSize());
+      if (result.payload.getUncompressedSize() > 0) {
+        COMPRESSED_PAYLOAD_SIZE_PERCENT.update(
+            result.payload.getCompressedSize() * 100 / result.payload.getUncompressedSize());
       }
     }
+
+    if (result.success) {
+      SUCCESSFUL_WRITE_LATENCY_MS.update(result.latencyMillis);
+      SUCCESS_WRITES.inc(count);
+      VALID_REQUESTS.inc();
+      SUCCESSFUL_WRITE_BATCH_SIZE.update(count);
+      SUCCESSFUL_WRITE_PAYLOAD_SIZE.update(result.payload.getUncompressedSize());
+
+      LOG.debug("Successfully wrote {} events", count);
+      return;
+    }
+
+    UNSUCCESSFUL_WRITE_LATENCY_MS.update(result.latencyMillis);
+    FAILED_WRITES.inc(count);
+    Integer statusCode = result.statusCode;
+    PendingBatches.countFailedRequest(statusCode, INVALID_REQUESTS, SERVER_ERROR_REQUESTS);
+
+    logWriteFailures(
+        count, MoreObjects.firstNonNull(statusCode, 0), result.content, result.statusMessage);
+    flushWriteFailures(result.events, result.statusMessage, statusCode, output);
   }
 
   /** Utility method to log write failures. */
-  private void logWriteFailures(
-      @StateId(COUNT_STATE_NAME) ValueState<Long> countState,
-      int statusCode,
-      String content,
-      String statusMessage) {
-    LOG.error("Failed to write {} events", countState.read());
+  private void logWriteFailures(long count, int statusCode, String content, String statusMessage) {
+    LOG.error("Failed to write {} events", count);
     LOG.error(
         "Error writing to Datadog. StatusCode: {}, content: {}, StatusMessage: {}",
         statusCode,
@@ -369,13 +513,13 @@ public abstract class DatadogEventWriter
    * @param events List of {@link DatadogEvent}s to un-batch
    * @param statusMessage Status message to be added to {@link DatadogWriteError}
    * @param statusCode Status code to be added to {@link DatadogWriteError}
-   * @param receiver Receiver to write {@link DatadogWriteError}s to
+   * @param output Consumer to write {@link DatadogWriteError}s to
    */
-  private void flushWriteFailures(
+  private static void flushWriteFailures(
       List<DatadogEvent> events,
       String statusMessage,
       Integer statusCode,
-      OutputReceiver<DatadogWriteError> receiver) {
+      Consumer<DatadogWriteError> output) {
 
     checkNotNull(events, "DatadogEvents cannot be null.");
 
@@ -392,7 +536,7 @@ public abstract class DatadogEventWriter
     for (DatadogEvent event : events) {
       String payload = DatadogEventSerializer.getPayloadString(event);
       DatadogWriteError error = builder.withPayload(payload).build();
-      receiver.output(error);
+      output.accept(error);
     }
   }
 
@@ -421,6 +565,61 @@ public abstract class DatadogEventWriter
     return Math.round(((double) ns) / 1e6);
   }
 
+  @VisibleForTesting
+  WorkerLimits getLimits() {
+    return limits;
+  }
+
+  /** The in-flight limit shared by the writers of a JVM. Guarded by {@code WORKER_LIMITS}. */
+  @VisibleForTesting
+  static class WorkerLimits {
+    private final Semaphore inFlightRequests;
+    private final ExecutorService executor;
+    private int references;
+
+    WorkerLimits(int maxInFlightRequests) {
+      this.inFlightRequests = new Semaphore(maxInFlightRequests);
+      this.executor =
+          Executors.newFixedThreadPool(
+              maxInFlightRequests,
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("datadog-publisher-%d")
+                  .build());
+    }
+  }
+
+  /** The outcome of the POST of a batch of {@link DatadogEvent}s. */
+  private static class BatchResult {
+    private final List<DatadogEvent> events;
+    @Nullable private final GzipPayload payload;
+    private final long compressionMillis;
+    private final long latencyMillis;
+    private final boolean success;
+    @Nullable private final Integer statusCode;
+    @Nullable private final String statusMessage;
+    @Nullable private final String content;
+
+    BatchResult(
+        List<DatadogEvent> events,
+        @Nullable GzipPayload payload,
+        long compressionMillis,
+        long latencyMillis,
+        boolean success,
+        @Nullable Integer statusCode,
+        @Nullable String statusMessage,
+        @Nullable String content) {
+      this.events = events;
+      this.payload = payload;
+      this.compressionMillis = compressionMillis;
+      this.latencyMillis = latencyMillis;
+      this.success = success;
+      this.statusCode = statusCode;
+      this.statusMessage = statusMessage;
+      this.content = content;
+    }
+  }
+
   @AutoValue.Builder
   abstract static class Builder {
 
@@ -440,6 +639,8 @@ public abstract class DatadogEventWriter
 
     abstract Builder setMaxBufferSize(Long maxBufferSize);
 
+    abstract Builder setMaxInFlightRequests(ValueProvider<Integer> maxInFlightRequests);
+
     abstract DatadogEventWriter autoBuild();
 
     /**
@@ -523,6 +724,16 @@ public abstract class DatadogEventWriter
       return setMaxBufferSize(maxBufferSize);
     }
 
+    /**
+     * Method to set the maximum number of batches written concurrently by a worker.
+     *
+     * @param maxInFlightRequests max number of concurrent POST requests.
+     * @return {@link Builder}
+     */
+    public Builder withMaxInFlightRequests(ValueProvider<Integer> maxInFlightRequests) {
+      return setMaxInFlightRequests(maxInFlightRequests);
+    }
+
     /** Build a new {@link DatadogEventWriter} objects based on the configuration. */
     public DatadogEventWriter build() {
       checkNotNull(url(), "url needs to be provided.");
@@ -79,6 +79,9 @@ public class DatadogIO {
     @Nullable
     abstract ValueProvider<Integer> parallelism();
 
+    @Nullable
+    abstract ValueProvider<Integer> maxInFlightRequests();
+
     @Override
     public PCollection<DatadogWriteError> expand(PCollection<DatadogEvent> input) {
 
@@ -88,6 +91,7 @@ public class DatadogIO {
               .withMaxBufferSize(maxBufferSize())
               .withUrl(url())
               .withInputBatchCount(batchCount())
+              .withMaxInFlightRequests(maxInFlightRequests())
               .withApiKey(apiKey());
 
       DatadogEventWriter writer = builder.build();
@@ -120,6 +124,8 @@ public class DatadogIO {
 
       abstract Builder setParallelism(ValueProvider<Integer> parallelism);
 
+      abstract Builder setMaxInFlightRequests(ValueProvider<Integer> maxInFlightRequests);
+
       abstract Write autoBuild();
 
       /**
@@ -222,6 +228,33 @@ public class DatadogIO {
         return setParallelism(ValueProvider.StaticValueProvider.of(parallelism));
       }
 
+      /**
+       * Method to set the maximum number of requests in flight per worker.
+       *
+       * @param maxInFlightRequests for controlling the number of concurrent POST requests.
+       * @return {@link Builder}
+       */
+      public Builder withMaxInFlightRequests(ValueProvider<Integer> maxInFlightRequests) {
+        checkArgument(
+            maxInFlightRequests != null,
+            "withMaxInFlightRequests(maxInFlightRequests) called with null input.");
+        return setMaxInFlightRequests(maxInFlightRequests);
+      }
+
+      /**
+       * Same as {@link Builder#withMaxInFlightRequests(ValueProvider)} but without {@link
+       * ValueProvider}.
+       *
+       * @param maxInFlightRequests for controlling the number of concurrent POST requests.
+       * @return {@link Builder}
+       */
+      public Builder withMaxInFlightRequests(Integer maxInFlightRequests) {
+        checkArgument(
+            maxInFlightRequests != null,
+            "withMaxInFlightRequests(maxInFlightRequests) called with null input.");
+        return setMaxInFlightRequests(ValueProvider.StaticValueProvider.of(maxInFlightRequests));
+      }
+
       public Write build() {
         checkNotNull(url(), "Logs API url is required.");
         checkNotNull(apiKey(), "API key is required.");
@@ -0,0 +1,453 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.splunk;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.util.BackOff;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link AsyncHttpEventPublisher} writes batches of {@link SplunkEvent}s to a list of Splunk HEC
+ * endpoints without blocking until each POST completes.
+ *
+ * <p>Up to {@code maxInFlightBatches} POSTs run concurrently, and {@link #publish(List)} blocks
+ * while the payloads of the batches not yet completed exceed {@code maxInFlightBytes}. These limits
+ * are shared by all the publishers of the JVM writing to the same endpoints with the same limits,
+ * so they bound a worker rather than each {@link SplunkEventWriter} instance.
+ *
+ * <p>Each batch is sent to the healthy endpoint with the fewest in-flight batches weighted by its
+ * average latency. An endpoint that fails with a server or connection error is avoided for a
+ * back-off period which doubles with each consecutive failure, and the batch is retried on another
+ * healthy endpoint. Once it has failed on every healthy endpoint, the batch waits for the
+ * back-off of the endpoint publishers and is tried again, until the back-off gives up and its
+ * failure is returned. The {@link HttpEventPublisher}s of the endpoints
+ * should be built with {@link HttpEventPublisher.Builder#withRetryFailedRequests(Boolean)} set to
+ * false, so that a failing endpoint does not hold a POST thread with retries of its own.
+ */
+public class AsyncHttpEventPublisher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AsyncHttpEventPublisher.class);
+
+  @VisibleForTesting static final long MIN_UNHEALTHY_MILLIS = 1_000;
+
+  @VisibleForTesting static final long MAX_UNHEALTHY_MILLIS = 60_000;
+
+  private static final double LATENCY_AVERAGE_WEIGHT = 0.2;
+
+  private static final int TOO_MANY_REQUESTS_STATUS_CODE = 429;
+
+  /** The limits of the JVM, by endpoints and limit values. Guarded by itself. */
+  private static final Map<String, WorkerLimits> WORKER_LIMITS = new HashMap<>();
+
+  private final List<Endpoint> endpoints;
+  private final int maxInFlightBytes;
+  private final String limitsKey;
+  private final WorkerLimits limits;
+  private boolean closed;
+
+  /**
+   * Creates a publisher writing to the given endpoints.
+   *
+   * @param publishers {@link HttpEventPublisher} of each endpoint
+   * @param urls url of each endpoint, used in logs and metrics
+   * @param maxInFlightBatches max number of concurrent POSTs
+   * @param maxInFlightBytes max size of the payloads of the batches not yet completed
+   */
+  public AsyncHttpEventPublisher(
+      List<HttpEventPublisher> publishers,
+      List<String> urls,
+      int maxInFlightBatches,
+      int maxInFlightBytes) {
+    checkArgument(!publishers.isEmpty(), "At least one HEC endpoint is required.");
+    checkArgument(publishers.size() == urls.size(), "A url is required for each publisher.");
+    checkArgument(maxInFlightBatches > 0, "maxInFlightBatches must be greater than 0.");
+    checkArgument(maxInFlightBytes > 0, "maxInFlightBytes must be greater than 0.");
+
+    this.endpoints = new ArrayList<>();
+    for (int i = 0; i < publishers.size(); i++) {
+      endpoints.add(new Endpoint(urls.get(i), publishers.get(i)));
+    }
+    this.maxInFlightBytes = maxInFlightBytes;
+    this.limitsKey = String.join(",", urls) + "/" + maxInFlightBatches + "/" + maxInFlightBytes;
+    synchronized (WORKER_LIMITS) {
+      WorkerLimits workerLimits = WORKER_LIMITS.get(limitsKey);
+      if (workerLimits == null) {
+        workerLimits = new WorkerLimits(maxInFlightBatches, maxInFlightBytes);
+        WORKER_LIMITS.put(limitsKey, workerLimits);
+      }
+      workerLimits.references++;
+      this.limits = workerLimits;
+    }
+  }
+
+  /**
+   * Starts a POST of a batch of {@link SplunkEvent}s to one of the endpoints, waiting first for
+   * enough in-flight batches to complete if {@code maxInFlightBytes} would be exceeded.
+   *
+   * @param events List of {@link SplunkEvent}s
+   * @return the {@link PublishResult} of the POST, which never completes exceptionally for HTTP and
+   *     connection errors.
+   */
+  public Future<PublishResult> publish(List<SplunkEvent> events) throws InterruptedException {
+    byte[] payload =
+        endpoints.get(0).publisher.getStringPayload(events).getBytes(StandardCharsets.UTF_8);
+    int permits = Math.min(payload.length, maxInFlightBytes);
+    limits.inFlightBytes.acquire(permits);
+
+    try {
+      Endpoint endpoint = selectEndpoint(System.currentTimeMillis());
+      return CompletableFuture.supplyAsync(
+              () -> sendWithRetry(endpoint, events, payload), limits.executor)
+          .whenComplete((result, e) -> limits.inFlightBytes.release(permits));
+    } catch (RuntimeException e) {
+      limits.inFlightBytes.release(permits);
+      throw e;
+    }
+  }
+
+  /**
+   * Releases the resources of all the endpoints, and stops the POST threads once no other
+   * publisher of the JVM uses them.
+   */
+  public void close() throws IOException {
+    synchronized (WORKER_LIMITS) {
+      if (!closed) {
+        closed = true;
+        if (--limits.references == 0) {
+          WORKER_LIMITS.remove(limitsKey);
+          limits.executor.shutdownNow();
+        }
+      }
+    }
+    for (Endpoint endpoint : endpoints) {
+      endpoint.publisher.close();
+    }
+  }
+
+  @VisibleForTesting
+  WorkerLimits getLimits() {
+    return limits;
+  }
+
+  /**
+   * Selects the endpoint of the next batch and counts the batch as in flight to it. When no
+   * endpoint is healthy, the one which becomes healthy first is selected.
+   */
+  @VisibleForTesting
+  synchronized Endpoint selectEndpoint(long nowMillis) {
+    Endpoint selected = null;
+    for (Endpoint endpoint : endpoints) {
+      if (endpoint.unhealthyUntilMillis > nowMillis) {
+        continue;
+      }
+      if (selected == null || endpoint.getLoad() < selected.getLoad()) {
+        selected = endpoint;
+      }
+    }
+    if (selected == null) {
+      for (Endpoint endpoint : endpoints) {
+        if (selected == null || endpoint.unhealthyUntilMillis < selected.unhealthyUntilMillis) {
+          selected = endpoint;
+        }
+      }
+    }
+    selected.inFlightBatches++;
+    return selected;
+  }
+
+  /**
+   * Selects a healthy endpoint not in {@code excluded} to retry a batch on and counts the batch as
+   * in flight to it, or returns null if there is none.
+   */
+  @VisibleForTesting
+  @Nullable
+  synchronized Endpoint selectRetryEndpoint(long nowMillis, Set<Endpoint> excluded) {
+    Endpoint selected = null;
+    for (Endpoint endpoint : endpoints) {
+      if (excluded.contains(endpoint) || endpoint.unhealthyUntilMillis > nowMillis) {
+        continue;
+      }
+      if (selected == null || endpoint.getLoad() < selected.getLoad()) {
+        selected = endpoint;
+      }
+    }
+    if (selected != null) {
+      selected.inFlightBatches++;
+    }
+    return selected;
+  }
+
+  /** Records the outcome of a batch sent to {@code endpoint}. */
+  @VisibleForTesting
+  synchronized void onCompleted(
+      Endpoint endpoint, boolean endpointFailure, long latencyMillis, long nowMillis) {
+    endpoint.inFlightBatches--;
+    endpoint.averageLatencyMillis +=
+        LATENCY_AVERAGE_WEIGHT * (latencyMillis - endpoint.averageLatencyMillis);
+    if (!endpointFailure) {
+      endpoint.consecutiveFailures = 0;
+      endpoint.unhealthyUntilMillis = 0;
+      return;
+    }
+    endpoint.consecutiveFailures++;
+    long unhealthyMillis =
+        Math.min(
+            MAX_UNHEALTHY_MILLIS,
+            MIN_UNHEALTHY_MILLIS << Math.min(endpoint.consecutiveFailures - 1, 16));
+    endpoint.unhealthyUntilMillis = nowMillis + unhealthyMillis;
+    LOG.warn(
+        "HEC endpoint {} failed {} times in a row, avoiding it for {} ms",
+        endpoint.url,
+        endpoint.consecutiveFailures,
+        unhealthyMillis);
+  }
+
+  /**
+   * Sends a batch to {@code endpoint}, then to the other healthy endpoints in turn as long as it
+   * fails on the endpoint. Once no healthy endpoint is left to try, waits for the back-off and
+   * starts over with all the endpoints. Returns the last result.
+   */
+  private PublishResult sendWithRetry(Endpoint endpoint, List<SplunkEvent> events, byte[] payload) {
+    BackOff backOff = endpoint.publisher.getConfiguredBackOff();
+    Set<Endpoint> tried = new HashSet<>();
+    PublishResult result = send(endpoint, events, payload);
+    tried.add(endpoint);
+    while (isEndpointFailure(result)) {
+      Endpoint retryEndpoint = selectRetryEndpoint(System.currentTimeMillis(), tried);
+      if (retryEndpoint == null) {
+        if (!waitForBackOff(backOff)) {
+          break;
+        }
+        tried.clear();
+        retryEndpoint = selectEndpoint(System.currentTimeMillis());
+      }
+      LOG.info("Retrying batch which failed on {} on {}", result.getUrl(), retryEndpoint.url);
+      result = send(retryEndpoint, events, payload);
+      tried.add(retryEndpoint);
+    }
+    return result;
+  }
+
+  private PublishResult send(Endpoint endpoint, List<SplunkEvent> events, byte[] payload) {
+    HttpResponse response = null;
+    PublishResult result;
+    long startTime = System.nanoTime();
+    try {
+      response = endpoint.publisher.execute(payload);
+      result =
+          new PublishResult(
+              endpoint.url,
+              events,
+              nanosToMillis(System.nanoTime() - startTime),
+              response.isSuccessStatusCode(),
+              response.getStatusCode(),
+              response.getStatusMessage(),
+              response.isSuccessStatusCode() ? null : response.parseAsString());
+    } catch (HttpResponseException e) {
+      result =
+          new PublishResult(
+              endpoint.url,
+              events,
+              nanosToMillis(System.nanoTime() - startTime),
+              false,
+              e.getStatusCode(),
+              e.getStatusMessage(),
+              e.getContent());
+    } catch (IOException ioe) {
+      result =
+          new PublishResult(
+              endpoint.url,
+              events,
+              nanosToMillis(System.nanoTime() - startTime),
+              false,
+              null,
+              ioe.toString(),
+              ioe.toString());
+    } finally {
+      // Important to close the response to avoid connection leak.
+      try {
+        if (response != null) {
+          response.ignore();
+        }
+      } catch (IOException e) {
+        LOG.warn(
+            "Error ignoring response from Splunk. Messages should still have published, but there"
+                + " might be a connection leak.",
+            e);
+      }
+    }
+    onCompleted(
+        endpoint, isEndpointFailure(result), result.getLatencyMillis(), System.currentTimeMillis());
+    return result;
+  }
+
+  /** Waits for the next back-off period, returns false if the back-off gave up. */
+  private static boolean waitForBackOff(BackOff backOff) {
+    try {
+      long backOffMillis = backOff.nextBackOffMillis();
+      if (backOffMillis == BackOff.STOP) {
+        return false;
+      }
+      Thread.sleep(backOffMillis);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Server errors, throttling and connection errors count against the health of the endpoint, other
+   * client errors are caused by the request and would fail on any endpoint.
+   */
+  private static boolean isEndpointFailure(PublishResult result) {
+    if (result.isSuccess()) {
+      return false;
+    }
+    Integer statusCode = result.getStatusCode();
+    return statusCode == null || statusCode >= 500 || statusCode == TOO_MANY_REQUESTS_STATUS_CODE;
+  }
+
+  private static long nanosToMillis(long ns) {
+    return Math.round(((double) ns) / 1e6);
+  }
+
+  /** The in-flight limits shared by the publishers of a JVM. Guarded by {@code WORKER_LIMITS}. */
+  @VisibleForTesting
+  static class WorkerLimits {
+    private final Semaphore inFlightBytes;
+    private final ExecutorService executor;
+    private int references;
+
+    WorkerLimits(int maxInFlightBatches, int maxInFlightBytes) {
+      this.inFlightBytes = new Semaphore(maxInFlightBytes);
+      this.executor =
+          Executors.newFixedThreadPool(
+              maxInFlightBatches,
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("splunk-hec-publisher-%d")
+                  .build());
+    }
+  }
+
+  /** A HEC endpoint and its health. Guarded by the {@link AsyncHttpEventPublisher}. */
+  @VisibleForTesting
+  static class Endpoint {
+    private final String url;
+    private final HttpEventPublisher publisher;
+    private int inFlightBatches;
+    private double averageLatencyMillis;
+    private int consecutiveFailures;
+    private long unhealthyUntilMillis;
+
+    Endpoint(String url, HttpEventPublisher publisher) {
+      this.url = url;
+      this.publisher = publisher;
+    }
+
+    String getUrl() {
+      return url;
+    }
+
+    private double getLoad() {
+      return (inFlightBatches + 1) * Math.max(1, averageLatencyMillis);
+    }
+  }
+
+  /** The outcome of the POST of a batch of {@link SplunkEvent}s. */
+  public static class PublishResult {
+    private final String url;
+    private final List<SplunkEvent> events;
+    private final long latencyMillis;
+    private final boolean success;
+    @Nullable private final Integer statusCode;
+    @Nullable private final String statusMessage;
+    @Nullable private final String content;
+
+    PublishResult(
+        String url,
+        List<SplunkEvent> events,
+        long latencyMillis,
+        boolean success,
+        @Nullable Integer statusCode,
+        @Nullable String statusMessage,
+        @Nullable String content) {
+      this.url = url;
+      this.events = events;
+      this.latencyMillis = latencyMillis;
+      this.success = success;
+      this.statusCode = statusCode;
+      this.statusMessage = statusMessage;
+      this.content = content;
+    }
+
+    /** Returns the url of the endpoint the batch was sent to. */
+    public String getUrl() {
+      return url;
+    }
+
+    public List<SplunkEvent> getEvents() {
+      return events;
+    }
+
+    public long getLatencyMillis() {
+      return latencyMillis;
+    }
+
+    public boolean isSuccess() {
+      return success;
+    }
+
+    /** Returns the HTTP status code, or null if the POST failed without a response. */
+    @Nullable
+    public Integer getStatusCode() {
+      return statusCode;
+    }
+
+    @Nullable
+    public String getStatusMessage() {
+      return statusMessage;
+    }
+
+    @Nullable
+    public String getContent() {
+      return content;
+    }
+  }
+}
@@ -110,6 +110,12 @@ public abstract class HttpEventPublisher {
   @Nullable
   abstract Integer maxElapsedMillis();
 
+  @Nullable
+  abstract Integer maxConnections();
+
+  @Nullable
+  abstract Boolean retryFailedRequests();
+
   abstract Boolean disableCertificateValidation();
 
   abstract Boolean enableGzipHttpCompression();
@@ -122,22 +128,38 @@ public abstract class HttpEventPublisher {
    * @return {@link HttpResponse} for the POST.
    */
   public HttpResponse execute(List<SplunkEvent> events) throws IOException {
+    return execute(getContent(events));
+  }
 
-    HttpContent content = getContent(events);
+  /**
+   * Same as {@link HttpEventPublisher#execute(List)} but with a payload already built by {@link
+   * HttpEventPublisher#getStringPayload(List)} and encoded in UTF-8.
+   *
+   * @param payload UTF-8 encoded payload of the POST.
+   */
+  HttpResponse execute(byte[] payload) throws IOException {
+    return execute(new ByteArrayContent(CONTENT_TYPE, payload));
+  }
+
+  private HttpResponse execute(HttpContent content) throws IOException {
     HttpRequest request = requestFactory().buildPostRequest(genericUrl(), content);
 
     if (enableGzipHttpCompression()) {
       request.setEncoding(new GZipEncoding());
     }
 
-    HttpBackOffUnsuccessfulResponseHandler responseHandler =
-        new HttpBackOffUnsuccessfulResponseHandler(getConfiguredBackOff());
-    responseHandler.setBackOffRequired(BackOffRequired.ON_SERVER_ERROR);
-    request.setUnsuccessfulResponseHandler(responseHandler);
-
-    HttpIOExceptionHandler ioExceptionHandler =
-        new HttpBackOffIOExceptionHandler(getConfiguredBackOff());
-    request.setIOExceptionHandler(ioExceptionHandler);
+    if (retryFailedRequests()) {
+      HttpBackOffUnsuccessfulResponseHandler responseHandler =
+          new HttpBackOffUnsuccessfulResponseHandler(getConfiguredBackOff());
+      responseHandler.setBackOffRequired(BackOffRequired.ON_SERVER_ERROR);
+      request.setUnsuccessfulResponseHandler(responseHandler);
+
+      HttpIOExceptionHandler ioExceptionHandler =
+          new HttpBackOffIOExceptionHandler(getConfiguredBackOff());
+      request.setIOExceptionHandler(ioExceptionHandler);
+    } else {
+      request.setNumberOfRetries(0);
+    }
 
     setHeaders(request, token());
 
@@ -239,6 +261,14 @@ public abstract class HttpEventPublisher {
 
     abstract Integer maxElapsedMillis();
 
+    abstract Builder setMaxConnections(Integer maxConnections);
+
+    abstract Integer maxConnections();
+
+    abstract Builder setRetryFailedRequests(Boolean retryFailedRequests);
+
+    abstract Boolean retryFailedRequests();
+
     abstract HttpEventPublisher autoBuild();
 
     /**
@@ -314,6 +344,33 @@ public abstract class HttpEventPublisher {
       return setMaxElapsedMillis(maxElapsedMillis);
     }
 
+    /**
+     * Method to set the maximum number of parallel connections to the HEC endpoint. Defaults to
+     * {@value DEFAULT_MAX_CONNECTIONS}.
+     *
+     * @param maxConnections max number of parallel connections.
+     * @return {@link Builder}
+     */
+    public Builder withMaxConnections(Integer maxConnections) {
+      checkNotNull(maxConnections, "withMaxConnections(maxConnections) called with null input.");
+      return setMaxConnections(maxConnections);
+    }
+
+    /**
+     * Method to set whether POSTs failing with a server or connection error are retried with the
+     * {@link ExponentialBackOff} of the publisher. Defaults to true. Callers which retry failed
+     * POSTs themselves, such as {@link AsyncHttpEventPublisher}, turn this off.
+     *
+     * @param retryFailedRequests whether failed POSTs are retried.
+     * @return {@link Builder}
+     */
+    public Builder withRetryFailedRequests(Boolean retryFailedRequests) {
+      checkNotNull(
+          retryFailedRequests,
+          "withRetryFailedRequests(retryFailedRequests) called with null input.");
+      return setRetryFailedRequests(retryFailedRequests);
+    }
+
     /**
      * Validates and builds a {@link HttpEventPublisher} object.
      *
@@ -341,9 +398,16 @@ public abstract class HttpEventPublisher {
         setMaxElapsedMillis(ExponentialBackOff.DEFAULT_MAX_ELAPSED_TIME_MILLIS);
       }
 
+      if (maxConnections() == null) {
+        setMaxConnections(DEFAULT_MAX_CONNECTIONS);
+      }
+
+      if (retryFailedRequests() == null) {
+        setRetryFailedRequests(true);
+      }
+
       CloseableHttpClient httpClient =
-          getHttpClient(
-              DEFAULT_MAX_CONNECTIONS, disableCertificateValidation(), rootCaCertificate());
+          getHttpClient(maxConnections(), disableCertificateValidation(), rootCaCertificate());
 
       setTransport(new ApacheHttpTransport(httpClient));
       setRequestFactory(transport().createRequestFactory());
@@ -410,6 +474,7 @@ public abstract class HttpEventPublisher {
       }
 
       builder.setMaxConnTotal(maxConnections);
+      builder.setMaxConnPerRoute(maxConnections);
       builder.setDefaultRequestConfig(
           RequestConfig.custom().setCookieSpec(CookieSpecs.STANDARD).build());
 
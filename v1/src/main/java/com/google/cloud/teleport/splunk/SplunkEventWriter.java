@@ -21,9 +21,12 @@ import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Pr
 import com.google.api.client.http.HttpResponse;
 import com.google.api.client.http.HttpResponseException;
 import com.google.auto.value.AutoValue;
+import com.google.cloud.teleport.splunk.AsyncHttpEventPublisher.PublishResult;
 import com.google.cloud.teleport.util.GCSUtils;
+import com.google.cloud.teleport.util.PendingBatches;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
 import com.google.common.net.InetAddresses;
 import com.google.common.net.InternetDomainName;
@@ -34,7 +37,12 @@ import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.Nullable;
@@ -54,14 +62,24 @@ import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.values.KV;
 import org.joda.time.Duration;
+import org.joda.time.Instant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** A {@link DoFn} to write {@link SplunkEvent}s to Splunk's HEC endpoint. */
+/**
+ * A {@link DoFn} to write {@link SplunkEvent}s to Splunk's HEC endpoint.
+ *
+ * <p>The url may be a comma separated list of HEC endpoints. With more than one endpoint, or more
+ * than one in-flight batch, batches are written by an {@link AsyncHttpEventPublisher}: a flush
+ * starts the POST of the batch and returns, the failures of completed batches are output by the
+ * following elements, and the bundle finishes once all its batches have completed.
+ */
 @AutoValue
 public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, SplunkWriteError> {
 
   private static final Integer DEFAULT_BATCH_COUNT = 10;
+  private static final Integer DEFAULT_MAX_IN_FLIGHT_BATCHES = 1;
+  private static final Integer DEFAULT_MAX_IN_FLIGHT_BYTES = 64 * 1024 * 1024;
   private static final Boolean DEFAULT_DISABLE_CERTIFICATE_VALIDATION = false;
   private static final Boolean DEFAULT_ENABLE_BATCH_LOGS = true;
   private static final Boolean DEFAULT_ENABLE_GZIP_HTTP_COMPRESSION = true;
@@ -89,6 +107,10 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
   private static final String COUNT_STATE_NAME = "count";
   private static final String TIME_ID_NAME = "expiry";
   private static final Pattern URL_PATTERN = Pattern.compile("^http(s?)://([^:]+)(:[0-9]+)?$");
+  private static final Pattern URL_SCHEME_PATTERN = Pattern.compile("^https?://");
+  private static final Pattern LABEL_SEPARATOR_PATTERN = Pattern.compile("[^A-Za-z0-9]+");
+  private static final String ENDPOINT_METRIC_PREFIX = "endpoint_";
+  private static final Splitter URL_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
 
   @VisibleForTesting
   protected static final String INVALID_URL_FORMAT_MESSAGE =
@@ -108,7 +130,12 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
   private Boolean disableValidation;
   private Boolean enableBatchLogs;
   private Boolean enableGzipHttpCompression;
+  private Integer maxInFlightBatches;
+  private Integer maxInFlightBytes;
   private HttpEventPublisher publisher;
+  private AsyncHttpEventPublisher asyncPublisher;
+  private transient PendingBatches<PublishResult, SplunkWriteError> pendingBatches;
+  private transient Map<String, EndpointMetrics> endpointMetrics;
 
   private static final Gson GSON =
       new GsonBuilder().setFieldNamingStrategy(f -> f.getName().toLowerCase()).create();
@@ -138,6 +165,12 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
   @Nullable
   abstract ValueProvider<Integer> inputBatchCount();
 
+  @Nullable
+  abstract ValueProvider<Integer> maxInFlightBatches();
+
+  @Nullable
+  abstract ValueProvider<Integer> maxInFlightBytes();
+
   @Setup
   public void setup() {
 
@@ -189,20 +222,49 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
       LOG.info("Disable certificate validation set to: {}", disableValidation);
     }
 
-    try {
-      HttpEventPublisher.Builder builder =
-          HttpEventPublisher.newBuilder()
-              .withUrl(url().get())
-              .withToken(token().get())
-              .withDisableCertificateValidation(disableValidation)
-              .withEnableGzipHttpCompression(enableGzipHttpCompression);
+    if (maxInFlightBatches == null) {
 
+      if (maxInFlightBatches() != null) {
+        maxInFlightBatches = maxInFlightBatches().get();
+      }
+
+      maxInFlightBatches =
+          MoreObjects.firstNonNull(maxInFlightBatches, DEFAULT_MAX_IN_FLIGHT_BATCHES);
+      LOG.info("Max in-flight batches set to: {}", maxInFlightBatches);
+    }
+
+    if (maxInFlightBytes == null) {
+
+      if (maxInFlightBytes() != null) {
+        maxInFlightBytes = maxInFlightBytes().get();
+      }
+
+      maxInFlightBytes = MoreObjects.firstNonNull(maxInFlightBytes, DEFAULT_MAX_IN_FLIGHT_BYTES);
+      LOG.info("Max in-flight bytes set to: {}", maxInFlightBytes);
+    }
+
+    try {
+      List<String> urls = URL_SPLITTER.splitToList(url().get());
+      byte[] rootCaCertificate = null;
       if (rootCaCertificatePath() != null && rootCaCertificatePath().get() != null) {
-        builder.withRootCaCertificate(GCSUtils.getGcsFileAsBytes(rootCaCertificatePath().get()));
+        rootCaCertificate = GCSUtils.getGcsFileAsBytes(rootCaCertificatePath().get());
       }
 
-      publisher = builder.build();
-      LOG.info("Successfully created HttpEventPublisher");
+      if (urls.size() == 1 && maxInFlightBatches == 1) {
+        publisher = buildPublisher(urls.get(0), rootCaCertificate, true);
+        LOG.info("Successfully created HttpEventPublisher");
+      } else {
+        // The AsyncHttpEventPublisher retries failed batches on the other endpoints itself.
+        List<HttpEventPublisher> publishers = new ArrayList<>();
+        for (String url : urls) {
+          publishers.add(buildPublisher(url, rootCaCertificate, false));
+        }
+        asyncPublisher =
+            new AsyncHttpEventPublisher(publishers, urls, maxInFlightBatches, maxInFlightBytes);
+        pendingBatches = new PendingBatches<>(this::handleResult);
+        endpointMetrics = new HashMap<>();
+        LOG.info("Successfully created AsyncHttpEventPublisher for {} endpoints", urls.size());
+      }
 
     } catch (CertificateException
         | NoSuchAlgorithmException
@@ -214,15 +276,39 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
     }
   }
 
+  private HttpEventPublisher buildPublisher(
+      String url, @Nullable byte[] rootCaCertificate, boolean retryFailedRequests)
+      throws CertificateException,
+          NoSuchAlgorithmException,
+          KeyStoreException,
+          KeyManagementException,
+          IOException {
+    HttpEventPublisher.Builder builder =
+        HttpEventPublisher.newBuilder()
+            .withUrl(url)
+            .withToken(token().get())
+            .withDisableCertificateValidation(disableValidation)
+            .withEnableGzipHttpCompression(enableGzipHttpCompression)
+            .withMaxConnections(maxInFlightBatches)
+            .withRetryFailedRequests(retryFailedRequests);
+
+    if (rootCaCertificate != null) {
+      builder.withRootCaCertificate(rootCaCertificate);
+    }
+
+    return builder.build();
+  }
+
   @ProcessElement
   public void processElement(
       @Element KV<Integer, SplunkEvent> input,
       OutputReceiver<SplunkWriteError> receiver,
       BoundedWindow window,
+      @Timestamp Instant timestamp,
       @StateId(BUFFER_STATE_NAME) BagState<SplunkEvent> bufferState,
       @StateId(COUNT_STATE_NAME) ValueState<Long> countState,
       @TimerId(TIME_ID_NAME) Timer timer)
-      throws IOException {
+      throws IOException, InterruptedException {
 
     Long count = MoreObjects.<Long>firstNonNull(countState.read(), 0L);
     SplunkEvent event = input.getValue();
@@ -236,27 +322,48 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
       if (enableBatchLogs) {
         LOG.info("Flushing batch of {} events", count);
       }
-      flush(receiver, bufferState, countState);
+      flush(receiver, window, timestamp, bufferState, countState);
+    } else if (asyncPublisher != null) {
+      pendingBatches.outputCompleted(receiver, window, timestamp);
     }
   }
 
   @OnTimer(TIME_ID_NAME)
   public void onExpiry(
       OutputReceiver<SplunkWriteError> receiver,
+      BoundedWindow window,
+      @Timestamp Instant timestamp,
       @StateId(BUFFER_STATE_NAME) BagState<SplunkEvent> bufferState,
       @StateId(COUNT_STATE_NAME) ValueState<Long> countState)
-      throws IOException {
+      throws IOException, InterruptedException {
 
     if (MoreObjects.<Long>firstNonNull(countState.read(), 0L) > 0) {
       if (enableBatchLogs) {
         LOG.info("Flushing window with {} events", countState.read());
       }
-      flush(receiver, bufferState, countState);
+      flush(receiver, window, timestamp, bufferState, countState);
+    }
+  }
+
+  @FinishBundle
+  public void finishBundle(FinishBundleContext context)
+      throws InterruptedException, ExecutionException {
+    if (pendingBatches != null) {
+      pendingBatches.finish(context);
     }
   }
 
   @Teardown
   public void tearDown() {
+    if (this.asyncPublisher != null) {
+      try {
+        this.asyncPublisher.close();
+        LOG.info("Successfully closed AsyncHttpEventPublisher");
+
+      } catch (IOException e) {
+        LOG.warn("Received exception while closing AsyncHttpEventPublisher: {}", e.getMessage());
+      }
+    }
     if (this.publisher != null) {
       try {
         this.publisher.close();
@@ -275,9 +382,24 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
    */
   private void flush(
       OutputReceiver<SplunkWriteError> receiver,
+      BoundedWindow window,
+      Instant timestamp,
       @StateId(BUFFER_STATE_NAME) BagState<SplunkEvent> bufferState,
       @StateId(COUNT_STATE_NAME) ValueState<Long> countState)
-      throws IOException {
+      throws IOException, InterruptedException {
+
+    if (asyncPublisher != null) {
+      if (!bufferState.isEmpty().read()) {
+        List<SplunkEvent> events = Lists.newArrayList(bufferState.read());
+        // States are cleared once the batch is handed to the publisher since its failed events
+        // are written to the output PCollection before the bundle finishes.
+        bufferState.clear();
+        countState.clear();
+        pendingBatches.add(asyncPublisher.publish(events), window, timestamp);
+      }
+      pendingBatches.outputCompleted(receiver, window, timestamp);
+      return;
+    }
 
     if (!bufferState.isEmpty().read()) {
 
@@ -298,12 +420,12 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
           }
 
           logWriteFailures(
-              countState,
+              countState.read(),
               response.getStatusCode(),
               response.parseAsString(),
               response.getStatusMessage());
           flushWriteFailures(
-              events, response.getStatusMessage(), response.getStatusCode(), receiver);
+              events, response.getStatusMessage(), response.getStatusCode(), receiver::output);
 
         } else {
           SUCCESSFUL_WRITE_LATENCY_MS.update(nanosToMillis(System.nanoTime() - startTime));
@@ -326,16 +448,17 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
           SERVER_ERROR_REQUESTS.inc();
         }
 
-        logWriteFailures(countState, e.getStatusCode(), e.getContent(), e.getStatusMessage());
-        flushWriteFailures(events, e.getStatusMessage(), e.getStatusCode(), receiver);
+        logWriteFailures(
+            countState.read(), e.getStatusCode(), e.getContent(), e.getStatusMessage());
+        flushWriteFailures(events, e.getStatusMessage(), e.getStatusCode(), receiver::output);
 
       } catch (IOException ioe) {
         UNSUCCESSFUL_WRITE_LATENCY_MS.update(nanosToMillis(System.nanoTime() - startTime));
         FAILED_WRITES.inc(countState.read());
         INVALID_REQUESTS.inc();
 
-        logWriteFailures(countState, 0, ioe.toString(), null);
-        flushWriteFailures(events, ioe.toString(), null, receiver);
+        logWriteFailures(countState.read(), 0, ioe.toString(), null);
+        flushWriteFailures(events, ioe.toString(), null, receiver::output);
 
       } finally {
         // States are cleared regardless of write success or failure since we
@@ -363,14 +486,49 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
     }
   }
 
+  /**
+   * Utility method to update the metrics of a batch written by the {@link AsyncHttpEventPublisher}
+   * and un-batch its events if it failed.
+   *
+   * @param result {@link PublishResult} of the batch
+   * @param output Consumer to write {@link SplunkWriteError}s to
+   */
+  private void handleResult(PublishResult result, Consumer<SplunkWriteError> output) {
+    long count = result.getEvents().size();
+    EndpointMetrics metrics =
+        endpointMetrics.computeIfAbsent(result.getUrl(), EndpointMetrics::new);
+    metrics.writeLatencyMs.update(result.getLatencyMillis());
+
+    if (result.isSuccess()) {
+      SUCCESSFUL_WRITE_LATENCY_MS.update(result.getLatencyMillis());
+      SUCCESS_WRITES.inc(count);
+      VALID_REQUESTS.inc();
+      SUCCESSFUL_WRITE_BATCH_SIZE.update(count);
+
+      if (enableBatchLogs) {
+        LOG.info("Successfully wrote {} events to {}", count, result.getUrl());
+      }
+      return;
+    }
+
+    UNSUCCESSFUL_WRITE_LATENCY_MS.update(result.getLatencyMillis());
+    FAILED_WRITES.inc(count);
+    metrics.failedRequests.inc();
+    Integer statusCode = result.getStatusCode();
+    PendingBatches.countFailedRequest(statusCode, INVALID_REQUESTS, SERVER_ERROR_REQUESTS);
+
+    logWriteFailures(
+        count,
+        MoreObjects.firstNonNull(statusCode, 0),
+        result.getContent(),
+        result.getStatusMessage());
+    flushWriteFailures(result.getEvents(), result.getStatusMessage(), statusCode, output);
+  }
+
   /** Utility method to log write failures. */
-  private void logWriteFailures(
-      @StateId(COUNT_STATE_NAME) ValueState<Long> countState,
-      int statusCode,
-      String content,
-      String statusMessage) {
+  private void logWriteFailures(long count, int statusCode, String content, String statusMessage) {
     if (enableBatchLogs) {
-      LOG.error("Failed to write {} events", countState.read());
+      LOG.error("Failed to write {} events", count);
     }
     LOG.error(
         "Error writing to Splunk. StatusCode: {}, content: {}, StatusMessage: {}",
@@ -385,13 +543,13 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
    * @param events List of {@link SplunkEvent}s to un-batch
    * @param statusMessage Status message to be added to {@link SplunkWriteError}
    * @param statusCode Status code to be added to {@link SplunkWriteError}
-   * @param receiver Receiver to write {@link SplunkWriteError}s to
+   * @param output Consumer to write {@link SplunkWriteError}s to
    */
   private static void flushWriteFailures(
       List<SplunkEvent> events,
       String statusMessage,
       Integer statusCode,
-      OutputReceiver<SplunkWriteError> receiver) {
+      Consumer<SplunkWriteError> output) {
 
     checkNotNull(events, "SplunkEvents cannot be null.");
 
@@ -409,7 +567,7 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
       String payload = GSON.toJson(event);
       SplunkWriteError error = builder.withPayload(payload).build();
 
-      receiver.output(error);
+      output.accept(error);
     }
   }
 
@@ -420,12 +578,21 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
    * @return true if the URL is valid
    */
   private static boolean isValidUrlFormat(String url) {
-    Matcher matcher = URL_PATTERN.matcher(url);
-    if (matcher.find()) {
+    List<String> urls = URL_SPLITTER.splitToList(url);
+    if (urls.isEmpty()) {
+      return false;
+    }
+    for (String endpointUrl : urls) {
+      Matcher matcher = URL_PATTERN.matcher(endpointUrl);
+      if (!matcher.find()) {
+        return false;
+      }
       String host = matcher.group(2);
-      return InetAddresses.isInetAddress(host) || InternetDomainName.isValid(host);
+      if (!InetAddresses.isInetAddress(host) && !InternetDomainName.isValid(host)) {
+        return false;
+      }
     }
-    return false;
+    return true;
   }
 
   /**
@@ -460,6 +627,10 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
 
     abstract Builder setInputBatchCount(ValueProvider<Integer> inputBatchCount);
 
+    abstract Builder setMaxInFlightBatches(ValueProvider<Integer> maxInFlightBatches);
+
+    abstract Builder setMaxInFlightBytes(ValueProvider<Integer> maxInFlightBytes);
+
     abstract SplunkEventWriter autoBuild();
 
     /**
@@ -520,6 +691,26 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
       return setInputBatchCount(inputBatchCount);
     }
 
+    /**
+     * Method to set the maximum number of batches written concurrently by a writer.
+     *
+     * @param maxInFlightBatches max number of concurrent POST requests.
+     * @return {@link Builder}
+     */
+    public Builder withMaxInFlightBatches(ValueProvider<Integer> maxInFlightBatches) {
+      return setMaxInFlightBatches(maxInFlightBatches);
+    }
+
+    /**
+     * Method to set the maximum size of the batches written concurrently by a writer.
+     *
+     * @param maxInFlightBytes max size in bytes of the payloads of the concurrent POST requests.
+     * @return {@link Builder}
+     */
+    public Builder withMaxInFlightBytes(ValueProvider<Integer> maxInFlightBytes) {
+      return setMaxInFlightBytes(maxInFlightBytes);
+    }
+
     /**
      * Method to disable certificate validation.
      *
@@ -569,4 +760,30 @@ public abstract class SplunkEventWriter extends DoFn<KV<Integer, SplunkEvent>, S
       return autoBuild();
     }
   }
+
+  /**
+   * Returns the label of an endpoint in metric names: its host and port, with every run of
+   * characters other than letters and digits replaced by an underscore.
+   */
+  @VisibleForTesting
+  static String endpointLabel(String url) {
+    String hostAndPort = URL_SCHEME_PATTERN.matcher(url).replaceFirst("");
+    return LABEL_SEPARATOR_PATTERN
+        .matcher(hostAndPort)
+        .replaceAll("_")
+        .replaceAll("^_+|_+$", "");
+  }
+
+  /** The metrics of a HEC endpoint, named {@code endpoint_<label>_<metric>}. */
+  private static class EndpointMetrics {
+    private final Distribution writeLatencyMs;
+    private final Counter failedRequests;
+
+    EndpointMetrics(String url) {
+      String prefix = ENDPOINT_METRIC_PREFIX + endpointLabel(url) + "_";
+      this.writeLatencyMs =
+          Metrics.distribution(SplunkEventWriter.class, prefix + "write_latency_ms");
+      this.failedRequests = Metrics.counter(SplunkEventWriter.class, prefix + "failed_requests");
+    }
+  }
 }
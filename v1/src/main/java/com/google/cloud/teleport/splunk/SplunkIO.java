@@ -81,6 +81,12 @@ public class SplunkIO {
     @Nullable
     abstract ValueProvider<Boolean> enableGzipHttpCompression();
 
+    @Nullable
+    abstract ValueProvider<Integer> maxInFlightBatches();
+
+    @Nullable
+    abstract ValueProvider<Integer> maxInFlightBytes();
+
     @Override
     public PCollection<SplunkWriteError> expand(PCollection<SplunkEvent> input) {
 
@@ -93,7 +99,9 @@ public class SplunkIO {
               .withToken((token()))
               .withRootCaCertificatePath(rootCaCertificatePath())
               .withEnableBatchLogs(enableBatchLogs())
-              .withEnableGzipHttpCompression(enableGzipHttpCompression());
+              .withEnableGzipHttpCompression(enableGzipHttpCompression())
+              .withMaxInFlightBatches(maxInFlightBatches())
+              .withMaxInFlightBytes(maxInFlightBytes());
 
       SplunkEventWriter writer = builder.build();
       LOG.info("SplunkEventWriter configured");
@@ -131,6 +139,10 @@ public class SplunkIO {
       abstract Builder setEnableGzipHttpCompression(
           ValueProvider<Boolean> enableGzipHttpCompression);
 
+      abstract Builder setMaxInFlightBatches(ValueProvider<Integer> maxInFlightBatches);
+
+      abstract Builder setMaxInFlightBytes(ValueProvider<Integer> maxInFlightBytes);
+
       abstract Write autoBuild();
 
       /**
@@ -323,6 +335,55 @@ public class SplunkIO {
             ValueProvider.StaticValueProvider.of(enableGzipHttpCompression));
       }
 
+      /**
+       * Method to set the maximum number of batches written concurrently by each writer. With more
+       * than one, or more than one comma separated HEC url, batches are written asynchronously.
+       *
+       * @param maxInFlightBatches max number of concurrent POST requests.
+       * @return {@link Builder}
+       */
+      public Builder withMaxInFlightBatches(ValueProvider<Integer> maxInFlightBatches) {
+        return setMaxInFlightBatches(maxInFlightBatches);
+      }
+
+      /**
+       * Same as {@link Builder#withMaxInFlightBatches(ValueProvider)} but without a {@link
+       * ValueProvider}.
+       *
+       * @param maxInFlightBatches max number of concurrent POST requests.
+       * @return {@link Builder}
+       */
+      public Builder withMaxInFlightBatches(Integer maxInFlightBatches) {
+        checkArgument(
+            maxInFlightBatches != null,
+            "withMaxInFlightBatches(maxInFlightBatches) called with null input.");
+        return setMaxInFlightBatches(ValueProvider.StaticValueProvider.of(maxInFlightBatches));
+      }
+
+      /**
+       * Method to set the maximum size of the batches written concurrently by each writer.
+       *
+       * @param maxInFlightBytes max size in bytes of the payloads of the concurrent POST requests.
+       * @return {@link Builder}
+       */
+      public Builder withMaxInFlightBytes(ValueProvider<Integer> maxInFlightBytes) {
+        return setMaxInFlightBytes(maxInFlightBytes);
+      }
+
+      /**
+       * Same as {@link Builder#withMaxInFlightBytes(ValueProvider)} but without a {@link
+       * ValueProvider}.
+       *
+       * @param maxInFlightBytes max size in bytes of the payloads of the concurrent POST requests.
+       * @return {@link Builder}
+       */
+      public Builder withMaxInFlightBytes(Integer maxInFlightBytes) {
+        checkArgument(
+            maxInFlightBytes != null,
+            "withMaxInFlightBytes(maxInFlightBytes) called with null input.");
+        return setMaxInFlightBytes(ValueProvider.StaticValueProvider.of(maxInFlightBytes));
+      }
+
       public Write build() {
         checkNotNull(url(), "HEC url is required.");
         checkNotNull(token(), "Authorization token is required.");
@@ -20,11 +20,20 @@ import com.google.cloud.teleport.metadata.TemplateCategory;
 import com.google.cloud.teleport.metadata.TemplateParameter;
 import com.google.cloud.teleport.metadata.TemplateParameter.TemplateEnumOption;
 import com.google.cloud.teleport.templates.BulkCompressor.Options;
+import com.google.cloud.teleport.templates.common.MultiMemberCompression;
+import com.google.cloud.teleport.templates.common.MultiMemberCompression.BlockResult;
+import com.google.cloud.teleport.templates.common.MultiMemberCompression.ConcatenateBlocks;
+import com.google.cloud.teleport.templates.common.MultiMemberCompression.FileBlock;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.ByteStreams;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.beam.sdk.Pipeline;
 import org.apache.beam.sdk.PipelineResult;
 import org.apache.beam.sdk.io.Compression;
@@ -32,17 +41,24 @@ import org.apache.beam.sdk.io.FileIO;
 import org.apache.beam.sdk.io.FileSystems;
 import org.apache.beam.sdk.io.TextIO;
 import org.apache.beam.sdk.io.fs.MatchResult;
+import org.apache.beam.sdk.io.fs.MatchResult.Metadata;
+import org.apache.beam.sdk.io.fs.MetadataCoder;
 import org.apache.beam.sdk.io.fs.ResolveOptions.StandardResolveOptions;
 import org.apache.beam.sdk.io.fs.ResourceId;
+import org.apache.beam.sdk.io.range.OffsetRange;
 import org.apache.beam.sdk.options.PipelineOptions;
 import org.apache.beam.sdk.options.PipelineOptionsFactory;
 import org.apache.beam.sdk.options.Validation.Required;
 import org.apache.beam.sdk.options.ValueProvider;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.Flatten;
+import org.apache.beam.sdk.transforms.GroupByKey;
 import org.apache.beam.sdk.transforms.MapElements;
 import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.Reshuffle;
 import org.apache.beam.sdk.util.MimeTypes;
 import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollectionList;
 import org.apache.beam.sdk.values.PCollectionTuple;
 import org.apache.beam.sdk.values.TupleTag;
 import org.apache.beam.sdk.values.TupleTagList;
@@ -59,6 +75,11 @@ import org.slf4j.LoggerFactory;
  * compression mode extension. The extensions appended will be one of: <code>.bzip2</code>, <code>
  * .deflate</code>, <code>.gz</code> as determined by the compression type.
  *
+ * <p>When a block size is set, <code>BZIP2</code> and <code>GZIP</code> files larger than it are
+ * split into blocks compressed in parallel, possibly across workers, and the compressed blocks are
+ * concatenated into a multi-member file which can be decompressed by any bzip2 or gzip tool, and in
+ * parallel by the {@link BulkDecompressor}.
+ *
  * <p>Any errors which occur during the compression process will be output to the failure file in
  * CSV format of filename, error message. If no failures occur during execution, the error file will
  * still be created but will contain no error records.
@@ -100,11 +121,17 @@ public class BulkCompressor {
   private static final Logger LOG = LoggerFactory.getLogger(BulkCompressor.class);
 
   /** The tag used to identify the main output of the {@link Compressor}. */
-  private static final TupleTag<String> COMPRESSOR_MAIN_OUT = new TupleTag<String>() {};
+  @VisibleForTesting static final TupleTag<String> COMPRESSOR_MAIN_OUT = new TupleTag<String>() {};
+
+  /** The tag used to identify the files which are split into blocks by {@link SplitIntoBlocks}. */
+  @VisibleForTesting static final TupleTag<FileBlock> BLOCKS_TAG = new TupleTag<FileBlock>() {};
+
+  /** The tag used to identify the files which are compressed whole by the {@link Compressor}. */
+  @VisibleForTesting static final TupleTag<Metadata> WHOLE_FILES_TAG = new TupleTag<Metadata>() {};
 
   /** The tag used to identify the dead-letter output of the {@link Compressor}. */
-  private static final TupleTag<KV<String, String>> DEADLETTER_TAG =
-      new TupleTag<KV<String, String>>() {};
+  @VisibleForTesting
+  static final TupleTag<KV<String, String>> DEADLETTER_TAG = new TupleTag<KV<String, String>>() {};
 
   /**
    * The {@link Options} class provides the custom execution options passed by the executor at the
@@ -175,6 +202,17 @@ public class BulkCompressor {
     ValueProvider<String> getOutputFilenameSuffix();
 
     void setOutputFilenameSuffix(ValueProvider<String> value);
+
+    @TemplateParameter.Integer(
+        order = 6,
+        optional = true,
+        description = "Parallel compression block size in MB",
+        helpText =
+            "When set, BZIP2 and GZIP files larger than this many MB are split into blocks of this size which are compressed in parallel and concatenated into a multi-member file. Must be at most 1024. Defaults to compressing each file in a single thread.",
+        example = "64")
+    ValueProvider<Integer> getParallelBlockSizeMb();
+
+    void setParallelBlockSizeMb(ValueProvider<Integer> value);
   }
 
   /**
@@ -208,19 +246,46 @@ public class BulkCompressor {
     /*
      * Steps:
      *   1) Find all files matching the input pattern
-     *   2) Compress the files found and output them to the output directory
-     *   3) Write any errors to the failure output file
+     *   2) Split the files larger than the block size into blocks
+     *   3) Compress the other files and output them to the output directory
+     *   4) Compress the blocks in parallel and concatenate them in the output directory
+     *   5) Write any errors to the failure output file
      */
-    PCollectionTuple compressOut =
+    PCollectionTuple splitOut =
         pipeline
             .apply("Match File(s)", FileIO.match().filepattern(options.getInputFilePattern()))
+            .apply(
+                "Split File(s)",
+                ParDo.of(
+                        new SplitIntoBlocks(
+                            options.getCompression(), options.getParallelBlockSizeMb()))
+                    .withOutputTags(BLOCKS_TAG, TupleTagList.of(WHOLE_FILES_TAG)));
+
+    PCollectionTuple compressOut =
+        splitOut
+            .get(WHOLE_FILES_TAG)
+            .setCoder(MetadataCoder.of())
             .apply(
                 "Compress File(s)",
                 ParDo.of(new Compressor(options.getOutputDirectory(), options.getCompression()))
                     .withOutputTags(COMPRESSOR_MAIN_OUT, TupleTagList.of(DEADLETTER_TAG)));
 
-    compressOut
-        .get(DEADLETTER_TAG)
+    PCollectionTuple concatenateOut =
+        splitOut
+            .get(BLOCKS_TAG)
+            .apply("Distribute Blocks", Reshuffle.viaRandomKey())
+            .apply(
+                "Compress Blocks",
+                ParDo.of(new CompressBlock(options.getOutputDirectory(), options.getCompression())))
+            .apply("Group Blocks", GroupByKey.create())
+            .apply(
+                "Concatenate Blocks",
+                ParDo.of(new ConcatenateBlocks(MimeTypes.BINARY, DEADLETTER_TAG))
+                    .withOutputTags(COMPRESSOR_MAIN_OUT, TupleTagList.of(DEADLETTER_TAG)));
+
+    PCollectionList.of(compressOut.get(DEADLETTER_TAG))
+        .and(concatenateOut.get(DEADLETTER_TAG))
+        .apply("Flatten Errors", Flatten.pCollections())
         .apply(
             "Format Errors",
             MapElements.into(TypeDescriptors.strings())
@@ -235,6 +300,22 @@ public class BulkCompressor {
     return pipeline.run();
   }
 
+  /**
+   * Returns the name of the compressed file, the name of the input file followed by the output
+   * filename suffix if set, or the extension of the compression otherwise.
+   */
+  private static String getOutputFilename(
+      ResourceId inputFile, Compression compression, Options options) {
+    if (options.getOutputFilenameSuffix() != null
+        && options.getOutputFilenameSuffix().isAccessible()
+        && options.getOutputFilenameSuffix().get() != null) {
+      // Use suffix parameter. Example: demo.txt -> demo.txt.foo
+      return inputFile.getFilename() + options.getOutputFilenameSuffix().get();
+    }
+    // Use compression extension. Example: demo.txt -> demo.txt.gz
+    return inputFile.getFilename() + compression.getSuggestedSuffix();
+  }
+
   /**
    * The {@link Compressor} accepts {@link MatchResult.Metadata} from the FileSystems API and
    * compresses each file to an output location. Any compression failures which occur during
@@ -255,19 +336,8 @@ public class BulkCompressor {
     public void processElement(ProcessContext context) {
       ResourceId inputFile = context.element().resourceId();
       Compression compression = compressionValue.get();
-      Options options = context.getPipelineOptions().as(Options.class);
-      String outputFilename;
-
-      // Add the extension to the output filename.
-      if (options.getOutputFilenameSuffix() != null
-          && options.getOutputFilenameSuffix().isAccessible()
-          && options.getOutputFilenameSuffix().get() != null) {
-        // Use suffix parameter. Example: demo.txt -> demo.txt.foo
-        outputFilename = inputFile.getFilename() + options.getOutputFilenameSuffix().get();
-      } else {
-        // Use compression extension. Example: demo.txt -> demo.txt.gz
-        outputFilename = inputFile.getFilename() + compression.getSuggestedSuffix();
-      }
+      String outputFilename =
+          getOutputFilename(inputFile, compression, context.getPipelineOptions().as(Options.class));
 
       // Resolve the necessary resources to perform the transfer
       ResourceId outputDir = FileSystems.matchNewResource(destinationLocation.get(), true);
@@ -296,4 +366,111 @@ public class BulkCompressor {
       }
     }
   }
+
+  /**
+   * The {@link SplitIntoBlocks} splits the files larger than the block size into {@link FileBlock}s
+   * if the compression supports multi-member files. The other files are output to a separate output
+   * to be compressed whole by the {@link Compressor}.
+   */
+  @SuppressWarnings("serial")
+  static class SplitIntoBlocks extends DoFn<Metadata, FileBlock> {
+
+    private final ValueProvider<Compression> compressionValue;
+    private final ValueProvider<Integer> blockSizeMb;
+
+    SplitIntoBlocks(ValueProvider<Compression> compression, ValueProvider<Integer> blockSizeMb) {
+      this.compressionValue = compression;
+      this.blockSizeMb = blockSizeMb;
+    }
+
+    @ProcessElement
+    public void processElement(ProcessContext context) {
+      Metadata metadata = context.element();
+      long blockSize = MultiMemberCompression.blockSizeBytes(blockSizeMb);
+      if (blockSize == 0
+          || !MultiMemberCompression.supportsBlocks(compressionValue.get())
+          || !metadata.isReadSeekEfficient()
+          || metadata.sizeBytes() <= blockSize) {
+        context.output(WHOLE_FILES_TAG, metadata);
+        return;
+      }
+
+      List<OffsetRange> ranges =
+          MultiMemberCompression.splitRanges(metadata.sizeBytes(), blockSize);
+      LOG.info("Compressing {} in {} blocks", metadata.resourceId(), ranges.size());
+      for (int i = 0; i < ranges.size(); i++) {
+        context.output(
+            new FileBlock(
+                metadata.resourceId().toString(),
+                metadata.sizeBytes(),
+                i,
+                ranges.size(),
+                ranges.get(i).getFrom(),
+                ranges.get(i).getTo()));
+      }
+    }
+  }
+
+  /**
+   * The {@link CompressBlock} compresses a {@link FileBlock} into a part file holding a single gzip
+   * member or bzip2 stream, and outputs the {@link BlockResult} keyed by input file for the parts
+   * to be concatenated by {@link ConcatenateBlocks}.
+   */
+  @SuppressWarnings("serial")
+  static class CompressBlock extends DoFn<FileBlock, KV<String, BlockResult>> {
+
+    private final ValueProvider<String> destinationLocation;
+    private final ValueProvider<Compression> compressionValue;
+
+    CompressBlock(
+        ValueProvider<String> destinationLocation, ValueProvider<Compression> compression) {
+      this.destinationLocation = destinationLocation;
+      this.compressionValue = compression;
+    }
+
+    @ProcessElement
+    public void processElement(ProcessContext context) {
+      FileBlock block = context.element();
+      ResourceId inputFile = FileSystems.matchNewResource(block.getFile(), false);
+      Compression compression = compressionValue.get();
+      String outputFilename =
+          getOutputFilename(inputFile, compression, context.getPipelineOptions().as(Options.class));
+
+      ResourceId outputDir = FileSystems.matchNewResource(destinationLocation.get(), true);
+      ResourceId outputFile =
+          outputDir.resolve(outputFilename, StandardResolveOptions.RESOLVE_FILE);
+      ResourceId tempFile =
+          outputDir.resolve("temp-" + outputFilename, StandardResolveOptions.RESOLVE_FILE);
+      ResourceId partFile =
+          outputDir.resolve(
+              String.format("temp-%s-part-%05d", outputFilename, block.getIndex()),
+              StandardResolveOptions.RESOLVE_FILE);
+      ResourceId headerFile =
+          outputDir.resolve(
+              String.format("temp-%s-part-%05d-header", outputFilename, block.getIndex()),
+              StandardResolveOptions.RESOLVE_FILE);
+      List<ResourceId> partFiles = new ArrayList<>();
+
+      String error = null;
+      try (InputStream in =
+          MultiMemberCompression.openRange(inputFile, block.getStart(), block.getEnd())) {
+        byte[] header =
+            MultiMemberCompression.writeMember(
+                compression, in, FileSystems.create(partFile, MimeTypes.BINARY));
+        if (header.length > 0) {
+          try (WritableByteChannel headerOut = FileSystems.create(headerFile, MimeTypes.BINARY)) {
+            headerOut.write(ByteBuffer.wrap(header));
+          }
+          partFiles.add(headerFile);
+        }
+      } catch (IOException e) {
+        LOG.error(
+            "Error occurred during compression of block {} of {}", block.getIndex(), inputFile, e);
+        error = e.getMessage() == null ? e.toString() : e.getMessage();
+      }
+      partFiles.add(partFile);
+      context.output(
+          KV.of(block.getFile(), new BlockResult(block, partFiles, tempFile, outputFile, error)));
+    }
+  }
 }
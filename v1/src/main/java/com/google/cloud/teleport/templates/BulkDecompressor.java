@@ -19,14 +19,22 @@ import com.google.cloud.teleport.metadata.Template;
 import com.google.cloud.teleport.metadata.TemplateCategory;
 import com.google.cloud.teleport.metadata.TemplateParameter;
 import com.google.cloud.teleport.templates.BulkDecompressor.Options;
+import com.google.cloud.teleport.templates.common.MultiMemberCompression;
+import com.google.cloud.teleport.templates.common.MultiMemberCompression.BlockResult;
+import com.google.cloud.teleport.templates.common.MultiMemberCompression.ConcatenateBlocks;
+import com.google.cloud.teleport.templates.common.MultiMemberCompression.FileBlock;
+import com.google.cloud.teleport.templates.common.MultiMemberCompression.MemberScan;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringWriter;
+import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -38,18 +46,25 @@ import org.apache.beam.sdk.io.FileIO;
 import org.apache.beam.sdk.io.FileSystems;
 import org.apache.beam.sdk.io.TextIO;
 import org.apache.beam.sdk.io.fs.MatchResult;
+import org.apache.beam.sdk.io.fs.MatchResult.Metadata;
+import org.apache.beam.sdk.io.fs.MetadataCoder;
 import org.apache.beam.sdk.io.fs.MoveOptions;
 import org.apache.beam.sdk.io.fs.ResolveOptions.StandardResolveOptions;
 import org.apache.beam.sdk.io.fs.ResourceId;
+import org.apache.beam.sdk.io.range.OffsetRange;
 import org.apache.beam.sdk.options.PipelineOptions;
 import org.apache.beam.sdk.options.PipelineOptionsFactory;
 import org.apache.beam.sdk.options.Validation.Required;
 import org.apache.beam.sdk.options.ValueProvider;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.Flatten;
+import org.apache.beam.sdk.transforms.GroupByKey;
 import org.apache.beam.sdk.transforms.MapElements;
 import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.Reshuffle;
 import org.apache.beam.sdk.util.MimeTypes;
 import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollectionList;
 import org.apache.beam.sdk.values.PCollectionTuple;
 import org.apache.beam.sdk.values.TupleTag;
 import org.apache.beam.sdk.values.TupleTagList;
@@ -81,6 +96,17 @@ import org.slf4j.LoggerFactory;
  * --outputDirectory=gs://bucket-name/decompressed-dir
  * </pre>
  *
+ * <p>The optional {@code --parallelBlockSizeMb} parameter enables the parallel decompression of
+ * multi-member files larger than this size, the gzip files written in blocks by the {@link
+ * BulkCompressor} and the multi-stream bzip2 files such as the ones written by pbzip2. The files
+ * are scanned in ranges of this size for the boundaries of their members, which are then
+ * decompressed in parallel in blocks of about this many MB of compressed data and concatenated.
+ * Other files are decompressed in a single thread.
+ *
+ * <pre>
+ * --parallelBlockSizeMb=64
+ * </pre>
+ *
  * <p>The {@code --outputFailureFile} parameter indicates the file to write the names of the files
  * which failed decompression and their associated error messages. This file can then be used for
  * subsequent processing by another process outside of Dataflow (e.g. send an email with the
@@ -154,6 +180,12 @@ public class BulkDecompressor {
   @VisibleForTesting
   static final TupleTag<KV<String, String>> DEADLETTER_TAG = new TupleTag<KV<String, String>>() {};
 
+  /** The tag used to identify the ranges and blocks of the files processed in parallel. */
+  @VisibleForTesting static final TupleTag<FileBlock> BLOCKS_TAG = new TupleTag<FileBlock>() {};
+
+  /** The tag used to identify the files which are decompressed whole by {@link Decompress}. */
+  @VisibleForTesting static final TupleTag<Metadata> WHOLE_FILES_TAG = new TupleTag<Metadata>() {};
+
   /**
    * The {@link Options} class provides the custom execution options passed by the executor at the
    * command-line.
@@ -192,6 +224,17 @@ public class BulkDecompressor {
     ValueProvider<String> getOutputFailureFile();
 
     void setOutputFailureFile(ValueProvider<String> value);
+
+    @TemplateParameter.Integer(
+        order = 4,
+        optional = true,
+        description = "Parallel decompression block size in MB",
+        helpText =
+            "When set, multi-member BZIP2 and GZIP files larger than this many MB, such as the ones written in blocks by the Bulk Compress template, are decompressed in parallel in blocks of about this many MB of compressed data. Must be at most 1024. Defaults to decompressing each file in a single thread.",
+        example = "64")
+    ValueProvider<Integer> getParallelBlockSizeMb();
+
+    void setParallelBlockSizeMb(ValueProvider<Integer> value);
   }
 
   /**
@@ -223,24 +266,61 @@ public class BulkDecompressor {
     /*
      * Steps:
      *   1) Find all files matching the input pattern
-     *   2) Decompress the files found and output them to the output directory
-     *   3) Write any errors to the failure output file
+     *   2) Scan the files larger than the block size for the boundaries of their members
+     *   3) Plan the blocks of members of the multi-member files
+     *   4) Decompress the other files and output them to the output directory
+     *   5) Decompress the blocks in parallel and concatenate them in the output directory
+     *   6) Write any errors to the failure output file
      */
 
     // Create the pipeline
     Pipeline pipeline = Pipeline.create(options);
 
-    // Run the pipeline over the work items.
-    PCollectionTuple decompressOut =
+    PCollectionTuple splitOut =
         pipeline
             .apply("MatchFile(s)", FileIO.match().filepattern(options.getInputFilePattern()))
+            .apply(
+                "SplitFile(s)",
+                ParDo.of(new SplitIntoRanges(options.getParallelBlockSizeMb()))
+                    .withOutputTags(BLOCKS_TAG, TupleTagList.of(WHOLE_FILES_TAG)));
+
+    PCollectionTuple planOut =
+        splitOut
+            .get(BLOCKS_TAG)
+            .apply("DistributeRanges", Reshuffle.viaRandomKey())
+            .apply("ScanRanges", ParDo.of(new ScanMembers()))
+            .apply("GroupScans", GroupByKey.create())
+            .apply(
+                "PlanBlocks",
+                ParDo.of(new PlanBlocks(options.getParallelBlockSizeMb()))
+                    .withOutputTags(
+                        BLOCKS_TAG, TupleTagList.of(WHOLE_FILES_TAG).and(DEADLETTER_TAG)));
+
+    // Run the pipeline over the work items.
+    PCollectionTuple decompressOut =
+        PCollectionList.of(splitOut.get(WHOLE_FILES_TAG).setCoder(MetadataCoder.of()))
+            .and(planOut.get(WHOLE_FILES_TAG).setCoder(MetadataCoder.of()))
+            .apply("FlattenFiles", Flatten.pCollections())
             .apply(
                 "DecompressFile(s)",
                 ParDo.of(new Decompress(options.getOutputDirectory()))
                     .withOutputTags(DECOMPRESS_MAIN_OUT_TAG, TupleTagList.of(DEADLETTER_TAG)));
 
-    decompressOut
-        .get(DEADLETTER_TAG)
+    PCollectionTuple concatenateOut =
+        planOut
+            .get(BLOCKS_TAG)
+            .apply("DistributeBlocks", Reshuffle.viaRandomKey())
+            .apply("DecompressBlocks", ParDo.of(new DecompressBlock(options.getOutputDirectory())))
+            .apply("GroupBlocks", GroupByKey.create())
+            .apply(
+                "ConcatenateBlocks",
+                ParDo.of(new ConcatenateBlocks(MimeTypes.TEXT, DEADLETTER_TAG))
+                    .withOutputTags(DECOMPRESS_MAIN_OUT_TAG, TupleTagList.of(DEADLETTER_TAG)));
+
+    PCollectionList.of(planOut.get(DEADLETTER_TAG))
+        .and(decompressOut.get(DEADLETTER_TAG))
+        .and(concatenateOut.get(DEADLETTER_TAG))
+        .apply("FlattenErrors", Flatten.pCollections())
         .apply(
             "FormatErrors",
             MapElements.into(TypeDescriptors.strings())
@@ -275,6 +355,16 @@ public class BulkDecompressor {
     return pipeline.run();
   }
 
+  /** Removes the compressed extension from the file. Example: demo.txt.gz -> demo.txt */
+  private static String getOutputFilename(ResourceId inputFile) {
+    return Files.getNameWithoutExtension(inputFile.toString());
+  }
+
+  /** Returns the name of the file written before being renamed. Example: gz-temp-demo.txt */
+  private static String getTempFilename(ResourceId inputFile) {
+    return Files.getFileExtension(inputFile.toString()) + "-temp-" + getOutputFilename(inputFile);
+  }
+
   /**
    * Performs the decompression of an object on Google Cloud Storage and uploads the decompressed
    * object back to a specified destination location.
@@ -319,17 +409,12 @@ public class BulkDecompressor {
      * @return A {@link ResourceId} which points to the resulting file from the decompression.
      */
     private ResourceId decompress(ResourceId inputFile) throws IOException {
-      // Remove the compressed extension from the file. Example: demo.txt.gz -> demo.txt
-      String outputFilename = Files.getNameWithoutExtension(inputFile.toString());
-
       // Resolve the necessary resources to perform the transfer.
       ResourceId outputDir = FileSystems.matchNewResource(destinationLocation.get(), true);
       ResourceId outputFile =
-          outputDir.resolve(outputFilename, StandardResolveOptions.RESOLVE_FILE);
+          outputDir.resolve(getOutputFilename(inputFile), StandardResolveOptions.RESOLVE_FILE);
       ResourceId tempFile =
-          outputDir.resolve(
-              Files.getFileExtension(inputFile.toString()) + "-temp-" + outputFilename,
-              StandardResolveOptions.RESOLVE_FILE);
+          outputDir.resolve(getTempFilename(inputFile), StandardResolveOptions.RESOLVE_FILE);
 
       // Resolve the compression
       Compression compression = Compression.detect(inputFile.toString());
@@ -370,7 +455,7 @@ public class BulkDecompressor {
      *     error message passed will be returned (if not null) or an empty string will be returned
      *     (if null).
      */
-    private String sanitizeDecompressionErrorMsg(
+    private static String sanitizeDecompressionErrorMsg(
         @Nullable String errorMsg, ResourceId inputFile, Compression compression) {
       if (errorMsg != null
           && (errorMsg.contains("not in the BZip2 format")
@@ -381,4 +466,193 @@ public class BulkDecompressor {
       return errorMsg == null ? "" : errorMsg;
     }
   }
+
+  /**
+   * The {@link SplitIntoRanges} outputs the compressed files larger than the block size whose
+   * members can be found, if their compression supports multi-member files. A gzip file must start
+   * with a member header written by {@link MultiMemberCompression#writeMember}, and is output as a
+   * single range whose members are followed by their lengths. A bzip2 file is split into ranges to
+   * be scanned for the signatures of its streams. The other files are output to a separate output
+   * to be decompressed whole.
+   */
+  @SuppressWarnings("serial")
+  static class SplitIntoRanges extends DoFn<Metadata, FileBlock> {
+
+    private final ValueProvider<Integer> blockSizeMb;
+
+    SplitIntoRanges(ValueProvider<Integer> blockSizeMb) {
+      this.blockSizeMb = blockSizeMb;
+    }
+
+    @ProcessElement
+    public void processElement(ProcessContext context) {
+      Metadata metadata = context.element();
+      long blockSize = MultiMemberCompression.blockSizeBytes(blockSizeMb);
+      Compression compression = Compression.detect(metadata.resourceId().toString());
+      if (blockSize == 0
+          || !MultiMemberCompression.supportsBlocks(compression)
+          || !metadata.isReadSeekEfficient()
+          || metadata.sizeBytes() <= blockSize
+          || (compression == Compression.GZIP && !hasMemberHeader(metadata.resourceId()))) {
+        context.output(WHOLE_FILES_TAG, metadata);
+        return;
+      }
+
+      List<OffsetRange> ranges =
+          compression == Compression.GZIP
+              ? ImmutableList.of(new OffsetRange(0, metadata.sizeBytes()))
+              : MultiMemberCompression.splitRanges(metadata.sizeBytes(), blockSize);
+      for (int i = 0; i < ranges.size(); i++) {
+        context.output(
+            new FileBlock(
+                metadata.resourceId().toString(),
+                metadata.sizeBytes(),
+                i,
+                ranges.size(),
+                ranges.get(i).getFrom(),
+                ranges.get(i).getTo()));
+      }
+    }
+
+    private static boolean hasMemberHeader(ResourceId file) {
+      try {
+        return MultiMemberCompression.hasMemberHeader(file);
+      } catch (IOException e) {
+        LOG.warn("Error occurred reading the header of {}", file, e);
+        return false;
+      }
+    }
+  }
+
+  /**
+   * The {@link ScanMembers} finds the members starting in a range of a file, and outputs them keyed
+   * by file. The members of a gzip file are followed by their lengths, the range of a bzip2 file
+   * is scanned. A range which cannot be read is output as a failed {@link MemberScan}, so that the
+   * file is decompressed whole.
+   */
+  @SuppressWarnings("serial")
+  static class ScanMembers extends DoFn<FileBlock, KV<String, MemberScan>> {
+
+    @ProcessElement
+    public void processElement(ProcessContext context) {
+      FileBlock range = context.element();
+      ResourceId inputFile = FileSystems.matchNewResource(range.getFile(), false);
+      Compression compression = Compression.detect(range.getFile());
+      long readEnd =
+          Math.min(range.getEnd() + MultiMemberCompression.scanOverlap(), range.getFileSize());
+
+      MemberScan scan;
+      try {
+        if (compression == Compression.GZIP) {
+          scan = MultiMemberCompression.followGzipMembers(inputFile, range.getFileSize());
+        } else {
+          try (InputStream in =
+              MultiMemberCompression.openRange(inputFile, range.getStart(), readEnd)) {
+            scan =
+                MultiMemberCompression.scanMembers(
+                    range.getFileSize(), in, range.getStart(), range.getEnd());
+          }
+        }
+      } catch (IOException e) {
+        LOG.warn("Error occurred scanning range {} of {}", range.getIndex(), inputFile, e);
+        scan = MemberScan.failed(range.getFileSize());
+      }
+      context.output(KV.of(range.getFile(), scan));
+    }
+  }
+
+  /**
+   * The {@link PlanBlocks} groups the members of each file into {@link FileBlock}s to be
+   * decompressed in parallel. Files whose member boundaries cannot be determined, or with a single
+   * block, are output to be decompressed whole.
+   */
+  @SuppressWarnings("serial")
+  static class PlanBlocks extends DoFn<KV<String, Iterable<MemberScan>>, FileBlock> {
+
+    private final ValueProvider<Integer> blockSizeMb;
+
+    PlanBlocks(ValueProvider<Integer> blockSizeMb) {
+      this.blockSizeMb = blockSizeMb;
+    }
+
+    @ProcessElement
+    public void processElement(ProcessContext context) {
+      String file = context.element().getKey();
+      Compression compression = Compression.detect(file);
+      List<OffsetRange> blocks =
+          MultiMemberCompression.planBlocks(
+              compression,
+              context.element().getValue(),
+              MultiMemberCompression.blockSizeBytes(blockSizeMb));
+
+      if (blocks == null || blocks.size() == 1) {
+        try {
+          context.output(WHOLE_FILES_TAG, FileSystems.matchSingleFileSpec(file));
+        } catch (IOException e) {
+          LOG.error("Error occurred matching {}", file, e);
+          context.output(DEADLETTER_TAG, KV.of(file, e.getMessage()));
+        }
+        return;
+      }
+
+      LOG.info("Decompressing {} in {} blocks", file, blocks.size());
+      long fileSize = blocks.get(blocks.size() - 1).getTo();
+      for (int i = 0; i < blocks.size(); i++) {
+        context.output(
+            new FileBlock(
+                file, fileSize, i, blocks.size(), blocks.get(i).getFrom(), blocks.get(i).getTo()));
+      }
+    }
+  }
+
+  /**
+   * The {@link DecompressBlock} decompresses the members of a {@link FileBlock} into a part file,
+   * and outputs the {@link BlockResult} keyed by input file for the parts to be concatenated by
+   * {@link ConcatenateBlocks}.
+   */
+  @SuppressWarnings("serial")
+  static class DecompressBlock extends DoFn<FileBlock, KV<String, BlockResult>> {
+
+    private final ValueProvider<String> destinationLocation;
+
+    DecompressBlock(ValueProvider<String> destinationLocation) {
+      this.destinationLocation = destinationLocation;
+    }
+
+    @ProcessElement
+    public void processElement(ProcessContext context) {
+      FileBlock block = context.element();
+      ResourceId inputFile = FileSystems.matchNewResource(block.getFile(), false);
+      Compression compression = Compression.detect(block.getFile());
+
+      ResourceId outputDir = FileSystems.matchNewResource(destinationLocation.get(), true);
+      ResourceId outputFile =
+          outputDir.resolve(getOutputFilename(inputFile), StandardResolveOptions.RESOLVE_FILE);
+      ResourceId tempFile =
+          outputDir.resolve(getTempFilename(inputFile), StandardResolveOptions.RESOLVE_FILE);
+      ResourceId partFile =
+          outputDir.resolve(
+              String.format("%s-part-%05d", getTempFilename(inputFile), block.getIndex()),
+              StandardResolveOptions.RESOLVE_FILE);
+
+      String error = null;
+      try (ReadableByteChannel readerChannel =
+          compression.readDecompressed(
+              Channels.newChannel(
+                  MultiMemberCompression.openRange(inputFile, block.getStart(), block.getEnd())))) {
+        try (WritableByteChannel writerChannel = FileSystems.create(partFile, MimeTypes.TEXT)) {
+          ByteStreams.copy(readerChannel, writerChannel);
+        }
+      } catch (IOException e) {
+        LOG.error(
+            "Error occurred during decompression of block {} of {}",
+            block.getIndex(),
+            inputFile,
+            e);
+        error = Decompress.sanitizeDecompressionErrorMsg(e.getMessage(), inputFile, compression);
+      }
+      context.output(
+          KV.of(block.getFile(), new BlockResult(block, partFile, tempFile, outputFile, error)));
+    }
+  }
 }
@@ -247,6 +247,7 @@ public class PubSubToDatadog {
                     .withUrl(options.getUrl())
                     .withBatchCount(options.getBatchCount())
                     .withParallelism(options.getParallelism())
+                    .withMaxInFlightRequests(options.getMaxInFlightRequests())
                     .build());
 
     // 5a) Wrap write failures into a FailsafeElement.
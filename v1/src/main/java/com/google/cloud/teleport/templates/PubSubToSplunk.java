@@ -252,6 +252,8 @@ public class PubSubToSplunk {
                     .withRootCaCertificatePath(options.getRootCaCertificatePath())
                     .withEnableBatchLogs(options.getEnableBatchLogs())
                     .withEnableGzipHttpCompression(options.getEnableGzipHttpCompression())
+                    .withMaxInFlightBatches(options.getMaxInFlightBatches())
+                    .withMaxInFlightBytes(options.getMaxInFlightBytes())
                     .build());
 
     // 5a) Wrap write failures into a FailsafeElement.
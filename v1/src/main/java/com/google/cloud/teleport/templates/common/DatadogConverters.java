@@ -178,6 +178,16 @@ public class DatadogConverters {
     ValueProvider<String> getApiKeySource();
 
     void setApiKeySource(ValueProvider<String> apiKeySource);
+
+    @TemplateParameter.Integer(
+        order = 9,
+        optional = true,
+        description = "Maximum number of in-flight requests per worker.",
+        helpText =
+            "The maximum number of compressed batches each worker sends to Datadog concurrently, shared by all writers on the worker. The default is `1` (each batch is sent once the previous one has completed).")
+    ValueProvider<Integer> getMaxInFlightRequests();
+
+    void setMaxInFlightRequests(ValueProvider<Integer> maxInFlightRequests);
   }
 
   private static class FailsafeStringToDatadogEvent
@@ -0,0 +1,668 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.templates.common;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageException;
+import com.google.cloud.storage.StorageOptions;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import javax.annotation.Nullable;
+import org.apache.beam.sdk.coders.DefaultCoder;
+import org.apache.beam.sdk.coders.SerializableCoder;
+import org.apache.beam.sdk.extensions.gcp.util.gcsfs.GcsPath;
+import org.apache.beam.sdk.io.Compression;
+import org.apache.beam.sdk.io.FileSystems;
+import org.apache.beam.sdk.io.fs.MoveOptions.StandardMoveOptions;
+import org.apache.beam.sdk.io.fs.ResourceId;
+import org.apache.beam.sdk.io.range.OffsetRange;
+import org.apache.beam.sdk.options.ValueProvider;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.TupleTag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Utilities to compress and decompress large files in blocks processed in parallel. A file is
+ * compressed as a sequence of independently compressed members, gzip members or bzip2 streams,
+ * which concatenated form a valid multi-member file readable by any gzip or bzip2 decompressor.
+ *
+ * <p>Each gzip member written by {@link #writeMember} carries its compressed length in an extra
+ * header field, so the member boundaries of the file are found by following the lengths from the
+ * first member, reading only the header of each member. The header is returned once the member is
+ * compressed and is written as its own part. Other gzip files have no such field and can only be
+ * decompressed sequentially. Each bzip2 stream starts
+ * with a 10 bytes signature which is very unlikely to occur by chance in compressed data, so the
+ * boundaries of any multi-stream bzip2 file, such as the ones written by pbzip2, can be found.
+ */
+public final class MultiMemberCompression {
+
+  /** The logger to output status messages to. */
+  private static final Logger LOG = LoggerFactory.getLogger(MultiMemberCompression.class);
+
+  private static final long MEGABYTE = 1024L * 1024L;
+
+  /** The largest block size, which keeps the 32 bits uncompressed size of gzip members exact. */
+  @VisibleForTesting static final int MAX_BLOCK_SIZE_MB = 1024;
+
+  /**
+   * The fixed header of the gzip members written by {@link #writeMember}: ID1, ID2, CM = deflate,
+   * FLG = FEXTRA, MTIME = 0, XFL = 0, OS = unknown, XLEN = 12 and an extra subfield 'D' 'F' of 8
+   * bytes holding the little-endian length of the member.
+   */
+  private static final byte[] GZIP_HEADER_PREFIX = {
+    0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 12, 0, 'D', 'F', 8, 0
+  };
+
+  private static final int GZIP_HEADER_LENGTH = GZIP_HEADER_PREFIX.length + Long.BYTES;
+
+  /** "BZh", the block size digit and the magic number of the first block of a bzip2 stream. */
+  private static final byte[] BZIP2_SIGNATURE = {
+    'B', 'Z', 'h', '9', 0x31, 0x41, 0x59, 0x26, 0x53, 0x59
+  };
+
+  private static final int BZIP2_BLOCK_SIZE_INDEX = 3;
+
+  private static final int SCAN_BUFFER_SIZE = 1024 * 1024;
+
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+  /** The most objects a single GCS compose request accepts. */
+  @VisibleForTesting static final int MAX_COMPOSE_SOURCES = 32;
+
+  private MultiMemberCompression() {}
+
+  /** Returns whether files of the {@link Compression} can be processed in blocks. */
+  public static boolean supportsBlocks(Compression compression) {
+    return compression == Compression.GZIP || compression == Compression.BZIP2;
+  }
+
+  /**
+   * Returns the block size in bytes from a size in MB, or 0 if files are not to be processed in
+   * blocks.
+   */
+  public static long blockSizeBytes(@Nullable ValueProvider<Integer> blockSizeMb) {
+    if (blockSizeMb == null || !blockSizeMb.isAccessible() || blockSizeMb.get() == null) {
+      return 0;
+    }
+    checkArgument(
+        blockSizeMb.get() <= MAX_BLOCK_SIZE_MB,
+        "The block size must be at most %s MB, got %s.",
+        MAX_BLOCK_SIZE_MB,
+        blockSizeMb.get());
+    return Math.max(0, blockSizeMb.get()) * MEGABYTE;
+  }
+
+  /** Splits {@code size} bytes into ranges of {@code blockSize} bytes, the last one may be less. */
+  public static List<OffsetRange> splitRanges(long size, long blockSize) {
+    List<OffsetRange> ranges = new ArrayList<>();
+    for (long start = 0; start < size; start += blockSize) {
+      ranges.add(new OffsetRange(start, Math.min(start + blockSize, size)));
+    }
+    return ranges;
+  }
+
+  /** Opens a stream over the bytes of {@code file} from {@code start} to {@code end}. */
+  public static InputStream openRange(ResourceId file, long start, long end) throws IOException {
+    ReadableByteChannel channel = FileSystems.open(file);
+    if (start > 0) {
+      if (!(channel instanceof SeekableByteChannel)) {
+        channel.close();
+        throw new IOException(String.format("The file resource %s is not seekable.", file));
+      }
+      ((SeekableByteChannel) channel).position(start);
+    }
+    return ByteStreams.limit(Channels.newInputStream(channel), end - start);
+  }
+
+  /**
+   * Compresses all the bytes of {@code in} as a single gzip member or bzip2 stream streamed to
+   * {@code out}, which is closed on return.
+   *
+   * @return the bytes to write in front of the ones written to {@code out}: the header of the gzip
+   *     member, which holds the length of the member only known once compressed, or none for bzip2.
+   */
+  public static byte[] writeMember(Compression compression, InputStream in, WritableByteChannel out)
+      throws IOException {
+    checkArgument(supportsBlocks(compression), "Unsupported compression %s", compression);
+    if (compression == Compression.BZIP2) {
+      try (OutputStream bzip2Out = Channels.newOutputStream(compression.writeCompressed(out))) {
+        ByteStreams.copy(in, bzip2Out);
+      }
+      return new byte[0];
+    }
+
+    CountingOutputStream gzipOut = new CountingOutputStream(Channels.newOutputStream(out));
+    try {
+      CRC32 crc = new CRC32();
+      long size = 0;
+      Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+      try {
+        DeflaterOutputStream deflaterOut =
+            new DeflaterOutputStream(gzipOut, deflater, COPY_BUFFER_SIZE);
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+          crc.update(buffer, 0, read);
+          deflaterOut.write(buffer, 0, read);
+          size += read;
+        }
+        deflaterOut.finish();
+      } finally {
+        deflater.end();
+      }
+      gzipOut.write(
+          ByteBuffer.allocate(2 * Integer.BYTES)
+              .order(ByteOrder.LITTLE_ENDIAN)
+              .putInt((int) crc.getValue())
+              .putInt((int) size)
+              .array());
+    } finally {
+      gzipOut.close();
+    }
+
+    return ByteBuffer.allocate(GZIP_HEADER_LENGTH)
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .put(GZIP_HEADER_PREFIX)
+        .putLong(GZIP_HEADER_LENGTH + gzipOut.getCount())
+        .array();
+  }
+
+  /** Returns whether {@code file} starts with a member header written by {@link #writeMember}. */
+  public static boolean hasMemberHeader(ResourceId file) throws IOException {
+    byte[] header = new byte[GZIP_HEADER_LENGTH];
+    try (InputStream in = openRange(file, 0, GZIP_HEADER_LENGTH)) {
+      return ByteStreams.read(in, header, 0, header.length) == header.length
+          && isGzipMember(header, 0);
+    }
+  }
+
+  /**
+   * Finds the gzip members of a file written by {@link #writeMember} by following their lengths
+   * from the first member, with a seek and a read of the header per member.
+   *
+   * @return the members, or a failed scan if the file is not seekable or a member has no header.
+   */
+  public static MemberScan followGzipMembers(ResourceId file, long fileSize) throws IOException {
+    try (ReadableByteChannel channel = FileSystems.open(file)) {
+      if (!(channel instanceof SeekableByteChannel)) {
+        return MemberScan.failed(fileSize);
+      }
+      return followGzipMembers((SeekableByteChannel) channel, fileSize);
+    }
+  }
+
+  @VisibleForTesting
+  static MemberScan followGzipMembers(SeekableByteChannel channel, long fileSize)
+      throws IOException {
+    List<Long> offsets = new ArrayList<>();
+    List<Long> lengths = new ArrayList<>();
+    ByteBuffer header = ByteBuffer.allocate(GZIP_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+    long position = 0;
+    while (position < fileSize) {
+      header.clear();
+      channel.position(position);
+      while (header.hasRemaining()) {
+        if (channel.read(header) < 0) {
+          return MemberScan.failed(fileSize);
+        }
+      }
+      if (!isGzipMember(header.array(), 0)) {
+        return MemberScan.failed(fileSize);
+      }
+      long length = header.getLong(GZIP_HEADER_PREFIX.length);
+      if (length <= 0) {
+        return MemberScan.failed(fileSize);
+      }
+      offsets.add(position);
+      lengths.add(length);
+      position += length;
+    }
+    return new MemberScan(fileSize, offsets, lengths);
+  }
+
+  /**
+   * Returns how many bytes after the end of a range must be read by {@link #scanMembers} to find
+   * the bzip2 streams starting at its last bytes.
+   */
+  public static int scanOverlap() {
+    return BZIP2_SIGNATURE.length - 1;
+  }
+
+  /**
+   * Finds the bzip2 streams which may start in the range {@code [start, end)} of a file. Gzip
+   * members are found by {@link #followGzipMembers} instead.
+   *
+   * @param in the bytes of the file from {@code start} up to {@code end} plus {@link #scanOverlap},
+   *     or the end of the file.
+   */
+  public static MemberScan scanMembers(long fileSize, InputStream in, long start, long end)
+      throws IOException {
+    int window = scanOverlap() + 1;
+    byte[] buffer = new byte[SCAN_BUFFER_SIZE + window - 1];
+    List<Long> offsets = new ArrayList<>();
+    List<Long> lengths = new ArrayList<>();
+    long bufferStart = start;
+    int length = 0;
+    while (true) {
+      length += ByteStreams.read(in, buffer, length, buffer.length - length);
+      for (int i = 0; i + window <= length && bufferStart + i < end; i++) {
+        if (isBzip2Stream(buffer, i)) {
+          offsets.add(bufferStart + i);
+          lengths.add(-1L);
+        }
+      }
+      if (length < buffer.length) {
+        return new MemberScan(fileSize, offsets, lengths);
+      }
+      // Keep the bytes which could start a member not entirely read yet.
+      System.arraycopy(buffer, length - (window - 1), buffer, 0, window - 1);
+      bufferStart += length - (window - 1);
+      length = window - 1;
+    }
+  }
+
+  private static boolean isGzipMember(byte[] buffer, int offset) {
+    for (int i = 0; i < GZIP_HEADER_PREFIX.length; i++) {
+      if (buffer[offset + i] != GZIP_HEADER_PREFIX[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isBzip2Stream(byte[] buffer, int offset) {
+    for (int i = 0; i < BZIP2_SIGNATURE.length; i++) {
+      byte b = buffer[offset + i];
+      if (i == BZIP2_BLOCK_SIZE_INDEX ? b < '1' || b > '9' : b != BZIP2_SIGNATURE[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Groups the members found by {@link #followGzipMembers} or {@link #scanMembers} into blocks
+   * of at least {@code blockSize} compressed bytes, except for the last one, starting and ending
+   * at member boundaries.
+   *
+   * <p>For gzip, the members must follow each other from the start to the end of the file.
+   *
+   * @return the blocks, or null if the member boundaries cannot be determined, e.g. if the scan of
+   *     a range failed or the file was not written by {@link #writeMember}.
+   */
+  @Nullable
+  public static List<OffsetRange> planBlocks(
+      Compression compression, Iterable<MemberScan> scans, long blockSize) {
+    TreeMap<Long, Long> members = new TreeMap<>();
+    long fileSize = 0;
+    for (MemberScan scan : scans) {
+      if (!scan.isComplete()) {
+        return null;
+      }
+      fileSize = scan.getFileSize();
+      for (int i = 0; i < scan.offsets.length; i++) {
+        members.put(scan.offsets[i], scan.lengths[i]);
+      }
+    }
+
+    List<Long> starts = new ArrayList<>();
+    if (compression == Compression.GZIP) {
+      long position = 0;
+      while (position < fileSize) {
+        Long length = members.get(position);
+        if (length == null || length <= 0) {
+          return null;
+        }
+        starts.add(position);
+        position += length;
+      }
+      if (position != fileSize) {
+        return null;
+      }
+    } else {
+      if (!members.containsKey(0L)) {
+        return null;
+      }
+      starts.addAll(members.keySet());
+    }
+
+    List<OffsetRange> blocks = new ArrayList<>();
+    long blockStart = 0;
+    for (long start : starts) {
+      if (start - blockStart >= blockSize) {
+        blocks.add(new OffsetRange(blockStart, start));
+        blockStart = start;
+      }
+    }
+    blocks.add(new OffsetRange(blockStart, fileSize));
+    return blocks;
+  }
+
+  /** A block of a file to process. */
+  @DefaultCoder(SerializableCoder.class)
+  public static class FileBlock implements Serializable {
+    private final String file;
+    private final long fileSize;
+    private final int index;
+    private final int count;
+    private final long start;
+    private final long end;
+
+    public FileBlock(String file, long fileSize, int index, int count, long start, long end) {
+      this.file = file;
+      this.fileSize = fileSize;
+      this.index = index;
+      this.count = count;
+      this.start = start;
+      this.end = end;
+    }
+
+    public String getFile() {
+      return file;
+    }
+
+    public long getFileSize() {
+      return fileSize;
+    }
+
+    /** Returns the position of the block in the file, from 0. */
+    public int getIndex() {
+      return index;
+    }
+
+    /** Returns the number of blocks of the file. */
+    public int getCount() {
+      return count;
+    }
+
+    public long getStart() {
+      return start;
+    }
+
+    public long getEnd() {
+      return end;
+    }
+  }
+
+  /** The members of a file found by {@link #followGzipMembers}, or of a range by scanMembers. */
+  @DefaultCoder(SerializableCoder.class)
+  public static class MemberScan implements Serializable {
+    private final long fileSize;
+    @Nullable private final long[] offsets;
+    @Nullable private final long[] lengths;
+
+    MemberScan(long fileSize, List<Long> offsets, List<Long> lengths) {
+      this.fileSize = fileSize;
+      this.offsets = offsets.stream().mapToLong(Long::longValue).toArray();
+      this.lengths = lengths.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private MemberScan(long fileSize) {
+      this.fileSize = fileSize;
+      this.offsets = null;
+      this.lengths = null;
+    }
+
+    /** Returns the scan of a range which could not be read. */
+    public static MemberScan failed(long fileSize) {
+      return new MemberScan(fileSize);
+    }
+
+    public long getFileSize() {
+      return fileSize;
+    }
+
+    public boolean isComplete() {
+      return offsets != null;
+    }
+  }
+
+  /** The outcome of processing a block of a file into parts of the output file. */
+  @DefaultCoder(SerializableCoder.class)
+  public static class BlockResult implements Serializable {
+    private final int index;
+    private final int count;
+    private final List<String> partFiles;
+    private final String tempFile;
+    private final String outputFile;
+    @Nullable private final String error;
+
+    /**
+     * Creates the result of a block.
+     *
+     * @param block the processed block
+     * @param partFile the file holding the processed block
+     * @param tempFile the file the parts are concatenated to before being renamed
+     * @param outputFile the output file
+     * @param error the error message if the block failed, null otherwise
+     */
+    public BlockResult(
+        FileBlock block,
+        ResourceId partFile,
+        ResourceId tempFile,
+        ResourceId outputFile,
+        @Nullable String error) {
+      this(block, ImmutableList.of(partFile), tempFile, outputFile, error);
+    }
+
+    /**
+     * Creates the result of a block processed into several parts.
+     *
+     * @param block the processed block
+     * @param partFiles the files holding the processed block, in order
+     * @param tempFile the file the parts are concatenated to before being renamed
+     * @param outputFile the output file
+     * @param error the error message if the block failed, null otherwise
+     */
+    public BlockResult(
+        FileBlock block,
+        List<ResourceId> partFiles,
+        ResourceId tempFile,
+        ResourceId outputFile,
+        @Nullable String error) {
+      this.index = block.getIndex();
+      this.count = block.getCount();
+      this.partFiles = new ArrayList<>();
+      partFiles.forEach(partFile -> this.partFiles.add(partFile.toString()));
+      this.tempFile = tempFile.toString();
+      this.outputFile = outputFile.toString();
+      this.error = error;
+    }
+
+    public int getIndex() {
+      return index;
+    }
+
+    @Nullable
+    public String getError() {
+      return error;
+    }
+  }
+
+  /** Composes GCS objects of a bucket into a target object of the bucket. */
+  @VisibleForTesting
+  interface Composer {
+    void compose(List<String> sources, String target) throws IOException;
+  }
+
+  /**
+   * Composes {@code sources} into {@code target} as a tree of compose requests of at most {@link
+   * #MAX_COMPOSE_SOURCES} objects, each level composing the objects of the previous one.
+   *
+   * @return the intermediate objects written, to be deleted once the target is composed
+   */
+  @VisibleForTesting
+  static List<String> composeAll(List<String> sources, String target, Composer composer)
+      throws IOException {
+    List<String> intermediates = new ArrayList<>();
+    List<String> level = sources;
+    for (int depth = 0; level.size() > MAX_COMPOSE_SOURCES; depth++) {
+      List<String> next = new ArrayList<>();
+      for (int i = 0; i < level.size(); i += MAX_COMPOSE_SOURCES) {
+        List<String> group = level.subList(i, Math.min(i + MAX_COMPOSE_SOURCES, level.size()));
+        if (group.size() == 1) {
+          next.add(group.get(0));
+          continue;
+        }
+        String intermediate =
+            String.format("%s-compose-%d-%05d", target, depth, i / MAX_COMPOSE_SOURCES);
+        composer.compose(group, intermediate);
+        intermediates.add(intermediate);
+        next.add(intermediate);
+      }
+      level = next;
+    }
+    composer.compose(level, target);
+    return intermediates;
+  }
+
+  /**
+   * The {@link ConcatenateBlocks} concatenates the parts of each file in order into a temporary
+   * file, renames it to the output file and outputs its path. If any block failed, the file name
+   * and the error are output to the dead-letter instead. The parts are deleted in both cases.
+   *
+   * <p>On GCS, the parts are concatenated with compose requests, without reading them. On other
+   * file systems, they are copied one after the other.
+   */
+  @SuppressWarnings("serial")
+  public static class ConcatenateBlocks extends DoFn<KV<String, Iterable<BlockResult>>, String> {
+
+    private final String mimeType;
+    private final TupleTag<KV<String, String>> deadletterTag;
+    private transient Storage storage;
+
+    public ConcatenateBlocks(String mimeType, TupleTag<KV<String, String>> deadletterTag) {
+      this.mimeType = mimeType;
+      this.deadletterTag = deadletterTag;
+    }
+
+    @ProcessElement
+    public void processElement(ProcessContext context) {
+      String inputFile = context.element().getKey();
+      List<BlockResult> results = new ArrayList<>();
+      context.element().getValue().forEach(results::add);
+      results.sort(Comparator.comparingInt(BlockResult::getIndex));
+
+      List<ResourceId> parts = new ArrayList<>();
+      String error = null;
+      for (BlockResult result : results) {
+        for (String partFile : result.partFiles) {
+          parts.add(FileSystems.matchNewResource(partFile, false));
+        }
+        if (error == null) {
+          error = result.getError();
+        }
+      }
+      if (error == null && results.size() != results.get(0).count) {
+        error = String.format("Expected %s blocks, got %s.", results.get(0).count, results.size());
+      }
+
+      if (error == null) {
+        ResourceId tempFile = FileSystems.matchNewResource(results.get(0).tempFile, false);
+        ResourceId outputFile = FileSystems.matchNewResource(results.get(0).outputFile, false);
+        try {
+          if (GcsPath.SCHEME.equals(tempFile.getScheme())) {
+            compose(parts, tempFile);
+          } else {
+            copy(parts, tempFile);
+          }
+          FileSystems.rename(ImmutableList.of(tempFile), ImmutableList.of(outputFile));
+          context.output(outputFile.toString());
+        } catch (IOException | StorageException e) {
+          LOG.error("Error occurred during concatenation of the blocks of {}", inputFile, e);
+          error = e.getMessage() == null ? e.toString() : e.getMessage();
+        }
+      }
+      if (error != null) {
+        context.output(deadletterTag, KV.of(inputFile, error));
+      }
+
+      try {
+        FileSystems.delete(parts, StandardMoveOptions.IGNORE_MISSING_FILES);
+      } catch (IOException e) {
+        LOG.warn("Error occurred deleting the blocks of {}", inputFile, e);
+      }
+    }
+
+    private void copy(List<ResourceId> parts, ResourceId tempFile) throws IOException {
+      try (OutputStream out = Channels.newOutputStream(FileSystems.create(tempFile, mimeType))) {
+        for (ResourceId part : parts) {
+          try (InputStream in = Channels.newInputStream(FileSystems.open(part))) {
+            ByteStreams.copy(in, out);
+          }
+        }
+      }
+    }
+
+    private void compose(List<ResourceId> parts, ResourceId tempFile) throws IOException {
+      GcsPath target = GcsPath.fromResourceId(tempFile);
+      List<String> sources = new ArrayList<>();
+      for (ResourceId part : parts) {
+        GcsPath source = GcsPath.fromResourceId(part);
+        if (!source.getBucket().equals(target.getBucket())) {
+          // Compose only combines objects of a single bucket.
+          copy(parts, tempFile);
+          return;
+        }
+        sources.add(source.getObject());
+      }
+      if (storage == null) {
+        storage = StorageOptions.getDefaultInstance().getService();
+      }
+      List<String> intermediates =
+          composeAll(
+              sources,
+              target.getObject(),
+              (group, object) ->
+                  storage.compose(
+                      Storage.ComposeRequest.newBuilder()
+                          .addSource(group)
+                          .setTarget(
+                              BlobInfo.newBuilder(BlobId.of(target.getBucket(), object))
+                                  .setContentType(mimeType)
+                                  .build())
+                          .build()));
+      for (String intermediate : intermediates) {
+        storage.delete(BlobId.of(target.getBucket(), intermediate));
+      }
+    }
+  }
+}
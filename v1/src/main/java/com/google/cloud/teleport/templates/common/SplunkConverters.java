@@ -106,7 +106,7 @@ public class SplunkConverters {
         order = 2,
         description = "Splunk HEC URL.",
         helpText =
-            "The Splunk HEC URL. The URL must be routable from the VPC that the pipeline runs in.",
+            "The Splunk HEC URL. The URL must be routable from the VPC that the pipeline runs in. A comma separated list of HEC URLs can be provided to spread the requests over several endpoints.",
         example = "https://splunk-hec-host:8088")
     ValueProvider<String> getUrl();
 
@@ -225,6 +225,26 @@ public class SplunkConverters {
     ValueProvider<Boolean> getEnableGzipHttpCompression();
 
     void setEnableGzipHttpCompression(ValueProvider<Boolean> enableGzipHttpCompression);
+
+    @TemplateParameter.Integer(
+        order = 13,
+        optional = true,
+        description = "Maximum number of in-flight batches per worker.",
+        helpText =
+            "The maximum number of batches each worker sends to Splunk HEC concurrently without waiting for the previous ones to complete. Defaults to `1`, unless several HEC URLs are provided.")
+    ValueProvider<Integer> getMaxInFlightBatches();
+
+    void setMaxInFlightBatches(ValueProvider<Integer> maxInFlightBatches);
+
+    @TemplateParameter.Integer(
+        order = 14,
+        optional = true,
+        description = "Maximum size in bytes of the in-flight batches per worker.",
+        helpText =
+            "The maximum size in bytes of the payloads of the batches each worker has in flight. Writers wait for batches to complete once it is reached. Defaults to `67108864` (64 MiB).")
+    ValueProvider<Integer> getMaxInFlightBytes();
+
+    void setMaxInFlightBytes(ValueProvider<Integer> maxInFlightBytes);
   }
 
   private static class FailsafeStringToSplunkEvent
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.DoFn.OutputReceiver;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
+import org.joda.time.Instant;
+
+/**
+ * The {@link PendingBatches} class tracks the batches a writer {@link DoFn} sends on background
+ * threads, and outputs the errors of each batch with the window and timestamp of the element which
+ * flushed it.
+ *
+ * <p>The result of a batch is handed to a handler which runs on the bundle thread, so that it can
+ * update metrics, and which outputs the errors of the batch to the given consumer.
+ *
+ * @param <ResultT> type of the result of a batch
+ * @param <ErrorT> type of the errors output for a failed batch
+ */
+public class PendingBatches<ResultT, ErrorT> {
+
+  private final BiConsumer<ResultT, Consumer<ErrorT>> handler;
+  private final List<PendingBatch<ResultT>> batches = new ArrayList<>();
+
+  /**
+   * Creates an empty list of pending batches.
+   *
+   * @param handler handles the result of a batch and outputs its errors to the consumer
+   */
+  public PendingBatches(BiConsumer<ResultT, Consumer<ErrorT>> handler) {
+    this.handler = handler;
+  }
+
+  /** Adds a batch flushed by an element of {@code window} at {@code timestamp}. */
+  public void add(Future<ResultT> result, BoundedWindow window, Instant timestamp) {
+    batches.add(new PendingBatch<>(result, window, timestamp));
+  }
+
+  public boolean isEmpty() {
+    return batches.isEmpty();
+  }
+
+  /**
+   * Handles the completed batches which can be output by an element of {@code window} at {@code
+   * timestamp}. An {@link OutputReceiver} can only output to the window of the current element and
+   * not before its timestamp, so the other batches are left to {@link #finish}.
+   */
+  public void outputCompleted(
+      OutputReceiver<ErrorT> receiver, BoundedWindow window, Instant timestamp)
+      throws InterruptedException {
+    Iterator<PendingBatch<ResultT>> iterator = batches.iterator();
+    while (iterator.hasNext()) {
+      PendingBatch<ResultT> batch = iterator.next();
+      if (!batch.result.isDone()
+          || !batch.window.equals(window)
+          || batch.timestamp.isBefore(timestamp)) {
+        continue;
+      }
+      try {
+        handler.accept(
+            batch.result.get(), error -> receiver.outputWithTimestamp(error, batch.timestamp));
+      } catch (ExecutionException e) {
+        throw new RuntimeException(e.getCause());
+      }
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Waits for all the batches and handles them. The bundle is only committed once all its batches
+   * are written or output as failures.
+   */
+  public void finish(DoFn<?, ErrorT>.FinishBundleContext context)
+      throws InterruptedException, ExecutionException {
+    for (PendingBatch<ResultT> batch : batches) {
+      handler.accept(
+          batch.result.get(), error -> context.output(error, batch.timestamp, batch.window));
+    }
+    batches.clear();
+  }
+
+  /**
+   * Counts a failed request as invalid for client and connection errors, or as a server error for
+   * 5xx status codes.
+   *
+   * @param statusCode status code of the response, or null if the request failed without one
+   */
+  public static void countFailedRequest(
+      @Nullable Integer statusCode, Counter invalidRequests, Counter serverErrorRequests) {
+    if (statusCode == null || (statusCode >= 400 && statusCode < 500)) {
+      invalidRequests.inc();
+    } else if (statusCode >= 500 && statusCode < 600) {
+      serverErrorRequests.inc();
+    }
+  }
+
+  /** A batch written on a background thread, with the window and timestamp of its errors. */
+  private static class PendingBatch<ResultT> {
+    private final Future<ResultT> result;
+    private final BoundedWindow window;
+    private final Instant timestamp;
+
+    PendingBatch(Future<ResultT> result, BoundedWindow window, Instant timestamp) {
+      this.result = result;
+      this.window = window;
+      this.timestamp = timestamp;
+    }
+  }
+}
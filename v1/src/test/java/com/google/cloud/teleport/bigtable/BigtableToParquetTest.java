@@ -17,15 +17,22 @@ package com.google.cloud.teleport.bigtable;
 
 import static com.google.cloud.teleport.bigtable.BigtableToParquet.BigtableToParquetFn;
 import static com.google.cloud.teleport.bigtable.TestUtils.createBigtableRow;
+import static com.google.cloud.teleport.bigtable.TestUtils.toByteBuffer;
 import static com.google.cloud.teleport.bigtable.TestUtils.upsertBigtableCell;
+import static com.google.common.truth.Truth.assertThat;
 
 import com.google.bigtable.v2.Row;
+import com.google.cloud.teleport.bigtable.BigtableToParquet.BigtableToColumnarParquetFn;
+import com.google.cloud.teleport.bigtable.BigtableToParquet.CollectColumnsFn;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.beam.sdk.extensions.avro.coders.AvroCoder;
+import org.apache.beam.sdk.options.ValueProvider.StaticValueProvider;
 import org.apache.beam.sdk.testing.PAssert;
 import org.apache.beam.sdk.testing.TestPipeline;
 import org.apache.beam.sdk.transforms.Create;
@@ -75,4 +82,95 @@ public final class BigtableToParquetTest {
 
     pipeline.run();
   }
+
+  @Test
+  public void columnarSchemaFieldNames() {
+    Schema schema =
+        BigtableToParquet.columnarSchema(Arrays.asList("cf:na_me", "cf:na-me", "1cf:name"), 1);
+
+    assertThat(schema.getFields()).hasSize(4);
+    assertThat(schema.getFields().get(0).name()).isEqualTo("key");
+    assertThat(schema.getFields().get(1).name()).isEqualTo("cf_na_me");
+    assertThat(schema.getFields().get(2).name()).isEqualTo("cf_na_me_2");
+    assertThat(schema.getFields().get(2).doc()).isEqualTo("cf:na-me");
+    assertThat(schema.getFields().get(3).name()).isEqualTo("_1cf_name");
+  }
+
+  @Test
+  public void applyBigtableToColumnarParquetFnLatestCell() {
+    Row row = createBigtableRow("row1");
+    row = upsertBigtableCell(row, "family1", "column1", 1, "value1");
+    row = upsertBigtableCell(row, "family1", "column1", 2, "value2");
+    row = upsertBigtableCell(row, "family1", "column2", 1, "ignored");
+
+    GenericRecord record =
+        new BigtableToColumnarParquetFn(null, null, StaticValueProvider.of(1))
+            .toRecord(row, Arrays.asList("family1:column1", "family2:column1"));
+
+    assertThat(record.get("key")).isEqualTo(toByteBuffer("row1"));
+    assertThat(record.get("family1_column1")).isEqualTo(toByteBuffer("value2"));
+    assertThat(record.get("family2_column1")).isNull();
+    assertThat(record.getSchema().getField("family1_column2")).isNull();
+  }
+
+  @Test
+  public void applyBigtableToColumnarParquetFnVersions() {
+    Row row = createBigtableRow("row1");
+    row = upsertBigtableCell(row, "family1", "column1", 1, "value1");
+    row = upsertBigtableCell(row, "family1", "column1", 3, "value3");
+    row = upsertBigtableCell(row, "family1", "column1", 2, "value2");
+
+    GenericRecord record =
+        new BigtableToColumnarParquetFn(null, null, StaticValueProvider.of(2))
+            .toRecord(row, Arrays.asList("family1:column1"));
+
+    @SuppressWarnings("unchecked")
+    List<GenericRecord> cells = (List<GenericRecord>) record.get("family1_column1");
+    assertThat(cells).hasSize(2);
+    assertThat(cells.get(0).get("timestamp")).isEqualTo(3L);
+    assertThat(cells.get(0).get("value")).isEqualTo(toByteBuffer("value3"));
+    assertThat(cells.get(1).get("timestamp")).isEqualTo(2L);
+  }
+
+  @Test
+  public void collectColumnsFn() {
+    Row row1 = upsertBigtableCell(createBigtableRow("row1"), "family1", "b", 1, "value");
+    Row row2 = upsertBigtableCell(createBigtableRow("row2"), "family1", "a", 1, "value");
+    Row row3 = upsertBigtableCell(createBigtableRow("row3"), "family2", "c", 1, "value");
+    row3 = upsertBigtableCell(row3, "family1", "b", 1, "value");
+
+    CollectColumnsFn collectFn = new CollectColumnsFn();
+    // The columns do not depend on how the rows are split between combiners.
+    CollectColumnsFn.Accumulator first = collectFn.addInput(collectFn.createAccumulator(), row3);
+    CollectColumnsFn.Accumulator second = collectFn.createAccumulator();
+    for (Row row : Arrays.asList(row2, row1)) {
+      second = collectFn.addInput(second, row);
+    }
+    assertThat(collectFn.extractOutput(collectFn.mergeAccumulators(Arrays.asList(second, first))))
+        .containsExactly("family1:a", "family1:b", "family2:c")
+        .inOrder();
+  }
+
+  @Test
+  public void parseColumns() {
+    assertThat(BigtableToParquet.parseColumns("family2:c, family1:b,"))
+        .containsExactly("family2:c", "family1:b")
+        .inOrder();
+    assertThat(BigtableToParquet.parseColumns(" ")).isEmpty();
+    assertThat(BigtableToParquet.parseColumns(null)).isEmpty();
+  }
+
+  @Test
+  public void applyBigtableToColumnarParquetFnProjection() {
+    Row row = upsertBigtableCell(createBigtableRow("row1"), "family1", "b", 1, "value");
+
+    GenericRecord record =
+        new BigtableToColumnarParquetFn(
+                null, Arrays.asList("family2:c", "family1:b"), StaticValueProvider.of(1))
+            .apply(row, null);
+
+    assertThat(record.getSchema().getFields().get(1).name()).isEqualTo("family2_c");
+    assertThat(record.get("family1_b")).isEqualTo(toByteBuffer("value"));
+    assertThat(record.get("family2_c")).isNull();
+  }
 }
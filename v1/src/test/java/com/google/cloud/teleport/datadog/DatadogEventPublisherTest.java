@@ -26,12 +26,16 @@ import com.google.api.client.http.HttpResponse;
 import com.google.api.client.util.ExponentialBackOff;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 import org.junit.Test;
 import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.integration.ClientAndServer;
@@ -64,7 +68,10 @@ public class DatadogEventPublisherTest {
   private static final List<DatadogEvent> DATADOG_EVENTS =
       ImmutableList.of(DATADOG_TEST_EVENT_1, DATADOG_TEST_EVENT_2);
 
-  /** Test whether {@link HttpContent} is created from the list of {@link DatadogEvent}s. */
+  /**
+   * Test whether gzip compressed {@link HttpContent} is created from the list of {@link
+   * DatadogEvent}s.
+   */
   @Test
   public void contentTest() throws NoSuchAlgorithmException, KeyManagementException, IOException {
 
@@ -87,11 +94,28 @@ public class DatadogEventPublisherTest {
     try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
       HttpContent actualContent = publisher.getContent(DATADOG_EVENTS);
       actualContent.writeTo(bos);
-      String actualString = new String(bos.toByteArray(), StandardCharsets.UTF_8);
-      assertThat(actualString, is(equalTo(expectedString)));
+      try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+        String actualString = new String(ByteStreams.toByteArray(is), StandardCharsets.UTF_8);
+        assertThat(actualString, is(equalTo(expectedString)));
+      }
     }
   }
 
+  /** Test whether the sizes of the compressed payload are reported. */
+  @Test
+  public void gzipPayloadTest() throws IOException {
+    DatadogEventPublisher.GzipPayload payload =
+        DatadogEventPublisher.GzipPayload.of(DATADOG_EVENTS);
+
+    assertThat(
+        payload.getUncompressedSize(),
+        is(
+            equalTo(
+                DatadogEventSerializer.getPayloadSize(
+                    DatadogEventSerializer.getPayloadString(DATADOG_EVENTS)))));
+    assertThat(payload.getCompressedSize(), is(equalTo((long) payload.getBytes().length)));
+  }
+
   @Test
   public void genericURLTest() throws IOException {
 
@@ -219,6 +219,36 @@ public class DatadogEventWriterTest {
     assertThat(writer.maxBufferSize()).isEqualTo(maxBufferSize);
   }
 
+  /** Test that the writers of a worker share the limit of in-flight requests. */
+  @Test
+  public void eventWritersShareWorkerLimits() {
+
+    DatadogEventWriter first = newWriter(2);
+    DatadogEventWriter second = newWriter(2);
+    DatadogEventWriter other = newWriter(3);
+    first.setup();
+    second.setup();
+    other.setup();
+
+    try {
+      assertThat(first.getLimits()).isNotNull();
+      assertThat(second.getLimits()).isSameInstanceAs(first.getLimits());
+      assertThat(other.getLimits()).isNotSameInstanceAs(first.getLimits());
+    } finally {
+      first.tearDown();
+      second.tearDown();
+      other.tearDown();
+    }
+  }
+
+  private static DatadogEventWriter newWriter(int maxInFlightRequests) {
+    return DatadogEventWriter.newBuilder()
+        .withUrl("http://test-url")
+        .withApiKey("test-api-key")
+        .withMaxInFlightRequests(StaticValueProvider.of(maxInFlightRequests))
+        .build();
+  }
+
   /** Test successful POST request for single batch. */
   @Test
   @Category(NeedsRunner.class)
@@ -446,6 +476,80 @@ public class DatadogEventWriterTest {
     mockServer.verify(HttpRequest.request(EXPECTED_PATH), VerificationTimes.once());
   }
 
+  /** Test failed POST requests of batches written concurrently. */
+  @Test
+  @Category(NeedsRunner.class)
+  public void failedDatadogWriteConcurrentBatchesTest() {
+
+    // Create server expectation for FAILURE.
+    addRequestExpectation(404);
+
+    int testPort = mockServer.getPort();
+
+    List<KV<Integer, DatadogEvent>> testEvents =
+        ImmutableList.of(
+            KV.of(
+                123,
+                DatadogEvent.newBuilder()
+                    .withSource("test-source-1")
+                    .withTags("test-tags-1")
+                    .withHostname("test-hostname-1")
+                    .withService("test-service-1")
+                    .withMessage("test-message-1")
+                    .build()),
+            KV.of(
+                123,
+                DatadogEvent.newBuilder()
+                    .withSource("test-source-2")
+                    .withTags("test-tags-2")
+                    .withHostname("test-hostname-2")
+                    .withService("test-service-2")
+                    .withMessage("test-message-2")
+                    .build()));
+
+    PCollection<DatadogWriteError> actual =
+        pipeline
+            .apply(
+                "Create Input data",
+                Create.of(testEvents)
+                    .withCoder(KvCoder.of(BigEndianIntegerCoder.of(), DatadogEventCoder.of())))
+            .apply(
+                "DatadogEventWriter",
+                ParDo.of(
+                    DatadogEventWriter.newBuilder(1)
+                        .withUrl(Joiner.on(':').join("http://localhost", testPort))
+                        .withInputBatchCount(StaticValueProvider.of(1)) // one request per event.
+                        .withMaxInFlightRequests(StaticValueProvider.of(2))
+                        .withApiKey("test-api-key")
+                        .build()))
+            .setCoder(DatadogWriteErrorCoder.of());
+
+    // Expect a 404 Not found DatadogWriteError for each event.
+    PAssert.that(actual)
+        .containsInAnyOrder(
+            DatadogWriteError.newBuilder()
+                .withStatusCode(404)
+                .withStatusMessage("Not Found")
+                .withPayload(
+                    "{\"ddsource\":\"test-source-1\","
+                        + "\"ddtags\":\"test-tags-1\",\"hostname\":\"test-hostname-1\","
+                        + "\"service\":\"test-service-1\",\"message\":\"test-message-1\"}")
+                .build(),
+            DatadogWriteError.newBuilder()
+                .withStatusCode(404)
+                .withStatusMessage("Not Found")
+                .withPayload(
+                    "{\"ddsource\":\"test-source-2\","
+                        + "\"ddtags\":\"test-tags-2\",\"hostname\":\"test-hostname-2\","
+                        + "\"service\":\"test-service-2\",\"message\":\"test-message-2\"}")
+                .build());
+
+    pipeline.run();
+
+    // Server received a POST request for each event.
+    mockServer.verify(HttpRequest.request(EXPECTED_PATH), VerificationTimes.exactly(2));
+  }
+
   /** Test failed due to single event exceeding max buffer size. */
   @Test
   @Category(NeedsRunner.class)
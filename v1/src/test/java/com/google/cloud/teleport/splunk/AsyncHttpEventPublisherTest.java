@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.splunk;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockserver.integration.ClientAndServer.startClientAndServer;
+
+import com.google.cloud.teleport.splunk.AsyncHttpEventPublisher.Endpoint;
+import com.google.cloud.teleport.splunk.AsyncHttpEventPublisher.PublishResult;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.mockserver.verify.VerificationTimes;
+
+/** Unit tests for {@link AsyncHttpEventPublisher} class. */
+public class AsyncHttpEventPublisherTest {
+
+  private static final List<SplunkEvent> SPLUNK_EVENTS =
+      ImmutableList.of(
+          SplunkEvent.newBuilder()
+              .withEvent("test-event-1")
+              .withHost("test-host-1")
+              .withIndex("test-index-1")
+              .withSource("test-source-1")
+              .withSourceType("test-source-type-1")
+              .withTime(12345L)
+              .build());
+
+  private static final String EXPECTED_PATH = "/" + HttpEventPublisher.HEC_URL_PATH;
+
+  private static final int MAX_ELAPSED_MILLIS = 1_000;
+  private ClientAndServer mockServer;
+
+  @Before
+  public void setUp() throws IOException {
+    ConfigurationProperties.disableSystemOut(true);
+    ServerSocket socket = new ServerSocket(0);
+    int port = socket.getLocalPort();
+    socket.close();
+    mockServer = startClientAndServer("localhost", port);
+  }
+
+  @After
+  public void tearDown() {
+    mockServer.stop();
+  }
+
+  /** Test that batches are written to all the endpoints concurrently. */
+  @Test
+  public void publishToEndpointsTest() throws Exception {
+    mockServerListening(200);
+    List<String> urls =
+        ImmutableList.of(
+            "http://localhost:" + mockServer.getPort(), "http://127.0.0.1:" + mockServer.getPort());
+    AsyncHttpEventPublisher publisher = buildPublisher(urls, 2, 1024);
+
+    List<Future<PublishResult>> results = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      results.add(publisher.publish(SPLUNK_EVENTS));
+    }
+
+    for (Future<PublishResult> result : results) {
+      assertThat(result.get().isSuccess(), is(true));
+      assertThat(result.get().getStatusCode(), is(equalTo(200)));
+      assertThat(result.get().getEvents(), is(equalTo(SPLUNK_EVENTS)));
+    }
+    mockServer.verify(HttpRequest.request(EXPECTED_PATH), VerificationTimes.exactly(4));
+    publisher.close();
+  }
+
+  /** Test that a failed POST completes with its status instead of an exception. */
+  @Test
+  public void publishFailureTest() throws Exception {
+    mockServerListening(404);
+    AsyncHttpEventPublisher publisher =
+        buildPublisher(ImmutableList.of("http://localhost:" + mockServer.getPort()), 2, 1);
+
+    PublishResult result = publisher.publish(SPLUNK_EVENTS).get();
+
+    assertThat(result.isSuccess(), is(false));
+    assertThat(result.getStatusCode(), is(equalTo(404)));
+    assertThat(result.getStatusMessage(), is(equalTo("Not Found")));
+    assertThat(result.getEvents(), is(equalTo(SPLUNK_EVENTS)));
+    publisher.close();
+  }
+
+  /**
+   * Test that a batch failing on an endpoint is retried on another healthy endpoint right away,
+   * without the endpoint publisher retrying it first.
+   */
+  @Test(timeout = 10_000)
+  public void publishRetriesOnOtherEndpointTest() throws Exception {
+    mockServerListening(200);
+    ServerSocket socket = new ServerSocket(0);
+    int closedPort = socket.getLocalPort();
+    socket.close();
+    String healthyUrl = "http://localhost:" + mockServer.getPort();
+    AsyncHttpEventPublisher publisher =
+        buildPublisher(ImmutableList.of("http://localhost:" + closedPort, healthyUrl), 1, 1024);
+
+    PublishResult result = publisher.publish(SPLUNK_EVENTS).get();
+
+    assertThat(result.isSuccess(), is(true));
+    assertThat(result.getUrl(), is(equalTo(healthyUrl)));
+    mockServer.verify(HttpRequest.request(EXPECTED_PATH), VerificationTimes.exactly(1));
+    publisher.close();
+  }
+
+  /** Test that a batch failing on every endpoint is retried after a back-off, then fails. */
+  @Test(timeout = 30_000)
+  public void publishRetriesAfterBackOffTest() throws Exception {
+    mockServerListening(503);
+    AsyncHttpEventPublisher publisher =
+        buildPublisher(ImmutableList.of("http://localhost:" + mockServer.getPort()), 1, 1024);
+
+    PublishResult result = publisher.publish(SPLUNK_EVENTS).get();
+
+    assertThat(result.isSuccess(), is(false));
+    assertThat(result.getStatusCode(), is(equalTo(503)));
+    mockServer.verify(HttpRequest.request(EXPECTED_PATH), VerificationTimes.atLeast(2));
+    publisher.close();
+  }
+
+  /** Test that publishers of the same endpoints and limits share the limits of the JVM. */
+  @Test
+  public void workerLimitsSharedTest() throws Exception {
+    List<String> urls = ImmutableList.of("http://example.com", "http://example.org");
+    AsyncHttpEventPublisher first = buildPublisher(urls, 2, 1024);
+    AsyncHttpEventPublisher second = buildPublisher(urls, 2, 1024);
+    AsyncHttpEventPublisher other = buildPublisher(urls, 3, 1024);
+
+    assertThat(second.getLimits(), is(sameInstance(first.getLimits())));
+    assertThat(other.getLimits(), is(not(sameInstance(first.getLimits()))));
+
+    first.close();
+    first.close();
+    AsyncHttpEventPublisher third = buildPublisher(urls, 2, 1024);
+    assertThat(third.getLimits(), is(sameInstance(second.getLimits())));
+
+    second.close();
+    third.close();
+    AsyncHttpEventPublisher fourth = buildPublisher(urls, 2, 1024);
+    assertThat(fourth.getLimits(), is(not(sameInstance(second.getLimits()))));
+    fourth.close();
+    other.close();
+  }
+
+  /** Test that failed endpoints are avoided until their back-off period has elapsed. */
+  @Test
+  public void selectEndpointTest() throws Exception {
+    AsyncHttpEventPublisher publisher =
+        buildPublisher(ImmutableList.of("http://example.com", "http://example.org"), 1, 1024);
+
+    Endpoint first = publisher.selectEndpoint(0);
+    assertThat(first.getUrl(), is(equalTo("http://example.com")));
+    // The least loaded endpoint is selected.
+    Endpoint second = publisher.selectEndpoint(0);
+    assertThat(second.getUrl(), is(equalTo("http://example.org")));
+
+    publisher.onCompleted(first, true, 10, 0);
+    publisher.onCompleted(second, false, 100, 0);
+    Endpoint selected = publisher.selectEndpoint(0);
+    assertThat(selected.getUrl(), is(equalTo("http://example.org")));
+    publisher.onCompleted(selected, false, 100, 0);
+
+    // After its back-off period, the failed endpoint is selected for its lower latency.
+    selected = publisher.selectEndpoint(AsyncHttpEventPublisher.MIN_UNHEALTHY_MILLIS);
+    assertThat(selected.getUrl(), is(equalTo("http://example.com")));
+
+    // With no healthy endpoint, the one which recovers first is selected.
+    publisher.onCompleted(selected, true, 10, 0);
+    selected = publisher.selectEndpoint(0);
+    publisher.onCompleted(selected, true, 10, 0);
+    assertThat(selected.getUrl(), is(equalTo("http://example.org")));
+    assertThat(publisher.selectEndpoint(0).getUrl(), is(equalTo("http://example.org")));
+    publisher.close();
+  }
+
+  private static AsyncHttpEventPublisher buildPublisher(
+      List<String> urls, int maxInFlightBatches, int maxInFlightBytes) throws Exception {
+    List<HttpEventPublisher> publishers = new ArrayList<>();
+    for (String url : urls) {
+      publishers.add(
+          HttpEventPublisher.newBuilder()
+              .withUrl(url)
+              .withToken("test-token")
+              .withDisableCertificateValidation(false)
+              .withEnableGzipHttpCompression(true)
+              .withMaxConnections(maxInFlightBatches)
+              .withMaxElapsedMillis(MAX_ELAPSED_MILLIS)
+              .withRetryFailedRequests(false)
+              .build());
+    }
+    return new AsyncHttpEventPublisher(publishers, urls, maxInFlightBatches, maxInFlightBytes);
+  }
+
+  private void mockServerListening(int statusCode) {
+    mockServer
+        .when(HttpRequest.request(EXPECTED_PATH))
+        .respond(HttpResponse.response().withStatusCode(statusCode));
+  }
+}
@@ -63,6 +63,14 @@ public class SplunkEventWriterTest {
     mockServer = startClientAndServer(port);
   }
 
+  /** Test that endpoint labels in metric names only keep the host and port. */
+  @Test
+  public void endpointLabelTest() {
+    assertThat(SplunkEventWriter.endpointLabel("https://splunk-hec.example.com:8088"))
+        .isEqualTo("splunk_hec_example_com_8088");
+    assertThat(SplunkEventWriter.endpointLabel("http://10.0.0.1:8088/")).isEqualTo("10_0_0_1_8088");
+  }
+
   /** Test building {@link SplunkEventWriter} with missing URL. */
   @Test
   public void eventWriterMissingURL() {
@@ -15,24 +15,39 @@
  */
 package com.google.cloud.teleport.templates;
 
+import static com.google.cloud.teleport.templates.BulkCompressor.BLOCKS_TAG;
+import static com.google.cloud.teleport.templates.BulkCompressor.COMPRESSOR_MAIN_OUT;
+import static com.google.cloud.teleport.templates.BulkCompressor.DEADLETTER_TAG;
+import static com.google.cloud.teleport.templates.BulkCompressor.WHOLE_FILES_TAG;
+
+import com.google.cloud.teleport.templates.BulkCompressor.CompressBlock;
 import com.google.cloud.teleport.templates.BulkCompressor.Compressor;
+import com.google.cloud.teleport.templates.BulkCompressor.SplitIntoBlocks;
+import com.google.cloud.teleport.templates.common.MultiMemberCompression.ConcatenateBlocks;
 import com.google.cloud.teleport.util.TestUtils;
 import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.beam.sdk.io.Compression;
 import org.apache.beam.sdk.io.FileSystems;
 import org.apache.beam.sdk.io.TextIO;
 import org.apache.beam.sdk.io.fs.MatchResult.Metadata;
+import org.apache.beam.sdk.io.fs.MetadataCoder;
 import org.apache.beam.sdk.io.fs.ResourceId;
 import org.apache.beam.sdk.options.ValueProvider;
 import org.apache.beam.sdk.options.ValueProvider.StaticValueProvider;
 import org.apache.beam.sdk.testing.PAssert;
 import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.Count;
 import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.GroupByKey;
 import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.util.MimeTypes;
 import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionTuple;
+import org.apache.beam.sdk.values.TupleTagList;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Rule;
@@ -59,6 +74,8 @@ public class BulkCompressorTest {
   private static Path tempFolderCompressedPath;
   private static Path tempFolderUncompressedPath;
   private static ResourceId textFile;
+  private static ResourceId largeTextFile;
+  private static List<String> largeFileContent;
 
   @BeforeClass
   public static void setupClass() throws IOException {
@@ -70,6 +87,16 @@ public class BulkCompressorTest {
     textFile =
         TestUtils.writeToFile(
             tempFolderUncompressedPath.resolve(FILE_BASE_NAME).toString(), FILE_CONTENT);
+
+    // A file of about 2.8 MB, split into 3 blocks of 1 MB.
+    largeFileContent = new ArrayList<>();
+    for (int i = 0; i < 200_000; i++) {
+      largeFileContent.add(String.format("Line %08d", i));
+    }
+    largeTextFile =
+        TestUtils.writeToFile(
+            tempFolderUncompressedPath.resolve("large-" + FILE_BASE_NAME).toString(),
+            largeFileContent);
   }
 
   /** Tests the {@link BulkCompressor.Compressor} performs compression properly. */
@@ -97,4 +124,58 @@ public class BulkCompressorTest {
     PAssert.that(lines).containsInAnyOrder(FILE_CONTENT);
     pipeline.run();
   }
+
+  /**
+   * Tests that a file larger than the block size is compressed in blocks into a multi-member file,
+   * and that smaller files are left to the {@link BulkCompressor.Compressor}.
+   */
+  @Test
+  public void testCompressFileInBlocks() throws Exception {
+    // Setup test
+    final ValueProvider<String> outputDirectoryProvider =
+        pipeline.newProvider(tempFolderCompressedPath.toString());
+    final ValueProvider<Compression> compressionProvider = StaticValueProvider.of(Compression.GZIP);
+    final ValueProvider<Integer> blockSizeProvider = StaticValueProvider.of(1);
+
+    final Metadata largeMetadata = FileSystems.matchSingleFileSpec(largeTextFile.toString());
+    final Metadata smallMetadata = FileSystems.matchSingleFileSpec(textFile.toString());
+    final String expectedOutputFile =
+        tempFolderCompressedPath.resolve("large-" + FILE_BASE_NAME + ".gz").toString();
+
+    // Execute the compressor
+    PCollectionTuple splitOut =
+        pipeline
+            .apply("Create File Input", Create.of(largeMetadata, smallMetadata))
+            .apply(
+                "Split",
+                ParDo.of(new SplitIntoBlocks(compressionProvider, blockSizeProvider))
+                    .withOutputTags(BLOCKS_TAG, TupleTagList.of(WHOLE_FILES_TAG)));
+
+    PCollectionTuple concatenateOut =
+        splitOut
+            .get(BLOCKS_TAG)
+            .apply(
+                "Compress Blocks",
+                ParDo.of(new CompressBlock(outputDirectoryProvider, compressionProvider)))
+            .apply("Group Blocks", GroupByKey.create())
+            .apply(
+                "Concatenate Blocks",
+                ParDo.of(new ConcatenateBlocks(MimeTypes.BINARY, DEADLETTER_TAG))
+                    .withOutputTags(COMPRESSOR_MAIN_OUT, TupleTagList.of(DEADLETTER_TAG)));
+
+    PCollection<String> lines =
+        concatenateOut
+            .get(COMPRESSOR_MAIN_OUT)
+            .apply("Read the Files", TextIO.readAll().withCompression(Compression.AUTO));
+
+    // Test the result
+    PAssert.that(splitOut.get(BLOCKS_TAG).apply("Count Blocks", Count.globally()))
+        .containsInAnyOrder(3L);
+    PAssert.that(splitOut.get(WHOLE_FILES_TAG).setCoder(MetadataCoder.of()))
+        .containsInAnyOrder(smallMetadata);
+    PAssert.that(concatenateOut.get(COMPRESSOR_MAIN_OUT)).containsInAnyOrder(expectedOutputFile);
+    PAssert.that(concatenateOut.get(DEADLETTER_TAG)).empty();
+    PAssert.that(lines).containsInAnyOrder(largeFileContent);
+    pipeline.run();
+  }
 }
@@ -15,8 +15,10 @@
  */
 package com.google.cloud.teleport.templates;
 
+import static com.google.cloud.teleport.templates.BulkDecompressor.BLOCKS_TAG;
 import static com.google.cloud.teleport.templates.BulkDecompressor.DEADLETTER_TAG;
 import static com.google.cloud.teleport.templates.BulkDecompressor.DECOMPRESS_MAIN_OUT_TAG;
+import static com.google.cloud.teleport.templates.BulkDecompressor.WHOLE_FILES_TAG;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
@@ -24,23 +26,41 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.junit.Assert.assertThat;
 
 import com.google.cloud.teleport.templates.BulkDecompressor.Decompress;
+import com.google.cloud.teleport.templates.BulkDecompressor.DecompressBlock;
+import com.google.cloud.teleport.templates.BulkDecompressor.PlanBlocks;
+import com.google.cloud.teleport.templates.BulkDecompressor.ScanMembers;
+import com.google.cloud.teleport.templates.BulkDecompressor.SplitIntoRanges;
+import com.google.cloud.teleport.templates.common.MultiMemberCompression;
+import com.google.cloud.teleport.templates.common.MultiMemberCompression.ConcatenateBlocks;
 import com.google.cloud.teleport.util.TestUtils;
 import com.google.common.io.Files;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 import org.apache.beam.sdk.PipelineResult;
 import org.apache.beam.sdk.io.Compression;
 import org.apache.beam.sdk.io.FileSystems;
 import org.apache.beam.sdk.io.TextIO;
 import org.apache.beam.sdk.io.fs.MatchResult.Metadata;
+import org.apache.beam.sdk.io.fs.MetadataCoder;
 import org.apache.beam.sdk.io.fs.ResourceId;
 import org.apache.beam.sdk.options.ValueProvider;
+import org.apache.beam.sdk.options.ValueProvider.StaticValueProvider;
 import org.apache.beam.sdk.testing.PAssert;
 import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.Count;
 import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.GroupByKey;
 import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.util.MimeTypes;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PCollectionTuple;
@@ -72,6 +92,8 @@ public class BulkDecompressorTest {
   private static ResourceId wrongCompressionExtFile;
   private static ResourceId uncompressedFile;
   private static ResourceId unknownCompressionFile;
+  private static ResourceId multiMemberFile;
+  private static List<String> multiMemberFileContent;
 
   @BeforeClass
   public static void setupClass() throws IOException {
@@ -108,6 +130,31 @@ public class BulkDecompressorTest {
             tempFolderRootPath.resolve(FILE_BASE_NAME).toString(),
             FILE_CONTENT,
             Compression.UNCOMPRESSED);
+
+    // A gzip file of 3 members of about 1 MB of random text each, about 0.6 MB compressed.
+    multiMemberFileContent = new ArrayList<>();
+    multiMemberFile =
+        FileSystems.matchNewResource(
+            tempFolderRootPath.resolve("multi-member-" + FILE_BASE_NAME + ".gz").toString(), false);
+    try (OutputStream out =
+        Channels.newOutputStream(FileSystems.create(multiMemberFile, MimeTypes.BINARY))) {
+      for (int member = 0; member < 3; member++) {
+        StringBuilder block = new StringBuilder();
+        for (int i = 0; i < 30_000; i++) {
+          String line = UUID.randomUUID().toString();
+          multiMemberFileContent.add(line);
+          block.append(line).append('\n');
+        }
+        ByteArrayOutputStream compressedMember = new ByteArrayOutputStream();
+        byte[] header =
+            MultiMemberCompression.writeMember(
+                Compression.GZIP,
+                new ByteArrayInputStream(block.toString().getBytes(StandardCharsets.UTF_8)),
+                Channels.newChannel(compressedMember));
+        out.write(header);
+        compressedMember.writeTo(out);
+      }
+    }
   }
 
   /** Tests the {@link BulkDecompressor.Decompress} performs the decompression properly. */
@@ -252,4 +299,85 @@ public class BulkDecompressorTest {
 
     pipeline.run();
   }
+
+  /**
+   * Tests that a multi-member file larger than the block size is decompressed in blocks, and that
+   * smaller files are left to the {@link BulkDecompressor.Decompress}.
+   */
+  @Test
+  public void testDecompressMultiMemberFile() throws Exception {
+    // Arrange
+    //
+    final ValueProvider<String> outputDirectory =
+        pipeline.newProvider(tempFolderOutputPath.toString());
+    final ValueProvider<Integer> blockSize = StaticValueProvider.of(1);
+
+    final Metadata multiMemberFileMetadata =
+        FileSystems.matchSingleFileSpec(multiMemberFile.toString());
+    final Metadata compressedFileMetadata =
+        FileSystems.matchSingleFileSpec(compressedFile.toString());
+
+    final String expectedOutputFilePath =
+        tempFolderOutputPath
+            .resolve(Files.getNameWithoutExtension(multiMemberFile.toString()))
+            .normalize()
+            .toString();
+
+    // Act
+    //
+    PCollectionTuple splitOut =
+        pipeline
+            .apply("CreateWorkItems", Create.of(multiMemberFileMetadata, compressedFileMetadata))
+            .apply(
+                "Split",
+                ParDo.of(new SplitIntoRanges(blockSize))
+                    .withOutputTags(BLOCKS_TAG, TupleTagList.of(WHOLE_FILES_TAG)));
+
+    PCollectionTuple planOut =
+        splitOut
+            .get(BLOCKS_TAG)
+            .apply("Scan", ParDo.of(new ScanMembers()))
+            .apply("GroupScans", GroupByKey.create())
+            .apply(
+                "Plan",
+                ParDo.of(new PlanBlocks(blockSize))
+                    .withOutputTags(
+                        BLOCKS_TAG, TupleTagList.of(WHOLE_FILES_TAG).and(DEADLETTER_TAG)));
+
+    PCollectionTuple concatenateOut =
+        planOut
+            .get(BLOCKS_TAG)
+            .apply("DecompressBlocks", ParDo.of(new DecompressBlock(outputDirectory)))
+            .apply("GroupBlocks", GroupByKey.create())
+            .apply(
+                "Concatenate",
+                ParDo.of(new ConcatenateBlocks(MimeTypes.TEXT, DEADLETTER_TAG))
+                    .withOutputTags(DECOMPRESS_MAIN_OUT_TAG, TupleTagList.of(DEADLETTER_TAG)));
+
+    // Assert
+    //
+    PAssert.that(splitOut.get(WHOLE_FILES_TAG).setCoder(MetadataCoder.of()))
+        .containsInAnyOrder(compressedFileMetadata);
+    // The 3 members of the file are followed from its single range, and planned as a block of 2
+    // members and a block of the last member.
+    PAssert.that(splitOut.get(BLOCKS_TAG).apply("CountRanges", Count.globally()))
+        .containsInAnyOrder(1L);
+    PAssert.that(planOut.get(BLOCKS_TAG).apply("CountBlocks", Count.globally()))
+        .containsInAnyOrder(2L);
+    PAssert.that(planOut.get(WHOLE_FILES_TAG).setCoder(MetadataCoder.of())).empty();
+    PAssert.that(concatenateOut.get(DECOMPRESS_MAIN_OUT_TAG))
+        .containsInAnyOrder(expectedOutputFilePath);
+    PAssert.that(concatenateOut.get(DEADLETTER_TAG)).empty();
+
+    PipelineResult result = pipeline.run();
+    result.waitUntilFinish();
+
+    // Validate the decompressed file written has the expected file content.
+    PCollection<String> validatorOut =
+        validatorPipeline.apply("ReadOutputFile", TextIO.read().from(expectedOutputFilePath));
+
+    PAssert.that(validatorOut).containsInAnyOrder(multiMemberFileContent);
+
+    validatorPipeline.run();
+  }
 }
@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.templates.common;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.google.cloud.teleport.templates.common.MultiMemberCompression.MemberScan;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import org.apache.beam.sdk.io.Compression;
+import org.apache.beam.sdk.io.FileSystems;
+import org.apache.beam.sdk.io.range.OffsetRange;
+import org.apache.beam.sdk.options.ValueProvider.StaticValueProvider;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test cases for the {@link MultiMemberCompression} class. */
+@RunWith(JUnit4.class)
+public class MultiMemberCompressionTest {
+
+  private static final byte[] FIRST_BLOCK = randomBytes(1, 20_000);
+  private static final byte[] SECOND_BLOCK = randomBytes(2, 30_000);
+  private static final byte[] THIRD_BLOCK = randomBytes(3, 10_000);
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  /** Tests that gzip members are concatenated into a valid multi-member gzip file. */
+  @Test
+  public void testWriteGzipMembers() throws IOException {
+    byte[] compressed =
+        compress(Compression.GZIP, ImmutableList.of(FIRST_BLOCK, SECOND_BLOCK, THIRD_BLOCK));
+
+    byte[] decompressed =
+        ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed)));
+
+    assertThat(decompressed, is(equalTo(concat(FIRST_BLOCK, SECOND_BLOCK, THIRD_BLOCK))));
+  }
+
+  /** Tests that bzip2 streams are concatenated into a valid multi-stream bzip2 file. */
+  @Test
+  public void testWriteBzip2Members() throws IOException {
+    byte[] compressed = compress(Compression.BZIP2, ImmutableList.of(FIRST_BLOCK, SECOND_BLOCK));
+
+    byte[] decompressed =
+        ByteStreams.toByteArray(
+            Channels.newInputStream(
+                Compression.BZIP2.readDecompressed(
+                    Channels.newChannel(new ByteArrayInputStream(compressed)))));
+
+    assertThat(decompressed, is(equalTo(concat(FIRST_BLOCK, SECOND_BLOCK))));
+  }
+
+  /** Tests that the members found in ranges of a file are grouped into blocks. */
+  @Test
+  public void testPlanBlocks() throws IOException {
+    for (Compression compression : ImmutableList.of(Compression.GZIP, Compression.BZIP2)) {
+      byte[] first = compress(compression, ImmutableList.of(FIRST_BLOCK));
+      byte[] second = compress(compression, ImmutableList.of(SECOND_BLOCK));
+      byte[] compressed =
+          compress(compression, ImmutableList.of(FIRST_BLOCK, SECOND_BLOCK, THIRD_BLOCK));
+      long secondStart = first.length;
+      long thirdStart = first.length + second.length;
+
+      // Bzip2 ranges smaller than a signature, so that streams start across two ranges.
+      List<MemberScan> scans = scan(compression, compressed, 7);
+
+      assertThat(
+          MultiMemberCompression.planBlocks(compression, scans, 1),
+          is(
+              equalTo(
+                  ImmutableList.of(
+                      new OffsetRange(0, secondStart),
+                      new OffsetRange(secondStart, thirdStart),
+                      new OffsetRange(thirdStart, compressed.length)))));
+      assertThat(
+          MultiMemberCompression.planBlocks(compression, scans, secondStart + 1),
+          is(
+              equalTo(
+                  ImmutableList.of(
+                      new OffsetRange(0, thirdStart),
+                      new OffsetRange(thirdStart, compressed.length)))));
+      assertThat(
+          MultiMemberCompression.planBlocks(compression, scans, compressed.length),
+          is(equalTo(ImmutableList.of(new OffsetRange(0, compressed.length)))));
+    }
+  }
+
+  /** Tests that a gzip member stored within the data of another member is not a boundary. */
+  @Test
+  public void testPlanBlocksIgnoresNestedGzipMember() throws IOException {
+    byte[] inner = compress(Compression.GZIP, ImmutableList.of(FIRST_BLOCK));
+    byte[] compressed = compress(Compression.GZIP, ImmutableList.of(inner));
+
+    assertThat(
+        MultiMemberCompression.planBlocks(
+            Compression.GZIP, scan(Compression.GZIP, compressed, 1000), 1),
+        is(equalTo(ImmutableList.of(new OffsetRange(0, compressed.length)))));
+  }
+
+  /** Tests that only the gzip files written in members start with a member header. */
+  @Test
+  public void testHasMemberHeader() throws IOException {
+    ByteArrayOutputStream other = new ByteArrayOutputStream();
+    try (OutputStream out =
+        Channels.newOutputStream(Compression.GZIP.writeCompressed(Channels.newChannel(other)))) {
+      out.write(FIRST_BLOCK);
+    }
+
+    assertThat(
+        MultiMemberCompression.hasMemberHeader(
+            FileSystems.matchNewResource(
+                write(compress(Compression.GZIP, ImmutableList.of(FIRST_BLOCK))).toString(),
+                false)),
+        is(true));
+    assertThat(
+        MultiMemberCompression.hasMemberHeader(
+            FileSystems.matchNewResource(write(other.toByteArray()).toString(), false)),
+        is(false));
+    assertThat(
+        MultiMemberCompression.hasMemberHeader(
+            FileSystems.matchNewResource(write(new byte[] {0x1f, (byte) 0x8b}).toString(), false)),
+        is(false));
+  }
+
+  /** Tests that a gzip file whose last member is truncated cannot be split into blocks. */
+  @Test
+  public void testPlanBlocksOfTruncatedGzipFile() throws IOException {
+    byte[] compressed = compress(Compression.GZIP, ImmutableList.of(FIRST_BLOCK, SECOND_BLOCK));
+    byte[] truncated = Arrays.copyOf(compressed, compressed.length - 1);
+
+    assertThat(
+        MultiMemberCompression.planBlocks(
+            Compression.GZIP, scan(Compression.GZIP, truncated, 1000), 1),
+        is(nullValue()));
+  }
+
+  /** Tests that gzip files not written in members cannot be split into blocks. */
+  @Test
+  public void testPlanBlocksOfOtherGzipFile() throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (OutputStream out =
+        Channels.newOutputStream(
+            Compression.GZIP.writeCompressed(Channels.newChannel(compressed)))) {
+      out.write(FIRST_BLOCK);
+    }
+    List<MemberScan> scans = scan(Compression.GZIP, compressed.toByteArray(), 1000);
+
+    assertThat(MultiMemberCompression.planBlocks(Compression.GZIP, scans, 1), is(nullValue()));
+    assertThat(
+        MultiMemberCompression.planBlocks(
+            Compression.GZIP, ImmutableList.of(MemberScan.failed(FIRST_BLOCK.length)), 1),
+        is(nullValue()));
+  }
+
+  @Test
+  public void testSplitRanges() {
+    assertThat(
+        MultiMemberCompression.splitRanges(250, 100),
+        is(
+            equalTo(
+                ImmutableList.of(
+                    new OffsetRange(0, 100),
+                    new OffsetRange(100, 200),
+                    new OffsetRange(200, 250)))));
+    assertThat(
+        MultiMemberCompression.splitRanges(100, 100),
+        is(equalTo(ImmutableList.of(new OffsetRange(0, 100)))));
+  }
+
+  @Test
+  public void testBlockSizeBytes() {
+    assertThat(MultiMemberCompression.blockSizeBytes(null), is(0L));
+    assertThat(MultiMemberCompression.blockSizeBytes(StaticValueProvider.of(null)), is(0L));
+    assertThat(MultiMemberCompression.blockSizeBytes(StaticValueProvider.of(0)), is(0L));
+    assertThat(MultiMemberCompression.blockSizeBytes(StaticValueProvider.of(2)), is(2097152L));
+  }
+
+  /** Tests that parts are composed as a tree of compose requests of at most 32 objects. */
+  @Test
+  public void testComposeAll() throws IOException {
+    List<List<String>> requests = new ArrayList<>();
+    List<String> targets = new ArrayList<>();
+    MultiMemberCompression.Composer composer =
+        (sources, target) -> {
+          requests.add(new ArrayList<>(sources));
+          targets.add(target);
+        };
+    List<String> parts = new ArrayList<>();
+    for (int i = 0; i < 70; i++) {
+      parts.add("part-" + i);
+    }
+
+    List<String> intermediates = MultiMemberCompression.composeAll(parts, "out", composer);
+
+    assertThat(
+        intermediates,
+        is(
+            equalTo(
+                ImmutableList.of(
+                    "out-compose-0-00000", "out-compose-0-00001", "out-compose-0-00002"))));
+    assertThat(targets.get(3), is("out"));
+    assertThat(requests.get(0), is(equalTo(parts.subList(0, 32))));
+    assertThat(requests.get(1), is(equalTo(parts.subList(32, 64))));
+    assertThat(requests.get(2), is(equalTo(parts.subList(64, 70))));
+    assertThat(requests.get(3), is(equalTo(intermediates)));
+
+    requests.clear();
+    targets.clear();
+    assertThat(
+        MultiMemberCompression.composeAll(parts.subList(0, 32), "out", composer).isEmpty(),
+        is(true));
+    assertThat(targets, is(equalTo(ImmutableList.of("out"))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBlockSizeBytesTooLarge() {
+    MultiMemberCompression.blockSizeBytes(
+        StaticValueProvider.of(MultiMemberCompression.MAX_BLOCK_SIZE_MB + 1));
+  }
+
+  /** Compresses each block as a member and concatenates the members. */
+  private static byte[] compress(Compression compression, List<byte[]> blocks) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (byte[] block : blocks) {
+      ByteArrayOutputStream member = new ByteArrayOutputStream();
+      byte[] header =
+          MultiMemberCompression.writeMember(
+              compression, new ByteArrayInputStream(block), Channels.newChannel(member));
+      out.write(header);
+      member.writeTo(out);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Finds the members of a file as they would be by the templates: by following the gzip members,
+   * or by scanning the bzip2 ranges of {@code rangeSize} bytes.
+   */
+  private List<MemberScan> scan(Compression compression, byte[] file, int rangeSize)
+      throws IOException {
+    if (compression == Compression.GZIP) {
+      try (SeekableByteChannel channel = Files.newByteChannel(write(file))) {
+        return ImmutableList.of(MultiMemberCompression.followGzipMembers(channel, file.length));
+      }
+    }
+    List<MemberScan> scans = new ArrayList<>();
+    for (OffsetRange range : MultiMemberCompression.splitRanges(file.length, rangeSize)) {
+      int readEnd =
+          (int) Math.min(range.getTo() + MultiMemberCompression.scanOverlap(), file.length);
+      scans.add(
+          MultiMemberCompression.scanMembers(
+              file.length,
+              new ByteArrayInputStream(Arrays.copyOfRange(file, (int) range.getFrom(), readEnd)),
+              range.getFrom(),
+              range.getTo()));
+    }
+    return scans;
+  }
+
+  /** Writes {@code bytes} to a new temporary file. */
+  private Path write(byte[] bytes) throws IOException {
+    Path path = tempFolder.newFile().toPath();
+    Files.write(path, bytes);
+    return path;
+  }
+
+  /** Returns bytes of hex digits, which compress to about half their size. */
+  private static byte[] randomBytes(long seed, int length) {
+    Random random = new Random(seed);
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) Character.forDigit(random.nextInt(16), 16);
+    }
+    return bytes;
+  }
+
+  private static byte[] concat(byte[]... arrays) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (byte[] array : arrays) {
+      out.write(array);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.concurrent.CompletableFuture;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.DoFn.OutputReceiver;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
+import org.apache.beam.sdk.transforms.windowing.IntervalWindow;
+import org.joda.time.Instant;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test for {@link PendingBatches}. */
+@RunWith(JUnit4.class)
+public final class PendingBatchesTest {
+
+  private final PendingBatches<String, String> pendingBatches =
+      new PendingBatches<>((result, output) -> output.accept("error-" + result));
+
+  /** Tests that completed batches are output with the timestamp of the element flushing them. */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testOutputCompletedWithBatchTimestamp() throws Exception {
+    OutputReceiver<String> receiver = mock(OutputReceiver.class);
+    pendingBatches.add(
+        CompletableFuture.completedFuture("first"), GlobalWindow.INSTANCE, new Instant(10));
+
+    pendingBatches.outputCompleted(receiver, GlobalWindow.INSTANCE, new Instant(5));
+
+    verify(receiver).outputWithTimestamp("error-first", new Instant(10));
+    assertThat(pendingBatches.isEmpty(), is(true));
+  }
+
+  /** Tests that batches of another window or an earlier timestamp are left to finish. */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testFinishOutputsOtherBatchesToTheirWindow() throws Exception {
+    OutputReceiver<String> receiver = mock(OutputReceiver.class);
+    DoFn<String, String>.FinishBundleContext context = mock(DoFn.FinishBundleContext.class);
+    IntervalWindow window = new IntervalWindow(new Instant(0), new Instant(100));
+    pendingBatches.add(CompletableFuture.completedFuture("other"), window, new Instant(10));
+    pendingBatches.add(
+        CompletableFuture.completedFuture("earlier"), GlobalWindow.INSTANCE, new Instant(1));
+    CompletableFuture<String> running = new CompletableFuture<>();
+    pendingBatches.add(running, GlobalWindow.INSTANCE, new Instant(20));
+
+    pendingBatches.outputCompleted(receiver, GlobalWindow.INSTANCE, new Instant(5));
+
+    verifyNoInteractions(receiver);
+    assertThat(pendingBatches.isEmpty(), is(false));
+
+    running.complete("running");
+    pendingBatches.finish(context);
+
+    verify(context).output("error-other", new Instant(10), window);
+    verify(context).output("error-earlier", new Instant(1), GlobalWindow.INSTANCE);
+    verify(context).output("error-running", new Instant(20), GlobalWindow.INSTANCE);
+    assertThat(pendingBatches.isEmpty(), is(true));
+  }
+}
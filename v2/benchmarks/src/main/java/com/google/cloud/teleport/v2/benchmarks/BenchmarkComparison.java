@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON results, typically of the base branch and of a change, and prints the score
+ * and allocation rate of every benchmark found in both.
+ *
+ * <p>Usage: {@code BenchmarkComparison <baseline.json> <current.json> [max regression %]}. When the
+ * maximum regression is given, exits with status 1 if the score of any benchmark regressed by more
+ * than that percentage.
+ */
+public final class BenchmarkComparison {
+
+  private static final String ALLOCATION_METRIC_SUFFIX = "gc.alloc.rate.norm";
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private BenchmarkComparison() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2 || args.length > 3) {
+      System.err.println(
+          "Usage: BenchmarkComparison <baseline.json> <current.json> [max regression %]");
+      System.exit(2);
+    }
+    Map<String, Result> baseline = readResults(new File(args[0]));
+    Map<String, Result> current = readResults(new File(args[1]));
+    Double maxRegressionPercent = args.length == 3 ? Double.parseDouble(args[2]) : null;
+
+    System.out.printf(
+        "%-80s %16s %16s %9s %12s %12s%n",
+        "Benchmark", "Baseline", "Current", "Change", "Base B/op", "Curr B/op");
+    boolean regressed = false;
+    for (Map.Entry<String, Result> entry : current.entrySet()) {
+      Result base = baseline.get(entry.getKey());
+      if (base == null) {
+        continue;
+      }
+      Result curr = entry.getValue();
+      double improvement = curr.improvementPercentOver(base);
+      boolean isRegression = maxRegressionPercent != null && -improvement > maxRegressionPercent;
+      regressed |= isRegression;
+      System.out.printf(
+          "%-80s %16.2f %16.2f %+8.1f%% %12s %12s%s%n",
+          entry.getKey(),
+          base.score,
+          curr.score,
+          improvement,
+          formatAllocation(base.allocatedBytesPerOp),
+          formatAllocation(curr.allocatedBytesPerOp),
+          isRegression ? "  REGRESSION" : "");
+    }
+    if (regressed) {
+      System.exit(1);
+    }
+  }
+
+  private static String formatAllocation(Double allocatedBytesPerOp) {
+    return allocatedBytesPerOp == null ? "-" : String.format("%.0f", allocatedBytesPerOp);
+  }
+
+  /** Reads the results of a JMH JSON file, keyed by benchmark name and parameters. */
+  static Map<String, Result> readResults(File file) throws IOException {
+    Map<String, Result> results = new LinkedHashMap<>();
+    for (JsonNode benchmark : MAPPER.readTree(file)) {
+      StringBuilder key = new StringBuilder(benchmark.get("benchmark").asText());
+      JsonNode params = benchmark.get("params");
+      if (params != null) {
+        // Sort the parameters so that the keys do not depend on their order in the file.
+        Map<String, String> sortedParams = new TreeMap<>();
+        params.fields().forEachRemaining(p -> sortedParams.put(p.getKey(), p.getValue().asText()));
+        sortedParams.forEach(
+            (name, value) -> key.append(':').append(name).append('=').append(value));
+      }
+      results.put(key.toString(), Result.of(benchmark));
+    }
+    return results;
+  }
+
+  /** Primary score and normalized allocation rate of a benchmark. */
+  static final class Result {
+    final String mode;
+    final double score;
+    final Double allocatedBytesPerOp;
+
+    private Result(String mode, double score, Double allocatedBytesPerOp) {
+      this.mode = mode;
+      this.score = score;
+      this.allocatedBytesPerOp = allocatedBytesPerOp;
+    }
+
+    static Result of(JsonNode benchmark) {
+      Double allocatedBytesPerOp = null;
+      JsonNode secondaryMetrics = benchmark.get("secondaryMetrics");
+      if (secondaryMetrics != null) {
+        // The metric is prefixed with a "·" by JMH versions before 1.36.
+        Iterator<Map.Entry<String, JsonNode>> metrics = secondaryMetrics.fields();
+        while (metrics.hasNext()) {
+          Map.Entry<String, JsonNode> metric = metrics.next();
+          if (metric.getKey().endsWith(ALLOCATION_METRIC_SUFFIX)) {
+            allocatedBytesPerOp = metric.getValue().get("score").asDouble();
+          }
+        }
+      }
+      return new Result(
+          benchmark.get("mode").asText(),
+          benchmark.get("primaryMetric").get("score").asDouble(),
+          allocatedBytesPerOp);
+    }
+
+    /**
+     * Returns by how much percent this result is better than the baseline, negative when it is
+     * worse. Throughput is better when higher, the time modes are better when lower.
+     */
+    double improvementPercentOver(Result baseline) {
+      if (baseline.score == 0) {
+        return 0;
+      }
+      double change = (score - baseline.score) / baseline.score * 100;
+      return "thrpt".equals(mode) ? change : -change;
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+
+/** Loads the offline fixtures bundled with the benchmarks. */
+final class BenchmarkFixtures {
+
+  private BenchmarkFixtures() {}
+
+  static InputStream open(String resourceName) throws IOException {
+    InputStream stream = BenchmarkFixtures.class.getClassLoader().getResourceAsStream(resourceName);
+    if (stream == null) {
+      throw new IOException("Missing benchmark fixture " + resourceName);
+    }
+    return stream;
+  }
+
+  /** Copies a fixture to a temporary file, for the readers which only accept a file path. */
+  static String copyToTempFile(String resourceName) throws IOException {
+    Path file = Files.createTempFile("benchmark", resourceName);
+    file.toFile().deleteOnExit();
+    try (InputStream stream = open(resourceName)) {
+      Files.copy(stream, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return file.toString();
+  }
+
+  static List<GenericRecord> readAvroRecords(String resourceName) throws IOException {
+    List<GenericRecord> records = new ArrayList<>();
+    try (DataFileStream<GenericRecord> reader =
+        new DataFileStream<>(open(resourceName), new GenericDatumReader<>())) {
+      reader.forEach(records::add);
+    }
+    return records;
+  }
+}
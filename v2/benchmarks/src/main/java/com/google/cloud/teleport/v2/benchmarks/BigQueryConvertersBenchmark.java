@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.benchmarks;
+
+import com.google.api.services.bigquery.model.TableRow;
+import com.google.cloud.teleport.v2.transforms.BigQueryConverters;
+import com.google.cloud.teleport.v2.transforms.BigQueryConverters.TableRowToGenericRecordFn;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks of the {@link TableRow} conversions of {@link BigQueryConverters}. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BigQueryConvertersBenchmark {
+
+  private static final int ROWS = 1024;
+
+  private static final Schema AVRO_SCHEMA =
+      SchemaBuilder.record("row")
+          .fields()
+          .requiredLong("id")
+          .requiredString("name")
+          .requiredString("email")
+          .requiredDouble("score")
+          .requiredBoolean("active")
+          .optionalString("comment")
+          .endRecord();
+
+  private String[] jsons;
+  private TableRow[] rows;
+  private TableRowToGenericRecordFn toGenericRecordFn;
+  private int next;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    jsons = new String[ROWS];
+    rows = new TableRow[ROWS];
+    for (int i = 0; i < ROWS; i++) {
+      // BigQuery returns numbers and booleans as strings in the JSON of table rows.
+      rows[i] =
+          new TableRow()
+              .set("id", Long.toString(random.nextLong()))
+              .set("name", "name-" + random.nextInt(100_000))
+              .set("email", "user" + random.nextInt(100_000) + "@example.com")
+              .set("score", Double.toString(random.nextDouble() * 1000))
+              .set("active", Boolean.toString(random.nextBoolean()))
+              .set("comment", random.nextBoolean() ? null : "comment " + random.nextInt());
+      jsons[i] = BigQueryConverters.tableRowToJson(rows[i]);
+    }
+    toGenericRecordFn = TableRowToGenericRecordFn.of(AVRO_SCHEMA);
+  }
+
+  private int nextIndex() {
+    next = (next + 1) % ROWS;
+    return next;
+  }
+
+  @Benchmark
+  public TableRow convertJsonToTableRow() {
+    return BigQueryConverters.convertJsonToTableRow(jsons[nextIndex()]);
+  }
+
+  @Benchmark
+  public String tableRowToJson() {
+    return BigQueryConverters.tableRowToJson(rows[nextIndex()]);
+  }
+
+  @Benchmark
+  public GenericRecord tableRowToGenericRecord() {
+    return toGenericRecordFn.apply(rows[nextIndex()]);
+  }
+}
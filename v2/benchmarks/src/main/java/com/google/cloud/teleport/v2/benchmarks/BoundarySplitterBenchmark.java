@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.benchmarks;
+
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.BoundarySplitter;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.BoundarySplitterFactory;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the split points computed by the splitters of {@link BoundarySplitterFactory} for
+ * the numeric and binary partition column types. String splitting is dominated by {@link
+ * CollationMapperBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BoundarySplitterBenchmark {
+
+  private static final int BOUNDARIES = 1024;
+
+  @Param({"Long", "BigInteger", "BigDecimal", "bytes"})
+  public String columnType;
+
+  private BoundarySplitter<Serializable> splitter;
+  private Serializable[] starts;
+  private Serializable[] ends;
+  private int next;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    starts = new Serializable[BOUNDARIES];
+    ends = new Serializable[BOUNDARIES];
+    for (int i = 0; i < BOUNDARIES; i++) {
+      long start = random.nextLong() / 2;
+      long end = start + Math.abs(random.nextLong() / 2);
+      starts[i] = toColumnType(start);
+      ends[i] = toColumnType(end);
+    }
+    splitter = BoundarySplitterFactory.create(starts[0].getClass());
+  }
+
+  private Serializable toColumnType(long value) {
+    switch (columnType) {
+      case "Long":
+        return value;
+      case "BigInteger":
+        return BigInteger.valueOf(value).shiftLeft(64);
+      case "BigDecimal":
+        return BigDecimal.valueOf(value, 4);
+      case "bytes":
+        return BigInteger.valueOf(value).abs().toByteArray();
+      default:
+        throw new IllegalArgumentException("Unknown column type " + columnType);
+    }
+  }
+
+  @Benchmark
+  public Serializable getSplitPoint() {
+    next = (next + 1) % BOUNDARIES;
+    return splitter.getSplitPoint(starts[next], ends[next], null, null, null);
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
+import com.google.cloud.teleport.v2.spanner.ddl.Table;
+import com.google.cloud.teleport.v2.spanner.migrations.convertors.ChangeEventSpannerConvertor;
+import com.google.cloud.teleport.v2.spanner.migrations.exceptions.ChangeEventConvertorException;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the conversion of change events to mutations by {@link
+ * ChangeEventSpannerConvertor}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ChangeEventSpannerConvertorBenchmark {
+
+  private static final int EVENTS = 1024;
+
+  private static final List<String> COLUMNS =
+      List.of(
+          "first_name",
+          "last_name",
+          "age",
+          "bool_field",
+          "float64_field",
+          "string_field",
+          "json_field",
+          "bytes_field",
+          "timestamp_field",
+          "date_field");
+
+  private static final Set<String> KEY_COLUMNS = Set.of("first_name", "last_name");
+
+  private Table table;
+  private JsonNode[] events;
+  private int next;
+
+  @Setup
+  public void setup() {
+    Ddl ddl =
+        Ddl.builder()
+            .createTable("Users")
+            .column("first_name")
+            .string()
+            .max()
+            .endColumn()
+            .column("last_name")
+            .string()
+            .size(64)
+            .endColumn()
+            .column("age")
+            .int64()
+            .endColumn()
+            .column("bool_field")
+            .bool()
+            .endColumn()
+            .column("float64_field")
+            .float64()
+            .endColumn()
+            .column("string_field")
+            .string()
+            .max()
+            .endColumn()
+            .column("json_field")
+            .json()
+            .endColumn()
+            .column("bytes_field")
+            .bytes()
+            .max()
+            .endColumn()
+            .column("timestamp_field")
+            .timestamp()
+            .endColumn()
+            .column("date_field")
+            .date()
+            .endColumn()
+            .primaryKey()
+            .asc("first_name")
+            .desc("last_name")
+            .end()
+            .endTable()
+            .build();
+    table = ddl.table("Users");
+
+    // Change events are parsed the same way by the Datastream to Spanner pipeline.
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    Random random = new Random(42);
+    events = new JsonNode[EVENTS];
+    for (int i = 0; i < EVENTS; i++) {
+      ObjectNode event = mapper.createObjectNode();
+      event.put("first_name", "first" + random.nextInt(100_000));
+      event.put("last_name", "last" + random.nextInt(100_000));
+      event.put("age", Integer.toString(random.nextInt(100)));
+      event.put("bool_field", random.nextBoolean());
+      event.put("float64_field", Double.toString(random.nextDouble() * 1000));
+      event.put("string_field", "string value " + random.nextInt());
+      event.put("json_field", "{\"key1\": \"value1\", \"key2\": " + random.nextInt() + "}");
+      event.put("bytes_field", "7835383030");
+      event.put(
+          "timestamp_field", "2020-12-30T04:12:12." + (100_000 + random.nextInt(899_999)) + "Z");
+      event.put("date_field", "2020-12-" + (10 + random.nextInt(18)));
+      events[i] = event;
+    }
+  }
+
+  @Benchmark
+  public Mutation mutationFromEvent() throws ChangeEventConvertorException {
+    next = (next + 1) % EVENTS;
+    return ChangeEventSpannerConvertor.mutationFromEvent(table, events[next], COLUMNS, KEY_COLUMNS);
+  }
+}
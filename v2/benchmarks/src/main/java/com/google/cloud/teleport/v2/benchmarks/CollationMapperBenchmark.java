@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.benchmarks;
+
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationMapper;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationOrderRow;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.stringmapper.CollationReference;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the mapping of strings to and from big integers by {@link CollationMapper}, for a
+ * case insensitive collation of the printable ASCII characters.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CollationMapperBenchmark {
+
+  private static final int STRINGS = 1024;
+  private static final char FIRST_CHAR = ' ';
+  private static final char LAST_CHAR = '~';
+
+  @Param({"16", "255"})
+  public int length;
+
+  private CollationMapper collationMapper;
+  private String[] strings;
+  private BigInteger[] mappedStrings;
+  private int next;
+
+  @Setup
+  public void setup() {
+    TreeSet<Character> equivalentChars = new TreeSet<>();
+    for (char c = FIRST_CHAR; c <= LAST_CHAR; c++) {
+      equivalentChars.add(Character.toUpperCase(c));
+    }
+    CollationMapper.Builder builder =
+        CollationMapper.builder(
+            CollationReference.builder()
+                .setDbCharacterSet("ascii")
+                .setDbCollation("ascii_general_ci")
+                .setPadSpace(false)
+                .build());
+    for (char c = FIRST_CHAR; c <= LAST_CHAR; c++) {
+      char equivalentChar = Character.toUpperCase(c);
+      long rank = equivalentChars.headSet(equivalentChar).size();
+      // The space, first in the collation, is not part of the trailing positions index.
+      long padSpaceRank = c == ' ' ? rank : rank - 1;
+      builder.addCharacter(
+          CollationOrderRow.builder()
+              .setCharsetChar(c)
+              .setEquivalentChar(equivalentChar)
+              .setEquivalentCharPadSpace(equivalentChar)
+              .setCodepointRank(rank)
+              .setCodepointRankPadSpace(padSpaceRank)
+              .setIsEmpty(false)
+              .setIsSpace(c == ' ')
+              .build());
+    }
+    collationMapper = builder.build();
+
+    Random random = new Random(42);
+    strings = new String[STRINGS];
+    mappedStrings = new BigInteger[STRINGS];
+    for (int i = 0; i < STRINGS; i++) {
+      StringBuilder string = new StringBuilder(length);
+      for (int j = 0; j < length; j++) {
+        string.append((char) (FIRST_CHAR + 1 + random.nextInt(LAST_CHAR - FIRST_CHAR)));
+      }
+      strings[i] = string.toString();
+      mappedStrings[i] = collationMapper.mapString(strings[i], length);
+    }
+  }
+
+  private int nextIndex() {
+    next = (next + 1) % STRINGS;
+    return next;
+  }
+
+  @Benchmark
+  public BigInteger mapString() {
+    return collationMapper.mapString(strings[nextIndex()], length);
+  }
+
+  @Benchmark
+  public String unMapString() {
+    return collationMapper.unMapString(mappedStrings[nextIndex()]);
+  }
+}
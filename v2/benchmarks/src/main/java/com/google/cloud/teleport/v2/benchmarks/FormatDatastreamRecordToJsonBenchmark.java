@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.benchmarks;
+
+import com.google.cloud.teleport.v2.datastream.transforms.FormatDatastreamRecordToJson;
+import com.google.cloud.teleport.v2.values.FailsafeElement;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.generic.GenericRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link FormatDatastreamRecordToJson} on the MySQL records of a Datastream Avro
+ * file.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatDatastreamRecordToJsonBenchmark {
+
+  private GenericRecord[] records;
+  private FormatDatastreamRecordToJson formatter;
+  private FormatDatastreamRecordToJson lowercaseFormatter;
+  private int next;
+
+  @Setup
+  public void setup() throws IOException {
+    List<GenericRecord> fixture =
+        BenchmarkFixtures.readAvroRecords("FormatDatastreamRecordToJsonTest/mysql_people_test.avro");
+    records = fixture.toArray(new GenericRecord[0]);
+    formatter = FormatDatastreamRecordToJson.create();
+    lowercaseFormatter = FormatDatastreamRecordToJson.create().withLowercaseSourceColumns(true);
+  }
+
+  private GenericRecord nextRecord() {
+    next = (next + 1) % records.length;
+    return records[next];
+  }
+
+  @Benchmark
+  public FailsafeElement<String, String> format() {
+    return formatter.apply(nextRecord());
+  }
+
+  @Benchmark
+  public FailsafeElement<String, String> formatWithLowercaseColumns() {
+    return lowercaseFormatter.apply(nextRecord());
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.benchmarks;
+
+import com.google.cloud.spanner.Dialect;
+import com.google.cloud.spanner.Value;
+import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
+import com.google.cloud.teleport.v2.spanner.exceptions.InvalidTransformationException;
+import com.google.cloud.teleport.v2.spanner.migrations.avro.GenericRecordTypeConvertor;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.IdentityMapper;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the conversion of source rows read as {@link GenericRecord} to Spanner values by
+ * {@link GenericRecordTypeConvertor}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GenericRecordTypeConvertorBenchmark {
+
+  private static final int RECORDS = 1024;
+  private static final String TABLE = "all_types";
+
+  private GenericRecordTypeConvertor convertor;
+  private GenericRecord[] records;
+  private int next;
+
+  @Setup
+  public void setup() {
+    Ddl ddl =
+        Ddl.builder(Dialect.GOOGLE_STANDARD_SQL)
+            .createTable(TABLE)
+            .column("bool_col")
+            .bool()
+            .endColumn()
+            .column("int_col")
+            .int64()
+            .notNull()
+            .endColumn()
+            .column("float_col")
+            .float64()
+            .endColumn()
+            .column("string_col")
+            .string()
+            .max()
+            .endColumn()
+            .column("numeric_col")
+            .numeric()
+            .endColumn()
+            .column("bytes_col")
+            .bytes()
+            .max()
+            .endColumn()
+            .column("timestamp_col")
+            .timestamp()
+            .endColumn()
+            .column("date_col")
+            .date()
+            .endColumn()
+            .primaryKey()
+            .asc("int_col")
+            .end()
+            .endTable()
+            .build();
+    convertor = new GenericRecordTypeConvertor(new IdentityMapper(ddl), "", null, null);
+
+    Schema schema =
+        SchemaBuilder.record(TABLE)
+            .fields()
+            .name("bool_col")
+            .type(nullable(Schema.create(Schema.Type.BOOLEAN)))
+            .noDefault()
+            .name("int_col")
+            .type(nullable(Schema.create(Schema.Type.LONG)))
+            .noDefault()
+            .name("float_col")
+            .type(nullable(Schema.create(Schema.Type.DOUBLE)))
+            .noDefault()
+            .name("string_col")
+            .type(nullable(Schema.create(Schema.Type.STRING)))
+            .noDefault()
+            .name("numeric_col")
+            .type(
+                nullable(LogicalTypes.decimal(12, 2).addToSchema(Schema.create(Schema.Type.BYTES))))
+            .noDefault()
+            .name("bytes_col")
+            .type(nullable(Schema.create(Schema.Type.BYTES)))
+            .noDefault()
+            .name("timestamp_col")
+            .type(
+                nullable(
+                    LogicalTypes.timestampMicros().addToSchema(Schema.create(Schema.Type.LONG))))
+            .noDefault()
+            .name("date_col")
+            .type(nullable(LogicalTypes.date().addToSchema(Schema.create(Schema.Type.INT))))
+            .noDefault()
+            .endRecord();
+    Random random = new Random(42);
+    records = new GenericRecord[RECORDS];
+    for (int i = 0; i < RECORDS; i++) {
+      GenericRecord record = new GenericData.Record(schema);
+      record.put("bool_col", random.nextBoolean());
+      record.put("int_col", random.nextLong());
+      record.put("float_col", random.nextDouble());
+      record.put("string_col", "value " + random.nextInt());
+      record.put(
+          "numeric_col",
+          ByteBuffer.wrap(BigDecimal.valueOf(random.nextInt(), 2).unscaledValue().toByteArray()));
+      byte[] bytes = new byte[32];
+      random.nextBytes(bytes);
+      record.put("bytes_col", ByteBuffer.wrap(bytes));
+      record.put("timestamp_col", 1602599400056483L + random.nextInt());
+      record.put("date_col", 18_000 + random.nextInt(2_000));
+      records[i] = record;
+    }
+  }
+
+  private static Schema nullable(Schema schema) {
+    return SchemaBuilder.builder().unionOf().nullType().and().type(schema).endUnion();
+  }
+
+  @Benchmark
+  public Map<String, Value> transformChangeEvent() throws InvalidTransformationException {
+    next = (next + 1) % RECORDS;
+    return convertor.transformChangeEvent(records[next], TABLE);
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.benchmarks;
+
+import com.google.cloud.teleport.v2.kafka.transforms.BinaryAvroDeserializer;
+import com.google.cloud.teleport.v2.kafka.transforms.CachingKafkaAvroDeserializer;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroDeserializer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the deserialization of Avro Kafka messages, in messages per second, with the
+ * deserializers of the Kafka to BigQuery and Kafka to GCS templates. The Confluent {@link
+ * KafkaAvroDeserializer} is measured as the baseline of the schema registry wire format.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class KafkaAvroDeserializerBenchmark {
+
+  private static final String TOPIC = "benchmark";
+  private static final int MESSAGES = 1024;
+
+  private static final Schema SCHEMA =
+      SchemaBuilder.record("Event")
+          .namespace("com.google.cloud.teleport.v2.benchmarks")
+          .fields()
+          .requiredLong("id")
+          .requiredString("name")
+          .requiredDouble("amount")
+          .optionalString("comment")
+          .requiredBoolean("active")
+          .endRecord();
+
+  private byte[][] binaryMessages;
+  private byte[][] wireFormatMessages;
+  private BinaryAvroDeserializer binaryDeserializer;
+  private CachingKafkaAvroDeserializer cachingDeserializer;
+  private KafkaAvroDeserializer kafkaAvroDeserializer;
+  private GenericRecord reuse;
+  private int next;
+
+  @Setup
+  public void setup() throws Exception {
+    MockSchemaRegistryClient schemaRegistryClient = new MockSchemaRegistryClient();
+    int schemaId = schemaRegistryClient.register(TOPIC + "-value", new AvroSchema(SCHEMA));
+
+    Random random = new Random(42);
+    GenericDatumWriter<GenericRecord> writer = new GenericDatumWriter<>(SCHEMA);
+    binaryMessages = new byte[MESSAGES][];
+    wireFormatMessages = new byte[MESSAGES][];
+    for (int i = 0; i < MESSAGES; i++) {
+      GenericRecord record = new GenericData.Record(SCHEMA);
+      record.put("id", random.nextLong());
+      record.put("name", "name-" + random.nextInt(100_000));
+      record.put("amount", random.nextDouble() * 1000);
+      record.put("comment", random.nextBoolean() ? "comment-" + random.nextInt() : null);
+      record.put("active", random.nextBoolean());
+      binaryMessages[i] = encode(writer, record);
+      wireFormatMessages[i] =
+          ByteBuffer.allocate(1 + Integer.BYTES + binaryMessages[i].length)
+              .put((byte) 0)
+              .putInt(schemaId)
+              .put(binaryMessages[i])
+              .array();
+    }
+
+    binaryDeserializer = new BinaryAvroDeserializer(SCHEMA);
+    cachingDeserializer = new CachingKafkaAvroDeserializer(schemaRegistryClient);
+    kafkaAvroDeserializer = new KafkaAvroDeserializer(schemaRegistryClient);
+  }
+
+  private static byte[] encode(GenericDatumWriter<GenericRecord> writer, GenericRecord record)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    writer.write(record, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  private int nextMessage() {
+    next = (next + 1) % MESSAGES;
+    return next;
+  }
+
+  @Benchmark
+  public GenericRecord binaryAvro() {
+    return binaryDeserializer.deserialize(TOPIC, binaryMessages[nextMessage()]);
+  }
+
+  @Benchmark
+  public GenericRecord binaryAvroReusingRecord() {
+    reuse = binaryDeserializer.deserialize(TOPIC, binaryMessages[nextMessage()], reuse);
+    return reuse;
+  }
+
+  @Benchmark
+  public GenericRecord schemaRegistryAvro() {
+    return cachingDeserializer.deserialize(TOPIC, wireFormatMessages[nextMessage()]);
+  }
+
+  @Benchmark
+  public Object schemaRegistryAvroBaseline() {
+    return kafkaAvroDeserializer.deserialize(TOPIC, wireFormatMessages[nextMessage()]);
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.cloud.Timestamp;
+import com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.model.Mod;
+import com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.model.ModColumnType;
+import com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.schemautils.BigQueryUtils;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ModType;
+import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.TypeCode;
+import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ValueCaptureType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the parsing of the {@link Mod} JSON of the Spanner change streams to BigQuery
+ * template, as read from the change stream and as re-read from the dead letter queue with the
+ * metadata fields.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ModJsonBenchmark {
+
+  private static final ObjectReader MOD_READER =
+      Mod.readerIgnoringFields(BigQueryUtils.getBigQueryIntermediateMetadataFieldNames());
+
+  @Param({"4", "64"})
+  public int columns;
+
+  private String modJson;
+  private String modJsonWithMetadata;
+
+  @Setup
+  public void setup() throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    ObjectNode keys = mapper.createObjectNode().put("Id", 1);
+    ObjectNode newValues = mapper.createObjectNode();
+    List<ModColumnType> rowType = new ArrayList<>();
+    rowType.add(new ModColumnType("Id", new TypeCode("{\"code\":\"INT64\"}"), true, 1));
+    for (int i = 1; i < columns; i++) {
+      newValues.put("Column" + i, "value of column " + i);
+      rowType.add(
+          new ModColumnType("Column" + i, new TypeCode("{\"code\":\"STRING\"}"), false, i + 1));
+    }
+    Mod mod =
+        new Mod(
+            mapper.writeValueAsString(keys),
+            mapper.writeValueAsString(newValues),
+            Timestamp.ofTimeSecondsAndNanos(1650908264L, 925679000),
+            "1",
+            true,
+            "00000001",
+            "Singers",
+            rowType,
+            ModType.UPDATE,
+            ValueCaptureType.OLD_AND_NEW_VALUES,
+            1L,
+            1L);
+    modJson = mod.toJson();
+
+    ObjectNode withMetadata = (ObjectNode) mapper.readTree(modJson);
+    withMetadata.put(BigQueryUtils.BQ_CHANGELOG_FIELD_NAME_ERROR, "error");
+    withMetadata.put(BigQueryUtils.BQ_CHANGELOG_FIELD_NAME_RETRY_COUNT, 2);
+    withMetadata.set(
+        BigQueryUtils.BQ_CHANGELOG_FIELD_NAME_ORIGINAL_PAYLOAD_JSON, mapper.readTree(modJson));
+    modJsonWithMetadata = mapper.writeValueAsString(withMetadata);
+  }
+
+  @Benchmark
+  public Mod fromJson() throws IOException {
+    return Mod.fromJson(modJson);
+  }
+
+  @Benchmark
+  public Mod fromJsonWithMetadata() throws IOException {
+    return MOD_READER.readValue(modJsonWithMetadata);
+  }
+}
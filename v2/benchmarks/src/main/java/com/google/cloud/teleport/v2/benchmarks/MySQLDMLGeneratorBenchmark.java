@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.benchmarks;
+
+import com.google.cloud.teleport.v2.spanner.migrations.schema.Schema;
+import com.google.cloud.teleport.v2.spanner.migrations.utils.SessionFileReader;
+import com.google.cloud.teleport.v2.templates.dbutils.dml.MySQLDMLGenerator;
+import com.google.cloud.teleport.v2.templates.models.DMLGeneratorRequest;
+import com.google.cloud.teleport.v2.templates.models.DMLGeneratorResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the DML statements generated by {@link MySQLDMLGenerator} for a table with a column
+ * of every MySQL type.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MySQLDMLGeneratorBenchmark {
+
+  private static final int ROWS = 1024;
+  private static final String TABLE = "sample_table";
+
+  private static final String NEW_VALUES_JSON =
+      "{\"bigint_column\":\"4444\",\"binary_column\":\"YWJjbGFyZ2U=\",\"blob_column\":\"YWJiaWdj\","
+          + "\"bool_column\":false,\"char_column\":\"<char_c\",\"date_column\":\"2023-05-18\","
+          + "\"datetime_column\":\"2023-05-18T12:01:13.088397258Z\","
+          + "\"decimal_column\":\"444.222\",\"double_column\":42.42,\"enum_column\":\"1\","
+          + "\"float_column\":4.2,\"longblob_column\":\"YWJsb25nYmxvYmM=\","
+          + "\"longtext_column\":\"<longtext_column>\",\"mediumblob_column\":\"YWJjbGFyZ2U=\","
+          + "\"mediumint_column\":\"333\",\"mediumtext_column\":\"<mediumtext_column>\","
+          + "\"set_column\":[\"1\",\"2\"],\"smallint_column\":\"22\",\"text_column\":\"aaaaaddd\","
+          + "\"time_column\":\"10:10:10\",\"timestamp_column\":\"2023-05-18T12:01:13.088397258Z\","
+          + "\"tinyblob_column\":\"YWJj\",\"tinyint_column\":\"1\","
+          + "\"tinytext_column\":\"<tinytext_column>\",\"varbinary_column\":\"YWJjbGFyZ2U=\","
+          + "\"varchar_column\":\"abc\",\"year_column\":\"2023\"}";
+
+  @Param({"INSERT", "UPDATE", "DELETE"})
+  public String modType;
+
+  private final MySQLDMLGenerator generator = new MySQLDMLGenerator();
+  private Schema schema;
+  private JSONObject[] newValues;
+  private JSONObject[] keyValues;
+  private int next;
+
+  @Setup
+  public void setup() throws IOException {
+    schema = SessionFileReader.read(BenchmarkFixtures.copyToTempFile("allDatatypeSession.json"));
+    newValues = new JSONObject[ROWS];
+    keyValues = new JSONObject[ROWS];
+    for (int i = 0; i < ROWS; i++) {
+      newValues[i] = new JSONObject(NEW_VALUES_JSON).put("varchar_column", "value " + i);
+      keyValues[i] = new JSONObject().put("id", Integer.toString(i));
+    }
+  }
+
+  @Benchmark
+  public DMLGeneratorResponse getDMLStatement() {
+    next = (next + 1) % ROWS;
+    return generator.getDMLStatement(
+        new DMLGeneratorRequest.Builder(modType, TABLE, newValues[next], keyValues[next], "+00:00")
+            .setSchema(schema)
+            .build());
+  }
+}
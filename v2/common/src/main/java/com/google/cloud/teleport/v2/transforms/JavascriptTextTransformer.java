@@ -33,6 +33,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -141,12 +143,15 @@ public abstract class JavascriptTextTransformer {
     private static final Distribution JAVASCRIPT_RELOAD_LATENCY_MS =
         Metrics.distribution(JavascriptTextTransformer.class, "javascript_reload_latency_ms");
 
-    private static LoadingCache<JavascriptRuntime, Invocable> cache =
+    /** Number of script engines per runtime, one per core that can run a UDF concurrently. */
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private static LoadingCache<JavascriptRuntime, InvocablePool> cache =
         Caffeine.newBuilder()
             .expireAfter(
-                new Expiry<JavascriptRuntime, Invocable>() {
+                new Expiry<JavascriptRuntime, InvocablePool>() {
                   public long expireAfterCreate(
-                      JavascriptRuntime runtime, Invocable invocable, long currentTime) {
+                      JavascriptRuntime runtime, InvocablePool pool, long currentTime) {
                     // Do not expire if reload is disabled
                     if (runtime.reloadIntervalMinutes() == null
                         || runtime.reloadIntervalMinutes() <= 0) {
@@ -157,7 +162,7 @@ public abstract class JavascriptTextTransformer {
 
                   public long expireAfterUpdate(
                       JavascriptRuntime runtime,
-                      Invocable invocable,
+                      InvocablePool pool,
                       long currentTime,
                       long currentDuration) {
                     return currentDuration;
@@ -165,13 +170,13 @@ public abstract class JavascriptTextTransformer {
 
                   public long expireAfterRead(
                       JavascriptRuntime runtime,
-                      Invocable invocable,
+                      InvocablePool pool,
                       long currentTime,
                       long currentDuration) {
                     return currentDuration;
                   }
                 })
-            .build(runtime -> buildInvocable(runtime));
+            .build(runtime -> buildInvocablePool(runtime));
 
     private Instant lastRefreshCheck = Instant.now();
 
@@ -197,13 +202,20 @@ public abstract class JavascriptTextTransformer {
     }
 
     /**
-     * Gets a cached Javascript Invocable, if fileSystemPath() not set, returns null.
+     * Gets a cached Javascript Invocable, if fileSystemPath() not set, returns null. The returned
+     * Invocable is shared by the callers of this method, so they must synchronize on it. It is never
+     * used by {@link #invoke(String)}, which checks out engines of its own from a pool.
      *
      * @return a Javascript Invocable or null
      */
     @Nullable
     public Invocable getInvocable() throws ScriptException, IOException {
+      InvocablePool pool = getInvocablePool();
+      return pool == null ? null : pool.dedicated();
+    }
 
+    @Nullable
+    private InvocablePool getInvocablePool() {
       // return null if no UDF path specified.
       if (Strings.isNullOrEmpty(fileSystemPath())) {
         return null;
@@ -227,11 +239,11 @@ public abstract class JavascriptTextTransformer {
       return (Invocable) engine;
     }
 
-    private static Invocable buildInvocable(JavascriptRuntime runtime)
+    private static InvocablePool buildInvocablePool(JavascriptRuntime runtime)
         throws IOException, ScriptException {
       // List of all scripts read from the filesystem
       Collection<String> scripts = getScripts(runtime.fileSystemPath());
-      return newInvocable(scripts);
+      return new InvocablePool(scripts, POOL_SIZE);
     }
 
     private static ScriptEngine getJavaScriptEngine() {
@@ -265,15 +277,50 @@ public abstract class JavascriptTextTransformer {
      */
     @Nullable
     public String invoke(String data) throws ScriptException, IOException, NoSuchMethodException {
-      Invocable invocable = getInvocable();
-      if (invocable == null) {
-        throw new RuntimeException("No UDF was loaded");
+      InvocablePool pool = getPoolOrThrow();
+      Invocable invocable = pool.borrow();
+      try {
+        return invokeFunction(invocable, data);
+      } finally {
+        pool.release(invocable);
       }
+    }
 
-      Object result;
-      synchronized (invocable) {
-        result = invocable.invokeFunction(functionName(), data);
+    /**
+     * Invokes the UDF with each of the specified data, checking out a script engine once for the
+     * whole batch.
+     *
+     * @param data data to pass to the invocable function, one call per element
+     * @return The data transformed by the UDF in String format, in the order of the input. An
+     *     element is null if the UDF returned no value for it.
+     */
+    public List<String> invoke(List<String> data)
+        throws ScriptException, IOException, NoSuchMethodException {
+      InvocablePool pool = getPoolOrThrow();
+      Invocable invocable = pool.borrow();
+      try {
+        List<String> results = new ArrayList<>(data.size());
+        for (String element : data) {
+          results.add(invokeFunction(invocable, element));
+        }
+        return results;
+      } finally {
+        pool.release(invocable);
+      }
+    }
+
+    private InvocablePool getPoolOrThrow() {
+      InvocablePool pool = getInvocablePool();
+      if (pool == null) {
+        throw new RuntimeException("No UDF was loaded");
       }
+      return pool;
+    }
+
+    @Nullable
+    private String invokeFunction(Invocable invocable, String data)
+        throws ScriptException, NoSuchMethodException {
+      Object result = invocable.invokeFunction(functionName(), data);
       if (result == null || ScriptObjectMirror.isUndefined(result)) {
         return null;
       } else if (result instanceof String) {
@@ -285,6 +332,53 @@ public abstract class JavascriptTextTransformer {
       }
     }
 
+    /**
+     * Script engines with the same scripts loaded. A Nashorn engine can only be used by one thread
+     * at a time, so each call checks out an engine of its own instead of serializing on a shared
+     * one. Engines are created lazily, up to the pool size, and reused afterwards.
+     */
+    private static final class InvocablePool {
+      private final Collection<String> scripts;
+      private final Semaphore permits;
+      private final ConcurrentLinkedQueue<Invocable> idleInvocables = new ConcurrentLinkedQueue<>();
+
+      /** Engine returned by {@link #getInvocable()}, kept out of the pool. */
+      private Invocable dedicated;
+
+      InvocablePool(Collection<String> scripts, int size) throws ScriptException {
+        this.scripts = scripts;
+        this.permits = new Semaphore(size);
+        // The first engine is created eagerly so that script errors surface on load.
+        idleInvocables.add(newInvocable(scripts));
+      }
+
+      synchronized Invocable dedicated() throws ScriptException {
+        if (dedicated == null) {
+          dedicated = newInvocable(scripts);
+        }
+        return dedicated;
+      }
+
+      Invocable borrow() throws ScriptException {
+        permits.acquireUninterruptibly();
+        Invocable invocable = idleInvocables.poll();
+        if (invocable != null) {
+          return invocable;
+        }
+        try {
+          return newInvocable(scripts);
+        } catch (ScriptException | RuntimeException e) {
+          permits.release();
+          throw e;
+        }
+      }
+
+      void release(Invocable invocable) {
+        idleInvocables.offer(invocable);
+        permits.release();
+      }
+    }
+
     /**
      * Loads into memory scripts from a File System from a given path. Supports any file system that
      * {@link FileSystems} supports.
@@ -20,25 +20,34 @@ import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Pr
 import com.google.auto.value.AutoValue;
 import com.google.cloud.teleport.metadata.TemplateParameter;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import com.google.common.io.CharStreams;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
 import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -98,7 +107,7 @@ public abstract class PythonTextTransformer implements Serializable {
         optional = true,
         description = "UDF Python Function Name",
         helpText =
-            "The name of the function to call from your JavaScript file. Use only letters, digits, and underscores.",
+            "The name of the function to call from your Python file. The function is called with each event and returns the transformed event, or a list of events. Files which do not define the function are run as scripts, with the path of a file holding one event per line as their argument. Use only letters, digits, and underscores.",
         example = "transform_udf1")
     String getPythonTextTransformFunctionName();
 
@@ -136,6 +145,23 @@ public abstract class PythonTextTransformer implements Serializable {
     private Process runtime;
 
     private Process installRuntime;
+
+    /** Path of the worker script, within the resources, serving batches over stdin and stdout. */
+    private static final String WORKER_SCRIPT_RESOURCE = "python-udf/udf_worker.py";
+
+    /** Maximum number of batches sent to a worker before their results are read. */
+    private static final int MAX_IN_FLIGHT_BATCHES = 4;
+
+    /** Long-lived worker processes, one per runtime, shared by the DoFn instances of a JVM. */
+    private static final ConcurrentHashMap<PythonRuntime, PythonUdfWorker> workers =
+        new ConcurrentHashMap<>();
+
+    /** Number of DoFn instances using the worker of each runtime, guarded by {@code workers}. */
+    private static final Map<PythonRuntime, Integer> workerUsers = new HashMap<>();
+
+    private static final AtomicBoolean shutdownHookAdded = new AtomicBoolean();
+
+    private static File workerScript;
     private Boolean pythonWasBuilt = false;
     private final ReentrantLock pythonInstallLock = new ReentrantLock();
     private static String missingPythonErrorMessage = "Cannot run program \"python";
@@ -317,6 +343,122 @@ public abstract class PythonTextTransformer implements Serializable {
       return results;
     }
 
+    /**
+     * Invokes the UDF with a batch of events on the long-lived worker process of this runtime. If
+     * the worker exits, it is restarted and the batch is retried.
+     *
+     * @param events events as JSON objects with an {@code id} and an {@code event}
+     * @param retries number of attempts before failing
+     * @return results as JSON objects with a {@code status}, an {@code id}, an {@code event} and an
+     *     {@code error_message}
+     */
+    public List<String> invoke(List<String> events, Integer retries)
+        throws IOException, NoSuchMethodException, InterruptedException {
+      int attempts = retries == null || retries < 1 ? 1 : retries;
+      while (true) {
+        attempts--;
+        try {
+          return invokeAsync(events).join();
+        } catch (IOException | CompletionException e) {
+          Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+          if (attempts <= 0) {
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+          }
+          LOG.warn("Python UDF batch failed, {} attempts remaining", attempts, cause);
+          if (cause.getMessage() != null
+              && cause.getMessage().startsWith(missingPythonErrorMessage)) {
+            buildPythonExecutable(runtimeVersion());
+          }
+        }
+      }
+    }
+
+    /**
+     * Sends a batch of events to the long-lived worker process of this runtime, starting it if
+     * needed. Blocks while too many batches are waiting for their results.
+     *
+     * @param events events as JSON objects with an {@code id} and an {@code event}
+     * @return future of the results of the batch
+     */
+    public CompletableFuture<List<String>> invokeAsync(List<String> events) throws IOException {
+      return getWorker().submit(events);
+    }
+
+    private PythonUdfWorker getWorker() throws IOException {
+      PythonUdfWorker worker = workers.get(this);
+      if (worker != null) {
+        return worker;
+      }
+      // Writes the UDF into a file named after the function.
+      getProcessBuilder();
+      List<String> command =
+          Arrays.asList(
+              runtimeVersion(),
+              getWorkerScript().getAbsolutePath(),
+              new File(functionName()).getAbsolutePath(),
+              functionName());
+      if (shutdownHookAdded.compareAndSet(false, true)) {
+        Runtime.getRuntime()
+            .addShutdownHook(new Thread(PythonRuntime::closeWorkers, "python-udf-shutdown"));
+      }
+      return workers.computeIfAbsent(
+          this, runtime -> new PythonUdfWorker(command, MAX_IN_FLIGHT_BATCHES));
+    }
+
+    /**
+     * Registers a user of the worker process of this runtime. Each call must be followed by a call
+     * to {@link #releaseWorker()} once the worker is no longer needed.
+     */
+    public void retainWorker() {
+      synchronized (workers) {
+        workerUsers.merge(this, 1, Integer::sum);
+      }
+    }
+
+    /** Unregisters a user of the worker process of this runtime, closing it after the last one. */
+    public void releaseWorker() {
+      PythonUdfWorker worker = null;
+      synchronized (workers) {
+        if (workerUsers.computeIfPresent(this, (runtime, users) -> users > 1 ? users - 1 : null)
+            == null) {
+          worker = workers.remove(this);
+        }
+      }
+      if (worker != null) {
+        worker.close();
+      }
+    }
+
+    /** Closes the worker processes of all runtimes. */
+    @VisibleForTesting
+    static void closeWorkers() {
+      synchronized (workers) {
+        workerUsers.clear();
+        for (PythonRuntime runtime : workers.keySet()) {
+          PythonUdfWorker worker = workers.remove(runtime);
+          if (worker != null) {
+            worker.close();
+          }
+        }
+      }
+    }
+
+    private static synchronized File getWorkerScript() throws IOException {
+      if (workerScript == null) {
+        File script = File.createTempFile("udf_worker", ".py");
+        script.deleteOnExit();
+        try (InputStream in =
+            PythonRuntime.class.getClassLoader().getResourceAsStream(WORKER_SCRIPT_RESOURCE)) {
+          if (in == null) {
+            throw new IOException("Missing resource " + WORKER_SCRIPT_RESOURCE);
+          }
+          Files.copy(in, script.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        workerScript = script;
+      }
+      return workerScript;
+    }
+
     /**
      * Loads into memory scripts from a File System from a given path. Supports any file system that
      * {@link FileSystems} supports.
@@ -384,6 +526,9 @@ public abstract class PythonTextTransformer implements Serializable {
     private Counter thresholdCounter =
         Metrics.counter(FailsafePythonUdf.class, "udf-threshold-trigger");
 
+    /** Number of events sent to the Python worker at once. */
+    private static final int BATCH_SIZE = 1000;
+
     /** Builder for {@link FailsafePythonUdf}. */
     @AutoValue.Builder
     public abstract static class Builder<T> {
@@ -418,12 +563,10 @@ public abstract class PythonTextTransformer implements Serializable {
           ParDo.of(
                   new DoFn<FailsafeElement<T, String>, FailsafeElement<T, String>>() {
                     private PythonRuntime pythonRuntime;
-                    private Integer batchLimit;
-                    private Integer batchCounter;
                     private HashMap<String, FailsafeElement<T, String>> futures;
-                    private String processUUID;
-                    private File manifestFile;
-                    private BufferedWriter dataWriter;
+                    private List<String> batch;
+                    private List<List<String>> submittedBatches;
+                    private List<CompletableFuture<List<String>>> submittedResults;
                     private BoundedWindow window;
 
                     @Setup
@@ -438,6 +581,7 @@ public abstract class PythonTextTransformer implements Serializable {
                         LOG.info("Build Python Env for version {}", runtimeVersion);
 
                         pythonRuntime.buildPythonExecutable(runtimeVersion);
+                        pythonRuntime.retainWorker();
                       } else {
                         LOG.warn(
                             "Not setting up a Python Mapper runtime, because "
@@ -449,20 +593,11 @@ public abstract class PythonTextTransformer implements Serializable {
                     }
 
                     @StartBundle
-                    public void startBundle(StartBundleContext context) throws IOException {
-                      batchCounter = 0;
-                      batchLimit = 1000;
-                      processUUID = UUID.randomUUID().toString();
-                      manifestFile =
-                          File.createTempFile(String.format("manifest_%s", processUUID), null);
+                    public void startBundle(StartBundleContext context) {
                       futures = new HashMap<String, FailsafeElement<T, String>>();
-                      dataWriter =
-                          new BufferedWriter(new FileWriter(manifestFile.getAbsolutePath()));
-                      LOG.info("file is at {}", manifestFile.getAbsolutePath());
-
-                      // initialize a temp file (non local) and a counter
-                      // TODO: createFile function
-
+                      batch = new ArrayList<>();
+                      submittedBatches = new ArrayList<>();
+                      submittedResults = new ArrayList<>();
                     }
 
                     @ProcessElement
@@ -476,28 +611,59 @@ public abstract class PythonTextTransformer implements Serializable {
                       JSONObject json = new JSONObject();
                       json.put("id", eventId);
                       json.put("event", originalPayload);
-                      String wrappedPayload = json.toString();
                       futures.put(eventId, element);
-                      // TODO: add a counter of sum of total bytes
-                      // 1) add event and increase counter
-                      // 2) if counter > X process all of the rows
-
-                      dataWriter.write(wrappedPayload);
-                      dataWriter.newLine();
-                      dataWriter.flush();
-                      batchCounter++;
+                      batch.add(json.toString());
+                      // Stream full batches to the worker while the bundle is still being read.
+                      if (batch.size() >= BATCH_SIZE) {
+                        submitBatch();
+                      }
                     }
 
-                    // TODO: create an execute batch fn
+                    private void submitBatch() {
+                      submittedBatches.add(batch);
+                      CompletableFuture<List<String>> result;
+                      try {
+                        result = pythonRuntime.invokeAsync(batch);
+                      } catch (IOException e) {
+                        // Retried with the runtime retries when the bundle finishes.
+                        result = new CompletableFuture<>();
+                        result.completeExceptionally(e);
+                      }
+                      submittedResults.add(result);
+                      batch = new ArrayList<>();
+                    }
 
                     @FinishBundle
                     public void finishBundle(FinishBundleContext context)
                         throws IOException, NoSuchMethodException, InterruptedException {
-                      LOG.info("closing batch at {} events", batchCounter);
-                      Integer retries = runtimeRetries();
-                      List<String> results = new ArrayList<>();
-                      LOG.info("executing the batch!!!");
-                      results = pythonRuntime.invoke(manifestFile, retries);
+                      if (!batch.isEmpty()) {
+                        submitBatch();
+                      }
+                      LOG.info("closing bundle at {} events", futures.size());
+                      for (int i = 0; i < submittedResults.size(); i++) {
+                        List<String> results;
+                        try {
+                          results = submittedResults.get(i).join();
+                        } catch (CompletionException e) {
+                          LOG.warn("Python UDF batch failed, retrying", e.getCause());
+                          results = pythonRuntime.invoke(submittedBatches.get(i), runtimeRetries());
+                        }
+                        outputResults(results, context);
+                      }
+                      futures.clear();
+                      submittedBatches.clear();
+                      submittedResults.clear();
+                    }
+
+                    @Teardown
+                    public void teardown() {
+                      if (pythonRuntime != null) {
+                        pythonRuntime.releaseWorker();
+                        pythonRuntime = null;
+                      }
+                    }
+
+                    private void outputResults(List<String> results, FinishBundleContext context) {
                       LOG.info("processed {} number of records", results.size());
                       for (int iter = 0; iter < results.size(); iter++) {
                         String event = results.get(iter);
@@ -507,7 +673,6 @@ public abstract class PythonTextTransformer implements Serializable {
 
                         // FIX THIS
                         if (json.getString("status").equals("SUCCESS")) {
-                          String transformedEvent = json.getJSONObject("event").toString();
                           context.output(
                               FailsafeElement.of(
                                   originalEvent.getOriginalPayload(),
@@ -527,9 +692,6 @@ public abstract class PythonTextTransformer implements Serializable {
                           LOG.info("event status was {}", json.getString("status"));
                         }
                       }
-                      futures.clear();
-                      dataWriter.close();
-                      manifestFile.delete();
                     }
                   })
               .withOutputTags(successTag(), TupleTagList.of(failureTag())));
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.transforms;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.json.JSONArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A long-lived Python process applying a UDF to batches of events.
+ *
+ * <p>Batches are sent to the process over stdin and results are read back from stdout, both as
+ * frames of a 4-byte big-endian length followed by UTF-8 JSON. See {@code python-udf/udf_worker.py}
+ * for the process side of the protocol. The process answers batches in the order they were sent, so
+ * pending results are kept in a FIFO queue and completed by a reader thread. The reader thread
+ * never takes the lock held while writing, so a writer blocked on a full pipe can not stop the
+ * results from being drained. At most {@code maxInFlightBatches} batches are sent before their
+ * results are read, after which {@link #submit(List)} blocks.
+ *
+ * <p>If the process exits, the pending batches fail with an {@link IOException} and the next {@link
+ * #submit(List)} starts a new process.
+ */
+final class PythonUdfWorker implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PythonUdfWorker.class);
+
+  private final List<String> command;
+  private final Semaphore inFlightBatches;
+
+  private Process process;
+  private DataOutputStream processInput;
+  private Queue<CompletableFuture<List<String>>> pendingResults;
+  private AtomicBoolean processExited;
+
+  /**
+   * @param command command starting the worker process
+   * @param maxInFlightBatches maximum number of batches sent to the process and not yet answered
+   */
+  PythonUdfWorker(List<String> command, int maxInFlightBatches) {
+    this.command = command;
+    this.inFlightBatches = new Semaphore(maxInFlightBatches);
+  }
+
+  /**
+   * Sends a batch of events to the process.
+   *
+   * @param events events as JSON objects with an {@code id} and an {@code event}
+   * @return future of the results of the batch, one JSON object per output row
+   * @throws IOException if the process can not be started or written to
+   */
+  CompletableFuture<List<String>> submit(List<String> events) throws IOException {
+    byte[] payload = ("[" + String.join(",", events) + "]").getBytes(StandardCharsets.UTF_8);
+    inFlightBatches.acquireUninterruptibly();
+    CompletableFuture<List<String>> result = new CompletableFuture<>();
+    result.whenComplete((r, e) -> inFlightBatches.release());
+    synchronized (this) {
+      try {
+        if (process == null || !process.isAlive() || processExited.get()) {
+          start();
+        }
+        // Queue the result before writing, so that the reader thread always finds it.
+        pendingResults.add(result);
+        if (processExited.get()) {
+          // The reader may have drained the queue before the result was added.
+          failPending(pendingResults, new IOException("Python UDF worker exited"));
+          return result;
+        }
+        processInput.writeInt(payload.length);
+        processInput.write(payload);
+        processInput.flush();
+      } catch (IOException e) {
+        result.completeExceptionally(e);
+        throw e;
+      }
+    }
+    return result;
+  }
+
+  private void start() throws IOException {
+    if (process != null) {
+      process.destroyForcibly();
+      LOG.warn("Python UDF worker exited, restarting");
+    }
+    Process newProcess =
+        new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    Queue<CompletableFuture<List<String>>> newPendingResults = new ConcurrentLinkedQueue<>();
+    AtomicBoolean newProcessExited = new AtomicBoolean(false);
+    process = newProcess;
+    processInput = new DataOutputStream(new BufferedOutputStream(newProcess.getOutputStream()));
+    pendingResults = newPendingResults;
+    processExited = newProcessExited;
+    Thread reader =
+        new Thread(
+            () -> readResults(newProcess, newPendingResults, newProcessExited),
+            "python-udf-worker-reader");
+    reader.setDaemon(true);
+    reader.start();
+  }
+
+  private void readResults(
+      Process readProcess,
+      Queue<CompletableFuture<List<String>>> readPendingResults,
+      AtomicBoolean readProcessExited) {
+    try (DataInputStream processOutput =
+        new DataInputStream(new BufferedInputStream(readProcess.getInputStream()))) {
+      while (true) {
+        byte[] payload = new byte[processOutput.readInt()];
+        processOutput.readFully(payload);
+        JSONArray results = new JSONArray(new String(payload, StandardCharsets.UTF_8));
+        List<String> resultList = new ArrayList<>(results.length());
+        for (int i = 0; i < results.length(); i++) {
+          resultList.add(results.getJSONObject(i).toString());
+        }
+        CompletableFuture<List<String>> result = readPendingResults.poll();
+        if (result != null) {
+          result.complete(resultList);
+        }
+      }
+    } catch (EOFException e) {
+      readProcessExited.set(true);
+      failPending(readPendingResults, new IOException("Python UDF worker exited", e));
+    } catch (IOException | RuntimeException e) {
+      readProcessExited.set(true);
+      readProcess.destroyForcibly();
+      failPending(readPendingResults, new IOException("Failed to read from Python UDF worker", e));
+    }
+  }
+
+  private void failPending(
+      Queue<CompletableFuture<List<String>>> readPendingResults, IOException cause) {
+    CompletableFuture<List<String>> result;
+    while ((result = readPendingResults.poll()) != null) {
+      result.completeExceptionally(cause);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (process != null) {
+      process.destroy();
+      process = null;
+    }
+  }
+}
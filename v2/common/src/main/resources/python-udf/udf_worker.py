@@ -0,0 +1,164 @@
+##
+# Copyright (C) 2024 Google LLC
+#
+# Licensed under the Apache License, Version 2.0 (the "License"); you may not
+# use this file except in compliance with the License. You may obtain a copy of
+# the License at
+#
+#   http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+# WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+# License for the specific language governing permissions and limitations under
+# the License.
+
+"""Long-lived worker applying a Python UDF to batches of events.
+
+Usage: udf_worker.py <udf file> <function name>
+
+Each request read from stdin is a frame: a 4-byte big-endian length followed
+by that many bytes of UTF-8 JSON, holding a list of {"id": ..., "event": ...}
+objects. For each request, one frame is written to stdout holding the list of
+{"status", "id", "event", "error_message"} results, in the same format as the
+results printed by file based UDF scripts.
+
+The UDF file is loaded as a module and the named function is called with each
+event. It returns a dict, a list of dicts, or None to discard the event. None
+rows are dropped, and any other row fails the event with an error message. Files which can not be loaded as a module, or which do not define the
+function, are run as file based scripts instead: each request is written to a
+file with one {"id": ..., "event": ...} object per line, the script is run with
+the path of that file as its only argument, and the lines it prints are the
+results.
+"""
+
+import importlib.machinery
+import importlib.util
+import json
+import os
+import struct
+import subprocess
+import sys
+import tempfile
+import traceback
+
+_LENGTH = struct.Struct('>I')
+
+
+def _load_function(udf_path, function_name):
+  # The UDF file is not required to end with .py, so name the loader explicitly.
+  loader = importlib.machinery.SourceFileLoader('udf', udf_path)
+  spec = importlib.util.spec_from_loader('udf', loader)
+  module = importlib.util.module_from_spec(spec)
+  try:
+    loader.exec_module(module)
+  except BaseException:  # pylint: disable=broad-except
+    # Scripts may read their arguments or exit when they are loaded.
+    traceback.print_exc()
+    return None
+  function = getattr(module, function_name, None)
+  return function if callable(function) else None
+
+
+def _run_script(udf_path, requests):
+  with tempfile.NamedTemporaryFile(
+      'w', suffix='.json', delete=False, encoding='utf-8') as data_file:
+    for request in requests:
+      data_file.write(json.dumps(request))
+      data_file.write('\n')
+  try:
+    output = subprocess.run(
+        [sys.executable, udf_path, data_file.name],
+        stdout=subprocess.PIPE,
+        check=False).stdout.decode('utf-8')
+  finally:
+    os.remove(data_file.name)
+  events = {request['id']: request['event'] for request in requests}
+  results = []
+  for line in output.splitlines():
+    if not line.strip():
+      continue
+    result = json.loads(line)
+    if result.get('status') == 'SUCCESS':
+      result = _result(result['id'], events.get(result['id']), result.get('event'))
+    if result is not None:
+      results.append(result)
+  return results
+
+
+def _read_exactly(stream, size):
+  data = b''
+  while len(data) < size:
+    chunk = stream.read(size - len(data))
+    if not chunk:
+      return None
+    data += chunk
+  return data
+
+
+def _result(event_id, event, row):
+  """Returns the result of a row returned by the UDF, or None to drop it."""
+  if row is None:
+    return None
+  if not isinstance(row, dict):
+    return {'status': 'FAILED',
+            'id': event_id,
+            'event': event,
+            'error_message': 'The UDF returned a %s instead of a JSON object' %
+                             type(row).__name__}
+  return {'status': 'SUCCESS',
+          'id': event_id,
+          'event': row,
+          'error_message': None}
+
+
+def _apply(function, request):
+  event_id = request['id']
+  event = request['event']
+  try:
+    transformed_event = function(event)
+  except Exception:
+    return [{'status': 'FAILED',
+             'id': event_id,
+             'event': event,
+             'error_message': traceback.format_exc()}]
+  rows = transformed_event if isinstance(transformed_event, list) else [
+      transformed_event]
+  results = [_result(event_id, event, row) for row in rows]
+  return [result for result in results if result is not None]
+
+
+def main():
+  # Keep the working directory of the worker free of __pycache__ directories.
+  sys.dont_write_bytecode = True
+  stdin = sys.stdin.buffer
+  stdout = sys.stdout.buffer
+  # Anything the UDF prints must not corrupt the framed output.
+  sys.stdout = sys.stderr
+  udf_path = sys.argv[1]
+  function = _load_function(udf_path, sys.argv[2])
+  if function is None:
+    print('%s does not define %s, running it as a script' %
+          (udf_path, sys.argv[2]), file=sys.stderr)
+  while True:
+    header = _read_exactly(stdin, _LENGTH.size)
+    if header is None:
+      return
+    payload = _read_exactly(stdin, _LENGTH.unpack(header)[0])
+    if payload is None:
+      return
+    requests = json.loads(payload.decode('utf-8'))
+    if function is None:
+      results = _run_script(udf_path, requests)
+    else:
+      results = []
+      for request in requests:
+        results.extend(_apply(function, request))
+    response = json.dumps(results).encode('utf-8')
+    stdout.write(_LENGTH.pack(len(response)))
+    stdout.write(response)
+    stdout.flush()
+
+
+if __name__ == '__main__':
+  main()
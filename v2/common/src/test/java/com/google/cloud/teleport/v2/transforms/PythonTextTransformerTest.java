@@ -42,7 +42,10 @@ import org.apache.beam.sdk.testing.TestPipeline;
 import org.apache.beam.sdk.transforms.Create;
 import org.apache.beam.sdk.values.PCollectionTuple;
 import org.apache.beam.sdk.values.TupleTag;
+import org.json.JSONObject;
+import org.junit.After;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
@@ -101,6 +104,100 @@ public class PythonTextTransformerTest {
     Assert.assertEquals(expectedJson, data);
   }
 
+  @After
+  public void closeWorkers() {
+    PythonRuntime.closeWorkers();
+  }
+
+  /**
+   * Test {@link PythonRuntime#invoke(List, Integer)} returns transformed data from the long-lived
+   * worker. Skipped when python3 is not installed on the local worker.
+   */
+  @Test
+  public void testInvokeBatchGood() throws Exception {
+    assumePythonInstalled();
+    PythonRuntime pythonRuntime =
+        PythonRuntime.newBuilder()
+            .setFileSystemPath(TRANSFORM_FILE_PATH)
+            .setFunctionName("transform")
+            .setRuntimeVersion(PYTHON_VERSION)
+            .build();
+
+    List<String> results =
+        pythonRuntime.invoke(
+            Arrays.asList(
+                "{\"id\": \"1\", \"event\": {\"answerToLife\": 42}}",
+                "{\"id\": \"2\", \"event\": {\"answerToLife\": 43}}"),
+            5);
+
+    Assert.assertEquals(2, results.size());
+    JSONObject first = new JSONObject(results.get(0));
+    Assert.assertEquals("1", first.getString("id"));
+    Assert.assertEquals("SUCCESS", first.getString("status"));
+    Assert.assertEquals("new_value", first.getJSONObject("event").getString("new_key"));
+    Assert.assertEquals("2", new JSONObject(results.get(1)).getString("id"));
+    // The worker is reused across batches.
+    Assert.assertEquals(
+        1,
+        pythonRuntime
+            .invoke(Arrays.asList("{\"id\": \"3\", \"event\": {\"answerToLife\": 44}}"), 5)
+            .size());
+  }
+
+  /**
+   * Test {@link PythonRuntime#invoke(List, Integer)} runs files which do not define the function as
+   * file based scripts. Skipped when python3 is not installed on the local worker.
+   */
+  @Test
+  public void testInvokeBatchScript() throws Exception {
+    assumePythonInstalled();
+    PythonRuntime pythonRuntime =
+        PythonRuntime.newBuilder()
+            .setFileSystemPath(TRANSFORM_FILE_PATH)
+            .setFunctionName("transform_script")
+            .setRuntimeVersion(PYTHON_VERSION)
+            .build();
+
+    List<String> results =
+        pythonRuntime.invoke(
+            Arrays.asList("{\"id\": \"1\", \"event\": {\"answerToLife\": 42}}"), 5);
+
+    Assert.assertEquals(1, results.size());
+    JSONObject result = new JSONObject(results.get(0));
+    Assert.assertEquals("1", result.getString("id"));
+    Assert.assertEquals("SUCCESS", result.getString("status"));
+    Assert.assertEquals("new_value", result.getJSONObject("event").getString("new_key"));
+  }
+
+  /**
+   * Test {@link PythonRuntime#invoke(List, Integer)} drops the events a function discards with None
+   * and fails the events it transforms into something other than a JSON object. Skipped when
+   * python3 is not installed on the local worker.
+   */
+  @Test
+  public void testInvokeBatchInvalidRows() throws Exception {
+    assumePythonInstalled();
+    PythonRuntime pythonRuntime =
+        PythonRuntime.newBuilder()
+            .setFileSystemPath(TRANSFORM_FILE_PATH)
+            .setFunctionName("transform_invalid")
+            .setRuntimeVersion(PYTHON_VERSION)
+            .build();
+
+    List<String> results =
+        pythonRuntime.invoke(
+            Arrays.asList(
+                "{\"id\": \"1\", \"event\": {\"discard\": true}}",
+                "{\"id\": \"2\", \"event\": {\"answerToLife\": 42}}"),
+            5);
+
+    Assert.assertEquals(1, results.size());
+    JSONObject result = new JSONObject(results.get(0));
+    Assert.assertEquals("2", result.getString("id"));
+    Assert.assertEquals("FAILED", result.getString("status"));
+    Assert.assertTrue(result.getString("error_message").contains("instead of a JSON object"));
+  }
+
   /** Tests the {@link FailsafePythonUdf} when the input is valid. */
   @Ignore
   @Test
@@ -161,4 +258,14 @@ public class PythonTextTransformerTest {
     // Execute the test
     pipeline.run();
   }
+
+  private static void assumePythonInstalled() {
+    boolean installed;
+    try {
+      installed = new ProcessBuilder(PYTHON_VERSION, "--version").start().waitFor() == 0;
+    } catch (Exception e) {
+      installed = false;
+    }
+    Assume.assumeTrue(PYTHON_VERSION + " is not installed", installed);
+  }
 }
@@ -30,6 +30,12 @@ def transform(event):
   # event = event
   return event
 
+def transform_invalid(event):
+  """ Discard events with a discard key and return a string for the others. """
+  if event.get('discard'):
+    return None
+  return 'not an object'
+
 def _handle_result(input_data):
   event_id = copy.deepcopy(input_data['id'])
   event = copy.deepcopy(input_data['event'])
@@ -18,17 +18,28 @@ package com.google.cloud.teleport.v2.cdc.merge;
 import com.google.cloud.bigquery.BigQuery;
 import com.google.cloud.bigquery.BigQueryException;
 import com.google.cloud.bigquery.BigQueryOptions;
+import com.google.cloud.bigquery.FieldValue;
+import com.google.cloud.bigquery.FieldValueList;
 import com.google.cloud.bigquery.Job;
 import com.google.cloud.bigquery.JobId;
 import com.google.cloud.bigquery.QueryJobConfiguration;
 import com.google.cloud.bigquery.TableResult;
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.beam.sdk.coders.MapCoder;
+import org.apache.beam.sdk.coders.SerializableCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
 import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Distribution;
 import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.state.StateSpec;
+import org.apache.beam.sdk.state.StateSpecs;
+import org.apache.beam.sdk.state.ValueState;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.GroupByKey;
 import org.apache.beam.sdk.transforms.MapElements;
@@ -67,20 +78,28 @@ public class BigQueryMerger extends PTransform<PCollection<MergeInfo>, PCollecti
 
   @Override
   public PCollection<Void> expand(PCollection<MergeInfo> input) {
-    return input
-        .apply(
-            MapElements.into(
-                    TypeDescriptors.kvs(
-                        TypeDescriptors.strings(), TypeDescriptor.of(MergeInfo.class)))
-                .via(mergeInfo -> KV.of(mergeInfo.getReplicaTableReference(), mergeInfo)))
-        .apply(
-            new TriggerPerKeyOnFixedIntervals<String, MergeInfo>(
-                mergeConfiguration.mergeWindowDuration()))
-        .apply(
-            MapElements.into(
-                    TypeDescriptors.kvs(
-                        TypeDescriptors.integers(), TypeDescriptor.of(MergeInfo.class)))
-                .via(kv -> KV.of(createJobKey(kv.getKey()), kv.getValue())))
+    PCollection<KV<Integer, MergeInfo>> mergesByJobKey =
+        input
+            .apply(
+                MapElements.into(
+                        TypeDescriptors.kvs(
+                            TypeDescriptors.strings(), TypeDescriptor.of(MergeInfo.class)))
+                    .via(mergeInfo -> KV.of(mergeInfo.getReplicaTableReference(), mergeInfo)))
+            .apply(
+                new TriggerPerKeyOnFixedIntervals<String, MergeInfo>(
+                    mergeConfiguration.mergeWindowDuration()))
+            .apply(
+                MapElements.into(
+                        TypeDescriptors.kvs(
+                            TypeDescriptors.integers(), TypeDescriptor.of(MergeInfo.class)))
+                    .via(kv -> KV.of(createJobKey(kv.getKey()), kv.getValue())));
+    if (mergeConfiguration.incrementalMerge()) {
+      return mergesByJobKey
+          .apply(
+              ParDo.of(new IncrementalStatementIssuingFn(bigQueryClient, mergeConfiguration)))
+          .apply(MapElements.into(TypeDescriptors.voids()).via(whatever -> null));
+    }
+    return mergesByJobKey
         .apply(Reshuffle.of())
         .apply(Values.create())
         .apply(ParDo.of(new BigQueryStatementIssuingFn(bigQueryClient, mergeConfiguration)))
@@ -205,7 +224,7 @@ public class BigQueryMerger extends PTransform<PCollection<MergeInfo>, PCollecti
       MergeInfo mergeInfo = c.element();
       String statement = mergeInfo.buildMergeStatement(mergeConfiguration);
       try {
-        TableResult queryResult = issueQueryToBQ(mergeInfo, statement);
+        TableResult queryResult = issueQueryToBQ(mergeInfo, mergeInfo.getJobId(), statement);
         mergesIssued.inc();
         LOG.info("Merge job executed: {}", statement);
       } catch (BigQueryException e) {
@@ -221,7 +240,7 @@ public class BigQueryMerger extends PTransform<PCollection<MergeInfo>, PCollecti
       }
     }
 
-    private TableResult issueQueryToBQ(MergeInfo mergeInfo, String statement)
+    TableResult issueQueryToBQ(MergeInfo mergeInfo, String jobName, String statement)
         throws InterruptedException {
       QueryJobConfiguration jobConfiguration = QueryJobConfiguration.newBuilder(statement).build();
 
@@ -234,7 +253,7 @@ public class BigQueryMerger extends PTransform<PCollection<MergeInfo>, PCollecti
             bigQueryClient.getDataset(mergeInfo.getReplicaTable().getDataset()).getLocation());
       }
       String location = datasetsToLocations.get(datasetName);
-      JobId jobId = JobId.newBuilder().setJob(mergeInfo.getJobId()).setLocation(location).build();
+      JobId jobId = JobId.newBuilder().setJob(jobName).setLocation(location).build();
       LOG.info("Triggering job {} for statement |{}|", jobId.toString(), statement);
 
       try {
@@ -254,4 +273,144 @@ public class BigQueryMerger extends PTransform<PCollection<MergeInfo>, PCollecti
       }
     }
   }
+
+  /**
+   * Class {@link IncrementalStatementIssuingFn}.
+   *
+   * <p>The staging rows written after the high-water mark of the previous MERGE of the table are
+   * counted first. The MERGE is skipped while there are fewer than {@link
+   * MergeConfiguration#minChangesPerMerge()} of them, up to {@link
+   * MergeConfiguration#maxSkippedMerges()} windows in a row, and otherwise only reads those rows.
+   * The high-water marks of the tables are kept in the state of their job key, so they survive
+   * worker restarts and rebalancing.
+   */
+  static class IncrementalStatementIssuingFn extends DoFn<KV<Integer, MergeInfo>, Void> {
+
+    private static final String MERGE_STATES_ID = "incrementalMergeStates";
+
+    @StateId(MERGE_STATES_ID)
+    private final StateSpec<ValueState<Map<String, IncrementalMergeState>>> mergeStatesSpec =
+        StateSpecs.value(
+            MapCoder.of(StringUtf8Coder.of(), SerializableCoder.of(IncrementalMergeState.class)));
+
+    private final Counter mergesIssued = Metrics.counter(BigQueryMerger.class, "mergesIssued");
+    private final Counter mergesSkipped = Metrics.counter(BigQueryMerger.class, "mergesSkipped");
+    private final Distribution changesPerMerge =
+        Metrics.distribution(BigQueryMerger.class, "changesPerMerge");
+
+    private final BigQueryStatementIssuingFn statementIssuingFn;
+    private final MergeConfiguration mergeConfiguration;
+
+    IncrementalStatementIssuingFn(BigQuery bigQueryClient, MergeConfiguration mergeConfiguration) {
+      this.statementIssuingFn = new BigQueryStatementIssuingFn(bigQueryClient, mergeConfiguration);
+      this.mergeConfiguration = mergeConfiguration;
+    }
+
+    @Setup
+    public void setUp() {
+      statementIssuingFn.setUp();
+    }
+
+    @ProcessElement
+    public void process(
+        ProcessContext c,
+        @StateId(MERGE_STATES_ID) ValueState<Map<String, IncrementalMergeState>> mergeStates)
+        throws InterruptedException {
+      MergeInfo mergeInfo = c.element().getValue();
+      Map<String, IncrementalMergeState> states = mergeStates.read();
+      states = states == null ? new HashMap<>() : new HashMap<>(states);
+      IncrementalMergeState state =
+          states.computeIfAbsent(
+              mergeInfo.getReplicaTableReference(), table -> new IncrementalMergeState());
+      long nowMillis = System.currentTimeMillis();
+      String lowWaterMark = state.getLowWaterMark(mergeConfiguration, nowMillis);
+      String statement = mergeInfo.buildChangesQuery(mergeConfiguration, lowWaterMark);
+      try {
+        FieldValueList changesRow =
+            statementIssuingFn
+                .issueQueryToBQ(mergeInfo, mergeInfo.getJobId() + "_changes", statement)
+                .getValues()
+                .iterator()
+                .next();
+        long changes = changesRow.get(MergeStatementBuilder.CHANGES_COLUMN).getLongValue();
+        FieldValue highWaterMark = changesRow.get(MergeStatementBuilder.HIGH_WATER_MARK_COLUMN);
+        if (state.shouldSkip(mergeConfiguration, lowWaterMark, changes)) {
+          mergesSkipped.inc();
+          mergeStates.write(states);
+          LOG.info(
+              "Skipping merge of {} with {} changes since {}",
+              mergeInfo.getReplicaTableReference(),
+              changes,
+              lowWaterMark);
+          return;
+        }
+
+        statement = mergeInfo.buildMergeStatement(mergeConfiguration, lowWaterMark);
+        statementIssuingFn.issueQueryToBQ(mergeInfo, mergeInfo.getJobId(), statement);
+        mergesIssued.inc();
+        changesPerMerge.update(changes);
+        state.onMerged(
+            lowWaterMark,
+            highWaterMark.isNull() ? null : highWaterMark.getStringValue(),
+            nowMillis);
+        mergeStates.write(states);
+        LOG.info("Merge job executed: {}", statement);
+      } catch (BigQueryException e) {
+        LOG.warn(
+            "Merge Job Failed With BigQuery Exception: {} Statement: {}", e.toString(), statement);
+      } catch (Exception e) {
+        LOG.warn(
+            "Merge Job Failed With Unexpected exception: {} Statement: {}",
+            e.toString(),
+            statement);
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * The high-water mark of the incremental merges of a table, and when the merges read the whole
+   * partition retention window and are skipped.
+   */
+  static class IncrementalMergeState implements Serializable {
+    private String highWaterMark;
+    private long lastFullMergeMillis;
+    private int skippedMerges;
+
+    /**
+     * Returns the high-water mark the next merge reads from, or null when it has to read the whole
+     * partition retention window.
+     */
+    @Nullable
+    String getLowWaterMark(MergeConfiguration mergeConfiguration, long nowMillis) {
+      if (nowMillis - lastFullMergeMillis >= mergeConfiguration.fullMergeInterval().getMillis()) {
+        return null;
+      }
+      return highWaterMark;
+    }
+
+    /** Returns whether to skip the merge of {@code changes} rows past {@code lowWaterMark}. */
+    boolean shouldSkip(
+        MergeConfiguration mergeConfiguration, @Nullable String lowWaterMark, long changes) {
+      if (lowWaterMark == null || changes >= mergeConfiguration.minChangesPerMerge()) {
+        return false;
+      }
+      if (skippedMerges >= mergeConfiguration.maxSkippedMerges()) {
+        return false;
+      }
+      skippedMerges++;
+      return true;
+    }
+
+    void onMerged(
+        @Nullable String lowWaterMark, @Nullable String newHighWaterMark, long nowMillis) {
+      if (lowWaterMark == null) {
+        lastFullMergeMillis = nowMillis;
+      }
+      if (newHighWaterMark != null) {
+        highWaterMark = newHighWaterMark;
+      }
+      skippedMerges = 0;
+    }
+  }
 }
@@ -60,6 +60,12 @@ public abstract class MergeConfiguration implements Serializable {
   public static final int DEFAULT_PARTITION_RETENTION_DAYS = 1;
   public static final Duration DEFAULT_MERGE_WINDOW_DURATION = Duration.standardMinutes(30);
   public static final int DEFAULT_MERGE_CONCURRENCY = 30;
+  public static final Boolean DEFAULT_INCREMENTAL_MERGE = false;
+  public static final Duration DEFAULT_INCREMENTAL_MERGE_LOOKBACK = Duration.standardHours(1);
+  public static final Duration DEFAULT_FULL_MERGE_INTERVAL = Duration.standardHours(24);
+  public static final long DEFAULT_MIN_CHANGES_PER_MERGE = 1000;
+  public static final int DEFAULT_MAX_SKIPPED_MERGES = 3;
+  public static final String DEFAULT_STAGING_TIMESTAMP_FIELD = "_metadata_staging_timestamp";
 
   // BigQuery-specific properties
   public static final String BIGQUERY_QUOTE_CHARACTER = "`";
@@ -79,6 +85,36 @@ public abstract class MergeConfiguration implements Serializable {
 
   public abstract int mergeConcurrency();
 
+  /**
+   * Whether each MERGE only reads the staging rows past the high-water mark of the previous MERGE
+   * of the table, instead of the whole partition retention window.
+   */
+  public abstract Boolean incrementalMerge();
+
+  /**
+   * How far behind the high-water mark an incremental MERGE reads, to pick up staging rows that
+   * became visible to queries after rows written later, or on a worker with a late clock.
+   */
+  public abstract Duration incrementalMergeLookback();
+
+  /** How often an incremental MERGE of a table reads the whole partition retention window. */
+  public abstract Duration fullMergeInterval();
+
+  /**
+   * The number of new staging rows below which an incremental MERGE of a table is issued less
+   * often.
+   */
+  public abstract long minChangesPerMerge();
+
+  /** The maximum number of merge windows an incremental MERGE of a table is skipped in a row. */
+  public abstract int maxSkippedMerges();
+
+  /**
+   * The TIMESTAMP column of the staging tables holding when each row was written to them, which
+   * the high-water marks of incremental MERGEs are tracked on.
+   */
+  public abstract String stagingTimestampField();
+
   public static MergeConfiguration bigQueryConfiguration() {
     return MergeConfiguration.builder().setQuoteCharacter(BIGQUERY_QUOTE_CHARACTER).build();
   }
@@ -101,6 +137,32 @@ public abstract class MergeConfiguration implements Serializable {
     return this.toBuilder().setMergeConcurrency(mergeConcurrency).build();
   }
 
+  public MergeConfiguration withIncrementalMerge(boolean incrementalMerge) {
+    return this.toBuilder().setIncrementalMerge(incrementalMerge).build();
+  }
+
+  public MergeConfiguration withIncrementalMergeLookback(Duration lookback) {
+    return this.toBuilder().setIncrementalMergeLookback(lookback).build();
+  }
+
+  public MergeConfiguration withFullMergeInterval(Duration fullMergeInterval) {
+    return this.toBuilder().setFullMergeInterval(fullMergeInterval).build();
+  }
+
+  public MergeConfiguration withMinChangesPerMerge(long minChangesPerMerge) {
+    checkArgument(minChangesPerMerge >= 0, "minChangesPerMerge must not be negative");
+    return this.toBuilder().setMinChangesPerMerge(minChangesPerMerge).build();
+  }
+
+  public MergeConfiguration withMaxSkippedMerges(int maxSkippedMerges) {
+    checkArgument(maxSkippedMerges >= 0, "maxSkippedMerges must not be negative");
+    return this.toBuilder().setMaxSkippedMerges(maxSkippedMerges).build();
+  }
+
+  public MergeConfiguration withStagingTimestampField(String stagingTimestampField) {
+    return this.toBuilder().setStagingTimestampField(stagingTimestampField).build();
+  }
+
   public abstract Builder toBuilder();
 
   static Builder builder() {
@@ -110,7 +172,13 @@ public abstract class MergeConfiguration implements Serializable {
         .setPartitionRetention(DEFAULT_PARTITION_RETENTION_DAYS)
         .setSupportPartitionedTables(true)
         .setMergeWindowDuration(DEFAULT_MERGE_WINDOW_DURATION)
-        .setMergeConcurrency(DEFAULT_MERGE_CONCURRENCY);
+        .setMergeConcurrency(DEFAULT_MERGE_CONCURRENCY)
+        .setIncrementalMerge(DEFAULT_INCREMENTAL_MERGE)
+        .setIncrementalMergeLookback(DEFAULT_INCREMENTAL_MERGE_LOOKBACK)
+        .setFullMergeInterval(DEFAULT_FULL_MERGE_INTERVAL)
+        .setMinChangesPerMerge(DEFAULT_MIN_CHANGES_PER_MERGE)
+        .setMaxSkippedMerges(DEFAULT_MAX_SKIPPED_MERGES)
+        .setStagingTimestampField(DEFAULT_STAGING_TIMESTAMP_FIELD);
   }
 
   @AutoValue.Builder
@@ -129,6 +197,18 @@ public abstract class MergeConfiguration implements Serializable {
 
     abstract Builder setMergeConcurrency(int mergeConcurrency);
 
+    abstract Builder setIncrementalMerge(Boolean incrementalMerge);
+
+    abstract Builder setIncrementalMergeLookback(Duration incrementalMergeLookback);
+
+    abstract Builder setFullMergeInterval(Duration fullMergeInterval);
+
+    abstract Builder setMinChangesPerMerge(long minChangesPerMerge);
+
+    abstract Builder setMaxSkippedMerges(int maxSkippedMerges);
+
+    abstract Builder setStagingTimestampField(String stagingTimestampField);
+
     abstract MergeConfiguration build();
   }
 }
@@ -27,6 +27,7 @@ import com.google.common.annotations.VisibleForTesting;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.apache.beam.sdk.schemas.AutoValueSchema;
 import org.apache.beam.sdk.schemas.annotations.DefaultSchema;
 import org.apache.beam.sdk.schemas.annotations.SchemaCreate;
@@ -110,6 +111,18 @@ public abstract class MergeInfo implements Serializable {
    * @param mergeConfiguration contains all the Merge query settings required to build a Merge SQL
    */
   public String buildMergeStatement(MergeConfiguration mergeConfiguration) {
+    return buildMergeStatement(mergeConfiguration, null);
+  }
+
+  /**
+   * Returns a Merge SQL string which only reads the staging rows past a high-water mark.
+   *
+   * @param mergeConfiguration contains all the Merge query settings required to build a Merge SQL
+   * @param highWaterMark the high-water mark returned by the changes query, or null to read the
+   *     whole partition retention window
+   */
+  public String buildMergeStatement(
+      MergeConfiguration mergeConfiguration, @Nullable String highWaterMark) {
     MergeStatementBuilder mergeBuilder = new MergeStatementBuilder(mergeConfiguration);
     return mergeBuilder.buildMergeStatement(
         getReplicaTableReference(),
@@ -117,7 +130,22 @@ public abstract class MergeInfo implements Serializable {
         this.getAllPkFields(),
         this.getOrderByFields(),
         this.getDeleteField(),
-        this.getColumns());
+        this.getColumns(),
+        highWaterMark);
+  }
+
+  /**
+   * Returns a SQL string counting the staging rows past a high-water mark and returning the next
+   * high-water mark.
+   *
+   * @param mergeConfiguration contains all the Merge query settings required to build a Merge SQL
+   * @param highWaterMark the high-water mark of the previous merge, or null to count the whole
+   *     partition retention window
+   */
+  public String buildChangesQuery(
+      MergeConfiguration mergeConfiguration, @Nullable String highWaterMark) {
+    return new MergeStatementBuilder(mergeConfiguration)
+        .buildChangesQuery(getStagingTableReference(), this.getDeleteField(), highWaterMark);
   }
 
   @Override
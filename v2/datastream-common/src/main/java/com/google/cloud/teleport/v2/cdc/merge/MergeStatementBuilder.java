@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.commons.text.StringSubstitutor;
 
 /** Class {@link MergeStatementBuilder}. */
@@ -42,6 +43,29 @@ public class MergeStatementBuilder implements Serializable {
       List<String> orderByFields,
       String deletedFieldName,
       List<String> allFields) {
+    return buildMergeStatement(
+        replicaTable,
+        stagingTable,
+        primaryKeyFields,
+        orderByFields,
+        deletedFieldName,
+        allFields,
+        null);
+  }
+
+  /**
+   * Builds a MERGE statement which, when {@code highWaterMark} is not null, only reads the staging
+   * rows written to the staging table after the high-water mark, less the incremental merge
+   * lookback of the configuration.
+   */
+  public String buildMergeStatement(
+      String replicaTable,
+      String stagingTable,
+      List<String> primaryKeyFields,
+      List<String> orderByFields,
+      String deletedFieldName,
+      List<String> allFields,
+      @Nullable String highWaterMark) {
     // Key/Value Map used to replace values in template
     Map<String, String> mergeQueryValues = new HashMap<>();
 
@@ -58,7 +82,7 @@ public class MergeStatementBuilder implements Serializable {
             primaryKeyFields,
             orderByFields,
             deletedFieldName,
-            configuration.partitionRetention()));
+            highWaterMark));
 
     mergeQueryValues.put(
         "joinCondition",
@@ -115,14 +139,19 @@ public class MergeStatementBuilder implements Serializable {
       List<String> primaryKeyFields,
       List<String> orderByFields,
       String deletedFieldName,
-      Integer daysOfRetention) {
+      @Nullable String highWaterMark) {
     String commaSeparatedFields = joinStringFields(",", allFields, "`");
 
     return String.format(
         LATEST_FROM_STAGING_TEMPLATE,
         commaSeparatedFields,
         buildPartitionedByPKAndSorted(
-            stagingTable, allFields, primaryKeyFields, orderByFields, deletedFieldName));
+            stagingTable,
+            allFields,
+            primaryKeyFields,
+            orderByFields,
+            deletedFieldName,
+            highWaterMark));
   }
 
   private static String joinStringFields(String delimiter, List<String> fields, String quoteChar) {
@@ -147,8 +176,20 @@ public class MergeStatementBuilder implements Serializable {
       List<String> allFields,
       List<String> primaryKeyFields,
       List<String> orderByFields,
-      String deletedFieldName) {
+      String deletedFieldName,
+      @Nullable String highWaterMark) {
     String commaSeparatedFields = joinStringFields(",", allFields, configuration.quoteCharacter());
+    String whereClause = buildRetentionWhereClause(deletedFieldName);
+    if (highWaterMark != null) {
+      whereClause =
+          appendCondition(
+              whereClause,
+              buildIncrementalCondition(
+                  String.format(
+                      LOOKBACK_TIMESTAMP_TEMPLATE,
+                      highWaterMark,
+                      configuration.incrementalMergeLookback().getStandardSeconds())));
+    }
     String commaSeparatedPKFields =
         joinStringFields(", ", primaryKeyFields, configuration.quoteCharacter());
     return String.format(
@@ -158,7 +199,7 @@ public class MergeStatementBuilder implements Serializable {
         buildOrderByFieldsSql(orderByFields),
         buildDeletedFieldSql(deletedFieldName),
         stagingTable,
-        buildRetentionWhereClause(deletedFieldName));
+        whereClause);
   }
 
   private String buildOrderByFieldsSql(List<String> orderByFields) {
@@ -211,6 +252,67 @@ public class MergeStatementBuilder implements Serializable {
     }
   }
 
+  public static final String CHANGES_QUERY_TEMPLATE =
+      "SELECT COUNT(*) AS %s, CAST(MAX(%s) AS STRING) AS %s FROM `%s` %s";
+  public static final String CHANGES_COLUMN = "changes";
+  public static final String HIGH_WATER_MARK_COLUMN = "high_water_mark";
+
+  /**
+   * Builds a query returning the number of staging rows written after {@code highWaterMark}, or in
+   * the partition retention window when it is null, and the latest staging timestamp among them, as
+   * a string to be passed as the next high-water mark.
+   */
+  public String buildChangesQuery(
+      String stagingTable, String deletedFieldName, @Nullable String highWaterMark) {
+    String whereClause = buildRetentionWhereClause(deletedFieldName);
+    if (highWaterMark != null) {
+      whereClause =
+          appendCondition(
+              whereClause,
+              buildIncrementalCondition(String.format(TIMESTAMP_TEMPLATE, highWaterMark)));
+    }
+    return String.format(
+        CHANGES_QUERY_TEMPLATE,
+        CHANGES_COLUMN,
+        quote(configuration.stagingTimestampField()),
+        HIGH_WATER_MARK_COLUMN,
+        stagingTable,
+        whereClause);
+  }
+
+  static final String TIMESTAMP_TEMPLATE = "TIMESTAMP '%s'";
+  static final String LOOKBACK_TIMESTAMP_TEMPLATE =
+      "TIMESTAMP_SUB(TIMESTAMP '%s', INTERVAL %s SECOND)";
+
+  // The staging tables are partitioned on ingestion time, which follows the staging timestamp of
+  // their rows, so the partitions written before the day of the lower bound are pruned.
+  static final String INCREMENTAL_PARTITION_TEMPLATE =
+      "COALESCE(_PARTITIONTIME, CURRENT_TIMESTAMP()) >= TIMESTAMP_TRUNC(%s, DAY) AND ";
+  static final String INCREMENTAL_CONDITION_TEMPLATE = "%s > %s";
+
+  private String buildIncrementalCondition(String lowerBound) {
+    String condition =
+        String.format(
+            INCREMENTAL_CONDITION_TEMPLATE,
+            quote(configuration.stagingTimestampField()),
+            lowerBound);
+    if (configuration.supportPartitionedTables()) {
+      return String.format(INCREMENTAL_PARTITION_TEMPLATE, lowerBound) + condition;
+    }
+    return condition;
+  }
+
+  private static String appendCondition(String whereClause, String condition) {
+    if (whereClause.isEmpty()) {
+      return "WHERE " + condition;
+    }
+    return String.format("%s AND (%s)", whereClause, condition);
+  }
+
+  private String quote(String field) {
+    return configuration.quoteCharacter() + field + configuration.quoteCharacter();
+  }
+
   static String buildJoinConditions(
       List<String> primaryKeyFields, final String leftTableName, final String rightTableName) {
     List<String> equalityConditions =
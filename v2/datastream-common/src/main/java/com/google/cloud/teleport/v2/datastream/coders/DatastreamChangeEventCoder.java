@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.datastream.coders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.cloud.teleport.v2.datastream.values.DatastreamChangeEvent;
+import com.google.common.collect.ImmutableList;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.beam.sdk.coders.AtomicCoder;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.util.VarInt;
+
+/**
+ * The {@link DatastreamChangeEventCoder} encodes and decodes {@link DatastreamChangeEvent} objects.
+ *
+ * <p>The fields are written with a tag for their type followed by their binary value, so decoding
+ * an event does not tokenize JSON text or parse numbers, and restores the same node types as the
+ * formatters produced. The metadata fields every formatted event carries are written as an index
+ * into {@link #FIELD_NAMES}, only the names of the columns are written as text.
+ *
+ * <p>The fields of an object are written in name order, so that equal events have the same
+ * encoding and decoded events have their fields in name order.
+ */
+public class DatastreamChangeEventCoder extends AtomicCoder<DatastreamChangeEvent> {
+
+  private static final DatastreamChangeEventCoder INSTANCE = new DatastreamChangeEventCoder();
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final JsonNodeFactory NODE_FACTORY = JsonNodeFactory.instance;
+
+  private static final int NULL = 0;
+  private static final int FALSE = 1;
+  private static final int TRUE = 2;
+  private static final int INT = 3;
+  private static final int LONG = 4;
+  private static final int DOUBLE = 5;
+  private static final int STRING = 6;
+  private static final int BINARY = 7;
+  private static final int OBJECT = 8;
+  private static final int ARRAY = 9;
+  // Any other node, written as JSON text.
+  private static final int JSON = 10;
+  private static final int DECIMAL = 11;
+  private static final int FLOAT = 12;
+  private static final int SHORT = 13;
+  private static final int BIG_INTEGER = 14;
+
+  /**
+   * The names written as their index plus one, 0 being followed by the name as text. Names may
+   * only be appended, since the index of a name is part of the encoding.
+   */
+  private static final List<String> FIELD_NAMES =
+      ImmutableList.of(
+          "_metadata_change_type",
+          "_metadata_dataflow_timestamp",
+          "_metadata_deleted",
+          "_metadata_log_file",
+          "_metadata_log_position",
+          "_metadata_lsn",
+          "_metadata_primary_keys",
+          "_metadata_read_method",
+          "_metadata_read_timestamp",
+          "_metadata_row_id",
+          "_metadata_rs_id",
+          "_metadata_schema",
+          "_metadata_scn",
+          "_metadata_source",
+          "_metadata_source_type",
+          "_metadata_ssn",
+          "_metadata_staging_timestamp",
+          "_metadata_stream",
+          "_metadata_table",
+          "_metadata_timestamp",
+          "_metadata_tx_id",
+          "_metadata_uuid");
+
+  private static final Map<String, Integer> FIELD_INDEXES = new HashMap<>();
+
+  static {
+    for (int i = 0; i < FIELD_NAMES.size(); i++) {
+      FIELD_INDEXES.put(FIELD_NAMES.get(i), i + 1);
+    }
+  }
+
+  private DatastreamChangeEventCoder() {}
+
+  public static DatastreamChangeEventCoder of() {
+    return INSTANCE;
+  }
+
+  @Override
+  public void encode(DatastreamChangeEvent value, OutputStream outStream) throws IOException {
+    if (value == null) {
+      throw new CoderException("The DatastreamChangeEventCoder cannot encode a null object!");
+    }
+    encodeObject(value.getEvent(), new DataOutputStream(outStream));
+  }
+
+  @Override
+  public DatastreamChangeEvent decode(InputStream inStream) throws IOException {
+    return DatastreamChangeEvent.of(decodeObject(new DataInputStream(inStream)));
+  }
+
+  /** Equal events have the same encoding, whatever the order of their fields. */
+  @Override
+  public void verifyDeterministic() {}
+
+  private static void encodeObject(ObjectNode object, DataOutputStream out) throws IOException {
+    TreeMap<String, JsonNode> sorted = new TreeMap<>();
+    for (Iterator<Map.Entry<String, JsonNode>> fields = object.fields(); fields.hasNext(); ) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      sorted.put(field.getKey(), field.getValue());
+    }
+    VarInt.encode(sorted.size(), out);
+    for (Map.Entry<String, JsonNode> field : sorted.entrySet()) {
+      encodeName(field.getKey(), out);
+      encodeNode(field.getValue(), out);
+    }
+  }
+
+  private static void encodeName(String name, DataOutputStream out) throws IOException {
+    Integer index = FIELD_INDEXES.get(name);
+    if (index != null) {
+      VarInt.encode(index, out);
+    } else {
+      VarInt.encode(0, out);
+      encodeString(name, out);
+    }
+  }
+
+  private static void encodeNode(JsonNode node, DataOutputStream out) throws IOException {
+    if (node.isNull()) {
+      out.writeByte(NULL);
+    } else if (node.isBoolean()) {
+      out.writeByte(node.booleanValue() ? TRUE : FALSE);
+    } else if (node.isShort()) {
+      out.writeByte(SHORT);
+      out.writeShort(node.shortValue());
+    } else if (node.isInt()) {
+      out.writeByte(INT);
+      VarInt.encode(node.intValue(), out);
+    } else if (node.isLong()) {
+      out.writeByte(LONG);
+      out.writeLong(node.longValue());
+    } else if (node.isBigInteger()) {
+      out.writeByte(BIG_INTEGER);
+      byte[] bytes = node.bigIntegerValue().toByteArray();
+      VarInt.encode(bytes.length, out);
+      out.write(bytes);
+    } else if (node.isFloat()) {
+      out.writeByte(FLOAT);
+      out.writeFloat(node.floatValue());
+    } else if (node.isDouble()) {
+      out.writeByte(DOUBLE);
+      out.writeDouble(node.doubleValue());
+    } else if (node.isBigDecimal()) {
+      // Written as text, so that the scale of the decimal is kept.
+      out.writeByte(DECIMAL);
+      encodeString(node.decimalValue().toString(), out);
+    } else if (node.isTextual()) {
+      out.writeByte(STRING);
+      encodeString(node.textValue(), out);
+    } else if (node.isBinary()) {
+      out.writeByte(BINARY);
+      byte[] bytes = node.binaryValue();
+      VarInt.encode(bytes.length, out);
+      out.write(bytes);
+    } else if (node.isObject()) {
+      out.writeByte(OBJECT);
+      encodeObject((ObjectNode) node, out);
+    } else if (node.isArray()) {
+      out.writeByte(ARRAY);
+      VarInt.encode(node.size(), out);
+      for (JsonNode element : node) {
+        encodeNode(element, out);
+      }
+    } else {
+      out.writeByte(JSON);
+      encodeString(MAPPER.writeValueAsString(node), out);
+    }
+  }
+
+  private static void encodeString(String value, DataOutputStream out) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    VarInt.encode(bytes.length, out);
+    out.write(bytes);
+  }
+
+  private static ObjectNode decodeObject(DataInputStream in) throws IOException {
+    int size = VarInt.decodeInt(in);
+    ObjectNode object = NODE_FACTORY.objectNode();
+    for (int i = 0; i < size; i++) {
+      String name = decodeName(in);
+      object.set(name, decodeNode(in));
+    }
+    return object;
+  }
+
+  private static String decodeName(DataInputStream in) throws IOException {
+    int index = VarInt.decodeInt(in);
+    if (index == 0) {
+      return decodeString(in);
+    }
+    if (index > FIELD_NAMES.size()) {
+      throw new CoderException("Unknown change event field name index " + index);
+    }
+    return FIELD_NAMES.get(index - 1);
+  }
+
+  private static JsonNode decodeNode(DataInputStream in) throws IOException {
+    int tag = in.readUnsignedByte();
+    switch (tag) {
+      case NULL:
+        return NODE_FACTORY.nullNode();
+      case FALSE:
+        return NODE_FACTORY.booleanNode(false);
+      case TRUE:
+        return NODE_FACTORY.booleanNode(true);
+      case INT:
+        return NODE_FACTORY.numberNode(VarInt.decodeInt(in));
+      case LONG:
+        return NODE_FACTORY.numberNode(in.readLong());
+      case DOUBLE:
+        return NODE_FACTORY.numberNode(in.readDouble());
+      case STRING:
+        return NODE_FACTORY.textNode(decodeString(in));
+      case BINARY:
+        return NODE_FACTORY.binaryNode(readBytes(in));
+      case OBJECT:
+        return decodeObject(in);
+      case ARRAY:
+        int size = VarInt.decodeInt(in);
+        ArrayNode array = NODE_FACTORY.arrayNode(size);
+        for (int i = 0; i < size; i++) {
+          array.add(decodeNode(in));
+        }
+        return array;
+      case JSON:
+        return MAPPER.readTree(decodeString(in));
+      case DECIMAL:
+        return DecimalNode.valueOf(new BigDecimal(decodeString(in)));
+      case FLOAT:
+        return NODE_FACTORY.numberNode(in.readFloat());
+      case SHORT:
+        return NODE_FACTORY.numberNode(in.readShort());
+      case BIG_INTEGER:
+        return NODE_FACTORY.numberNode(new BigInteger(readBytes(in)));
+      default:
+        throw new CoderException("Unknown change event field tag " + tag);
+    }
+  }
+
+  private static String decodeString(DataInputStream in) throws IOException {
+    return new String(readBytes(in), StandardCharsets.UTF_8);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[VarInt.decodeInt(in)];
+    in.readFully(bytes);
+    return bytes;
+  }
+}
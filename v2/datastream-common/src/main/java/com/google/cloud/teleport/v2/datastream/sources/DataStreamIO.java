@@ -21,8 +21,10 @@ import com.google.api.client.util.DateTime;
 import com.google.api.services.storage.model.Objects;
 import com.google.api.services.storage.model.StorageObject;
 import com.google.cloud.teleport.v2.coders.FailsafeElementCoder;
+import com.google.cloud.teleport.v2.datastream.coders.DatastreamChangeEventCoder;
 import com.google.cloud.teleport.v2.datastream.transforms.FormatDatastreamJsonToJson;
 import com.google.cloud.teleport.v2.datastream.transforms.FormatDatastreamRecordToJson;
+import com.google.cloud.teleport.v2.datastream.values.DatastreamChangeEvent;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
 import com.google.common.base.Strings;
 import java.io.FileNotFoundException;
@@ -33,6 +35,8 @@ import java.util.List;
 import java.util.Map;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.SerializableCoder;
 import org.apache.beam.sdk.coders.StringUtf8Coder;
 import org.apache.beam.sdk.extensions.avro.io.AvroSource;
 import org.apache.beam.sdk.extensions.gcp.util.GcsUtil;
@@ -42,10 +46,12 @@ import org.apache.beam.sdk.io.FileBasedSource;
 import org.apache.beam.sdk.io.FileIO;
 import org.apache.beam.sdk.io.FileIO.ReadableFile;
 import org.apache.beam.sdk.io.FileSystems;
+import org.apache.beam.sdk.io.ReadableFileCoder;
 import org.apache.beam.sdk.io.TextIO;
 import org.apache.beam.sdk.io.fs.MatchResult.Metadata;
 import org.apache.beam.sdk.io.gcp.pubsub.PubsubIO;
 import org.apache.beam.sdk.io.gcp.pubsub.PubsubMessage;
+import org.apache.beam.sdk.io.range.OffsetRange;
 import org.apache.beam.sdk.options.PipelineOptionsFactory;
 import org.apache.beam.sdk.transforms.Create;
 import org.apache.beam.sdk.transforms.DoFn;
@@ -58,6 +64,7 @@ import org.apache.beam.sdk.transforms.Values;
 import org.apache.beam.sdk.transforms.Watch;
 import org.apache.beam.sdk.transforms.Watch.Growth;
 import org.apache.beam.sdk.transforms.Watch.Growth.PollFn;
+import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PBegin;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.TimestampedValue;
@@ -110,6 +117,8 @@ public class DataStreamIO extends PTransform<PBegin, PCollection<FailsafeElement
   private String gcsNotificationSubscription;
   private String rfcStartDateTime;
   private Integer fileReadConcurrency = 30;
+  private Integer maxConcurrentFileReadsPerWorker = null;
+  private Long fileRangeSizeBytes = 64L * 1024 * 1024;
   private Boolean lowercaseSourceColumns = false;
   private Map<String, String> renameColumns = new HashMap<>();
   private Boolean hashRowId = false;
@@ -143,6 +152,29 @@ public class DataStreamIO extends PTransform<PBegin, PCollection<FailsafeElement
     return this;
   }
 
+  /**
+   * Set the maximum number of Avro files, or ranges of files, read concurrently on a worker.
+   * Default = 4 per processor of the worker. The number of concurrent reads adapts between 1 and
+   * this maximum to the observed read latency and heap headroom of the worker.
+   */
+  public DataStreamIO withMaxConcurrentFileReadsPerWorker(Integer maxConcurrentFileReadsPerWorker) {
+    if (maxConcurrentFileReadsPerWorker != null && maxConcurrentFileReadsPerWorker > 0) {
+      this.maxConcurrentFileReadsPerWorker = maxConcurrentFileReadsPerWorker;
+    }
+    return this;
+  }
+
+  /**
+   * Set the size of the ranges that Avro files are split into, so that large files are read in
+   * parallel. Default = 64 MiB.
+   */
+  public DataStreamIO withFileRangeSizeBytes(Long fileRangeSizeBytes) {
+    if (fileRangeSizeBytes != null && fileRangeSizeBytes > 0) {
+      this.fileRangeSizeBytes = fileRangeSizeBytes;
+    }
+    return this;
+  }
+
   public DataStreamIO withLowercaseSourceColumns() {
     this.lowercaseSourceColumns = true;
     return this;
@@ -199,10 +231,56 @@ public class DataStreamIO extends PTransform<PBegin, PCollection<FailsafeElement
 
   public PCollection<FailsafeElement<String, String>> expandDataStreamJsonStrings(
       PCollection<ReadableFile> datastreamFiles) {
-    PCollection<FailsafeElement<String, String>> datastreamRecords;
+    return expandDataStreamRecords(
+        datastreamFiles,
+        createJsonFormatter(),
+        createAvroFormatter(),
+        FailsafeElementCoder.of(StringUtf8Coder.of(), StringUtf8Coder.of()));
+  }
+
+  /**
+   * Returns a transform reading the same records as this one as typed {@link
+   * DatastreamChangeEvent}s. The events are not serialized to JSON strings, so the stages reading
+   * them do not parse them again. Use {@link DatastreamChangeEvent#toFailsafeElement()} to produce
+   * the JSON records, for example when writing events to a dead letter queue.
+   */
+  public PTransform<PBegin, PCollection<DatastreamChangeEvent>> changeEvents() {
+    return new ReadChangeEvents();
+  }
+
+  public PCollection<DatastreamChangeEvent> expandDataStreamChangeEvents(
+      PCollection<ReadableFile> datastreamFiles) {
+    return expandDataStreamRecords(
+        datastreamFiles,
+        createJsonFormatter().asChangeEventFn(),
+        createAvroFormatter().asChangeEventFn(),
+        DatastreamChangeEventCoder.of());
+  }
+
+  private FormatDatastreamJsonToJson createJsonFormatter() {
+    return (FormatDatastreamJsonToJson)
+        FormatDatastreamJsonToJson.create()
+            .withStreamName(this.streamName)
+            .withRenameColumnValues(this.renameColumns)
+            .withHashRowId(this.hashRowId)
+            .withLowercaseSourceColumns(this.lowercaseSourceColumns);
+  }
+
+  private FormatDatastreamRecordToJson createAvroFormatter() {
+    return FormatDatastreamRecordToJson.create()
+        .withStreamName(this.streamName)
+        .withRenameColumnValues(this.renameColumns)
+        .withHashRowId(this.hashRowId)
+        .withLowercaseSourceColumns(this.lowercaseSourceColumns);
+  }
+
+  private <T> PCollection<T> expandDataStreamRecords(
+      PCollection<ReadableFile> datastreamFiles,
+      DoFn<String, T> jsonParseFn,
+      SerializableFunction<GenericRecord, T> avroParseFn,
+      Coder<T> coder) {
+    PCollection<T> datastreamRecords;
 
-    FailsafeElementCoder coder =
-        FailsafeElementCoder.of(StringUtf8Coder.of(), StringUtf8Coder.of());
     if (this.fileType.equals(JSON_SUFFIX)) {
       datastreamRecords =
           datastreamFiles
@@ -211,32 +289,25 @@ public class DataStreamIO extends PTransform<PBegin, PCollection<FailsafeElement
                   Reshuffle.<ReadableFile>viaRandomKey().withNumBuckets(fileReadConcurrency))
               .apply("ReadFiles", TextIO.readFiles())
               .apply("ReshuffleRecords", Reshuffle.viaRandomKey())
-              .apply(
-                  "ParseJsonRecords",
-                  ParDo.of(
-                      (FormatDatastreamJsonToJson)
-                          FormatDatastreamJsonToJson.create()
-                              .withStreamName(this.streamName)
-                              .withRenameColumnValues(this.renameColumns)
-                              .withHashRowId(this.hashRowId)
-                              .withLowercaseSourceColumns(this.lowercaseSourceColumns)))
+              .apply("ParseJsonRecords", ParDo.of(jsonParseFn))
               .setCoder(coder);
     } else {
-      SerializableFunction<GenericRecord, FailsafeElement<String, String>> parseFn =
-          FormatDatastreamRecordToJson.create()
-              .withStreamName(this.streamName)
-              .withRenameColumnValues(this.renameColumns)
-              .withHashRowId(this.hashRowId)
-              .withLowercaseSourceColumns(this.lowercaseSourceColumns);
+      CreateParseSourceFn<T> createSourceFn = new CreateParseSourceFn<>(avroParseFn, coder);
       datastreamRecords =
           datastreamFiles
-              .apply("ReshuffleFiles", Reshuffle.<ReadableFile>viaRandomKey())
+              .apply(
+                  "SplitAvroFiles",
+                  ParDo.of(new ReadFileRangesFn.SplitIntoRangesFn(fileRangeSizeBytes)))
+              .setCoder(KvCoder.of(ReadableFileCoder.of(), SerializableCoder.of(OffsetRange.class)))
+              .apply("ReshuffleFiles", Reshuffle.<KV<ReadableFile, OffsetRange>>viaRandomKey())
               .apply(
                   "ParseAvroRows",
                   ParDo.of(
-                      new ReadFileRangesFn<FailsafeElement<String, String>>(
-                          new CreateParseSourceFn(parseFn, coder),
-                          new ReadFileRangesFn.ReadFileRangesFnExceptionHandler())))
+                      new ReadFileRangesFn<T>(
+                          createSourceFn,
+                          createSourceFn,
+                          new ReadFileRangesFn.ReadFileRangesFnExceptionHandler(),
+                          maxConcurrentFileReadsPerWorker)))
               .setCoder(coder);
     }
     return applyReshuffle
@@ -244,22 +315,39 @@ public class DataStreamIO extends PTransform<PBegin, PCollection<FailsafeElement
         : datastreamRecords;
   }
 
-  private static class CreateParseSourceFn
-      implements SerializableFunction<String, FileBasedSource<FailsafeElement<String, String>>> {
-    private final SerializableFunction<GenericRecord, FailsafeElement<String, String>> parseFn;
-    private final Coder<FailsafeElement<String, String>> coder;
+  private static class CreateParseSourceFn<T>
+      implements SerializableFunction<String, FileBasedSource<T>>,
+          ReadFileRangesFn.CreateRangeSourceFn<T> {
+    private final SerializableFunction<GenericRecord, T> parseFn;
+    private final Coder<T> coder;
 
-    CreateParseSourceFn(
-        SerializableFunction<GenericRecord, FailsafeElement<String, String>> parseFn,
-        Coder<FailsafeElement<String, String>> coder) {
+    CreateParseSourceFn(SerializableFunction<GenericRecord, T> parseFn, Coder<T> coder) {
       this.parseFn = parseFn;
       this.coder = coder;
     }
 
     @Override
-    public FileBasedSource<FailsafeElement<String, String>> apply(String input) {
+    public FileBasedSource<T> apply(String input) {
       return AvroSource.from(input).withParseFn(parseFn, coder);
     }
+
+    @Override
+    public FileBasedSource<T> apply(Metadata metadata, long start, long end) {
+      return AvroSource.from(metadata)
+          .withParseFn(parseFn, coder)
+          .createForSubrangeOfFile(metadata, start, end);
+    }
+  }
+
+  /** Reads the Datastream records as {@link DatastreamChangeEvent}s. */
+  class ReadChangeEvents extends PTransform<PBegin, PCollection<DatastreamChangeEvent>> {
+
+    @Override
+    public PCollection<DatastreamChangeEvent> expand(PBegin input) {
+      PCollection<ReadableFile> datastreamFiles =
+          input.apply("Read Datastream Files", new DataStreamFileIO());
+      return expandDataStreamChangeEvents(datastreamFiles);
+    }
   }
 
   class DataStreamFileIO extends PTransform<PBegin, PCollection<ReadableFile>> {
@@ -15,91 +15,126 @@
  */
 package com.google.cloud.teleport.v2.datastream.sources;
 
+import com.google.common.annotations.VisibleForTesting;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
+import javax.annotation.Nullable;
 import org.apache.beam.sdk.io.BoundedSource;
 import org.apache.beam.sdk.io.CompressedSource;
+import org.apache.beam.sdk.io.Compression;
 import org.apache.beam.sdk.io.FileBasedSource;
 import org.apache.beam.sdk.io.FileIO;
 import org.apache.beam.sdk.io.FileIO.ReadableFile;
+import org.apache.beam.sdk.io.fs.MatchResult;
 import org.apache.beam.sdk.io.fs.ResourceId;
 import org.apache.beam.sdk.io.range.OffsetRange;
 import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Distribution;
+import org.apache.beam.sdk.metrics.Gauge;
 import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.SerializableFunction;
+import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Reads each file in the input {@link PCollection} of {@link ReadableFile} using given parameters
- * for splitting files into offset ranges and for creating a {@link FileBasedSource} for a file. The
+ * Reads each file range in the input {@link PCollection} of {@link ReadableFile} and {@link
+ * OffsetRange} pairs using given parameters for creating a {@link FileBasedSource} for a file. The
  * input {@link PCollection} must not contain {@link ResourceId#isDirectory directories}.
  *
  * <p>To obtain the collection of {@link ReadableFile} from a filepattern, use {@link
- * FileIO#readMatches()}.
+ * FileIO#readMatches()}, and to split the files into ranges use {@link SplitIntoRangesFn}. A range
+ * covering only part of a file is read with the source created by {@link CreateRangeSourceFn}.
+ *
+ * <p>The number of files read concurrently on a worker is bounded by a {@link ConcurrencyLimiter}
+ * shared by the instances of this transform in the JVM, which adapts the bound to the observed read
+ * latency and heap headroom.
  */
-public class ReadFileRangesFn<T> extends DoFn<ReadableFile, T> implements Serializable {
+public class ReadFileRangesFn<T> extends DoFn<KV<ReadableFile, OffsetRange>, T>
+    implements Serializable {
 
   private static final Logger LOG = LoggerFactory.getLogger(ReadFileRangesFn.class);
   private final SerializableFunction<String, ? extends FileBasedSource<T>> createSource;
+  @Nullable private final CreateRangeSourceFn<T> createRangeSource;
   private final ReadFileRangesFnExceptionHandler exceptionHandler;
-  private boolean acquiredPermit = false;
-  private static final Semaphore jvmThreads = new Semaphore(5, true);
+  @Nullable private final Integer maxConcurrentReads;
+  /* Identifies the transform, so that its instances in a JVM share their concurrency limiter. */
+  private final String limiterId = UUID.randomUUID().toString();
+  private transient ConcurrencyLimiter limiter;
 
   private final Counter gcsFilesRead =
       Metrics.counter(ReadFileRangesFn.class, "Total GCS files processed");
+  private static final Distribution permitWaitMillis =
+      Metrics.distribution(ReadFileRangesFn.class, "file_read_permit_wait_ms");
+  private static final Distribution fileReadMillis =
+      Metrics.distribution(ReadFileRangesFn.class, "file_read_latency_ms");
 
   public ReadFileRangesFn(
       SerializableFunction<String, ? extends FileBasedSource<T>> createSource,
       ReadFileRangesFnExceptionHandler exceptionHandler) {
-    this.createSource = createSource;
-    this.exceptionHandler = exceptionHandler;
-  }
-
-  @StartBundle
-  public void startBundle() throws Exception {
-    try {
-      jvmThreads.acquire();
-    } catch (InterruptedException e) {
-      throw e;
-    }
-    acquiredPermit = true;
-    LOG.info(String.format("StartBundle: %d", jvmThreads.availablePermits()));
+    this(createSource, null, exceptionHandler, null);
   }
 
-  @FinishBundle
-  public void finishBundle() throws Exception {
-    jvmThreads.release();
-    acquiredPermit = false;
-    LOG.info(String.format("FinishBundle: %d", jvmThreads.availablePermits()));
+  /**
+   * @param createSource creates the source for a whole file
+   * @param createRangeSource creates the source for a range of a file, or null if the source can
+   *     only read whole files
+   * @param exceptionHandler handles the errors while reading a file
+   * @param maxConcurrentReads maximum number of ranges read concurrently on a worker, or null for 4
+   *     per processor of the worker
+   */
+  public ReadFileRangesFn(
+      SerializableFunction<String, ? extends FileBasedSource<T>> createSource,
+      @Nullable CreateRangeSourceFn<T> createRangeSource,
+      ReadFileRangesFnExceptionHandler exceptionHandler,
+      @Nullable Integer maxConcurrentReads) {
+    this.createSource = createSource;
+    this.createRangeSource = createRangeSource;
+    this.exceptionHandler = exceptionHandler;
+    this.maxConcurrentReads = maxConcurrentReads;
   }
 
-  @Teardown
-  public void tearDown() throws Exception {
-    if (acquiredPermit) {
-      jvmThreads.release();
-    }
+  @Setup
+  public void setup() {
+    limiter =
+        ConcurrencyLimiter.forTransform(
+            limiterId,
+            maxConcurrentReads == null
+                ? ConcurrencyLimiter.defaultMaxPermits()
+                : maxConcurrentReads);
   }
 
   @ProcessElement
-  public void process(ProcessContext c) throws IOException {
+  public void process(ProcessContext c) throws IOException, InterruptedException {
     gcsFilesRead.inc();
-    ReadableFile file = c.element();
+    ReadableFile file = c.element().getKey();
+    OffsetRange range = c.element().getValue();
     ResourceId resourceId = file.getMetadata().resourceId();
+    long waitStartMillis = System.currentTimeMillis();
+    limiter.acquire();
+    long readStartMillis = System.currentTimeMillis();
+    permitWaitMillis.update(readStartMillis - waitStartMillis);
     try {
-      FileBasedSource<T> source =
-          CompressedSource.from(createSource.apply(resourceId.toString()))
-              .withCompression(file.getCompression());
+      FileBasedSource<T> source = createSource(file, range);
       try (BoundedSource.BoundedReader<T> reader = source.createReader(c.getPipelineOptions())) {
         for (boolean more = reader.start(); more; more = reader.advance()) {
           c.output(reader.getCurrent());
         }
       } catch (RuntimeException e) {
-        if (exceptionHandler.apply(file, null, e)) {
+        if (exceptionHandler.apply(file, range, e)) {
           throw new RuntimeException(
               String.format(
                   "Encountered an error while reading from file %s:", resourceId.getFilename()),
@@ -108,6 +143,186 @@ public class ReadFileRangesFn<T> extends DoFn<ReadableFile, T> implements Serial
       }
     } catch (FileNotFoundException e) {
       LOG.warn("Ignoring non-existent file {}", resourceId, e);
+    } finally {
+      long readMillis = System.currentTimeMillis() - readStartMillis;
+      fileReadMillis.update(readMillis);
+      limiter.release(readMillis);
+    }
+  }
+
+  private FileBasedSource<T> createSource(ReadableFile file, OffsetRange range) {
+    MatchResult.Metadata metadata = file.getMetadata();
+    if (createRangeSource != null
+        && (range.getFrom() > 0 || range.getTo() < metadata.sizeBytes())) {
+      return createRangeSource.apply(metadata, range.getFrom(), range.getTo());
+    }
+    return CompressedSource.from(createSource.apply(metadata.resourceId().toString()))
+        .withCompression(file.getCompression());
+  }
+
+  /** Creates the source reading a range of a file. */
+  public interface CreateRangeSourceFn<T> extends Serializable {
+    FileBasedSource<T> apply(MatchResult.Metadata metadata, long start, long end);
+  }
+
+  /**
+   * Splits each file into ranges of about {@code desiredRangeSizeBytes}, so that large files are
+   * read in parallel. Compressed files and files that can not be read from an offset efficiently
+   * are not split.
+   */
+  public static class SplitIntoRangesFn extends DoFn<ReadableFile, KV<ReadableFile, OffsetRange>> {
+    private final long desiredRangeSizeBytes;
+
+    public SplitIntoRangesFn(long desiredRangeSizeBytes) {
+      this.desiredRangeSizeBytes = desiredRangeSizeBytes;
+    }
+
+    @ProcessElement
+    public void process(ProcessContext c) {
+      ReadableFile file = c.element();
+      MatchResult.Metadata metadata = file.getMetadata();
+      boolean splittable =
+          metadata.isReadSeekEfficient() && file.getCompression() == Compression.UNCOMPRESSED;
+      for (OffsetRange range :
+          splitRanges(metadata.sizeBytes(), splittable ? desiredRangeSizeBytes : Long.MAX_VALUE)) {
+        c.output(KV.of(file, range));
+      }
+    }
+
+    @VisibleForTesting
+    static List<OffsetRange> splitRanges(long sizeBytes, long desiredRangeSizeBytes) {
+      List<OffsetRange> ranges = new ArrayList<>();
+      long start = 0;
+      do {
+        long end =
+            sizeBytes - start > desiredRangeSizeBytes ? start + desiredRangeSizeBytes : sizeBytes;
+        ranges.add(new OffsetRange(start, end));
+        start = end;
+      } while (start < sizeBytes);
+      return ranges;
+    }
+  }
+
+  /**
+   * Bounds the number of concurrent file reads of a transform in the JVM.
+   *
+   * <p>The bound starts at the number of processors and moves between 1 and the maximum number of
+   * permits. It grows by one after each read that took at most twice the average read latency, and
+   * shrinks by one after a slower read, as reads that slow down are contending for the network or
+   * the CPU. It is halved whenever less than {@link #MIN_HEAP_HEADROOM} of a heap pool is free
+   * after its last garbage collection, as the records of the files being read are held in memory
+   * until they are output downstream. The heap usage measured after collections ignores the garbage
+   * that has not been collected yet, which would otherwise make a busy heap look full.
+   */
+  @VisibleForTesting
+  static class ConcurrencyLimiter {
+    @VisibleForTesting static final double MIN_HEAP_HEADROOM = 0.2;
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private static final Map<String, ConcurrencyLimiter> LIMITERS = new ConcurrentHashMap<>();
+    private static final Gauge concurrencyLimit =
+        Metrics.gauge(ReadFileRangesFn.class, "file_read_concurrency_limit");
+
+    private final ResizableSemaphore permits;
+    private final int maxPermits;
+    private int limit;
+    private double averageReadMillis = -1;
+
+    static int defaultMaxPermits() {
+      return 4 * Runtime.getRuntime().availableProcessors();
+    }
+
+    /** Returns the limiter shared by the instances of the transform with the given id. */
+    static ConcurrencyLimiter forTransform(String transformId, int maxPermits) {
+      return LIMITERS.computeIfAbsent(
+          transformId,
+          id ->
+              new ConcurrencyLimiter(
+                  maxPermits, Math.min(maxPermits, Runtime.getRuntime().availableProcessors())));
+    }
+
+    @VisibleForTesting
+    ConcurrencyLimiter(int maxPermits, int initialLimit) {
+      this.maxPermits = Math.max(1, maxPermits);
+      this.limit = Math.max(1, Math.min(this.maxPermits, initialLimit));
+      this.permits = new ResizableSemaphore(limit);
+    }
+
+    void acquire() throws InterruptedException {
+      permits.acquire();
+    }
+
+    void release(long readMillis) {
+      adjust(readMillis, heapHeadroomAfterGc());
+      permits.release();
+    }
+
+    /**
+     * Returns the smallest free fraction of the heap pools after their last garbage collection, as
+     * reported by {@link MemoryPoolMXBean#getCollectionUsage()}, or 1 before any collection.
+     */
+    @VisibleForTesting
+    static double heapHeadroomAfterGc() {
+      double headroom = 1;
+      for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if (pool.getType() != MemoryType.HEAP || !pool.isCollectionUsageThresholdSupported()) {
+          continue;
+        }
+        MemoryUsage usage = pool.getCollectionUsage();
+        if (usage == null || usage.getMax() <= 0) {
+          continue;
+        }
+        headroom = Math.min(headroom, 1 - (double) usage.getUsed() / usage.getMax());
+      }
+      return headroom;
+    }
+
+    @VisibleForTesting
+    synchronized void adjust(long readMillis, double heapHeadroom) {
+      int newLimit;
+      if (heapHeadroom < MIN_HEAP_HEADROOM) {
+        newLimit = Math.max(1, limit / 2);
+      } else if (averageReadMillis < 0 || readMillis <= 2 * averageReadMillis) {
+        newLimit = Math.min(maxPermits, limit + 1);
+      } else {
+        newLimit = Math.max(1, limit - 1);
+      }
+      averageReadMillis =
+          averageReadMillis < 0
+              ? readMillis
+              : LATENCY_SMOOTHING * readMillis + (1 - LATENCY_SMOOTHING) * averageReadMillis;
+      if (newLimit > limit) {
+        permits.release(newLimit - limit);
+      } else if (newLimit < limit) {
+        permits.reducePermits(limit - newLimit);
+      }
+      if (newLimit != limit) {
+        LOG.debug("File read concurrency limit changed from {} to {}", limit, newLimit);
+        limit = newLimit;
+      }
+      concurrencyLimit.set(limit);
+    }
+
+    @VisibleForTesting
+    synchronized int getLimit() {
+      return limit;
+    }
+
+    @VisibleForTesting
+    int availablePermits() {
+      return permits.availablePermits();
+    }
+
+    /** A semaphore whose number of permits can be reduced while permits are held. */
+    private static class ResizableSemaphore extends Semaphore {
+      ResizableSemaphore(int permits) {
+        super(permits, true);
+      }
+
+      @Override
+      protected void reducePermits(int reduction) {
+        super.reducePermits(reduction);
+      }
     }
   }
 
@@ -18,6 +18,7 @@ package com.google.cloud.teleport.v2.datastream.transforms;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.cloud.teleport.v2.datastream.values.DatastreamChangeEvent;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
 import java.io.IOException;
 import java.time.Instant;
@@ -25,6 +26,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Iterator;
+import org.apache.beam.sdk.transforms.DoFn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +40,7 @@ public final class FormatDatastreamJsonToJson
   static final Logger LOG = LoggerFactory.getLogger(FormatDatastreamJsonToJson.class);
   static final DateTimeFormatter DEFAULT_TIMESTAMP_WITH_TZ_FORMATTER =
       DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+  private static final ObjectMapper MAPPER = new ObjectMapper();
 
   private FormatDatastreamJsonToJson() {}
 
@@ -45,13 +48,26 @@ public final class FormatDatastreamJsonToJson
     return new FormatDatastreamJsonToJson();
   }
 
+  /** Returns a {@link DoFn} formatting the records into {@link DatastreamChangeEvent}s. */
+  public DoFn<String, DatastreamChangeEvent> asChangeEventFn() {
+    return new ToChangeEventFn();
+  }
+
   @ProcessElement
   public void processElement(ProcessContext c) {
+    ObjectNode outputObject = format(c.element());
+    if (outputObject != null) {
+      String outputJson = outputObject.toString();
+      c.output(FailsafeElement.of(outputJson, outputJson));
+    }
+  }
 
+  /** Formats the JSON record, or returns null if the record is skipped. */
+  private ObjectNode format(String element) {
     JsonNode record = null;
 
     try {
-      record = new ObjectMapper().readTree(c.element());
+      record = MAPPER.readTree(element);
 
       // check if payload is null/empty
       // re: b/183584054
@@ -59,16 +75,15 @@ public final class FormatDatastreamJsonToJson
         String changeType = getSourceMetadata(record, "change_type");
         if (changeType == null || changeType.toLowerCase() != "delete") {
           LOG.warn("Empty payload in datastream record. and change type is not delete. ignoring.");
-          return;
+          return null;
         }
       }
     } catch (IOException e) {
-      LOG.error("Skipping Malformed JSON record: {} -> {}", c.element(), e.getMessage());
-      return;
+      LOG.error("Skipping Malformed JSON record: {} -> {}", element, e.getMessage());
+      return null;
     }
 
-    ObjectMapper mapper = new ObjectMapper();
-    ObjectNode outputObject = mapper.createObjectNode();
+    ObjectNode outputObject = MAPPER.createObjectNode();
 
     // General DataStream Metadata
     String sourceType = getSourceType(record);
@@ -122,7 +137,18 @@ public final class FormatDatastreamJsonToJson
     // All Raw Metadata
     outputObject.put("_metadata_source", getSourceMetadata(record));
 
-    c.output(FailsafeElement.of(outputObject.toString(), outputObject.toString()));
+    return outputObject;
+  }
+
+  class ToChangeEventFn extends DoFn<String, DatastreamChangeEvent> {
+
+    @ProcessElement
+    public void processElement(ProcessContext c) {
+      ObjectNode outputObject = format(c.element());
+      if (outputObject != null) {
+        c.output(DatastreamChangeEvent.of(outputObject));
+      }
+    }
   }
 
   private String getStreamName(JsonNode record) {
@@ -18,6 +18,7 @@ package com.google.cloud.teleport.v2.datastream.transforms;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.cloud.teleport.v2.datastream.values.DatastreamChangeEvent;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -70,6 +71,7 @@ public class FormatDatastreamRecordToJson
       DateTimeFormatter.ISO_OFFSET_DATE_TIME;
   static final DecimalConversion DECIMAL_CONVERSION = new DecimalConversion();
   static final DateConversion DATE_CONVERSION = new DateConversion();
+  private static final ObjectMapper MAPPER = new ObjectMapper();
   private String streamName;
   private boolean lowercaseSourceColumns = false;
   private String rowIdColumnName;
@@ -108,10 +110,19 @@ public class FormatDatastreamRecordToJson
     return this;
   }
 
+  /** Returns a function formatting the records into {@link DatastreamChangeEvent}s. */
+  public SerializableFunction<GenericRecord, DatastreamChangeEvent> asChangeEventFn() {
+    return this::toChangeEvent;
+  }
+
   @Override
   public FailsafeElement<String, String> apply(GenericRecord record) {
-    ObjectMapper mapper = new ObjectMapper();
-    ObjectNode outputObject = mapper.createObjectNode();
+    return toChangeEvent(record).toFailsafeElement();
+  }
+
+  /** Formats the record into a {@link DatastreamChangeEvent}. */
+  public DatastreamChangeEvent toChangeEvent(GenericRecord record) {
+    ObjectNode outputObject = MAPPER.createObjectNode();
     UnifiedTypesFormatter.payloadToJson(getPayload(record), outputObject);
     if (this.lowercaseSourceColumns) {
       outputObject = getLowerCaseObject(outputObject);
@@ -119,6 +130,7 @@ public class FormatDatastreamRecordToJson
 
     // General DataStream Metadata
     String sourceType = getSourceType(record);
+    JsonNode sourceMetadataJson = getSourceMetadataJson(record);
 
     outputObject.put("_metadata_stream", getStreamName(record));
     outputObject.put("_metadata_timestamp", getSourceTimestamp(record));
@@ -131,7 +143,7 @@ public class FormatDatastreamRecordToJson
     outputObject.put("_metadata_deleted", getMetadataIsDeleted(record));
     outputObject.put("_metadata_table", getMetadataTable(record));
     outputObject.put("_metadata_change_type", getMetadataChangeType(record));
-    outputObject.put("_metadata_primary_keys", getPrimaryKeys(record));
+    outputObject.put("_metadata_primary_keys", getPrimaryKeys(record, sourceMetadataJson));
     outputObject.put("_metadata_uuid", getUUID());
 
     if (sourceType.equals("mysql")) {
@@ -159,9 +171,9 @@ public class FormatDatastreamRecordToJson
     FormatDatastreamRecord.applyRenameColumns(outputObject, this.renameColumns);
 
     // All Raw Metadata
-    outputObject.put("_metadata_source", getSourceMetadataJson(record));
+    outputObject.put("_metadata_source", sourceMetadataJson);
 
-    return FailsafeElement.of(outputObject.toString(), outputObject.toString());
+    return DatastreamChangeEvent.of(outputObject);
   }
 
   private GenericRecord getPayload(GenericRecord record) {
@@ -169,8 +181,7 @@ public class FormatDatastreamRecordToJson
   }
 
   private ObjectNode getLowerCaseObject(ObjectNode outputObject) {
-    ObjectMapper mapper = new ObjectMapper();
-    ObjectNode loweredOutputObject = mapper.createObjectNode();
+    ObjectNode loweredOutputObject = MAPPER.createObjectNode();
 
     for (Iterator<String> fieldNames = outputObject.fieldNames(); fieldNames.hasNext(); ) {
       String fieldName = fieldNames.next();
@@ -181,10 +192,9 @@ public class FormatDatastreamRecordToJson
   }
 
   private JsonNode getSourceMetadataJson(GenericRecord record) {
-    ObjectMapper mapper = new ObjectMapper();
     JsonNode dataInput;
     try {
-      dataInput = mapper.readTree(record.get("source_metadata").toString());
+      dataInput = MAPPER.readTree(record.get("source_metadata").toString());
     } catch (IOException e) {
       LOG.error("Issue parsing JSON record. Unable to continue.", e);
       throw new RuntimeException(e);
@@ -252,15 +262,14 @@ public class FormatDatastreamRecordToJson
     return null;
   }
 
-  private JsonNode getPrimaryKeys(GenericRecord record) {
+  private JsonNode getPrimaryKeys(GenericRecord record, JsonNode sourceMetadataJson) {
     GenericRecord sourceMetadata = (GenericRecord) record.get("source_metadata");
     if (sourceMetadata.getSchema().getField("primary_keys") == null
         || sourceMetadata.get("primary_keys") == null) {
       return null;
     }
 
-    JsonNode dataInput = getSourceMetadataJson(record);
-    return dataInput.get("primary_keys");
+    return sourceMetadataJson.get("primary_keys");
   }
 
   private String getUUID() {
@@ -610,10 +619,9 @@ public class FormatDatastreamRecordToJson
         default:
           LOG.warn(
               "Unknown field type {} for field {} in record {}.", fieldSchema, fieldName, element);
-          ObjectMapper mapper = new ObjectMapper();
           JsonNode dataInput;
           try {
-            dataInput = mapper.readTree(element.toString());
+            dataInput = MAPPER.readTree(element.toString());
             jsonObject.put(fieldName, dataInput);
           } catch (IOException e) {
             LOG.error("Issue parsing JSON record. Unable to continue.", e);
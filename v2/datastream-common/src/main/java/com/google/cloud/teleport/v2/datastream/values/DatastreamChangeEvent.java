@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.datastream.values;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.cloud.teleport.v2.values.FailsafeElement;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The {@link DatastreamChangeEvent} class holds one Datastream change event, formatted into the
+ * same fields as the JSON records read by {@code DataStreamIO}. The event is kept as a JSON tree,
+ * so that the stages reading it do not parse it again, and is encoded between stages by {@link
+ * com.google.cloud.teleport.v2.datastream.coders.DatastreamChangeEventCoder}. The JSON string is
+ * only produced by {@link #toFailsafeElement()}, where a record leaves the typed part of a
+ * pipeline, such as a dead letter queue.
+ */
+public class DatastreamChangeEvent {
+
+  private static final ObjectMapper MAPPER =
+      new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+  private final ObjectNode event;
+
+  private DatastreamChangeEvent(ObjectNode event) {
+    this.event = event;
+  }
+
+  public static DatastreamChangeEvent of(ObjectNode event) {
+    return new DatastreamChangeEvent(Objects.requireNonNull(event));
+  }
+
+  /**
+   * Parses a change event from a JSON record, such as one read back from a dead letter queue.
+   * Floating point numbers are parsed as decimals.
+   */
+  public static DatastreamChangeEvent fromJson(String json) throws IOException {
+    JsonNode event = MAPPER.readTree(json);
+    if (event == null || !event.isObject()) {
+      throw new IOException("Change event is not a JSON object: " + json);
+    }
+    return new DatastreamChangeEvent((ObjectNode) event);
+  }
+
+  /** Returns the fields of the change event. */
+  public ObjectNode getEvent() {
+    return event;
+  }
+
+  /**
+   * Returns a copy of the fields of the change event, with the node types {@link #fromJson} gives
+   * for its JSON string: floating point numbers are decimals, integers are the smallest of int and
+   * long which holds them, and binary values are base64 text. Stages which modify the event, or
+   * which were written against parsed JSON records, read this copy instead of parsing the JSON
+   * string.
+   */
+  public ObjectNode toJsonTree() {
+    return (ObjectNode) toJsonTree(event);
+  }
+
+  private static JsonNode toJsonTree(JsonNode node) {
+    if (node.isObject()) {
+      ObjectNode copy = JsonNodeFactory.instance.objectNode();
+      for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+        Map.Entry<String, JsonNode> field = fields.next();
+        copy.set(field.getKey(), toJsonTree(field.getValue()));
+      }
+      return copy;
+    } else if (node.isArray()) {
+      ArrayNode copy = JsonNodeFactory.instance.arrayNode(node.size());
+      for (JsonNode element : node) {
+        copy.add(toJsonTree(element));
+      }
+      return copy;
+    } else if (node.isFloatingPointNumber()
+        && !node.isBigDecimal()
+        && Double.isFinite(node.doubleValue())) {
+      return DecimalNode.valueOf(new BigDecimal(node.asText()));
+    } else if (node.isIntegralNumber() && node.canConvertToLong()) {
+      long value = node.longValue();
+      return value == (int) value
+          ? JsonNodeFactory.instance.numberNode((int) value)
+          : JsonNodeFactory.instance.numberNode(value);
+    } else if (node.isBinary()) {
+      return JsonNodeFactory.instance.textNode(node.asText());
+    }
+    // The other nodes are immutable values.
+    return node;
+  }
+
+  /** Returns the change event as a JSON string. */
+  public String toJson() {
+    return event.toString();
+  }
+
+  /** Returns the change event as the JSON {@link FailsafeElement} read by {@code DataStreamIO}. */
+  public FailsafeElement<String, String> toFailsafeElement() {
+    String json = toJson();
+    return FailsafeElement.of(json, json);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof DatastreamChangeEvent)) {
+      return false;
+    }
+    return event.equals(((DatastreamChangeEvent) o).event);
+  }
+
+  @Override
+  public int hashCode() {
+    return event.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return toJson();
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.cdc.merge;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.cloud.teleport.v2.cdc.merge.BigQueryMerger.IncrementalMergeState;
+import java.util.Map;
+import org.apache.beam.sdk.coders.MapCoder;
+import org.apache.beam.sdk.coders.SerializableCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.util.CoderUtils;
+import org.joda.time.Duration;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link BigQueryMerger}. */
+@RunWith(JUnit4.class)
+public final class BigQueryMergerTest {
+  private static final long HOUR_MILLIS = Duration.standardHours(1).getMillis();
+
+  private final MergeConfiguration mergeConfiguration =
+      MergeConfiguration.bigQueryConfiguration()
+          .withIncrementalMerge(true)
+          .withFullMergeInterval(Duration.standardHours(24))
+          .withMinChangesPerMerge(100)
+          .withMaxSkippedMerges(2);
+
+  @Test
+  public void incrementalMergeState_fullMergeUntilHighWaterMarkIsKnown() {
+    IncrementalMergeState state = new IncrementalMergeState();
+
+    assertThat(state.getLowWaterMark(mergeConfiguration, HOUR_MILLIS)).isNull();
+    assertThat(state.shouldSkip(mergeConfiguration, null, 0)).isFalse();
+
+    // An empty staging table has no high-water mark.
+    state.onMerged(null, null, HOUR_MILLIS);
+    assertThat(state.getLowWaterMark(mergeConfiguration, 2 * HOUR_MILLIS)).isNull();
+
+    state.onMerged(null, "mark1", 2 * HOUR_MILLIS);
+    assertThat(state.getLowWaterMark(mergeConfiguration, 3 * HOUR_MILLIS)).isEqualTo("mark1");
+  }
+
+  @Test
+  public void incrementalMergeState_fullMergeAfterInterval() {
+    IncrementalMergeState state = new IncrementalMergeState();
+    state.onMerged(null, "mark1", HOUR_MILLIS);
+    state.onMerged("mark1", "mark2", 2 * HOUR_MILLIS);
+
+    assertThat(state.getLowWaterMark(mergeConfiguration, 24 * HOUR_MILLIS)).isEqualTo("mark2");
+    assertThat(state.getLowWaterMark(mergeConfiguration, 25 * HOUR_MILLIS)).isNull();
+  }
+
+  @Test
+  public void incrementalMergeState_skipsMergesWithFewChanges() {
+    IncrementalMergeState state = new IncrementalMergeState();
+    state.onMerged(null, "mark1", HOUR_MILLIS);
+
+    assertThat(state.shouldSkip(mergeConfiguration, "mark1", 100)).isFalse();
+    assertThat(state.shouldSkip(mergeConfiguration, "mark1", 10)).isTrue();
+    assertThat(state.shouldSkip(mergeConfiguration, "mark1", 0)).isTrue();
+    // The table is merged after maxSkippedMerges skipped merges in a row.
+    assertThat(state.shouldSkip(mergeConfiguration, "mark1", 0)).isFalse();
+
+    state.onMerged("mark1", null, 2 * HOUR_MILLIS);
+    assertThat(state.getLowWaterMark(mergeConfiguration, 3 * HOUR_MILLIS)).isEqualTo("mark1");
+    assertThat(state.shouldSkip(mergeConfiguration, "mark1", 10)).isTrue();
+  }
+
+  @Test
+  public void incrementalMergeState_survivesEncoding() throws Exception {
+    IncrementalMergeState state = new IncrementalMergeState();
+    state.onMerged(null, "mark1", HOUR_MILLIS);
+    assertThat(state.shouldSkip(mergeConfiguration, "mark1", 10)).isTrue();
+
+    MapCoder<String, IncrementalMergeState> coder =
+        MapCoder.of(StringUtf8Coder.of(), SerializableCoder.of(IncrementalMergeState.class));
+    IncrementalMergeState decoded = CoderUtils.clone(coder, Map.of("table", state)).get("table");
+
+    assertThat(decoded.getLowWaterMark(mergeConfiguration, 2 * HOUR_MILLIS)).isEqualTo("mark1");
+    assertThat(decoded.shouldSkip(mergeConfiguration, "mark1", 10)).isTrue();
+    // The skipped merge before encoding counts towards maxSkippedMerges.
+    assertThat(decoded.shouldSkip(mergeConfiguration, "mark1", 10)).isFalse();
+  }
+}
@@ -30,6 +30,7 @@ import com.google.cloud.bigquery.TableId;
 import com.google.cloud.teleport.v2.utils.BigQueryTableCache;
 import com.google.common.collect.ImmutableList;
 import java.util.List;
+import org.joda.time.Duration;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -155,6 +156,58 @@ public final class MergeInfoTest {
     assertThat(mergeInfo.buildMergeStatement(cfg)).isEqualTo(MERGE_SQL);
   }
 
+  @Test
+  public void buildMergeStatement_incremental() {
+    MergeConfiguration cfg =
+        MergeConfiguration.bigQueryConfiguration().withIncrementalMergeLookback(Duration.ZERO);
+    MergeInfo mergeInfo =
+        MergeInfo.create(
+            "projectId",
+            ImmutableList.of("id"),
+            ImmutableList.of("timestamp", "other"),
+            "metadata_deleteField",
+            TableId.of("projectId", "dataset", "staging_table"),
+            TableId.of("projectId", "dataset", "table"),
+            ImmutableList.of("id, cola", "colb", "timestamp", "other"),
+            "job-id-dataset-table");
+
+    assertThat(mergeInfo.buildMergeStatement(cfg, null)).isEqualTo(MERGE_SQL);
+    assertThat(mergeInfo.buildMergeStatement(cfg, "2024-01-02 03:04:05+00"))
+        .isEqualTo(
+            MERGE_SQL.replace(
+                " metadata_deleteField))) WHERE row_num=1)",
+                " metadata_deleteField)) AND (COALESCE(_PARTITIONTIME, CURRENT_TIMESTAMP()) >="
+                    + " TIMESTAMP_TRUNC(TIMESTAMP_SUB(TIMESTAMP '2024-01-02 03:04:05+00', INTERVAL"
+                    + " 0 SECOND), DAY) AND `_metadata_staging_timestamp` >"
+                    + " TIMESTAMP_SUB(TIMESTAMP '2024-01-02 03:04:05+00', INTERVAL 0 SECOND)))"
+                    + " WHERE row_num=1)"));
+  }
+
+  @Test
+  public void buildChangesQuery_expectedResult() {
+    MergeConfiguration cfg = MergeConfiguration.bigQueryConfiguration();
+    MergeInfo mergeInfo = buildSampleMergeInfo();
+
+    assertThat(mergeInfo.buildChangesQuery(cfg, "2024-01-02 03:04:05+00"))
+        .isEqualTo(
+            "SELECT COUNT(*) AS changes, CAST(MAX(`_metadata_staging_timestamp`) AS STRING) AS"
+                + " high_water_mark FROM `projectId.dataset.staging_table` WHERE"
+                + " COALESCE(_PARTITIONTIME,"
+                + " CURRENT_TIMESTAMP()) >= TIMESTAMP(DATE_ADD(CURRENT_DATE(), INTERVAL -2 DAY))"
+                + " AND (COALESCE(_PARTITIONTIME, CURRENT_TIMESTAMP()) >="
+                + " TIMESTAMP(DATE_ADD(CURRENT_DATE(), INTERVAL -1 DAY))    OR (_PARTITIONTIME >="
+                + " TIMESTAMP(DATE_ADD(CURRENT_DATE(), INTERVAL -2 DAY))        AND"
+                + " metadata_deleteField)) AND (COALESCE(_PARTITIONTIME, CURRENT_TIMESTAMP()) >="
+                + " TIMESTAMP_TRUNC(TIMESTAMP '2024-01-02 03:04:05+00', DAY) AND"
+                + " `_metadata_staging_timestamp` > TIMESTAMP '2024-01-02 03:04:05+00')");
+    assertThat(
+            mergeInfo.buildChangesQuery(
+                cfg.toBuilder().setSupportPartitionedTables(false).build(), null))
+        .isEqualTo(
+            "SELECT COUNT(*) AS changes, CAST(MAX(`_metadata_staging_timestamp`) AS STRING) AS"
+                + " high_water_mark FROM `projectId.dataset.staging_table` ");
+  }
+
   @Test
   public void getMergeFields_expectedResult() {
     MergeInfo mergeInfo = buildSampleMergeInfo();
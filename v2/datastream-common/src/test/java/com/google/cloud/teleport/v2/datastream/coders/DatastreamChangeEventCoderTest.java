@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.datastream.coders;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.cloud.teleport.v2.datastream.transforms.FormatDatastreamRecordToJson;
+import com.google.cloud.teleport.v2.datastream.values.DatastreamChangeEvent;
+import com.google.cloud.teleport.v2.values.FailsafeElement;
+import java.io.File;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.testing.CoderProperties;
+import org.apache.beam.sdk.util.CoderUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link DatastreamChangeEventCoder}. */
+@RunWith(JUnit4.class)
+public class DatastreamChangeEventCoderTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  public void testEncodeDecodeAllFieldTypes() throws Exception {
+    JsonNodeFactory factory = JsonNodeFactory.instance;
+    ObjectNode event = factory.objectNode();
+    event.putNull("null_column");
+    event.put("false_column", false);
+    event.put("true_column", true);
+    event.put("short_column", (short) 7);
+    event.put("int_column", -42);
+    event.put("long_column", 1705320821122571751L);
+    event.put("float_column", 0.1f);
+    event.put("double_column", 1.25);
+    event.put("string_column", "Kraków");
+    event.put("bytes_column", new byte[] {0, 1, -1});
+    event.put("big_integer_column", new BigInteger("18446744073709551615"));
+    event.put("decimal_column", new BigDecimal("12.50"));
+    event.putArray("_metadata_primary_keys").add("id").add(factory.nullNode());
+    event.putObject("_metadata_source").put("table", "people").put("log_position", 78443804);
+    DatastreamChangeEvent changeEvent = DatastreamChangeEvent.of(event);
+
+    CoderProperties.coderDecodeEncodeEqual(DatastreamChangeEventCoder.of(), changeEvent);
+    DatastreamChangeEvent decoded = CoderUtils.clone(DatastreamChangeEventCoder.of(), changeEvent);
+    assertEquals(MAPPER.readTree(changeEvent.toJson()), MAPPER.readTree(decoded.toJson()));
+    assertTrue(decoded.getEvent().get("short_column").isShort());
+    assertTrue(decoded.getEvent().get("int_column").isInt());
+    assertTrue(decoded.getEvent().get("long_column").isLong());
+    assertTrue(decoded.getEvent().get("float_column").isFloat());
+    assertEquals(0.1f, decoded.getEvent().get("float_column").floatValue(), 0);
+    assertTrue(decoded.getEvent().get("bytes_column").isBinary());
+    assertTrue(decoded.getEvent().get("big_integer_column").isBigInteger());
+    assertEquals(new BigDecimal("12.50"), decoded.getEvent().get("decimal_column").decimalValue());
+  }
+
+  @Test
+  public void testEncodeDecodeFormattedRecords() throws Exception {
+    URL resource =
+        getClass()
+            .getClassLoader()
+            .getResource("FormatDatastreamRecordToJsonTest/mysql_numbers_test.avro");
+    FormatDatastreamRecordToJson formatter = FormatDatastreamRecordToJson.create();
+    try (DataFileReader<GenericRecord> reader =
+        new DataFileReader<>(new File(resource.toURI()), new GenericDatumReader<>())) {
+      for (GenericRecord record : reader) {
+        DatastreamChangeEvent changeEvent = formatter.toChangeEvent(record);
+
+        DatastreamChangeEvent decoded =
+            CoderUtils.clone(DatastreamChangeEventCoder.of(), changeEvent);
+
+        assertEquals(changeEvent, decoded);
+        FailsafeElement<String, String> element = decoded.toFailsafeElement();
+        assertEquals(
+            MAPPER.readTree(changeEvent.toJson()), MAPPER.readTree(element.getOriginalPayload()));
+        assertEquals(MAPPER.readTree(changeEvent.toJson()), MAPPER.readTree(element.getPayload()));
+      }
+    }
+  }
+
+  @Test
+  public void testEncodingDoesNotDependOnFieldOrder() throws Exception {
+    ObjectNode first = JsonNodeFactory.instance.objectNode();
+    first.put("id", 1).put("_metadata_table", "people").putObject("nested").put("b", 2).put("a", 1);
+    ObjectNode second = JsonNodeFactory.instance.objectNode();
+    second.putObject("nested").put("a", 1).put("b", 2);
+    second.put("_metadata_table", "people").put("id", 1);
+
+    DatastreamChangeEventCoder.of().verifyDeterministic();
+    assertArrayEquals(
+        CoderUtils.encodeToByteArray(
+            DatastreamChangeEventCoder.of(), DatastreamChangeEvent.of(first)),
+        CoderUtils.encodeToByteArray(
+            DatastreamChangeEventCoder.of(), DatastreamChangeEvent.of(second)));
+  }
+
+  @Test
+  public void testMetadataFieldNamesAreNotWrittenAsText() throws Exception {
+    ObjectNode event = JsonNodeFactory.instance.objectNode();
+    event.put("_metadata_change_type", "INSERT").put("_metadata_deleted", false);
+
+    String encoded =
+        new String(
+            CoderUtils.encodeToByteArray(
+                DatastreamChangeEventCoder.of(), DatastreamChangeEvent.of(event)),
+            StandardCharsets.UTF_8);
+
+    assertTrue(encoded.contains("INSERT"));
+    assertFalse(encoded.contains("_metadata_"));
+  }
+
+  @Test(expected = CoderException.class)
+  public void testEncodeNull() throws Exception {
+    CoderUtils.encodeToByteArray(DatastreamChangeEventCoder.of(), null);
+  }
+}
@@ -15,9 +15,28 @@
  */
 package com.google.cloud.teleport.v2.datastream.sources;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.cloud.teleport.v2.datastream.coders.DatastreamChangeEventCoder;
+import com.google.cloud.teleport.v2.datastream.transforms.FormatDatastreamRecordToJson;
+import com.google.cloud.teleport.v2.datastream.values.DatastreamChangeEvent;
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
 import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.io.FileIO;
+import org.apache.beam.sdk.io.FileIO.ReadableFile;
 import org.apache.beam.sdk.testing.PAssert;
+import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.MapElements;
+import org.apache.beam.sdk.util.CoderUtils;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.TypeDescriptors;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -39,6 +58,47 @@ public class DataStreamIOTest {
   public static final String ROOT_PATH_WITH_DIRECTORIES = "path-with-directories/";
   public static final String ROOT_PATH_WITH_FILES = "path-with-files/";
 
+  @Rule public final transient TestPipeline pipeline = TestPipeline.create();
+
+  @Test
+  public void testChangeEventsFromAvroFiles() throws Exception {
+    URL resource =
+        getClass()
+            .getClassLoader()
+            .getResource("FormatDatastreamRecordToJsonTest/mysql_people_test.avro");
+    List<String> expected = new ArrayList<>();
+    FormatDatastreamRecordToJson formatter = FormatDatastreamRecordToJson.create();
+    try (DataFileReader<GenericRecord> reader =
+        new DataFileReader<>(new File(resource.toURI()), new GenericDatumReader<>())) {
+      for (GenericRecord record : reader) {
+        // Encoded as between stages, which writes the fields in name order.
+        expected.add(
+            withoutDataflowTimestamp(
+                CoderUtils.clone(DatastreamChangeEventCoder.of(), formatter.toChangeEvent(record))));
+      }
+    }
+
+    PCollection<ReadableFile> files =
+        pipeline
+            .apply(FileIO.match().filepattern(new File(resource.toURI()).getAbsolutePath()))
+            .apply(FileIO.readMatches());
+    PCollection<String> changeEvents =
+        new DataStreamIO(null, null, "avro", null, null)
+            .expandDataStreamChangeEvents(files)
+            .apply(
+                MapElements.into(TypeDescriptors.strings())
+                    .via(DataStreamIOTest::withoutDataflowTimestamp));
+
+    PAssert.that(changeEvents).containsInAnyOrder(expected);
+    pipeline.run();
+  }
+
+  private static String withoutDataflowTimestamp(DatastreamChangeEvent changeEvent) {
+    ObjectNode event = changeEvent.getEvent().deepCopy();
+    event.remove("_metadata_dataflow_timestamp");
+    return event.toString();
+  }
+
   @Ignore
   @Test
   public void testFullContinuous() {
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.datastream.sources;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.cloud.teleport.v2.datastream.sources.ReadFileRangesFn.ConcurrencyLimiter;
+import com.google.cloud.teleport.v2.datastream.sources.ReadFileRangesFn.SplitIntoRangesFn;
+import org.apache.beam.sdk.io.range.OffsetRange;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test cases for the {@link ReadFileRangesFn} class. */
+@RunWith(JUnit4.class)
+public class ReadFileRangesFnTest {
+
+  @Test
+  public void testSplitRanges() {
+    assertThat(SplitIntoRangesFn.splitRanges(250, 100))
+        .containsExactly(
+            new OffsetRange(0, 100), new OffsetRange(100, 200), new OffsetRange(200, 250))
+        .inOrder();
+    assertThat(SplitIntoRangesFn.splitRanges(100, 100)).containsExactly(new OffsetRange(0, 100));
+    assertThat(SplitIntoRangesFn.splitRanges(0, 100)).containsExactly(new OffsetRange(0, 0));
+    assertThat(SplitIntoRangesFn.splitRanges(250, Long.MAX_VALUE))
+        .containsExactly(new OffsetRange(0, 250));
+  }
+
+  @Test
+  public void testConcurrencyLimiterGrowsUpToMax() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 2);
+
+    limiter.adjust(100, 0.5);
+    limiter.adjust(100, 0.5);
+    limiter.adjust(100, 0.5);
+
+    assertThat(limiter.getLimit()).isEqualTo(4);
+  }
+
+  @Test
+  public void testConcurrencyLimiterShrinksOnSlowRead() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 4);
+
+    limiter.adjust(100, 0.5);
+    limiter.adjust(1000, 0.5);
+
+    assertThat(limiter.getLimit()).isEqualTo(4);
+  }
+
+  @Test
+  public void testConcurrencyLimiterHalvesOnLowHeapHeadroom() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 8);
+
+    limiter.adjust(100, ConcurrencyLimiter.MIN_HEAP_HEADROOM / 2);
+    assertThat(limiter.getLimit()).isEqualTo(4);
+
+    limiter.adjust(100, 0);
+    limiter.adjust(100, 0);
+    limiter.adjust(100, 0);
+    assertThat(limiter.getLimit()).isEqualTo(1);
+  }
+
+  @Test
+  public void testConcurrencyLimiterPermits() throws Exception {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 2);
+
+    limiter.acquire();
+    limiter.acquire();
+    // Lowering the limit while permits are held blocks new reads until enough are released.
+    limiter.adjust(100, 0);
+
+    assertThat(limiter.getLimit()).isEqualTo(1);
+    assertThat(limiter.availablePermits()).isEqualTo(-1);
+  }
+
+  @Test
+  public void testConcurrencyLimiterPerTransform() {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.forTransform("transform1", 4);
+
+    // Instances of the same transform share the limiter, other transforms get their own even with
+    // the same maximum.
+    assertThat(ConcurrencyLimiter.forTransform("transform1", 4)).isSameInstanceAs(limiter);
+    assertThat(ConcurrencyLimiter.forTransform("transform2", 4)).isNotSameInstanceAs(limiter);
+  }
+
+  @Test
+  public void testHeapHeadroomAfterGc() {
+    System.gc();
+
+    assertThat(ConcurrencyLimiter.heapHeadroomAfterGc()).isAtLeast(0.0);
+    assertThat(ConcurrencyLimiter.heapHeadroomAfterGc()).isAtMost(1.0);
+  }
+}
@@ -18,8 +18,11 @@ package com.google.cloud.teleport.v2.datastream.transforms;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.cloud.teleport.v2.coders.FailsafeElementCoder;
+import com.google.cloud.teleport.v2.datastream.coders.DatastreamChangeEventCoder;
+import com.google.cloud.teleport.v2.datastream.values.DatastreamChangeEvent;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
 import com.google.common.collect.ImmutableMap;
 import java.util.Map;
@@ -119,6 +122,71 @@ public class FormatDatastreamJsonToJsonTest {
     pipeline.run();
   }
 
+  @Test
+  public void testProcessElement_changeEvent() throws JsonProcessingException {
+    Map<String, String> renameColumns = ImmutableMap.of("_metadata_row_id", "rowid");
+
+    FailsafeElementCoder<String, String> failsafeElementCoder =
+        FailsafeElementCoder.of(StringUtf8Coder.of(), StringUtf8Coder.of());
+
+    PCollection<FailsafeElement<String, String>> pCollection =
+        pipeline
+            .apply("CreateInput", Create.of(EXAMPLE_DATASTREAM_JSON))
+            .apply(
+                "FormatDatastreamJsonToChangeEvent",
+                ParDo.of(
+                    ((FormatDatastreamJsonToJson)
+                            FormatDatastreamJsonToJson.create()
+                                .withStreamName("my-stream")
+                                .withRenameColumnValues(renameColumns)
+                                .withLowercaseSourceColumns(false))
+                        .asChangeEventFn()))
+            .setCoder(DatastreamChangeEventCoder.of())
+            .apply("ToFailsafeElement", ParDo.of(new ToFailsafeElementFn()))
+            .setCoder(failsafeElementCoder)
+            .apply("RemoveTimestampProperty", ParDo.of(new RemoveTimestampPropertyFn()))
+            .setCoder(failsafeElementCoder)
+            .apply("SortFields", ParDo.of(new SortFieldsFn()))
+            .setCoder(failsafeElementCoder);
+
+    // The coder writes the fields of the events in name order.
+    String expected = sortFields(EXAMPLE_DATASTREAM_RECORD);
+    PAssert.that(pCollection).containsInAnyOrder(FailsafeElement.of(expected, expected));
+
+    pipeline.run();
+  }
+
+  private static String sortFields(String json) throws JsonProcessingException {
+    ObjectMapper mapper =
+        new ObjectMapper().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    return mapper.writeValueAsString(mapper.readValue(json, Map.class));
+  }
+
+  static class ToFailsafeElementFn
+      extends DoFn<DatastreamChangeEvent, FailsafeElement<String, String>> {
+
+    @ProcessElement
+    public void processElement(
+        @Element DatastreamChangeEvent element,
+        OutputReceiver<FailsafeElement<String, String>> out) {
+      out.output(element.toFailsafeElement());
+    }
+  }
+
+  static class SortFieldsFn
+      extends DoFn<FailsafeElement<String, String>, FailsafeElement<String, String>> {
+
+    @ProcessElement
+    public void processElement(
+        @Element FailsafeElement<String, String> element,
+        OutputReceiver<FailsafeElement<String, String>> out)
+        throws JsonProcessingException {
+      out.output(
+          FailsafeElement.of(
+              sortFields(element.getOriginalPayload()), sortFields(element.getPayload())));
+    }
+  }
+
   // Static nested DoFn class to remove timestamp property
   static class RemoveTimestampPropertyFn
       extends DoFn<FailsafeElement<String, String>, FailsafeElement<String, String>> {
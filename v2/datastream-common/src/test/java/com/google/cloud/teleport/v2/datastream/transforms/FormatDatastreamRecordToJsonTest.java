@@ -140,6 +140,23 @@ public class FormatDatastreamRecordToJsonTest {
     }
   }
 
+  @Test
+  public void testParseAvroGenRecordToChangeEvent() throws IOException, URISyntaxException {
+    URL resource =
+        getClass()
+            .getClassLoader()
+            .getResource("FormatDatastreamRecordToJsonTest/avro_file_ut.avro");
+    File file = new File(resource.toURI());
+    DatumReader<GenericRecord> datumReader = new GenericDatumReader<>();
+    DataFileReader<GenericRecord> dataFileReader = new DataFileReader<>(file, datumReader);
+    GenericRecord record = dataFileReader.next();
+    ObjectNode changeEvent =
+        FormatDatastreamRecordToJson.create().asChangeEventFn().apply(record).getEvent();
+    changeEvent.remove(EVENT_UUID_KEY);
+    changeEvent.remove(EVENT_DATAFLOW_TIMESTAMP_KEY);
+    assertEquals(EXPECTED_FIRST_RECORD, changeEvent.toString());
+  }
+
   public void testParseMySQLPeoplePrimaryKeys() throws IOException, URISyntaxException {
     URL resource =
         getClass()
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.datastream.values;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.math.BigDecimal;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link DatastreamChangeEvent}. */
+@RunWith(JUnit4.class)
+public class DatastreamChangeEventTest {
+
+  @Test
+  public void testToJsonTreeMatchesParsedJson() throws Exception {
+    ObjectNode event = JsonNodeFactory.instance.objectNode();
+    event.put("_metadata_table", "people");
+    event.put("id", 42L);
+    event.put("score", 1.25);
+    event.put("photo", new byte[] {0, 1, -1});
+    event.putArray("readings").add(0.5).add(2);
+    DatastreamChangeEvent changeEvent = DatastreamChangeEvent.of(event);
+
+    ObjectNode tree = changeEvent.toJsonTree();
+
+    assertEquals(DatastreamChangeEvent.fromJson(changeEvent.toJson()).getEvent(), tree);
+    assertEquals(new BigDecimal("1.25"), tree.get("score").decimalValue());
+    assertTrue(tree.get("readings").get(0).isBigDecimal());
+    assertTrue(tree.get("photo").isTextual());
+    // The event itself is not modified.
+    assertTrue(event.get("score").isDouble());
+  }
+
+  @Test(expected = IOException.class)
+  public void testFromJsonRejectsNonObjects() throws Exception {
+    DatastreamChangeEvent.fromJson("[1, 2]");
+  }
+}
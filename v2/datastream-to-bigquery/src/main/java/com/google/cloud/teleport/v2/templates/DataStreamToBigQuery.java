@@ -18,6 +18,7 @@ package com.google.cloud.teleport.v2.templates;
 import static com.google.cloud.teleport.v2.transforms.StatefulRowCleaner.RowCleanerDeadLetterQueueSanitizer;
 
 import com.google.api.services.bigquery.model.TableRow;
+import com.google.cloud.bigquery.StandardSQLTypeName;
 import com.google.cloud.bigquery.TableId;
 import com.google.cloud.teleport.metadata.Template;
 import com.google.cloud.teleport.metadata.TemplateCategory;
@@ -43,7 +44,9 @@ import com.google.cloud.teleport.v2.transforms.UDFTextTransformer.InputUDFToTabl
 import com.google.cloud.teleport.v2.utils.BigQueryIOUtils;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
 import com.google.common.base.Splitter;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 import org.apache.beam.runners.dataflow.options.DataflowPipelineOptions;
@@ -70,6 +73,7 @@ import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PCollectionList;
 import org.apache.beam.sdk.values.PCollectionTuple;
 import org.apache.beam.sdk.values.TupleTag;
+import org.apache.beam.sdk.values.TypeDescriptor;
 import org.joda.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -367,6 +371,44 @@ public class DataStreamToBigQuery {
     Boolean getUseStorageWriteApiAtLeastOnce();
 
     void setUseStorageWriteApiAtLeastOnce(Boolean value);
+
+    @TemplateParameter.Boolean(
+        order = 21,
+        optional = true,
+        parentName = "applyMerge",
+        parentTriggerValues = {"true"},
+        description = "Merge only the staging rows changed since the previous merge.",
+        helpText =
+            "If `true`, each BigQuery MERGE only reads the staging rows written since the previous MERGE of the table, tracked on a `_metadata_staging_timestamp` column added to the staging tables, and the MERGE of a table with few changes is skipped for up to 3 merge intervals. The whole partition retention window is still merged once a day. Only effective when applyMerge is set to true. Defaults to `false`.")
+    @Default.Boolean(false)
+    Boolean getUseIncrementalMerge();
+
+    void setUseIncrementalMerge(Boolean value);
+
+    @TemplateParameter.Integer(
+        order = 22,
+        optional = true,
+        description = "Maximum concurrent file reads per worker",
+        helpText =
+            "The maximum number of Avro files, or ranges of files, read concurrently on a worker."
+                + " The number of concurrent reads adapts between 1 and this maximum to the read"
+                + " latency and the free heap of the worker. Defaults to 4 per processor of the"
+                + " worker.")
+    Integer getMaxConcurrentFileReadsPerWorker();
+
+    void setMaxConcurrentFileReadsPerWorker(Integer value);
+
+    @TemplateParameter.Long(
+        order = 23,
+        optional = true,
+        description = "File range size in bytes",
+        helpText =
+            "The size in bytes of the ranges that uncompressed Avro files are split into, so that"
+                + " large files are read in parallel. Defaults to `67108864` (64 MiB).")
+    @Default.Long(64L * 1024 * 1024)
+    Long getFileRangeSizeBytes();
+
+    void setFileRangeSizeBytes(Long value);
   }
 
   /**
@@ -461,7 +503,9 @@ public class DataStreamToBigQuery {
                     options.getInputFileFormat(),
                     options.getGcsPubSubSubscription(),
                     options.getRfcStartDateTime())
-                .withFileReadConcurrency(options.getFileReadConcurrency()));
+                .withFileReadConcurrency(options.getFileReadConcurrency())
+                .withMaxConcurrentFileReadsPerWorker(options.getMaxConcurrentFileReadsPerWorker())
+                .withFileRangeSizeBytes(options.getFileRangeSizeBytes()));
 
     // Elements sent to the Dead Letter Queue are to be reconsumed.
     // A DLQManager is to be created using PipelineOptions, and it is in charge
@@ -517,8 +561,28 @@ public class DataStreamToBigQuery {
     // TODO(beam 2.23): InsertRetryPolicy should be CDC compliant
     Set<String> fieldsToIgnore = getFieldsToIgnore(options.getIgnoreFields());
 
+    PCollection<TableRow> stagingTableRows = shuffledTableRows;
+    Map<String, StandardSQLTypeName> stagingSchema =
+        BigQueryDefaultSchemas.DATASTREAM_METADATA_SCHEMA;
+    if (options.getApplyMerge() && options.getUseIncrementalMerge()) {
+      // Incremental merges track the staging rows on the time they reach the staging writes.
+      stagingSchema = new HashMap<>(stagingSchema);
+      stagingSchema.put(
+          MergeConfiguration.DEFAULT_STAGING_TIMESTAMP_FIELD, StandardSQLTypeName.TIMESTAMP);
+      stagingTableRows =
+          shuffledTableRows.apply(
+              "Add Staging Timestamp",
+              MapElements.into(TypeDescriptor.of(TableRow.class))
+                  .via(
+                      row ->
+                          row.clone()
+                              .set(
+                                  MergeConfiguration.DEFAULT_STAGING_TIMESTAMP_FIELD,
+                                  System.currentTimeMillis() / 1000L)));
+    }
+
     WriteResult writeResult =
-        shuffledTableRows
+        stagingTableRows
             .apply(
                 "Map to Staging Tables",
                 new DataStreamMapper(
@@ -527,7 +591,7 @@ public class DataStreamToBigQuery {
                         options.getOutputStagingDatasetTemplate(),
                         options.getOutputStagingTableNameTemplate())
                     .withDataStreamRootUrl(options.getDataStreamRootUrl())
-                    .withDefaultSchema(BigQueryDefaultSchemas.DATASTREAM_METADATA_SCHEMA)
+                    .withDefaultSchema(stagingSchema)
                     .withDayPartitioning(true)
                     .withIgnoreFields(fieldsToIgnore))
             .apply(
@@ -572,7 +636,8 @@ public class DataStreamToBigQuery {
                       .withMergeWindowDuration(
                           Duration.standardMinutes(options.getMergeFrequencyMinutes()))
                       .withMergeConcurrency(options.getMergeConcurrency())
-                      .withPartitionRetention(options.getPartitionRetentionDays())));
+                      .withPartitionRetention(options.getPartitionRetentionDays())
+                      .withIncrementalMerge(options.getUseIncrementalMerge())));
     }
 
     /*
@@ -177,6 +177,31 @@ public class DataStreamToMongoDB {
     String getCollection();
 
     void setCollection(String value);
+
+    @TemplateParameter.Integer(
+        order = 10,
+        optional = true,
+        description = "Maximum concurrent file reads per worker",
+        helpText =
+            "The maximum number of Avro files, or ranges of files, read concurrently on a worker."
+                + " The number of concurrent reads adapts between 1 and this maximum to the read"
+                + " latency and the free heap of the worker. Defaults to 4 per processor of the"
+                + " worker.")
+    Integer getMaxConcurrentFileReadsPerWorker();
+
+    void setMaxConcurrentFileReadsPerWorker(Integer value);
+
+    @TemplateParameter.Long(
+        order = 11,
+        optional = true,
+        description = "File range size in bytes",
+        helpText =
+            "The size in bytes of the ranges that uncompressed Avro files are split into, so that"
+                + " large files are read in parallel. Defaults to `67108864` (64 MiB).")
+    @Default.Long(64L * 1024 * 1024)
+    Long getFileRangeSizeBytes();
+
+    void setFileRangeSizeBytes(Long value);
   }
 
   /**
@@ -233,7 +258,9 @@ public class DataStreamToMongoDB {
                     options.getInputFileFormat(),
                     options.getInputSubscription(),
                     options.getRfcStartDateTime())
-                .withFileReadConcurrency(options.getFileReadConcurrency()));
+                .withFileReadConcurrency(options.getFileReadConcurrency())
+                .withMaxConcurrentFileReadsPerWorker(options.getMaxConcurrentFileReadsPerWorker())
+                .withFileRangeSizeBytes(options.getFileRangeSizeBytes()));
 
     PCollection<FailsafeElement<String, String>> jsonRecords =
         PCollectionList.of(datastreamJsonRecords).apply(Flatten.pCollections());
@@ -27,8 +27,10 @@ import com.google.cloud.teleport.v2.cdc.dlq.PubSubNotifiedDlqIO;
 import com.google.cloud.teleport.v2.cdc.dlq.StringDeadLetterQueueSanitizer;
 import com.google.cloud.teleport.v2.coders.FailsafeElementCoder;
 import com.google.cloud.teleport.v2.common.UncaughtExceptionLogger;
+import com.google.cloud.teleport.v2.datastream.coders.DatastreamChangeEventCoder;
 import com.google.cloud.teleport.v2.datastream.sources.DataStreamIO;
 import com.google.cloud.teleport.v2.datastream.utils.DataStreamClient;
+import com.google.cloud.teleport.v2.datastream.values.DatastreamChangeEvent;
 import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.ISchemaOverridesParser;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.NoopSchemaOverridesParser;
@@ -46,6 +48,7 @@ import com.google.cloud.teleport.v2.templates.constants.DatastreamToSpannerConst
 import com.google.cloud.teleport.v2.templates.datastream.DatastreamConstants;
 import com.google.cloud.teleport.v2.templates.spanner.ProcessInformationSchema;
 import com.google.cloud.teleport.v2.templates.transform.ChangeEventTransformerDoFn;
+import com.google.cloud.teleport.v2.templates.transform.JsonToChangeEventFn;
 import com.google.cloud.teleport.v2.transforms.DLQWriteTransform;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
 import com.google.common.base.Strings;
@@ -535,6 +538,60 @@ public class DataStreamToSpanner {
     String getSchemaOverridesFilePath();
 
     void setSchemaOverridesFilePath(String value);
+
+    @TemplateParameter.Integer(
+        order = 33,
+        optional = true,
+        description = "Maximum events per Spanner transaction",
+        helpText =
+            "The maximum number of change events with distinct primary keys that are written to"
+                + " Spanner in a single transaction. Grouping events reduces the number of commits"
+                + " during backfill. Defaults to `1`, which writes each event in its own"
+                + " transaction.")
+    @Default.Integer(1)
+    Integer getMaxEventsPerTransaction();
+
+    void setMaxEventsPerTransaction(Integer value);
+
+    @TemplateParameter.Boolean(
+        order = 34,
+        optional = true,
+        description = "If true, carry change events between stages as typed events.",
+        helpText =
+            "This flag if set, carries the change events read from Datastream in the regular run"
+                + " mode as typed events through the transformation and the Spanner writer,"
+                + " instead of as JSON strings that each stage parses again. The events are only"
+                + " serialized to JSON when they are written to the filtered events directory or"
+                + " the dead letter queue.")
+    @Default.Boolean(false)
+    Boolean getUseTypedChangeEvents();
+
+    void setUseTypedChangeEvents(Boolean value);
+
+    @TemplateParameter.Integer(
+        order = 35,
+        optional = true,
+        description = "Maximum concurrent file reads per worker",
+        helpText =
+            "The maximum number of Avro files, or ranges of files, read concurrently on a worker."
+                + " The number of concurrent reads adapts between 1 and this maximum to the read"
+                + " latency and the free heap of the worker. Defaults to 4 per processor of the"
+                + " worker.")
+    Integer getMaxConcurrentFileReadsPerWorker();
+
+    void setMaxConcurrentFileReadsPerWorker(Integer value);
+
+    @TemplateParameter.Long(
+        order = 36,
+        optional = true,
+        description = "File range size in bytes",
+        helpText =
+            "The size in bytes of the ranges that uncompressed Avro files are split into, so that"
+                + " large files are read in parallel. Defaults to `67108864` (64 MiB).")
+    @Default.Long(64L * 1024 * 1024)
+    Long getFileRangeSizeBytes();
+
+    void setFileRangeSizeBytes(Long value);
   }
 
   private static void validateSourceType(Options options) {
@@ -682,30 +739,62 @@ public class DataStreamToSpanner {
         reconsumedElements
             .get(DeadLetterQueueManager.RETRYABLE_ERRORS)
             .setCoder(FailsafeElementCoder.of(StringUtf8Coder.of(), StringUtf8Coder.of()));
+    PCollection<DatastreamChangeEvent> changeEvents = null;
+    PCollection<FailsafeElement<String, String>> invalidDlqRecords = null;
     if (isRegularMode) {
       LOG.info("Regular Datastream flow");
-      PCollection<FailsafeElement<String, String>> datastreamJsonRecords =
-          pipeline.apply(
-              new DataStreamIO(
-                      options.getStreamName(),
-                      options.getInputFilePattern(),
-                      options.getInputFileFormat(),
-                      options.getGcsPubSubSubscription(),
-                      options.getRfcStartDateTime())
-                  .withFileReadConcurrency(options.getFileReadConcurrency())
-                  .withoutDatastreamRecordsReshuffle()
-                  .withDirectoryWatchDuration(
-                      Duration.standardMinutes(options.getDirectoryWatchDurationInMinutes())));
+      DataStreamIO dataStreamIO =
+          new DataStreamIO(
+                  options.getStreamName(),
+                  options.getInputFilePattern(),
+                  options.getInputFileFormat(),
+                  options.getGcsPubSubSubscription(),
+                  options.getRfcStartDateTime())
+              .withFileReadConcurrency(options.getFileReadConcurrency())
+              .withMaxConcurrentFileReadsPerWorker(options.getMaxConcurrentFileReadsPerWorker())
+              .withFileRangeSizeBytes(options.getFileRangeSizeBytes())
+              .withoutDatastreamRecordsReshuffle()
+              .withDirectoryWatchDuration(
+                  Duration.standardMinutes(options.getDirectoryWatchDurationInMinutes()));
       int maxNumWorkers = options.getMaxNumWorkers() != 0 ? options.getMaxNumWorkers() : 1;
-      jsonRecords =
-          PCollectionList.of(datastreamJsonRecords)
-              .and(dlqJsonRecords)
-              .apply(Flatten.pCollections())
-              .apply(
-                  "Reshuffle",
-                  Reshuffle.<FailsafeElement<String, String>>viaRandomKey()
-                      .withNumBuckets(
-                          maxNumWorkers * DatastreamToSpannerConstants.MAX_DOFN_PER_WORKER));
+      if (options.getUseTypedChangeEvents()) {
+        LOG.info("Reading Datastream records as typed change events");
+        PCollectionTuple dlqChangeEvents =
+            dlqJsonRecords.apply(
+                "Parse retry records",
+                ParDo.of(new JsonToChangeEventFn())
+                    .withOutputTags(
+                        JsonToChangeEventFn.CHANGE_EVENT_TAG,
+                        TupleTagList.of(DatastreamToSpannerConstants.PERMANENT_ERROR_TAG)));
+        invalidDlqRecords =
+            dlqChangeEvents
+                .get(DatastreamToSpannerConstants.PERMANENT_ERROR_TAG)
+                .setCoder(FailsafeElementCoder.of(StringUtf8Coder.of(), StringUtf8Coder.of()));
+        changeEvents =
+            PCollectionList.of(pipeline.apply(dataStreamIO.changeEvents()))
+                .and(
+                    dlqChangeEvents
+                        .get(JsonToChangeEventFn.CHANGE_EVENT_TAG)
+                        .setCoder(DatastreamChangeEventCoder.of()))
+                .apply(Flatten.pCollections())
+                .apply(
+                    "Reshuffle",
+                    Reshuffle.<DatastreamChangeEvent>viaRandomKey()
+                        .withNumBuckets(
+                            maxNumWorkers * DatastreamToSpannerConstants.MAX_DOFN_PER_WORKER));
+      } else {
+        PCollection<FailsafeElement<String, String>> datastreamJsonRecords =
+            pipeline.apply(dataStreamIO);
+        jsonRecords =
+            PCollectionList.of(datastreamJsonRecords)
+                .and(dlqJsonRecords)
+                .apply(Flatten.pCollections())
+                .apply(
+                    "Reshuffle",
+                    Reshuffle.<FailsafeElement<String, String>>viaRandomKey()
+                        .withNumBuckets(
+                            maxNumWorkers * DatastreamToSpannerConstants.MAX_DOFN_PER_WORKER));
+      }
     } else {
       LOG.info("DLQ retry flow");
       jsonRecords =
@@ -747,17 +836,32 @@ public class DataStreamToSpanner {
             ddlView,
             spannerConfig);
 
-    PCollectionTuple transformedRecords =
-        jsonRecords.apply(
-            "Apply Transformation to events",
-            ParDo.of(changeEventTransformerDoFn)
-                .withSideInputs(ddlView)
-                .withOutputTags(
-                    DatastreamToSpannerConstants.TRANSFORMED_EVENT_TAG,
-                    TupleTagList.of(
-                        Arrays.asList(
-                            DatastreamToSpannerConstants.FILTERED_EVENT_TAG,
-                            DatastreamToSpannerConstants.PERMANENT_ERROR_TAG))));
+    PCollectionTuple transformedRecords;
+    if (changeEvents != null) {
+      transformedRecords =
+          changeEvents.apply(
+              "Apply Transformation to events",
+              ParDo.of(changeEventTransformerDoFn.typed())
+                  .withSideInputs(ddlView)
+                  .withOutputTags(
+                      DatastreamToSpannerConstants.TYPED_TRANSFORMED_EVENT_TAG,
+                      TupleTagList.of(
+                          Arrays.asList(
+                              DatastreamToSpannerConstants.FILTERED_EVENT_TAG,
+                              DatastreamToSpannerConstants.PERMANENT_ERROR_TAG))));
+    } else {
+      transformedRecords =
+          jsonRecords.apply(
+              "Apply Transformation to events",
+              ParDo.of(changeEventTransformerDoFn)
+                  .withSideInputs(ddlView)
+                  .withOutputTags(
+                      DatastreamToSpannerConstants.TRANSFORMED_EVENT_TAG,
+                      TupleTagList.of(
+                          Arrays.asList(
+                              DatastreamToSpannerConstants.FILTERED_EVENT_TAG,
+                              DatastreamToSpannerConstants.PERMANENT_ERROR_TAG))));
+    }
 
     /*
      * Stage 3: Write filtered records to GCS
@@ -782,17 +886,29 @@ public class DataStreamToSpanner {
      * Stage 4: Write transformed records to Cloud Spanner
      */
 
-    SpannerTransactionWriter.Result spannerWriteResults =
-        transformedRecords
-            .get(DatastreamToSpannerConstants.TRANSFORMED_EVENT_TAG)
-            .apply(
-                "Write events to Cloud Spanner",
-                new SpannerTransactionWriter(
-                    spannerConfig,
-                    ddlView,
-                    options.getShadowTablePrefix(),
-                    options.getDatastreamSourceType(),
-                    isRegularMode));
+    SpannerTransactionWriter spannerTransactionWriter =
+        new SpannerTransactionWriter(
+            spannerConfig,
+            ddlView,
+            options.getShadowTablePrefix(),
+            options.getDatastreamSourceType(),
+            isRegularMode,
+            options.getMaxEventsPerTransaction());
+    SpannerTransactionWriter.Result spannerWriteResults;
+    if (changeEvents != null) {
+      spannerWriteResults =
+          transformedRecords
+              .get(DatastreamToSpannerConstants.TYPED_TRANSFORMED_EVENT_TAG)
+              .setCoder(
+                  FailsafeElementCoder.of(
+                      DatastreamChangeEventCoder.of(), DatastreamChangeEventCoder.of()))
+              .apply("Write events to Cloud Spanner", spannerTransactionWriter.changeEvents());
+    } else {
+      spannerWriteResults =
+          transformedRecords
+              .get(DatastreamToSpannerConstants.TRANSFORMED_EVENT_TAG)
+              .apply("Write events to Cloud Spanner", spannerTransactionWriter);
+    }
     /*
      * Stage 5: Write failures to GCS Dead Letter Queue
      * a) Retryable errors are written to retry GCS Dead letter queue
@@ -819,11 +935,15 @@ public class DataStreamToSpanner {
             .get(DeadLetterQueueManager.PERMANENT_ERRORS)
             .setCoder(FailsafeElementCoder.of(StringUtf8Coder.of(), StringUtf8Coder.of()));
     // TODO: Write errors from transformer and spanner writer into separate folders
-    PCollection<FailsafeElement<String, String>> permanentErrors =
+    PCollectionList<FailsafeElement<String, String>> permanentErrorsList =
         PCollectionList.of(dlqErrorRecords)
             .and(spannerWriteResults.permanentErrors())
-            .and(transformedRecords.get(DatastreamToSpannerConstants.PERMANENT_ERROR_TAG))
-            .apply(Flatten.pCollections());
+            .and(transformedRecords.get(DatastreamToSpannerConstants.PERMANENT_ERROR_TAG));
+    if (invalidDlqRecords != null) {
+      permanentErrorsList = permanentErrorsList.and(invalidDlqRecords);
+    }
+    PCollection<FailsafeElement<String, String>> permanentErrors =
+        permanentErrorsList.apply(Flatten.pCollections());
     // increment the metrics
     permanentErrors
         .apply("Update metrics", ParDo.of(new MetricUpdaterDoFn(isRegularMode)))
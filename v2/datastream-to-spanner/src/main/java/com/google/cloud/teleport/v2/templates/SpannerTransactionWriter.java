@@ -17,6 +17,7 @@ package com.google.cloud.teleport.v2.templates;
 
 import com.google.auto.value.AutoValue;
 import com.google.cloud.Timestamp;
+import com.google.cloud.teleport.v2.datastream.values.DatastreamChangeEvent;
 import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
 import com.google.cloud.teleport.v2.templates.constants.DatastreamToSpannerConstants;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
@@ -26,6 +27,7 @@ import java.util.Arrays;
 import java.util.Map;
 import org.apache.beam.sdk.Pipeline;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
+import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.values.PCollection;
@@ -41,7 +43,9 @@ import org.apache.beam.sdk.values.TupleTagList;
  * Takes an input of DataStream events as {@link FailsafeElement} objects and writes them to the
  * given Cloud Spanner database.
  *
- * <p>Each event will be written using a single Cloud Spanner Transaction.
+ * <p>Each event will be written using a single Cloud Spanner Transaction, unless events are grouped
+ * with {@code maxEventsPerTransaction}, in which case up to that many events with distinct primary
+ * keys are written in one transaction.
  *
  * <p>The {@link Result} object contains two streams: the successfully written Mutation Group
  * objects with their commit timestamps, and the Mutation Group objects that failed to be written
@@ -66,29 +70,66 @@ public class SpannerTransactionWriter
   /* The run mode, whether it is regular or retry. */
   private final Boolean isRegularRunMode;
 
+  /* The maximum number of events with distinct primary keys written in one transaction. */
+  private final int maxEventsPerTransaction;
+
   public SpannerTransactionWriter(
       SpannerConfig spannerConfig,
       PCollectionView<Ddl> ddlView,
       String shadowTablePrefix,
       String sourceType,
       Boolean isRegularRunMode) {
+    this(spannerConfig, ddlView, shadowTablePrefix, sourceType, isRegularRunMode, 1);
+  }
+
+  public SpannerTransactionWriter(
+      SpannerConfig spannerConfig,
+      PCollectionView<Ddl> ddlView,
+      String shadowTablePrefix,
+      String sourceType,
+      Boolean isRegularRunMode,
+      int maxEventsPerTransaction) {
     Preconditions.checkNotNull(spannerConfig);
     this.spannerConfig = spannerConfig;
     this.ddlView = ddlView;
     this.shadowTablePrefix = shadowTablePrefix;
     this.sourceType = sourceType;
     this.isRegularRunMode = isRegularRunMode;
+    this.maxEventsPerTransaction = maxEventsPerTransaction;
   }
 
   @Override
   public SpannerTransactionWriter.Result expand(
       PCollection<FailsafeElement<String, String>> input) {
+    return write(input, createDoFn());
+  }
+
+  /**
+   * Returns a transform writing typed {@link DatastreamChangeEvent}s, as output by {@link
+   * com.google.cloud.teleport.v2.templates.transform.ChangeEventTransformerDoFn#typed()}, with the
+   * same results as this transform. The events are only serialized to JSON for the error outputs.
+   */
+  public PTransform<
+          PCollection<FailsafeElement<DatastreamChangeEvent, DatastreamChangeEvent>>, Result>
+      changeEvents() {
+    return new WriteChangeEvents();
+  }
+
+  private SpannerTransactionWriterDoFn createDoFn() {
+    return new SpannerTransactionWriterDoFn(
+        spannerConfig,
+        ddlView,
+        shadowTablePrefix,
+        sourceType,
+        isRegularRunMode,
+        maxEventsPerTransaction);
+  }
+
+  private <T> Result write(PCollection<T> input, DoFn<T, Timestamp> writerDoFn) {
     PCollectionTuple spannerWriteResults =
         input.apply(
             "Write Mutations",
-            ParDo.of(
-                    new SpannerTransactionWriterDoFn(
-                        spannerConfig, ddlView, shadowTablePrefix, sourceType, isRegularRunMode))
+            ParDo.of(writerDoFn)
                 .withSideInputs(ddlView)
                 .withOutputTags(
                     DatastreamToSpannerConstants.SUCCESSFUL_EVENT_TAG,
@@ -103,6 +144,19 @@ public class SpannerTransactionWriter
         spannerWriteResults.get(DatastreamToSpannerConstants.RETRYABLE_ERROR_TAG));
   }
 
+  /** Writes typed change events. */
+  private class WriteChangeEvents
+      extends PTransform<
+          PCollection<FailsafeElement<DatastreamChangeEvent, DatastreamChangeEvent>>, Result> {
+
+    @Override
+    public Result expand(
+        PCollection<FailsafeElement<DatastreamChangeEvent, DatastreamChangeEvent>> input) {
+      return write(
+          input, new SpannerTransactionWriterDoFn.TypedSpannerTransactionWriterDoFn(createDoFn()));
+    }
+  }
+
   /**
    * Container class for the results of this transform.
    *
@@ -29,6 +29,7 @@ import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.Options;
 import com.google.cloud.spanner.SpannerException;
 import com.google.cloud.spanner.TransactionRunner.TransactionCallable;
+import com.google.cloud.teleport.v2.datastream.values.DatastreamChangeEvent;
 import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
 import com.google.cloud.teleport.v2.spanner.migrations.exceptions.ChangeEventConvertorException;
 import com.google.cloud.teleport.v2.spanner.migrations.exceptions.DroppedTableException;
@@ -41,10 +42,18 @@ import com.google.cloud.teleport.v2.templates.datastream.ChangeEventSequenceFact
 import com.google.cloud.teleport.v2.templates.utils.WatchdogRunnable;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
 import com.google.common.base.Preconditions;
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.apache.beam.runners.dataflow.options.DataflowWorkerHarnessOptions;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerAccessor;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
@@ -53,6 +62,7 @@ import org.apache.beam.sdk.metrics.Distribution;
 import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.options.PipelineOptions;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.values.PCollectionView;
 import org.apache.beam.sdk.values.TupleTag;
 import org.joda.time.Duration;
@@ -146,12 +156,26 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
   private final Counter droppedTableExceptions =
       Metrics.counter(SpannerTransactionWriterDoFn.class, "Dropped table exceptions");
 
+  // Number of events committed together in a multi-event transaction.
+  private final Distribution transactionBatchSizes =
+      Metrics.distribution(SpannerTransactionWriterDoFn.class, "transaction_batch_size");
+
+  // Number of multi-event transactions that failed and were written event by event.
+  private final Counter transactionBatchFallbacks =
+      Metrics.counter(SpannerTransactionWriterDoFn.class, "transaction_batch_fallback_count");
+
   // The max length of tag allowed in Spanner Transaction tags.
   private static final int MAX_TXN_TAG_LENGTH = 50;
 
   /* The run mode, whether it is regular or retry. */
   private final Boolean isRegularRunMode;
 
+  /* The maximum number of events with distinct primary keys written in one transaction. */
+  private final int maxEventsPerTransaction;
+
+  /* Events of the current bundle waiting to be written, when events are grouped. */
+  private transient List<PendingEvent> pendingEvents;
+
   /*
    * The watchdog thread monitors the progress of Spanner transactions and ensures that they
    * are not stuck for an extended period of time. This is important because in load testing there were
@@ -178,6 +202,16 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
       String shadowTablePrefix,
       String sourceType,
       Boolean isRegularRunMode) {
+    this(spannerConfig, ddlView, shadowTablePrefix, sourceType, isRegularRunMode, 1);
+  }
+
+  SpannerTransactionWriterDoFn(
+      SpannerConfig spannerConfig,
+      PCollectionView<Ddl> ddlView,
+      String shadowTablePrefix,
+      String sourceType,
+      Boolean isRegularRunMode,
+      int maxEventsPerTransaction) {
     Preconditions.checkNotNull(spannerConfig);
     this.spannerConfig = spannerConfig;
     this.ddlView = ddlView;
@@ -185,6 +219,7 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
         (shadowTablePrefix.endsWith("_")) ? shadowTablePrefix : shadowTablePrefix + "_";
     this.sourceType = sourceType;
     this.isRegularRunMode = isRegularRunMode;
+    this.maxEventsPerTransaction = maxEventsPerTransaction;
   }
 
   /** Setup function connects to Cloud Spanner. */
@@ -213,22 +248,82 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
     keepWatchdogRunning.set(false);
   }
 
+  @StartBundle
+  public void startBundle() {
+    pendingEvents = new ArrayList<>();
+  }
+
   @ProcessElement
-  public void processElement(ProcessContext c) {
+  public void processElement(ProcessContext c, BoundedWindow window) {
     FailsafeElement<String, String> msg = c.element();
-    Ddl ddl = c.sideInput(ddlView);
-    Instant startTimestamp = Instant.now();
-    String migrationShardId = null;
-    boolean isRetryRecord = false;
-    /*
-     * Try Catch block to capture any exceptions that might occur while processing
-     * DataStream events while writing to Cloud Spanner. All Exceptions that are caught
-     * can be retried based on the exception type.
-     */
-    try {
+    processEvent(
+        () -> mapper.readTree(msg.getPayload()),
+        () -> msg,
+        c.sideInput(ddlView),
+        getEventOutput(c),
+        c.timestamp(),
+        window,
+        c.getPipelineOptions());
+  }
 
-      JsonNode changeEvent = mapper.readTree(msg.getPayload());
-      migrationShardId =
+  @FinishBundle
+  public void finishBundle(FinishBundleContext c) {
+    flushPendingEvents(getEventOutputs(c), c.getPipelineOptions());
+  }
+
+  /*
+   * Writes a change event, or adds it to the pending events of the bundle when events are grouped.
+   * The JSON element is only built for the error outputs.
+   */
+  private void processEvent(
+      ChangeEventReader reader,
+      Supplier<FailsafeElement<String, String>> msg,
+      Ddl ddl,
+      EventOutput output,
+      Instant timestamp,
+      BoundedWindow window,
+      PipelineOptions options) {
+    PendingEvent event = prepareEvent(reader, msg, ddl, output);
+    if (event == null) {
+      return;
+    }
+    if (maxEventsPerTransaction > 1) {
+      event.timestamp = timestamp;
+      event.window = window;
+      pendingEvents.add(event);
+      if (pendingEvents.size() >= maxEventsPerTransaction) {
+        writeEvents(pendingEvents, pendingEvent -> output, options);
+        pendingEvents = new ArrayList<>();
+      }
+    } else {
+      writeEvent(event, output, options);
+    }
+  }
+
+  /* Writes the pending events of the bundle, with the outputs of the window of each event. */
+  private void flushPendingEvents(
+      Function<PendingEvent, EventOutput> outputForEvent, PipelineOptions options) {
+    if (pendingEvents == null || pendingEvents.isEmpty()) {
+      return;
+    }
+    writeEvents(pendingEvents, outputForEvent, options);
+    pendingEvents = new ArrayList<>();
+  }
+
+  /*
+   * Parses the change event and builds its mutations and sequence information. Returns null if the
+   * event could not be prepared, in which case the error has already been reported.
+   */
+  private PendingEvent prepareEvent(
+      ChangeEventReader reader,
+      Supplier<FailsafeElement<String, String>> msg,
+      Ddl ddl,
+      EventOutput output) {
+    PendingEvent event = new PendingEvent(msg, Instant.now());
+    try {
+      JsonNode changeEvent = reader.read();
+      event.changeEvent = changeEvent;
+      event.migrationShardId =
           Optional.ofNullable(changeEvent.get(SHARD_ID_COLUMN_NAME))
               .map(shardIdNode -> changeEvent.get(shardIdNode.asText()).asText())
               .orElse(null);
@@ -236,22 +331,41 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
 
       if (retryCount != null) {
         eventRetries.update(retryCount.asLong());
-        isRetryRecord = true;
+        event.isRetryRecord = true;
       }
-      ChangeEventContext changeEventContext =
+      event.changeEventContext =
           ChangeEventContextFactory.createChangeEventContext(
               changeEvent, ddl, shadowTablePrefix, sourceType);
 
       // Sequence information for the current change event.
-      ChangeEventSequence currentChangeEventSequence =
+      event.changeEventSequence =
           ChangeEventSequenceFactory.createChangeEventSequenceFromChangeEventContext(
-              changeEventContext);
+              event.changeEventContext);
+      return event;
+    } catch (Exception e) {
+      handleException(output, event, e);
+      return null;
+    }
+  }
+
+  /*
+   * Writes a single change event using its own Cloud Spanner transaction.
+   */
+  private void writeEvent(PendingEvent event, EventOutput output, PipelineOptions options) {
+    /*
+     * Try Catch block to capture any exceptions that might occur while processing
+     * DataStream events while writing to Cloud Spanner. All Exceptions that are caught
+     * can be retried based on the exception type.
+     */
+    try {
+      ChangeEventContext changeEventContext = event.changeEventContext;
+      ChangeEventSequence currentChangeEventSequence = event.changeEventSequence;
 
       // Start transaction
       spannerAccessor
           .getDatabaseClient()
           .readWriteTransaction(
-              Options.tag(getTxnTag(c.getPipelineOptions())),
+              Options.tag(getTxnTag(options)),
               Options.priority(spannerConfig.getRpcPriority().get()))
           .run(
               (TransactionCallable<Void>)
@@ -277,38 +391,134 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
                     isInTransaction.set(false);
                     return null;
                   });
-      com.google.cloud.Timestamp timestamp = com.google.cloud.Timestamp.now();
-      c.output(timestamp);
-      if (migrationShardId != null) {
-        Metrics.counter(
-                SpannerTransactionWriterDoFn.class,
-                migrationShardId + " : " + SUCCESSFUL_EVENTS_COUNTER_NAME)
-            .inc();
+      outputSuccess(event, output);
+    } catch (Exception e) {
+      handleException(output, event, e);
+    }
+  }
+
+  /*
+   * Writes a group of change events in a single Cloud Spanner transaction. Events that touch a
+   * primary key already present in the group, and all the events of a group whose transaction
+   * fails, are written individually.
+   */
+  private void writeEvents(
+      List<PendingEvent> events,
+      Function<PendingEvent, EventOutput> outputForEvent,
+      PipelineOptions options) {
+    List<PendingEvent> group = new ArrayList<>();
+    List<PendingEvent> conflictingEvents = new ArrayList<>();
+    Set<String> groupKeys = new HashSet<>();
+    for (PendingEvent event : events) {
+      ChangeEventContext changeEventContext = event.changeEventContext;
+      if (groupKeys.add(changeEventContext.getShadowTable() + changeEventContext.getPrimaryKey())) {
+        group.add(event);
+      } else {
+        conflictingEvents.add(event);
       }
-      successfulEvents.inc();
-      updateLatencyMetrics(changeEvent, startTimestamp);
+    }
 
-      // increment the successful retry count if this was retry attempt
-      if (isRegularRunMode && isRetryRecord) {
-        successfulEventRetries.inc();
+    if (group.size() > 1) {
+      List<ChangeEventContext> changeEventContexts =
+          group.stream().map(event -> event.changeEventContext).collect(Collectors.toList());
+      try {
+        spannerAccessor
+            .getDatabaseClient()
+            .readWriteTransaction(
+                Options.tag(getTxnTag(options)),
+                Options.priority(spannerConfig.getRpcPriority().get()))
+            .run(
+                (TransactionCallable<Void>)
+                    transaction -> {
+                      isInTransaction.set(true);
+                      transactionAttemptCount.incrementAndGet();
+                      // Sequence information for the last change event of every key in the group.
+                      List<ChangeEventSequence> previousChangeEventSequences =
+                          ChangeEventSequenceFactory.createChangeEventSequencesFromShadowTable(
+                              transaction, changeEventContexts);
+                      for (int i = 0; i < group.size(); i++) {
+                        PendingEvent event = group.get(i);
+                        ChangeEventSequence previousChangeEventSequence =
+                            previousChangeEventSequences.get(i);
+                        event.isStale =
+                            previousChangeEventSequence != null
+                                && previousChangeEventSequence.compareTo(event.changeEventSequence)
+                                    >= 0;
+                        if (!event.isStale) {
+                          transaction.buffer(event.changeEventContext.getMutations());
+                        }
+                      }
+                      isInTransaction.set(false);
+                      return null;
+                    });
+        transactionBatchSizes.update(group.size());
+        for (PendingEvent event : group) {
+          EventOutput output = outputForEvent.apply(event);
+          try {
+            if (event.isStale) {
+              skippedEvents.inc();
+            }
+            outputSuccess(event, output);
+          } catch (Exception e) {
+            handleException(output, event, e);
+          }
+        }
+        group.clear();
+      } catch (Exception e) {
+        LOG.warn(
+            "Transaction for a group of {} events failed, writing them individually",
+            group.size(),
+            e);
+        transactionBatchFallbacks.inc();
       }
+    }
+
+    for (PendingEvent event : group) {
+      writeEvent(event, outputForEvent.apply(event), options);
+    }
+    for (PendingEvent event : conflictingEvents) {
+      writeEvent(event, outputForEvent.apply(event), options);
+    }
+  }
 
-    } catch (DroppedTableException e) {
+  private void outputSuccess(PendingEvent event, EventOutput output) {
+    com.google.cloud.Timestamp timestamp = com.google.cloud.Timestamp.now();
+    output.output(timestamp);
+    if (event.migrationShardId != null) {
+      Metrics.counter(
+              SpannerTransactionWriterDoFn.class,
+              event.migrationShardId + " : " + SUCCESSFUL_EVENTS_COUNTER_NAME)
+          .inc();
+    }
+    successfulEvents.inc();
+    updateLatencyMetrics(event.changeEvent, event.startTimestamp);
+
+    // increment the successful retry count if this was retry attempt
+    if (isRegularRunMode && event.isRetryRecord) {
+      successfulEventRetries.inc();
+    }
+  }
+
+  private void handleException(EventOutput output, PendingEvent event, Exception ex) {
+    String migrationShardId = event.migrationShardId;
+    if (ex instanceof DroppedTableException) {
       // Errors when table exists in source but was dropped during conversion. We do not output any
       // errors to dlq for this.
-      LOG.warn(e.getMessage());
+      LOG.warn(ex.getMessage());
       droppedTableExceptions.inc();
-    } catch (InvalidChangeEventException e) {
+    } else if (ex instanceof InvalidChangeEventException) {
       // Errors that result from invalid change events.
-      outputWithErrorTag(c, msg, e, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
+      outputWithErrorTag(
+          output, event.msg.get(), ex, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
       invalidEvents.inc();
       if (migrationShardId != null) {
         Metrics.counter(SpannerTransactionWriterDoFn.class, migrationShardId + " : Invalid events")
             .inc();
       }
-    } catch (ChangeEventConvertorException e) {
+    } else if (ex instanceof ChangeEventConvertorException) {
       // Errors that result during Event conversions are not retryable.
-      outputWithErrorTag(c, msg, e, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
+      outputWithErrorTag(
+          output, event.msg.get(), ex, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
       if (migrationShardId != null) {
         Metrics.counter(
                 SpannerTransactionWriterDoFn.class,
@@ -316,7 +526,7 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
             .inc();
       }
       conversionErrors.inc();
-    } catch (SpannerException | IllegalStateException ex) {
+    } else if (ex instanceof SpannerException || ex instanceof IllegalStateException) {
       /* Errors that happen when writing to Cloud Spanner are considered retryable.
        * Since all event conversion errors are caught beforehand as permanent errors,
        * any other errors encountered while writing to Cloud Spanner can be retried.
@@ -328,14 +538,16 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
        * in which case if this event is requed to same or different node at a later point in time,
        * a retry might work.
        */
-      outputWithErrorTag(c, msg, ex, DatastreamToSpannerConstants.RETRYABLE_ERROR_TAG);
+      outputWithErrorTag(
+          output, event.msg.get(), ex, DatastreamToSpannerConstants.RETRYABLE_ERROR_TAG);
       // do not increment the retry error count if this was retry attempt
-      if (!isRetryRecord) {
+      if (!event.isRetryRecord) {
         retryableErrors.inc();
       }
-    } catch (Exception e) {
+    } else {
       // Any other errors are considered severe and not retryable.
-      outputWithErrorTag(c, msg, e, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
+      outputWithErrorTag(
+          output, event.msg.get(), ex, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
       failedEvents.inc();
       if (migrationShardId != null) {
         Metrics.counter(
@@ -358,14 +570,48 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
   }
 
   void outputWithErrorTag(
-      ProcessContext c,
+      EventOutput eventOutput,
       FailsafeElement<String, String> changeEvent,
       Exception e,
       TupleTag<FailsafeElement<String, String>> errorTag) {
     // Making a copy, as the input must not be mutated.
     FailsafeElement<String, String> output = FailsafeElement.of(changeEvent);
     output.setErrorMessage(e.getMessage());
-    c.output(errorTag, output);
+    eventOutput.output(errorTag, output);
+  }
+
+  private static EventOutput getEventOutput(DoFn<?, com.google.cloud.Timestamp>.WindowedContext c) {
+    return new EventOutput() {
+      @Override
+      public void output(com.google.cloud.Timestamp timestamp) {
+        c.output(timestamp);
+      }
+
+      @Override
+      public void output(
+          TupleTag<FailsafeElement<String, String>> tag, FailsafeElement<String, String> element) {
+        c.output(tag, element);
+      }
+    };
+  }
+
+  /* Returns the outputs of the pending events, each to the window of its element. */
+  private static Function<PendingEvent, EventOutput> getEventOutputs(
+      DoFn<?, com.google.cloud.Timestamp>.FinishBundleContext c) {
+    return pendingEvent ->
+        new EventOutput() {
+          @Override
+          public void output(com.google.cloud.Timestamp timestamp) {
+            c.output(timestamp, pendingEvent.timestamp, pendingEvent.window);
+          }
+
+          @Override
+          public void output(
+              TupleTag<FailsafeElement<String, String>> tag,
+              FailsafeElement<String, String> element) {
+            c.output(tag, element, pendingEvent.timestamp, pendingEvent.window);
+          }
+        };
   }
 
   String getTxnTag(PipelineOptions options) {
@@ -403,4 +649,87 @@ class SpannerTransactionWriterDoFn extends DoFn<FailsafeElement<String, String>,
   public void setIsInTransaction(AtomicBoolean isInTransaction) {
     this.isInTransaction = isInTransaction;
   }
+
+  /** Reads the transformed change event to write. */
+  interface ChangeEventReader {
+    JsonNode read() throws IOException;
+  }
+
+  /** Destination for the outputs of a change event. */
+  interface EventOutput {
+    void output(com.google.cloud.Timestamp timestamp);
+
+    void output(
+        TupleTag<FailsafeElement<String, String>> tag, FailsafeElement<String, String> element);
+  }
+
+  /** A change event that has been prepared for writing. */
+  private static class PendingEvent {
+    private final Supplier<FailsafeElement<String, String>> msg;
+    private final Instant startTimestamp;
+    private JsonNode changeEvent;
+    private String migrationShardId;
+    private boolean isRetryRecord;
+    private ChangeEventContext changeEventContext;
+    private ChangeEventSequence changeEventSequence;
+    private boolean isStale;
+    private Instant timestamp;
+    private BoundedWindow window;
+
+    PendingEvent(Supplier<FailsafeElement<String, String>> msg, Instant startTimestamp) {
+      this.msg = msg;
+      this.startTimestamp = startTimestamp;
+    }
+  }
+
+  /**
+   * Writes typed {@link DatastreamChangeEvent}s with a {@link SpannerTransactionWriterDoFn}. The
+   * events are only serialized to JSON for the error outputs, in the same format as the records
+   * written by the JSON {@link SpannerTransactionWriterDoFn}.
+   */
+  static class TypedSpannerTransactionWriterDoFn
+      extends DoFn<FailsafeElement<DatastreamChangeEvent, DatastreamChangeEvent>, Timestamp> {
+
+    private final SpannerTransactionWriterDoFn writer;
+
+    TypedSpannerTransactionWriterDoFn(SpannerTransactionWriterDoFn writer) {
+      this.writer = writer;
+    }
+
+    @Setup
+    public void setup() {
+      writer.setup();
+    }
+
+    @Teardown
+    public void teardown() {
+      writer.teardown();
+    }
+
+    @StartBundle
+    public void startBundle() {
+      writer.startBundle();
+    }
+
+    @ProcessElement
+    public void processElement(ProcessContext c, BoundedWindow window) {
+      FailsafeElement<DatastreamChangeEvent, DatastreamChangeEvent> element = c.element();
+      writer.processEvent(
+          // The conversion to mutations modifies the event, so it reads a copy.
+          () -> element.getPayload().getEvent().deepCopy(),
+          () ->
+              FailsafeElement.of(
+                  element.getOriginalPayload().toJson(), element.getPayload().toJson()),
+          c.sideInput(writer.ddlView),
+          getEventOutput(c),
+          c.timestamp(),
+          window,
+          c.getPipelineOptions());
+    }
+
+    @FinishBundle
+    public void finishBundle(FinishBundleContext c) {
+      writer.flushPendingEvents(getEventOutputs(c), c.getPipelineOptions());
+    }
+  }
 }
@@ -16,6 +16,7 @@
 package com.google.cloud.teleport.v2.templates.constants;
 
 import com.google.cloud.Timestamp;
+import com.google.cloud.teleport.v2.datastream.values.DatastreamChangeEvent;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
 import org.apache.beam.sdk.values.TupleTag;
 
@@ -31,6 +32,11 @@ public class DatastreamToSpannerConstants {
   public static final TupleTag<FailsafeElement<String, String>> TRANSFORMED_EVENT_TAG =
       new TupleTag<FailsafeElement<String, String>>() {};
 
+  /* The tag for successfully transformed events, when change events are read as typed events. */
+  public static final TupleTag<FailsafeElement<DatastreamChangeEvent, DatastreamChangeEvent>>
+      TYPED_TRANSFORMED_EVENT_TAG =
+          new TupleTag<FailsafeElement<DatastreamChangeEvent, DatastreamChangeEvent>>() {};
+
   /* The tag for events failed with non-retryable errors. */
   public static final TupleTag<FailsafeElement<String, String>> PERMANENT_ERROR_TAG =
       new TupleTag<FailsafeElement<String, String>>() {};
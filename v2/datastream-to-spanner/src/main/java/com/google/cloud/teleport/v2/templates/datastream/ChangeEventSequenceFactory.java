@@ -16,9 +16,13 @@
 package com.google.cloud.teleport.v2.templates.datastream;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.spanner.Struct;
 import com.google.cloud.spanner.TransactionContext;
 import com.google.cloud.teleport.v2.spanner.migrations.exceptions.ChangeEventConvertorException;
 import com.google.cloud.teleport.v2.spanner.migrations.exceptions.InvalidChangeEventException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Factory classes for ChangeEventSequence classes which provides methods for 1) creating
@@ -85,4 +89,58 @@ public class ChangeEventSequenceFactory {
     }
     throw new InvalidChangeEventException("Unsupported source database: " + sourceType);
   }
+
+  /*
+   * Create ChangeEventSequence objects for the earlier events of several change events by reading
+   * from shadow tables. All the reads are issued before any of them is awaited, so the whole group
+   * costs a single round trip to Cloud Spanner. The result is in the order of changeEventContexts.
+   */
+  public static List<ChangeEventSequence> createChangeEventSequencesFromShadowTable(
+      final TransactionContext transactionContext,
+      final List<ChangeEventContext> changeEventContexts)
+      throws ChangeEventSequenceCreationException, InvalidChangeEventException {
+
+    List<String> sourceTypes = new ArrayList<>();
+    List<ApiFuture<Struct>> rows = new ArrayList<>();
+    for (ChangeEventContext changeEventContext : changeEventContexts) {
+      String sourceType = getSourceType(changeEventContext.getChangeEvent());
+      sourceTypes.add(sourceType);
+      rows.add(
+          transactionContext.readRowAsync(
+              changeEventContext.getShadowTable(),
+              changeEventContext.getPrimaryKey(),
+              getShadowTableColumns(sourceType)));
+    }
+
+    List<ChangeEventSequence> changeEventSequences = new ArrayList<>();
+    for (int i = 0; i < rows.size(); i++) {
+      Struct row;
+      try {
+        row = rows.get(i).get();
+      } catch (Exception e) {
+        throw new ChangeEventSequenceCreationException(e);
+      }
+      String sourceType = sourceTypes.get(i);
+      if (DatastreamConstants.MYSQL_SOURCE_TYPE.equals(sourceType)) {
+        changeEventSequences.add(MySqlChangeEventSequence.createFromShadowTableRow(row));
+      } else if (DatastreamConstants.ORACLE_SOURCE_TYPE.equals(sourceType)) {
+        changeEventSequences.add(OracleChangeEventSequence.createFromShadowTableRow(row));
+      } else {
+        changeEventSequences.add(PostgresChangeEventSequence.createFromShadowTableRow(row));
+      }
+    }
+    return changeEventSequences;
+  }
+
+  private static List<String> getShadowTableColumns(String sourceType)
+      throws InvalidChangeEventException {
+    if (DatastreamConstants.MYSQL_SOURCE_TYPE.equals(sourceType)) {
+      return MySqlChangeEventSequence.getShadowTableColumns();
+    } else if (DatastreamConstants.ORACLE_SOURCE_TYPE.equals(sourceType)) {
+      return OracleChangeEventSequence.getShadowTableColumns();
+    } else if (DatastreamConstants.POSTGRES_SOURCE_TYPE.equals(sourceType)) {
+      return PostgresChangeEventSequence.getShadowTableColumns();
+    }
+    throw new InvalidChangeEventException("Unsupported source database: " + sourceType);
+  }
 }
@@ -78,24 +78,36 @@ class PostgresChangeEventSequence extends ChangeEventSequence {
 
     try {
       // Read columns from shadow table
-      List<String> readColumnList =
-          DatastreamConstants.POSTGRES_SORT_ORDER.values().stream()
-              .map(p -> p.getLeft())
-              .collect(Collectors.toList());
-      Struct row = transactionContext.readRow(shadowTable, primaryKey, readColumnList);
-
-      // This is the first event for the primary key and hence the latest event.
-      if (row == null) {
-        return null;
-      }
-
-      return new PostgresChangeEventSequence(
-          row.getLong(readColumnList.get(0)), row.getString(readColumnList.get(1)));
+      Struct row = transactionContext.readRow(shadowTable, primaryKey, getShadowTableColumns());
+      return createFromShadowTableRow(row);
     } catch (Exception e) {
       throw new ChangeEventSequenceCreationException(e);
     }
   }
 
+  /*
+   * Columns of the shadow table that hold the sequence information.
+   */
+  static List<String> getShadowTableColumns() {
+    return DatastreamConstants.POSTGRES_SORT_ORDER.values().stream()
+        .map(p -> p.getLeft())
+        .collect(Collectors.toList());
+  }
+
+  /*
+   * Creates a PostgresChangeEventSequence from a row read from a shadow table.
+   */
+  static PostgresChangeEventSequence createFromShadowTableRow(Struct row) {
+    // This is the first event for the primary key and hence the latest event.
+    if (row == null) {
+      return null;
+    }
+
+    List<String> readColumnList = getShadowTableColumns();
+    return new PostgresChangeEventSequence(
+        row.getLong(readColumnList.get(0)), row.getString(readColumnList.get(1)));
+  }
+
   Long getTimestamp() {
     return timestamp;
   }
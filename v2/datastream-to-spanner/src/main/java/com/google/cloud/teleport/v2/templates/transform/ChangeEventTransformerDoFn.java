@@ -22,7 +22,9 @@ import static com.google.cloud.teleport.v2.templates.datastream.DatastreamConsta
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.auto.value.AutoValue;
+import com.google.cloud.teleport.v2.datastream.values.DatastreamChangeEvent;
 import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
 import com.google.cloud.teleport.v2.spanner.exceptions.InvalidTransformationException;
 import com.google.cloud.teleport.v2.spanner.migrations.convertors.ChangeEventSessionConvertor;
@@ -40,8 +42,10 @@ import com.google.cloud.teleport.v2.spanner.utils.MigrationTransformationRequest
 import com.google.cloud.teleport.v2.spanner.utils.MigrationTransformationResponse;
 import com.google.cloud.teleport.v2.templates.constants.DatastreamToSpannerConstants;
 import com.google.cloud.teleport.v2.values.FailsafeElement;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Map;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerAccessor;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
@@ -170,13 +174,48 @@ public abstract class ChangeEventTransformerDoFn
   @ProcessElement
   public void processElement(ProcessContext c) {
     FailsafeElement<String, String> msg = c.element();
+    JsonNode changeEvent =
+        transform(
+            () -> mapper.readTree(msg.getOriginalPayload()),
+            () -> msg,
+            c.sideInput(ddlView()),
+            c::output);
+    if (changeEvent != null) {
+      // Adding the original payload to the Failsafe element to ensure that input is not mutated in
+      // case of retries.
+      c.output(
+          DatastreamToSpannerConstants.TRANSFORMED_EVENT_TAG,
+          FailsafeElement.of(msg.getOriginalPayload(), changeEvent.toString()));
+    }
+  }
+
+  /**
+   * Returns a {@link DoFn} applying the same transformation to typed {@link
+   * DatastreamChangeEvent}s, which outputs the transformed events to {@link
+   * DatastreamToSpannerConstants#TYPED_TRANSFORMED_EVENT_TAG}. Events are only serialized to JSON
+   * for the filtered and error outputs.
+   */
+  public TypedChangeEventTransformerDoFn typed() {
+    return new TypedChangeEventTransformerDoFn(this);
+  }
+
+  /*
+   * Transforms a change event, and returns it or null if it was filtered, dropped or failed, in
+   * which case it has been output to the filtered or error outputs. The JSON element is only built
+   * for those outputs.
+   */
+  @Nullable
+  JsonNode transform(
+      ChangeEventReader reader,
+      Supplier<FailsafeElement<String, String>> msg,
+      Ddl ddl,
+      TaggedOutput output) {
     processedEvents.inc();
     Instant startTimestamp = Instant.now();
-    Ddl ddl = c.sideInput(ddlView());
     String migrationShardId = null;
     try {
 
-      JsonNode changeEvent = mapper.readTree(msg.getOriginalPayload());
+      JsonNode changeEvent = reader.read();
       Map<String, Object> sourceRecord =
           ChangeEventToMapConvertor.convertChangeEventToMap(changeEvent);
 
@@ -207,8 +246,9 @@ public abstract class ChangeEventTransformerDoFn
               getCustomTransformationResponse(changeEvent, sourceRecord);
           if (migrationTransformationResponse.isEventFiltered()) {
             filteredEvents.inc();
-            c.output(DatastreamToSpannerConstants.FILTERED_EVENT_TAG, msg.getOriginalPayload());
-            return;
+            output.output(
+                DatastreamToSpannerConstants.FILTERED_EVENT_TAG, msg.get().getOriginalPayload());
+            return null;
           }
           if (migrationTransformationResponse != null
               && migrationTransformationResponse.getResponseRow() != null) {
@@ -227,11 +267,7 @@ public abstract class ChangeEventTransformerDoFn
       Instant endTimestamp = Instant.now();
       transformationLatencyMs.update(new Duration(startTimestamp, endTimestamp).getMillis());
       transformedEvents.inc();
-      // Adding the original payload to the Failsafe element to ensure that input is not mutated in
-      // case of retries.
-      c.output(
-          DatastreamToSpannerConstants.TRANSFORMED_EVENT_TAG,
-          FailsafeElement.of(msg.getOriginalPayload(), changeEvent.toString()));
+      return changeEvent;
     } catch (DroppedTableException e) {
       // Errors when table exists in source but was dropped during conversion. We do not output any
       // errors to dlq for this.
@@ -239,7 +275,7 @@ public abstract class ChangeEventTransformerDoFn
       droppedTableExceptions.inc();
     } catch (InvalidTransformationException e) {
       // Errors that result from the custom JAR during transformation are not retryable.
-      outputWithErrorTag(c, msg, e, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
+      outputWithErrorTag(output, msg.get(), e, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
       customTransformationException.inc();
       if (migrationShardId != null) {
         Metrics.counter(ChangeEventTransformerDoFn.class, migrationShardId + " : Permanent errors")
@@ -247,17 +283,18 @@ public abstract class ChangeEventTransformerDoFn
       }
     } catch (InvalidChangeEventException e) {
       // Errors that result from invalid change events.
-      outputWithErrorTag(c, msg, e, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
+      outputWithErrorTag(output, msg.get(), e, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
       invalidEvents.inc();
     } catch (Exception e) {
       // Any other errors are considered severe and not retryable.
-      outputWithErrorTag(c, msg, e, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
+      outputWithErrorTag(output, msg.get(), e, DatastreamToSpannerConstants.PERMANENT_ERROR_TAG);
       failedEvents.inc();
       if (migrationShardId != null) {
         Metrics.counter(ChangeEventTransformerDoFn.class, migrationShardId + " : Permanent errors")
             .inc();
       }
     }
+    return null;
   }
 
   MigrationTransformationResponse getCustomTransformationResponse(
@@ -278,14 +315,14 @@ public abstract class ChangeEventTransformerDoFn
   }
 
   void outputWithErrorTag(
-      ProcessContext c,
+      TaggedOutput taggedOutput,
       FailsafeElement<String, String> changeEvent,
       Exception e,
       TupleTag<FailsafeElement<String, String>> errorTag) {
     // Making a copy, as the input must not be mutated.
     FailsafeElement<String, String> output = FailsafeElement.of(changeEvent);
     output.setErrorMessage(e.getMessage());
-    c.output(errorTag, output);
+    taggedOutput.output(errorTag, output);
   }
 
   public void setMapper(ObjectMapper mapper) {
@@ -305,4 +342,54 @@ public abstract class ChangeEventTransformerDoFn
   public void setSpannerAccessor(SpannerAccessor spannerAccessor) {
     this.spannerAccessor = spannerAccessor;
   }
+
+  /** Reads the change event to transform. */
+  interface ChangeEventReader {
+    JsonNode read() throws IOException;
+  }
+
+  /** Destination for the filtered and error outputs of a change event. */
+  interface TaggedOutput {
+    <T> void output(TupleTag<T> tag, T output);
+  }
+
+  /**
+   * Applies a {@link ChangeEventTransformerDoFn} to typed {@link DatastreamChangeEvent}s. The
+   * original and transformed events are output together, so that the JSON record for the dead
+   * letter queue can be built from the original event if the write fails.
+   */
+  public static class TypedChangeEventTransformerDoFn
+      extends DoFn<
+          DatastreamChangeEvent, FailsafeElement<DatastreamChangeEvent, DatastreamChangeEvent>> {
+
+    private final ChangeEventTransformerDoFn transformer;
+
+    TypedChangeEventTransformerDoFn(ChangeEventTransformerDoFn transformer) {
+      this.transformer = transformer;
+    }
+
+    @Setup
+    public void setup() {
+      transformer.setup();
+    }
+
+    @ProcessElement
+    public void processElement(ProcessContext c) {
+      DatastreamChangeEvent changeEvent = c.element();
+      // The transformation modifies the event, so it reads a copy with the node types of the
+      // parsed JSON record.
+      JsonNode transformedEvent =
+          transformer.transform(
+              changeEvent::toJsonTree,
+              changeEvent::toFailsafeElement,
+              c.sideInput(transformer.ddlView()),
+              c::output);
+      if (transformedEvent != null) {
+        c.output(
+            DatastreamToSpannerConstants.TYPED_TRANSFORMED_EVENT_TAG,
+            FailsafeElement.of(
+                changeEvent, DatastreamChangeEvent.of((ObjectNode) transformedEvent)));
+      }
+    }
+  }
 }
@@ -19,6 +19,7 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -26,9 +27,13 @@ import static org.mockito.Mockito.when;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.api.core.ApiFutures;
 import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ErrorCode;
 import com.google.cloud.spanner.Mutation;
 import com.google.cloud.spanner.Options;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.Struct;
 import com.google.cloud.spanner.TransactionContext;
 import com.google.cloud.spanner.TransactionRunner;
 import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
@@ -46,7 +51,9 @@ import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
 import org.apache.beam.sdk.options.PipelineOptionsFactory;
 import org.apache.beam.sdk.options.ValueProvider;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
 import org.apache.beam.sdk.values.PCollectionView;
+import org.joda.time.Instant;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
@@ -155,7 +162,7 @@ public class SpannerTransactionWriterDoFnTest {
     spannerTransactionWriterDoFn.setSpannerAccessor(spannerAccessor);
     spannerTransactionWriterDoFn.setIsInTransaction(new AtomicBoolean(false));
     spannerTransactionWriterDoFn.setTransactionAttemptCount(new AtomicLong(0));
-    spannerTransactionWriterDoFn.processElement(processContextMock);
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
     ArgumentCaptor<Iterable<Mutation>> argument = ArgumentCaptor.forClass(Iterable.class);
     verify(transactionContext, times(1)).buffer(argument.capture());
     Iterable<Mutation> capturedMutations = argument.getValue();
@@ -221,7 +228,7 @@ public class SpannerTransactionWriterDoFnTest {
         new SpannerTransactionWriterDoFn(spannerConfig, ddlView, "shadow", "mysql", true);
     spannerTransactionWriterDoFn.setMapper(mapper);
     spannerTransactionWriterDoFn.setSpannerAccessor(spannerAccessor);
-    spannerTransactionWriterDoFn.processElement(processContextMock);
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
 
     ArgumentCaptor<FailsafeElement> argument = ArgumentCaptor.forClass(FailsafeElement.class);
     verify(processContextMock, times(1))
@@ -230,4 +237,165 @@ public class SpannerTransactionWriterDoFnTest {
         "Change event with invalid source. Actual(random), Expected(mysql)",
         argument.getValue().getErrorMessage());
   }
+
+  @Test
+  public void testProcessElementsGroupedInOneTransaction() {
+    DoFn.ProcessContext processContextMock = mock(DoFn.ProcessContext.class);
+    DoFn.FinishBundleContext finishBundleContextMock = mock(DoFn.FinishBundleContext.class);
+    DatabaseClient databaseClientMock = mock(DatabaseClient.class);
+    TransactionContext transactionContext = mock(TransactionContext.class);
+    when(processContextMock.element())
+        .thenReturn(getUsersChangeEvent("Johnny", 1))
+        .thenReturn(getUsersChangeEvent("Tommy", 2));
+    when(processContextMock.timestamp()).thenReturn(new Instant(1000L));
+    when(transactionContext.readRowAsync(eq("shadow_Users"), any(), any()))
+        .thenReturn(ApiFutures.immediateFuture(null));
+    SpannerTransactionWriterDoFn spannerTransactionWriterDoFn =
+        getGroupingDoFn(processContextMock, databaseClientMock, transactionContext, 3);
+
+    spannerTransactionWriterDoFn.startBundle();
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
+    verify(databaseClientMock, never()).readWriteTransaction(any(), any());
+    spannerTransactionWriterDoFn.finishBundle(finishBundleContextMock);
+
+    verify(databaseClientMock, times(1)).readWriteTransaction(any(), any());
+    verify(transactionContext, times(2)).readRowAsync(eq("shadow_Users"), any(), any());
+    verify(transactionContext, never()).readRow(any(), any(), any());
+    verify(transactionContext, times(2)).buffer(any(Iterable.class));
+    verify(finishBundleContextMock, times(2))
+        .output(
+            any(com.google.cloud.Timestamp.class),
+            eq(new Instant(1000L)),
+            eq(GlobalWindow.INSTANCE));
+  }
+
+  @Test
+  public void testProcessElementsGroupedSkipsStaleEvents() {
+    DoFn.ProcessContext processContextMock = mock(DoFn.ProcessContext.class);
+    DatabaseClient databaseClientMock = mock(DatabaseClient.class);
+    TransactionContext transactionContext = mock(TransactionContext.class);
+    when(processContextMock.element())
+        .thenReturn(getUsersChangeEvent("Johnny", 1))
+        .thenReturn(getUsersChangeEvent("Tommy", 2));
+    Struct newerShadowRow =
+        Struct.newBuilder()
+            .set("timestamp")
+            .to(5L)
+            .set("log_file")
+            .to("")
+            .set("log_position")
+            .to(-1L)
+            .build();
+    when(transactionContext.readRowAsync(eq("shadow_Users"), any(), any()))
+        .thenReturn(ApiFutures.immediateFuture(newerShadowRow))
+        .thenReturn(ApiFutures.immediateFuture(null));
+    SpannerTransactionWriterDoFn spannerTransactionWriterDoFn =
+        getGroupingDoFn(processContextMock, databaseClientMock, transactionContext, 2);
+
+    spannerTransactionWriterDoFn.startBundle();
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
+
+    verify(databaseClientMock, times(1)).readWriteTransaction(any(), any());
+    verify(transactionContext, times(1)).buffer(any(Iterable.class));
+    verify(processContextMock, times(2)).output(any(com.google.cloud.Timestamp.class));
+  }
+
+  @Test
+  public void testProcessElementsWithConflictingKeysWrittenIndividually() {
+    DoFn.ProcessContext processContextMock = mock(DoFn.ProcessContext.class);
+    DatabaseClient databaseClientMock = mock(DatabaseClient.class);
+    TransactionContext transactionContext = mock(TransactionContext.class);
+    when(processContextMock.element())
+        .thenReturn(getUsersChangeEvent("Johnny", 1))
+        .thenReturn(getUsersChangeEvent("Johnny", 2));
+    SpannerTransactionWriterDoFn spannerTransactionWriterDoFn =
+        getGroupingDoFn(processContextMock, databaseClientMock, transactionContext, 2);
+
+    spannerTransactionWriterDoFn.startBundle();
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
+
+    verify(databaseClientMock, times(2)).readWriteTransaction(any(), any());
+    verify(transactionContext, never()).readRowAsync(any(), any(), any());
+    verify(transactionContext, times(2)).readRow(eq("shadow_Users"), any(), any());
+    verify(transactionContext, times(2)).buffer(any(Iterable.class));
+    verify(processContextMock, times(2)).output(any(com.google.cloud.Timestamp.class));
+  }
+
+  @Test
+  public void testProcessElementsGroupFallsBackToIndividualTransactions() {
+    DoFn.ProcessContext processContextMock = mock(DoFn.ProcessContext.class);
+    DatabaseClient databaseClientMock = mock(DatabaseClient.class);
+    TransactionContext transactionContext = mock(TransactionContext.class);
+    when(processContextMock.element())
+        .thenReturn(getUsersChangeEvent("Johnny", 1))
+        .thenReturn(getUsersChangeEvent("Tommy", 2));
+    when(transactionContext.readRowAsync(any(), any(), any()))
+        .thenThrow(
+            SpannerExceptionFactory.newSpannerException(ErrorCode.FAILED_PRECONDITION, "failed"));
+    SpannerTransactionWriterDoFn spannerTransactionWriterDoFn =
+        getGroupingDoFn(processContextMock, databaseClientMock, transactionContext, 2);
+
+    spannerTransactionWriterDoFn.startBundle();
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
+    spannerTransactionWriterDoFn.processElement(processContextMock, GlobalWindow.INSTANCE);
+
+    verify(databaseClientMock, times(3)).readWriteTransaction(any(), any());
+    verify(transactionContext, times(2)).readRow(eq("shadow_Users"), any(), any());
+    verify(transactionContext, times(2)).buffer(any(Iterable.class));
+    verify(processContextMock, times(2)).output(any(com.google.cloud.Timestamp.class));
+  }
+
+  private SpannerTransactionWriterDoFn getGroupingDoFn(
+      DoFn.ProcessContext processContextMock,
+      DatabaseClient databaseClientMock,
+      TransactionContext transactionContext,
+      int maxEventsPerTransaction) {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    SpannerConfig spannerConfig = mock(SpannerConfig.class);
+    SpannerAccessor spannerAccessor = mock(SpannerAccessor.class);
+    TransactionRunner transactionCallableMock = mock(TransactionRunner.class);
+    ValueProvider<Options.RpcPriority> rpcPriorityValueProviderMock = mock(ValueProvider.class);
+    DataflowWorkerHarnessOptions options =
+        PipelineOptionsFactory.fromArgs("--jobId=123").as(DataflowWorkerHarnessOptions.class);
+
+    when(processContextMock.sideInput(any())).thenReturn(getTestDdl());
+    when(processContextMock.getPipelineOptions()).thenReturn(options);
+    when(rpcPriorityValueProviderMock.get()).thenReturn(Options.RpcPriority.LOW);
+    when(spannerConfig.getRpcPriority()).thenReturn(rpcPriorityValueProviderMock);
+    when(spannerAccessor.getDatabaseClient()).thenReturn(databaseClientMock);
+    when(transactionCallableMock.run(any()))
+        .thenAnswer(
+            invocation -> {
+              TransactionRunner.TransactionCallable<Void> callable = invocation.getArgument(0);
+              return callable.run(transactionContext);
+            });
+    when(databaseClientMock.readWriteTransaction(any(), any())).thenReturn(transactionCallableMock);
+
+    SpannerTransactionWriterDoFn spannerTransactionWriterDoFn =
+        new SpannerTransactionWriterDoFn(
+            spannerConfig, null, "shadow", "mysql", true, maxEventsPerTransaction);
+    spannerTransactionWriterDoFn.setMapper(mapper);
+    spannerTransactionWriterDoFn.setSpannerAccessor(spannerAccessor);
+    spannerTransactionWriterDoFn.setIsInTransaction(new AtomicBoolean(false));
+    spannerTransactionWriterDoFn.setTransactionAttemptCount(new AtomicLong(0));
+    return spannerTransactionWriterDoFn;
+  }
+
+  private FailsafeElement<String, String> getUsersChangeEvent(String firstName, long timestamp) {
+    ObjectNode outputObject = new ObjectMapper().createObjectNode();
+    outputObject.put(DatastreamConstants.EVENT_SOURCE_TYPE_KEY, Constants.MYSQL_SOURCE_TYPE);
+    outputObject.put(DatastreamConstants.EVENT_TABLE_NAME_KEY, "Users");
+    outputObject.put("first_name", firstName);
+    outputObject.put("last_name", "Depp");
+    outputObject.put("age", 13);
+    outputObject.put(DatastreamConstants.MYSQL_TIMESTAMP_KEY, timestamp);
+    outputObject.put("_metadata_timestamp", timestamp);
+    outputObject.put("_metadata_read_timestamp", timestamp);
+    outputObject.put("_metadata_dataflow_timestamp", timestamp);
+    return FailsafeElement.of(outputObject.toString(), outputObject.toString());
+  }
 }
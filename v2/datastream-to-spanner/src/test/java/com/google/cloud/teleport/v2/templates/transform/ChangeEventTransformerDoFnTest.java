@@ -18,6 +18,8 @@ package com.google.cloud.teleport.v2.templates.transform;
 import static com.google.cloud.teleport.v2.templates.datastream.DatastreamConstants.EVENT_CHANGE_TYPE_KEY;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.refEq;
 import static org.mockito.Mockito.any;
@@ -32,6 +34,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.teleport.v2.datastream.values.DatastreamChangeEvent;
 import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
 import com.google.cloud.teleport.v2.spanner.exceptions.InvalidTransformationException;
 import com.google.cloud.teleport.v2.spanner.migrations.constants.Constants;
@@ -616,4 +619,56 @@ public class ChangeEventTransformerDoFnTest {
     assertEquals(
         "Invalid byte array value for column: invalidKey", argument.getValue().getErrorMessage());
   }
+
+  @Test
+  public void testProcessTypedChangeEvent() throws Exception {
+    Schema schema = mock(Schema.class);
+    CustomTransformation customTransformation = mock(CustomTransformation.class);
+    DoFn.ProcessContext processContextMock = mock(DoFn.ProcessContext.class);
+    PCollectionView<Ddl> ddl = mock(PCollectionView.class);
+    SpannerConfig spannerConfig = mock(SpannerConfig.class);
+    SpannerAccessor spannerAccessor = mock(SpannerAccessor.class);
+    DatabaseClient databaseClientMock = mock(DatabaseClient.class);
+    ChangeEventSessionConvertor changeEventSessionConvertor =
+        mock(ChangeEventSessionConvertor.class);
+
+    ObjectNode changeEvent = new ObjectMapper().createObjectNode();
+    changeEvent.put(DatastreamConstants.EVENT_SOURCE_TYPE_KEY, Constants.MYSQL_SOURCE_TYPE);
+    changeEvent.put(DatastreamConstants.EVENT_TABLE_NAME_KEY, "Users");
+    changeEvent.put("first_name", "Johnny");
+    changeEvent.put("score", 1.5);
+    DatastreamChangeEvent input = DatastreamChangeEvent.of(changeEvent);
+
+    when(schema.isEmpty()).thenReturn(true);
+    when(processContextMock.element()).thenReturn(input);
+    when(spannerAccessor.getDatabaseClient()).thenReturn(databaseClientMock);
+    when(changeEventSessionConvertor.transformChangeEventData(
+            any(ObjectNode.class), eq(databaseClientMock), eq(null)))
+        .thenAnswer(
+            invocation -> {
+              ObjectNode event = invocation.getArgument(0);
+              event.put("synth_id", 123);
+              return event;
+            });
+
+    ChangeEventTransformerDoFn changeEventTransformerDoFn =
+        ChangeEventTransformerDoFn.create(
+            schema, null, null, null, "mysql", customTransformation, false, ddl, spannerConfig);
+    changeEventTransformerDoFn.setSpannerAccessor(spannerAccessor);
+    changeEventTransformerDoFn.setChangeEventSessionConvertor(changeEventSessionConvertor);
+    changeEventTransformerDoFn.typed().processElement(processContextMock);
+
+    ArgumentCaptor<FailsafeElement<DatastreamChangeEvent, DatastreamChangeEvent>> argument =
+        ArgumentCaptor.forClass(FailsafeElement.class);
+    verify(processContextMock, times(1))
+        .output(eq(DatastreamToSpannerConstants.TYPED_TRANSFORMED_EVENT_TAG), argument.capture());
+    assertEquals(input, argument.getValue().getOriginalPayload());
+    assertEquals(
+        "{\"_metadata_source_type\":\"mysql\",\"_metadata_table\":\"Users\",\"first_name\":\"Johnny\",\"score\":1.5,\"synth_id\":123}",
+        argument.getValue().getPayload().toJson());
+    // Floats are transformed as decimals, as in the parsed JSON records, and the input event is
+    // not modified.
+    assertTrue(argument.getValue().getPayload().getEvent().get("score").isBigDecimal());
+    assertNull(changeEvent.get("synth_id"));
+  }
 }
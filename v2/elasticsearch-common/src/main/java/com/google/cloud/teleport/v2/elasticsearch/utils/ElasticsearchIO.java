@@ -26,6 +26,7 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import com.google.auto.value.AutoValue;
 import com.google.cloud.teleport.v2.elasticsearch.utils.BulkInsertMethod.BulkInsertMethodOptions;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -45,6 +46,16 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import javax.net.ssl.SSLContext;
@@ -66,6 +77,7 @@ import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PDone;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.annotations.VisibleForTesting;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Strings;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.http.ConnectionClosedException;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
@@ -82,12 +94,16 @@ import org.apache.http.entity.ContentType;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.entity.NByteArrayEntity;
 import org.apache.http.nio.entity.NStringEntity;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.ssl.SSLContexts;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.elasticsearch.client.Cancellable;
 import org.elasticsearch.client.Request;
 import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.client.ResponseListener;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
 import org.joda.time.Duration;
@@ -149,6 +165,10 @@ import org.slf4j.LoggerFactory;
  * Elasticsearch 6 (see
  * https://www.elastic.co/blog/index-type-parent-child-join-now-future-in-elasticsearch)
  *
+ * <p>Optionally, {@code withMaxConcurrentBulkRequests()} can be used to keep several bulk requests
+ * in flight per writer instead of blocking on each of them, with {@code withMaxBytesInFlight()}
+ * bounding the size of their bodies.
+ *
  * <p>When {withUsePartialUpdate()} is enabled, the input document must contain an id field and
  * {@code withIdFn()} must be used to allow its extraction by the ElasticsearchIO.
  *
@@ -183,6 +203,7 @@ public class ElasticsearchIO {
         .setUsePartialUpdate(false) // default is document upsert
         .setBulkInsertMethod(
             BulkInsertMethodOptions.CREATE) // default to create (error on duplicate _id)
+        .setMaxConcurrentBulkRequests(1) // default is one blocking bulk request at a time
         .build();
   }
 
@@ -197,7 +218,10 @@ public class ElasticsearchIO {
 
   static void checkForErrors(HttpEntity responseEntity, int backendVersion, boolean partialUpdate)
       throws IOException {
-    JsonNode searchResult = parseResponse(responseEntity);
+    checkForErrors(parseResponse(responseEntity), partialUpdate);
+  }
+
+  static void checkForErrors(JsonNode searchResult, boolean partialUpdate) throws IOException {
     boolean errors = searchResult.path("errors").asBoolean();
     if (errors) {
       StringBuilder errorMessages =
@@ -1174,6 +1198,10 @@ public class ElasticsearchIO {
 
     abstract @Nullable BooleanFieldValueExtractFn getIsDeleteFn();
 
+    abstract int getMaxConcurrentBulkRequests();
+
+    abstract @Nullable Long getMaxBytesInFlight();
+
     abstract Builder builder();
 
     @AutoValue.Builder
@@ -1198,6 +1226,10 @@ public class ElasticsearchIO {
 
       abstract Builder setIsDeleteFn(BooleanFieldValueExtractFn isDeleteFn);
 
+      abstract Builder setMaxConcurrentBulkRequests(int maxConcurrentBulkRequests);
+
+      abstract Builder setMaxBytesInFlight(Long maxBytesInFlight);
+
       abstract Write build();
     }
 
@@ -1350,6 +1382,41 @@ public class ElasticsearchIO {
       return builder().setIsDeleteFn(isDeleteFn).build();
     }
 
+    /**
+     * Provide a maximum number of bulk requests a writer keeps in flight. Default is 1, which sends
+     * each bulk request and waits for its response before building the next one. With more than one
+     * request in flight, the requests are sent asynchronously and a bundle completes once all of
+     * them are done. Elasticsearch may apply bulk requests in flight at the same time in any order,
+     * so two writes of the same document in different bulk requests may be applied out of order.
+     * When retrying is configured, only the documents rejected with 429 HTTP status code are sent
+     * again, after documents of later bulk requests may already have been applied.
+     *
+     * @param maxConcurrentBulkRequests maximum number of bulk requests in flight per writer
+     * @return the {@link Write} with the number of concurrent bulk requests set
+     */
+    public Write withMaxConcurrentBulkRequests(int maxConcurrentBulkRequests) {
+      checkArgument(
+          maxConcurrentBulkRequests > 0,
+          "maxConcurrentBulkRequests must be > 0, but was %s",
+          maxConcurrentBulkRequests);
+      return builder().setMaxConcurrentBulkRequests(maxConcurrentBulkRequests).build();
+    }
+
+    /**
+     * Provide a maximum size in bytes of the bulk requests a writer keeps in flight when {@link
+     * #withMaxConcurrentBulkRequests(int)} is greater than 1. A writer waits for earlier requests
+     * to complete before sending one which would exceed it. Default is the maximum number of
+     * concurrent bulk requests times the maximum batch size in bytes.
+     *
+     * @param maxBytesInFlight maximum size in bytes of the bulk requests in flight per writer
+     * @return the {@link Write} with the bytes in flight bound set
+     */
+    public Write withMaxBytesInFlight(long maxBytesInFlight) {
+      checkArgument(
+          maxBytesInFlight > 0, "maxBytesInFlight must be > 0, but was %s", maxBytesInFlight);
+      return builder().setMaxBytesInFlight(maxBytesInFlight).build();
+    }
+
     @Override
     public PDone expand(PCollection<String> input) {
       ConnectionConfiguration connectionConfiguration = getConnectionConfiguration();
@@ -1371,6 +1438,26 @@ public class ElasticsearchIO {
 
       private static final Duration RETRY_INITIAL_BACKOFF = Duration.standardSeconds(5);
 
+      private static final int TOO_MANY_REQUESTS = 429;
+
+      private static final byte[] EMPTY_METADATA = utf8("{}");
+      private static final byte[] DELETE_ACTION = utf8("{ \"delete\" : ");
+      private static final byte[] UPDATE_ACTION = utf8("{ \"update\" : ");
+      private static final byte[] INDEX_ACTION = utf8("{ \"index\" : ");
+      private static final byte[] CREATE_ACTION = utf8("{ \"create\" : ");
+      private static final byte[] ACTION_END = utf8(" }\n");
+      private static final byte[] PARTIAL_UPDATE_START = utf8("{ \"doc\" : ");
+      private static final byte[] PARTIAL_UPDATE_END = utf8(", \"doc_as_upsert\" : true }\n");
+      private static final byte[] NEW_LINE = utf8("\n");
+
+      // Delays the retries of asynchronous bulk requests, which must not block the client threads.
+      private static final ScheduledExecutorService RETRY_SCHEDULER =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("elasticsearch-bulk-retry-%d")
+                  .build());
+
       @VisibleForTesting
       static final String RETRY_ATTEMPT_LOG = "Error writing to Elasticsearch. Retry attempt[%d]";
 
@@ -1383,9 +1470,19 @@ public class ElasticsearchIO {
       private int backendVersion;
       private final Write spec;
       private transient RestClient restClient;
-      private ArrayList<String> batch;
+      private transient String bulkEndpoint;
+      // The NDJSON body of the current batch, reused from one batch to the next.
+      private transient ByteArrayOutputStream bulkBuffer;
+      // Offset in bulkBuffer of each bulk action of the current batch.
+      private transient List<Integer> actionOffsets;
       private long currentBatchSizeBytes;
 
+      // Asynchronous bulk requests, only used when more than one request may be in flight.
+      private transient Semaphore bulkRequestPermits;
+      private transient Semaphore bytesInFlightPermits;
+      private transient int maxBytesInFlight;
+      private transient BundleBulkRequests bundleBulkRequests;
+
       // Encapsulates the elements which form the metadata for an Elasticsearch bulk operation
       private static class DocumentMetadata implements Serializable {
         final String index;
@@ -1406,19 +1503,58 @@ public class ElasticsearchIO {
         this.spec = spec;
       }
 
+      /** The asynchronous bulk requests sent by one bundle and the first failure among them. */
+      private static class BundleBulkRequests {
+        private final Set<AsyncBulkRequest> pending = ConcurrentHashMap.newKeySet();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+      }
+
       @Setup
       public void setup() throws IOException {
         ConnectionConfiguration connectionConfiguration = spec.getConnectionConfiguration();
-        backendVersion = getBackendVersion(connectionConfiguration);
-        restClient = connectionConfiguration.createClient();
+        setup(
+            getBackendVersion(connectionConfiguration),
+            connectionConfiguration.createClient(),
+            RETRY_INITIAL_BACKOFF);
+      }
+
+      @VisibleForTesting
+      void setup(int backendVersion, RestClient restClient, Duration retryInitialBackoff) {
+        ConnectionConfiguration connectionConfiguration = spec.getConnectionConfiguration();
+        this.backendVersion = backendVersion;
+        this.restClient = restClient;
+        // Elasticsearch will default to the index/type provided here if none are set in the
+        // document meta (i.e. using ElasticsearchIO$Write#withIndexFn and
+        // ElasticsearchIO$Write#withTypeFn options)
+        if (backendVersion < 7) {
+          bulkEndpoint =
+              String.format(
+                  "/%s/%s/_bulk",
+                  connectionConfiguration.getIndex(), connectionConfiguration.getType());
+        } else {
+          bulkEndpoint = String.format("/%s/_bulk", connectionConfiguration.getIndex());
+        }
+        bulkBuffer = new ByteArrayOutputStream();
+        actionOffsets = new ArrayList<>();
+
+        if (spec.getMaxConcurrentBulkRequests() > 1) {
+          long bytesInFlight =
+              spec.getMaxBytesInFlight() != null
+                  ? spec.getMaxBytesInFlight()
+                  : spec.getMaxConcurrentBulkRequests() * spec.getMaxBatchSizeBytes();
+          maxBytesInFlight = (int) Math.min(bytesInFlight, Integer.MAX_VALUE);
+          bulkRequestPermits = new Semaphore(spec.getMaxConcurrentBulkRequests());
+          bytesInFlightPermits = new Semaphore(maxBytesInFlight);
+          bundleBulkRequests = new BundleBulkRequests();
+        }
 
         retryBackoff =
-            FluentBackoff.DEFAULT.withMaxRetries(0).withInitialBackoff(RETRY_INITIAL_BACKOFF);
+            FluentBackoff.DEFAULT.withMaxRetries(0).withInitialBackoff(retryInitialBackoff);
 
         if (spec.getRetryConfiguration() != null) {
           retryBackoff =
               FluentBackoff.DEFAULT
-                  .withInitialBackoff(RETRY_INITIAL_BACKOFF)
+                  .withInitialBackoff(retryInitialBackoff)
                   .withMaxRetries(spec.getRetryConfiguration().getMaxAttempts() - 1)
                   .withMaxCumulativeBackoff(spec.getRetryConfiguration().getMaxDuration());
         }
@@ -1432,8 +1568,16 @@ public class ElasticsearchIO {
 
       @StartBundle
       public void startBundle(StartBundleContext context) {
-        batch = new ArrayList<>();
+        bulkBuffer.reset();
+        actionOffsets.clear();
         currentBatchSizeBytes = 0;
+        if (bundleBulkRequests != null) {
+          // Requests still in flight were sent by a bundle which failed. They are cancelled so
+          // that they stop retrying and release their permits, and the requests of this bundle are
+          // tracked apart, so that late responses of the old ones are not recorded against it.
+          cancelBulkRequests();
+          bundleBulkRequests = new BundleBulkRequests();
+        }
       }
 
       private class DocumentMetadataSerializer extends StdSerializer<DocumentMetadata> {
@@ -1478,7 +1622,7 @@ public class ElasticsearchIO {
        * @return the document address as JSON or the default
        * @throws IOException if the document cannot be parsed as JSON
        */
-      private String getDocumentMetadata(JsonNode parsedDocument) throws IOException {
+      private byte[] getDocumentMetadata(JsonNode parsedDocument) throws IOException {
         DocumentMetadata metadata =
             new DocumentMetadata(
                 spec.getIndexFn() != null
@@ -1487,17 +1631,21 @@ public class ElasticsearchIO {
                 spec.getTypeFn() != null ? spec.getTypeFn().apply(parsedDocument) : null,
                 spec.getIdFn() != null ? spec.getIdFn().apply(parsedDocument) : null,
                 spec.getUsePartialUpdate() ? DEFAULT_RETRY_ON_CONFLICT : null);
-        return OBJECT_MAPPER.writeValueAsString(metadata);
+        return OBJECT_MAPPER.writeValueAsBytes(metadata);
       }
 
       private static String lowerCaseOrNull(String input) {
         return input == null ? null : input.toLowerCase();
       }
 
+      private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+      }
+
       @ProcessElement
       public void processElement(ProcessContext context) throws Exception {
         String document = context.element(); // use configuration and auto-generated document IDs
-        String documentMetadata = "{}";
+        byte[] documentMetadata = EMPTY_METADATA;
         boolean isDelete = false;
         if (spec.getIndexFn() != null || spec.getTypeFn() != null || spec.getIdFn() != null) {
           // parse once and reused for efficiency
@@ -1507,36 +1655,40 @@ public class ElasticsearchIO {
             isDelete = spec.getIsDeleteFn().apply(parsedDocument);
           }
         }
-        long docSizeBytes = document.getBytes(StandardCharsets.UTF_8).length;
+        byte[] documentBytes = utf8(document);
+        long docSizeBytes = documentBytes.length;
         long newBatchSizeBytes = currentBatchSizeBytes + docSizeBytes;
         if (newBatchSizeBytes > spec.getMaxBatchSizeBytes()) {
           flushBatch();
         }
 
+        actionOffsets.add(bulkBuffer.size());
         if (isDelete) {
           // delete request used for deleting a document.
-          batch.add(String.format("{ \"delete\" : %s }%n", documentMetadata));
+          writeAction(DELETE_ACTION, documentMetadata);
         } else {
           // index is an insert/upsert and update is a partial update (or insert if not existing)
           if (spec.getUsePartialUpdate()) {
-            batch.add(
-                String.format(
-                    "{ \"update\" : %s }%n{ \"doc\" : %s, \"doc_as_upsert\" : true }%n",
-                    documentMetadata, document));
+            writeAction(UPDATE_ACTION, documentMetadata);
+            bulkBuffer.write(PARTIAL_UPDATE_START);
+            bulkBuffer.write(documentBytes);
+            bulkBuffer.write(PARTIAL_UPDATE_END);
           } else {
             if (spec.getBulkInsertMethod() == BulkInsertMethodOptions.INDEX) {
               // index allows upsert of document with same _id as existing document
-              batch.add(String.format("{ \"index\" : %s }%n%s%n", documentMetadata, document));
+              writeAction(INDEX_ACTION, documentMetadata);
             } else {
               // create will error if document with same _id already exists
-              batch.add(String.format("{ \"create\" : %s }%n%s%n", documentMetadata, document));
+              writeAction(CREATE_ACTION, documentMetadata);
             }
+            bulkBuffer.write(documentBytes);
+            bulkBuffer.write(NEW_LINE);
           }
         }
 
         currentBatchSizeBytes += docSizeBytes;
 
-        if (batch.size() >= spec.getMaxBatchSize()
+        if (actionOffsets.size() >= spec.getMaxBatchSize()
             || currentBatchSizeBytes >= spec.getMaxBatchSizeBytes()) {
           flushBatch();
         }
@@ -1546,45 +1698,57 @@ public class ElasticsearchIO {
       public void finishBundle(FinishBundleContext context)
           throws IOException, InterruptedException {
         flushBatch();
+        if (bundleBulkRequests != null) {
+          try {
+            CompletableFuture.allOf(
+                    bundleBulkRequests.pending.stream()
+                        .map(request -> request.result)
+                        .toArray(CompletableFuture<?>[]::new))
+                .join();
+          } catch (CompletionException e) {
+            bundleBulkRequests.failure.compareAndSet(null, e.getCause());
+          }
+          checkBulkRequestFailure();
+        }
+      }
+
+      private void writeAction(byte[] action, byte[] documentMetadata) throws IOException {
+        bulkBuffer.write(action);
+        bulkBuffer.write(documentMetadata);
+        bulkBuffer.write(ACTION_END);
       }
 
       private boolean isRetryableClientException(Throwable t) {
         // RestClient#performRequest only throws wrapped IOException so we must inspect the
         // exception cause to determine if the exception is likely transient i.e. retryable or
         // not.
-        return t.getCause() instanceof ConnectTimeoutException
-            || t.getCause() instanceof SocketTimeoutException
-            || t.getCause() instanceof ConnectionClosedException
-            || t.getCause() instanceof ConnectException;
+        return isTransientFailure(t.getCause());
+      }
+
+      private static boolean isTransientFailure(Throwable t) {
+        return t instanceof ConnectTimeoutException
+            || t instanceof SocketTimeoutException
+            || t instanceof ConnectionClosedException
+            || t instanceof ConnectException;
       }
 
       private void flushBatch() throws IOException, InterruptedException {
-        if (batch.isEmpty()) {
+        if (actionOffsets.isEmpty()) {
           return;
         }
-        StringBuilder bulkRequest = new StringBuilder();
-        for (String json : batch) {
-          bulkRequest.append(json);
-        }
-        batch.clear();
+        byte[] body = bulkBuffer.toByteArray();
+        int[] offsets = actionOffsets.stream().mapToInt(Integer::intValue).toArray();
+        bulkBuffer.reset();
+        actionOffsets.clear();
         currentBatchSizeBytes = 0;
+        if (bundleBulkRequests != null) {
+          sendAsync(body, offsets);
+          return;
+        }
         Response response = null;
         HttpEntity responseEntity = null;
-        // Elasticsearch will default to the index/type provided here if none are set in the
-        // document meta (i.e. using ElasticsearchIO$Write#withIndexFn and
-        // ElasticsearchIO$Write#withTypeFn options)
-        String endPoint;
-        if (backendVersion < 7) {
-          endPoint =
-              String.format(
-                  "/%s/%s/_bulk",
-                  spec.getConnectionConfiguration().getIndex(),
-                  spec.getConnectionConfiguration().getType());
-        } else {
-          endPoint = String.format("/%s/_bulk", spec.getConnectionConfiguration().getIndex());
-        }
-        HttpEntity requestBody =
-            new NStringEntity(bulkRequest.toString(), ContentType.APPLICATION_JSON);
+        String endPoint = bulkEndpoint;
+        HttpEntity requestBody = new NByteArrayEntity(body, ContentType.APPLICATION_JSON);
         try {
           Request request = new Request("POST", endPoint);
           request.addParameters(Collections.emptyMap());
@@ -1645,8 +1809,207 @@ public class ElasticsearchIO {
         throw new IOException(String.format(RETRY_FAILED_LOG, attempt));
       }
 
+      /**
+       * Sends a bulk request without waiting for its response, once the number of bulk requests and
+       * bytes in flight allows it.
+       */
+      @VisibleForTesting
+      void sendAsync(byte[] body, int[] offsets) throws IOException, InterruptedException {
+        checkBulkRequestFailure();
+        int bytes = Math.min(body.length, maxBytesInFlight);
+        bulkRequestPermits.acquire();
+        try {
+          bytesInFlightPermits.acquire(bytes);
+        } catch (InterruptedException e) {
+          bulkRequestPermits.release();
+          throw e;
+        }
+        BundleBulkRequests requests = bundleBulkRequests;
+        AsyncBulkRequest request = new AsyncBulkRequest(body, offsets);
+        requests.pending.add(request);
+        request.result.whenComplete(
+            (r, e) -> {
+              if (e != null) {
+                requests.failure.compareAndSet(null, e);
+              }
+              requests.pending.remove(request);
+              bytesInFlightPermits.release(bytes);
+              bulkRequestPermits.release();
+            });
+        request.send();
+      }
+
+      /**
+       * Surfaces the first failure of the asynchronous bulk requests of the bundle, after
+       * cancelling the other requests of the bundle.
+       */
+      private void checkBulkRequestFailure() throws IOException {
+        Throwable failure = bundleBulkRequests.failure.get();
+        if (failure != null) {
+          cancelBulkRequests();
+        }
+        if (failure instanceof IOException) {
+          throw (IOException) failure;
+        } else if (failure != null) {
+          throw new IOException("Error writing to Elasticsearch", failure);
+        }
+      }
+
+      /** Cancels the asynchronous bulk requests of the bundle which are still in flight. */
+      private void cancelBulkRequests() {
+        for (AsyncBulkRequest request : bundleBulkRequests.pending) {
+          request.cancel();
+        }
+      }
+
+      /**
+       * A bulk request sent asynchronously. When retrying is configured, the documents rejected
+       * with 429 HTTP status code, or the whole request on a transient failure, are sent again
+       * after a backoff until the request completes or the retries are exhausted.
+       */
+      @VisibleForTesting
+      class AsyncBulkRequest implements ResponseListener {
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private final BackOff backoff;
+        private byte[] requestBody;
+        // Offset in requestBody of each bulk action, matching the items of the response.
+        private int[] requestActionOffsets;
+        private int attempt;
+        // The attempt in flight, if any.
+        private volatile Cancellable cancellable;
+
+        AsyncBulkRequest(byte[] body, int[] actionOffsets) {
+          this.requestBody = body;
+          this.requestActionOffsets = actionOffsets;
+          this.backoff = retryBackoff.backoff();
+        }
+
+        void send() {
+          if (result.isDone()) {
+            // Cancelled while waiting to be retried.
+            return;
+          }
+          try {
+            Request request = new Request("POST", bulkEndpoint);
+            request.setEntity(new NByteArrayEntity(requestBody, ContentType.APPLICATION_JSON));
+            cancellable = restClient.performRequestAsync(request, this);
+          } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+          }
+        }
+
+        /** Stops the request, which completes with a {@link CancellationException}. */
+        void cancel() {
+          result.completeExceptionally(
+              new CancellationException("Bulk request cancelled after a failure of its bundle"));
+          Cancellable attemptInFlight = cancellable;
+          if (attemptInFlight != null) {
+            attemptInFlight.cancel();
+          }
+        }
+
+        @VisibleForTesting
+        CompletableFuture<Void> getResult() {
+          return result;
+        }
+
+        @Override
+        public void onSuccess(Response response) {
+          try {
+            JsonNode searchResult = parseResponse(response.getEntity());
+            List<Integer> rejectedActions = getRejectedActions(searchResult);
+            if (rejectedActions.isEmpty()) {
+              checkForErrors(searchResult, spec.getUsePartialUpdate());
+              result.complete(null);
+            } else {
+              LOG.warn("ES Cluster is responding with HTP 429 - TOO_MANY_REQUESTS.");
+              retryActions(rejectedActions);
+            }
+          } catch (Exception e) {
+            result.completeExceptionally(e);
+          }
+        }
+
+        @Override
+        public void onFailure(Exception exception) {
+          if (spec.getRetryConfiguration() == null
+              || !(isTransientFailure(exception) || isTooManyRequests(exception))) {
+            result.completeExceptionally(exception);
+            return;
+          }
+          LOG.error("Caught ES failure, retrying", exception);
+          try {
+            retryAfterBackoff();
+          } catch (Exception e) {
+            result.completeExceptionally(e);
+          }
+        }
+
+        /**
+         * Returns the indices of the bulk actions rejected with 429 HTTP status code, or an empty
+         * list if there are none or the response has errors which are not retried.
+         */
+        @VisibleForTesting
+        List<Integer> getRejectedActions(JsonNode searchResult) {
+          JsonNode items = searchResult.path("items");
+          if (spec.getRetryConfiguration() == null
+              || !searchResult.path("errors").asBoolean()
+              || items.size() != requestActionOffsets.length) {
+            return Collections.emptyList();
+          }
+          List<Integer> rejectedActions = new ArrayList<>();
+          for (int i = 0; i < items.size(); i++) {
+            JsonNode item = items.get(i);
+            JsonNode status = item.findValue("status");
+            if (status != null && status.asInt() == TOO_MANY_REQUESTS) {
+              rejectedActions.add(i);
+            } else if (item.findValue("error") != null) {
+              return Collections.emptyList();
+            }
+          }
+          return rejectedActions;
+        }
+
+        @VisibleForTesting
+        void retryActions(List<Integer> actions) throws IOException {
+          ByteArrayOutputStream retryBody = new ByteArrayOutputStream();
+          int[] retryActionOffsets = new int[actions.size()];
+          for (int i = 0; i < actions.size(); i++) {
+            int action = actions.get(i);
+            int start = requestActionOffsets[action];
+            int end =
+                action + 1 < requestActionOffsets.length
+                    ? requestActionOffsets[action + 1]
+                    : requestBody.length;
+            retryActionOffsets[i] = retryBody.size();
+            retryBody.write(requestBody, start, end - start);
+          }
+          requestBody = retryBody.toByteArray();
+          requestActionOffsets = retryActionOffsets;
+          retryAfterBackoff();
+        }
+
+        private void retryAfterBackoff() throws IOException {
+          long backoffMillis = backoff.nextBackOffMillis();
+          if (backoffMillis == BackOff.STOP) {
+            throw new IOException(String.format(RETRY_FAILED_LOG, attempt));
+          }
+          LOG.warn(String.format(RETRY_ATTEMPT_LOG, ++attempt));
+          RETRY_SCHEDULER.schedule(this::send, backoffMillis, TimeUnit.MILLISECONDS);
+        }
+      }
+
+      private static boolean isTooManyRequests(Exception exception) {
+        return exception instanceof ResponseException
+            && ((ResponseException) exception).getResponse().getStatusLine().getStatusCode()
+                == TOO_MANY_REQUESTS;
+      }
+
       @Teardown
       public void closeClient() throws IOException {
+        if (bundleBulkRequests != null) {
+          cancelBulkRequests();
+        }
         if (restClient != null) {
           restClient.close();
         }
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.elasticsearch.utils;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.teleport.v2.elasticsearch.utils.ElasticsearchIO.ConnectionConfiguration;
+import com.google.cloud.teleport.v2.elasticsearch.utils.ElasticsearchIO.RetryConfiguration;
+import com.google.cloud.teleport.v2.elasticsearch.utils.ElasticsearchIO.Write;
+import com.google.cloud.teleport.v2.elasticsearch.utils.ElasticsearchIO.Write.WriteFn;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.client.Cancellable;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.RestClient;
+import org.joda.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+
+/** Tests for the asynchronous bulk requests of {@link WriteFn}. */
+@RunWith(JUnit4.class)
+public class ElasticsearchIOWriteFnTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final String FIRST_ACTION = "{ \"index\" : {} }\n{\"id\":1}\n";
+  private static final String SECOND_ACTION = "{ \"index\" : {} }\n{\"id\":2}\n";
+  private static final String THIRD_ACTION = "{ \"index\" : {} }\n{\"id\":3}\n";
+
+  private static final String SUCCESS_RESPONSE =
+      "{\"errors\":false,\"items\":[{\"index\":{\"status\":201}}]}";
+
+  private RestClient restClient;
+  // Listeners of the bulk requests sent to restClient, in the order they were sent.
+  private List<ResponseListener> listeners;
+  private List<Cancellable> cancellables;
+
+  @Before
+  public void setUp() {
+    restClient = mock(RestClient.class);
+    listeners = new CopyOnWriteArrayList<>();
+    cancellables = new CopyOnWriteArrayList<>();
+    when(restClient.performRequestAsync(any(Request.class), any(ResponseListener.class)))
+        .thenAnswer(
+            invocation -> {
+              listeners.add(invocation.getArgument(1));
+              Cancellable cancellable = mock(Cancellable.class);
+              cancellables.add(cancellable);
+              return cancellable;
+            });
+  }
+
+  @Test
+  public void testGetRejectedActions() throws IOException {
+    WriteFn writeFn = createWriteFn(2, true);
+    WriteFn.AsyncBulkRequest request = newRequest(writeFn);
+
+    assertThat(
+        request.getRejectedActions(
+            itemsResponse(true, "{\"index\":{\"status\":429,\"error\":{}}}", 201, 429)),
+        is(equalTo(Arrays.asList(0, 2))));
+    assertThat(
+        request.getRejectedActions(itemsResponse(false, null, 201, 201)),
+        is(equalTo(Collections.emptyList())));
+    // Errors which are not retried are reported for the whole request.
+    assertThat(
+        request.getRejectedActions(
+            itemsResponse(true, "{\"index\":{\"status\":400,\"error\":{}}}", 201, 429)),
+        is(equalTo(Collections.emptyList())));
+  }
+
+  @Test
+  public void testGetRejectedActionsWithoutRetryConfiguration() throws IOException {
+    WriteFn writeFn = createWriteFn(2, false);
+
+    assertThat(
+        newRequest(writeFn)
+            .getRejectedActions(
+                itemsResponse(true, "{\"index\":{\"status\":429,\"error\":{}}}", 201, 429)),
+        is(equalTo(Collections.emptyList())));
+  }
+
+  @Test
+  public void testRetryActionsSendsOnlyRejectedActions() throws Exception {
+    WriteFn writeFn = createWriteFn(2, true);
+    WriteFn.AsyncBulkRequest request = newRequest(writeFn);
+
+    request.retryActions(Arrays.asList(0, 2));
+
+    assertThat(sentBodies(1).get(0), is(equalTo(FIRST_ACTION + THIRD_ACTION)));
+  }
+
+  @Test
+  public void testSendAsyncRetriesPartiallyRejectedRequest() throws Exception {
+    WriteFn writeFn = createWriteFn(2, true);
+    writeFn.startBundle(null);
+
+    writeFn.sendAsync(body(), offsets());
+    respond(
+        0,
+        "{\"errors\":true,\"items\":[{\"index\":{\"status\":201}},"
+            + "{\"index\":{\"status\":429,\"error\":{}}},{\"index\":{\"status\":201}}]}");
+    verify(restClient, timeout(10_000).times(2))
+        .performRequestAsync(any(Request.class), any(ResponseListener.class));
+    respond(1, SUCCESS_RESPONSE);
+    writeFn.finishBundle(null);
+
+    assertThat(sentBodies(2).get(1), is(equalTo(SECOND_ACTION)));
+  }
+
+  @Test
+  public void testSendAsyncLimitsConcurrentRequests() throws Exception {
+    WriteFn writeFn = createWriteFn(2, false);
+    writeFn.startBundle(null);
+    writeFn.sendAsync(body(), offsets());
+    writeFn.sendAsync(body(), offsets());
+
+    CompletableFuture<Void> thirdRequest =
+        CompletableFuture.runAsync(
+            () -> {
+              try {
+                writeFn.sendAsync(body(), offsets());
+              } catch (Exception e) {
+                throw new RuntimeException(e);
+              }
+            });
+    Thread.sleep(100);
+
+    // The third request waits for one of the two requests in flight to complete.
+    assertThat(thirdRequest.isDone(), is(false));
+    verify(restClient, times(2))
+        .performRequestAsync(any(Request.class), any(ResponseListener.class));
+    respond(0, SUCCESS_RESPONSE);
+    thirdRequest.get(10, TimeUnit.SECONDS);
+    verify(restClient, times(3))
+        .performRequestAsync(any(Request.class), any(ResponseListener.class));
+  }
+
+  @Test
+  public void testFinishBundleThrowsFailureOfRequest() throws Exception {
+    WriteFn writeFn = createWriteFn(2, false);
+    writeFn.startBundle(null);
+    writeFn.sendAsync(body(), offsets());
+    writeFn.sendAsync(body(), offsets());
+
+    listeners.get(0).onFailure(new IOException("Bulk request failed"));
+    respond(1, SUCCESS_RESPONSE);
+
+    IOException exception = assertThrows(IOException.class, () -> writeFn.finishBundle(null));
+    assertThat(exception.getMessage(), is(equalTo("Bulk request failed")));
+  }
+
+  @Test
+  public void testSendAsyncThrowsFailureOfEarlierRequestAndCancelsOthers() throws Exception {
+    WriteFn writeFn = createWriteFn(3, false);
+    writeFn.startBundle(null);
+    writeFn.sendAsync(body(), offsets());
+    writeFn.sendAsync(body(), offsets());
+
+    listeners.get(0).onFailure(new IOException("Bulk request failed"));
+
+    assertThrows(IOException.class, () -> writeFn.sendAsync(body(), offsets()));
+    // The second request, still in flight, is cancelled and no third request is sent.
+    verify(restClient, times(2))
+        .performRequestAsync(any(Request.class), any(ResponseListener.class));
+    verify(cancellables.get(1)).cancel();
+  }
+
+  @Test
+  public void testStartBundleCancelsRequestsOfFailedBundle() throws Exception {
+    WriteFn writeFn = createWriteFn(2, false);
+    writeFn.startBundle(null);
+    writeFn.sendAsync(body(), offsets());
+    WriteFn.AsyncBulkRequest oldRequest = (WriteFn.AsyncBulkRequest) listeners.get(0);
+
+    // The bundle fails without finishing, and the next one starts.
+    writeFn.startBundle(null);
+    assertTrue(oldRequest.getResult().isCancelled());
+    verify(cancellables.get(0)).cancel();
+
+    // A late failure of the old request is not recorded against the new bundle.
+    oldRequest.onFailure(new IOException("Bulk request failed"));
+    writeFn.sendAsync(body(), offsets());
+    respond(1, SUCCESS_RESPONSE);
+    writeFn.finishBundle(null);
+  }
+
+  private WriteFn createWriteFn(int maxConcurrentBulkRequests, boolean retry) {
+    Write write =
+        ElasticsearchIO.write()
+            .withConnectionConfiguration(
+                ConnectionConfiguration.create(
+                    new String[] {"http://localhost:9200"}, "index", "_doc", "test"))
+            .withMaxConcurrentBulkRequests(maxConcurrentBulkRequests);
+    if (retry) {
+      write =
+          write.withRetryConfiguration(RetryConfiguration.create(3, Duration.standardMinutes(1)));
+    }
+    WriteFn writeFn = new WriteFn(write);
+    writeFn.setup(7, restClient, Duration.millis(1));
+    return writeFn;
+  }
+
+  private static WriteFn.AsyncBulkRequest newRequest(WriteFn writeFn) {
+    return writeFn.new AsyncBulkRequest(body(), offsets());
+  }
+
+  private static byte[] body() {
+    return (FIRST_ACTION + SECOND_ACTION + THIRD_ACTION).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static int[] offsets() {
+    return new int[] {0, FIRST_ACTION.length(), FIRST_ACTION.length() + SECOND_ACTION.length()};
+  }
+
+  /** Returns a bulk response whose items have the given status codes, or the given item. */
+  private static JsonNode itemsResponse(boolean errors, String firstItem, int... statuses)
+      throws IOException {
+    List<String> items = new ArrayList<>();
+    if (firstItem != null) {
+      items.add(firstItem);
+    }
+    for (int status : statuses) {
+      items.add(
+          status == 429
+              ? "{\"index\":{\"status\":429,\"error\":{}}}"
+              : "{\"index\":{\"status\":" + status + "}}");
+    }
+    return MAPPER.readTree(
+        "{\"errors\":" + errors + ",\"items\":[" + String.join(",", items) + "]}");
+  }
+
+  private void respond(int request, String body) throws IOException {
+    Response response = mock(Response.class);
+    when(response.getEntity()).thenReturn(new StringEntity(body, ContentType.APPLICATION_JSON));
+    listeners.get(request).onSuccess(response);
+  }
+
+  private List<String> sentBodies(int count) throws IOException {
+    ArgumentCaptor<Request> requests = ArgumentCaptor.forClass(Request.class);
+    verify(restClient, timeout(10_000).times(count))
+        .performRequestAsync(requests.capture(), any(ResponseListener.class));
+    List<String> bodies = new ArrayList<>();
+    for (Request request : requests.getAllValues()) {
+      bodies.add(EntityUtils.toString(request.getEntity(), StandardCharsets.UTF_8));
+    }
+    return bodies;
+  }
+}
@@ -24,11 +24,16 @@ import com.google.cloud.teleport.v2.spanner.utils.MigrationTransformationRespons
 import com.google.cloud.teleport.v2.templates.common.TrimmedShardedDataChangeRecord;
 import com.google.cloud.teleport.v2.templates.dao.MySqlDao;
 import com.google.cloud.teleport.v2.templates.processing.dml.DMLGenerator;
+import java.sql.SQLException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.apache.beam.sdk.metrics.Counter;
 import org.apache.beam.sdk.metrics.Distribution;
 import org.apache.beam.sdk.metrics.Metrics;
@@ -38,11 +43,25 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** For the list of input records, parses and commits them to source DB. */
+/**
+ * For the list of input records, parses and commits them to source DB. The statements are written
+ * in chunks, each chunk being written while the statements of the next one are generated.
+ */
 public class InputRecordProcessor {
 
   private static final Logger LOG = LoggerFactory.getLogger(InputRecordProcessor.class);
 
+  /** Maximum number of statements written to the source in one batch. */
+  private static final int DML_BATCH_SIZE = 1000;
+
+  private static final ExecutorService WRITE_EXECUTOR =
+      Executors.newCachedThreadPool(
+          runnable -> {
+            Thread thread = new Thread(runnable, "source-batch-writer");
+            thread.setDaemon(true);
+            return thread;
+          });
+
   private static List<TrimmedShardedDataChangeRecord> filteredEvents;
   private static final Distribution applyCustomTransformationResponseTimeMetric =
       Metrics.distribution(
@@ -64,6 +83,7 @@ public class InputRecordProcessor {
       String sourceDbTimezoneOffset,
       ISpannerMigrationTransformer spannerToSourceTransformer) {
 
+    CompletableFuture<Void> pendingWrite = CompletableFuture.completedFuture(null);
     try {
       boolean capturedlagMetric = false;
       long replicationLag = 0L;
@@ -76,6 +96,7 @@ public class InputRecordProcessor {
           Metrics.distribution(shardId, "replication_lag_in_seconds_" + shardId);
       filteredEvents = new ArrayList<>();
       List<String> dmlBatch = new ArrayList<>();
+      Instant daoStartTime = Instant.now();
       for (TrimmedShardedDataChangeRecord chrec : recordList) {
         String tableName = chrec.getTableName();
         String modType = chrec.getModType().name();
@@ -121,6 +142,10 @@ public class InputRecordProcessor {
         if (!dmlStatement.isEmpty()) {
           dmlBatch.add(dmlStatement);
         }
+        if (dmlBatch.size() >= DML_BATCH_SIZE) {
+          pendingWrite = writeAfter(pendingWrite, dao, dmlBatch);
+          dmlBatch = new ArrayList<>();
+        }
         if (!capturedlagMetric) {
           /*
           The commit timestamp of the first record is chosen for lag calculation
@@ -134,13 +159,15 @@ public class InputRecordProcessor {
       }
       setFilteredEvents(filteredEvents);
 
-      Instant daoStartTime = Instant.now();
-      dao.batchWrite(dmlBatch);
+      awaitWrite(pendingWrite);
+      if (!dmlBatch.isEmpty()) {
+        dao.batchWrite(dmlBatch);
+      }
       Instant daoEndTime = Instant.now();
       LOG.info(
           "Shard "
               + shardId
-              + ": Write to mysql for "
+              + ": Processing and write to mysql for "
               + recordList.size()
               + " took : "
               + ChronoUnit.MILLIS.between(daoStartTime, daoEndTime)
@@ -163,6 +190,39 @@ public class InputRecordProcessor {
           shardId,
           ExceptionUtils.getStackTrace(e));
       throw new RuntimeException("Failed to process records: ", e);
+    } finally {
+      // Do not leave a chunk being written in the background on failure.
+      pendingWrite.exceptionally(e -> null).join();
+    }
+  }
+
+  /**
+   * Writes a chunk of statements once the previous chunk is written, without waiting for it. This
+   * lets the statements of the next chunk be generated while the current chunk is written, with at
+   * most one chunk being written at a time so that the statements are applied in order.
+   */
+  private static CompletableFuture<Void> writeAfter(
+      CompletableFuture<Void> previousWrite, MySqlDao dao, List<String> dmlBatch) throws Exception {
+    awaitWrite(previousWrite);
+    return CompletableFuture.runAsync(
+        () -> {
+          try {
+            dao.batchWrite(dmlBatch);
+          } catch (SQLException e) {
+            throw new CompletionException(e);
+          }
+        },
+        WRITE_EXECUTOR);
+  }
+
+  private static void awaitWrite(CompletableFuture<Void> write) throws Exception {
+    try {
+      write.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
     }
   }
 }
@@ -19,8 +19,11 @@ import com.google.cloud.Timestamp;
 import com.google.cloud.teleport.v2.templates.common.ProcessingContext;
 import com.google.cloud.teleport.v2.templates.common.TrimmedShardedDataChangeRecord;
 import com.google.cloud.teleport.v2.templates.dao.SpannerDao;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -28,7 +31,6 @@ import java.io.InputStreamReader;
 import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import org.apache.beam.sdk.io.FileSystems;
@@ -51,6 +53,15 @@ public class GCSReader {
 
   private static final Logger LOG = LoggerFactory.getLogger(GCSReader.class);
 
+  // Gson instances are thread-safe, so one decoder is shared by all the readers.
+  private static final Gson GSON =
+      new GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.IDENTITY).create();
+
+  private static final Comparator<TrimmedShardedDataChangeRecord> RECORD_ORDER =
+      Comparator.comparing(TrimmedShardedDataChangeRecord::getCommitTimestamp)
+          .thenComparing(TrimmedShardedDataChangeRecord::getServerTransactionId)
+          .thenComparing(TrimmedShardedDataChangeRecord::getRecordSequence);
+
   public GCSReader(ProcessingContext taskContext, SpannerDao spannerDao) {
 
     String fileStartTime = taskContext.getStartTimestamp();
@@ -82,33 +93,13 @@ public class GCSReader {
     Get a JSON transform of the PCollection
     Sort the Collection on commitTs,serverTrxId and record sequence
      */
-    List<TrimmedShardedDataChangeRecord> changeStreamList = new ArrayList<>();
+    List<TrimmedShardedDataChangeRecord> changeStreamList;
     LOG.info("Reading from file, {}", fileName);
-    try (InputStream stream =
-        Channels.newInputStream(FileSystems.open(FileSystems.matchNewResource(fileName, false)))) {
-
-      BufferedReader reader =
-          new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
-      while (reader.ready()) {
-        String line = reader.readLine();
-        TrimmedShardedDataChangeRecord chrec =
-            new GsonBuilder()
-                .setFieldNamingPolicy(FieldNamingPolicy.IDENTITY)
-                .create()
-                .fromJson(line, TrimmedShardedDataChangeRecord.class);
-
-        changeStreamList.add(chrec);
-      }
-
-      Collections.sort(
-          changeStreamList,
-          Comparator.comparing(TrimmedShardedDataChangeRecord::getCommitTimestamp)
-              .thenComparing(TrimmedShardedDataChangeRecord::getServerTransactionId)
-              .thenComparing(TrimmedShardedDataChangeRecord::getRecordSequence));
-
+    try {
+      changeStreamList = readRecords(fileName);
       Metrics.counter(shardId, "file_read_" + shardId).inc();
 
-    } catch (com.fasterxml.jackson.core.JsonProcessingException ex) {
+    } catch (JsonParseException ex) {
       throw new RuntimeException("Failed in processing the record ", ex);
     } catch (IOException e) {
       LOG.warn("File not found : " + fileName);
@@ -220,32 +211,11 @@ public class GCSReader {
     boolean found = false;
     List<TrimmedShardedDataChangeRecord> changeStreamList = new ArrayList<>();
     while (!found) {
-      try (InputStream stream =
-          Channels.newInputStream(
-              FileSystems.open(FileSystems.matchNewResource(fileName, false)))) {
-
-        BufferedReader reader =
-            new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
-        while (reader.ready()) {
-          String line = reader.readLine();
-          TrimmedShardedDataChangeRecord chrec =
-              new GsonBuilder()
-                  .setFieldNamingPolicy(FieldNamingPolicy.IDENTITY)
-                  .create()
-                  .fromJson(line, TrimmedShardedDataChangeRecord.class);
-
-          changeStreamList.add(chrec);
-        }
-
-        Collections.sort(
-            changeStreamList,
-            Comparator.comparing(TrimmedShardedDataChangeRecord::getCommitTimestamp)
-                .thenComparing(TrimmedShardedDataChangeRecord::getServerTransactionId)
-                .thenComparing(TrimmedShardedDataChangeRecord::getRecordSequence));
-
+      try {
+        changeStreamList = readRecords(fileName);
         Metrics.counter(shardId, "file_read_" + shardId).inc();
         found = true;
-      } catch (com.fasterxml.jackson.core.JsonProcessingException ex) {
+      } catch (JsonParseException ex) {
         throw new RuntimeException("Failed in processing the record ", ex);
       } catch (IOException e) {
         LOG.warn("Waiting for file : " + fileName);
@@ -261,6 +231,34 @@ public class GCSReader {
     return changeStreamList;
   }
 
+  /**
+   * Reads the change records of a file, sorted on commit timestamp, server transaction id and
+   * record sequence.
+   *
+   * <p>The file holds one JSON record per line. The lines are decoded one at a time, as they are
+   * read, by a shared decoder. Since the file is not written in commit order, all of its records
+   * are held for the sort.
+   */
+  @VisibleForTesting
+  static List<TrimmedShardedDataChangeRecord> readRecords(String fileName) throws IOException {
+    List<TrimmedShardedDataChangeRecord> changeStreamList = new ArrayList<>();
+    try (InputStream stream =
+            Channels.newInputStream(
+                FileSystems.open(FileSystems.matchNewResource(fileName, false)));
+        BufferedReader reader =
+            new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+      // Read till the end of the stream, ready() only tells if a read would not block.
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.isEmpty()) {
+          changeStreamList.add(GSON.fromJson(line, TrimmedShardedDataChangeRecord.class));
+        }
+      }
+    }
+    changeStreamList.sort(RECORD_ORDER);
+    return changeStreamList;
+  }
+
   public String getCurrentIntervalStart() {
     return currentIntervalStart.toString();
   }
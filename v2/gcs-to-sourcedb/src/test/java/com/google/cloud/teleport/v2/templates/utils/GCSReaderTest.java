@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.teleport.v2.templates.common.TrimmedShardedDataChangeRecord;
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.Mod;
+import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ModType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class GCSReaderTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void readRecordsSortsRecords() throws Exception {
+    List<String> lines = new ArrayList<>();
+    lines.add(toJson(getRecord(2, "txn2", "0")));
+    lines.add(toJson(getRecord(1, "txn1", "1")));
+    lines.add(toJson(getRecord(1, "txn1", "0")));
+    File file = temporaryFolder.newFile();
+    Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+
+    List<TrimmedShardedDataChangeRecord> records = GCSReader.readRecords(file.getPath());
+
+    assertEquals(3, records.size());
+    assertEquals(Timestamp.ofTimeSecondsAndNanos(1, 0), records.get(0).getCommitTimestamp());
+    assertEquals("0", records.get(0).getRecordSequence());
+    assertEquals("1", records.get(1).getRecordSequence());
+    assertEquals("txn2", records.get(2).getServerTransactionId());
+    assertEquals("{\"id\":1}", records.get(2).getMods().get(0).getKeysJson());
+  }
+
+  @Test
+  public void readRecordsEmptyFile() throws Exception {
+    File file = temporaryFolder.newFile();
+
+    assertEquals(0, GCSReader.readRecords(file.getPath()).size());
+  }
+
+  @Test
+  public void readRecordsFileNotFound() {
+    String fileName = new File(temporaryFolder.getRoot(), "missing.txt").getPath();
+
+    assertThrows(FileNotFoundException.class, () -> GCSReader.readRecords(fileName));
+  }
+
+  private static TrimmedShardedDataChangeRecord getRecord(
+      long commitSeconds, String serverTransactionId, String recordSequence) {
+    return new TrimmedShardedDataChangeRecord(
+        Timestamp.ofTimeSecondsAndNanos(commitSeconds, 0),
+        serverTransactionId,
+        recordSequence,
+        "Singers",
+        List.of(new Mod("{\"id\":1}", "{}", "{\"name\":\"name\"}")),
+        ModType.INSERT,
+        1,
+        "");
+  }
+
+  private static String toJson(TrimmedShardedDataChangeRecord record) {
+    return new Gson().toJson(record);
+  }
+}
@@ -247,4 +247,30 @@ public interface SpannerChangeStreamsToBigQueryOptions
   Boolean getDisableDlqRetries();
 
   void setDisableDlqRetries(Boolean value);
+
+  @TemplateParameter.Integer(
+      order = 20,
+      optional = true,
+      description = "Snapshot read batch size",
+      helpText =
+          "The maximum number of UPDATE mods of the same table and commit timestamp whose full rows"
+              + " are read from Spanner with a single snapshot read. The default value is `1`,"
+              + " which reads the row of each mod separately.")
+  @Default.Integer(1)
+  Integer getSnapshotReadBatchSize();
+
+  void setSnapshotReadBatchSize(Integer value);
+
+  @TemplateParameter.Integer(
+      order = 21,
+      optional = true,
+      description = "Snapshot read max wait milliseconds",
+      helpText =
+          "The maximum number of milliseconds a mod waits for its snapshot read batch to fill up"
+              + " before the batch is read. Only used when snapshotReadBatchSize is greater than"
+              + " `1`. The default value is `1000`.")
+  @Default.Integer(1000)
+  Integer getSnapshotReadMaxWaitMillis();
+
+  void setSnapshotReadMaxWaitMillis(Integer value);
 }
@@ -17,9 +17,7 @@ package com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery;
 
 import static org.apache.beam.sdk.util.Preconditions.checkStateNotNull;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.google.api.gax.grpc.GrpcCallContext;
 import com.google.api.gax.rpc.ApiCallContext;
 import com.google.api.services.bigquery.model.TableRow;
@@ -49,23 +47,36 @@ import io.grpc.MethodDescriptor;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerAccessor;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
 import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ModType;
 import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ValueCaptureType;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Distribution;
+import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PCollectionTuple;
 import org.apache.beam.sdk.values.TupleTag;
 import org.apache.beam.sdk.values.TupleTagList;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Throwables;
+import org.joda.time.Instant;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -110,7 +121,9 @@ public final class FailsafeModJsonToTableRowTransformer {
                           failsafeModJsonToTableRowOptions.getIgnoreFields(),
                           transformOut,
                           transformDeadLetterOut,
-                          failsafeModJsonToTableRowOptions.getUseStorageWriteApi()))
+                          failsafeModJsonToTableRowOptions.getUseStorageWriteApi(),
+                          failsafeModJsonToTableRowOptions.getSnapshotReadBatchSize(),
+                          failsafeModJsonToTableRowOptions.getSnapshotReadMaxWaitMillis()))
                   .withOutputTags(transformOut, TupleTagList.of(transformDeadLetterOut)));
       out.get(transformDeadLetterOut).setCoder(failsafeModJsonToTableRowOptions.getCoder());
       return out;
@@ -134,6 +147,23 @@ public final class FailsafeModJsonToTableRowTransformer {
       private transient boolean seenException;
       private Boolean useStorageWriteApi;
       private Dialect dialect;
+      private final int snapshotReadBatchSize;
+      private final long snapshotReadMaxWaitMillis;
+      // Mods of the current bundle waiting for a batched snapshot read.
+      private transient List<PendingSnapshotRead> pendingSnapshotReads;
+      private transient long firstPendingSnapshotReadMillis;
+
+      // Binds the mod JSON directly to a Mod, skipping the metadata fields added by the dead letter
+      // queue.
+      private static final ObjectReader MOD_READER =
+          Mod.readerIgnoringFields(BigQueryUtils.getBigQueryIntermediateMetadataFieldNames());
+
+      private static final Counter snapshotReads =
+          Metrics.counter(FailsafeModJsonToTableRowFn.class, "snapshot_reads");
+      private static final Distribution snapshotReadBatchSizes =
+          Metrics.distribution(FailsafeModJsonToTableRowFn.class, "snapshot_read_batch_size");
+      private static final Distribution snapshotReadLatencyMs =
+          Metrics.distribution(FailsafeModJsonToTableRowFn.class, "snapshot_read_latency_ms");
 
       public FailsafeModJsonToTableRowFn(
           SpannerConfig spannerConfig,
@@ -142,6 +172,26 @@ public final class FailsafeModJsonToTableRowTransformer {
           TupleTag<TableRow> transformOut,
           TupleTag<FailsafeElement<String, String>> transformDeadLetterOut,
           Boolean useStorageWriteApi) {
+        this(
+            spannerConfig,
+            spannerChangeStream,
+            ignoreFields,
+            transformOut,
+            transformDeadLetterOut,
+            useStorageWriteApi,
+            1,
+            0);
+      }
+
+      public FailsafeModJsonToTableRowFn(
+          SpannerConfig spannerConfig,
+          String spannerChangeStream,
+          ImmutableSet<String> ignoreFields,
+          TupleTag<TableRow> transformOut,
+          TupleTag<FailsafeElement<String, String>> transformDeadLetterOut,
+          Boolean useStorageWriteApi,
+          int snapshotReadBatchSize,
+          long snapshotReadMaxWaitMillis) {
         this.spannerConfig = spannerConfig;
         this.spannerChangeStream = spannerChangeStream;
         this.transformOut = transformOut;
@@ -149,6 +199,8 @@ public final class FailsafeModJsonToTableRowTransformer {
         this.ignoreFields = ignoreFields;
         this.useStorageWriteApi = useStorageWriteApi;
         this.dialect = getDialect(spannerConfig);
+        this.snapshotReadBatchSize = snapshotReadBatchSize;
+        this.snapshotReadMaxWaitMillis = snapshotReadMaxWaitMillis;
       }
 
       private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
@@ -193,62 +245,119 @@ public final class FailsafeModJsonToTableRowTransformer {
         spannerAccessor.close();
       }
 
+      @StartBundle
+      public void startBundle() {
+        pendingSnapshotReads = new ArrayList<>();
+      }
+
       @ProcessElement
-      public void processElement(ProcessContext context) {
+      public void processElement(ProcessContext context, BoundedWindow window) {
         FailsafeElement<String, String> failsafeModJsonString = context.element();
+        ModOutput output = getModOutput(context);
 
         try {
-          TableRow tableRow = modJsonStringToTableRow(failsafeModJsonString.getPayload());
-          for (String ignoreField : ignoreFields) {
-            if (tableRow.containsKey(ignoreField)) {
-              tableRow.remove(ignoreField);
+          PendingSnapshotRead snapshotRead =
+              modJsonStringToPendingSnapshotRead(failsafeModJsonString.getPayload());
+          if (snapshotRead.key != null && snapshotReadBatchSize > 1) {
+            snapshotRead.element = failsafeModJsonString;
+            snapshotRead.timestamp = context.timestamp();
+            snapshotRead.window = window;
+            if (pendingSnapshotReads.isEmpty()) {
+              firstPendingSnapshotReadMillis = System.currentTimeMillis();
+            }
+            pendingSnapshotReads.add(snapshotRead);
+            // Let the batch fill up till it is full or its oldest mod has waited long enough.
+            if (pendingSnapshotReads.size() >= snapshotReadBatchSize
+                || System.currentTimeMillis() - firstPendingSnapshotReadMillis
+                    >= snapshotReadMaxWaitMillis) {
+              flushSnapshotReads(r -> output);
             }
+            return;
           }
-          context.output(tableRow);
+          if (snapshotRead.key != null) {
+            readSpannerRowWithRetry(snapshotRead);
+          }
+          outputTableRow(snapshotRead.tableRow, output);
         } catch (Exception e) {
-          if (!seenException) {
-            LOG.error(
-                String.format(
-                    "Caught exception when processing element and storing into dead letter queue,"
-                        + " message: %s, cause: %s",
-                    Optional.ofNullable(e.getMessage()), e.getCause()));
-            seenException = true;
+          outputDeadLetter(failsafeModJsonString, e, output);
+        }
+      }
+
+      @FinishBundle
+      public void finishBundle(FinishBundleContext context) {
+        flushSnapshotReads(
+            snapshotRead ->
+                new ModOutput() {
+                  @Override
+                  public void output(TableRow tableRow) {
+                    context.output(tableRow, snapshotRead.timestamp, snapshotRead.window);
+                  }
+
+                  @Override
+                  public void outputDeadLetter(FailsafeElement<String, String> element) {
+                    context.output(
+                        transformDeadLetterOut,
+                        element,
+                        snapshotRead.timestamp,
+                        snapshotRead.window);
+                  }
+                });
+      }
+
+      private ModOutput getModOutput(ProcessContext context) {
+        return new ModOutput() {
+          @Override
+          public void output(TableRow tableRow) {
+            context.output(tableRow);
+          }
+
+          @Override
+          public void outputDeadLetter(FailsafeElement<String, String> element) {
+            context.output(transformDeadLetterOut, element);
+          }
+        };
+      }
+
+      private void outputTableRow(TableRow tableRow, ModOutput output) {
+        for (String ignoreField : ignoreFields) {
+          if (tableRow.containsKey(ignoreField)) {
+            tableRow.remove(ignoreField);
           }
-          context.output(
-              transformDeadLetterOut,
-              FailsafeElement.of(failsafeModJsonString)
-                  .setErrorMessage(e.getMessage())
-                  .setStacktrace(Throwables.getStackTraceAsString(e)));
         }
+        output.output(tableRow);
       }
 
-      private TableRow modJsonStringToTableRow(String modJsonString) {
-        String deadLetterMessage =
-            "check dead letter queue for unprocessed records that failed to be processed";
-        ObjectNode modObjectNode = null;
-        try {
-          modObjectNode = (ObjectNode) new ObjectMapper().readTree(modJsonString);
-        } catch (JsonProcessingException e) {
-          String errorMessage =
+      private void outputDeadLetter(
+          FailsafeElement<String, String> failsafeModJsonString, Exception e, ModOutput output) {
+        if (!seenException) {
+          LOG.error(
               String.format(
-                  "error parsing modJsonString input into %s; %s",
-                  ObjectNode.class, deadLetterMessage);
-          LOG.error(errorMessage);
-          throw new RuntimeException(errorMessage, e);
-        }
-        for (String excludeFieldName : BigQueryUtils.getBigQueryIntermediateMetadataFieldNames()) {
-          if (modObjectNode.has(excludeFieldName)) {
-            modObjectNode.remove(excludeFieldName);
-          }
+                  "Caught exception when processing element and storing into dead letter queue,"
+                      + " message: %s, cause: %s",
+                  Optional.ofNullable(e.getMessage()), e.getCause()));
+          seenException = true;
         }
+        output.outputDeadLetter(
+            FailsafeElement.of(failsafeModJsonString)
+                .setErrorMessage(e.getMessage())
+                .setStacktrace(Throwables.getStackTraceAsString(e)));
+      }
 
-        Mod mod = null;
+      /**
+       * Converts a mod JSON string to a {@link TableRow}. If the mod does not contain all the
+       * tracked columns, the returned {@link PendingSnapshotRead} has the key of the row to read
+       * the remaining columns from Spanner.
+       */
+      private PendingSnapshotRead modJsonStringToPendingSnapshotRead(String modJsonString) {
+        String deadLetterMessage =
+            "check dead letter queue for unprocessed records that failed to be processed";
+        Mod mod;
         try {
-          mod = Mod.fromJson(modObjectNode.toString());
+          mod = MOD_READER.readValue(modJsonString);
         } catch (IOException e) {
           String errorMessage =
               String.format(
-                  "error converting %s to %s; %s", ObjectNode.class, Mod.class, deadLetterMessage);
+                  "error parsing modJsonString input into %s; %s", Mod.class, deadLetterMessage);
           LOG.error(errorMessage);
           throw new RuntimeException(errorMessage, e);
         }
@@ -300,14 +409,14 @@ public final class FailsafeModJsonToTableRowTransformer {
         // For "DELETE" mod, we only set the key columns. For all non-key columns, we already
         // populated "null".
         if (mod.getModType() == ModType.INSERT || mod.getModType() == ModType.DELETE) {
-          return tableRow;
+          return new PendingSnapshotRead(tableRow);
         }
 
         // For "NEW_ROW" and "NEW_ROW_AND_OLD_VALUES" value capture types, we can get all columns
         // from mod.
         if (mod.getValueCaptureType() == ValueCaptureType.NEW_ROW
             || mod.getValueCaptureType() == ValueCaptureType.NEW_ROW_AND_OLD_VALUES) {
-          return tableRow;
+          return new PendingSnapshotRead(tableRow);
         }
 
         // For "UPDATE" mod, the Mod only contains the changed columns, unchanged tracked columns
@@ -321,10 +430,13 @@ public final class FailsafeModJsonToTableRowTransformer {
         // processed by the pipeline again, users should process the severe deadletter queue
         // themselves.
         Builder keyBuilder = com.google.cloud.spanner.Key.newBuilder();
+        Builder normalizedKeyBuilder = com.google.cloud.spanner.Key.newBuilder();
         for (TrackedSpannerColumn spannerColumn : spannerTable.getPkColumns()) {
           String spannerColumnName = spannerColumn.getName();
           if (keysJsonObject.has(spannerColumnName)) {
             SpannerChangeStreamsUtils.appendToSpannerKey(spannerColumn, keysJsonObject, keyBuilder);
+            SpannerChangeStreamsUtils.appendToNormalizedSpannerKey(
+                spannerColumn, keysJsonObject, normalizedKeyBuilder);
           } else {
             String errorMessage =
                 String.format(
@@ -336,22 +448,146 @@ public final class FailsafeModJsonToTableRowTransformer {
           }
         }
 
+        return new PendingSnapshotRead(
+            tableRow,
+            spannerTable,
+            keyBuilder.build(),
+            normalizedKeyBuilder.build(),
+            spannerCommitTimestamp);
+      }
+
+      /**
+       * Reads the full rows of the pending mods and outputs them. Mods of the same table and commit
+       * timestamp are read with a single multi-key snapshot read.
+       */
+      private void flushSnapshotReads(Function<PendingSnapshotRead, ModOutput> outputFn) {
+        if (pendingSnapshotReads == null || pendingSnapshotReads.isEmpty()) {
+          return;
+        }
+        Map<String, List<PendingSnapshotRead>> snapshotReadsByTableAndTimestamp =
+            new LinkedHashMap<>();
+        for (PendingSnapshotRead snapshotRead : pendingSnapshotReads) {
+          snapshotReadsByTableAndTimestamp
+              .computeIfAbsent(
+                  snapshotRead.spannerTable.getTableName() + "@" + snapshotRead.commitTimestamp,
+                  k -> new ArrayList<>())
+              .add(snapshotRead);
+        }
+        for (List<PendingSnapshotRead> snapshotReads : snapshotReadsByTableAndTimestamp.values()) {
+          readSpannerRows(snapshotReads);
+        }
+        for (PendingSnapshotRead snapshotRead : pendingSnapshotReads) {
+          ModOutput output = outputFn.apply(snapshotRead);
+          if (snapshotRead.error != null) {
+            outputDeadLetter(snapshotRead.element, snapshotRead.error, output);
+          } else {
+            outputTableRow(snapshotRead.tableRow, output);
+          }
+        }
+        pendingSnapshotReads = new ArrayList<>();
+      }
+
+      // Read the full rows of mods sharing the same table and commit timestamp. Mods whose row is
+      // not matched by the multi-key read fall back to a single-key read.
+      private void readSpannerRows(List<PendingSnapshotRead> snapshotReads) {
+        long startMillis = System.currentTimeMillis();
+        List<PendingSnapshotRead> unmatchedSnapshotReads = snapshotReads;
+        if (snapshotReads.size() > 1) {
+          try {
+            unmatchedSnapshotReads = readSpannerRowsWithRetry(snapshotReads);
+          } catch (Exception e) {
+            for (PendingSnapshotRead snapshotRead : snapshotReads) {
+              snapshotRead.error = e;
+            }
+            return;
+          }
+        }
+        for (PendingSnapshotRead snapshotRead : unmatchedSnapshotReads) {
+          try {
+            readSpannerRowWithRetry(snapshotRead);
+          } catch (Exception e) {
+            snapshotRead.error = e;
+          }
+        }
+        snapshotReadBatchSizes.update(snapshotReads.size());
+        snapshotReadLatencyMs.update(System.currentTimeMillis() - startMillis);
+      }
+
+      private List<PendingSnapshotRead> readSpannerRowsWithRetry(
+          List<PendingSnapshotRead> snapshotReads) {
+        TrackedSpannerTable spannerTable = snapshotReads.get(0).spannerTable;
+        List<TrackedSpannerColumn> spannerPkColumns = spannerTable.getPkColumns();
         List<TrackedSpannerColumn> spannerNonPkColumns = spannerTable.getNonPkColumns();
+        List<String> spannerColumnNames = new ArrayList<>();
+        spannerPkColumns.forEach(c -> spannerColumnNames.add(c.getName()));
+        spannerNonPkColumns.forEach(c -> spannerColumnNames.add(c.getName()));
+        KeySet.Builder keySetBuilder = KeySet.newBuilder();
+        Map<com.google.cloud.spanner.Key, List<PendingSnapshotRead>> snapshotReadsByKey =
+            new HashMap<>();
+        for (PendingSnapshotRead snapshotRead : snapshotReads) {
+          keySetBuilder.addKey(snapshotRead.key);
+          snapshotReadsByKey
+              .computeIfAbsent(snapshotRead.normalizedKey, k -> new ArrayList<>())
+              .add(snapshotRead);
+        }
+        KeySet keySet = keySetBuilder.build();
+        Set<com.google.cloud.spanner.Key> matchedKeys = new HashSet<>();
+        withSnapshotReadRetry(
+            () -> {
+              matchedKeys.clear();
+              readInCallContext(
+                  spannerTable.getTableName(),
+                  keySet,
+                  spannerColumnNames,
+                  snapshotReads.get(0).commitTimestamp,
+                  resultSet -> {
+                    while (resultSet.next()) {
+                      Builder keyBuilder = com.google.cloud.spanner.Key.newBuilder();
+                      for (TrackedSpannerColumn spannerPkColumn : spannerPkColumns) {
+                        SpannerChangeStreamsUtils.appendToNormalizedSpannerKey(
+                            spannerPkColumn, resultSet, keyBuilder);
+                      }
+                      com.google.cloud.spanner.Key key = keyBuilder.build();
+                      List<PendingSnapshotRead> matchedSnapshotReads = snapshotReadsByKey.get(key);
+                      if (matchedSnapshotReads == null) {
+                        continue;
+                      }
+                      for (PendingSnapshotRead snapshotRead : matchedSnapshotReads) {
+                        SpannerToBigQueryUtils.spannerCurrentRowToBigQueryTableRow(
+                            resultSet, spannerNonPkColumns, snapshotRead.tableRow);
+                      }
+                      matchedKeys.add(key);
+                    }
+                  });
+            });
+        return snapshotReads.stream()
+            .filter(r -> !matchedKeys.contains(r.normalizedKey))
+            .collect(Collectors.toList());
+      }
+
+      private void readSpannerRowWithRetry(PendingSnapshotRead snapshotRead) {
+        List<TrackedSpannerColumn> spannerNonPkColumns =
+            snapshotRead.spannerTable.getNonPkColumns();
         List<String> spannerNonPkColumnNames =
             spannerNonPkColumns.stream()
                 .map(spannerNonPkColumn -> spannerNonPkColumn.getName())
                 .collect(Collectors.toList());
+        withSnapshotReadRetry(
+            () ->
+                readSpannerRow(
+                    snapshotRead.spannerTable.getTableName(),
+                    snapshotRead.key,
+                    spannerNonPkColumns,
+                    spannerNonPkColumnNames,
+                    snapshotRead.commitTimestamp,
+                    snapshotRead.tableRow));
+      }
 
+      private void withSnapshotReadRetry(Runnable snapshotRead) {
         int retryCount = 0;
         while (true) {
           try {
-            readSpannerRow(
-                spannerTable.getTableName(),
-                keyBuilder.build(),
-                spannerNonPkColumns,
-                spannerNonPkColumnNames,
-                spannerCommitTimestamp,
-                tableRow);
+            snapshotRead.run();
             break;
           } catch (Exception e) {
             // Retry for maximum 3 times in case of transient error.
@@ -376,8 +612,6 @@ public final class FailsafeModJsonToTableRowTransformer {
             }
           }
         }
-
-        return tableRow;
       }
 
       // Do a Spanner read to retrieve full row. Schema can change while the pipeline is running.
@@ -388,6 +622,24 @@ public final class FailsafeModJsonToTableRowTransformer {
           List<String> spannerNonPkColumnNames,
           com.google.cloud.Timestamp spannerCommitTimestamp,
           TableRow tableRow) {
+        readInCallContext(
+            spannerTableName,
+            KeySet.singleKey(key),
+            spannerNonPkColumnNames,
+            spannerCommitTimestamp,
+            resultSet ->
+                SpannerToBigQueryUtils.spannerSnapshotRowToBigQueryTableRow(
+                    resultSet, spannerNonPkColumns, tableRow));
+      }
+
+      // Do the snapshot read at the commit timestamp in a context with the custom call
+      // configuration.
+      private void readInCallContext(
+          String spannerTableName,
+          KeySet keySet,
+          List<String> spannerColumnNames,
+          com.google.cloud.Timestamp spannerCommitTimestamp,
+          Consumer<ResultSet> resultSetConsumer) {
         Options.ReadQueryUpdateTransactionOption options =
             Options.priority(spannerConfig.getRpcPriority().get());
         // Create a context that uses the custom call configuration.
@@ -395,6 +647,7 @@ public final class FailsafeModJsonToTableRowTransformer {
             Context.current()
                 .withValue(SpannerOptions.CALL_CONTEXT_CONFIGURATOR_KEY, callContextConfigurator);
         // Do the snapshot read in the custom context.
+        snapshotReads.inc();
         context.run(
             () -> {
               try (ResultSet resultSet =
@@ -402,16 +655,49 @@ public final class FailsafeModJsonToTableRowTransformer {
                       .getDatabaseClient()
                       .singleUseReadOnlyTransaction(
                           TimestampBound.ofReadTimestamp(spannerCommitTimestamp))
-                      .read(
-                          spannerTableName,
-                          KeySet.singleKey(key),
-                          spannerNonPkColumnNames,
-                          options)) {
-                SpannerToBigQueryUtils.spannerSnapshotRowToBigQueryTableRow(
-                    resultSet, spannerNonPkColumns, tableRow);
+                      .read(spannerTableName, keySet, spannerColumnNames, options)) {
+                resultSetConsumer.accept(resultSet);
               }
             });
       }
+
+      /** Outputs of a mod, either from process element or from finish bundle. */
+      private interface ModOutput {
+        void output(TableRow tableRow);
+
+        void outputDeadLetter(FailsafeElement<String, String> element);
+      }
+
+      /** A {@link TableRow} converted from a mod, and the snapshot read needed to complete it. */
+      private static class PendingSnapshotRead {
+        private final TableRow tableRow;
+        @Nullable private final TrackedSpannerTable spannerTable;
+        // Null if the mod contains all the tracked columns and no snapshot read is needed.
+        @Nullable private final com.google.cloud.spanner.Key key;
+        @Nullable private final com.google.cloud.spanner.Key normalizedKey;
+        @Nullable private final com.google.cloud.Timestamp commitTimestamp;
+        private FailsafeElement<String, String> element;
+        private Instant timestamp;
+        private BoundedWindow window;
+        private Exception error;
+
+        PendingSnapshotRead(TableRow tableRow) {
+          this(tableRow, null, null, null, null);
+        }
+
+        PendingSnapshotRead(
+            TableRow tableRow,
+            TrackedSpannerTable spannerTable,
+            com.google.cloud.spanner.Key key,
+            com.google.cloud.spanner.Key normalizedKey,
+            com.google.cloud.Timestamp commitTimestamp) {
+          this.tableRow = tableRow;
+          this.spannerTable = spannerTable;
+          this.key = key;
+          this.normalizedKey = normalizedKey;
+          this.commitTimestamp = commitTimestamp;
+        }
+      }
     }
   }
 
@@ -431,9 +717,15 @@ public final class FailsafeModJsonToTableRowTransformer {
 
     public abstract Boolean getUseStorageWriteApi();
 
+    public abstract Integer getSnapshotReadBatchSize();
+
+    public abstract Integer getSnapshotReadMaxWaitMillis();
+
     static Builder builder() {
       return new AutoValue_FailsafeModJsonToTableRowTransformer_FailsafeModJsonToTableRowOptions
-          .Builder();
+              .Builder()
+          .setSnapshotReadBatchSize(1)
+          .setSnapshotReadMaxWaitMillis(0);
     }
 
     @AutoValue.Builder
@@ -448,6 +740,10 @@ public final class FailsafeModJsonToTableRowTransformer {
 
       abstract Builder setUseStorageWriteApi(Boolean useStorageWriteApi);
 
+      abstract Builder setSnapshotReadBatchSize(Integer snapshotReadBatchSize);
+
+      abstract Builder setSnapshotReadMaxWaitMillis(Integer snapshotReadMaxWaitMillis);
+
       abstract FailsafeModJsonToTableRowOptions build();
     }
   }
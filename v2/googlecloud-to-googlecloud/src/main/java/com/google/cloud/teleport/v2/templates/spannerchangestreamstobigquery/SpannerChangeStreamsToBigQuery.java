@@ -365,6 +365,8 @@ public final class SpannerChangeStreamsToBigQuery {
                 .setIgnoreFields(ignoreFields)
                 .setCoder(FAILSAFE_ELEMENT_CODER)
                 .setUseStorageWriteApi(options.getUseStorageWriteApi())
+                .setSnapshotReadBatchSize(options.getSnapshotReadBatchSize())
+                .setSnapshotReadMaxWaitMillis(options.getSnapshotReadMaxWaitMillis())
                 .build();
     FailsafeModJsonToTableRowTransformer.FailsafeModJsonToTableRow failsafeModJsonToTableRow =
         new FailsafeModJsonToTableRowTransformer.FailsafeModJsonToTableRow(
@@ -15,8 +15,13 @@
  */
 package com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.model;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.deser.DeserializationProblemHandler;
 import com.google.cloud.Timestamp;
 import java.io.IOException;
 import java.io.Serializable;
@@ -25,6 +30,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.beam.sdk.coders.DefaultCoder;
 import org.apache.beam.sdk.extensions.avro.coders.AvroCoder;
@@ -42,6 +48,10 @@ public final class Mod implements Serializable {
 
   private static final long serialVersionUID = 8703257194338184299L;
 
+  // ObjectMapper and ObjectReader are thread-safe once configured, so they are shared.
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final ObjectReader MOD_READER = OBJECT_MAPPER.readerFor(Mod.class);
+
   private String keysJson;
   private String newValuesJson;
   private long commitTimestampSeconds;
@@ -121,7 +131,37 @@ public final class Mod implements Serializable {
   }
 
   public static Mod fromJson(String json) throws IOException {
-    return new ObjectMapper().readValue(json, Mod.class);
+    return MOD_READER.readValue(json);
+  }
+
+  /**
+   * Returns a reader that binds JSON directly to a {@link Mod}, skipping the given top level fields
+   * instead of failing on them. Other unknown fields still fail the binding. The returned reader is
+   * thread-safe and should be reused.
+   *
+   * @param ignoredFieldNames names of the fields that are not part of the {@link Mod}, such as the
+   *     metadata fields added by the dead letter queue
+   */
+  public static ObjectReader readerIgnoringFields(Set<String> ignoredFieldNames) {
+    return new ObjectMapper()
+        .addHandler(
+            new DeserializationProblemHandler() {
+              @Override
+              public boolean handleUnknownProperty(
+                  DeserializationContext ctxt,
+                  JsonParser p,
+                  JsonDeserializer<?> deserializer,
+                  Object beanOrClass,
+                  String propertyName)
+                  throws IOException {
+                if (!ignoredFieldNames.contains(propertyName)) {
+                  return false;
+                }
+                p.skipChildren();
+                return true;
+              }
+            })
+        .readerFor(Mod.class);
   }
 
   /**
@@ -294,6 +334,6 @@ public final class Mod implements Serializable {
   }
 
   public String toJson() throws JsonProcessingException {
-    return new ObjectMapper().writeValueAsString(this);
+    return OBJECT_MAPPER.writeValueAsString(this);
   }
 }
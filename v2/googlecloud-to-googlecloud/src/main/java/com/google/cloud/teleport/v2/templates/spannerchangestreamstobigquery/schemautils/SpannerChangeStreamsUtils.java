@@ -16,12 +16,15 @@
 package com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.schemautils;
 
 import com.google.api.services.bigquery.model.TableRow;
+import com.google.cloud.ByteArray;
+import com.google.cloud.Date;
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.DatabaseClient;
 import com.google.cloud.spanner.Dialect;
 import com.google.cloud.spanner.Key;
 import com.google.cloud.spanner.ResultSet;
 import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.StructReader;
 import com.google.cloud.spanner.TimestampBound;
 import com.google.cloud.spanner.Type;
 import com.google.cloud.spanner.Value;
@@ -498,6 +501,89 @@ public class SpannerChangeStreamsUtils {
     }
   }
 
+  /**
+   * Appends the value of a key column from the keys JSON of a mod to a normalized key. A normalized
+   * key holds the typed value of each column, so that it compares equal to the normalized key built
+   * from the same row read from Spanner, see {@link #appendToNormalizedSpannerKey(
+   * TrackedSpannerColumn, StructReader, Key.Builder)}.
+   */
+  public static void appendToNormalizedSpannerKey(
+      TrackedSpannerColumn column, JSONObject keysJsonObject, Key.Builder keyBuilder) {
+    Type.Code code = column.getType().getCode();
+    String name = column.getName();
+    if (keysJsonObject.isNull(name)) {
+      keyBuilder.appendObject(null);
+      return;
+    }
+    switch (code) {
+      case BOOL:
+        keyBuilder.append(keysJsonObject.getBoolean(name));
+        break;
+      case FLOAT64:
+        keyBuilder.append(keysJsonObject.getDouble(name));
+        break;
+      case INT64:
+        keyBuilder.append(keysJsonObject.getLong(name));
+        break;
+      case NUMERIC:
+        keyBuilder.append(keysJsonObject.getBigDecimal(name).stripTrailingZeros());
+        break;
+      case BYTES:
+        keyBuilder.append(ByteArray.fromBase64(keysJsonObject.getString(name)));
+        break;
+      case DATE:
+        keyBuilder.append(Date.parseDate(keysJsonObject.getString(name)));
+        break;
+      case STRING:
+        keyBuilder.append(keysJsonObject.getString(name));
+        break;
+      case TIMESTAMP:
+        keyBuilder.append(Timestamp.parseTimestamp(keysJsonObject.getString(name)));
+        break;
+      default:
+        throw new IllegalArgumentException(String.format("Unsupported Spanner type: %s", code));
+    }
+  }
+
+  /** Appends the value of a key column from a row read from Spanner to a normalized key. */
+  public static void appendToNormalizedSpannerKey(
+      TrackedSpannerColumn column, StructReader row, Key.Builder keyBuilder) {
+    Type.Code code = column.getType().getCode();
+    String name = column.getName();
+    if (row.isNull(name)) {
+      keyBuilder.appendObject(null);
+      return;
+    }
+    switch (code) {
+      case BOOL:
+        keyBuilder.append(row.getBoolean(name));
+        break;
+      case FLOAT64:
+        keyBuilder.append(row.getDouble(name));
+        break;
+      case INT64:
+        keyBuilder.append(row.getLong(name));
+        break;
+      case NUMERIC:
+        keyBuilder.append(row.getBigDecimal(name).stripTrailingZeros());
+        break;
+      case BYTES:
+        keyBuilder.append(row.getBytes(name));
+        break;
+      case DATE:
+        keyBuilder.append(row.getDate(name));
+        break;
+      case STRING:
+        keyBuilder.append(row.getString(name));
+        break;
+      case TIMESTAMP:
+        keyBuilder.append(row.getTimestamp(name));
+        break;
+      default:
+        throw new IllegalArgumentException(String.format("Unsupported Spanner type: %s", code));
+    }
+  }
+
   private boolean isPostgres() {
     return this.dialect == Dialect.POSTGRESQL;
   }
@@ -150,11 +150,7 @@ public class SpannerToBigQueryUtils {
   public static void spannerSnapshotRowToBigQueryTableRow(
       ResultSet resultSet, List<TrackedSpannerColumn> spannerNonPkColumns, TableRow tableRow) {
     if (resultSet.next()) {
-      for (TrackedSpannerColumn spannerNonPkColumn : spannerNonPkColumns) {
-        tableRow.set(
-            spannerNonPkColumn.getName(),
-            getColumnValueFromResultSet(spannerNonPkColumn, resultSet));
-      }
+      spannerCurrentRowToBigQueryTableRow(resultSet, spannerNonPkColumns, tableRow);
     } else {
       throw new IllegalArgumentException(
           "Received zero row from the result set of Spanner snapshot row");
@@ -166,6 +162,15 @@ public class SpannerToBigQueryUtils {
     }
   }
 
+  // Set the non-key columns of the tableRow from the row the result set is currently positioned at.
+  public static void spannerCurrentRowToBigQueryTableRow(
+      ResultSet resultSet, List<TrackedSpannerColumn> spannerNonPkColumns, TableRow tableRow) {
+    for (TrackedSpannerColumn spannerNonPkColumn : spannerNonPkColumns) {
+      tableRow.set(
+          spannerNonPkColumn.getName(), getColumnValueFromResultSet(spannerNonPkColumn, resultSet));
+    }
+  }
+
   private static Object getColumnValueFromResultSet(
       TrackedSpannerColumn spannerColumn, ResultSet resultSet) {
     String columnName = spannerColumn.getName();
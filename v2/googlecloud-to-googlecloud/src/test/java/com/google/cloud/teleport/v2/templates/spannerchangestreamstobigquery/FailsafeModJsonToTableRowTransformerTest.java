@@ -87,6 +87,7 @@ import static com.google.cloud.teleport.v2.templates.spannerchangestreamstobigqu
 import static com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.TestUtils.TIMESTAMP_VAL;
 import static com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.TestUtils.createSpannerDatabase;
 import static com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.TestUtils.dropSpannerDatabase;
+import static com.google.common.truth.Truth.assertThat;
 
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
@@ -94,6 +95,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.api.services.bigquery.model.TableRow;
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.Mutation.WriteBuilder;
 import com.google.cloud.spanner.ResultSet;
 import com.google.cloud.spanner.Statement;
 import com.google.cloud.spanner.Value;
@@ -109,12 +111,18 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.PipelineResult;
 import org.apache.beam.sdk.coders.SerializableCoder;
 import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ModType;
 import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.TypeCode;
 import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ValueCaptureType;
+import org.apache.beam.sdk.metrics.MetricNameFilter;
+import org.apache.beam.sdk.metrics.MetricResult;
+import org.apache.beam.sdk.metrics.MetricsFilter;
 import org.apache.beam.sdk.testing.PAssert;
 import org.apache.beam.sdk.testing.TestStream;
 import org.apache.beam.sdk.transforms.DoFn;
@@ -259,6 +267,105 @@ public final class FailsafeModJsonToTableRowTransformerTest implements Serializa
         getRowType(false));
   }
 
+  // Test the case where the full rows of UPDATE Mods of distinct keys committed in the same
+  // transaction are read with a single batched snapshot read, and each Mod gets the row of its own
+  // key.
+  @Test
+  public void testFailsafeModJsonToTableRowUpdateBatchedSnapshotRead() throws Exception {
+    // Insert each row in its own transaction so that each key has a distinct TimestampCol, then
+    // update all of them in one transaction.
+    List<Long> int64PkVals = ImmutableList.of(101L, 102L, 103L);
+    Map<Long, Timestamp> insertCommitTimestamps = new HashMap<>();
+    for (Long int64PkVal : int64PkVals) {
+      insertCommitTimestamps.put(int64PkVal, insertRow(spannerDatabaseName, int64PkVal));
+    }
+    Timestamp commitTimestamp = updateInt64Col(spannerDatabaseName, int64PkVals);
+
+    List<String> modJsons = new ArrayList<>();
+    List<String> expectedRows = new ArrayList<>();
+    for (Long int64PkVal : int64PkVals) {
+      ObjectNode newValuesJsonNode = new ObjectNode(JsonNodeFactory.instance);
+      newValuesJsonNode.put(INT64_COL, int64PkVal);
+      modJsons.add(
+          new Mod(
+                  getKeysJson(int64PkVal),
+                  newValuesJsonNode.toString(),
+                  commitTimestamp,
+                  "1",
+                  true,
+                  String.format("%08d", int64PkVal),
+                  TEST_SPANNER_TABLE,
+                  getRowType(false),
+                  ModType.UPDATE,
+                  ValueCaptureType.OLD_AND_NEW_VALUES,
+                  int64PkVals.size(),
+                  1L)
+              .toJson());
+      expectedRows.add(
+          String.format(
+              "%s,%s,%s", int64PkVal, int64PkVal, insertCommitTimestamps.get(int64PkVal)));
+    }
+
+    TestStream<String> testSream =
+        TestStream.create(SerializableCoder.of(String.class))
+            .addElements(
+                modJsons.get(0), modJsons.subList(1, modJsons.size()).toArray(new String[0]))
+            .advanceWatermarkTo(Instant.now())
+            .advanceWatermarkToInfinity();
+    Pipeline p = Pipeline.create();
+    PCollection<FailsafeElement<String, String>> input =
+        p.apply(testSream)
+            .apply(
+                ParDo.of(
+                    new DoFn<String, FailsafeElement<String, String>>() {
+                      @ProcessElement
+                      public void process(
+                          @Element String input,
+                          OutputReceiver<FailsafeElement<String, String>> receiver) {
+                        receiver.output(FailsafeElement.of(input, input));
+                      }
+                    }))
+            .setCoder(SpannerChangeStreamsToBigQuery.FAILSAFE_ELEMENT_CODER);
+    failsafeModJsonToTableRow =
+        getFailsafeModJsonToTableRow(spannerDatabaseName, false, int64PkVals.size());
+    PCollectionTuple out = input.apply("Mod JSON To TableRow", failsafeModJsonToTableRow);
+    PAssert.that(
+            out.get(failsafeModJsonToTableRow.transformOut)
+                .apply(
+                    ParDo.of(
+                        new DoFn<TableRow, String>() {
+                          @ProcessElement
+                          public void process(
+                              @Element TableRow input, OutputReceiver<String> receiver) {
+                            receiver.output(
+                                String.format(
+                                    "%s,%s,%s",
+                                    input.get(INT64_PK_COL),
+                                    input.get(INT64_COL),
+                                    input.get(TIMESTAMP_COL)));
+                          }
+                        })))
+        .containsInAnyOrder(expectedRows);
+    PAssert.that(out.get(failsafeModJsonToTableRow.transformDeadLetterOut)).empty();
+    PipelineResult result = p.run();
+    result.waitUntilFinish();
+
+    // All the rows were read by one multi-key read, without falling back to single-key reads.
+    Iterable<MetricResult<Long>> snapshotReads =
+        result
+            .metrics()
+            .queryMetrics(
+                MetricsFilter.builder()
+                    .addNameFilter(
+                        MetricNameFilter.named(
+                            FailsafeModJsonToTableRow.FailsafeModJsonToTableRowFn.class,
+                            "snapshot_reads"))
+                    .build())
+            .getCounters();
+    assertThat(snapshotReads).hasSize(1);
+    assertThat(snapshotReads.iterator().next().getCommitted()).isEqualTo(1L);
+  }
+
   // Test the case where a TableRow can be constructed from a UPDATE Mod
   // with value capture type as NEW_ROW_AND_OLD_VALUES.
   @Test
@@ -616,6 +723,11 @@ public final class FailsafeModJsonToTableRowTransformerTest implements Serializa
 
   private static FailsafeModJsonToTableRow getFailsafeModJsonToTableRow(
       String spannerDatabaseName, Boolean useStorageWriteApi) {
+    return getFailsafeModJsonToTableRow(spannerDatabaseName, useStorageWriteApi, 1);
+  }
+
+  private static FailsafeModJsonToTableRow getFailsafeModJsonToTableRow(
+      String spannerDatabaseName, Boolean useStorageWriteApi, int snapshotReadBatchSize) {
     FailsafeModJsonToTableRowOptions failsafeModJsonToTableRowOptions =
         FailsafeModJsonToTableRowTransformer.FailsafeModJsonToTableRowOptions.builder()
             .setSpannerConfig(SPANNER_SERVER.getSpannerConfig(spannerDatabaseName))
@@ -623,6 +735,8 @@ public final class FailsafeModJsonToTableRowTransformerTest implements Serializa
             .setCoder(SpannerChangeStreamsToBigQuery.FAILSAFE_ELEMENT_CODER)
             .setIgnoreFields(ImmutableSet.of())
             .setUseStorageWriteApi(useStorageWriteApi)
+            .setSnapshotReadBatchSize(snapshotReadBatchSize)
+            .setSnapshotReadMaxWaitMillis(60_000)
             .build();
     return new FailsafeModJsonToTableRowTransformer.FailsafeModJsonToTableRow(
         failsafeModJsonToTableRowOptions);
@@ -697,6 +811,50 @@ public final class FailsafeModJsonToTableRowTransformerTest implements Serializa
     return getCommitTimestamp(spannerDatabaseName);
   }
 
+  // Inserts a row which only differs from the row of insertRow(String) by its Int64PkCol, with
+  // TimestampCol set to the commit timestamp.
+  private static Timestamp insertRow(String spannerDatabaseName, long int64PkVal) {
+    Mutation mutation =
+        setPkCols(Mutation.newInsertBuilder(TEST_SPANNER_TABLE), int64PkVal)
+            .set(TIMESTAMP_COL)
+            .to(Value.COMMIT_TIMESTAMP)
+            .build();
+    return SPANNER_SERVER.getDbClient(spannerDatabaseName).write(ImmutableList.of(mutation));
+  }
+
+  // Sets Int64Col of each row to its Int64PkCol in a single transaction.
+  private static Timestamp updateInt64Col(String spannerDatabaseName, List<Long> int64PkVals) {
+    List<Mutation> mutations = new ArrayList<>();
+    for (Long int64PkVal : int64PkVals) {
+      mutations.add(
+          setPkCols(Mutation.newUpdateBuilder(TEST_SPANNER_TABLE), int64PkVal)
+              .set(INT64_COL)
+              .to(int64PkVal)
+              .build());
+    }
+    return SPANNER_SERVER.getDbClient(spannerDatabaseName).write(mutations);
+  }
+
+  private static WriteBuilder setPkCols(WriteBuilder builder, long int64PkVal) {
+    return builder
+        .set(BOOLEAN_PK_COL)
+        .to(BOOLEAN_VAL)
+        .set(BYTES_PK_COL)
+        .to(BYTES_VAL)
+        .set(DATE_PK_COL)
+        .to(DATE_VAL)
+        .set(FLOAT64_PK_COL)
+        .to(FLOAT64_VAL)
+        .set(INT64_PK_COL)
+        .to(int64PkVal)
+        .set(NUMERIC_PK_COL)
+        .to(NUMERIC_VAL)
+        .set(STRING_PK_COL)
+        .to(STRING_VAL)
+        .set(TIMESTAMP_PK_COL)
+        .to(TIMESTAMP_VAL);
+  }
+
   private static Timestamp updateRow(String spannerDatabaseName) {
     SPANNER_SERVER
         .getDbClient(spannerDatabaseName)
@@ -726,12 +884,16 @@ public final class FailsafeModJsonToTableRowTransformerTest implements Serializa
   }
 
   private String getKeysJson() {
+    return getKeysJson(INT64_RAW_VAL);
+  }
+
+  private String getKeysJson(long int64PkVal) {
     ObjectNode jsonNode = new ObjectNode(JsonNodeFactory.instance);
     jsonNode.put(BOOLEAN_PK_COL, BOOLEAN_RAW_VAL);
     jsonNode.put(BYTES_PK_COL, BYTES_RAW_VAL.toBase64());
     jsonNode.put(DATE_PK_COL, DATE_RAW_VAL.toString());
     jsonNode.put(FLOAT64_PK_COL, FLOAT64_RAW_VAL);
-    jsonNode.put(INT64_PK_COL, INT64_RAW_VAL);
+    jsonNode.put(INT64_PK_COL, int64PkVal);
     jsonNode.put(NUMERIC_PK_COL, NUMERIC_RAW_VAL);
     jsonNode.put(STRING_PK_COL, STRING_RAW_VAL);
     jsonNode.put(TIMESTAMP_PK_COL, TIMESTAMP_RAW_VAL.toString());
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.google.cloud.Timestamp;
+import com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.model.Mod;
+import com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.model.ModColumnType;
+import com.google.cloud.teleport.v2.templates.spannerchangestreamstobigquery.schemautils.BigQueryUtils;
+import com.google.common.collect.ImmutableList;
+import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ModType;
+import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.TypeCode;
+import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ValueCaptureType;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class ModTest {
+
+  private static final ObjectReader MOD_READER =
+      Mod.readerIgnoringFields(BigQueryUtils.getBigQueryIntermediateMetadataFieldNames());
+
+  @Test
+  public void testFromJson() throws Exception {
+    Mod mod = getMod();
+
+    assertThat(Mod.fromJson(mod.toJson()).toJson()).isEqualTo(mod.toJson());
+  }
+
+  @Test
+  public void testReaderIgnoringFieldsSkipsMetadataFields() throws Exception {
+    Mod mod = getMod();
+    JSONObject modJsonObject = new JSONObject(mod.toJson());
+    modJsonObject.put(BigQueryUtils.BQ_CHANGELOG_FIELD_NAME_ERROR, "error");
+    modJsonObject.put(BigQueryUtils.BQ_CHANGELOG_FIELD_NAME_RETRY_COUNT, 2);
+    modJsonObject.put(
+        BigQueryUtils.BQ_CHANGELOG_FIELD_NAME_ORIGINAL_PAYLOAD_JSON,
+        new JSONObject().put("nested", new JSONObject().put("key", "value")));
+
+    Mod parsedMod = MOD_READER.readValue(modJsonObject.toString());
+
+    assertThat(parsedMod.toJson()).isEqualTo(mod.toJson());
+  }
+
+  @Test
+  public void testReaderIgnoringFieldsFailsOnOtherFields() throws Exception {
+    JSONObject modJsonObject = new JSONObject(getMod().toJson());
+    modJsonObject.put("unknownField", "value");
+
+    assertThrows(
+        UnrecognizedPropertyException.class, () -> MOD_READER.readValue(modJsonObject.toString()));
+  }
+
+  private static Mod getMod() {
+    return new Mod(
+        "{\"Id\":1}",
+        "{\"Name\":\"name\"}",
+        Timestamp.ofTimeSecondsAndNanos(1650908264L, 925679000),
+        "1",
+        true,
+        "00000001",
+        "Singers",
+        ImmutableList.of(
+            new ModColumnType("Id", new TypeCode("{\"code\":\"INT64\"}"), true, 1),
+            new ModColumnType("Name", new TypeCode("{\"code\":\"STRING\"}"), false, 2)),
+        ModType.UPDATE,
+        ValueCaptureType.OLD_AND_NEW_VALUES,
+        1L,
+        1L);
+  }
+}
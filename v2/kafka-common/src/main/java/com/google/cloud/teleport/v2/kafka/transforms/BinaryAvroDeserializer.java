@@ -19,15 +19,21 @@ import java.io.IOException;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.DatumReader;
-import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.serialization.Deserializer;
 
+/**
+ * Deserializes Avro binary encoded messages with a fixed schema. The datum reader and the decoder
+ * are reused from one message to the next, so an instance must not be shared between threads.
+ */
 public class BinaryAvroDeserializer implements Deserializer<GenericRecord> {
   private Schema schema;
+  private DatumReader<GenericRecord> reader;
+  private BinaryDecoder decoder;
 
   public BinaryAvroDeserializer() {}
 
@@ -42,12 +48,22 @@ public class BinaryAvroDeserializer implements Deserializer<GenericRecord> {
 
   @Override
   public GenericRecord deserialize(String topic, byte[] bytes) {
+    return deserialize(topic, bytes, null);
+  }
+
+  /**
+   * Deserializes a message into {@code reuse} if it is not null. The record must not be reused
+   * while a previously deserialized value is still referenced.
+   */
+  public GenericRecord deserialize(String topic, byte[] bytes, GenericRecord reuse) {
     try {
-      Decoder decoder = DecoderFactory.get().binaryDecoder(bytes, null);
-      DatumReader<GenericRecord> reader = new GenericDatumReader<GenericRecord>(this.schema);
-      return reader.read(null, decoder);
+      if (reader == null) {
+        reader = new GenericDatumReader<>(this.schema);
+      }
+      decoder = DecoderFactory.get().binaryDecoder(bytes, decoder);
+      return reader.read(reuse, decoder);
     } catch (IOException e) {
-      throw new SerializationException("Error deserialing avro message", e.getCause());
+      throw new SerializationException("Error deserialing avro message", e);
     }
   }
 
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.kafka.transforms;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Deserializes Avro messages in the Confluent wire format, a magic byte and the 4 bytes id of the
+ * writer schema followed by the Avro binary encoded record, into records of the writer schema.
+ *
+ * <p>Unlike {@link io.confluent.kafka.serializers.KafkaAvroDeserializer}, which looks up the writer
+ * schema and creates a datum reader for every message, the datum readers are cached by writer
+ * schema id and the decoder is reused from one message to the next, so an instance must not be
+ * shared between threads.
+ */
+public class CachingKafkaAvroDeserializer implements Deserializer<GenericRecord> {
+  private static final byte MAGIC_BYTE = 0x0;
+  private static final int HEADER_SIZE = 1 + Integer.BYTES;
+  private static final int READER_CACHE_SIZE = 1000;
+
+  private final SchemaRegistryClient schemaRegistryClient;
+  private final Map<Integer, DatumReader<GenericRecord>> readers;
+  private BinaryDecoder decoder;
+
+  public CachingKafkaAvroDeserializer(SchemaRegistryClient schemaRegistryClient) {
+    this(schemaRegistryClient, READER_CACHE_SIZE);
+  }
+
+  /**
+   * @param schemaRegistryClient client looking up the writer schemas
+   * @param readerCacheSize maximum number of datum readers cached, the least recently used one is
+   *     evicted first
+   */
+  @VisibleForTesting
+  CachingKafkaAvroDeserializer(SchemaRegistryClient schemaRegistryClient, int readerCacheSize) {
+    this.schemaRegistryClient = schemaRegistryClient;
+    this.readers =
+        new LinkedHashMap<Integer, DatumReader<GenericRecord>>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(
+              Map.Entry<Integer, DatumReader<GenericRecord>> eldest) {
+            return size() > readerCacheSize;
+          }
+        };
+  }
+
+  @Override
+  public GenericRecord deserialize(String topic, byte[] bytes) {
+    return deserialize(topic, bytes, null);
+  }
+
+  /**
+   * Deserializes a message into {@code reuse} if it is not null and of the writer schema of the
+   * message. The record must not be reused while a previously deserialized value is still
+   * referenced.
+   */
+  public GenericRecord deserialize(String topic, byte[] bytes, GenericRecord reuse) {
+    if (bytes == null) {
+      return null;
+    }
+    if (bytes.length < HEADER_SIZE || bytes[0] != MAGIC_BYTE) {
+      throw new SerializationException("Unknown magic byte!");
+    }
+    int schemaId = ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt();
+    try {
+      DatumReader<GenericRecord> reader = getReader(schemaId);
+      decoder =
+          DecoderFactory.get()
+              .binaryDecoder(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE, decoder);
+      return reader.read(reuse, decoder);
+    } catch (SerializationException e) {
+      throw e;
+    } catch (IOException | RuntimeException e) {
+      throw new SerializationException("Error deserializing Avro message for id " + schemaId, e);
+    } catch (RestClientException e) {
+      throw new SerializationException("Error retrieving Avro schema for id " + schemaId, e);
+    }
+  }
+
+  private DatumReader<GenericRecord> getReader(int schemaId)
+      throws IOException, RestClientException {
+    DatumReader<GenericRecord> reader = readers.get(schemaId);
+    if (reader == null) {
+      ParsedSchema parsedSchema = schemaRegistryClient.getSchemaById(schemaId);
+      if (!(parsedSchema instanceof AvroSchema)) {
+        throw new SerializationException("Schema with id " + schemaId + " is not an Avro schema");
+      }
+      Schema writerSchema = ((AvroSchema) parsedSchema).rawSchema();
+      reader = new GenericDatumReader<>(writerSchema);
+      readers.put(schemaId, reader);
+    }
+    return reader;
+  }
+
+  @Override
+  public void close() {}
+}
@@ -21,7 +21,6 @@ import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
-import io.confluent.kafka.serializers.KafkaAvroDeserializer;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.Map;
@@ -40,7 +39,7 @@ public class KafkaRecordToGenericRecordFailsafeElementFn
         KafkaRecord<byte[], byte[]>, FailsafeElement<KafkaRecord<byte[], byte[]>, GenericRecord>>
     implements Serializable {
 
-  private transient KafkaAvroDeserializer kafkaDeserializer;
+  private transient CachingKafkaAvroDeserializer kafkaDeserializer;
   private transient BinaryAvroDeserializer binaryDeserializer;
   private transient SchemaRegistryClient schemaRegistryClient;
 
@@ -90,13 +89,13 @@ public class KafkaRecordToGenericRecordFailsafeElementFn
               this.schemaRegistryConnectionUrl,
               DEFAULT_CACHE_CAPACITY,
               processor.apply(this.schemaRegistryAuthenticationConfig));
-      this.kafkaDeserializer = new KafkaAvroDeserializer(this.schemaRegistryClient);
+      this.kafkaDeserializer = new CachingKafkaAvroDeserializer(this.schemaRegistryClient);
     } else if (schema != null && messageFormat.equals("AVRO_BINARY_ENCODING")) {
       this.binaryDeserializer = new BinaryAvroDeserializer(schema);
     } else if (schema != null && messageFormat.equals("AVRO_CONFLUENT_WIRE_FORMAT")) {
       this.schemaRegistryClient = new MockSchemaRegistryClient();
       this.schemaRegistryClient.register(topicName, schema, 1, 1);
-      this.kafkaDeserializer = new KafkaAvroDeserializer(schemaRegistryClient);
+      this.kafkaDeserializer = new CachingKafkaAvroDeserializer(schemaRegistryClient);
     } else {
       throw new IllegalArgumentException(
           "Either a Schema Registry URL, or an Avro schema with wire format is needed.");
@@ -115,9 +114,8 @@ public class KafkaRecordToGenericRecordFailsafeElementFn
                 element.getTopic(), element.getHeaders(), element.getKV().getValue());
       } else { // Assume Confluent wire format or regular Avro with schema registry
         result =
-            (GenericRecord)
-                kafkaDeserializer.deserialize(
-                    element.getTopic(), element.getHeaders(), element.getKV().getValue());
+            kafkaDeserializer.deserialize(
+                element.getTopic(), element.getHeaders(), element.getKV().getValue());
         // Output the failsafe element with the successful tag.
       }
       o.get(successGenericRecordTag).output(FailsafeElement.of(element, result));
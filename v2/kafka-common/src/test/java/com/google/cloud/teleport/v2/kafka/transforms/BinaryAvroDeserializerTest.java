@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.kafka.transforms;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test class for {@link BinaryAvroDeserializer}. */
+public class BinaryAvroDeserializerTest {
+  private static final String TOPIC = "topic";
+
+  private static final Schema SCHEMA =
+      SchemaBuilder.record("User").fields().requiredString("name").optionalLong("age").endRecord();
+
+  /** Tests that consecutive messages of different sizes are decoded with the reused decoder. */
+  @Test
+  public void testDeserializeWithReusedDecoder() throws Exception {
+    BinaryAvroDeserializer deserializer = new BinaryAvroDeserializer(SCHEMA);
+
+    GenericRecord first = deserializer.deserialize(TOPIC, encode(user("a long name", 100L)));
+    GenericRecord second = deserializer.deserialize(TOPIC, encode(user("b", null)));
+
+    Assert.assertEquals(SCHEMA, first.getSchema());
+    Assert.assertEquals("a long name", first.get("name").toString());
+    Assert.assertEquals(100L, first.get("age"));
+    Assert.assertEquals("b", second.get("name").toString());
+    Assert.assertNull(second.get("age"));
+  }
+
+  /** Tests that a record passed for reuse is filled in place, and left alone otherwise. */
+  @Test
+  public void testRecordReuse() throws Exception {
+    BinaryAvroDeserializer deserializer = new BinaryAvroDeserializer(SCHEMA);
+    GenericRecord reuse = deserializer.deserialize(TOPIC, encode(user("a", 1L)));
+
+    GenericRecord reused = deserializer.deserialize(TOPIC, encode(user("b", 2L)), reuse);
+    GenericRecord fresh = deserializer.deserialize(TOPIC, encode(user("c", 3L)));
+
+    Assert.assertSame(reuse, reused);
+    Assert.assertEquals("b", reused.get("name").toString());
+    Assert.assertEquals(2L, reused.get("age"));
+    Assert.assertNotSame(reuse, fresh);
+    Assert.assertEquals("b", reuse.get("name").toString());
+  }
+
+  /** Tests that a truncated message fails with a {@link SerializationException}. */
+  @Test
+  public void testDeserializeTruncatedMessage() throws Exception {
+    BinaryAvroDeserializer deserializer = new BinaryAvroDeserializer(SCHEMA);
+    byte[] message = encode(user("a long name", 100L));
+    byte[] truncated = Arrays.copyOf(message, 3);
+
+    SerializationException e =
+        Assert.assertThrows(
+            SerializationException.class, () -> deserializer.deserialize(TOPIC, truncated));
+    Assert.assertTrue(e.getCause() instanceof IOException);
+    // The deserializer is still usable after a failure.
+    Assert.assertEquals(
+        "a long name", deserializer.deserialize(TOPIC, message).get("name").toString());
+  }
+
+  private static GenericRecord user(String name, Long age) {
+    GenericRecord record = new GenericData.Record(SCHEMA);
+    record.put("name", name);
+    record.put("age", age);
+    return record;
+  }
+
+  private static byte[] encode(GenericRecord record) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<GenericRecord>(record.getSchema()).write(record, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+}
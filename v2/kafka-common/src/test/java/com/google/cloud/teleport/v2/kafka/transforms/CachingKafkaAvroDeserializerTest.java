@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.kafka.transforms;
+
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Test class for {@link CachingKafkaAvroDeserializer}. */
+public class CachingKafkaAvroDeserializerTest {
+  private static final String TOPIC = "topic";
+
+  private static final Schema USER_SCHEMA =
+      SchemaBuilder.record("User").fields().requiredString("name").optionalLong("age").endRecord();
+
+  private static final Schema ORDER_SCHEMA =
+      SchemaBuilder.record("Order").fields().requiredLong("id").endRecord();
+
+  private MockSchemaRegistryClient schemaRegistryClient;
+  private int userSchemaId;
+  private int orderSchemaId;
+
+  @Before
+  public void setUp() throws Exception {
+    MockSchemaRegistryClient client = new MockSchemaRegistryClient();
+    userSchemaId = client.register(TOPIC + "-value", new AvroSchema(USER_SCHEMA));
+    orderSchemaId = client.register("orders-value", new AvroSchema(ORDER_SCHEMA));
+    // Only the lookups made by the deserializer are recorded.
+    schemaRegistryClient = spy(client);
+  }
+
+  /** Tests that the schema id after the magic byte selects the writer schema. */
+  @Test
+  public void testDeserializeWriterSchema() throws Exception {
+    CachingKafkaAvroDeserializer deserializer =
+        new CachingKafkaAvroDeserializer(schemaRegistryClient);
+
+    GenericRecord user = deserializer.deserialize(TOPIC, wireFormat(userSchemaId, user("a", 1L)));
+    GenericRecord order = deserializer.deserialize(TOPIC, wireFormat(orderSchemaId, order(7L)));
+
+    Assert.assertEquals(USER_SCHEMA, user.getSchema());
+    Assert.assertEquals("a", user.get("name").toString());
+    Assert.assertEquals(1L, user.get("age"));
+    Assert.assertEquals(ORDER_SCHEMA, order.getSchema());
+    Assert.assertEquals(7L, order.get("id"));
+  }
+
+  /** Tests that null messages, such as tombstones, are deserialized to null. */
+  @Test
+  public void testDeserializeNull() {
+    Assert.assertNull(
+        new CachingKafkaAvroDeserializer(schemaRegistryClient).deserialize(TOPIC, null));
+  }
+
+  /** Tests that messages without the magic byte, or too short for the header, are rejected. */
+  @Test
+  public void testDeserializeUnknownMagicByte() throws Exception {
+    CachingKafkaAvroDeserializer deserializer =
+        new CachingKafkaAvroDeserializer(schemaRegistryClient);
+    byte[] message = wireFormat(userSchemaId, user("a", 1L));
+    message[0] = 0x1;
+
+    Assert.assertThrows(
+        SerializationException.class, () -> deserializer.deserialize(TOPIC, message));
+    Assert.assertThrows(
+        SerializationException.class, () -> deserializer.deserialize(TOPIC, new byte[] {0, 0}));
+  }
+
+  /** Tests that an unknown schema id fails with a {@link SerializationException}. */
+  @Test
+  public void testDeserializeUnknownSchemaId() throws Exception {
+    CachingKafkaAvroDeserializer deserializer =
+        new CachingKafkaAvroDeserializer(schemaRegistryClient);
+    byte[] message = wireFormat(1000, user("a", 1L));
+
+    Assert.assertThrows(
+        SerializationException.class, () -> deserializer.deserialize(TOPIC, message));
+  }
+
+  /** Tests that the writer schema is looked up once per schema id, not once per message. */
+  @Test
+  public void testReaderCacheHits() throws Exception {
+    CachingKafkaAvroDeserializer deserializer =
+        new CachingKafkaAvroDeserializer(schemaRegistryClient);
+
+    for (long i = 0; i < 10; i++) {
+      deserializer.deserialize(TOPIC, wireFormat(userSchemaId, user("user" + i, i)));
+      deserializer.deserialize(TOPIC, wireFormat(orderSchemaId, order(i)));
+    }
+
+    verify(schemaRegistryClient, times(1)).getSchemaById(userSchemaId);
+    verify(schemaRegistryClient, times(1)).getSchemaById(orderSchemaId);
+  }
+
+  /** Tests that the least recently used reader is evicted once the cache is full. */
+  @Test
+  public void testReaderCacheEviction() throws Exception {
+    CachingKafkaAvroDeserializer deserializer =
+        new CachingKafkaAvroDeserializer(schemaRegistryClient, 1);
+    byte[] userMessage = wireFormat(userSchemaId, user("a", 1L));
+    byte[] orderMessage = wireFormat(orderSchemaId, order(7L));
+
+    deserializer.deserialize(TOPIC, userMessage);
+    deserializer.deserialize(TOPIC, userMessage);
+    deserializer.deserialize(TOPIC, orderMessage);
+    deserializer.deserialize(TOPIC, userMessage);
+
+    verify(schemaRegistryClient, times(2)).getSchemaById(userSchemaId);
+    verify(schemaRegistryClient, times(1)).getSchemaById(orderSchemaId);
+  }
+
+  /** Tests that the reused decoder does not carry bytes from one message to the next. */
+  @Test
+  public void testDecoderReuse() throws Exception {
+    CachingKafkaAvroDeserializer deserializer =
+        new CachingKafkaAvroDeserializer(schemaRegistryClient);
+
+    GenericRecord first =
+        deserializer.deserialize(TOPIC, wireFormat(userSchemaId, user("a long name", 100L)));
+    GenericRecord second =
+        deserializer.deserialize(TOPIC, wireFormat(userSchemaId, user("b", null)));
+    GenericRecord third = deserializer.deserialize(TOPIC, wireFormat(orderSchemaId, order(3L)));
+
+    Assert.assertEquals("a long name", first.get("name").toString());
+    Assert.assertEquals(100L, first.get("age"));
+    Assert.assertEquals("b", second.get("name").toString());
+    Assert.assertNull(second.get("age"));
+    Assert.assertEquals(3L, third.get("id"));
+  }
+
+  /** Tests that a record passed for reuse is filled in place, and left alone otherwise. */
+  @Test
+  public void testRecordReuse() throws Exception {
+    CachingKafkaAvroDeserializer deserializer =
+        new CachingKafkaAvroDeserializer(schemaRegistryClient);
+    GenericRecord reuse = deserializer.deserialize(TOPIC, wireFormat(userSchemaId, user("a", 1L)));
+
+    GenericRecord reused =
+        deserializer.deserialize(TOPIC, wireFormat(userSchemaId, user("b", 2L)), reuse);
+    GenericRecord fresh = deserializer.deserialize(TOPIC, wireFormat(userSchemaId, user("c", 3L)));
+
+    Assert.assertSame(reuse, reused);
+    Assert.assertEquals("b", reused.get("name").toString());
+    Assert.assertNotSame(reuse, fresh);
+    Assert.assertEquals("c", fresh.get("name").toString());
+    Assert.assertEquals("b", reuse.get("name").toString());
+  }
+
+  private static GenericRecord user(String name, Long age) {
+    GenericRecord record = new GenericData.Record(USER_SCHEMA);
+    record.put("name", name);
+    record.put("age", age);
+    return record;
+  }
+
+  private static GenericRecord order(long id) {
+    GenericRecord record = new GenericData.Record(ORDER_SCHEMA);
+    record.put("id", id);
+    return record;
+  }
+
+  private static byte[] encode(GenericRecord record) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<GenericRecord>(record.getSchema()).write(record, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  private static byte[] wireFormat(int schemaId, GenericRecord record) throws IOException {
+    byte[] payload = encode(record);
+    return ByteBuffer.allocate(1 + Integer.BYTES + payload.length)
+        .put((byte) 0)
+        .putInt(schemaId)
+        .put(payload)
+        .array();
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.google.cloud.teleport.v2.constants;
 
+import com.google.cloud.spanner.Mutation;
 import com.google.cloud.teleport.v2.templates.RowContext;
 import org.apache.beam.sdk.values.TupleTag;
 
@@ -23,8 +24,8 @@ public class SourceDbToSpannerConstants {
 
   /** TAGS used for routing * */
 
-  /* The tag for rows which transformed successfully */
-  public static final TupleTag<RowContext> ROW_TRANSFORMATION_SUCCESS = new TupleTag<>();
+  /* The tag for the mutations of the rows which transformed successfully */
+  public static final TupleTag<Mutation> ROW_TRANSFORMATION_SUCCESS = new TupleTag<>();
 
   /* The tag for row which errors out during transformation */
   public static final TupleTag<RowContext> ROW_TRANSFORMATION_ERROR = new TupleTag<>();
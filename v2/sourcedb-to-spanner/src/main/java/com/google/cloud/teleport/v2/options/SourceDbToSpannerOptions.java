@@ -247,4 +247,18 @@ public interface SourceDbToSpannerOptions extends CommonTemplateOptions {
   String getNamespace();
 
   void setNamespace(String value);
+
+  @TemplateParameter.Long(
+      order = 21,
+      optional = true,
+      description = "Target read time of a range in milliseconds",
+      helpText =
+          "If set, ranges of a table that are expected to take longer than this many milliseconds"
+              + " to read, as per their row count and the observed read throughput, are split"
+              + " again at read time so that straggler ranges do not hold back the migration."
+              + " Set to 0 to split every range that has a known count. If not set, ranges are"
+              + " read as they were planned.")
+  Long getTargetRangeReadMillis();
+
+  void setTargetRangeReadMillis(Long value);
 }
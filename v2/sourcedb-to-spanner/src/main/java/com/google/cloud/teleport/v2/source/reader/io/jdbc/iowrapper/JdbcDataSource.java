@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.net.URLClassLoader;
+import java.util.Objects;
 import javax.sql.DataSource;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.apache.commons.lang3.StringUtils;
@@ -178,6 +179,44 @@ public final class JdbcDataSource extends BasicDataSource implements Serializabl
     initializeSuper();
   }
 
+  /**
+   * Data sources are equal when they connect to the same source with the same pool settings.
+   *
+   * <p>{@link org.apache.beam.sdk.io.jdbc.JdbcIO.PoolableDataSourceProvider} keeps one pool per
+   * worker for each distinct {@link org.apache.beam.sdk.io.jdbc.JdbcIO.DataSourceConfiguration}.
+   * Comparing by value lets the readers of all the tables of a source share that pool, and so its
+   * {@code maxConnections}, instead of opening a pool per reader.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof JdbcDataSource)) {
+      return false;
+    }
+    JdbcDataSource that = (JdbcDataSource) o;
+    return Objects.equals(sourceDbURL, that.sourceDbURL)
+        && Objects.equals(getUsername(), that.getUsername())
+        && Objects.equals(getPassword(), that.getPassword())
+        && Objects.equals(initSql, that.initSql)
+        && Objects.equals(maxConnections, that.maxConnections)
+        && Objects.equals(jdbcDriverJars, that.jdbcDriverJars)
+        && Objects.equals(jdbcDriverClassName, that.jdbcDriverClassName)
+        && Objects.equals(testOnBorrow, that.testOnBorrow)
+        && Objects.equals(testOnCreate, that.testOnCreate)
+        && Objects.equals(testOnReturn, that.testOnReturn)
+        && Objects.equals(testWhileIdle, that.testWhileIdle)
+        && Objects.equals(validationQuery, that.validationQuery)
+        && Objects.equals(removeAbandonedTimeout, that.removeAbandonedTimeout)
+        && Objects.equals(minEvictableIdleTimeMillis, that.minEvictableIdleTimeMillis);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(sourceDbURL, getUsername(), initSql, maxConnections, jdbcDriverClassName);
+  }
+
   @Override
   public String toString() {
     return String.format(
@@ -462,6 +462,7 @@ public final class JdbcIoWrapper implements IoWrapper {
             .setSplitStageCountHint(0L)
             .setDbParallelizationForSplitProcess(config.dbParallelizationForSplitProcess())
             .setDbParallelizationForReads(config.dbParallelizationForReads())
+            .setTargetRangeReadMillis(config.targetRangeReadMillis())
             .setAdditionalOperationsOnRanges(config.additionalOperationsOnRanges());
 
     if (tableConfig.maxPartitions() != null) {
@@ -157,6 +157,14 @@ public abstract class JdbcIOWrapperConfig {
   @Nullable
   public abstract Integer dbParallelizationForReads();
 
+  /**
+   * If not null, ranges that are expected to take longer than this many milliseconds to read are
+   * split again at read time. Ignored if {@link
+   * JdbcIOWrapperConfig#readWithUniformPartitionsFeatureEnabled()} is false. Defaults to null.
+   */
+  @Nullable
+  public abstract Long targetRangeReadMillis();
+
   /**
    * A transform that can be injected to make use of the discovered splits for additional use case
    * like creating split points on spanner before the actual read. Ignored if {@link
@@ -258,6 +266,7 @@ public abstract class JdbcIOWrapperConfig {
         .setWaitOn(null)
         .setMaxFetchSize(null)
         .setDbParallelizationForReads(null)
+        .setTargetRangeReadMillis(null)
         .setDbParallelizationForSplitProcess(DEFAULT_PARALLELIZATION_FOR_SLIT_PROCESS)
         .setReadWithUniformPartitionsFeatureEnabled(true)
         .setTestOnBorrow(DEFAULT_TEST_ON_BORROW)
@@ -288,6 +297,7 @@ public abstract class JdbcIOWrapperConfig {
         .setWaitOn(null)
         .setMaxFetchSize(null)
         .setDbParallelizationForReads(null)
+        .setTargetRangeReadMillis(null)
         .setDbParallelizationForSplitProcess(DEFAULT_PARALLELIZATION_FOR_SLIT_PROCESS)
         .setReadWithUniformPartitionsFeatureEnabled(true)
         .setTestOnBorrow(DEFAULT_TEST_ON_BORROW)
@@ -348,6 +358,8 @@ public abstract class JdbcIOWrapperConfig {
 
     public abstract Builder setDbParallelizationForReads(@Nullable Integer value);
 
+    public abstract Builder setTargetRangeReadMillis(@Nullable Long value);
+
     public abstract Builder setAdditionalOperationsOnRanges(
         @Nullable PTransform<PCollection<ImmutableList<Range>>, ?> value);
 
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.transforms;
+
+import static org.apache.beam.sdk.util.Preconditions.checkStateNotNull;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.Range;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.RangePreparedStatementSetter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+import org.apache.beam.sdk.io.jdbc.JdbcIO;
+import org.apache.beam.sdk.metrics.Counter;
+import org.apache.beam.sdk.metrics.Distribution;
+import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.SerializableFunction;
+import org.apache.beam.sdk.values.TupleTag;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * DoFn to read a Range, re-splitting ranges that are expected to be stragglers.
+ *
+ * <p>Each instance tracks the rows read and the time taken by the ranges it has read so far. When
+ * {@code targetRangeReadMillis} is set, a range whose expected read time, as per its count and the
+ * observed throughput, exceeds the target is not read. Instead, it is split via its {@link
+ * com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.BoundarySplitter
+ * BoundarySplitter} and the split ranges are output to {@link ReadRangeDoFn#RESPLIT_TAG} for a
+ * second read pass. Ranges whose count query timed out are always re-split as they are the likely
+ * stragglers. When {@code targetRangeReadMillis} is null, every range is read.
+ */
+final class ReadRangeDoFn<T> extends DoFn<Range, T> implements Serializable {
+
+  /** Tag for the ranges that are re-split instead of being read. */
+  static final TupleTag<Range> RESPLIT_TAG = new TupleTag<Range>() {};
+
+  /** Default fetch size, same as that of {@link JdbcIO}. */
+  private static final int DEFAULT_FETCH_SIZE = 50_000;
+
+  /** Maximum number of ranges a range is re-split into. */
+  @VisibleForTesting static final int MAX_RESPLIT_COUNT = 16;
+
+  private static final Logger logger = LoggerFactory.getLogger(ReadRangeDoFn.class);
+
+  private static final Distribution rangeReadRowsPerSecond =
+      Metrics.distribution(ReadRangeDoFn.class, "range_read_rows_per_second");
+  private static final Distribution rangeReadMillis =
+      Metrics.distribution(ReadRangeDoFn.class, "range_read_millis");
+  private static final Counter rangesResplit =
+      Metrics.counter(ReadRangeDoFn.class, "ranges_resplit");
+
+  private final SerializableFunction<Void, DataSource> dataSourceProviderFn;
+  private final String readQuery;
+  private final long numColumns;
+  private final JdbcIO.RowMapper<T> rowMapper;
+  @Nullable private final Integer fetchSize;
+  private final String tableName;
+  @Nullable private final Long targetRangeReadMillis;
+
+  @JsonIgnore private transient @Nullable DataSource dataSource;
+  private transient long observedRows;
+  private transient long observedNanos;
+
+  ReadRangeDoFn(
+      SerializableFunction<Void, DataSource> dataSourceProviderFn,
+      String readQuery,
+      long numColumns,
+      JdbcIO.RowMapper<T> rowMapper,
+      @Nullable Integer fetchSize,
+      String tableName,
+      @Nullable Long targetRangeReadMillis) {
+    this.dataSourceProviderFn = dataSourceProviderFn;
+    this.readQuery = readQuery;
+    this.numColumns = numColumns;
+    this.rowMapper = rowMapper;
+    this.fetchSize = fetchSize;
+    this.tableName = tableName;
+    this.targetRangeReadMillis = targetRangeReadMillis;
+    this.dataSource = null;
+  }
+
+  @Setup
+  public void setup() throws Exception {
+    dataSource = dataSourceProviderFn.apply(null);
+  }
+
+  private Connection acquireConnection() throws SQLException {
+    return checkStateNotNull(this.dataSource).getConnection();
+  }
+
+  /**
+   * Read a range, or re-split it if it is expected to take longer than {@code
+   * targetRangeReadMillis}.
+   *
+   * @param c process context.
+   * @throws Exception from jdbc or the row mapper. Beam retries the range in that case.
+   */
+  @ProcessElement
+  public void processElement(ProcessContext c) throws Exception {
+    Range input = c.element();
+    if (shouldResplit(input, c)) {
+      ImmutableList<Range> splitRanges = splitRange(input, resplitCount(input), c);
+      logger.info(
+          "RWUPT - Re-splitting range for table {} into {} ranges. Range = {}",
+          tableName,
+          splitRanges.size(),
+          input);
+      for (Range range : splitRanges) {
+        c.output(RESPLIT_TAG, range);
+      }
+      rangesResplit.inc();
+      return;
+    }
+    long startNanos = System.nanoTime();
+    long rows = 0;
+    try (Connection conn = acquireConnection()) {
+      // PostgreSQL requires autocommit to be disabled to enable cursor streaming.
+      conn.setAutoCommit(false);
+      try (PreparedStatement stmt =
+          conn.prepareStatement(
+              readQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+        stmt.setFetchSize(fetchSize == null ? DEFAULT_FETCH_SIZE : fetchSize);
+        new RangePreparedStatementSetter(numColumns).setParameters(input, stmt);
+        try (ResultSet rs = stmt.executeQuery()) {
+          while (rs.next()) {
+            c.output(rowMapper.mapRow(rs));
+            rows++;
+          }
+        }
+      }
+    }
+    recordRead(rows, System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Record the throughput of a completed range read.
+   *
+   * @param rows rows read.
+   * @param nanos time taken for the read.
+   */
+  @VisibleForTesting
+  void recordRead(long rows, long nanos) {
+    observedRows += rows;
+    observedNanos += nanos;
+    long millis = nanos / 1_000_000;
+    rangeReadMillis.update(millis);
+    if (nanos > 0) {
+      rangeReadRowsPerSecond.update(rows * 1_000_000_000L / nanos);
+    }
+    logger.debug(
+        "RWUPT - Read {} rows in {} ms for table {}. Observed rows = {}, nanos = {}",
+        rows,
+        millis,
+        tableName,
+        observedRows,
+        observedNanos);
+  }
+
+  private boolean shouldResplit(Range input, ProcessContext c) {
+    if (targetRangeReadMillis == null || !input.isSplittable(c)) {
+      return false;
+    }
+    if (input.isUncounted()) {
+      return true;
+    }
+    // Till some rows are read, there is no throughput to estimate the read time from.
+    if (observedRows == 0) {
+      return false;
+    }
+    return expectedReadMillis(input) > targetRangeReadMillis;
+  }
+
+  private double expectedReadMillis(Range input) {
+    return (double) input.count() * observedNanos / observedRows / 1_000_000;
+  }
+
+  private int resplitCount(Range input) {
+    if (input.isUncounted() || targetRangeReadMillis == 0) {
+      return MAX_RESPLIT_COUNT;
+    }
+    return (int)
+        Math.min(MAX_RESPLIT_COUNT, Math.ceil(expectedReadMillis(input) / targetRangeReadMillis));
+  }
+
+  /**
+   * Split a range into at least {@code count} ranges, as long as the ranges remain splittable. The
+   * largest ranges, as per their key space, are split first.
+   *
+   * @param input range to split.
+   * @param count number of ranges to split into.
+   * @param c process context.
+   * @return sorted list of split ranges.
+   */
+  @VisibleForTesting
+  static ImmutableList<Range> splitRange(
+      Range input, int count, @Nullable DoFn<?, ?>.ProcessContext c) {
+    ArrayDeque<Range> toSplit = new ArrayDeque<>();
+    List<Range> ranges = new ArrayList<>();
+    toSplit.add(input);
+    while (!toSplit.isEmpty() && toSplit.size() + ranges.size() < count) {
+      Range range = toSplit.poll();
+      if (range.isSplittable(c)) {
+        Pair<Range, Range> splitPair = range.split(c);
+        toSplit.add(splitPair.getLeft());
+        toSplit.add(splitPair.getRight());
+      } else {
+        ranges.add(range);
+      }
+    }
+    ranges.addAll(toSplit);
+    Collections.sort(ranges);
+    return ImmutableList.copyOf(ranges);
+  }
+}
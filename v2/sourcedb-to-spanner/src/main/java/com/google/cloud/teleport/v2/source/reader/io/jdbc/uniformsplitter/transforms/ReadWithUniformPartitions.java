@@ -32,6 +32,9 @@ import com.google.common.collect.ImmutableList;
 import java.util.Map;
 import javax.annotation.Nullable;
 import javax.sql.DataSource;
+import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.coders.CannotProvideCoderException;
+import org.apache.beam.sdk.coders.Coder;
 import org.apache.beam.sdk.io.jdbc.JdbcIO;
 import org.apache.beam.sdk.io.jdbc.JdbcIO.PreparedStatementSetter;
 import org.apache.beam.sdk.io.jdbc.JdbcIO.ReadAll;
@@ -49,7 +52,11 @@ import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PCollectionList;
 import org.apache.beam.sdk.values.PCollectionTuple;
 import org.apache.beam.sdk.values.PCollectionView;
+import org.apache.beam.sdk.values.TupleTag;
 import org.apache.beam.sdk.values.TupleTagList;
+import org.apache.beam.sdk.values.TypeDescriptor;
+import org.apache.beam.sdk.values.TypeDescriptors;
+import org.apache.beam.sdk.values.TypeDescriptors.TypeVariableExtractor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -162,6 +169,18 @@ public abstract class ReadWithUniformPartitions<T> extends PTransform<PBegin, PC
   @Nullable
   abstract Integer dbParallelizationForReads();
 
+  /**
+   * If not null, enables dynamic splitting of the ranges at read time. A range that is expected to
+   * take longer than this many milliseconds to read, as per the read throughput observed so far, is
+   * split again and read in a second pass, so that a few slow ranges do not decide the completion
+   * time of the read. Defaults to null.
+   *
+   * @see ReadRangeDoFn
+   */
+  @VisibleForTesting
+  @Nullable
+  public abstract Long targetRangeReadMillis();
+
   /**
    * An optional transform that can be injected at the end of splitting process to make use of the
    * ranges. This could range anywhere for logging to gcs, to creating split points on spanner, to
@@ -225,19 +244,81 @@ public abstract class ReadWithUniformPartitions<T> extends PTransform<PBegin, PC
             .apply(
                 ParDo.of(new UnflattenRangesDoFn())
                     .withSideInputs(typeMapper.getCollationMapperView()));
-    return rangesToRead
-        .apply(
+    PCollection<Range> reshuffledRanges =
+        rangesToRead.apply(
             getTransformName("ReshuffleFinal", null),
-            Reshuffle.<Range>viaRandomKey().withNumBuckets(dbParallelizationForReads()))
-        .apply(
+            Reshuffle.<Range>viaRandomKey().withNumBuckets(dbParallelizationForReads()));
+    if (targetRangeReadMillis() != null) {
+      return readWithDynamicSplitting(reshuffledRanges, typeMapper, colNames);
+    }
+    return reshuffledRanges.apply(
+        getTransformName("RangeRead", null),
+        buildJdbcIO(
+            JdbcIO.<Range, T>readAll(),
+            dbAdapter().getReadQuery(tableName(), colNames),
+            rangePrepareator,
+            dataSourceProviderFn(),
+            rowMapper(),
+            fetchSize()));
+  }
+
+  /**
+   * Read the ranges in two passes. The first pass reads the ranges and re-splits the ones that are
+   * expected to be stragglers. The second pass reads the re-split ranges.
+   */
+  private PCollection<T> readWithDynamicSplitting(
+      PCollection<Range> ranges, BoundaryTypeMapper typeMapper, ImmutableList<String> colNames) {
+    String readQuery = dbAdapter().getReadQuery(tableName(), colNames);
+    Coder<T> rowCoder = inferRowCoder(ranges.getPipeline());
+    TupleTag<T> rowsTag = new TupleTag<T>() {};
+    PCollectionTuple firstPass =
+        ranges.apply(
             getTransformName("RangeRead", null),
-            buildJdbcIO(
-                JdbcIO.<Range, T>readAll(),
-                dbAdapter().getReadQuery(tableName(), colNames),
-                rangePrepareator,
-                dataSourceProviderFn(),
-                rowMapper(),
-                fetchSize()));
+            ParDo.of(
+                    new ReadRangeDoFn<T>(
+                        dataSourceProviderFn(),
+                        readQuery,
+                        colNames.size(),
+                        rowMapper(),
+                        fetchSize(),
+                        tableName(),
+                        targetRangeReadMillis()))
+                .withOutputTags(rowsTag, TupleTagList.of(ReadRangeDoFn.RESPLIT_TAG))
+                .withSideInputs(typeMapper.getCollationMapperView()));
+    PCollection<T> secondPass =
+        firstPass
+            .get(ReadRangeDoFn.RESPLIT_TAG)
+            .apply(
+                getTransformName("ReshuffleResplit", null),
+                Reshuffle.<Range>viaRandomKey().withNumBuckets(dbParallelizationForReads()))
+            .apply(
+                getTransformName("ResplitRangeRead", null),
+                ParDo.of(
+                    new ReadRangeDoFn<T>(
+                        dataSourceProviderFn(),
+                        readQuery,
+                        colNames.size(),
+                        rowMapper(),
+                        fetchSize(),
+                        tableName(),
+                        null)))
+            .setCoder(rowCoder);
+    return PCollectionList.of(firstPass.get(rowsTag).setCoder(rowCoder))
+        .and(secondPass)
+        .apply(getTransformName("FlattenReadRows", null), Flatten.pCollections());
+  }
+
+  /** Infer the coder of the rows from the type of the {@link RowMapper}, like {@link JdbcIO}. */
+  private Coder<T> inferRowCoder(Pipeline pipeline) {
+    TypeDescriptor<T> rowType =
+        TypeDescriptors.extractFromTypeParameters(
+            rowMapper(), RowMapper.class, new TypeVariableExtractor<RowMapper<T>, T>() {});
+    try {
+      return pipeline.getCoderRegistry().getCoder(rowType);
+    } catch (CannotProvideCoderException e) {
+      throw new IllegalStateException(
+          "Unable to infer a coder for the rows of table " + tableName(), e);
+    }
   }
 
   @VisibleForTesting
@@ -266,6 +347,7 @@ public abstract class ReadWithUniformPartitions<T> extends PTransform<PBegin, PC
         .setCountQueryTimeoutMillis(SPLITTER_DEFAULT_COUNT_QUERY_TIMEOUT_MILLIS)
         .setDbParallelizationForSplitProcess(null)
         .setDbParallelizationForReads(null)
+        .setTargetRangeReadMillis(null)
         .setFetchSize(null)
         .setAutoAdjustMaxPartitions(true);
   }
@@ -482,6 +564,8 @@ public abstract class ReadWithUniformPartitions<T> extends PTransform<PBegin, PC
 
     public abstract Builder<T> setDbParallelizationForReads(@Nullable Integer value);
 
+    public abstract Builder<T> setTargetRangeReadMillis(@Nullable Long value);
+
     public abstract Builder<T> setRowMapper(JdbcIO.RowMapper<T> value);
 
     public abstract Builder<T> setFetchSize(@Nullable Integer value);
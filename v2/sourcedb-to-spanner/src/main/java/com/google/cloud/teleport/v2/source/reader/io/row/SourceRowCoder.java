@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.row;
+
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchema;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchemaReference;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceTableSchema;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.CustomCoder;
+import org.apache.beam.sdk.coders.NullableCoder;
+import org.apache.beam.sdk.coders.SerializableCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.coders.VarIntCoder;
+
+/**
+ * The {@link SourceRowCoder} encodes and decodes {@link SourceRow} objects.
+ *
+ * <p>The coder is built from the {@link SourceSchema} of the reader, which acts as a registry of
+ * the table schemas. Each row is encoded as the small index of its table schema in that registry,
+ * followed by the shard id and the Avro binary encoding of the record. The schema reference, the
+ * table schema and the table name are resolved from the registry on decode instead of being encoded
+ * with every row.
+ *
+ * <p>A row whose schema is not part of the registry is encoded with Java serialization, marked by
+ * the index {@code 0}.
+ */
+public class SourceRowCoder extends CustomCoder<SourceRow> {
+
+  private static final int UNREGISTERED_SCHEMA_ID = 0;
+  private static final VarIntCoder SCHEMA_ID_CODER = VarIntCoder.of();
+  private static final NullableCoder<String> STRING_CODER = NullableCoder.of(StringUtf8Coder.of());
+  private static final SerializableCoder<SourceRow> FALLBACK_CODER =
+      SerializableCoder.of(SourceRow.class);
+
+  private final SourceSchemaReference sourceSchemaReference;
+  private final ImmutableList<SourceTableSchema> tableSchemas;
+
+  private transient Map<String, Integer> schemaIds;
+  private transient GenericDatumWriter<GenericRecord>[] writers;
+  private transient GenericDatumReader<GenericRecord>[] readers;
+
+  private SourceRowCoder(SourceSchema sourceSchema) {
+    this.sourceSchemaReference = sourceSchema.schemaReference();
+    this.tableSchemas = sourceSchema.tableSchemas();
+    initialize();
+  }
+
+  public static SourceRowCoder of(SourceSchema sourceSchema) {
+    return new SourceRowCoder(sourceSchema);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void initialize() {
+    schemaIds = new HashMap<>();
+    writers = new GenericDatumWriter[tableSchemas.size()];
+    readers = new GenericDatumReader[tableSchemas.size()];
+    for (int i = 0; i < tableSchemas.size(); i++) {
+      SourceTableSchema tableSchema = tableSchemas.get(i);
+      schemaIds.put(tableSchema.tableSchemaUUID(), i + 1);
+      // Datum writers and readers hold no per-call state and can be shared across threads.
+      writers[i] = new GenericDatumWriter<>(tableSchema.avroSchema());
+      readers[i] = new GenericDatumReader<>(tableSchema.avroSchema());
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    initialize();
+  }
+
+  @Override
+  public void encode(SourceRow value, OutputStream outStream) throws IOException {
+    if (value == null) {
+      throw new CoderException("The SourceRowCoder cannot encode a null object!");
+    }
+    Integer schemaId = schemaIds.get(value.tableSchemaUUID());
+    if (schemaId == null || !sourceSchemaReference.equals(value.sourceSchemaReference())) {
+      SCHEMA_ID_CODER.encode(UNREGISTERED_SCHEMA_ID, outStream);
+      FALLBACK_CODER.encode(value, outStream);
+      return;
+    }
+    SCHEMA_ID_CODER.encode(schemaId, outStream);
+    STRING_CODER.encode(value.shardId(), outStream);
+    BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(outStream, null);
+    writers[schemaId - 1].write(value.record().getRecord(), encoder);
+    encoder.flush();
+  }
+
+  @Override
+  public SourceRow decode(InputStream inStream) throws IOException {
+    int schemaId = SCHEMA_ID_CODER.decode(inStream);
+    if (schemaId == UNREGISTERED_SCHEMA_ID) {
+      return FALLBACK_CODER.decode(inStream);
+    }
+    if (schemaId > tableSchemas.size()) {
+      throw new CoderException("Unknown table schema id " + schemaId + " for SourceRow");
+    }
+    String shardId = STRING_CODER.decode(inStream);
+    // The direct decoder does not read ahead, so it never consumes bytes of the next element.
+    GenericRecord record =
+        readers[schemaId - 1].read(null, DecoderFactory.get().directBinaryDecoder(inStream, null));
+    SourceTableSchema tableSchema = tableSchemas.get(schemaId - 1);
+    return SourceRow.create(
+        sourceSchemaReference,
+        tableSchema.tableSchemaUUID(),
+        tableSchema.tableName(),
+        shardId,
+        record);
+  }
+
+  @Override
+  public void verifyDeterministic() throws NonDeterministicException {
+    throw new NonDeterministicException(
+        this, "Avro encoding of source rows is not guaranteed to be deterministic.");
+  }
+
+  /** Coders built from equal schemas encode rows the same way. */
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof SourceRowCoder)) {
+      return false;
+    }
+    SourceRowCoder that = (SourceRowCoder) other;
+    return sourceSchemaReference.equals(that.sourceSchemaReference)
+        && tableSchemas.equals(that.tableSchemas);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(sourceSchemaReference, tableSchemas);
+  }
+}
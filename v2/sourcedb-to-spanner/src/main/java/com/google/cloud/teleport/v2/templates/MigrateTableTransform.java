@@ -15,11 +15,13 @@
  */
 package com.google.cloud.teleport.v2.templates;
 
+import com.google.cloud.spanner.Mutation;
 import com.google.cloud.teleport.v2.constants.SourceDbToSpannerConstants;
 import com.google.cloud.teleport.v2.options.SourceDbToSpannerOptions;
 import com.google.cloud.teleport.v2.source.reader.ReaderImpl;
 import com.google.cloud.teleport.v2.source.reader.io.jdbc.iowrapper.config.SQLDialect;
 import com.google.cloud.teleport.v2.source.reader.io.row.SourceRow;
+import com.google.cloud.teleport.v2.source.reader.io.row.SourceRowCoder;
 import com.google.cloud.teleport.v2.source.reader.io.transform.ReaderTransform;
 import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.ISchemaMapper;
@@ -79,7 +81,13 @@ public class MigrateTableTransform extends PTransform<PBegin, PCollection<Void>>
     ReaderTransform readerTransform = reader.getReaderTransform();
 
     PCollectionTuple rowsAndTables = input.apply("Read_rows", readerTransform.readTransform());
-    PCollection<SourceRow> sourceRows = rowsAndTables.get(readerTransform.sourceRowTag());
+    // Rows are encoded against the schema discovered by the reader, so that each row carries a
+    // small schema id instead of its schema.
+    PCollection<SourceRow> sourceRows =
+        rowsAndTables
+            .get(readerTransform.sourceRowTag())
+            .setCoder(SourceRowCoder.of(reader.getSourceSchema()));
+    RowContextCoder rowContextCoder = RowContextCoder.of(reader.getSourceSchema());
 
     CustomTransformation customTransformation =
         CustomTransformation.builder(
@@ -107,7 +115,7 @@ public class MigrateTableTransform extends PTransform<PBegin, PCollection<Void>>
         writer.writeToSpanner(
             transformationResult
                 .get(SourceDbToSpannerConstants.ROW_TRANSFORMATION_SUCCESS)
-                .setCoder(SerializableCoder.of(RowContext.class)));
+                .setCoder(SerializableCoder.of(Mutation.class)));
     PCollection<MutationGroup> failedMutations = spannerWriteResult.getFailedMutations();
 
     String outputDirectory = options.getOutputDirectory();
@@ -124,7 +132,7 @@ public class MigrateTableTransform extends PTransform<PBegin, PCollection<Void>>
     dlq.failedTransformsToDLQ(
         transformationResult
             .get(SourceDbToSpannerConstants.ROW_TRANSFORMATION_ERROR)
-            .setCoder(SerializableCoder.of(RowContext.class)));
+            .setCoder(rowContextCoder));
 
     /*
      * Write filtered records to GCS
@@ -136,7 +144,7 @@ public class MigrateTableTransform extends PTransform<PBegin, PCollection<Void>>
     filteredEventsQueue.filteredEventsToDLQ(
         transformationResult
             .get(SourceDbToSpannerConstants.FILTERED_EVENT_TAG)
-            .setCoder(SerializableCoder.of(RowContext.class)));
+            .setCoder(rowContextCoder));
     return spannerWriteResult.getOutput();
   }
 }
@@ -29,6 +29,7 @@ import com.google.cloud.teleport.v2.spanner.migrations.schema.SessionBasedMapper
 import com.google.cloud.teleport.v2.spanner.migrations.shard.Shard;
 import com.google.cloud.teleport.v2.spanner.migrations.spanner.SpannerSchema;
 import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,9 +45,6 @@ import org.apache.beam.sdk.options.ValueProvider;
 import org.apache.beam.sdk.transforms.Wait;
 import org.apache.beam.sdk.transforms.Wait.OnSignal;
 import org.apache.beam.sdk.values.PCollection;
-import org.checkerframework.checker.initialization.qual.Initialized;
-import org.checkerframework.checker.nullness.qual.Nullable;
-import org.checkerframework.checker.nullness.qual.UnknownKeyFor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,14 +61,15 @@ public class PipelineController {
     ISchemaMapper schemaMapper = PipelineController.getSchemaMapper(options, ddl);
     TableSelector tableSelector = new TableSelector(options.getTables(), ddl, schemaMapper);
 
-    Map<Integer, List<String>> levelToSpannerTableList = tableSelector.levelOrderedSpannerTables();
+    Map<Integer, List<String>> groupToSpannerTableList =
+        tableSelector.dependencyOrderedSpannerTables();
     DbConfigContainer dbConfigContainer = new SingleInstanceDbConfigContainer(options);
     setupLogicalDbMigration(
         options,
         pipeline,
         spannerConfig,
         tableSelector,
-        levelToSpannerTableList,
+        groupToSpannerTableList,
         dbConfigContainer);
 
     return pipeline.run();
@@ -91,7 +90,8 @@ public class PipelineController {
     ISchemaMapper schemaMapper = PipelineController.getSchemaMapper(options, ddl);
     TableSelector tableSelector = new TableSelector(options.getTables(), ddl, schemaMapper);
 
-    Map<Integer, List<String>> levelToSpannerTableList = tableSelector.levelOrderedSpannerTables();
+    Map<Integer, List<String>> groupToSpannerTableList =
+        tableSelector.dependencyOrderedSpannerTables();
 
     SQLDialect sqlDialect = SQLDialect.valueOf(options.getSourceDbDialect());
 
@@ -115,7 +115,7 @@ public class PipelineController {
             pipeline,
             spannerConfig,
             tableSelector,
-            levelToSpannerTableList,
+            groupToSpannerTableList,
             dbConfigContainer);
       }
     }
@@ -127,36 +127,43 @@ public class PipelineController {
       Pipeline pipeline,
       SpannerConfig spannerConfig,
       TableSelector tableSelector,
-      Map<Integer, List<String>> levelToSpannerTableList,
+      Map<Integer, List<String>> groupToSpannerTableList,
       DbConfigContainer configContainer) {
-    Map<Integer, PCollection<Void>> levelVsOutputMap = new HashMap<>();
-    for (int currentLevel = 0; currentLevel < levelToSpannerTableList.size(); currentLevel++) {
-      List<String> spannerTables = levelToSpannerTableList.get(currentLevel);
-      LOG.info("processing level: {} spanner tables: {}", currentLevel, spannerTables);
+    Map<Integer, PCollection<Void>> groupVsOutputMap = new HashMap<>();
+    Map<String, PCollection<Void>> tableVsOutputMap = new HashMap<>();
+    for (int currentGroup = 0; currentGroup < groupToSpannerTableList.size(); currentGroup++) {
+      List<String> spannerTables = groupToSpannerTableList.get(currentGroup);
+      LOG.info("processing group: {} spanner tables: {}", currentGroup, spannerTables);
       List<String> sourceTables =
           spannerTables.stream()
               .map(t -> tableSelector.getSchemaMapper().getSourceTableName("", t))
               .collect(Collectors.toList());
-      LOG.info("level: {} source tables: {}", currentLevel, spannerTables);
-      PCollection<Void> previousLevelPCollection = levelVsOutputMap.get(currentLevel - 1);
-      if (currentLevel > 0 && previousLevelPCollection == null) {
-        LOG.warn(
-            "proceeding without waiting for parent. current level: {}  tables: {}",
-            currentLevel,
-            spannerTables);
+      LOG.info("group: {} source tables: {}", currentGroup, sourceTables);
+      // Wait only on the tables referenced by this group, not on every table migrated before it.
+      List<PCollection<?>> parentOutputs = new ArrayList<>();
+      for (String spannerTable : spannerTables) {
+        for (String parentTable : tableSelector.referencedSpannerTables(spannerTable)) {
+          PCollection<Void> parentOutput = tableVsOutputMap.get(parentTable);
+          if (parentOutput == null) {
+            LOG.warn(
+                "proceeding without waiting for parent. table: {} parent: {}",
+                spannerTable,
+                parentTable);
+          } else if (!parentOutputs.contains(parentOutput)) {
+            parentOutputs.add(parentOutput);
+          }
+        }
       }
-      OnSignal<@UnknownKeyFor @Nullable @Initialized Object> waitOnSignal =
-          previousLevelPCollection != null ? Wait.on(previousLevelPCollection) : null;
+      OnSignal<?> waitOnSignal = parentOutputs.isEmpty() ? null : Wait.on(parentOutputs);
       JdbcIoWrapper jdbcIoWrapper =
           JdbcIoWrapper.of(configContainer.getJDBCIOWrapperConfig(sourceTables, waitOnSignal));
       if (jdbcIoWrapper.getTableReaders().isEmpty()) {
         LOG.info("not creating reader as tables are not found at source: {}", sourceTables);
-        // If tables of 1 level are ignored in middle, then the subsequent level will not wait to
-        // begin processing.
+        // If a parent table is ignored, its children will not wait for it to begin processing.
         continue;
       }
       ReaderImpl reader = ReaderImpl.of(jdbcIoWrapper);
-      String suffix = generateSuffix(configContainer.getShardId(), currentLevel + "");
+      String suffix = generateSuffix(configContainer.getShardId(), currentGroup + "");
 
       Map<String, String> srcTableToShardIdColumnMap =
           getSrcTableToShardIdColumnMap(
@@ -173,16 +180,19 @@ public class PipelineController {
                   reader,
                   configContainer.getShardId(),
                   srcTableToShardIdColumnMap));
-      levelVsOutputMap.put(currentLevel, output);
+      groupVsOutputMap.put(currentGroup, output);
+      for (String spannerTable : spannerTables) {
+        tableVsOutputMap.put(spannerTable, output);
+      }
     }
 
     // Add transform to increment table counter
     Map<Integer, OnSignal<?>> tableCompletionMap =
-        levelVsOutputMap.entrySet().stream()
+        groupVsOutputMap.entrySet().stream()
             .collect(Collectors.toMap(e -> e.getKey(), e -> Wait.on(e.getValue())));
     pipeline.apply(
         "Increment_table_counters" + generateSuffix(configContainer.getShardId(), null),
-        new IncrementTableCounter(tableCompletionMap, "", levelToSpannerTableList));
+        new IncrementTableCounter(tableCompletionMap, "", groupToSpannerTableList));
   }
 
   /**
@@ -295,7 +305,8 @@ public class PipelineController {
           options.getMaxConnections(),
           options.getNumPartitions(),
           waitOnSignal,
-          options.getFetchSize());
+          options.getFetchSize(),
+          options.getTargetRangeReadMillis());
     }
 
     @Override
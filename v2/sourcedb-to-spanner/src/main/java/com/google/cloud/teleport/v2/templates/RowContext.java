@@ -16,22 +16,22 @@
 package com.google.cloud.teleport.v2.templates;
 
 import com.google.auto.value.AutoValue;
-import com.google.cloud.spanner.Mutation;
 import com.google.cloud.teleport.v2.source.reader.io.row.SourceRow;
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
 import javax.annotation.Nullable;
 
-/** Carrier of all the context of a given row through the duration of this pipeline. */
+/**
+ * Carrier of all the context of a given row through the duration of this pipeline. The mutation
+ * of a row which transformed successfully is output on its own, so a context only carries the row
+ * and, if it failed, the error.
+ */
 @AutoValue
 public abstract class RowContext implements Serializable {
 
   public abstract SourceRow row();
 
-  @Nullable
-  public abstract Mutation mutation();
-
   @Nullable
   public abstract Throwable err();
 
@@ -44,8 +44,6 @@ public abstract class RowContext implements Serializable {
 
     public abstract Builder setRow(SourceRow row);
 
-    public abstract Builder setMutation(Mutation m);
-
     public abstract Builder setErr(Throwable t);
 
     public abstract RowContext build();
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates;
+
+import com.google.cloud.teleport.v2.source.reader.io.row.SourceRow;
+import com.google.cloud.teleport.v2.source.reader.io.row.SourceRowCoder;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchema;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.CustomCoder;
+import org.apache.beam.sdk.coders.NullableCoder;
+import org.apache.beam.sdk.coders.SerializableCoder;
+
+/**
+ * The {@link RowContextCoder} encodes and decodes {@link RowContext} objects.
+ *
+ * <p>The row is encoded with {@link SourceRowCoder}, so that it does not carry its schema through
+ * every fusion break. The error is only set on the rows which failed and keeps its Java
+ * serialization.
+ */
+public class RowContextCoder extends CustomCoder<RowContext> {
+
+  private static final NullableCoder<Throwable> ERROR_CODER =
+      NullableCoder.of(SerializableCoder.of(Throwable.class));
+
+  private final SourceRowCoder sourceRowCoder;
+
+  private RowContextCoder(SourceRowCoder sourceRowCoder) {
+    this.sourceRowCoder = sourceRowCoder;
+  }
+
+  public static RowContextCoder of(SourceSchema sourceSchema) {
+    return new RowContextCoder(SourceRowCoder.of(sourceSchema));
+  }
+
+  @Override
+  public void encode(RowContext value, OutputStream outStream) throws IOException {
+    if (value == null) {
+      throw new CoderException("The RowContextCoder cannot encode a null object!");
+    }
+    sourceRowCoder.encode(value.row(), outStream);
+    ERROR_CODER.encode(value.err(), outStream);
+  }
+
+  @Override
+  public RowContext decode(InputStream inStream) throws IOException {
+    SourceRow row = sourceRowCoder.decode(inStream);
+    Throwable err = ERROR_CODER.decode(inStream);
+    return RowContext.builder().setRow(row).setErr(err).build();
+  }
+
+  @Override
+  public List<? extends Coder<?>> getCoderArguments() {
+    return Arrays.asList(sourceRowCoder);
+  }
+
+  @Override
+  public void verifyDeterministic() throws NonDeterministicException {
+    throw new NonDeterministicException(this, "Row contexts carry Java serialized errors.");
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof RowContextCoder
+        && sourceRowCoder.equals(((RowContextCoder) other).sourceRowCoder);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getClass(), sourceRowCoder);
+  }
+}
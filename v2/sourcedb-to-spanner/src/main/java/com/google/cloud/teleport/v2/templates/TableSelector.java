@@ -126,6 +126,58 @@ public class TableSelector {
     return levelOrderedTables;
   }
 
+  /**
+   * Returns the spanner tables to migrate grouped for scheduling, keyed by group id.
+   *
+   * <p>Tables that neither reference nor are referenced by another migrated table are placed
+   * together in group 0 and can start right away. Every other table gets a group of its own, so
+   * that it only waits on the tables returned by {@link #referencedSpannerTables(String)} instead
+   * of on a whole level of unrelated tables. A group always comes after the groups of the tables it
+   * references. Each group gets its own reader, but the readers of a source share one connection
+   * pool per worker, so more groups do not mean more connections to the source.
+   */
+  public Map<Integer, List<String>> dependencyOrderedSpannerTables() {
+    Set<String> referencedTables = new HashSet<>();
+    for (String spTable : spTablesToMigrate) {
+      referencedTables.addAll(referencedSpannerTables(spTable));
+    }
+    List<String> independentTables = new ArrayList<>();
+    List<String> dependentTables = new ArrayList<>();
+    // spTablesToMigrate is topologically ordered, so parents are always added before children.
+    for (String spTable : spTablesToMigrate) {
+      if (referencedSpannerTables(spTable).isEmpty() && !referencedTables.contains(spTable)) {
+        independentTables.add(spTable);
+      } else {
+        dependentTables.add(spTable);
+      }
+    }
+    Map<Integer, List<String>> groupedTables = new HashMap<>();
+    int currentGroup = 0;
+    if (!independentTables.isEmpty()) {
+      groupedTables.put(currentGroup++, independentTables);
+    }
+    for (String spTable : dependentTables) {
+      groupedTables.put(currentGroup++, List.of(spTable));
+    }
+    LOG.info(
+        "dependency based table groups generated. independent tables: {} dependent tables: {}",
+        independentTables,
+        dependentTables);
+    return groupedTables;
+  }
+
+  /**
+   * Returns the migrated spanner tables that the given table directly references, either as its
+   * interleave parent or through a foreign key.
+   */
+  public List<String> referencedSpannerTables(String spTable) {
+    Set<String> tablesToMigrate = new HashSet<>(spTablesToMigrate);
+    return ddl.tablesReferenced(spTable).stream()
+        .map(t -> ddl.table(t) == null ? t : ddl.table(t).name())
+        .filter(tablesToMigrate::contains)
+        .collect(Collectors.toList());
+  }
+
   private void checkTableConfigIssues(String spTable) {
     for (String parentSpTable : ddl.tablesReferenced(spTable)) {
       try {
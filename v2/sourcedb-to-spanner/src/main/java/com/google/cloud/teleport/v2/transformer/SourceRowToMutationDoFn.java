@@ -102,9 +102,7 @@ public abstract class SourceRowToMutationDoFn extends DoFn<SourceRow, RowContext
       String spannerTableName = iSchemaMapper().getSpannerTableName("", srcTableName);
       // TODO: Move the mutation generation to writer. Create generic record here instead
       Mutation mutation = mutationFromMap(spannerTableName, values);
-      output
-          .get(SourceDbToSpannerConstants.ROW_TRANSFORMATION_SUCCESS)
-          .output(RowContext.builder().setRow(sourceRow).setMutation(mutation).build());
+      output.get(SourceDbToSpannerConstants.ROW_TRANSFORMATION_SUCCESS).output(mutation);
     } catch (Exception e) {
       LOG.error("Error while processing element", e);
       transformerErrors.inc();
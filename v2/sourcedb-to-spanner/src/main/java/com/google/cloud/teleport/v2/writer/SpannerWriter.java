@@ -16,16 +16,13 @@
 package com.google.cloud.teleport.v2.writer;
 
 import com.google.cloud.spanner.Mutation;
-import com.google.cloud.teleport.v2.templates.RowContext;
 import java.io.Serializable;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerIO;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerIO.FailureMode;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerIO.Write;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerWriteResult;
-import org.apache.beam.sdk.transforms.MapElements;
 import org.apache.beam.sdk.values.PCollection;
-import org.apache.beam.sdk.values.TypeDescriptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,14 +43,9 @@ public class SpannerWriter implements Serializable {
         .withFailureMode(FailureMode.REPORT_FAILURES);
   }
 
-  public SpannerWriteResult writeToSpanner(PCollection<RowContext> rows) {
+  public SpannerWriteResult writeToSpanner(PCollection<Mutation> mutations) {
     LOG.info("initiating write to spanner");
-    SpannerWriteResult writeResult =
-        rows.apply(
-                "extractMutation",
-                MapElements.into(TypeDescriptor.of(Mutation.class))
-                    .via((RowContext r) -> r.mutation()))
-            .apply("WriteToSpanner", getSpannerWrite());
+    SpannerWriteResult writeResult = mutations.apply("WriteToSpanner", getSpannerWrite());
 
     // This current returns only the failed mutation.
     // This needs to return the whole RowContext and Exception
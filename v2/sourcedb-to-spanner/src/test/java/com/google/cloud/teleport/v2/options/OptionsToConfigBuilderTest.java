@@ -76,6 +76,16 @@ public class OptionsToConfigBuilderTest {
                     Wait.on(dummyPCollection))
                 .maxFetchSize())
         .isEqualTo(42);
+    assertThat(config.targetRangeReadMillis()).isNull();
+    sourceDbToSpannerOptions.setTargetRangeReadMillis(60000L);
+    assertThat(
+            OptionsToConfigBuilder.getJdbcIOWrapperConfigWithDefaults(
+                    sourceDbToSpannerOptions,
+                    List.of("table1", "table2"),
+                    null,
+                    Wait.on(dummyPCollection))
+                .targetRangeReadMillis())
+        .isEqualTo(60000L);
   }
 
   @Test
@@ -100,6 +110,7 @@ public class OptionsToConfigBuilderTest {
             10,
             0,
             Wait.on(dummyPCollection),
+            null,
             null);
 
     JdbcIOWrapperConfig configWithoutConnectionProperties =
@@ -120,6 +131,7 @@ public class OptionsToConfigBuilderTest {
             10,
             0,
             Wait.on(dummyPCollection),
+            null,
             null);
 
     assertThat(configWithConnectionProperties.sourceDbURL())
@@ -185,6 +197,7 @@ public class OptionsToConfigBuilderTest {
             10,
             0,
             Wait.on(dummyPCollection),
+            null,
             null);
     JdbcIOWrapperConfig configWithoutConnectionParameters =
         OptionsToConfigBuilder.getJdbcIOWrapperConfig(
@@ -204,6 +217,7 @@ public class OptionsToConfigBuilderTest {
             10,
             0,
             Wait.on(dummyPCollection),
+            null,
             null);
     assertThat(configWithoutConnectionParameters.sourceDbURL())
         .isEqualTo("jdbc:postgresql://myhost:5432/mydb?currentSchema=public");
@@ -233,6 +247,7 @@ public class OptionsToConfigBuilderTest {
             10,
             0,
             Wait.on(dummyPCollection),
+            null,
             null);
     assertThat(configWithNamespace.sourceDbURL())
         .isEqualTo("jdbc:postgresql://myhost:5432/mydb?currentSchema=mynamespace");
@@ -142,4 +142,45 @@ public class JdbcDataSourceTest {
     assertThat(deserializedDataSource.getValidationQuery())
         .isEqualTo(testJdbcDataSource.getValidationQuery());
   }
+
+  @Test
+  public void testJdbcDataSourceEquality() throws IOException, ClassNotFoundException {
+    JdbcDataSource dataSource =
+        new JdbcDataSource(getConfig("jdbc:derby://myhost/memory:TestingDB;create=true"));
+    JdbcDataSource sameSource =
+        new JdbcDataSource(getConfig("jdbc:derby://myhost/memory:TestingDB;create=true"));
+    JdbcDataSource otherSource =
+        new JdbcDataSource(getConfig("jdbc:derby://otherhost/memory:TestingDB;create=true"));
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    ObjectOutputStream oos = new ObjectOutputStream(baos);
+    oos.writeObject(dataSource);
+    oos.close();
+    ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+    JdbcDataSource deserializedDataSource = (JdbcDataSource) ois.readObject();
+    ois.close();
+
+    // Readers of the same source share a connection pool per worker.
+    assertThat(sameSource).isEqualTo(dataSource);
+    assertThat(sameSource.hashCode()).isEqualTo(dataSource.hashCode());
+    assertThat(deserializedDataSource).isEqualTo(dataSource);
+    assertThat(deserializedDataSource.hashCode()).isEqualTo(dataSource.hashCode());
+    assertThat(otherSource).isNotEqualTo(dataSource);
+  }
+
+  private JdbcIOWrapperConfig getConfig(String sourceDbURL) {
+    return JdbcIOWrapperConfig.builderWithMySqlDefaults()
+        .setSourceDbURL(sourceDbURL)
+        .setSourceSchemaReference(JdbcSchemaReference.builder().setDbName("testDB").build())
+        .setShardID("test")
+        .setDbAuth(
+            LocalCredentialsProvider.builder()
+                .setUserName("testUser")
+                .setPassword("testPassword")
+                .build())
+        .setJdbcDriverJars("")
+        .setJdbcDriverClassName("org.apache.derby.jdbc.EmbeddedDriver")
+        .setDialectAdapter(mockDialectAdapter)
+        .build();
+  }
 }
@@ -382,6 +382,17 @@ public class JdbcIoWrapperTest {
             JdbcIoWrapper.of(configWithFeatureDisabled.toBuilder().setMaxFetchSize(42).build())
                 .getTableReaders())
         .hasSize(1);
+    // The target range read time configured from the options reaches the uniform partitions reader.
+    ReadWithUniformPartitions<?> readWithTargetRangeReadMillis =
+        (ReadWithUniformPartitions<?>)
+            JdbcIoWrapper.of(
+                    configWithFeatureEnabled.toBuilder().setTargetRangeReadMillis(60000L).build())
+                .getTableReaders()
+                .values()
+                .stream()
+                .findFirst()
+                .get();
+    assertThat(readWithTargetRangeReadMillis.targetRangeReadMillis()).isEqualTo(60000L);
   }
 
   @Test
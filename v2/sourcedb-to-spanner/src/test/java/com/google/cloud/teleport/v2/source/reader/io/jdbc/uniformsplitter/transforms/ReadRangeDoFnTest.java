@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.transforms;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.BoundarySplitterFactory;
+import com.google.cloud.teleport.v2.source.reader.io.jdbc.uniformsplitter.range.Range;
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.apache.beam.sdk.io.jdbc.JdbcIO.RowMapper;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.SerializableFunction;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/** Test class for {@link ReadRangeDoFn}. */
+@RunWith(MockitoJUnitRunner.class)
+public class ReadRangeDoFnTest {
+  SerializableFunction<Void, DataSource> mockDataSourceProviderFn =
+      Mockito.mock(SerializableFunction.class, withSettings().serializable());
+  DataSource mockDataSource = Mockito.mock(DataSource.class, withSettings().serializable());
+
+  Connection mockConnection = Mockito.mock(Connection.class, withSettings().serializable());
+
+  @Mock PreparedStatement mockPreparedStatemet;
+
+  @Mock ResultSet mockResultSet;
+
+  @Mock DoFn.ProcessContext mockProcessContext;
+  @Captor ArgumentCaptor<Range> rangeCaptor;
+
+  private final RowMapper<String> rowMapper = resultSet -> resultSet.getString(1);
+
+  @Test
+  public void testReadRangeDoFnReadsRange() throws Exception {
+    mockRead();
+    when(mockResultSet.next()).thenReturn(true, true, false);
+    when(mockResultSet.getString(1)).thenReturn("Data A", "Data B");
+    ReadRangeDoFn<String> readRangeDoFn = getReadRangeDoFn(null);
+    when(mockProcessContext.element()).thenReturn(getTestRange(0, 100, 2L));
+
+    readRangeDoFn.setup();
+    readRangeDoFn.processElement(mockProcessContext);
+
+    verify(mockConnection).setAutoCommit(false);
+    verify(mockPreparedStatemet).setFetchSize(42);
+    verify(mockProcessContext).output("Data A");
+    verify(mockProcessContext).output("Data B");
+    verify(mockProcessContext, never()).output(eq(ReadRangeDoFn.RESPLIT_TAG), any());
+  }
+
+  @Test
+  public void testReadRangeDoFnResplitsStraggler() throws Exception {
+    ReadRangeDoFn<String> readRangeDoFn = getReadRangeDoFn(1000L);
+    // 1000 rows per second observed, so a range of 4000 rows is expected to take 4 seconds.
+    readRangeDoFn.recordRead(1000L, 1_000_000_000L);
+    when(mockProcessContext.element()).thenReturn(getTestRange(0, 100, 4000L));
+
+    readRangeDoFn.setup();
+    readRangeDoFn.processElement(mockProcessContext);
+
+    verify(mockProcessContext, times(4))
+        .output(eq(ReadRangeDoFn.RESPLIT_TAG), rangeCaptor.capture());
+    verify(mockDataSource, never()).getConnection();
+    assertThat(getBounds(rangeCaptor.getAllValues()))
+        .containsExactly("0-25", "25-50", "50-75", "75-100");
+    assertThat(rangeCaptor.getAllValues().stream().allMatch(Range::isUncounted)).isTrue();
+  }
+
+  @Test
+  public void testReadRangeDoFnReadsRangeWithinTarget() throws Exception {
+    mockRead();
+    when(mockResultSet.next()).thenReturn(false);
+    ReadRangeDoFn<String> readRangeDoFn = getReadRangeDoFn(1000L);
+    readRangeDoFn.recordRead(1000L, 1_000_000_000L);
+    when(mockProcessContext.element()).thenReturn(getTestRange(0, 100, 500L));
+
+    readRangeDoFn.setup();
+    readRangeDoFn.processElement(mockProcessContext);
+
+    verify(mockDataSource).getConnection();
+    verify(mockProcessContext, never()).output(eq(ReadRangeDoFn.RESPLIT_TAG), any());
+  }
+
+  @Test
+  public void testReadRangeDoFnResplitsUncountedRange() throws Exception {
+    ReadRangeDoFn<String> readRangeDoFn = getReadRangeDoFn(1000L);
+    when(mockProcessContext.element()).thenReturn(getTestRange(0, 1000, Range.INDETERMINATE_COUNT));
+
+    readRangeDoFn.setup();
+    readRangeDoFn.processElement(mockProcessContext);
+
+    verify(mockProcessContext, times(ReadRangeDoFn.MAX_RESPLIT_COUNT))
+        .output(eq(ReadRangeDoFn.RESPLIT_TAG), any());
+    verify(mockDataSource, never()).getConnection();
+  }
+
+  @Test
+  public void testSplitRangeStopsAtUnsplittableRanges() {
+    ImmutableList<Range> ranges = ReadRangeDoFn.splitRange(getTestRange(0, 2, 2L), 8, null);
+
+    assertThat(getBounds(ranges)).containsExactly("0-1", "1-2");
+  }
+
+  private static List<String> getBounds(List<Range> ranges) {
+    return ranges.stream().map(r -> r.start() + "-" + r.end()).collect(Collectors.toList());
+  }
+
+  private void mockRead() throws Exception {
+    when(mockDataSource.getConnection()).thenReturn(mockConnection);
+    when(mockConnection.prepareStatement(anyString(), anyInt(), anyInt()))
+        .thenReturn(mockPreparedStatemet);
+    when(mockPreparedStatemet.executeQuery()).thenReturn(mockResultSet);
+  }
+
+  private ReadRangeDoFn<String> getReadRangeDoFn(Long targetRangeReadMillis) {
+    when(mockDataSourceProviderFn.apply(any())).thenReturn(mockDataSource);
+    return new ReadRangeDoFn<>(
+        mockDataSourceProviderFn,
+        "select * from testTable",
+        1,
+        rowMapper,
+        42,
+        "testTable",
+        targetRangeReadMillis);
+  }
+
+  private static Range getTestRange(int start, int end, long count) {
+    return Range.<Integer>builder()
+        .setColName("col1")
+        .setColClass(Integer.class)
+        .setBoundarySplitter(BoundarySplitterFactory.create(Integer.class))
+        .setStart(start)
+        .setEnd(end)
+        .setCount(count)
+        .build();
+  }
+}
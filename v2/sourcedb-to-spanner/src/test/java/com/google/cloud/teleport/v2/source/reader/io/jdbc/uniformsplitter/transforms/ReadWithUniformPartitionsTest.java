@@ -224,6 +224,22 @@ public class ReadWithUniformPartitionsTest implements Serializable {
     testPipeline.run().waitUntilFinish();
   }
 
+  @Test
+  public void testReadWithUniformPartitionsWithDynamicSplitting() throws Exception {
+    // With a target read time of 0, every range after the first one read by a DoFn instance gets
+    // re-split. All rows must still be read exactly once.
+    ReadWithUniformPartitions readWithUniformPartitions =
+        getReadWithUniformPartitionsBuilderForTest(6L, 3L, null, null, null)
+            .setTargetRangeReadMillis(0L)
+            .build();
+    PCollection<String> output =
+        (PCollection<String>) testPipeline.apply(readWithUniformPartitions);
+
+    PAssert.that(output)
+        .containsInAnyOrder("Data A", "Data B", "Data C", "Data D", "Data E", "Data F");
+    testPipeline.run().waitUntilFinish();
+  }
+
   /**
    * Test Auto-Inference for maxPartition. The AutoInference sets the default to MAx(1,
    * Floor(sqrt({@link ReadWithUniformPartitions#approxTotalRowCount()})) / 10).
@@ -322,6 +338,17 @@ public class ReadWithUniformPartitionsTest implements Serializable {
       @Nullable TestRangesPeek testRangesPeek,
       @Nullable Range initialRange,
       Wait.OnSignal<?> waitOnSignal) {
+    return getReadWithUniformPartitionsBuilderForTest(
+            approximateTotalCount, maxPartitionHint, testRangesPeek, initialRange, waitOnSignal)
+        .build();
+  }
+
+  private ReadWithUniformPartitions.Builder<String> getReadWithUniformPartitionsBuilderForTest(
+      long approximateTotalCount,
+      @Nullable Long maxPartitionHint,
+      @Nullable TestRangesPeek testRangesPeek,
+      @Nullable Range initialRange,
+      Wait.OnSignal<?> waitOnSignal) {
 
     ReadWithUniformPartitions.Builder<String> readWithPartitionBuilder =
         ReadWithUniformPartitions.<String>builder()
@@ -360,7 +387,7 @@ public class ReadWithUniformPartitionsTest implements Serializable {
     if (waitOnSignal != null) {
       readWithPartitionBuilder = readWithPartitionBuilder.setWaitOn(waitOnSignal);
     }
-    return readWithPartitionBuilder.build();
+    return readWithPartitionBuilder;
   }
 
   /*
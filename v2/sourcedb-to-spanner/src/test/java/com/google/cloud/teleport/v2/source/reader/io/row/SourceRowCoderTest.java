@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.source.reader.io.row;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.cloud.teleport.v2.source.reader.io.schema.SchemaTestUtils;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchema;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchemaReference;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceTableSchema;
+import org.apache.beam.sdk.coders.SerializableCoder;
+import org.apache.beam.sdk.testing.CoderProperties;
+import org.apache.beam.sdk.util.CoderUtils;
+import org.apache.beam.sdk.util.SerializableUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test class for {@link SourceRowCoder}. */
+@RunWith(JUnit4.class)
+public class SourceRowCoderTest {
+
+  private static final SourceSchemaReference SCHEMA_REFERENCE =
+      SchemaTestUtils.generateSchemaReference("public", "mydb");
+  private static final SourceTableSchema TABLE_1 =
+      SchemaTestUtils.generateTestTableSchema("testTable1");
+  private static final SourceTableSchema TABLE_2 =
+      SchemaTestUtils.generateTestTableSchema("testTable2");
+  private static final SourceSchema SOURCE_SCHEMA =
+      SourceSchema.builder()
+          .setSchemaReference(SCHEMA_REFERENCE)
+          .addTableSchema(TABLE_1)
+          .addTableSchema(TABLE_2)
+          .build();
+
+  @Test
+  public void testSourceRowCoderRoundTrips() throws Exception {
+    SourceRowCoder coder = SourceRowCoder.of(SOURCE_SCHEMA);
+
+    CoderProperties.coderDecodeEncodeEqual(coder, getRow(SCHEMA_REFERENCE, TABLE_1, "id1"));
+    CoderProperties.coderDecodeEncodeEqual(coder, getRow(SCHEMA_REFERENCE, TABLE_2, null));
+  }
+
+  @Test
+  public void testSourceRowCoderRoundTripsAfterSerialization() throws Exception {
+    SourceRowCoder coder = SerializableUtils.clone(SourceRowCoder.of(SOURCE_SCHEMA));
+    SourceRow row = getRow(SCHEMA_REFERENCE, TABLE_2, "id1");
+
+    SourceRow decoded = CoderUtils.clone(coder, row);
+
+    assertThat(decoded).isEqualTo(row);
+    assertThat(decoded.tableName()).isEqualTo("testTable2");
+    assertThat(decoded.getReadTimeMicros()).isEqualTo(1712751118L);
+    assertThat(decoded.getPayload().get("firstName").toString()).isEqualTo("abc");
+  }
+
+  @Test
+  public void testSourceRowCoderDoesNotEncodeSchema() throws Exception {
+    SourceRow row = getRow(SCHEMA_REFERENCE, TABLE_1, "id1");
+
+    byte[] encoded = CoderUtils.encodeToByteArray(SourceRowCoder.of(SOURCE_SCHEMA), row);
+    byte[] serialized = CoderUtils.encodeToByteArray(SerializableCoder.of(SourceRow.class), row);
+
+    assertThat(encoded.length).isLessThan(64);
+    assertThat(encoded.length).isLessThan(serialized.length / 10);
+  }
+
+  @Test
+  public void testSourceRowCoderFallsBackForUnregisteredSchema() throws Exception {
+    SourceRowCoder coder = SourceRowCoder.of(SOURCE_SCHEMA);
+    SourceTableSchema otherTable = SchemaTestUtils.generateTestTableSchema("otherTable");
+
+    CoderProperties.coderDecodeEncodeEqual(coder, getRow(SCHEMA_REFERENCE, otherTable, "id1"));
+    CoderProperties.coderDecodeEncodeEqual(
+        coder, getRow(SchemaTestUtils.generateSchemaReference("other", "db"), TABLE_1, "id1"));
+  }
+
+  @Test
+  public void testSourceRowCoderEquality() {
+    SourceSchema otherSchema =
+        SourceSchema.builder().setSchemaReference(SCHEMA_REFERENCE).addTableSchema(TABLE_1).build();
+
+    assertThat(SourceRowCoder.of(SOURCE_SCHEMA)).isEqualTo(SourceRowCoder.of(SOURCE_SCHEMA));
+    assertThat(SerializableUtils.clone(SourceRowCoder.of(SOURCE_SCHEMA)))
+        .isEqualTo(SourceRowCoder.of(SOURCE_SCHEMA));
+    assertThat(SourceRowCoder.of(SOURCE_SCHEMA).hashCode())
+        .isEqualTo(SourceRowCoder.of(SOURCE_SCHEMA).hashCode());
+    assertThat(SourceRowCoder.of(SOURCE_SCHEMA)).isNotEqualTo(SourceRowCoder.of(otherSchema));
+  }
+
+  private static SourceRow getRow(
+      SourceSchemaReference schemaReference, SourceTableSchema tableSchema, String shardId) {
+    return SourceRow.builder(schemaReference, tableSchema, shardId, 1712751118L)
+        .setField("firstName", "abc")
+        .setField("lastName", "def")
+        .build();
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.cloud.teleport.v2.source.reader.io.row.SourceRow;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SchemaTestUtils;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchema;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceSchemaReference;
+import com.google.cloud.teleport.v2.source.reader.io.schema.SourceTableSchema;
+import org.apache.beam.sdk.util.CoderUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Test class for {@link RowContextCoder}. */
+@RunWith(JUnit4.class)
+public class RowContextCoderTest {
+
+  @Test
+  public void testRowContextCoderRoundTrips() throws Exception {
+    SourceSchemaReference schemaReference =
+        SchemaTestUtils.generateSchemaReference("public", "mydb");
+    SourceTableSchema tableSchema = SchemaTestUtils.generateTestTableSchema("testTable");
+    SourceSchema sourceSchema =
+        SourceSchema.builder()
+            .setSchemaReference(schemaReference)
+            .addTableSchema(tableSchema)
+            .build();
+    SourceRow row =
+        SourceRow.builder(schemaReference, tableSchema, "id1", 1712751118L)
+            .setField("firstName", "abc")
+            .setField("lastName", "def")
+            .build();
+    RowContextCoder coder = RowContextCoder.of(sourceSchema);
+
+    RowContext withoutError = CoderUtils.clone(coder, RowContext.builder().setRow(row).build());
+    RowContext withError =
+        CoderUtils.clone(
+            coder,
+            RowContext.builder().setRow(row).setErr(new IllegalStateException("failed")).build());
+
+    assertThat(withoutError.row()).isEqualTo(row);
+    assertThat(withoutError.err()).isNull();
+    assertThat(withError.row()).isEqualTo(row);
+    assertThat(withError.err()).hasMessageThat().isEqualTo("failed");
+  }
+
+  @Test
+  public void testRowContextCoderEquality() {
+    SourceSchemaReference schemaReference =
+        SchemaTestUtils.generateSchemaReference("public", "mydb");
+    SourceSchema sourceSchema =
+        SourceSchema.builder()
+            .setSchemaReference(schemaReference)
+            .addTableSchema(SchemaTestUtils.generateTestTableSchema("testTable"))
+            .build();
+    SourceSchema otherSchema =
+        SourceSchema.builder()
+            .setSchemaReference(schemaReference)
+            .addTableSchema(SchemaTestUtils.generateTestTableSchema("otherTable"))
+            .build();
+
+    assertThat(RowContextCoder.of(sourceSchema)).isEqualTo(RowContextCoder.of(sourceSchema));
+    assertThat(RowContextCoder.of(sourceSchema).hashCode())
+        .isEqualTo(RowContextCoder.of(sourceSchema).hashCode());
+    assertThat(RowContextCoder.of(sourceSchema)).isNotEqualTo(RowContextCoder.of(otherSchema));
+  }
+}
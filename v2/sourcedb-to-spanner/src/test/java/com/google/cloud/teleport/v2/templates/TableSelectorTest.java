@@ -32,6 +32,7 @@ import com.google.common.io.Resources;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -397,6 +398,48 @@ public class TableSelectorTest {
     runTableOrderTest("complex", "", complexTableNames, complexDependencies, expectedOutput);
   }
 
+  @Test
+  public void testDependencyOrderedTables() {
+    // t2 -> t1 and t4 -> t3 are independent chains, t5 references nothing and is not referenced.
+    List<List<String>> dependencies =
+        Arrays.asList(Arrays.asList("t2", "t1"), Arrays.asList("t4", "t3"));
+    List<String> tableNames = Arrays.asList("t1", "t2", "t3", "t4", "t5");
+    SourceDbToSpannerOptions mockOptions = createOptionsHelper("", "");
+    Ddl ddl = generateDdlFromDAG(tableNames, dependencies);
+    ISchemaMapper schemaMapper = PipelineController.getSchemaMapper(mockOptions, ddl);
+    TableSelector tableSelector =
+        new TableSelector(tableNames.stream().collect(Collectors.joining(",")), ddl, schemaMapper);
+
+    Map<Integer, List<String>> tableGroupMap = tableSelector.dependencyOrderedSpannerTables();
+
+    assertEquals(5, tableGroupMap.size());
+    assertEquals(Arrays.asList("t5"), tableGroupMap.get(0));
+    Map<String, Integer> tableToGroup = new HashMap<>();
+    tableGroupMap.forEach((group, tables) -> tables.forEach(t -> tableToGroup.put(t, group)));
+    assertTrue(tableToGroup.get("t1") < tableToGroup.get("t2"));
+    assertTrue(tableToGroup.get("t3") < tableToGroup.get("t4"));
+    assertEquals(Arrays.asList("t1"), tableSelector.referencedSpannerTables("t2"));
+    assertEquals(Arrays.asList("t3"), tableSelector.referencedSpannerTables("t4"));
+    assertTrue(tableSelector.referencedSpannerTables("t1").isEmpty());
+  }
+
+  @Test
+  public void testReferencedSpannerTablesIgnoresTablesNotMigrated() {
+    List<List<String>> dependencies =
+        Arrays.asList(Arrays.asList("t2", "t1"), Arrays.asList("t3", "t2"));
+    List<String> tableNames = Arrays.asList("t1", "t2", "t3");
+    SourceDbToSpannerOptions mockOptions = createOptionsHelper("", "");
+    Ddl ddl = generateDdlFromDAG(tableNames, dependencies);
+    ISchemaMapper schemaMapper = PipelineController.getSchemaMapper(mockOptions, ddl);
+    TableSelector tableSelector = new TableSelector("t2,t3", ddl, schemaMapper);
+
+    assertTrue(tableSelector.referencedSpannerTables("t2").isEmpty());
+    assertEquals(Arrays.asList("t2"), tableSelector.referencedSpannerTables("t3"));
+    Map<Integer, List<String>> tableGroupMap = tableSelector.dependencyOrderedSpannerTables();
+    assertEquals(Arrays.asList("t2"), tableGroupMap.get(0));
+    assertEquals(Arrays.asList("t3"), tableGroupMap.get(1));
+  }
+
   @Test
   public void testLevelOrderSpecialTableName() {
     // Test 1: Linear dag - Capital Table names
@@ -46,12 +46,10 @@ import org.apache.beam.sdk.testing.PAssert;
 import org.apache.beam.sdk.testing.TestPipeline;
 import org.apache.beam.sdk.transforms.Create;
 import org.apache.beam.sdk.transforms.DoFn;
-import org.apache.beam.sdk.transforms.MapElements;
 import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PCollectionTuple;
 import org.apache.beam.sdk.values.TupleTagList;
-import org.apache.beam.sdk.values.TypeDescriptor;
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -147,20 +145,20 @@ public class SourceRowToMutationDoFnTest {
     DoFn.ProcessContext processContextMock = mock(DoFn.ProcessContext.class);
     when(processContextMock.element()).thenReturn(sourceRow);
 
-    List<RowContext> eventsActual = new ArrayList<>();
+    List<Mutation> eventsActual = new ArrayList<>();
 
     DoFn.MultiOutputReceiver outputReceiverMock = mock(DoFn.MultiOutputReceiver.class);
-    DoFn.OutputReceiver<RowContext> mockOutputReceiverForTag = mock(DoFn.OutputReceiver.class);
+    DoFn.OutputReceiver<Mutation> mockOutputReceiverForTag = mock(DoFn.OutputReceiver.class);
 
     // Capture the argument passed to output() and add to list
     doAnswer(
             invocation -> {
-              RowContext rowContext = invocation.getArgument(0);
-              eventsActual.add(rowContext);
+              Mutation mutation = invocation.getArgument(0);
+              eventsActual.add(mutation);
               return null;
             })
         .when(mockOutputReceiverForTag)
-        .output(any(RowContext.class));
+        .output(any(Mutation.class));
     when(outputReceiverMock.get(SourceDbToSpannerConstants.ROW_TRANSFORMATION_SUCCESS))
         .thenReturn(mockOutputReceiverForTag); // Return the mock OutputReceiver
 
@@ -175,10 +173,7 @@ public class SourceRowToMutationDoFnTest {
     builder.set("age").to(Value.int64(10));
 
     assertEquals(1, eventsActual.size());
-    RowContext expectedRc =
-        RowContext.builder().setRow(sourceRow).setMutation(builder.build()).build();
-    RowContext actualRc = eventsActual.get(0);
-    assertEquals(expectedRc.toString(), actualRc.toString());
+    assertEquals(builder.build(), eventsActual.get(0));
   }
 
   @Test
@@ -308,15 +303,8 @@ public class SourceRowToMutationDoFnTest {
     transform
         .get(SourceDbToSpannerConstants.ROW_TRANSFORMATION_ERROR)
         .setCoder(SerializableCoder.of(RowContext.class)); // Need to set to run the pipeline
-    PCollection<RowContext> successTransformation =
-        transform
-            .get(SourceDbToSpannerConstants.ROW_TRANSFORMATION_SUCCESS)
-            .setCoder(SerializableCoder.of(RowContext.class));
-
-    PCollection<Mutation> mutations =
-        successTransformation.apply(
-            MapElements.into(TypeDescriptor.of(Mutation.class))
-                .via((RowContext r) -> r.mutation()));
-    return mutations;
+    return transform
+        .get(SourceDbToSpannerConstants.ROW_TRANSFORMATION_SUCCESS)
+        .setCoder(SerializableCoder.of(Mutation.class));
   }
 }
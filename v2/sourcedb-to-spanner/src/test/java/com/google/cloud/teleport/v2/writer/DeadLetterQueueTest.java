@@ -124,13 +124,6 @@ public class DeadLetterQueueTest {
                     .setField("firstName", "abc")
                     .setField("lastName", "def")
                     .build())
-            .setMutation(
-                Mutation.newInsertOrUpdateBuilder(testTable)
-                    .set("firstName")
-                    .to("abc")
-                    .set("lastName")
-                    .to("def")
-                    .build())
             .build();
 
     PCollection<RowContext> filteredRows = pipeline.apply(Create.of(r1));
@@ -152,13 +145,6 @@ public class DeadLetterQueueTest {
                     .setField("firstName", "abc")
                     .setField("lastName", "def")
                     .build())
-            .setMutation(
-                Mutation.newInsertOrUpdateBuilder(testTable)
-                    .set("firstName")
-                    .to("abc")
-                    .set("lastName")
-                    .to("def")
-                    .build())
             .build();
 
     PCollection<RowContext> failedRows = pipeline.apply(Create.of(r1));
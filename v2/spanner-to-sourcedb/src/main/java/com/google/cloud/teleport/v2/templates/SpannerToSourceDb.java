@@ -362,7 +362,7 @@ public class SpannerToSourceDb {
         order = 24,
         optional = true,
         description = "Source database type, ex: mysql",
-        enumOptions = {@TemplateEnumOption("mysql")},
+        enumOptions = {@TemplateEnumOption("mysql"), @TemplateEnumOption("cassandra")},
         helpText = "The type of source database to reverse replicate to.")
     @Default.String("mysql")
     String getSourceType();
@@ -415,6 +415,60 @@ public class SpannerToSourceDb {
     String getFilterEventsDirectoryName();
 
     void setFilterEventsDirectoryName(String value);
+
+    @TemplateParameter.Integer(
+        order = 29,
+        optional = true,
+        description = "Maximum number of change records applied to a shard in one transaction",
+        helpText =
+            "When greater than 1, change records of a bundle are grouped per shard and applied to"
+                + " the source database as batches of parameterized statements, with one commit per"
+                + " batch. Defaults to 1, which applies every change record in its own"
+                + " transaction.")
+    @Default.Integer(1)
+    Integer getSourceWriteBatchSize();
+
+    void setSourceWriteBatchSize(Integer value);
+
+    @TemplateParameter.Boolean(
+        order = 30,
+        optional = true,
+        description = "Merge batched upserts into multi-row statements",
+        helpText =
+            "When true and sourceWriteBatchSize is greater than 1, consecutive inserts and updates"
+                + " of a batch to the same table and columns, with distinct primary keys, are"
+                + " applied as a single multi-row INSERT ... ON DUPLICATE KEY UPDATE statement,"
+                + " capped by the max_allowed_packet of the source. Defaults to false.")
+    @Default.Boolean(false)
+    Boolean getSourceWriteMultiRowUpsert();
+
+    void setSourceWriteMultiRowUpsert(Boolean value);
+
+    @TemplateParameter.Integer(
+        order = 31,
+        optional = true,
+        description = "Number of parallel write lanes per shard",
+        helpText =
+            "When greater than 1 and sourceWriteBatchSize is greater than 1, the batched change"
+                + " records of a shard are split into this many lanes by table and primary key."
+                + " The lanes are applied in parallel on the connection pool of the shard, while"
+                + " the changes to a given row are still applied in commit order. Defaults to 1.")
+    @Default.Integer(1)
+    Integer getSourceWriteLanesPerShard();
+
+    void setSourceWriteLanesPerShard(Integer value);
+
+    @TemplateParameter.Integer(
+        order = 32,
+        optional = true,
+        description = "Maximum number of Cassandra writes in flight per shard",
+        helpText =
+            "When sourceType is cassandra, the maximum number of statements or unlogged batches"
+                + " that each writer executes concurrently against a shard. Defaults to 64.")
+    @Default.Integer(64)
+    Integer getMaxInFlightWritesPerShard();
+
+    void setMaxInFlightWritesPerShard(Integer value);
   }
 
   /**
@@ -632,7 +686,11 @@ public class SpannerToSourceDb {
                     options.getSkipDirectoryName(),
                     connectionPoolSizePerWorker,
                     options.getSourceType(),
-                    customTransformation));
+                    customTransformation,
+                    options.getSourceWriteBatchSize(),
+                    options.getSourceWriteMultiRowUpsert(),
+                    options.getSourceWriteLanesPerShard(),
+                    options.getMaxInFlightWritesPerShard()));
 
     PCollection<FailsafeElement<String, String>> dlqPermErrorRecords =
         reconsumedElements
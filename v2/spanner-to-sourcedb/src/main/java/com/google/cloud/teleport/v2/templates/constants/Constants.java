@@ -76,6 +76,8 @@ public class Constants {
 
   public static final String SOURCE_MYSQL = "mysql";
 
+  public static final String SOURCE_CASSANDRA = "cassandra";
+
   // Message written to the file for filtered records
   public static final String FILTERED_TAG_MESSAGE =
       "Filtered record from custom transformation in reverse replication";
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates.dbutils.connection;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.CqlSessionBuilder;
+import com.google.cloud.teleport.v2.spanner.migrations.shard.Shard;
+import com.google.cloud.teleport.v2.templates.exceptions.ConnectionException;
+import com.google.cloud.teleport.v2.templates.models.ConnectionHelperRequest;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This is a per Dataflow worker singleton that holds one Cassandra session per shard.
+ *
+ * <p>A {@link CqlSession} manages its own connection pool and is safe to share between threads, so
+ * every DAO of a shard on the worker uses the same session. The session is opened on first use and
+ * reopened if it was closed. It is never closed by the callers.
+ */
+public class CassandraConnectionHelper implements IConnectionHelper<CqlSession> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CassandraConnectionHelper.class);
+
+  /** Connection property holding the local datacenter of the shard. */
+  public static final String LOCAL_DATACENTER_PROPERTY = "localDataCenter";
+
+  /** Local datacenter used when the shard does not set one, the default of Cassandra. */
+  public static final String DEFAULT_LOCAL_DATACENTER = "datacenter1";
+
+  private static volatile Map<String, Shard> shardMap = null;
+  private static final Map<String, CqlSession> sessionMap = new ConcurrentHashMap<>();
+
+  private final Function<Shard, CqlSession> sessionFactory;
+
+  public CassandraConnectionHelper() {
+    this(CassandraConnectionHelper::createSession);
+  }
+
+  // for unit testing
+  CassandraConnectionHelper(Function<Shard, CqlSession> sessionFactory) {
+    this.sessionFactory = sessionFactory;
+  }
+
+  /** Returns the key under which the session of a shard is looked up. */
+  public static String getConnectionKey(Shard shard) {
+    return shard.getHost()
+        + ":"
+        + shard.getPort()
+        + "/"
+        + shard.getDbName()
+        + "/"
+        + shard.getUserName();
+  }
+
+  @Override
+  public boolean isConnectionPoolInitialized() {
+    return shardMap != null;
+  }
+
+  @Override
+  public void init(ConnectionHelperRequest connectionHelperRequest) {
+    synchronized (CassandraConnectionHelper.class) {
+      if (shardMap != null) {
+        return;
+      }
+      LOG.info(
+          "Initializing Cassandra sessions for {} shards",
+          connectionHelperRequest.getShards().size());
+      Map<String, Shard> shards = new HashMap<>();
+      for (Shard shard : connectionHelperRequest.getShards()) {
+        shards.put(getConnectionKey(shard), shard);
+      }
+      shardMap = shards;
+    }
+  }
+
+  @Override
+  public CqlSession getConnection(String connectionRequestKey) throws ConnectionException {
+    Map<String, Shard> shards = shardMap;
+    if (shards == null) {
+      LOG.warn("Cassandra sessions not initialized");
+      return null;
+    }
+    Shard shard = shards.get(connectionRequestKey);
+    if (shard == null) {
+      LOG.warn("Cassandra shard not found for source connection : {}", connectionRequestKey);
+      return null;
+    }
+    try {
+      return sessionMap.compute(
+          connectionRequestKey,
+          (key, session) ->
+              session != null && !session.isClosed() ? session : sessionFactory.apply(shard));
+    } catch (Exception e) {
+      throw new ConnectionException(e);
+    }
+  }
+
+  // for unit testing
+  public static void reset() {
+    synchronized (CassandraConnectionHelper.class) {
+      shardMap = null;
+      sessionMap.values().forEach(CqlSession::close);
+      sessionMap.clear();
+    }
+  }
+
+  private static CqlSession createSession(Shard shard) {
+    LOG.info("Opening Cassandra session for shard {}", shard.getLogicalShardId());
+    CqlSessionBuilder builder =
+        CqlSession.builder()
+            .addContactPoint(
+                new InetSocketAddress(shard.getHost(), Integer.parseInt(shard.getPort())))
+            .withLocalDatacenter(getLocalDatacenter(shard))
+            .withKeyspace(CqlIdentifier.fromInternal(shard.getDbName()));
+    if (shard.getUserName() != null && !shard.getUserName().isEmpty()) {
+      builder.withAuthCredentials(shard.getUserName(), shard.getPassword());
+    }
+    return builder.build();
+  }
+
+  private static String getLocalDatacenter(Shard shard) {
+    Properties properties = new Properties();
+    if (shard.getConnectionProperties() != null && !shard.getConnectionProperties().isEmpty()) {
+      try (StringReader reader = new StringReader(shard.getConnectionProperties())) {
+        properties.load(reader);
+      } catch (IOException e) {
+        LOG.error("Error converting string to properties: {}", e.getMessage());
+      }
+    }
+    return properties.getProperty(LOCAL_DATACENTER_PROPERTY, DEFAULT_LOCAL_DATACENTER);
+  }
+}
@@ -19,24 +19,40 @@ import com.google.cloud.teleport.v2.spanner.migrations.shard.Shard;
 import com.google.cloud.teleport.v2.templates.exceptions.ConnectionException;
 import com.google.cloud.teleport.v2.templates.models.ConnectionHelperRequest;
 import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariConfigMXBean;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import java.io.IOException;
 import java.io.StringReader;
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.apache.beam.sdk.metrics.Distribution;
+import org.apache.beam.sdk.metrics.Gauge;
+import org.apache.beam.sdk.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** This is a per Dataflow worker singleton that holds connection pool. */
+/**
+ * This is a per Dataflow worker singleton that holds connection pool.
+ *
+ * <p>The pools are created once under a lock and then looked up without locking. Each pool reports
+ * its active, idle and pending connections and the time taken to acquire a connection as Beam
+ * metrics suffixed with the logical shard id, and is resized based on that acquire time.
+ */
 public class JdbcConnectionHelper implements IConnectionHelper<Connection> {
 
   private static final Logger LOG = LoggerFactory.getLogger(JdbcConnectionHelper.class);
-  private static Map<String, HikariDataSource> connectionPoolMap = null;
+  private static volatile Map<String, ShardConnectionPool> connectionPoolMap = null;
 
   @Override
-  public synchronized boolean isConnectionPoolInitialized() {
+  public boolean isConnectionPoolInitialized() {
     if (connectionPoolMap != null) {
       return true;
     }
@@ -44,57 +60,67 @@ public class JdbcConnectionHelper implements IConnectionHelper<Connection> {
   }
 
   @Override
-  public synchronized void init(ConnectionHelperRequest connectionHelperRequest) {
-    if (connectionPoolMap != null) {
-      return;
-    }
-    LOG.info(
-        "Initializing connection pool with size: ", connectionHelperRequest.getMaxConnections());
-    connectionPoolMap = new HashMap<>();
-    for (Shard shard : connectionHelperRequest.getShards()) {
-      String sourceConnectionUrl =
-          "jdbc:mysql://" + shard.getHost() + ":" + shard.getPort() + "/" + shard.getDbName();
-      HikariConfig config = new HikariConfig();
-      config.setJdbcUrl(sourceConnectionUrl);
-      config.setUsername(shard.getUserName());
-      config.setPassword(shard.getPassword());
-      config.setDriverClassName(connectionHelperRequest.getDriver());
-      config.setMaximumPoolSize(connectionHelperRequest.getMaxConnections());
-      config.setConnectionInitSql(connectionHelperRequest.getConnectionInitQuery());
-      Properties jdbcProperties = new Properties();
-      if (connectionHelperRequest.getProperties() != null
-          && !connectionHelperRequest.getProperties().isEmpty()) {
-        try (StringReader reader = new StringReader(connectionHelperRequest.getProperties())) {
-          jdbcProperties.load(reader);
-        } catch (IOException e) {
-          LOG.error("Error converting string to properties: {}", e.getMessage());
-        }
+  public void init(ConnectionHelperRequest connectionHelperRequest) {
+    synchronized (JdbcConnectionHelper.class) {
+      if (connectionPoolMap != null) {
+        return;
       }
+      LOG.info(
+          "Initializing connection pool with size: {}",
+          connectionHelperRequest.getMaxConnections());
+      Map<String, ShardConnectionPool> pools = new HashMap<>();
+      for (Shard shard : connectionHelperRequest.getShards()) {
+        String sourceConnectionUrl =
+            "jdbc:mysql://" + shard.getHost() + ":" + shard.getPort() + "/" + shard.getDbName();
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(sourceConnectionUrl);
+        config.setUsername(shard.getUserName());
+        config.setPassword(shard.getPassword());
+        config.setDriverClassName(connectionHelperRequest.getDriver());
+        config.setMaximumPoolSize(connectionHelperRequest.getMaxConnections());
+        config.setConnectionInitSql(connectionHelperRequest.getConnectionInitQuery());
+        Properties jdbcProperties = new Properties();
+        if (connectionHelperRequest.getProperties() != null
+            && !connectionHelperRequest.getProperties().isEmpty()) {
+          try (StringReader reader = new StringReader(connectionHelperRequest.getProperties())) {
+            jdbcProperties.load(reader);
+          } catch (IOException e) {
+            LOG.error("Error converting string to properties: {}", e.getMessage());
+          }
+        }
 
-      for (String key : jdbcProperties.stringPropertyNames()) {
-        String value = jdbcProperties.getProperty(key);
-        config.addDataSourceProperty(key, value);
-      }
-      HikariDataSource ds = new HikariDataSource(config);
+        for (String key : jdbcProperties.stringPropertyNames()) {
+          String value = jdbcProperties.getProperty(key);
+          config.addDataSourceProperty(key, value);
+        }
+        HikariDataSource ds = new HikariDataSource(config);
 
-      connectionPoolMap.put(sourceConnectionUrl + "/" + shard.getUserName(), ds);
+        String poolName =
+            shard.getLogicalShardId() != null ? shard.getLogicalShardId() : sourceConnectionUrl;
+        pools.put(
+            sourceConnectionUrl + "/" + shard.getUserName(),
+            new ShardConnectionPool(
+                poolName, ds, connectionHelperRequest.getMaxConnections(), System::nanoTime));
+      }
+      connectionPoolMap = pools;
     }
   }
 
   @Override
   public Connection getConnection(String connectionRequestKey) throws ConnectionException {
     try {
-      if (connectionPoolMap == null) {
+      Map<String, ShardConnectionPool> pools = connectionPoolMap;
+      if (pools == null) {
         LOG.warn("Connection pool not initialized");
         return null;
       }
-      HikariDataSource ds = connectionPoolMap.get(connectionRequestKey);
-      if (ds == null) {
+      ShardConnectionPool pool = pools.get(connectionRequestKey);
+      if (pool == null) {
         LOG.warn("Connection pool not found for source connection : {}", connectionRequestKey);
         return null;
       }
 
-      return ds.getConnection();
+      return pool.getConnection();
     } catch (Exception e) {
       throw new ConnectionException(e);
     }
@@ -102,6 +128,138 @@ public class JdbcConnectionHelper implements IConnectionHelper<Connection> {
 
   // for unit testing
   public void setConnectionPoolMap(Map<String, HikariDataSource> inputMap) {
-    connectionPoolMap = inputMap;
+    if (inputMap == null) {
+      connectionPoolMap = null;
+      return;
+    }
+    Map<String, ShardConnectionPool> pools = new HashMap<>();
+    inputMap.forEach(
+        (key, ds) ->
+            pools.put(
+                key, new ShardConnectionPool(key, ds, ds.getMaximumPoolSize(), System::nanoTime)));
+    connectionPoolMap = pools;
+  }
+
+  /**
+   * The connection pool of a shard, along with its metrics. The pool starts at the configured
+   * maximum size. It shrinks one connection at a time, down to a quarter of the maximum, while
+   * connections are acquired without waiting and some are idle. It doubles back up to the maximum
+   * when the average acquire time goes above {@link #GROW_WAIT_MILLIS}. Both the maximum size and
+   * the minimum number of idle connections of the pool are changed, so a smaller pool releases its
+   * connections as Hikari retires them.
+   *
+   * <p>An acquire only adds its wait to lock-free counters. Once every {@link
+   * #RESIZE_INTERVAL_MILLIS}, the first acquire to win a compare-and-set averages the waits of the
+   * interval, samples the pool gauges and resizes the pool. An acquire that fails, because the pool
+   * is exhausted or the connection timed out, counts as a wait of at least the connection timeout.
+   */
+  static class ShardConnectionPool {
+    static final double GROW_WAIT_MILLIS = 100;
+    static final double SHRINK_WAIT_MILLIS = 1;
+    static final long RESIZE_INTERVAL_MILLIS = 10_000;
+
+    private final String poolName;
+    private final HikariDataSource dataSource;
+    private final int maxPoolSize;
+    private final int minPoolSize;
+    private final LongSupplier nanoClock;
+    private final Distribution acquireLatencyMs;
+    private final Gauge activeConnections;
+    private final Gauge idleConnections;
+    private final Gauge pendingConnections;
+    private final Gauge poolSize;
+    private final LongAdder totalWaitMillis = new LongAdder();
+    private final LongAdder acquireCount = new LongAdder();
+    private final AtomicLong nextResizeNanos;
+
+    ShardConnectionPool(
+        String poolName, HikariDataSource dataSource, int maxPoolSize, LongSupplier nanoClock) {
+      this.poolName = poolName;
+      this.dataSource = dataSource;
+      this.maxPoolSize = maxPoolSize;
+      this.minPoolSize = Math.max(1, maxPoolSize / 4);
+      this.nanoClock = nanoClock;
+      this.nextResizeNanos =
+          new AtomicLong(
+              nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(RESIZE_INTERVAL_MILLIS));
+      this.acquireLatencyMs =
+          Metrics.distribution(
+              JdbcConnectionHelper.class, "connection_acquire_latency_ms_" + poolName);
+      this.activeConnections =
+          Metrics.gauge(JdbcConnectionHelper.class, "connection_pool_active_" + poolName);
+      this.idleConnections =
+          Metrics.gauge(JdbcConnectionHelper.class, "connection_pool_idle_" + poolName);
+      this.pendingConnections =
+          Metrics.gauge(JdbcConnectionHelper.class, "connection_pool_pending_" + poolName);
+      this.poolSize = Metrics.gauge(JdbcConnectionHelper.class, "connection_pool_size_" + poolName);
+    }
+
+    Connection getConnection() throws SQLException {
+      long startNanos = nanoClock.getAsLong();
+      try {
+        Connection connection = dataSource.getConnection();
+        recordAcquire(TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - startNanos));
+        return connection;
+      } catch (SQLException e) {
+        recordAcquire(
+            Math.max(
+                TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - startNanos),
+                dataSource.getConnectionTimeout()));
+        throw e;
+      }
+    }
+
+    void recordAcquire(long waitMillis) {
+      acquireLatencyMs.update(waitMillis);
+      totalWaitMillis.add(waitMillis);
+      acquireCount.increment();
+      long nowNanos = nanoClock.getAsLong();
+      long resizeNanos = nextResizeNanos.get();
+      if (nowNanos >= resizeNanos
+          && nextResizeNanos.compareAndSet(
+              resizeNanos, nowNanos + TimeUnit.MILLISECONDS.toNanos(RESIZE_INTERVAL_MILLIS))) {
+        resize();
+      }
+    }
+
+    /** Samples the pool and resizes it on the average acquire time since the last resize. */
+    private void resize() {
+      long acquires = acquireCount.sumThenReset();
+      long waitMillis = totalWaitMillis.sumThenReset();
+      double averageWaitMillis = acquires == 0 ? 0 : (double) waitMillis / acquires;
+      HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+      if (pool != null) {
+        activeConnections.set(pool.getActiveConnections());
+        idleConnections.set(pool.getIdleConnections());
+        pendingConnections.set(pool.getThreadsAwaitingConnection());
+      }
+
+      HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+      if (config == null) {
+        return;
+      }
+      int size = config.getMaximumPoolSize();
+      int targetSize = size;
+      if (averageWaitMillis > GROW_WAIT_MILLIS && size < maxPoolSize) {
+        targetSize = Math.min(maxPoolSize, 2 * size);
+      } else if (averageWaitMillis < SHRINK_WAIT_MILLIS
+          && size > minPoolSize
+          && pool != null
+          && pool.getIdleConnections() > 0) {
+        targetSize = size - 1;
+      }
+      if (targetSize != size) {
+        LOG.info(
+            "Resizing connection pool {} from {} to {}, average acquire time {} ms",
+            poolName,
+            size,
+            targetSize,
+            averageWaitMillis);
+        config.setMaximumPoolSize(targetSize);
+        config.setMinimumIdle(targetSize);
+        size = targetSize;
+      }
+      poolSize.set(size);
+    }
   }
 }
@@ -16,44 +16,282 @@
 package com.google.cloud.teleport.v2.templates.dbutils.dao.source;
 
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchType;
 import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
 import com.google.cloud.teleport.v2.templates.dbutils.connection.IConnectionHelper;
 import com.google.cloud.teleport.v2.templates.exceptions.ConnectionException;
 import com.google.cloud.teleport.v2.templates.models.DMLGeneratorResponse;
 import com.google.cloud.teleport.v2.templates.models.PreparedStatementGeneratedResponse;
 import com.google.cloud.teleport.v2.templates.models.PreparedStatementValueObject;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Data access object for Cassandra.
+ *
+ * <p>The session of the shard is owned by the connection helper and shared by all the writes to the
+ * shard on the worker, it is not closed after a write. Statements are prepared once and kept in a
+ * bounded cache keyed by statement text, which is cleared when the helper hands out a different
+ * session.
+ *
+ * <p>{@link #batchWrite(List)} groups the statements by partition into unlogged batches and
+ * executes the batches of different partitions concurrently, with at most {@code maxInFlightWrites}
+ * executions in flight. Statements of the same partition are applied in order: a statement that
+ * writes a row already written by the current batch of its partition starts the next batch, which
+ * is executed after the current one. Statements whose partition is unknown, because the session has
+ * no schema metadata for their table or they have no routing key, are treated as one partition and
+ * executed one at a time, in order. Unlike a relational transaction, the writes to different
+ * partitions are not atomic, so a failed batch write may have applied some of the statements. The
+ * statements are upserts and are safe to apply again.
+ */
+public class CassandraDao
+    implements IDao<DMLGeneratorResponse>, IBatchDao<PreparedStatementGeneratedResponse> {
+
+  /** Default maximum number of statements or batches executing concurrently. */
+  public static final int DEFAULT_MAX_IN_FLIGHT_WRITES = 64;
+
+  /** Default maximum number of prepared statements kept per DAO. */
+  public static final int DEFAULT_MAX_PREPARED_STATEMENTS = 1000;
+
+  // Partition shared by all the statements whose partition is unknown, so they run in order.
+  private static final Object UNKNOWN_PARTITION = new Object();
 
-public class CassandraDao implements IDao<DMLGeneratorResponse> {
   private final String cassandraUrl;
   private final String cassandraUser;
   private final IConnectionHelper connectionHelper;
+  private final int maxInFlightWrites;
+  private final Semaphore inFlightWrites;
+  private final Cache<String, StatementKeys> preparedStatements;
+  // The session the cached statements were prepared on.
+  private CqlSession preparedSession;
 
   public CassandraDao(
       String cassandraUrl, String cassandraUser, IConnectionHelper connectionHelper) {
+    this(
+        cassandraUrl,
+        cassandraUser,
+        connectionHelper,
+        DEFAULT_MAX_IN_FLIGHT_WRITES,
+        DEFAULT_MAX_PREPARED_STATEMENTS);
+  }
+
+  public CassandraDao(
+      String cassandraUrl,
+      String cassandraUser,
+      IConnectionHelper connectionHelper,
+      int maxInFlightWrites,
+      int maxPreparedStatements) {
     this.cassandraUrl = cassandraUrl;
     this.cassandraUser = cassandraUser;
     this.connectionHelper = connectionHelper;
+    this.maxInFlightWrites = maxInFlightWrites;
+    this.inFlightWrites = new Semaphore(maxInFlightWrites);
+    this.preparedStatements =
+        CacheBuilder.newBuilder().maximumSize(maxPreparedStatements).build();
+  }
+
+  /** Returns the maximum number of statements or batches executing concurrently. */
+  public int getMaxInFlightWrites() {
+    return maxInFlightWrites;
   }
 
   @Override
   public void write(DMLGeneratorResponse dmlGeneratorResponse) throws Exception {
-    try (CqlSession session =
-        (CqlSession)
-            connectionHelper.getConnection(this.cassandraUrl)) { // Ensure connection is obtained
-      if (session == null) {
-        throw new ConnectionException("Connection is null");
-      }
-      PreparedStatementGeneratedResponse preparedStatementGeneratedResponse =
-          (PreparedStatementGeneratedResponse) dmlGeneratorResponse;
-      String dmlStatement = preparedStatementGeneratedResponse.getDmlStatement();
-      PreparedStatement preparedStatement = session.prepare(dmlStatement);
-      BoundStatement boundStatement =
-          preparedStatement.bind(
-              preparedStatementGeneratedResponse.getValues().stream()
-                  .map(PreparedStatementValueObject::value)
-                  .toArray());
-      session.execute(boundStatement);
+    CqlSession session = getSession();
+    PreparedStatementGeneratedResponse statement =
+        (PreparedStatementGeneratedResponse) dmlGeneratorResponse;
+    session.execute(
+        bind(getPrepared(session, statement.getDmlStatement()).preparedStatement, statement));
+  }
+
+  @Override
+  public void batchWrite(List<PreparedStatementGeneratedResponse> statements) throws Exception {
+    if (statements.isEmpty()) {
+      return;
+    }
+    CqlSession session = getSession();
+    // Consecutive batches of each partition, in the order of the statements.
+    Map<Object, List<List<BoundStatement>>> partitionBatches = new LinkedHashMap<>();
+    Map<Object, Set<Object>> partitionBatchRows = new LinkedHashMap<>();
+    int rounds = 0;
+    for (PreparedStatementGeneratedResponse statement : statements) {
+      StatementKeys statementKeys = getPrepared(session, statement.getDmlStatement());
+      BoundStatement boundStatement = bind(statementKeys.preparedStatement, statement);
+      Object partitionKey = statementKeys.partitionKey(boundStatement);
+      Object rowKey = statementKeys.rowKey(boundStatement);
+      List<List<BoundStatement>> batches =
+          partitionBatches.computeIfAbsent(partitionKey, k -> new ArrayList<>());
+      Set<Object> batchRows =
+          partitionBatchRows.computeIfAbsent(partitionKey, k -> new HashSet<>());
+      if (batches.isEmpty() || rowKey == null || !batchRows.add(rowKey)) {
+        batches.add(new ArrayList<>());
+        batchRows.clear();
+        if (rowKey != null) {
+          batchRows.add(rowKey);
+        }
+      }
+      batches.get(batches.size() - 1).add(boundStatement);
+      rounds = Math.max(rounds, batches.size());
+    }
+    // Round i executes the i-th batch of every partition, so a partition's batches are sequential.
+    for (int round = 0; round < rounds; round++) {
+      List<CompletableFuture<?>> results = new ArrayList<>();
+      for (List<List<BoundStatement>> batches : partitionBatches.values()) {
+        if (round < batches.size()) {
+          results.add(executeAsync(session, batches.get(round)));
+        }
+      }
+      try {
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof Exception) {
+          throw (Exception) e.getCause();
+        }
+        throw e;
+      }
+    }
+  }
+
+  private CompletableFuture<?> executeAsync(CqlSession session, List<BoundStatement> batch) {
+    Statement<?> statement =
+        batch.size() == 1
+            ? batch.get(0)
+            : BatchStatement.newInstance(BatchType.UNLOGGED).addAll(batch);
+    inFlightWrites.acquireUninterruptibly();
+    try {
+      return session
+          .executeAsync(statement)
+          .toCompletableFuture()
+          .whenComplete((r, e) -> inFlightWrites.release());
+    } catch (RuntimeException e) {
+      inFlightWrites.release();
+      throw e;
+    }
+  }
+
+  private CqlSession getSession() throws ConnectionException {
+    CqlSession session =
+        (CqlSession) connectionHelper.getConnection(this.cassandraUrl + "/" + this.cassandraUser);
+    if (session == null) {
+      throw new ConnectionException("Connection is null");
+    }
+    return session;
+  }
+
+  /** Returns the statement prepared on the session, preparing it on a cache miss. */
+  private StatementKeys getPrepared(CqlSession session, String dmlStatement) throws Exception {
+    synchronized (this) {
+      if (session != preparedSession) {
+        preparedStatements.invalidateAll();
+        preparedSession = session;
+      }
+    }
+    try {
+      return preparedStatements.get(dmlStatement, () -> prepare(session, dmlStatement));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private static BoundStatement bind(
+      PreparedStatement preparedStatement, PreparedStatementGeneratedResponse statement) {
+    return preparedStatement.bind(
+        statement.getValues().stream().map(PreparedStatementValueObject::value).toArray());
+  }
+
+  private static StatementKeys prepare(CqlSession session, String dmlStatement) {
+    PreparedStatement preparedStatement = session.prepare(dmlStatement);
+    return new StatementKeys(preparedStatement, primaryKeyIndices(session, preparedStatement));
+  }
+
+  /**
+   * Returns the indices of the bind variables holding the primary key of the written row, or null
+   * if they are not known from the schema metadata of the session.
+   */
+  private static List<Integer> primaryKeyIndices(
+      CqlSession session, PreparedStatement preparedStatement) {
+    ColumnDefinitions variables = preparedStatement.getVariableDefinitions();
+    if (variables == null || variables.size() == 0 || session.getMetadata() == null) {
+      return null;
+    }
+    ColumnDefinition firstVariable = variables.get(0);
+    Optional<TableMetadata> table =
+        session
+            .getMetadata()
+            .getKeyspace(firstVariable.getKeyspace())
+            .flatMap((KeyspaceMetadata keyspace) -> keyspace.getTable(firstVariable.getTable()));
+    if (!table.isPresent()) {
+      return null;
+    }
+    List<Integer> indices = new ArrayList<>();
+    for (ColumnMetadata column : table.get().getPrimaryKey()) {
+      int index = variables.firstIndexOf(column.getName());
+      if (index < 0) {
+        return null;
+      }
+      indices.add(index);
+    }
+    return Collections.unmodifiableList(indices);
+  }
+
+  /** A prepared statement with what is needed to group its executions by partition and row. */
+  private static class StatementKeys {
+    private final PreparedStatement preparedStatement;
+    // Null if the primary key of the written row is unknown.
+    private final List<Integer> primaryKeyIndices;
+
+    StatementKeys(PreparedStatement preparedStatement, List<Integer> primaryKeyIndices) {
+      this.preparedStatement = preparedStatement;
+      this.primaryKeyIndices = primaryKeyIndices;
+    }
+
+    /**
+     * Returns the partition the statement writes to, or {@link #UNKNOWN_PARTITION} if it is
+     * unknown.
+     */
+    Object partitionKey(BoundStatement boundStatement) {
+      if (primaryKeyIndices == null || boundStatement.getRoutingKey() == null) {
+        return UNKNOWN_PARTITION;
+      }
+      return List.of(
+          preparedStatement.getVariableDefinitions().get(0).getTable(),
+          boundStatement.getRoutingKey());
+    }
+
+    /** Returns the row the statement writes to, or null if it or its partition is unknown. */
+    Object rowKey(BoundStatement boundStatement) {
+      if (primaryKeyIndices == null || boundStatement.getRoutingKey() == null) {
+        return null;
+      }
+      List<Object> rowKey = new ArrayList<>();
+      for (int index : primaryKeyIndices) {
+        rowKey.add(boundStatement.getBytesUnsafe(index));
+      }
+      return rowKey;
     }
   }
 }
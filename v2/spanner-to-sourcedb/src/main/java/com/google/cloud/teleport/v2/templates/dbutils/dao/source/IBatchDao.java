@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates.dbutils.dao.source;
+
+import java.util.List;
+
+/** Data access object that applies several statements to the data source as one unit of work. */
+public interface IBatchDao<T> {
+  /**
+   * Executes the given write statements against the data source in order and commits them
+   * atomically.
+   *
+   * @param statements Query statements, in the order in which they must be applied.
+   * @throws Exception If there is an error executing any of the statements. None of the statements
+   *     are committed in that case.
+   */
+  void batchWrite(List<T> statements) throws Exception;
+
+  /**
+   * Returns the maximum size in bytes of a single statement accepted by the data source.
+   *
+   * @throws Exception If the limit cannot be read from the data source.
+   */
+  default long getMaxStatementBytes() throws Exception {
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * Returns the version of the data source, or an empty string if it is not known.
+   *
+   * @throws Exception If the version cannot be read from the data source.
+   */
+  default String getSourceVersion() throws Exception {
+    return "";
+  }
+}
@@ -17,16 +17,30 @@ package com.google.cloud.teleport.v2.templates.dbutils.dao.source;
 
 import com.google.cloud.teleport.v2.templates.dbutils.connection.IConnectionHelper;
 import com.google.cloud.teleport.v2.templates.exceptions.ConnectionException;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementGeneratedResponse;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementValueObject;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
-public class JdbcDao implements IDao<String> {
+public class JdbcDao implements IDao<String>, IBatchDao<PreparedStatementGeneratedResponse> {
   private String sqlUrl;
   private String sqlUser;
 
   private final IConnectionHelper connectionHelper;
 
+  // max_allowed_packet of the source, read once on first use.
+  private volatile long maxAllowedPacket;
+
+  // Version of the source, read once on first use.
+  private volatile String sourceVersion;
+
   public JdbcDao(String sqlUrl, String sqlUser, IConnectionHelper connectionHelper) {
     this.sqlUrl = sqlUrl;
     this.sqlUser = sqlUser;
@@ -57,4 +71,125 @@ public class JdbcDao implements IDao<String> {
       }
     }
   }
+
+  /**
+   * Applies the statements in a single transaction. Consecutive statements with the same text are
+   * grouped into one JDBC batch; the prepared statements are reused for the lifetime of the call so
+   * each distinct statement is only prepared once per batch.
+   */
+  @Override
+  public void batchWrite(List<PreparedStatementGeneratedResponse> statements)
+      throws SQLException, ConnectionException {
+    if (statements.isEmpty()) {
+      return;
+    }
+    Connection connObj = null;
+    Map<String, PreparedStatement> preparedStatements = new HashMap<>();
+
+    try {
+      connObj = (Connection) connectionHelper.getConnection(this.sqlUrl + "/" + this.sqlUser);
+      if (connObj == null) {
+        throw new ConnectionException("Connection is null");
+      }
+      connObj.setAutoCommit(false);
+      try {
+        PreparedStatement pendingBatch = null;
+        for (PreparedStatementGeneratedResponse statement : statements) {
+          PreparedStatement preparedStatement = preparedStatements.get(statement.getDmlStatement());
+          if (preparedStatement == null) {
+            preparedStatement = connObj.prepareStatement(statement.getDmlStatement());
+            preparedStatements.put(statement.getDmlStatement(), preparedStatement);
+          }
+          // The statements must be applied in order, so flush the batch whenever the statement
+          // text changes.
+          if (pendingBatch != null && pendingBatch != preparedStatement) {
+            pendingBatch.executeBatch();
+          }
+          bindValues(preparedStatement, statement.getValues());
+          preparedStatement.addBatch();
+          pendingBatch = preparedStatement;
+        }
+        pendingBatch.executeBatch();
+        connObj.commit();
+      } catch (Throwable t) {
+        // Roll back on any failure: re-enabling auto-commit below commits an open transaction.
+        try {
+          connObj.rollback();
+        } catch (SQLException rollbackException) {
+          t.addSuppressed(rollbackException);
+        }
+        throw t;
+      } finally {
+        connObj.setAutoCommit(true);
+      }
+    } finally {
+      for (PreparedStatement preparedStatement : preparedStatements.values()) {
+        preparedStatement.close();
+      }
+      if (connObj != null) {
+        connObj.close();
+      }
+    }
+  }
+
+  /** Returns the {@code max_allowed_packet} of the MySQL source, which caps every statement. */
+  @Override
+  public long getMaxStatementBytes() throws SQLException, ConnectionException {
+    if (maxAllowedPacket > 0) {
+      return maxAllowedPacket;
+    }
+    Connection connObj = null;
+    try {
+      connObj = (Connection) connectionHelper.getConnection(this.sqlUrl + "/" + this.sqlUser);
+      if (connObj == null) {
+        throw new ConnectionException("Connection is null");
+      }
+      try (Statement statement = connObj.createStatement();
+          ResultSet resultSet = statement.executeQuery("SELECT @@max_allowed_packet")) {
+        if (!resultSet.next()) {
+          throw new SQLException("max_allowed_packet could not be read");
+        }
+        maxAllowedPacket = resultSet.getLong(1);
+      }
+    } finally {
+      if (connObj != null) {
+        connObj.close();
+      }
+    }
+    return maxAllowedPacket;
+  }
+
+  /** Returns the version of the MySQL source, such as {@code 8.0.36}. */
+  @Override
+  public String getSourceVersion() throws SQLException, ConnectionException {
+    if (sourceVersion != null) {
+      return sourceVersion;
+    }
+    Connection connObj = null;
+    try {
+      connObj = (Connection) connectionHelper.getConnection(this.sqlUrl + "/" + this.sqlUser);
+      if (connObj == null) {
+        throw new ConnectionException("Connection is null");
+      }
+      sourceVersion = connObj.getMetaData().getDatabaseProductVersion();
+    } finally {
+      if (connObj != null) {
+        connObj.close();
+      }
+    }
+    return sourceVersion;
+  }
+
+  private static void bindValues(
+      PreparedStatement preparedStatement, List<PreparedStatementValueObject<?>> values)
+      throws SQLException {
+    for (int i = 0; i < values.size(); i++) {
+      Object value = values.get(i).value();
+      if (value == null) {
+        preparedStatement.setNull(i + 1, Types.NULL);
+      } else {
+        preparedStatement.setObject(i + 1, value);
+      }
+    }
+  }
 }
@@ -16,13 +16,20 @@
 package com.google.cloud.teleport.v2.templates.dbutils.dao.spanner;
 
 import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.KeySet;
 import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.ResultSet;
 import com.google.cloud.spanner.Struct;
 import com.google.cloud.teleport.v2.templates.constants.Constants;
 import com.google.cloud.teleport.v2.templates.utils.ShadowTableRecord;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerAccessor;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
 import org.slf4j.Logger;
@@ -82,12 +89,119 @@ public class SpannerDao {
     }
   }
 
+  /**
+   * Reads the shadow table records for several primary keys of one table in a single read.
+   *
+   * @param tableName the shadow table to read
+   * @param keyColumnNames the primary key column names of the shadow table, in key order
+   * @param primaryKeys the keys to look up
+   * @return the shadow table records that exist, keyed by primary key
+   */
+  public Map<Key, ShadowTableRecord> getShadowTableRecords(
+      String tableName, List<String> keyColumnNames, Collection<Key> primaryKeys) {
+    Map<Key, ShadowTableRecord> shadowTableRecords = new HashMap<>();
+    if (primaryKeys.isEmpty()) {
+      return shadowTableRecords;
+    }
+    KeySet.Builder keySet = KeySet.newBuilder();
+    primaryKeys.forEach(keySet::addKey);
+    List<String> columns = new ArrayList<>(keyColumnNames);
+    columns.add(Constants.PROCESSED_COMMIT_TS_COLUMN_NAME);
+    columns.add(Constants.RECORD_SEQ_COLUMN_NAME);
+    int keySize = keyColumnNames.size();
+    int rowCount = 0;
+    try (ResultSet resultSet =
+        spannerAccessor.getDatabaseClient().singleUse().read(tableName, keySet.build(), columns)) {
+      while (resultSet.next()) {
+        Struct row = resultSet.getCurrentRowAsStruct();
+        shadowTableRecords.put(
+            getKey(row, keySize),
+            new ShadowTableRecord(row.getTimestamp(keySize), row.getLong(keySize + 1)));
+        rowCount++;
+      }
+    } catch (Exception e) {
+      LOG.warn("The " + tableName + " table could not be read. ", e);
+      // We need to throw the original exception such that the caller can
+      // look at SpannerException class to take decision
+      throw e;
+    }
+
+    // A row whose key does not compare equal to the requested key (for example a NUMERIC read back
+    // with a different scale) must not be mistaken for a missing shadow table record, so the
+    // unmatched keys are looked up individually.
+    shadowTableRecords.keySet().retainAll(primaryKeys);
+    if (shadowTableRecords.size() < rowCount) {
+      for (Key primaryKey : primaryKeys) {
+        if (!shadowTableRecords.containsKey(primaryKey)) {
+          ShadowTableRecord shadowTableRecord = getShadowTableRecord(tableName, primaryKey);
+          if (shadowTableRecord != null) {
+            shadowTableRecords.put(primaryKey, shadowTableRecord);
+          }
+        }
+      }
+    }
+    return shadowTableRecords;
+  }
+
   public void updateShadowTable(Mutation mutation) {
     List<Mutation> mutations = new ArrayList<>();
     mutations.add(mutation);
     spannerAccessor.getDatabaseClient().write(mutations);
   }
 
+  /** Writes several shadow table mutations in one commit. */
+  public void updateShadowTables(List<Mutation> mutations) {
+    if (mutations.isEmpty()) {
+      return;
+    }
+    spannerAccessor.getDatabaseClient().write(mutations);
+  }
+
+  private static Key getKey(Struct row, int keySize) {
+    Key.Builder key = Key.newBuilder();
+    for (int i = 0; i < keySize; i++) {
+      if (row.isNull(i)) {
+        key.appendObject(null);
+        continue;
+      }
+      switch (row.getColumnType(i).getCode()) {
+        case BOOL:
+          key.append(row.getBoolean(i));
+          break;
+        case INT64:
+          key.append(row.getLong(i));
+          break;
+        case FLOAT64:
+          key.append(row.getDouble(i));
+          break;
+        case NUMERIC:
+          key.append(row.getBigDecimal(i));
+          break;
+        case PG_NUMERIC:
+          key.append(new BigDecimal(row.getString(i)));
+          break;
+        case JSON:
+          key.append(row.getJson(i));
+          break;
+        case PG_JSONB:
+          key.append(row.getPgJsonb(i));
+          break;
+        case BYTES:
+          key.append(row.getBytes(i));
+          break;
+        case TIMESTAMP:
+          key.append(row.getTimestamp(i));
+          break;
+        case DATE:
+          key.append(row.getDate(i));
+          break;
+        default:
+          key.append(row.getString(i));
+      }
+    }
+    return key.build();
+  }
+
   public void close() {
     spannerAccessor.close();
   }
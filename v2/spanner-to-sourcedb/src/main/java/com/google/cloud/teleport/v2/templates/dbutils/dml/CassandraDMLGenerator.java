@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates.dbutils.dml;
+
+import com.datastax.oss.driver.api.core.data.CqlDuration;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.ColumnPK;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SourceColumnDefinition;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SourceTable;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SpannerColumnDefinition;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SpannerTable;
+import com.google.cloud.teleport.v2.templates.models.DMLGeneratorRequest;
+import com.google.cloud.teleport.v2.templates.models.DMLGeneratorResponse;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementGeneratedResponse;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementValueObject;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates CQL statements for a Cassandra source.
+ *
+ * <p>Inserts and updates are written as {@code INSERT} statements, which are upserts in Cassandra,
+ * and deletes as {@code DELETE} statements on the primary key. Every value is bound as a parameter
+ * converted to the Java type of its Cassandra column, so the statement text only depends on the
+ * table, the modification type and the set of columns present in the record, and is prepared once
+ * per session by {@link
+ * com.google.cloud.teleport.v2.templates.dbutils.dao.source.CassandraDao}. Collection, tuple and
+ * user defined type columns are not supported and fail the record, and so do inserts and updates of
+ * counter tables.
+ */
+public class CassandraDMLGenerator implements IDMLGenerator {
+  private static final Logger LOG = LoggerFactory.getLogger(CassandraDMLGenerator.class);
+
+  /** Returns the statement of {@link #getPreparedDMLStatement}, the only form Cassandra uses. */
+  @Override
+  public DMLGeneratorResponse getDMLStatement(DMLGeneratorRequest dmlGeneratorRequest) {
+    return getPreparedDMLStatement(dmlGeneratorRequest);
+  }
+
+  @Override
+  public PreparedStatementGeneratedResponse getPreparedDMLStatement(
+      DMLGeneratorRequest dmlGeneratorRequest) {
+    SpannerTable spannerTable = DMLGeneratorUtils.getSpannerTable(dmlGeneratorRequest);
+    if (spannerTable == null) {
+      return new PreparedStatementGeneratedResponse("", new ArrayList<>());
+    }
+    SourceTable sourceTable = DMLGeneratorUtils.getSourceTable(dmlGeneratorRequest);
+    if (sourceTable == null) {
+      return new PreparedStatementGeneratedResponse("", new ArrayList<>());
+    }
+
+    Map<String, PreparedStatementValueObject<?>> pkColumnValues =
+        getPkColumnValues(spannerTable, sourceTable, dmlGeneratorRequest);
+    if (pkColumnValues == null) {
+      LOG.warn(
+          "Cannot reverse replicate for table {} without primary key, skipping the record",
+          sourceTable.getName());
+      return new PreparedStatementGeneratedResponse("", new ArrayList<>());
+    }
+
+    if ("INSERT".equals(dmlGeneratorRequest.getModType())
+        || "UPDATE".equals(dmlGeneratorRequest.getModType())) {
+      rejectCounterColumns(sourceTable);
+      Map<String, PreparedStatementValueObject<?>> columnValues =
+          new LinkedHashMap<>(pkColumnValues);
+      columnValues.putAll(getColumnValues(spannerTable, sourceTable, dmlGeneratorRequest));
+      return getInsertStatement(sourceTable.getName(), columnValues);
+    } else if ("DELETE".equals(dmlGeneratorRequest.getModType())) {
+      return getDeleteStatement(sourceTable.getName(), pkColumnValues);
+    } else {
+      LOG.warn("Unsupported modType: " + dmlGeneratorRequest.getModType());
+      return new PreparedStatementGeneratedResponse("", new ArrayList<>());
+    }
+  }
+
+  /**
+   * Fails inserts and updates of counter tables. Cassandra only accepts increments of counter
+   * columns, while change records carry the new value and not the increment, so the row cannot be
+   * written without reading it first.
+   */
+  private static void rejectCounterColumns(SourceTable sourceTable) {
+    for (SourceColumnDefinition sourceColDef : sourceTable.getColDefs().values()) {
+      if ("counter".equalsIgnoreCase(sourceColDef.getType().getName())) {
+        throw new IllegalArgumentException(
+            "Counter column "
+                + sourceColDef.getName()
+                + " of table "
+                + sourceTable.getName()
+                + " cannot be reverse replicated, Cassandra only accepts increments of counters");
+      }
+    }
+  }
+
+  private static PreparedStatementGeneratedResponse getInsertStatement(
+      String tableName, Map<String, PreparedStatementValueObject<?>> columnValues) {
+    StringBuilder columns = new StringBuilder();
+    StringBuilder placeholders = new StringBuilder();
+    for (String colName : columnValues.keySet()) {
+      if (columns.length() > 0) {
+        columns.append(", ");
+        placeholders.append(", ");
+      }
+      columns.append(quoteIdentifier(colName));
+      placeholders.append('?');
+    }
+    return new PreparedStatementGeneratedResponse(
+        "INSERT INTO "
+            + quoteIdentifier(tableName)
+            + " ("
+            + columns
+            + ") VALUES ("
+            + placeholders
+            + ")",
+        new ArrayList<>(columnValues.values()));
+  }
+
+  private static PreparedStatementGeneratedResponse getDeleteStatement(
+      String tableName, Map<String, PreparedStatementValueObject<?>> pkColumnValues) {
+    StringBuilder conditions = new StringBuilder();
+    for (String colName : pkColumnValues.keySet()) {
+      if (conditions.length() > 0) {
+        conditions.append(" AND ");
+      }
+      conditions.append(quoteIdentifier(colName)).append(" = ?");
+    }
+    return new PreparedStatementGeneratedResponse(
+        "DELETE FROM " + quoteIdentifier(tableName) + " WHERE " + conditions,
+        new ArrayList<>(pkColumnValues.values()));
+  }
+
+  /**
+   * Returns the values of the primary key columns in primary key order, or null if a primary key
+   * column is missing from Spanner or from the record.
+   */
+  private static Map<String, PreparedStatementValueObject<?>> getPkColumnValues(
+      SpannerTable spannerTable, SourceTable sourceTable, DMLGeneratorRequest request) {
+    Map<String, PreparedStatementValueObject<?>> response = new LinkedHashMap<>();
+    for (ColumnPK sourcePK : sourceTable.getPrimaryKeys()) {
+      SourceColumnDefinition sourceColDef = sourceTable.getColDefs().get(sourcePK.getColId());
+      SpannerColumnDefinition spannerColDef = spannerTable.getColDefs().get(sourcePK.getColId());
+      if (spannerColDef == null) {
+        LOG.warn(
+            "The corresponding primary key column {} was not found in Spanner",
+            sourceColDef.getName());
+        return null;
+      }
+      PreparedStatementValueObject<?> value = getColumnValue(spannerColDef, sourceColDef, request);
+      if (value == null) {
+        LOG.warn("The column {} was not found in input record", spannerColDef.getName());
+        return null;
+      }
+      response.put(sourceColDef.getName(), value);
+    }
+    return response;
+  }
+
+  /** Returns the values of the non primary key columns present in the record. */
+  private static Map<String, PreparedStatementValueObject<?>> getColumnValues(
+      SpannerTable spannerTable, SourceTable sourceTable, DMLGeneratorRequest request) {
+    Map<String, PreparedStatementValueObject<?>> response = new LinkedHashMap<>();
+    Set<String> sourcePKs = sourceTable.getPrimaryKeySet();
+    for (Map.Entry<String, SourceColumnDefinition> entry : sourceTable.getColDefs().entrySet()) {
+      SourceColumnDefinition sourceColDef = entry.getValue();
+      if (sourcePKs.contains(sourceColDef.getName())) {
+        continue;
+      }
+      SpannerColumnDefinition spannerColDef = spannerTable.getColDefs().get(entry.getKey());
+      if (spannerColDef == null) {
+        continue;
+      }
+      PreparedStatementValueObject<?> value = getColumnValue(spannerColDef, sourceColDef, request);
+      if (value != null) {
+        response.put(sourceColDef.getName(), value);
+      }
+    }
+    return response;
+  }
+
+  /**
+   * Returns the value of a column taken from the custom transformation, the keys or the new values
+   * of the record, in that order, or null if the record does not have the column.
+   */
+  private static PreparedStatementValueObject<?> getColumnValue(
+      SpannerColumnDefinition spannerColDef,
+      SourceColumnDefinition sourceColDef,
+      DMLGeneratorRequest request) {
+    String sourceColType = sourceColDef.getType().getName().toLowerCase();
+    Map<String, Object> customTransformationResponse = request.getCustomTransformationResponse();
+    if (customTransformationResponse != null
+        && customTransformationResponse.containsKey(sourceColDef.getName())) {
+      JSONObject customValue = new JSONObject();
+      customValue.put(
+          sourceColDef.getName(), customTransformationResponse.get(sourceColDef.getName()));
+      return PreparedStatementValueObject.create(
+          sourceColType, getCassandraValue(sourceColType, sourceColDef.getName(), customValue));
+    }
+    String spannerColName = spannerColDef.getName();
+    JSONObject valuesJson;
+    if (request.getKeyValuesJson().has(spannerColName)) {
+      valuesJson = request.getKeyValuesJson();
+    } else if (request.getNewValuesJson().has(spannerColName)) {
+      valuesJson = request.getNewValuesJson();
+    } else {
+      return null;
+    }
+    if (valuesJson.isNull(spannerColName)) {
+      return PreparedStatementValueObject.create(sourceColType, null);
+    }
+    return PreparedStatementValueObject.create(
+        sourceColType, getCassandraValue(sourceColType, spannerColName, valuesJson));
+  }
+
+  /** Converts a JSON value to the Java type the driver binds to a column of the given type. */
+  private static Object getCassandraValue(
+      String sourceColType, String colName, JSONObject valuesJson) {
+    if (valuesJson.isNull(colName)) {
+      return null;
+    }
+    switch (sourceColType) {
+      case "ascii":
+        return CassandraTypeHandler.handleCassandraAsciiType(colName, valuesJson);
+      case "text":
+      case "varchar":
+        return CassandraTypeHandler.handleCassandraTextType(colName, valuesJson);
+      case "bigint":
+        return CassandraTypeHandler.handleCassandraBigintType(colName, valuesJson);
+      case "int":
+        return CassandraTypeHandler.handleCassandraIntType(colName, valuesJson);
+      case "smallint":
+        return CassandraTypeHandler.convertToSmallInt(
+            CassandraTypeHandler.handleCassandraIntType(colName, valuesJson));
+      case "tinyint":
+        return CassandraTypeHandler.convertToTinyInt(
+            CassandraTypeHandler.handleCassandraIntType(colName, valuesJson));
+      case "varint":
+        return valuesJson.getBigInteger(colName);
+      case "decimal":
+        return valuesJson.getBigDecimal(colName);
+      case "float":
+        return CassandraTypeHandler.handleCassandraFloatType(colName, valuesJson);
+      case "double":
+        return CassandraTypeHandler.handleCassandraDoubleType(colName, valuesJson);
+      case "boolean":
+        return CassandraTypeHandler.handleCassandraBoolType(colName, valuesJson);
+      case "blob":
+        return CassandraTypeHandler.handleCassandraBlobType(colName, valuesJson);
+      case "date":
+        return CassandraTypeHandler.handleCassandraDateType(colName, valuesJson);
+      case "time":
+        return LocalTime.parse(valuesJson.getString(colName));
+      case "timestamp":
+        return CassandraTypeHandler.handleCassandraTimestampType(colName, valuesJson);
+      case "uuid":
+      case "timeuuid":
+        return CassandraTypeHandler.handleCassandraUuidType(colName, valuesJson);
+      case "inet":
+        return CassandraTypeHandler.handleCassandraInetAddressType(colName, valuesJson);
+      case "duration":
+        return CqlDuration.from(valuesJson.getString(colName));
+      default:
+        throw new IllegalArgumentException(
+            "Unsupported Cassandra type " + sourceColType + " for column " + colName);
+    }
+  }
+
+  private static String quoteIdentifier(String identifier) {
+    return "\"" + identifier.replace("\"", "\"\"") + "\"";
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates.dbutils.dml;
+
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SourceTable;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SpannerTable;
+import com.google.cloud.teleport.v2.templates.models.DMLGeneratorRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Schema lookups shared by the DML generators. */
+final class DMLGeneratorUtils {
+  private static final Logger LOG = LoggerFactory.getLogger(DMLGeneratorUtils.class);
+
+  /** Returns the Spanner table of the request, or null if it is not in the session file. */
+  static SpannerTable getSpannerTable(DMLGeneratorRequest dmlGeneratorRequest) {
+    if (dmlGeneratorRequest
+            .getSchema()
+            .getSpannerToID()
+            .get(dmlGeneratorRequest.getSpannerTableName())
+        == null) {
+      LOG.warn(
+          "The spanner table {} was not found in session file, dropping the record",
+          dmlGeneratorRequest.getSpannerTableName());
+      return null;
+    }
+
+    String spannerTableId =
+        dmlGeneratorRequest
+            .getSchema()
+            .getSpannerToID()
+            .get(dmlGeneratorRequest.getSpannerTableName())
+            .getName();
+    SpannerTable spannerTable = dmlGeneratorRequest.getSchema().getSpSchema().get(spannerTableId);
+
+    if (spannerTable == null) {
+      LOG.warn(
+          "The spanner table {} was not found in session file, dropping the record",
+          dmlGeneratorRequest.getSpannerTableName());
+    }
+    return spannerTable;
+  }
+
+  /**
+   * Returns the source table of the request, or null if it is not in the session file or has no
+   * primary key.
+   */
+  static SourceTable getSourceTable(DMLGeneratorRequest dmlGeneratorRequest) {
+    String spannerTableId =
+        dmlGeneratorRequest
+            .getSchema()
+            .getSpannerToID()
+            .get(dmlGeneratorRequest.getSpannerTableName())
+            .getName();
+    SourceTable sourceTable = dmlGeneratorRequest.getSchema().getSrcSchema().get(spannerTableId);
+    if (sourceTable == null) {
+      LOG.warn("The table {} was not found in source", dmlGeneratorRequest.getSpannerTableName());
+      return null;
+    }
+
+    if (sourceTable.getPrimaryKeys() == null || sourceTable.getPrimaryKeys().length == 0) {
+      LOG.warn(
+          "Cannot reverse replicate for table {} without primary key, skipping the record",
+          sourceTable.getName());
+      return null;
+    }
+    return sourceTable;
+  }
+
+  private DMLGeneratorUtils() {}
+}
@@ -17,6 +17,8 @@ package com.google.cloud.teleport.v2.templates.dbutils.dml;
 
 import com.google.cloud.teleport.v2.templates.models.DMLGeneratorRequest;
 import com.google.cloud.teleport.v2.templates.models.DMLGeneratorResponse;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementGeneratedResponse;
+import java.util.List;
 
 /**
  * Interface for generating DML statements.
@@ -37,4 +39,33 @@ public interface IDMLGenerator {
    * @return a {@link DMLGeneratorResponse} object containing the generated DML statement.
    */
   DMLGeneratorResponse getDMLStatement(DMLGeneratorRequest dmlGeneratorRequest);
+
+  /**
+   * Generates a parameterized DML statement based on the provided {@link DMLGeneratorRequest}.
+   *
+   * @param dmlGeneratorRequest the request containing necessary information to construct the DML
+   *     statement, including modification type, table schema, new values, and key values.
+   * @return a {@link PreparedStatementGeneratedResponse} containing the statement text with
+   *     placeholders and the values to bind to them.
+   */
+  PreparedStatementGeneratedResponse getPreparedDMLStatement(
+      DMLGeneratorRequest dmlGeneratorRequest);
+
+  /**
+   * Merges consecutive parameterized DML statements into fewer statements with the same effect when
+   * applied in order, such as multi-row inserts.
+   *
+   * @param statements the statements generated by {@link #getPreparedDMLStatement}, in the order in
+   *     which they must be applied.
+   * @param maxStatementBytes the maximum size of a statement accepted by the target database.
+   * @param sourceVersion the version of the target database, or an empty string if it is unknown.
+   * @return the statements to apply in order. The default implementation returns the statements
+   *     unchanged.
+   */
+  default List<PreparedStatementGeneratedResponse> mergePreparedDMLStatements(
+      List<PreparedStatementGeneratedResponse> statements,
+      long maxStatementBytes,
+      String sourceVersion) {
+    return statements;
+  }
 }
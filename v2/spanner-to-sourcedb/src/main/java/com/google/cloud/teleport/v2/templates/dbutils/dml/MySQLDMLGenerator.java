@@ -22,9 +22,16 @@ import com.google.cloud.teleport.v2.spanner.migrations.schema.SpannerColumnDefin
 import com.google.cloud.teleport.v2.spanner.migrations.schema.SpannerTable;
 import com.google.cloud.teleport.v2.templates.models.DMLGeneratorRequest;
 import com.google.cloud.teleport.v2.templates.models.DMLGeneratorResponse;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementGeneratedResponse;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementValueObject;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONObject;
@@ -35,44 +42,72 @@ import org.slf4j.LoggerFactory;
 public class MySQLDMLGenerator implements IDMLGenerator {
   private static final Logger LOG = LoggerFactory.getLogger(MySQLDMLGenerator.class);
 
-  public DMLGeneratorResponse getDMLStatement(DMLGeneratorRequest dmlGeneratorRequest) {
+  // Maximum number of placeholders of a MySQL prepared statement.
+  private static final int MAX_PREPARED_STATEMENT_PARAMETERS = 65_535;
 
-    if (dmlGeneratorRequest
-            .getSchema()
-            .getSpannerToID()
-            .get(dmlGeneratorRequest.getSpannerTableName())
-        == null) {
-      LOG.warn(
-          "The spanner table {} was not found in session file, dropping the record",
-          dmlGeneratorRequest.getSpannerTableName());
-      return new DMLGeneratorResponse("");
-    }
+  private static final Pattern VERSION_PATTERN = Pattern.compile("^(\\d+)\\.(\\d+)\\.(\\d+)");
+
+  private static final ColumnValueMapper<String> LITERAL_VALUE_MAPPER =
+      new ColumnValueMapper<String>() {
+        @Override
+        public String nullValue(
+            SpannerColumnDefinition spannerColDef,
+            SourceColumnDefinition sourceColDef,
+            String sourceDbTimezoneOffset) {
+          return "NULL";
+        }
+
+        @Override
+        public String customValue(Object customValue) {
+          return customValue.toString();
+        }
+
+        @Override
+        public String mappedValue(
+            SpannerColumnDefinition spannerColDef,
+            SourceColumnDefinition sourceColDef,
+            JSONObject valuesJson,
+            String sourceDbTimezoneOffset) {
+          return getMappedColumnValue(
+              spannerColDef, sourceColDef, valuesJson, sourceDbTimezoneOffset);
+        }
+      };
+
+  private static final ColumnValueMapper<ParameterizedValue> PARAMETERIZED_VALUE_MAPPER =
+      new ColumnValueMapper<ParameterizedValue>() {
+        @Override
+        public ParameterizedValue nullValue(
+            SpannerColumnDefinition spannerColDef,
+            SourceColumnDefinition sourceColDef,
+            String sourceDbTimezoneOffset) {
+          return new ParameterizedValue(
+              getParameterExpression(spannerColDef, sourceColDef, sourceDbTimezoneOffset),
+              PreparedStatementValueObject.create(sourceColDef.getType().getName(), null));
+        }
+
+        @Override
+        public ParameterizedValue customValue(Object customValue) {
+          return new ParameterizedValue(customValue.toString(), null);
+        }
 
-    String spannerTableId =
-        dmlGeneratorRequest
-            .getSchema()
-            .getSpannerToID()
-            .get(dmlGeneratorRequest.getSpannerTableName())
-            .getName();
-    SpannerTable spannerTable = dmlGeneratorRequest.getSchema().getSpSchema().get(spannerTableId);
+        @Override
+        public ParameterizedValue mappedValue(
+            SpannerColumnDefinition spannerColDef,
+            SourceColumnDefinition sourceColDef,
+            JSONObject valuesJson,
+            String sourceDbTimezoneOffset) {
+          return getParameterizedColumnValue(
+              spannerColDef, sourceColDef, valuesJson, sourceDbTimezoneOffset);
+        }
+      };
 
+  public DMLGeneratorResponse getDMLStatement(DMLGeneratorRequest dmlGeneratorRequest) {
+    SpannerTable spannerTable = DMLGeneratorUtils.getSpannerTable(dmlGeneratorRequest);
     if (spannerTable == null) {
-      LOG.warn(
-          "The spanner table {} was not found in session file, dropping the record",
-          dmlGeneratorRequest.getSpannerTableName());
       return new DMLGeneratorResponse("");
     }
-
-    SourceTable sourceTable = dmlGeneratorRequest.getSchema().getSrcSchema().get(spannerTableId);
+    SourceTable sourceTable = DMLGeneratorUtils.getSourceTable(dmlGeneratorRequest);
     if (sourceTable == null) {
-      LOG.warn("The table {} was not found in source", dmlGeneratorRequest.getSpannerTableName());
-      return new DMLGeneratorResponse("");
-    }
-
-    if (sourceTable.getPrimaryKeys() == null || sourceTable.getPrimaryKeys().length == 0) {
-      LOG.warn(
-          "Cannot reverse replicate for table {} without primary key, skipping the record",
-          sourceTable.getName());
       return new DMLGeneratorResponse("");
     }
 
@@ -83,7 +118,8 @@ public class MySQLDMLGenerator implements IDMLGenerator {
             dmlGeneratorRequest.getNewValuesJson(),
             dmlGeneratorRequest.getKeyValuesJson(),
             dmlGeneratorRequest.getSourceDbTimezoneOffset(),
-            dmlGeneratorRequest.getCustomTransformationResponse());
+            dmlGeneratorRequest.getCustomTransformationResponse(),
+            LITERAL_VALUE_MAPPER);
     if (pkcolumnNameValues == null) {
       LOG.warn(
           "Cannot reverse replicate for table {} without primary key, skipping the record",
@@ -104,84 +140,359 @@ public class MySQLDMLGenerator implements IDMLGenerator {
     }
   }
 
+  /**
+   * Generates a parameterized DML statement for the given request. The statement text only depends
+   * on the table, the modification type and the set of columns present in the record, so that
+   * consecutive statements for the same table can be executed as a single JDBC batch.
+   *
+   * <p>Values returned by a custom transformation are SQL literals and are therefore inlined in the
+   * statement text rather than bound as parameters.
+   */
+  @Override
+  public PreparedStatementGeneratedResponse getPreparedDMLStatement(
+      DMLGeneratorRequest dmlGeneratorRequest) {
+    SpannerTable spannerTable = DMLGeneratorUtils.getSpannerTable(dmlGeneratorRequest);
+    if (spannerTable == null) {
+      return new PreparedStatementGeneratedResponse("", new ArrayList<>());
+    }
+    SourceTable sourceTable = DMLGeneratorUtils.getSourceTable(dmlGeneratorRequest);
+    if (sourceTable == null) {
+      return new PreparedStatementGeneratedResponse("", new ArrayList<>());
+    }
+
+    Map<String, ParameterizedValue> pkcolumnNameValues =
+        getPkColumnValues(
+            spannerTable,
+            sourceTable,
+            dmlGeneratorRequest.getNewValuesJson(),
+            dmlGeneratorRequest.getKeyValuesJson(),
+            dmlGeneratorRequest.getSourceDbTimezoneOffset(),
+            dmlGeneratorRequest.getCustomTransformationResponse(),
+            PARAMETERIZED_VALUE_MAPPER);
+    if (pkcolumnNameValues == null) {
+      LOG.warn(
+          "Cannot reverse replicate for table {} without primary key, skipping the record",
+          sourceTable.getName());
+      return new PreparedStatementGeneratedResponse("", new ArrayList<>());
+    }
+
+    if ("INSERT".equals(dmlGeneratorRequest.getModType())
+        || "UPDATE".equals(dmlGeneratorRequest.getModType())) {
+      Map<String, ParameterizedValue> columnNameValues =
+          getColumnValues(
+              spannerTable,
+              sourceTable,
+              dmlGeneratorRequest.getNewValuesJson(),
+              dmlGeneratorRequest.getKeyValuesJson(),
+              dmlGeneratorRequest.getSourceDbTimezoneOffset(),
+              dmlGeneratorRequest.getCustomTransformationResponse(),
+              PARAMETERIZED_VALUE_MAPPER);
+      return getPreparedUpsertStatement(
+          sourceTable.getName(), columnNameValues, pkcolumnNameValues);
+    } else if ("DELETE".equals(dmlGeneratorRequest.getModType())) {
+      return getPreparedDeleteStatement(sourceTable.getName(), pkcolumnNameValues);
+    } else {
+      LOG.warn("Unsupported modType: " + dmlGeneratorRequest.getModType());
+      return new PreparedStatementGeneratedResponse("", new ArrayList<>());
+    }
+  }
+
   private static DMLGeneratorResponse getUpsertStatement(
       String tableName,
       Set<String> primaryKeys,
       Map<String, String> columnNameValues,
       Map<String, String> pkcolumnNameValues) {
-
-    String allColumns = "";
-    String allValues = "";
-    String updateValues = "";
-
+    // Size the builder once from the column names and values instead of growing it per column.
+    int capacity = 64 + tableName.length();
     for (Map.Entry<String, String> entry : pkcolumnNameValues.entrySet()) {
-      String colName = entry.getKey();
-      String colValue = entry.getValue();
+      capacity += entry.getKey().length() + entry.getValue().length() + 4;
+    }
+    for (Map.Entry<String, String> entry : columnNameValues.entrySet()) {
+      capacity += 2 * (entry.getKey().length() + entry.getValue().length()) + 10;
+    }
+    StringBuilder allColumns = new StringBuilder(capacity);
+    StringBuilder allValues = new StringBuilder(capacity);
+    StringBuilder updateValues = new StringBuilder(capacity);
 
-      allColumns += "`" + colName + "`,";
-      allValues += colValue + ",";
+    for (Map.Entry<String, String> entry : pkcolumnNameValues.entrySet()) {
+      allColumns.append('`').append(entry.getKey()).append("`,");
+      allValues.append(entry.getValue()).append(',');
     }
 
     if (columnNameValues.size() == 0) { // if there are only PKs
       // trim the last ','
-      allColumns = allColumns.substring(0, allColumns.length() - 1);
-      allValues = allValues.substring(0, allValues.length() - 1);
-
-      String returnVal =
-          "INSERT INTO `" + tableName + "`(" + allColumns + ")" + " VALUES (" + allValues + ") ";
-      return new DMLGeneratorResponse(returnVal);
+      allColumns.setLength(allColumns.length() - 1);
+      allValues.setLength(allValues.length() - 1);
+
+      return new DMLGeneratorResponse(
+          new StringBuilder(capacity)
+              .append("INSERT INTO `")
+              .append(tableName)
+              .append("`(")
+              .append(allColumns)
+              .append(") VALUES (")
+              .append(allValues)
+              .append(") ")
+              .toString());
     }
     int index = 0;
 
     for (Map.Entry<String, String> entry : columnNameValues.entrySet()) {
       String colName = entry.getKey();
       String colValue = entry.getValue();
-      allColumns += "`" + colName + "`";
-      allValues += colValue;
+      allColumns.append('`').append(colName).append('`');
+      allValues.append(colValue);
       if (!primaryKeys.contains(colName)) {
-        updateValues += " `" + colName + "` = " + colValue;
+        updateValues.append(" `").append(colName).append("` = ").append(colValue);
       }
 
       if (index + 1 < columnNameValues.size()) {
-        allColumns += ",";
-        allValues += ",";
-        updateValues += ",";
+        allColumns.append(',');
+        allValues.append(',');
+        updateValues.append(',');
       }
       index++;
     }
-    String returnVal =
-        "INSERT INTO `"
-            + tableName
-            + "`("
-            + allColumns
-            + ")"
-            + " VALUES ("
-            + allValues
-            + ") "
-            + "ON DUPLICATE KEY UPDATE "
-            + updateValues;
-
-    return new DMLGeneratorResponse(returnVal);
+    return new DMLGeneratorResponse(
+        new StringBuilder(3 * capacity)
+            .append("INSERT INTO `")
+            .append(tableName)
+            .append("`(")
+            .append(allColumns)
+            .append(") VALUES (")
+            .append(allValues)
+            .append(") ON DUPLICATE KEY UPDATE ")
+            .append(updateValues)
+            .toString());
   }
 
   private static DMLGeneratorResponse getDeleteStatement(
       String tableName, Map<String, String> pkcolumnNameValues) {
-    String deleteValues = "";
+    StringBuilder deleteStatement =
+        new StringBuilder("DELETE FROM `").append(tableName).append("` WHERE ");
 
     int index = 0;
     for (Map.Entry<String, String> entry : pkcolumnNameValues.entrySet()) {
-      String colName = entry.getKey();
-      String colValue = entry.getValue();
-
-      deleteValues += " `" + colName + "` = " + colValue;
+      deleteStatement.append(" `").append(entry.getKey()).append("` = ").append(entry.getValue());
       if (index + 1 < pkcolumnNameValues.size()) {
-        deleteValues += " AND ";
+        deleteStatement.append(" AND ");
       }
       index++;
     }
-    String returnVal = "DELETE FROM `" + tableName + "` WHERE " + deleteValues;
+    return new DMLGeneratorResponse(deleteStatement.toString());
+  }
+
+  /**
+   * Returns a single row upsert. Its update clause repeats the value expressions of the row instead
+   * of referring to the inserted row, which needs {@code VALUES()} or a row alias depending on the
+   * MySQL version, so its values are bound twice.
+   */
+  private static PreparedStatementGeneratedResponse getPreparedUpsertStatement(
+      String tableName,
+      Map<String, ParameterizedValue> columnNameValues,
+      Map<String, ParameterizedValue> pkcolumnNameValues) {
+    StringBuilder allColumns = new StringBuilder();
+    StringBuilder allValues = new StringBuilder();
+    StringBuilder updateValues = new StringBuilder();
+    List<PreparedStatementValueObject<?>> values = new ArrayList<>();
+    List<PreparedStatementValueObject<?>> updateBindings = new ArrayList<>();
+    List<String> updateColumns = new ArrayList<>(columnNameValues.size());
+    List<Object> key = new ArrayList<>(pkcolumnNameValues.size());
+
+    for (Map.Entry<String, ParameterizedValue> entry : pkcolumnNameValues.entrySet()) {
+      appendColumn(allColumns, allValues, values, entry.getKey(), entry.getValue());
+      key.add(
+          entry.getValue().getValue() == null
+              ? entry.getValue().getExpression()
+              : entry.getValue().getValue().value());
+    }
+    for (Map.Entry<String, ParameterizedValue> entry : columnNameValues.entrySet()) {
+      appendColumn(allColumns, allValues, values, entry.getKey(), entry.getValue());
+      if (updateValues.length() > 0) {
+        updateValues.append(",");
+      }
+      updateValues
+          .append(" `")
+          .append(entry.getKey())
+          .append("` = ")
+          .append(entry.getValue().getExpression());
+      if (entry.getValue().getValue() != null) {
+        updateBindings.add(entry.getValue().getValue());
+      }
+      updateColumns.add(entry.getKey());
+    }
+
+    String insertClause = "INSERT INTO `" + tableName + "`(" + allColumns + ") VALUES ";
+    String row = "(" + allValues + ")";
+    // there are non-PK columns to update
+    String updateClause =
+        updateValues.length() > 0 ? " ON DUPLICATE KEY UPDATE" + updateValues : "";
+    return new PreparedUpsertStatement(
+        insertClause, row, updateClause, values, updateBindings, updateColumns, key);
+  }
+
+  /**
+   * Returns whether the MySQL server of the given version accepts a row alias in {@code INSERT ...
+   * ON DUPLICATE KEY UPDATE}. Row aliases were added in MySQL 8.0.19, and MySQL 8.0.20 deprecates
+   * {@code VALUES()} in their favor. MariaDB has no row aliases.
+   */
+  static boolean supportsRowAlias(String sourceVersion) {
+    if (sourceVersion == null || sourceVersion.contains("MariaDB")) {
+      return false;
+    }
+    Matcher matcher = VERSION_PATTERN.matcher(sourceVersion);
+    if (!matcher.find()) {
+      return false;
+    }
+    int major = Integer.parseInt(matcher.group(1));
+    int minor = Integer.parseInt(matcher.group(2));
+    int patch = Integer.parseInt(matcher.group(3));
+    return major > 8 || (major == 8 && (minor > 0 || patch >= 19));
+  }
 
-    return new DMLGeneratorResponse(returnVal);
+  /**
+   * Merges runs of consecutive upserts into multi-row {@code INSERT ... ON DUPLICATE KEY UPDATE}
+   * statements. Upserts are merged when they have the same statement text, that is the same table,
+   * columns and inlined values, and distinct primary keys. Other statements, and the order of all
+   * statements, are kept as is.
+   *
+   * <p>The update clause of a merged statement refers to the values of each inserted row through a
+   * row alias if the source supports it, and through {@code VALUES()} otherwise.
+   *
+   * <p>A merged statement is capped at {@code maxStatementBytes}, estimated as an upper bound of
+   * its size once the values are bound, and at the maximum number of parameters of a MySQL prepared
+   * statement.
+   */
+  @Override
+  public List<PreparedStatementGeneratedResponse> mergePreparedDMLStatements(
+      List<PreparedStatementGeneratedResponse> statements,
+      long maxStatementBytes,
+      String sourceVersion) {
+    boolean rowAlias = supportsRowAlias(sourceVersion);
+    List<PreparedStatementGeneratedResponse> merged = new ArrayList<>(statements.size());
+    int start = 0;
+    while (start < statements.size()) {
+      PreparedStatementGeneratedResponse first = statements.get(start);
+      if (!(first instanceof PreparedUpsertStatement)) {
+        merged.add(first);
+        start++;
+        continue;
+      }
+      PreparedUpsertStatement firstUpsert = (PreparedUpsertStatement) first;
+      Set<List<Object>> keys = new HashSet<>();
+      keys.add(firstUpsert.key);
+      String updateClause = getMergedUpdateClause(firstUpsert.updateColumns, rowAlias);
+      long statementBytes =
+          firstUpsert.insertClause.length() + updateClause.length() + firstUpsert.getRowBytes();
+      int parameters = firstUpsert.rowValues.size();
+      int end = start + 1;
+      while (end < statements.size()) {
+        PreparedStatementGeneratedResponse next = statements.get(end);
+        if (!(next instanceof PreparedUpsertStatement)
+            || !next.getDmlStatement().equals(first.getDmlStatement())) {
+          break;
+        }
+        PreparedUpsertStatement nextUpsert = (PreparedUpsertStatement) next;
+        long rowBytes = nextUpsert.getRowBytes() + 1; // and the separating ','
+        if (statementBytes + rowBytes > maxStatementBytes
+            || parameters + nextUpsert.rowValues.size() > MAX_PREPARED_STATEMENT_PARAMETERS
+            || !keys.add(nextUpsert.key)) {
+          break;
+        }
+        statementBytes += rowBytes;
+        parameters += nextUpsert.rowValues.size();
+        end++;
+      }
+      merged.add(
+          end - start == 1
+              ? first
+              : mergeUpserts(statements.subList(start, end), updateClause, parameters));
+      start = end;
+    }
+    return merged;
+  }
+
+  // The update clause of a multi-row upsert, which refers to the values of each inserted row.
+  private static String getMergedUpdateClause(List<String> updateColumns, boolean rowAlias) {
+    if (updateColumns.isEmpty()) {
+      return "";
+    }
+    StringBuilder updateClause =
+        new StringBuilder(
+            rowAlias ? " AS `new` ON DUPLICATE KEY UPDATE" : " ON DUPLICATE KEY UPDATE");
+    for (int i = 0; i < updateColumns.size(); i++) {
+      if (i > 0) {
+        updateClause.append(",");
+      }
+      String column = updateColumns.get(i);
+      updateClause.append(" `").append(column).append("` = ");
+      if (rowAlias) {
+        updateClause.append("`new`.`").append(column).append("`");
+      } else {
+        updateClause.append("VALUES(`").append(column).append("`)");
+      }
+    }
+    return updateClause.toString();
+  }
+
+  private static PreparedStatementGeneratedResponse mergeUpserts(
+      List<PreparedStatementGeneratedResponse> upserts, String updateClause, int parameters) {
+    PreparedUpsertStatement first = (PreparedUpsertStatement) upserts.get(0);
+    StringBuilder statement =
+        new StringBuilder(
+            first.insertClause.length()
+                + upserts.size() * (first.row.length() + 1)
+                + updateClause.length());
+    List<PreparedStatementValueObject<?>> values = new ArrayList<>(parameters);
+    statement.append(first.insertClause);
+    for (int i = 0; i < upserts.size(); i++) {
+      if (i > 0) {
+        statement.append(',');
+      }
+      statement.append(first.row);
+      values.addAll(((PreparedUpsertStatement) upserts.get(i)).rowValues);
+    }
+    statement.append(updateClause);
+    return new PreparedStatementGeneratedResponse(statement.toString(), values);
+  }
+
+  private static PreparedStatementGeneratedResponse getPreparedDeleteStatement(
+      String tableName, Map<String, ParameterizedValue> pkcolumnNameValues) {
+    StringBuilder deleteValues = new StringBuilder();
+    List<PreparedStatementValueObject<?>> values = new ArrayList<>();
+
+    for (Map.Entry<String, ParameterizedValue> entry : pkcolumnNameValues.entrySet()) {
+      if (deleteValues.length() > 0) {
+        deleteValues.append(" AND ");
+      }
+      deleteValues
+          .append("`")
+          .append(entry.getKey())
+          .append("` = ")
+          .append(entry.getValue().getExpression());
+      if (entry.getValue().getValue() != null) {
+        values.add(entry.getValue().getValue());
+      }
+    }
+    return new PreparedStatementGeneratedResponse(
+        "DELETE FROM `" + tableName + "` WHERE " + deleteValues, values);
+  }
+
+  private static void appendColumn(
+      StringBuilder allColumns,
+      StringBuilder allValues,
+      List<PreparedStatementValueObject<?>> values,
+      String colName,
+      ParameterizedValue colValue) {
+    if (allColumns.length() > 0) {
+      allColumns.append(",");
+      allValues.append(",");
+    }
+    allColumns.append("`").append(colName).append("`");
+    allValues.append(colValue.getExpression());
+    if (colValue.getValue() != null) {
+      values.add(colValue.getValue());
+    }
   }
 
   private static DMLGeneratorResponse generateUpsertStatement(
@@ -196,7 +507,8 @@ public class MySQLDMLGenerator implements IDMLGenerator {
             dmlGeneratorRequest.getNewValuesJson(),
             dmlGeneratorRequest.getKeyValuesJson(),
             dmlGeneratorRequest.getSourceDbTimezoneOffset(),
-            dmlGeneratorRequest.getCustomTransformationResponse());
+            dmlGeneratorRequest.getCustomTransformationResponse(),
+            LITERAL_VALUE_MAPPER);
     return getUpsertStatement(
         sourceTable.getName(),
         sourceTable.getPrimaryKeySet(),
@@ -204,14 +516,15 @@ public class MySQLDMLGenerator implements IDMLGenerator {
         pkcolumnNameValues);
   }
 
-  private static Map<String, String> getColumnValues(
+  private static <T> Map<String, T> getColumnValues(
       SpannerTable spannerTable,
       SourceTable sourceTable,
       JSONObject newValuesJson,
       JSONObject keyValuesJson,
       String sourceDbTimezoneOffset,
-      Map<String, Object> customTransformationResponse) {
-    Map<String, String> response = new HashMap<>();
+      Map<String, Object> customTransformationResponse,
+      ColumnValueMapper<T> valueMapper) {
+    Map<String, T> response = new HashMap<>();
 
     /*
     Get all non-primary key col ids from source table
@@ -239,7 +552,7 @@ public class MySQLDMLGenerator implements IDMLGenerator {
         continue; // we only need non-primary keys
       }
       if (customTransformColumns != null && customTransformColumns.contains(colName)) {
-        response.put(colName, customTransformationResponse.get(colName).toString());
+        response.put(colName, valueMapper.customValue(customTransformationResponse.get(colName)));
         continue;
       }
 
@@ -249,24 +562,28 @@ public class MySQLDMLGenerator implements IDMLGenerator {
         continue;
       }
       String spannerColumnName = spannerColDef.getName();
-      String columnValue = "";
+      T columnValue;
       if (keyValuesJson.has(spannerColumnName)) {
         // get the value based on Spanner and Source type
         if (keyValuesJson.isNull(spannerColumnName)) {
-          response.put(sourceColDef.getName(), "NULL");
+          response.put(
+              sourceColDef.getName(),
+              valueMapper.nullValue(spannerColDef, sourceColDef, sourceDbTimezoneOffset));
           continue;
         }
         columnValue =
-            getMappedColumnValue(
+            valueMapper.mappedValue(
                 spannerColDef, sourceColDef, keyValuesJson, sourceDbTimezoneOffset);
       } else if (newValuesJson.has(spannerColumnName)) {
         // get the value based on Spanner and Source type
         if (newValuesJson.isNull(spannerColumnName)) {
-          response.put(sourceColDef.getName(), "NULL");
+          response.put(
+              sourceColDef.getName(),
+              valueMapper.nullValue(spannerColDef, sourceColDef, sourceDbTimezoneOffset));
           continue;
         }
         columnValue =
-            getMappedColumnValue(
+            valueMapper.mappedValue(
                 spannerColDef, sourceColDef, newValuesJson, sourceDbTimezoneOffset);
       } else {
         continue;
@@ -278,14 +595,15 @@ public class MySQLDMLGenerator implements IDMLGenerator {
     return response;
   }
 
-  private static Map<String, String> getPkColumnValues(
+  private static <T> Map<String, T> getPkColumnValues(
       SpannerTable spannerTable,
       SourceTable sourceTable,
       JSONObject newValuesJson,
       JSONObject keyValuesJson,
       String sourceDbTimezoneOffset,
-      Map<String, Object> customTransformationResponse) {
-    Map<String, String> response = new HashMap<>();
+      Map<String, Object> customTransformationResponse,
+      ColumnValueMapper<T> valueMapper) {
+    Map<String, T> response = new HashMap<>();
     /*
     Get all primary key col ids from source table
     For each - get the corresponding column name from spanner Schema
@@ -318,28 +636,32 @@ public class MySQLDMLGenerator implements IDMLGenerator {
           && customTransformColumns.contains(sourceColDef.getName())) {
         response.put(
             sourceColDef.getName(),
-            customTransformationResponse.get(sourceColDef.getName()).toString());
+            valueMapper.customValue(customTransformationResponse.get(sourceColDef.getName())));
         continue;
       }
       String spannerColumnName = spannerColDef.getName();
-      String columnValue = "";
+      T columnValue;
       if (keyValuesJson.has(spannerColumnName)) {
         // get the value based on Spanner and Source type
         if (keyValuesJson.isNull(spannerColumnName)) {
-          response.put(sourceColDef.getName(), "NULL");
+          response.put(
+              sourceColDef.getName(),
+              valueMapper.nullValue(spannerColDef, sourceColDef, sourceDbTimezoneOffset));
           continue;
         }
         columnValue =
-            getMappedColumnValue(
+            valueMapper.mappedValue(
                 spannerColDef, sourceColDef, keyValuesJson, sourceDbTimezoneOffset);
       } else if (newValuesJson.has(spannerColumnName)) {
         // get the value based on Spanner and Source type
         if (newValuesJson.isNull(spannerColumnName)) {
-          response.put(sourceColDef.getName(), "NULL");
+          response.put(
+              sourceColDef.getName(),
+              valueMapper.nullValue(spannerColDef, sourceColDef, sourceDbTimezoneOffset));
           continue;
         }
         columnValue =
-            getMappedColumnValue(
+            valueMapper.mappedValue(
                 spannerColDef, sourceColDef, newValuesJson, sourceDbTimezoneOffset);
       } else {
         LOG.warn("The column {} was not found in input record", spannerColumnName);
@@ -381,6 +703,94 @@ public class MySQLDMLGenerator implements IDMLGenerator {
     return response;
   }
 
+  private static ParameterizedValue getParameterizedColumnValue(
+      SpannerColumnDefinition spannerColDef,
+      SourceColumnDefinition sourceColDef,
+      JSONObject valuesJson,
+      String sourceDbTimezoneOffset) {
+
+    Object colInputValue;
+    String colType = spannerColDef.getType().getName();
+    String colName = spannerColDef.getName();
+    String sourceColType = sourceColDef.getType().getName();
+    if ("FLOAT64".equals(colType)) {
+      colInputValue = valuesJson.getBigDecimal(colName).toString();
+    } else if ("BOOL".equals(colType)) {
+      colInputValue = valuesJson.getBoolean(colName);
+    } else if ("STRING".equals(colType) && spannerColDef.getType().getIsArray()) {
+      colInputValue =
+          valuesJson.getJSONArray(colName).toList().stream()
+              .map(String::valueOf)
+              .collect(Collectors.joining(","));
+    } else {
+      colInputValue = valuesJson.getString(colName);
+    }
+
+    switch (sourceColType) {
+      case "varchar":
+      case "char":
+      case "text":
+      case "tinytext":
+      case "mediumtext":
+      case "longtext":
+      case "enum":
+      case "date":
+      case "time":
+      case "year":
+      case "set":
+      case "json":
+      case "geometry":
+      case "geometrycollection":
+      case "point":
+      case "multipoint":
+      case "linestring":
+      case "multilinestring":
+      case "polygon":
+      case "multipolygon":
+      case "tinyblob":
+      case "mediumblob":
+      case "blob":
+      case "longblob":
+      case "binary":
+      case "varbinary":
+      case "bit":
+        colInputValue = StringUtils.replace(String.valueOf(colInputValue), "\u0000", "");
+        break;
+      case "timestamp":
+      case "datetime":
+        String timestampValue = String.valueOf(colInputValue);
+        colInputValue = timestampValue.substring(0, timestampValue.length() - 1); // trim the Z
+        break;
+      default:
+        break;
+    }
+    return new ParameterizedValue(
+        getParameterExpression(spannerColDef, sourceColDef, sourceDbTimezoneOffset),
+        PreparedStatementValueObject.create(sourceColType, colInputValue));
+  }
+
+  /**
+   * Returns the SQL expression a bound value is wrapped in. It only depends on the column types so
+   * that NULL and non-NULL values of a column yield the same statement text.
+   */
+  private static String getParameterExpression(
+      SpannerColumnDefinition spannerColDef,
+      SourceColumnDefinition sourceColDef,
+      String sourceDbTimezoneOffset) {
+    String expression = "BYTES".equals(spannerColDef.getType().getName()) ? "FROM_BASE64(?)" : "?";
+    switch (sourceColDef.getType().getName()) {
+      case "timestamp":
+      case "datetime":
+        return "CONVERT_TZ(" + expression + ",'+00:00','" + sourceDbTimezoneOffset + "')";
+      case "binary":
+      case "varbinary":
+      case "bit":
+        return "BINARY(" + expression + ")";
+      default:
+        return expression;
+    }
+  }
+
   private static String getColumnValueByType(
       String columnType, String colValue, String sourceDbTimezoneOffset, String spannerColType) {
     String response = "";
@@ -455,4 +865,94 @@ public class MySQLDMLGenerator implements IDMLGenerator {
     String response = "BINARY(" + getQuotedEscapedString(input, spannerColType) + ")";
     return response;
   }
+
+  /**
+   * Maps a column value of a change record to its representation in the generated statement.
+   *
+   * @param <T> the representation of the column value in the statement
+   */
+  private interface ColumnValueMapper<T> {
+    T nullValue(
+        SpannerColumnDefinition spannerColDef,
+        SourceColumnDefinition sourceColDef,
+        String sourceDbTimezoneOffset);
+
+    T customValue(Object customValue);
+
+    T mappedValue(
+        SpannerColumnDefinition spannerColDef,
+        SourceColumnDefinition sourceColDef,
+        JSONObject valuesJson,
+        String sourceDbTimezoneOffset);
+  }
+
+  /** A SQL expression for a column along with the parameter bound to it, if any. */
+  private static class ParameterizedValue {
+    private final String expression;
+    private final PreparedStatementValueObject<?> value;
+
+    ParameterizedValue(String expression, PreparedStatementValueObject<?> value) {
+      this.expression = expression;
+      this.value = value;
+    }
+
+    String getExpression() {
+      return expression;
+    }
+
+    PreparedStatementValueObject<?> getValue() {
+      return value;
+    }
+  }
+
+  /**
+   * A single row upsert, along with the parts of its statement and its primary key, so that it can
+   * be merged with other upserts of the same table into a multi-row statement.
+   */
+  private static class PreparedUpsertStatement extends PreparedStatementGeneratedResponse {
+    private final String insertClause;
+    private final String row;
+    // The values bound by the row, without those bound again by the update clause.
+    private final List<PreparedStatementValueObject<?>> rowValues;
+    private final List<String> updateColumns;
+    private final List<Object> key;
+
+    PreparedUpsertStatement(
+        String insertClause,
+        String row,
+        String updateClause,
+        List<PreparedStatementValueObject<?>> rowValues,
+        List<PreparedStatementValueObject<?>> updateValues,
+        List<String> updateColumns,
+        List<Object> key) {
+      super(insertClause + row + updateClause, concat(rowValues, updateValues));
+      this.insertClause = insertClause;
+      this.row = row;
+      this.rowValues = rowValues;
+      this.updateColumns = updateColumns;
+      this.key = key;
+    }
+
+    private static List<PreparedStatementValueObject<?>> concat(
+        List<PreparedStatementValueObject<?>> first,
+        List<PreparedStatementValueObject<?>> second) {
+      List<PreparedStatementValueObject<?>> values = new ArrayList<>(first.size() + second.size());
+      values.addAll(first);
+      values.addAll(second);
+      return values;
+    }
+
+    /**
+     * Returns an upper bound of the size of the row once its values are inlined by the driver: a
+     * character takes at most 3 bytes in UTF-8 and escaping only doubles ASCII characters.
+     */
+    long getRowBytes() {
+      long bytes = row.length();
+      for (PreparedStatementValueObject<?> value : rowValues) {
+        Object rawValue = value.value();
+        bytes += rawValue instanceof String ? 3L * ((String) rawValue).length() + 2 : 8;
+      }
+      return bytes;
+    }
+  }
 }
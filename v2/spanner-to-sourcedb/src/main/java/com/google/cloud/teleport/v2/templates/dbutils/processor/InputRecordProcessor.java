@@ -26,6 +26,7 @@ import com.google.cloud.teleport.v2.templates.dbutils.dao.source.IDao;
 import com.google.cloud.teleport.v2.templates.dbutils.dml.IDMLGenerator;
 import com.google.cloud.teleport.v2.templates.models.DMLGeneratorRequest;
 import com.google.cloud.teleport.v2.templates.models.DMLGeneratorResponse;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementGeneratedResponse;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Map;
@@ -57,65 +58,27 @@ public class InputRecordProcessor {
       throws Exception {
 
     try {
-
-      String tableName = spannerRecord.getTableName();
-      String modType = spannerRecord.getModType().name();
-      String keysJsonStr = spannerRecord.getMod().getKeysJson();
-      String newValueJsonStr = spannerRecord.getMod().getNewValuesJson();
-      JSONObject newValuesJson = new JSONObject(newValueJsonStr);
-      JSONObject keysJson = new JSONObject(keysJsonStr);
-      Map<String, Object> customTransformationResponse = null;
-
-      if (spannerToSourceTransformer != null) {
-        org.joda.time.Instant startTimestamp = org.joda.time.Instant.now();
-        Map<String, Object> mapRequest =
-            ChangeEventToMapConvertor.combineJsonObjects(keysJson, newValuesJson);
-        MigrationTransformationRequest migrationTransformationRequest =
-            new MigrationTransformationRequest(tableName, mapRequest, shardId, modType);
-        MigrationTransformationResponse migrationTransformationResponse = null;
-        try {
-          migrationTransformationResponse =
-              spannerToSourceTransformer.toSourceRow(migrationTransformationRequest);
-        } catch (Exception e) {
-          throw new InvalidTransformationException(e);
-        }
-        org.joda.time.Instant endTimestamp = org.joda.time.Instant.now();
-        applyCustomTransformationResponseTimeMetric.update(
-            new Duration(startTimestamp, endTimestamp).getMillis());
-        if (migrationTransformationResponse.isEventFiltered()) {
-          Metrics.counter(InputRecordProcessor.class, "filtered_events_" + shardId).inc();
-          return true;
-        }
-        if (migrationTransformationResponse != null) {
-          customTransformationResponse = migrationTransformationResponse.getResponseRow();
-        }
-      }
       DMLGeneratorRequest dmlGeneratorRequest =
-          new DMLGeneratorRequest.Builder(
-                  modType, tableName, newValuesJson, keysJson, sourceDbTimezoneOffset)
-              .setSchema(schema)
-              .setCustomTransformationResponse(customTransformationResponse)
-              .build();
+          getDmlGeneratorRequest(
+              spannerRecord, schema, shardId, sourceDbTimezoneOffset, spannerToSourceTransformer);
+      if (dmlGeneratorRequest == null) {
+        updateFilteredMetrics(shardId);
+        return true;
+      }
 
       DMLGeneratorResponse dmlGeneratorResponse = dmlGenerator.getDMLStatement(dmlGeneratorRequest);
       if (dmlGeneratorResponse.getDmlStatement().isEmpty()) {
-        LOG.warn("DML statement is empty for table: " + tableName);
+        LOG.warn("DML statement is empty for table: " + spannerRecord.getTableName());
         return false;
       }
-      dao.write(dmlGeneratorResponse.getDmlStatement());
-
-      Counter numRecProcessedMetric =
-          Metrics.counter(shardId, "records_written_to_source_" + shardId);
-
-      numRecProcessedMetric.inc(1); // update the number of records processed metric
-      Distribution lagMetric =
-          Metrics.distribution(shardId, "replication_lag_in_seconds_" + shardId);
-
-      Instant instTime = Instant.now();
-      Instant commitTsInst = spannerRecord.getCommitTimestamp().toSqlTimestamp().toInstant();
-      long replicationLag = ChronoUnit.SECONDS.between(commitTsInst, instTime);
+      if (dmlGeneratorResponse instanceof PreparedStatementGeneratedResponse) {
+        // the DAO binds the values of parameterized statements itself
+        dao.write(dmlGeneratorResponse);
+      } else {
+        dao.write(dmlGeneratorResponse.getDmlStatement());
+      }
 
-      lagMetric.update(replicationLag); // update the lag metric
+      updateWriteMetrics(spannerRecord, shardId);
       return false;
     } catch (Exception e) {
       LOG.error(
@@ -125,4 +88,79 @@ public class InputRecordProcessor {
       throw e; // throw the original exception since it needs to go to DLQ
     }
   }
+
+  /**
+   * Applies the custom transformation, if any, to the record and builds the request for the DML
+   * generator.
+   *
+   * @return the request for the DML generator, or {@code null} if the record was filtered by the
+   *     custom transformation. Filtered records are counted by the caller, see {@link
+   *     #updateFilteredMetrics(String)}.
+   * @throws InvalidTransformationException if the custom transformation fails.
+   */
+  public static DMLGeneratorRequest getDmlGeneratorRequest(
+      TrimmedShardedDataChangeRecord spannerRecord,
+      Schema schema,
+      String shardId,
+      String sourceDbTimezoneOffset,
+      ISpannerMigrationTransformer spannerToSourceTransformer)
+      throws InvalidTransformationException {
+    String tableName = spannerRecord.getTableName();
+    String modType = spannerRecord.getModType().name();
+    String keysJsonStr = spannerRecord.getMod().getKeysJson();
+    String newValueJsonStr = spannerRecord.getMod().getNewValuesJson();
+    JSONObject newValuesJson = new JSONObject(newValueJsonStr);
+    JSONObject keysJson = new JSONObject(keysJsonStr);
+    Map<String, Object> customTransformationResponse = null;
+
+    if (spannerToSourceTransformer != null) {
+      org.joda.time.Instant startTimestamp = org.joda.time.Instant.now();
+      Map<String, Object> mapRequest =
+          ChangeEventToMapConvertor.combineJsonObjects(keysJson, newValuesJson);
+      MigrationTransformationRequest migrationTransformationRequest =
+          new MigrationTransformationRequest(tableName, mapRequest, shardId, modType);
+      MigrationTransformationResponse migrationTransformationResponse = null;
+      try {
+        migrationTransformationResponse =
+            spannerToSourceTransformer.toSourceRow(migrationTransformationRequest);
+      } catch (Exception e) {
+        throw new InvalidTransformationException(e);
+      }
+      org.joda.time.Instant endTimestamp = org.joda.time.Instant.now();
+      applyCustomTransformationResponseTimeMetric.update(
+          new Duration(startTimestamp, endTimestamp).getMillis());
+      if (migrationTransformationResponse.isEventFiltered()) {
+        return null;
+      }
+      if (migrationTransformationResponse != null) {
+        customTransformationResponse = migrationTransformationResponse.getResponseRow();
+      }
+    }
+    return new DMLGeneratorRequest.Builder(
+            modType, tableName, newValuesJson, keysJson, sourceDbTimezoneOffset)
+        .setSchema(schema)
+        .setCustomTransformationResponse(customTransformationResponse)
+        .build();
+  }
+
+  /** Counts a record filtered by the custom transformation for the shard. */
+  public static void updateFilteredMetrics(String shardId) {
+    Metrics.counter(InputRecordProcessor.class, "filtered_events_" + shardId).inc();
+  }
+
+  /** Updates the per-shard write count and replication lag metrics for a written record. */
+  public static void updateWriteMetrics(
+      TrimmedShardedDataChangeRecord spannerRecord, String shardId) {
+    Counter numRecProcessedMetric =
+        Metrics.counter(shardId, "records_written_to_source_" + shardId);
+
+    numRecProcessedMetric.inc(1); // update the number of records processed metric
+    Distribution lagMetric = Metrics.distribution(shardId, "replication_lag_in_seconds_" + shardId);
+
+    Instant instTime = Instant.now();
+    Instant commitTsInst = spannerRecord.getCommitTimestamp().toSqlTimestamp().toInstant();
+    long replicationLag = ChronoUnit.SECONDS.between(commitTsInst, instTime);
+
+    lagMetric.update(replicationLag); // update the lag metric
+  }
 }
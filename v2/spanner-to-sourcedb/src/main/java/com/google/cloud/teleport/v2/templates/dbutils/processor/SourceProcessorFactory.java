@@ -17,10 +17,13 @@ package com.google.cloud.teleport.v2.templates.dbutils.processor;
 
 import com.google.cloud.teleport.v2.spanner.migrations.shard.Shard;
 import com.google.cloud.teleport.v2.templates.constants.Constants;
+import com.google.cloud.teleport.v2.templates.dbutils.connection.CassandraConnectionHelper;
 import com.google.cloud.teleport.v2.templates.dbutils.connection.IConnectionHelper;
 import com.google.cloud.teleport.v2.templates.dbutils.connection.JdbcConnectionHelper;
+import com.google.cloud.teleport.v2.templates.dbutils.dao.source.CassandraDao;
 import com.google.cloud.teleport.v2.templates.dbutils.dao.source.IDao;
 import com.google.cloud.teleport.v2.templates.dbutils.dao.source.JdbcDao;
+import com.google.cloud.teleport.v2.templates.dbutils.dml.CassandraDMLGenerator;
 import com.google.cloud.teleport.v2.templates.dbutils.dml.IDMLGenerator;
 import com.google.cloud.teleport.v2.templates.dbutils.dml.MySQLDMLGenerator;
 import com.google.cloud.teleport.v2.templates.exceptions.UnsupportedSourceException;
@@ -34,10 +37,18 @@ import java.util.function.Function;
 
 public class SourceProcessorFactory {
   private static Map<String, IDMLGenerator> dmlGeneratorMap =
-      Map.of(Constants.SOURCE_MYSQL, new MySQLDMLGenerator());
+      Map.of(
+          Constants.SOURCE_MYSQL,
+          new MySQLDMLGenerator(),
+          Constants.SOURCE_CASSANDRA,
+          new CassandraDMLGenerator());
 
   private static Map<String, IConnectionHelper> connectionHelperMap =
-      Map.of(Constants.SOURCE_MYSQL, new JdbcConnectionHelper());
+      Map.of(
+          Constants.SOURCE_MYSQL,
+          new JdbcConnectionHelper(),
+          Constants.SOURCE_CASSANDRA,
+          new CassandraConnectionHelper());
 
   private static Map<String, String> driverMap =
       Map.of(Constants.SOURCE_MYSQL, "com.mysql.cj.jdbc.Driver");
@@ -46,7 +57,23 @@ public class SourceProcessorFactory {
       Map.of(
           Constants.SOURCE_MYSQL,
           shard ->
-              "jdbc:mysql://" + shard.getHost() + ":" + shard.getPort() + "/" + shard.getDbName());
+              "jdbc:mysql://" + shard.getHost() + ":" + shard.getPort() + "/" + shard.getDbName(),
+          Constants.SOURCE_CASSANDRA,
+          shard -> shard.getHost() + ":" + shard.getPort() + "/" + shard.getDbName());
+
+  private static Map<String, SourceDaoFactory> sourceDaoFactoryMap =
+      Map.of(
+          Constants.SOURCE_MYSQL,
+          (connectionUrl, userName, connectionHelper, maxInFlightWrites) ->
+              new JdbcDao(connectionUrl, userName, connectionHelper),
+          Constants.SOURCE_CASSANDRA,
+          (connectionUrl, userName, connectionHelper, maxInFlightWrites) ->
+              new CassandraDao(
+                  connectionUrl,
+                  userName,
+                  connectionHelper,
+                  maxInFlightWrites,
+                  CassandraDao.DEFAULT_MAX_PREPARED_STATEMENTS));
 
   private static Map<String, BiFunction<List<Shard>, Integer, ConnectionHelperRequest>>
       connectionHelperRequestFactory =
@@ -55,11 +82,16 @@ public class SourceProcessorFactory {
               (shards, maxConnections) ->
                   new ConnectionHelperRequest(
                       shards,
-                      null,
+                      // rewrites JDBC batches into multi-statement round trips and caches the
+                      // parsed prepared statements per connection for batched writes
+                      "rewriteBatchedStatements=true\ncachePrepStmts=true\nprepStmtCacheSqlLimit=8192",
                       maxConnections,
                       driverMap.get(Constants.SOURCE_MYSQL),
                       "SET SESSION net_read_timeout=1200" // to avoid timeouts at network layer
-                      ));
+                      ),
+              Constants.SOURCE_CASSANDRA,
+              (shards, maxConnections) ->
+                  new ConnectionHelperRequest(shards, null, maxConnections, null, null));
 
   // for unit testing purposes
   public static void setConnectionHelperMap(Map<String, IConnectionHelper> connectionHelper) {
@@ -77,9 +109,27 @@ public class SourceProcessorFactory {
    */
   public static SourceProcessor createSourceProcessor(
       String source, List<Shard> shards, int maxConnections) throws UnsupportedSourceException {
+    return createSourceProcessor(
+        source, shards, maxConnections, CassandraDao.DEFAULT_MAX_IN_FLIGHT_WRITES);
+  }
+
+  /**
+   * Creates a SourceProcessor instance for the specified source type.
+   *
+   * @param source the type of the source database
+   * @param shards the list of shards for the source
+   * @param maxConnections the maximum number of connections
+   * @param maxInFlightWrites the maximum number of writes executing concurrently per shard, for
+   *     sources whose DAO writes asynchronously
+   * @return a configured SourceProcessor instance
+   * @throws Exception if the source type is invalid
+   */
+  public static SourceProcessor createSourceProcessor(
+      String source, List<Shard> shards, int maxConnections, int maxInFlightWrites)
+      throws UnsupportedSourceException {
     IDMLGenerator dmlGenerator = getDMLGenerator(source);
     initializeConnectionHelper(source, shards, maxConnections);
-    Map<String, IDao> sourceDaoMap = createSourceDaoMap(source, shards);
+    Map<String, IDao> sourceDaoMap = createSourceDaoMap(source, shards, maxInFlightWrites);
 
     return SourceProcessor.builder().dmlGenerator(dmlGenerator).sourceDaoMap(sourceDaoMap).build();
   }
@@ -120,8 +170,8 @@ public class SourceProcessorFactory {
                     "Invalid source type for ConnectionHelperRequest: " + source));
   }
 
-  private static Map<String, IDao> createSourceDaoMap(String source, List<Shard> shards)
-      throws UnsupportedSourceException {
+  private static Map<String, IDao> createSourceDaoMap(
+      String source, List<Shard> shards, int maxInFlightWrites) throws UnsupportedSourceException {
     Function<Shard, String> urlGenerator =
         Optional.ofNullable(connectionUrl.get(source))
             .orElseThrow(
@@ -129,12 +179,31 @@ public class SourceProcessorFactory {
                     new UnsupportedSourceException(
                         "Invalid source type for URL generation: " + source));
 
+    SourceDaoFactory sourceDaoFactory =
+        Optional.ofNullable(sourceDaoFactoryMap.get(source))
+            .orElseThrow(
+                () -> new UnsupportedSourceException("Invalid source type for DAO: " + source));
+
     Map<String, IDao> sourceDaoMap = new HashMap<>();
     for (Shard shard : shards) {
       String connectionUrl = urlGenerator.apply(shard);
-      IDao sqlDao = new JdbcDao(connectionUrl, shard.getUserName(), getConnectionHelper(source));
-      sourceDaoMap.put(shard.getLogicalShardId(), sqlDao);
+      IDao sourceDao =
+          sourceDaoFactory.create(
+              connectionUrl, shard.getUserName(), getConnectionHelper(source), maxInFlightWrites);
+      sourceDaoMap.put(shard.getLogicalShardId(), sourceDao);
     }
     return sourceDaoMap;
   }
+
+  /**
+   * Creates the DAO of a shard from its connection URL, user, connection helper and limit of writes
+   * in flight.
+   */
+  private interface SourceDaoFactory {
+    IDao create(
+        String connectionUrl,
+        String userName,
+        IConnectionHelper connectionHelper,
+        int maxInFlightWrites);
+  }
 }
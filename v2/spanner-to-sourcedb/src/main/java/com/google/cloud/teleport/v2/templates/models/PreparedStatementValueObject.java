@@ -16,12 +16,14 @@
 package com.google.cloud.teleport.v2.templates.models;
 
 import com.google.auto.value.AutoValue;
+import javax.annotation.Nullable;
 
 @AutoValue
 public abstract class PreparedStatementValueObject<T> {
 
   public abstract String dataType();
 
+  @Nullable
   public abstract T value();
 
   public static <T> PreparedStatementValueObject<T> create(String dataType, T value) {
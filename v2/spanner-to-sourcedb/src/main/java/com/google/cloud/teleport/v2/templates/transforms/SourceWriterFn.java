@@ -34,6 +34,8 @@ import com.google.cloud.teleport.v2.spanner.utils.ISpannerMigrationTransformer;
 import com.google.cloud.teleport.v2.templates.changestream.ChangeStreamErrorRecord;
 import com.google.cloud.teleport.v2.templates.changestream.TrimmedShardedDataChangeRecord;
 import com.google.cloud.teleport.v2.templates.constants.Constants;
+import com.google.cloud.teleport.v2.templates.dbutils.dao.source.CassandraDao;
+import com.google.cloud.teleport.v2.templates.dbutils.dao.source.IBatchDao;
 import com.google.cloud.teleport.v2.templates.dbutils.dao.source.IDao;
 import com.google.cloud.teleport.v2.templates.dbutils.dao.spanner.SpannerDao;
 import com.google.cloud.teleport.v2.templates.dbutils.processor.InputRecordProcessor;
@@ -41,21 +43,42 @@ import com.google.cloud.teleport.v2.templates.dbutils.processor.SourceProcessor;
 import com.google.cloud.teleport.v2.templates.dbutils.processor.SourceProcessorFactory;
 import com.google.cloud.teleport.v2.templates.exceptions.ConnectionException;
 import com.google.cloud.teleport.v2.templates.exceptions.UnsupportedSourceException;
+import com.google.cloud.teleport.v2.templates.models.DMLGeneratorRequest;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementGeneratedResponse;
 import com.google.cloud.teleport.v2.templates.utils.ShadowTableRecord;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
+import java.io.Closeable;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
 import org.apache.beam.sdk.metrics.Counter;
 import org.apache.beam.sdk.metrics.Distribution;
 import org.apache.beam.sdk.metrics.Metrics;
+import org.apache.beam.sdk.metrics.MetricsContainer;
+import org.apache.beam.sdk.metrics.MetricsEnvironment;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.TupleTag;
+import org.joda.time.Instant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -82,6 +105,23 @@ public class SourceWriterFn extends DoFn<KV<Long, TrimmedShardedDataChangeRecord
   private final Counter invalidTransformationException =
       Metrics.counter(SourceWriterFn.class, "custom_transformation_exception");
 
+  private final Counter batchFallbackCountMetric =
+      Metrics.counter(SourceWriterFn.class, "source_write_batch_fallback_count");
+
+  private final Distribution sourceWriteBatchSizeMetric =
+      Metrics.distribution(SourceWriterFn.class, "source_write_batch_size");
+
+  private final Counter shadowTableCacheSkipCountMetric =
+      Metrics.counter(SourceWriterFn.class, "shadow_table_cache_skip_count");
+
+  // Latest shadow table state written by this worker, shared by all instances of the DoFn on it.
+  private static final int SHADOW_TABLE_RECORD_CACHE_SIZE = 100_000;
+  private static final Comparator<ShadowTableRecord> SHADOW_TABLE_RECORD_ORDER =
+      Comparator.comparing(ShadowTableRecord::getProcessedCommitTimestamp)
+          .thenComparingLong(ShadowTableRecord::getRecordSequence);
+  private static final Cache<String, ShadowTableRecord> SHADOW_TABLE_RECORD_CACHE =
+      CacheBuilder.newBuilder().maximumSize(SHADOW_TABLE_RECORD_CACHE_SIZE).build();
+
   private final Schema schema;
   private final String sourceDbTimezoneOffset;
   private final List<Shard> shards;
@@ -95,6 +135,15 @@ public class SourceWriterFn extends DoFn<KV<Long, TrimmedShardedDataChangeRecord
   private SourceProcessor sourceProcessor;
   private final CustomTransformation customTransformation;
   private ISpannerMigrationTransformer spannerToSourceTransformer;
+  // One transformer per lane, the lanes of a shard run the user transformation concurrently.
+  private transient List<ISpannerMigrationTransformer> laneTransformers;
+  private final int batchSize;
+  private final boolean multiRowUpsert;
+  private final int lanesPerShard;
+  private final int maxInFlightWritesPerShard;
+  private transient ExecutorService laneExecutor;
+  private transient Map<String, List<PendingRecord>> pendingRecords;
+  private transient List<Consumer<FinishBundleContext>> deferredOutputs;
 
   public SourceWriterFn(
       List<Shard> shards,
@@ -107,6 +156,38 @@ public class SourceWriterFn extends DoFn<KV<Long, TrimmedShardedDataChangeRecord
       int maxThreadPerDataflowWorker,
       String source,
       CustomTransformation customTransformation) {
+    this(
+        shards,
+        schema,
+        spannerConfig,
+        sourceDbTimezoneOffset,
+        ddl,
+        shadowTablePrefix,
+        skipDirName,
+        maxThreadPerDataflowWorker,
+        source,
+        customTransformation,
+        1,
+        false,
+        1,
+        CassandraDao.DEFAULT_MAX_IN_FLIGHT_WRITES);
+  }
+
+  public SourceWriterFn(
+      List<Shard> shards,
+      Schema schema,
+      SpannerConfig spannerConfig,
+      String sourceDbTimezoneOffset,
+      Ddl ddl,
+      String shadowTablePrefix,
+      String skipDirName,
+      int maxThreadPerDataflowWorker,
+      String source,
+      CustomTransformation customTransformation,
+      int batchSize,
+      boolean multiRowUpsert,
+      int lanesPerShard,
+      int maxInFlightWritesPerShard) {
 
     this.schema = schema;
     this.sourceDbTimezoneOffset = sourceDbTimezoneOffset;
@@ -118,6 +199,10 @@ public class SourceWriterFn extends DoFn<KV<Long, TrimmedShardedDataChangeRecord
     this.maxThreadPerDataflowWorker = maxThreadPerDataflowWorker;
     this.source = source;
     this.customTransformation = customTransformation;
+    this.batchSize = batchSize;
+    this.multiRowUpsert = multiRowUpsert;
+    this.lanesPerShard = lanesPerShard;
+    this.maxInFlightWritesPerShard = maxInFlightWritesPerShard;
   }
 
   // for unit testing purposes
@@ -141,120 +226,535 @@ public class SourceWriterFn extends DoFn<KV<Long, TrimmedShardedDataChangeRecord
     this.spannerToSourceTransformer = spannerToSourceTransformer;
   }
 
+  // for unit testing purposes
+  void setLaneTransformers(List<ISpannerMigrationTransformer> laneTransformers) {
+    this.laneTransformers = laneTransformers;
+  }
+
   /** Setup function connects to Cloud Spanner. */
   @Setup
   public void setup() throws UnsupportedSourceException {
     mapper = new ObjectMapper();
     mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
     sourceProcessor =
-        SourceProcessorFactory.createSourceProcessor(source, shards, maxThreadPerDataflowWorker);
+        SourceProcessorFactory.createSourceProcessor(
+            source, shards, maxThreadPerDataflowWorker, maxInFlightWritesPerShard);
     spannerDao = new SpannerDao(spannerConfig);
     spannerToSourceTransformer =
         CustomTransformationImplFetcher.getCustomTransformationLogicImpl(customTransformation);
+    if (lanesPerShard > 1 && spannerToSourceTransformer != null) {
+      laneTransformers = new ArrayList<>(lanesPerShard);
+      for (int lane = 0; lane < lanesPerShard; lane++) {
+        laneTransformers.add(
+            CustomTransformationImplFetcher.getApplyTransformationImpl(customTransformation));
+      }
+    }
   }
 
   /** Teardown function disconnects from the Cloud Spanner. */
   @Teardown
   public void teardown() throws Exception {
+    if (laneExecutor != null) {
+      laneExecutor.shutdownNow();
+    }
     spannerDao.close();
     sourceProcessor.close();
   }
 
+  @StartBundle
+  public void startBundle() {
+    pendingRecords = new HashMap<>();
+    deferredOutputs = new ArrayList<>();
+  }
+
   @ProcessElement
-  public void processElement(ProcessContext c) {
+  public void processElement(ProcessContext c, BoundedWindow window) {
     KV<Long, TrimmedShardedDataChangeRecord> element = c.element();
     TrimmedShardedDataChangeRecord spannerRec = element.getValue();
+    TaggedOutput output = c::output;
     String shardId = spannerRec.getShard();
     if (shardId == null) {
       // no shard found, move to permanent error
       outputWithTag(
-          c, Constants.PERMANENT_ERROR_TAG, Constants.SHARD_NOT_PRESENT_ERROR_MESSAGE, spannerRec);
+          output,
+          Constants.PERMANENT_ERROR_TAG,
+          Constants.SHARD_NOT_PRESENT_ERROR_MESSAGE,
+          spannerRec);
     } else if (shardId.equals(skipDirName)) {
       // the record is skipped
       skippedRecordCountMetric.inc();
-      outputWithTag(c, Constants.SKIPPED_TAG, Constants.SKIPPED_TAG_MESSAGE, spannerRec);
+      outputWithTag(output, Constants.SKIPPED_TAG, Constants.SKIPPED_TAG_MESSAGE, spannerRec);
+    } else if (batchSize > 1) {
+      List<PendingRecord> shardRecords =
+          pendingRecords.computeIfAbsent(shardId, k -> new ArrayList<>());
+      shardRecords.add(new PendingRecord(spannerRec, c.timestamp(), window));
+      if (shardRecords.size() >= batchSize) {
+        pendingRecords.remove(shardId);
+        Instant timestamp = c.timestamp();
+        // The context of the current element only emits at its own timestamp and window, so the
+        // outputs of records buffered at other ones are emitted when the bundle finishes.
+        writeLanes(
+            shardId,
+            shardRecords,
+            pendingRecord ->
+                Objects.equals(pendingRecord.timestamp, timestamp)
+                        && Objects.equals(pendingRecord.window, window)
+                    ? output
+                    : (tag, value) ->
+                        deferredOutputs.add(
+                            context ->
+                                context.output(
+                                    tag, value, pendingRecord.timestamp, pendingRecord.window)));
+      }
     } else {
-      // Get the latest commit timestamp processed at source
-      try {
-        JsonNode keysJson = mapper.readTree(spannerRec.getMod().getKeysJson());
-        String tableName = spannerRec.getTableName();
-        com.google.cloud.spanner.Key primaryKey =
-            ChangeEventSpannerConvertor.changeEventToPrimaryKey(
-                tableName, ddl, keysJson, /* convertNameToLowerCase= */ false);
-        String shadowTableName = shadowTablePrefix + tableName;
-        boolean isSourceAhead = false;
-        ShadowTableRecord shadowTableRecord =
-            spannerDao.getShadowTableRecord(shadowTableName, primaryKey);
-        isSourceAhead =
-            shadowTableRecord != null
-                && ((shadowTableRecord
-                            .getProcessedCommitTimestamp()
-                            .compareTo(spannerRec.getCommitTimestamp())
-                        > 0) // either the source already has record with greater commit
-                    // timestamp
-                    || (shadowTableRecord // or the source has the same commit timestamp but
-                                // greater record sequence
-                                .getProcessedCommitTimestamp()
-                                .compareTo(spannerRec.getCommitTimestamp())
-                            == 0
-                        && shadowTableRecord.getRecordSequence()
-                            > Long.parseLong(spannerRec.getRecordSequence())));
-
-        if (!isSourceAhead) {
-          IDao sourceDao = sourceProcessor.getSourceDao(shardId);
-
-          boolean isEventFiltered =
-              InputRecordProcessor.processRecord(
-                  spannerRec,
-                  schema,
-                  sourceDao,
-                  shardId,
-                  sourceDbTimezoneOffset,
-                  sourceProcessor.getDmlGenerator(),
-                  spannerToSourceTransformer);
-          if (isEventFiltered) {
-            outputWithTag(c, Constants.FILTERED_TAG, Constants.FILTERED_TAG_MESSAGE, spannerRec);
-          }
+      writeRecord(shardId, spannerRec, output, spannerToSourceTransformer);
+    }
+  }
 
-          spannerDao.updateShadowTable(
-              getShadowTableMutation(
-                  tableName,
-                  shadowTableName,
-                  keysJson,
-                  spannerRec.getCommitTimestamp(),
-                  spannerRec.getRecordSequence()));
+  @FinishBundle
+  public void finishBundle(FinishBundleContext context) {
+    if (pendingRecords == null) {
+      return;
+    }
+    for (Map.Entry<String, List<PendingRecord>> entry : pendingRecords.entrySet()) {
+      writeLanes(
+          entry.getKey(),
+          entry.getValue(),
+          pendingRecord ->
+              (tag, value) ->
+                  context.output(tag, value, pendingRecord.timestamp, pendingRecord.window));
+    }
+    pendingRecords.clear();
+    for (Consumer<FinishBundleContext> deferredOutput : deferredOutputs) {
+      deferredOutput.accept(context);
+    }
+    deferredOutputs.clear();
+  }
+
+  private void writeRecord(
+      String shardId,
+      TrimmedShardedDataChangeRecord spannerRec,
+      TaggedOutput output,
+      ISpannerMigrationTransformer transformer) {
+    // Get the latest commit timestamp processed at source
+    try {
+      JsonNode keysJson = mapper.readTree(spannerRec.getMod().getKeysJson());
+      String tableName = spannerRec.getTableName();
+      com.google.cloud.spanner.Key primaryKey =
+          ChangeEventSpannerConvertor.changeEventToPrimaryKey(
+              tableName, ddl, keysJson, /* convertNameToLowerCase= */ false);
+      String shadowTableName = shadowTablePrefix + tableName;
+      ShadowTableRecord shadowTableRecord =
+          spannerDao.getShadowTableRecord(shadowTableName, primaryKey);
+
+      if (!isSourceAhead(shadowTableRecord, spannerRec)) {
+        IDao sourceDao = sourceProcessor.getSourceDao(shardId);
+
+        boolean isEventFiltered =
+            InputRecordProcessor.processRecord(
+                spannerRec,
+                schema,
+                sourceDao,
+                shardId,
+                sourceDbTimezoneOffset,
+                sourceProcessor.getDmlGenerator(),
+                transformer);
+        if (isEventFiltered) {
+          outputWithTag(output, Constants.FILTERED_TAG, Constants.FILTERED_TAG_MESSAGE, spannerRec);
         }
-        successRecordCountMetric.inc();
-        if (spannerRec.isRetryRecord()) {
-          retryableRecordCountMetric.dec();
+
+        spannerDao.updateShadowTable(
+            getShadowTableMutation(
+                tableName,
+                shadowTableName,
+                keysJson,
+                spannerRec.getCommitTimestamp(),
+                spannerRec.getRecordSequence()));
+      }
+      outputSuccess(output, spannerRec);
+    } catch (Exception ex) {
+      outputWriteError(output, ex, spannerRec);
+    }
+  }
+
+  /**
+   * Applies the records buffered for a shard. With several lanes per shard, the records are split
+   * into lanes by table and primary key, so that all the changes of a key stay in commit order in
+   * one lane, and the lanes are applied in parallel as separate batches on the connection pool of
+   * the shard. The outputs of the lanes are emitted once all the lanes are applied, since outputs
+   * can only be emitted from the thread processing the bundle. Each lane uses its own instance of
+   * the custom transformation, so a transformation is never called from two lanes at once.
+   */
+  private void writeLanes(
+      String shardId,
+      List<PendingRecord> records,
+      Function<PendingRecord, TaggedOutput> outputForRecord) {
+    if (lanesPerShard <= 1) {
+      writeBatch(shardId, records, outputForRecord, spannerToSourceTransformer);
+      return;
+    }
+    if (laneExecutor == null) {
+      laneExecutor =
+          Executors.newFixedThreadPool(
+              lanesPerShard,
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("source-writer-lane-%d")
+                  .build());
+    }
+    List<List<PendingRecord>> lanes = new ArrayList<>(lanesPerShard);
+    for (int lane = 0; lane < lanesPerShard; lane++) {
+      lanes.add(new ArrayList<>());
+    }
+    for (PendingRecord pendingRecord : records) {
+      lanes.get(getLane(pendingRecord.record, lanesPerShard)).add(pendingRecord);
+    }
+
+    // Metrics are reported to the container of the calling thread, which the lanes run in too.
+    MetricsContainer metricsContainer = MetricsEnvironment.getCurrentContainer();
+    List<Future<List<Runnable>>> laneWrites = new ArrayList<>();
+    for (int lane = 0; lane < lanesPerShard; lane++) {
+      List<PendingRecord> laneRecords = lanes.get(lane);
+      ISpannerMigrationTransformer laneTransformer =
+          laneTransformers == null ? spannerToSourceTransformer : laneTransformers.get(lane);
+      Metrics.gauge(shardId, "source_write_lane_backlog_" + shardId + "_" + lane)
+          .set(laneRecords.size());
+      if (laneRecords.isEmpty()) {
+        continue;
+      }
+      laneWrites.add(
+          laneExecutor.submit(
+              () -> {
+                List<Runnable> laneOutputs = new ArrayList<>();
+                try (Closeable ignored =
+                    MetricsEnvironment.scopedMetricsContainer(metricsContainer)) {
+                  writeBatch(
+                      shardId,
+                      laneRecords,
+                      pendingRecord ->
+                          (tag, value) ->
+                              laneOutputs.add(
+                                  () -> outputForRecord.apply(pendingRecord).output(tag, value)),
+                      laneTransformer);
+                }
+                return laneOutputs;
+              }));
+    }
+
+    RuntimeException laneFailure = null;
+    for (Future<List<Runnable>> laneWrite : laneWrites) {
+      try {
+        for (Runnable laneOutput : laneWrite.get()) {
+          laneOutput.run();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        laneFailure = new RuntimeException("Interrupted while writing to shard " + shardId, e);
+      } catch (ExecutionException e) {
+        if (laneFailure == null) {
+          laneFailure = new RuntimeException("Failed to write to shard " + shardId, e.getCause());
         }
-        com.google.cloud.Timestamp timestamp = com.google.cloud.Timestamp.now();
-        c.output(Constants.SUCCESS_TAG, timestamp.toString());
-      } catch (InvalidTransformationException ex) {
-        invalidTransformationException.inc();
-        outputWithTag(c, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), spannerRec);
-      } catch (ChangeEventConvertorException ex) {
-        outputWithTag(c, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), spannerRec);
-      } catch (SpannerException
-          | IllegalStateException
-          | com.mysql.cj.jdbc.exceptions.CommunicationsException
-          | java.sql.SQLIntegrityConstraintViolationException
-          | java.sql.SQLTransientConnectionException
-          | ConnectionException ex) {
-        outputWithTag(c, Constants.RETRYABLE_ERROR_TAG, ex.getMessage(), spannerRec);
-      } catch (java.sql.SQLNonTransientConnectionException ex) {
-        // https://dev.mysql.com/doc/mysql-errors/8.0/en/server-error-reference.html
-        // error codes 1053,1161 and 1159 can be retried
-        if (ex.getErrorCode() == 1053 || ex.getErrorCode() == 1159 || ex.getErrorCode() == 1161) {
-          outputWithTag(c, Constants.RETRYABLE_ERROR_TAG, ex.getMessage(), spannerRec);
+      }
+    }
+    if (laneFailure != null) {
+      // The records of the bundle are retried, the shadow tables skip the ones already applied.
+      throw laneFailure;
+    }
+  }
+
+  /** Returns the lane of a record, all the changes to a row map to the same lane. */
+  static int getLane(TrimmedShardedDataChangeRecord record, int lanes) {
+    return Math.floorMod(
+        (record.getTableName() + "_" + record.getMod().getKeysJson()).hashCode(), lanes);
+  }
+
+  /**
+   * Applies the records buffered for a shard as a single source transaction. Records are applied in
+   * commit timestamp order and a record is dropped if the shadow table, or an earlier record of the
+   * same batch, already holds a newer change for its key. If the batch cannot be committed, every
+   * record of the batch is retried through the per-record path so that errors are attributed to the
+   * records that caused them.
+   */
+  private void writeBatch(
+      String shardId,
+      List<PendingRecord> records,
+      Function<PendingRecord, TaggedOutput> outputForRecord,
+      ISpannerMigrationTransformer transformer) {
+    IDao sourceDao;
+    try {
+      sourceDao = sourceProcessor.getSourceDao(shardId);
+    } catch (ConnectionException ex) {
+      for (PendingRecord pendingRecord : records) {
+        outputWriteError(outputForRecord.apply(pendingRecord), ex, pendingRecord.record);
+      }
+      return;
+    }
+    if (!(sourceDao instanceof IBatchDao)) {
+      for (PendingRecord pendingRecord : records) {
+        writeRecord(
+            shardId, pendingRecord.record, outputForRecord.apply(pendingRecord), transformer);
+      }
+      return;
+    }
+
+    records.sort(
+        Comparator.comparing((PendingRecord r) -> r.record.getCommitTimestamp())
+            .thenComparingLong(r -> Long.parseLong(r.record.getRecordSequence())));
+    List<PendingRecord> batchedRecords = new ArrayList<>();
+    Map<String, Set<com.google.cloud.spanner.Key>> keysToRead = new HashMap<>();
+    for (PendingRecord pendingRecord : records) {
+      TrimmedShardedDataChangeRecord spannerRec = pendingRecord.record;
+      try {
+        pendingRecord.keysJson = mapper.readTree(spannerRec.getMod().getKeysJson());
+        pendingRecord.primaryKey =
+            ChangeEventSpannerConvertor.changeEventToPrimaryKey(
+                spannerRec.getTableName(),
+                ddl,
+                pendingRecord.keysJson,
+                /* convertNameToLowerCase= */ false);
+        pendingRecord.shadowTableName = shadowTablePrefix + spannerRec.getTableName();
+        // The shadow table can only be ahead of what this worker last wrote, so a cached entry is
+        // enough to skip a stale record without reading the shadow table.
+        if (isSourceAhead(
+            SHADOW_TABLE_RECORD_CACHE.getIfPresent(pendingRecord.getCacheKey()), spannerRec)) {
+          pendingRecord.isStale = true;
+          shadowTableCacheSkipCountMetric.inc();
         } else {
-          outputWithTag(c, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), spannerRec);
+          keysToRead
+              .computeIfAbsent(pendingRecord.shadowTableName, k -> new HashSet<>())
+              .add(pendingRecord.primaryKey);
         }
+        batchedRecords.add(pendingRecord);
+      } catch (Exception ex) {
+        outputWriteError(outputForRecord.apply(pendingRecord), ex, spannerRec);
+      }
+    }
+
+    Map<String, ShadowTableRecord> batchShadowTableRecords = new HashMap<>();
+    for (Map.Entry<String, Set<com.google.cloud.spanner.Key>> entry : keysToRead.entrySet()) {
+      String shadowTableName = entry.getKey();
+      try {
+        List<String> keyColumnNames =
+            ddl.table(shadowTableName.substring(shadowTablePrefix.length())).primaryKeys().stream()
+                .map(k -> k.name())
+                .collect(Collectors.toList());
+        spannerDao
+            .getShadowTableRecords(shadowTableName, keyColumnNames, entry.getValue())
+            .forEach((key, value) -> batchShadowTableRecords.put(shadowTableName + key, value));
       } catch (Exception ex) {
-        LOG.error("Failed to write to source", ex);
-        outputWithTag(c, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), spannerRec);
+        batchedRecords.removeIf(
+            pendingRecord -> {
+              if (!pendingRecord.isStale && shadowTableName.equals(pendingRecord.shadowTableName)) {
+                outputWriteError(outputForRecord.apply(pendingRecord), ex, pendingRecord.record);
+                return true;
+              }
+              return false;
+            });
       }
     }
+
+    List<PreparedStatementGeneratedResponse> statements = new ArrayList<>();
+    List<PendingRecord> appliedRecords = new ArrayList<>();
+    for (PendingRecord pendingRecord : batchedRecords) {
+      TrimmedShardedDataChangeRecord spannerRec = pendingRecord.record;
+      String batchKey = pendingRecord.getCacheKey();
+      if (pendingRecord.isStale
+          || isSourceAhead(batchShadowTableRecords.get(batchKey), spannerRec)) {
+        appliedRecords.add(pendingRecord);
+        continue;
+      }
+      try {
+        String tableName = spannerRec.getTableName();
+        DMLGeneratorRequest dmlGeneratorRequest =
+            InputRecordProcessor.getDmlGeneratorRequest(
+                spannerRec, schema, shardId, sourceDbTimezoneOffset, transformer);
+        if (dmlGeneratorRequest == null) {
+          // Counted here once, the fallback below does not transform filtered records again.
+          InputRecordProcessor.updateFilteredMetrics(shardId);
+          pendingRecord.isFiltered = true;
+        } else {
+          PreparedStatementGeneratedResponse statement =
+              sourceProcessor.getDmlGenerator().getPreparedDMLStatement(dmlGeneratorRequest);
+          if (statement.getDmlStatement().isEmpty()) {
+            LOG.warn("DML statement is empty for table: " + tableName);
+          } else {
+            statements.add(statement);
+            pendingRecord.isWritten = true;
+          }
+        }
+        pendingRecord.shadowTableMutation =
+            getShadowTableMutation(
+                tableName,
+                pendingRecord.shadowTableName,
+                pendingRecord.keysJson,
+                spannerRec.getCommitTimestamp(),
+                spannerRec.getRecordSequence());
+        batchShadowTableRecords.put(
+            batchKey,
+            new ShadowTableRecord(
+                spannerRec.getCommitTimestamp(), Long.parseLong(spannerRec.getRecordSequence())));
+        appliedRecords.add(pendingRecord);
+      } catch (Exception ex) {
+        outputWriteError(outputForRecord.apply(pendingRecord), ex, spannerRec);
+      }
+    }
+
+    try {
+      int batchedStatements = statements.size();
+      if (multiRowUpsert) {
+        IBatchDao batchDao = (IBatchDao) sourceDao;
+        statements =
+            sourceProcessor
+                .getDmlGenerator()
+                .mergePreparedDMLStatements(
+                    statements, batchDao.getMaxStatementBytes(), batchDao.getSourceVersion());
+      }
+      ((IBatchDao) sourceDao).batchWrite(statements);
+      sourceWriteBatchSizeMetric.update(batchedStatements);
+    } catch (Exception ex) {
+      LOG.warn(
+          "Batch write of {} records to shard {} failed, applying them individually",
+          appliedRecords.size(),
+          shardId,
+          ex);
+      batchFallbackCountMetric.inc();
+      for (PendingRecord pendingRecord : appliedRecords) {
+        TaggedOutput output = outputForRecord.apply(pendingRecord);
+        if (pendingRecord.isFiltered) {
+          writeFilteredRecord(pendingRecord, output);
+        } else {
+          writeRecord(shardId, pendingRecord.record, output, transformer);
+        }
+      }
+      return;
+    }
+
+    List<Mutation> shadowTableMutations = new ArrayList<>();
+    for (PendingRecord pendingRecord : appliedRecords) {
+      if (pendingRecord.shadowTableMutation != null) {
+        shadowTableMutations.add(pendingRecord.shadowTableMutation);
+      }
+    }
+    try {
+      spannerDao.updateShadowTables(shadowTableMutations);
+    } catch (Exception ex) {
+      appliedRecords.removeIf(
+          pendingRecord -> {
+            if (pendingRecord.shadowTableMutation != null) {
+              outputWriteError(outputForRecord.apply(pendingRecord), ex, pendingRecord.record);
+              return true;
+            }
+            return false;
+          });
+    }
+
+    for (PendingRecord pendingRecord : appliedRecords) {
+      TaggedOutput output = outputForRecord.apply(pendingRecord);
+      if (pendingRecord.shadowTableMutation != null) {
+        cacheShadowTableRecord(pendingRecord);
+      }
+      if (pendingRecord.isWritten) {
+        InputRecordProcessor.updateWriteMetrics(pendingRecord.record, shardId);
+      }
+      if (pendingRecord.isFiltered) {
+        outputWithTag(
+            output, Constants.FILTERED_TAG, Constants.FILTERED_TAG_MESSAGE, pendingRecord.record);
+      }
+      outputSuccess(output, pendingRecord.record);
+    }
+  }
+
+  /**
+   * Applies a record of a failed batch that the custom transformation filtered. Nothing is written
+   * to the source for it, so only its shadow table entry is left to apply.
+   */
+  private void writeFilteredRecord(PendingRecord pendingRecord, TaggedOutput output) {
+    try {
+      spannerDao.updateShadowTable(pendingRecord.shadowTableMutation);
+      outputWithTag(
+          output, Constants.FILTERED_TAG, Constants.FILTERED_TAG_MESSAGE, pendingRecord.record);
+      outputSuccess(output, pendingRecord.record);
+    } catch (Exception ex) {
+      outputWriteError(output, ex, pendingRecord.record);
+    }
+  }
+
+  private static void cacheShadowTableRecord(PendingRecord pendingRecord) {
+    TrimmedShardedDataChangeRecord spannerRec = pendingRecord.record;
+    SHADOW_TABLE_RECORD_CACHE
+        .asMap()
+        .merge(
+            pendingRecord.getCacheKey(),
+            new ShadowTableRecord(
+                spannerRec.getCommitTimestamp(), Long.parseLong(spannerRec.getRecordSequence())),
+            (cached, latest) ->
+                SHADOW_TABLE_RECORD_ORDER.compare(cached, latest) > 0 ? cached : latest);
+  }
+
+  // used for unit testing
+  static void clearShadowTableRecordCache() {
+    SHADOW_TABLE_RECORD_CACHE.invalidateAll();
+  }
+
+  private static boolean isSourceAhead(
+      ShadowTableRecord shadowTableRecord, TrimmedShardedDataChangeRecord spannerRec) {
+    return shadowTableRecord != null
+        && ((shadowTableRecord
+                    .getProcessedCommitTimestamp()
+                    .compareTo(spannerRec.getCommitTimestamp())
+                > 0) // either the source already has record with greater commit
+            // timestamp
+            || (shadowTableRecord // or the source has the same commit timestamp but
+                        // greater record sequence
+                        .getProcessedCommitTimestamp()
+                        .compareTo(spannerRec.getCommitTimestamp())
+                    == 0
+                && shadowTableRecord.getRecordSequence()
+                    > Long.parseLong(spannerRec.getRecordSequence())));
+  }
+
+  private void outputSuccess(TaggedOutput output, TrimmedShardedDataChangeRecord spannerRec) {
+    successRecordCountMetric.inc();
+    if (spannerRec.isRetryRecord()) {
+      retryableRecordCountMetric.dec();
+    }
+    com.google.cloud.Timestamp timestamp = com.google.cloud.Timestamp.now();
+    output.output(Constants.SUCCESS_TAG, timestamp.toString());
+  }
+
+  private void outputWriteError(
+      TaggedOutput output, Exception ex, TrimmedShardedDataChangeRecord spannerRec) {
+    if (ex instanceof InvalidTransformationException) {
+      invalidTransformationException.inc();
+      outputWithTag(output, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), spannerRec);
+    } else if (ex instanceof ChangeEventConvertorException) {
+      outputWithTag(output, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), spannerRec);
+    } else if (ex instanceof SpannerException
+        || ex instanceof IllegalStateException
+        || ex instanceof com.mysql.cj.jdbc.exceptions.CommunicationsException
+        || ex instanceof java.sql.SQLIntegrityConstraintViolationException
+        || ex instanceof java.sql.SQLTransientConnectionException
+        || ex instanceof ConnectionException
+        || ex instanceof com.datastax.oss.driver.api.core.AllNodesFailedException
+        || ex instanceof com.datastax.oss.driver.api.core.DriverTimeoutException
+        || ex instanceof com.datastax.oss.driver.api.core.servererrors.QueryExecutionException) {
+      outputWithTag(output, Constants.RETRYABLE_ERROR_TAG, ex.getMessage(), spannerRec);
+    } else if (ex instanceof java.sql.SQLNonTransientConnectionException) {
+      java.sql.SQLNonTransientConnectionException connectionException =
+          (java.sql.SQLNonTransientConnectionException) ex;
+      // https://dev.mysql.com/doc/mysql-errors/8.0/en/server-error-reference.html
+      // error codes 1053,1161 and 1159 can be retried
+      if (connectionException.getErrorCode() == 1053
+          || connectionException.getErrorCode() == 1159
+          || connectionException.getErrorCode() == 1161) {
+        outputWithTag(output, Constants.RETRYABLE_ERROR_TAG, ex.getMessage(), spannerRec);
+      } else {
+        outputWithTag(output, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), spannerRec);
+      }
+    } else {
+      LOG.error("Failed to write to source", ex);
+      outputWithTag(output, Constants.PERMANENT_ERROR_TAG, ex.getMessage(), spannerRec);
+    }
   }
 
   private Mutation getShadowTableMutation(
@@ -286,7 +786,7 @@ public class SourceWriterFn extends DoFn<KV<Long, TrimmedShardedDataChangeRecord
   }
 
   void outputWithTag(
-      ProcessContext c,
+      TaggedOutput output,
       TupleTag<String> tag,
       String message,
       TrimmedShardedDataChangeRecord record) {
@@ -297,6 +797,35 @@ public class SourceWriterFn extends DoFn<KV<Long, TrimmedShardedDataChangeRecord
     if (!record.isRetryRecord() && tag.equals(Constants.RETRYABLE_ERROR_TAG)) {
       retryableRecordCountMetric.inc();
     }
-    c.output(tag, gson.toJson(errorRecord, ChangeStreamErrorRecord.class));
+    output.output(tag, gson.toJson(errorRecord, ChangeStreamErrorRecord.class));
+  }
+
+  /** Emits a tagged output either while processing an element or when finishing a bundle. */
+  interface TaggedOutput {
+    void output(TupleTag<String> tag, String value);
+  }
+
+  /** A change record buffered for a batched write along with the state needed to emit it. */
+  private static class PendingRecord {
+    private final TrimmedShardedDataChangeRecord record;
+    private final Instant timestamp;
+    private final BoundedWindow window;
+    private JsonNode keysJson;
+    private com.google.cloud.spanner.Key primaryKey;
+    private String shadowTableName;
+    private Mutation shadowTableMutation;
+    private boolean isStale;
+    private boolean isWritten;
+    private boolean isFiltered;
+
+    PendingRecord(TrimmedShardedDataChangeRecord record, Instant timestamp, BoundedWindow window) {
+      this.record = record;
+      this.timestamp = timestamp;
+      this.window = window;
+    }
+
+    private String getCacheKey() {
+      return shadowTableName + primaryKey;
+    }
   }
 }
@@ -54,6 +54,10 @@ public class SourceWriterTransform
   private final int maxThreadPerDataflowWorker;
   private final String source;
   private final CustomTransformation customTransformation;
+  private final int batchSize;
+  private final boolean multiRowUpsert;
+  private final int lanesPerShard;
+  private final int maxInFlightWritesPerShard;
 
   public SourceWriterTransform(
       List<Shard> shards,
@@ -65,7 +69,11 @@ public class SourceWriterTransform
       String skipDirName,
       int maxThreadPerDataflowWorker,
       String source,
-      CustomTransformation customTransformation) {
+      CustomTransformation customTransformation,
+      int batchSize,
+      boolean multiRowUpsert,
+      int lanesPerShard,
+      int maxInFlightWritesPerShard) {
 
     this.schema = schema;
     this.sourceDbTimezoneOffset = sourceDbTimezoneOffset;
@@ -77,6 +85,10 @@ public class SourceWriterTransform
     this.maxThreadPerDataflowWorker = maxThreadPerDataflowWorker;
     this.source = source;
     this.customTransformation = customTransformation;
+    this.batchSize = batchSize;
+    this.multiRowUpsert = multiRowUpsert;
+    this.lanesPerShard = lanesPerShard;
+    this.maxInFlightWritesPerShard = maxInFlightWritesPerShard;
   }
 
   @Override
@@ -96,7 +108,11 @@ public class SourceWriterTransform
                         this.skipDirName,
                         this.maxThreadPerDataflowWorker,
                         this.source,
-                        this.customTransformation))
+                        this.customTransformation,
+                        this.batchSize,
+                        this.multiRowUpsert,
+                        this.lanesPerShard,
+                        this.maxInFlightWritesPerShard))
                 .withOutputTags(
                     Constants.SUCCESS_TAG,
                     TupleTagList.of(Constants.PERMANENT_ERROR_TAG)
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates.dbutils.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.google.cloud.teleport.v2.spanner.migrations.shard.Shard;
+import com.google.cloud.teleport.v2.templates.exceptions.ConnectionException;
+import com.google.cloud.teleport.v2.templates.models.ConnectionHelperRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class CassandraConnectionHelperTest {
+  private final Shard shard1 =
+      new Shard("shard1", "host1", "9042", "user", "password", "ks1", null, null, "");
+  private final Shard shard2 =
+      new Shard("shard2", "host2", "9042", "user", "password", "ks2", null, null, "");
+
+  private List<CqlSession> openedSessions;
+  private CassandraConnectionHelper connectionHelper;
+
+  @Before
+  public void setUp() {
+    CassandraConnectionHelper.reset();
+    openedSessions = new ArrayList<>();
+    connectionHelper =
+        new CassandraConnectionHelper(
+            shard -> {
+              CqlSession session = mock(CqlSession.class);
+              openedSessions.add(session);
+              return session;
+            });
+  }
+
+  @After
+  public void tearDown() {
+    CassandraConnectionHelper.reset();
+  }
+
+  @Test
+  public void testIsConnectionPoolInitialized() {
+    assertFalse(connectionHelper.isConnectionPoolInitialized());
+    connectionHelper.init(new ConnectionHelperRequest(List.of(shard1), null, 10, null, null));
+    assertTrue(connectionHelper.isConnectionPoolInitialized());
+  }
+
+  @Test
+  public void testGetConnectionReusesOneSessionPerShard() throws Exception {
+    connectionHelper.init(
+        new ConnectionHelperRequest(List.of(shard1, shard2), null, 10, null, null));
+
+    CqlSession first = connectionHelper.getConnection("host1:9042/ks1/user");
+    CqlSession second = connectionHelper.getConnection("host1:9042/ks1/user");
+    CqlSession other = connectionHelper.getConnection("host2:9042/ks2/user");
+
+    assertSame(first, second);
+    assertEquals(2, openedSessions.size());
+    assertSame(other, openedSessions.get(1));
+  }
+
+  @Test
+  public void testGetConnectionReopensClosedSession() throws Exception {
+    connectionHelper.init(new ConnectionHelperRequest(List.of(shard1), null, 10, null, null));
+
+    CqlSession first = connectionHelper.getConnection("host1:9042/ks1/user");
+    when(first.isClosed()).thenReturn(true);
+    CqlSession second = connectionHelper.getConnection("host1:9042/ks1/user");
+
+    assertEquals(2, openedSessions.size());
+    assertSame(openedSessions.get(1), second);
+  }
+
+  @Test
+  public void testGetConnectionForUnknownShard() throws Exception {
+    assertNull(connectionHelper.getConnection("host1:9042/ks1/user"));
+    connectionHelper.init(new ConnectionHelperRequest(List.of(shard1), null, 10, null, null));
+    assertNull(connectionHelper.getConnection("unknown"));
+    assertTrue(openedSessions.isEmpty());
+  }
+
+  @Test
+  public void testGetConnectionWrapsSessionFailure() {
+    AtomicInteger attempts = new AtomicInteger();
+    CassandraConnectionHelper failingHelper =
+        new CassandraConnectionHelper(
+            shard -> {
+              attempts.incrementAndGet();
+              throw new IllegalStateException("unreachable");
+            });
+    failingHelper.init(new ConnectionHelperRequest(List.of(shard1), null, 10, null, null));
+
+    assertThrows(
+        ConnectionException.class, () -> failingHelper.getConnection("host1:9042/ks1/user"));
+    assertEquals(1, attempts.get());
+  }
+
+  @Test
+  public void testGetConnectionKey() {
+    assertEquals("host1:9042/ks1/user", CassandraConnectionHelper.getConnectionKey(shard1));
+  }
+}
@@ -18,14 +18,23 @@ package com.google.cloud.teleport.v2.templates.dbutils.connection;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.cloud.teleport.v2.templates.dbutils.connection.JdbcConnectionHelper.ShardConnectionPool;
 import com.google.cloud.teleport.v2.templates.exceptions.ConnectionException;
+import com.zaxxer.hikari.HikariConfigMXBean;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -41,6 +50,10 @@ public class JdbcConnectionHelperTest {
 
   @Mock private Connection mockConnection;
 
+  @Mock private HikariPoolMXBean mockPoolMXBean;
+
+  @Mock private HikariConfigMXBean mockConfigMXBean;
+
   @Before
   public void setUp() {
     MockitoAnnotations.openMocks(this);
@@ -76,4 +89,61 @@ public class JdbcConnectionHelperTest {
     connectionHelper.setConnectionPoolMap(Map.of());
     assertNull(connectionHelper.getConnection("invalid-key"));
   }
+
+  @Test
+  public void testShardConnectionPoolGrowsOnSlowAcquire() throws Exception {
+    AtomicLong nanos = new AtomicLong();
+    when(mockDataSource.getHikariConfigMXBean()).thenReturn(mockConfigMXBean);
+    when(mockDataSource.getHikariPoolMXBean()).thenReturn(mockPoolMXBean);
+    when(mockConfigMXBean.getMaximumPoolSize()).thenReturn(2);
+    ShardConnectionPool pool = new ShardConnectionPool("shard1", mockDataSource, 8, nanos::get);
+
+    // Slow acquires before the resize interval elapses do not resize the pool.
+    pool.recordAcquire(1000);
+    verify(mockConfigMXBean, never()).setMaximumPoolSize(anyInt());
+
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(ShardConnectionPool.RESIZE_INTERVAL_MILLIS));
+    pool.recordAcquire(1000);
+    verify(mockConfigMXBean).setMaximumPoolSize(4);
+    verify(mockConfigMXBean).setMinimumIdle(4);
+  }
+
+  @Test
+  public void testShardConnectionPoolGrowsWhenExhausted() throws Exception {
+    AtomicLong nanos = new AtomicLong();
+    when(mockDataSource.getHikariConfigMXBean()).thenReturn(mockConfigMXBean);
+    when(mockDataSource.getHikariPoolMXBean()).thenReturn(mockPoolMXBean);
+    when(mockDataSource.getConnectionTimeout()).thenReturn(30_000L);
+    when(mockDataSource.getConnection())
+        .thenThrow(new SQLTransientConnectionException("Connection is not available"));
+    when(mockConfigMXBean.getMaximumPoolSize()).thenReturn(2);
+    ShardConnectionPool pool = new ShardConnectionPool("shard1", mockDataSource, 8, nanos::get);
+
+    // A failed acquire counts as a wait of the connection timeout.
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(ShardConnectionPool.RESIZE_INTERVAL_MILLIS));
+    assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+    verify(mockConfigMXBean).setMaximumPoolSize(4);
+    verify(mockConfigMXBean).setMinimumIdle(4);
+  }
+
+  @Test
+  public void testShardConnectionPoolShrinksWhenIdle() throws Exception {
+    AtomicLong nanos = new AtomicLong();
+    when(mockDataSource.getHikariConfigMXBean()).thenReturn(mockConfigMXBean);
+    when(mockDataSource.getHikariPoolMXBean()).thenReturn(mockPoolMXBean);
+    when(mockDataSource.getConnection()).thenReturn(mockConnection);
+    when(mockConfigMXBean.getMaximumPoolSize()).thenReturn(8);
+    when(mockPoolMXBean.getIdleConnections()).thenReturn(3);
+    ShardConnectionPool pool = new ShardConnectionPool("shard1", mockDataSource, 8, nanos::get);
+
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(ShardConnectionPool.RESIZE_INTERVAL_MILLIS));
+    assertEquals(mockConnection, pool.getConnection());
+    verify(mockConfigMXBean).setMaximumPoolSize(7);
+
+    // The pool does not shrink below a quarter of the configured maximum.
+    when(mockConfigMXBean.getMaximumPoolSize()).thenReturn(2);
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(ShardConnectionPool.RESIZE_INTERVAL_MILLIS));
+    pool.recordAcquire(0);
+    verify(mockConfigMXBean, never()).setMaximumPoolSize(1);
+  }
 }
@@ -15,23 +15,39 @@
  */
 package com.google.cloud.teleport.v2.templates.dbutils.dao;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.cloud.teleport.v2.templates.dbutils.connection.JdbcConnectionHelper;
 import com.google.cloud.teleport.v2.templates.dbutils.dao.source.JdbcDao;
 import com.google.cloud.teleport.v2.templates.exceptions.ConnectionException;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementGeneratedResponse;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementValueObject;
 import com.zaxxer.hikari.HikariDataSource;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
@@ -52,6 +68,11 @@ public final class JdbcDaoTest {
     doNothing().when(mockConnection).close();
   }
 
+  @After
+  public void doAfterEachTest() {
+    new JdbcConnectionHelper().setConnectionPoolMap(new HashMap<>());
+  }
+
   @Test(expected = ConnectionException.class)
   public void testNullConnection() throws java.sql.SQLException, ConnectionException {
     JdbcDao sqlDao = new JdbcDao("url", "user", new JdbcConnectionHelper());
@@ -68,4 +89,113 @@ public final class JdbcDaoTest {
     sqlDao.write("sql");
     verify(mockStatement).executeUpdate(eq("sql"));
   }
+
+  @Test
+  public void testBatchWriteGroupsConsecutiveStatements() throws Exception {
+    PreparedStatement insertStatement = mock(PreparedStatement.class);
+    PreparedStatement deleteStatement = mock(PreparedStatement.class);
+    when(mockConnection.prepareStatement("insert")).thenReturn(insertStatement);
+    when(mockConnection.prepareStatement("delete")).thenReturn(deleteStatement);
+    JdbcDao sqlDao = new JdbcDao("url", "user", getConnectionHelper());
+
+    sqlDao.batchWrite(
+        List.of(
+            getStatement("insert", "1"),
+            getStatement("insert", "2"),
+            getStatement("delete", "1"),
+            getStatement("insert", "3")));
+
+    InOrder inOrder = inOrder(insertStatement, deleteStatement, mockConnection);
+    inOrder.verify(mockConnection).setAutoCommit(false);
+    inOrder.verify(insertStatement).setObject(1, "1");
+    inOrder.verify(insertStatement).setObject(1, "2");
+    inOrder.verify(insertStatement).executeBatch();
+    inOrder.verify(deleteStatement).setObject(1, "1");
+    inOrder.verify(deleteStatement).executeBatch();
+    inOrder.verify(insertStatement).setObject(1, "3");
+    inOrder.verify(insertStatement).executeBatch();
+    inOrder.verify(mockConnection).commit();
+    verify(mockConnection, times(1)).prepareStatement("insert");
+    verify(insertStatement).close();
+    verify(deleteStatement).close();
+  }
+
+  @Test
+  public void testBatchWriteRollsBackOnFailure() throws Exception {
+    PreparedStatement insertStatement = mock(PreparedStatement.class);
+    when(mockConnection.prepareStatement("insert")).thenReturn(insertStatement);
+    when(insertStatement.executeBatch()).thenThrow(new SQLException("failed"));
+    JdbcDao sqlDao = new JdbcDao("url", "user", getConnectionHelper());
+
+    assertThrows(
+        SQLException.class, () -> sqlDao.batchWrite(List.of(getStatement("insert", null))));
+    verify(insertStatement).setNull(1, Types.NULL);
+    verify(mockConnection).rollback();
+    verify(mockConnection, never()).commit();
+    verify(mockConnection).close();
+  }
+
+  @Test
+  public void testBatchWriteRollsBackOnRuntimeException() throws Exception {
+    PreparedStatement insertStatement = mock(PreparedStatement.class);
+    when(mockConnection.prepareStatement("insert")).thenReturn(insertStatement);
+    when(insertStatement.executeBatch()).thenThrow(new IllegalStateException("failed"));
+    JdbcDao sqlDao = new JdbcDao("url", "user", getConnectionHelper());
+
+    assertThrows(
+        IllegalStateException.class,
+        () -> sqlDao.batchWrite(List.of(getStatement("insert", "1"))));
+    InOrder inOrder = inOrder(mockConnection);
+    inOrder.verify(mockConnection).rollback();
+    inOrder.verify(mockConnection).setAutoCommit(true);
+    verify(mockConnection, never()).commit();
+    verify(mockConnection).close();
+  }
+
+  @Test(expected = ConnectionException.class)
+  public void testBatchWriteNullConnection() throws Exception {
+    JdbcDao sqlDao = new JdbcDao("url", "user", new JdbcConnectionHelper());
+    sqlDao.batchWrite(List.of(getStatement("insert", "1")));
+  }
+
+  @Test
+  public void testGetMaxStatementBytesReadsMaxAllowedPacketOnce() throws Exception {
+    ResultSet resultSet = mock(ResultSet.class);
+    when(mockStatement.executeQuery("SELECT @@max_allowed_packet")).thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true);
+    when(resultSet.getLong(1)).thenReturn(67108864L);
+    JdbcDao sqlDao = new JdbcDao("url", "user", getConnectionHelper());
+
+    assertEquals(67108864L, sqlDao.getMaxStatementBytes());
+    assertEquals(67108864L, sqlDao.getMaxStatementBytes());
+    verify(mockStatement, times(1)).executeQuery(any());
+    verify(resultSet).close();
+    verify(mockConnection).close();
+  }
+
+  @Test
+  public void testGetSourceVersionReadsVersionOnce() throws Exception {
+    DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+    when(mockConnection.getMetaData()).thenReturn(metaData);
+    when(metaData.getDatabaseProductVersion()).thenReturn("8.0.36");
+    JdbcDao sqlDao = new JdbcDao("url", "user", getConnectionHelper());
+
+    assertEquals("8.0.36", sqlDao.getSourceVersion());
+    assertEquals("8.0.36", sqlDao.getSourceVersion());
+    verify(mockConnection, times(1)).getMetaData();
+    verify(mockConnection).close();
+  }
+
+  private JdbcConnectionHelper getConnectionHelper() {
+    Map<String, HikariDataSource> connectionPoolMap = new HashMap<>();
+    connectionPoolMap.put("url/user", mockHikariDataSource);
+    JdbcConnectionHelper jdbcConnectionHelper = new JdbcConnectionHelper();
+    jdbcConnectionHelper.setConnectionPoolMap(connectionPoolMap);
+    return jdbcConnectionHelper;
+  }
+
+  private static PreparedStatementGeneratedResponse getStatement(String sql, String value) {
+    return new PreparedStatementGeneratedResponse(
+        sql, List.of(PreparedStatementValueObject.create("varchar", value)));
+  }
 }
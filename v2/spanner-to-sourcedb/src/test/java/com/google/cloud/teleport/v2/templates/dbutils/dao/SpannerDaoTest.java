@@ -20,19 +20,26 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.DatabaseClient;
 import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.KeySet;
 import com.google.cloud.spanner.Mutation;
 import com.google.cloud.spanner.ReadOnlyTransaction;
+import com.google.cloud.spanner.ResultSets;
 import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
 import com.google.cloud.teleport.v2.templates.constants.Constants;
 import com.google.cloud.teleport.v2.templates.dbutils.dao.spanner.SpannerDao;
 import com.google.cloud.teleport.v2.templates.utils.ShadowTableRecord;
 import com.google.common.collect.ImmutableList;
+import java.math.BigDecimal;
+import java.util.Map;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerAccessor;
 import org.junit.Before;
 import org.junit.FixMethodOrder;
@@ -108,4 +115,84 @@ public final class SpannerDaoTest {
     spannerDao.updateShadowTable(mutation);
     verify(mockDatabaseClient).write(eq(ImmutableList.of(mutation)));
   }
+
+  @Test
+  public void testGetShadowTableRecordsReadsAllKeysAtOnce() {
+    SpannerDao spannerDao = new SpannerDao(mockSpannerAccessor);
+    Type rowType =
+        Type.struct(
+            StructField.of("id", Type.int64()),
+            StructField.of(Constants.PROCESSED_COMMIT_TS_COLUMN_NAME, Type.timestamp()),
+            StructField.of(Constants.RECORD_SEQ_COLUMN_NAME, Type.int64()));
+    Struct row =
+        Struct.newBuilder()
+            .set("id")
+            .to(1L)
+            .set(Constants.PROCESSED_COMMIT_TS_COLUMN_NAME)
+            .to(Timestamp.parseTimestamp("2023-05-18T12:01:13.088397258Z"))
+            .set(Constants.RECORD_SEQ_COLUMN_NAME)
+            .to(5L)
+            .build();
+    when(mockReadOnlyTransaction.read(eq("shadow_t"), any(KeySet.class), any(Iterable.class)))
+        .thenReturn(ResultSets.forRows(rowType, ImmutableList.of(row)));
+
+    Map<Key, ShadowTableRecord> response =
+        spannerDao.getShadowTableRecords(
+            "shadow_t", ImmutableList.of("id"), ImmutableList.of(Key.of(1L), Key.of(2L)));
+
+    assertThat(response).hasSize(1);
+    assertThat(response.get(Key.of(1L)).getRecordSequence()).isEqualTo(5L);
+    assertThat(response.get(Key.of(1L)).getProcessedCommitTimestamp())
+        .isEqualTo(Timestamp.parseTimestamp("2023-05-18T12:01:13.088397258Z"));
+    verify(mockReadOnlyTransaction, never()).readRow(any(), any(), any(Iterable.class));
+  }
+
+  @Test
+  public void testGetShadowTableRecordsLooksUpUnmatchedKeys() {
+    SpannerDao spannerDao = new SpannerDao(mockSpannerAccessor);
+    Type rowType =
+        Type.struct(
+            StructField.of("id", Type.numeric()),
+            StructField.of(Constants.PROCESSED_COMMIT_TS_COLUMN_NAME, Type.timestamp()),
+            StructField.of(Constants.RECORD_SEQ_COLUMN_NAME, Type.int64()));
+    Struct row =
+        Struct.newBuilder()
+            .set("id")
+            .to(new BigDecimal("1.000000000"))
+            .set(Constants.PROCESSED_COMMIT_TS_COLUMN_NAME)
+            .to(Timestamp.parseTimestamp("2023-05-18T12:01:13.088397258Z"))
+            .set(Constants.RECORD_SEQ_COLUMN_NAME)
+            .to(5L)
+            .build();
+    Key requestedKey = Key.of(new BigDecimal("1"));
+    when(mockReadOnlyTransaction.read(eq("shadow_t"), any(KeySet.class), any(Iterable.class)))
+        .thenReturn(ResultSets.forRows(rowType, ImmutableList.of(row)));
+    when(mockReadOnlyTransaction.readRow(eq("shadow_t"), eq(requestedKey), any(Iterable.class)))
+        .thenReturn(
+            Struct.newBuilder()
+                .set(Constants.PROCESSED_COMMIT_TS_COLUMN_NAME)
+                .to(Timestamp.parseTimestamp("2023-05-18T12:01:13.088397258Z"))
+                .set(Constants.RECORD_SEQ_COLUMN_NAME)
+                .to(5L)
+                .build());
+
+    Map<Key, ShadowTableRecord> response =
+        spannerDao.getShadowTableRecords(
+            "shadow_t", ImmutableList.of("id"), ImmutableList.of(requestedKey));
+
+    assertThat(response).hasSize(1);
+    assertThat(response.get(requestedKey).getRecordSequence()).isEqualTo(5L);
+  }
+
+  @Test
+  public void testUpdateShadowTables() {
+    SpannerDao spannerDao = new SpannerDao(mockSpannerAccessor);
+    Mutation mutation1 = Mutation.newInsertBuilder("T").set("C1").to("x").build();
+    Mutation mutation2 = Mutation.newInsertBuilder("T").set("C1").to("y").build();
+    spannerDao.updateShadowTables(ImmutableList.of(mutation1, mutation2));
+    verify(mockDatabaseClient).write(eq(ImmutableList.of(mutation1, mutation2)));
+
+    spannerDao.updateShadowTables(ImmutableList.of());
+    verify(mockDatabaseClient).write(any());
+  }
 }
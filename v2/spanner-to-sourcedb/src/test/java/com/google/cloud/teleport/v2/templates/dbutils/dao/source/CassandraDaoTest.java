@@ -17,20 +17,36 @@ package com.google.cloud.teleport.v2.templates.dbutils.dao.source;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
+import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
 import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
 import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
 import com.google.cloud.teleport.v2.templates.dbutils.connection.IConnectionHelper;
 import com.google.cloud.teleport.v2.templates.exceptions.ConnectionException;
 import com.google.cloud.teleport.v2.templates.models.PreparedStatementGeneratedResponse;
 import com.google.cloud.teleport.v2.templates.models.PreparedStatementValueObject;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -149,4 +165,237 @@ public class CassandraDaoTest {
             () -> cassandraDao.write(mockPreparedStatementGeneratedResponse));
     assertEquals("Connection failed", exception.getMessage());
   }
+
+  @Test
+  public void testBatchWritePreparesEachStatementOnce() throws Exception {
+    String preparedDmlStatement = "INSERT INTO test (id, name) VALUES (?, ?)";
+    mockPreparedStatement(preparedDmlStatement);
+    Mockito.when(mockPreparedStatement.bind(ArgumentMatchers.any())).thenReturn(mockBoundStatement);
+    Mockito.when(mockSession.executeAsync(ArgumentMatchers.<Statement<?>>any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    cassandraDao.batchWrite(
+        Arrays.asList(
+            mockPreparedStatementGeneratedResponse, mockPreparedStatementGeneratedResponse));
+
+    Mockito.verify(mockSession).prepare(ArgumentMatchers.eq(preparedDmlStatement));
+    Mockito.verify(mockSession, Mockito.never()).close();
+  }
+
+  @Test
+  public void testWritesReuseSessionAndPreparedStatement() throws Exception {
+    String preparedDmlStatement = "INSERT INTO test (id, name) VALUES (?, ?)";
+    mockPreparedStatement(preparedDmlStatement);
+    Mockito.when(mockPreparedStatement.bind(ArgumentMatchers.any())).thenReturn(mockBoundStatement);
+    Mockito.when(mockSession.executeAsync(ArgumentMatchers.<Statement<?>>any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    cassandraDao.write(mockPreparedStatementGeneratedResponse);
+    cassandraDao.write(mockPreparedStatementGeneratedResponse);
+    cassandraDao.batchWrite(Arrays.asList(mockPreparedStatementGeneratedResponse));
+
+    Mockito.verify(mockConnectionHelper, Mockito.times(3))
+        .getConnection(ArgumentMatchers.eq("cassandraUrl/cassandraUser"));
+    Mockito.verify(mockSession, Mockito.times(1))
+        .prepare(ArgumentMatchers.eq(preparedDmlStatement));
+    Mockito.verify(mockSession, Mockito.times(2)).execute(ArgumentMatchers.eq(mockBoundStatement));
+    Mockito.verify(mockSession, Mockito.never()).close();
+  }
+
+  @Test
+  public void testWriteOnNewSessionPreparesStatementAgain() throws Exception {
+    String preparedDmlStatement = "INSERT INTO test (id, name) VALUES (?, ?)";
+    mockPreparedStatement(preparedDmlStatement);
+    Mockito.when(mockPreparedStatement.bind(ArgumentMatchers.any())).thenReturn(mockBoundStatement);
+    CqlSession newSession = Mockito.mock(CqlSession.class);
+    Mockito.when(newSession.prepare(ArgumentMatchers.eq(preparedDmlStatement)))
+        .thenReturn(mockPreparedStatement);
+    Mockito.when(mockConnectionHelper.getConnection(ArgumentMatchers.anyString()))
+        .thenReturn(mockSession, newSession);
+
+    cassandraDao.write(mockPreparedStatementGeneratedResponse);
+    cassandraDao.write(mockPreparedStatementGeneratedResponse);
+
+    Mockito.verify(mockSession).prepare(ArgumentMatchers.eq(preparedDmlStatement));
+    Mockito.verify(newSession).prepare(ArgumentMatchers.eq(preparedDmlStatement));
+    Mockito.verify(newSession).execute(ArgumentMatchers.eq(mockBoundStatement));
+  }
+
+  @Test
+  public void testPreparedStatementCacheIsBounded() throws Exception {
+    CassandraDao boundedDao =
+        new CassandraDao("cassandraUrl", "cassandraUser", mockConnectionHelper, 1, 1);
+    Mockito.when(mockConnectionHelper.getConnection(ArgumentMatchers.anyString()))
+        .thenReturn(mockSession);
+    Mockito.when(mockSession.prepare(ArgumentMatchers.anyString()))
+        .thenReturn(mockPreparedStatement);
+    Mockito.when(mockPreparedStatement.bind(ArgumentMatchers.any())).thenReturn(mockBoundStatement);
+    PreparedStatementGeneratedResponse insert =
+        new PreparedStatementGeneratedResponse("INSERT INTO test (id) VALUES (?)", List.of());
+    PreparedStatementGeneratedResponse delete =
+        new PreparedStatementGeneratedResponse("DELETE FROM test WHERE id = ?", List.of());
+
+    boundedDao.write(insert);
+    boundedDao.write(insert);
+    boundedDao.write(delete);
+    boundedDao.write(insert);
+
+    // The insert is evicted by the delete, so it is prepared again.
+    Mockito.verify(mockSession, Mockito.times(2))
+        .prepare(ArgumentMatchers.eq("INSERT INTO test (id) VALUES (?)"));
+    Mockito.verify(mockSession, Mockito.times(1))
+        .prepare(ArgumentMatchers.eq("DELETE FROM test WHERE id = ?"));
+  }
+
+  @Test
+  public void testBatchWriteWithoutMetadataExecutesEachStatement() throws Exception {
+    String preparedDmlStatement = "INSERT INTO test (id, name) VALUES (?, ?)";
+    mockPreparedStatement(preparedDmlStatement);
+    BoundStatement firstBoundStatement = Mockito.mock(BoundStatement.class);
+    BoundStatement secondBoundStatement = Mockito.mock(BoundStatement.class);
+    Mockito.when(mockPreparedStatement.bind(ArgumentMatchers.any()))
+        .thenReturn(firstBoundStatement, secondBoundStatement);
+    Mockito.when(mockSession.executeAsync(ArgumentMatchers.<Statement<?>>any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    cassandraDao.batchWrite(
+        Arrays.asList(
+            mockPreparedStatementGeneratedResponse, mockPreparedStatementGeneratedResponse));
+
+    Mockito.verify(mockSession).prepare(ArgumentMatchers.eq(preparedDmlStatement));
+    Mockito.verify(mockSession).executeAsync(ArgumentMatchers.eq(firstBoundStatement));
+    Mockito.verify(mockSession).executeAsync(ArgumentMatchers.eq(secondBoundStatement));
+  }
+
+  @Test
+  public void testBatchWriteGroupsStatementsByPartition() throws Exception {
+    String preparedDmlStatement = "INSERT INTO ks.test (id, name) VALUES (?, ?)";
+    mockPreparedStatement(preparedDmlStatement);
+    mockTableMetadata();
+    ByteBuffer partitionKey = ByteBuffer.wrap(new byte[] {1});
+    BoundStatement firstBoundStatement = mockBoundStatement(partitionKey, 1);
+    BoundStatement secondBoundStatement = mockBoundStatement(partitionKey, 2);
+    // Writes the same row as the first statement, so it must be applied after it.
+    BoundStatement thirdBoundStatement = mockBoundStatement(partitionKey, 1);
+    Mockito.when(mockPreparedStatement.bind(ArgumentMatchers.any()))
+        .thenReturn(firstBoundStatement, secondBoundStatement, thirdBoundStatement);
+    Mockito.when(mockSession.executeAsync(ArgumentMatchers.<Statement<?>>any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    cassandraDao.batchWrite(
+        Arrays.asList(
+            mockPreparedStatementGeneratedResponse,
+            mockPreparedStatementGeneratedResponse,
+            mockPreparedStatementGeneratedResponse));
+
+    ArgumentCaptor<Statement<?>> statementCaptor = ArgumentCaptor.forClass(Statement.class);
+    Mockito.verify(mockSession, Mockito.times(2)).executeAsync(statementCaptor.capture());
+    List<Statement<?>> statements = statementCaptor.getAllValues();
+    assertTrue(statements.get(0) instanceof BatchStatement);
+    assertEquals(2, ((BatchStatement) statements.get(0)).size());
+    assertEquals(thirdBoundStatement, statements.get(1));
+  }
+
+  @Test
+  public void testBatchWriteWithoutRoutingKeyExecutesInOrder() throws Exception {
+    String preparedDmlStatement = "UPDATE ks.test SET name = ? WHERE id = ?";
+    mockPreparedStatement(preparedDmlStatement);
+    mockTableMetadata();
+    // Both statements write the same row, but have no routing key.
+    BoundStatement firstBoundStatement = mockBoundStatement(null, 1);
+    BoundStatement secondBoundStatement = mockBoundStatement(null, 1);
+    Mockito.when(mockPreparedStatement.bind(ArgumentMatchers.any()))
+        .thenReturn(firstBoundStatement, secondBoundStatement);
+    CompletableFuture<AsyncResultSet> firstResult = new CompletableFuture<>();
+    Mockito.when(mockSession.executeAsync(ArgumentMatchers.<Statement<?>>any()))
+        .thenReturn(firstResult, CompletableFuture.completedFuture(null));
+
+    CompletableFuture<Void> write =
+        CompletableFuture.runAsync(
+            () -> {
+              try {
+                cassandraDao.batchWrite(
+                    Arrays.asList(
+                        mockPreparedStatementGeneratedResponse,
+                        mockPreparedStatementGeneratedResponse));
+              } catch (Exception e) {
+                throw new RuntimeException(e);
+              }
+            });
+
+    Mockito.verify(mockSession, Mockito.timeout(10_000))
+        .executeAsync(ArgumentMatchers.eq(firstBoundStatement));
+    // The second statement must wait for the first one to be applied.
+    Thread.sleep(100);
+    Mockito.verify(mockSession, Mockito.never())
+        .executeAsync(ArgumentMatchers.eq(secondBoundStatement));
+    firstResult.complete(null);
+    write.get(10, TimeUnit.SECONDS);
+    InOrder inOrder = Mockito.inOrder(mockSession);
+    inOrder.verify(mockSession).executeAsync(ArgumentMatchers.eq(firstBoundStatement));
+    inOrder.verify(mockSession).executeAsync(ArgumentMatchers.eq(secondBoundStatement));
+  }
+
+  @Test
+  public void testBatchWriteWithExecutionFailure() throws Exception {
+    String preparedDmlStatement = "INSERT INTO test (id, name) VALUES (?, ?)";
+    mockPreparedStatement(preparedDmlStatement);
+    Mockito.when(mockPreparedStatement.bind(ArgumentMatchers.any())).thenReturn(mockBoundStatement);
+    CompletableFuture<AsyncResultSet> failedResult = new CompletableFuture<>();
+    failedResult.completeExceptionally(new RuntimeException("Batch execution failed"));
+    Mockito.when(mockSession.executeAsync(ArgumentMatchers.<Statement<?>>any()))
+        .thenReturn(failedResult);
+
+    RuntimeException exception =
+        assertThrows(
+            RuntimeException.class,
+            () -> cassandraDao.batchWrite(Arrays.asList(mockPreparedStatementGeneratedResponse)));
+
+    assertEquals("Batch execution failed", exception.getMessage());
+  }
+
+  private void mockPreparedStatement(String preparedDmlStatement) throws Exception {
+    List<PreparedStatementValueObject<?>> values =
+        Arrays.asList(
+            PreparedStatementValueObject.create("", preparedDmlStatement),
+            PreparedStatementValueObject.create("Test", preparedDmlStatement));
+    Mockito.when(mockPreparedStatementGeneratedResponse.getDmlStatement())
+        .thenReturn(preparedDmlStatement);
+    Mockito.when(mockPreparedStatementGeneratedResponse.getValues()).thenReturn(values);
+    Mockito.when(mockConnectionHelper.getConnection(ArgumentMatchers.anyString()))
+        .thenReturn(mockSession);
+    Mockito.when(mockSession.prepare(ArgumentMatchers.eq(preparedDmlStatement)))
+        .thenReturn(mockPreparedStatement);
+  }
+
+  private void mockTableMetadata() {
+    CqlIdentifier keyspace = CqlIdentifier.fromCql("ks");
+    CqlIdentifier table = CqlIdentifier.fromCql("test");
+    CqlIdentifier id = CqlIdentifier.fromCql("id");
+    ColumnDefinition idDefinition = Mockito.mock(ColumnDefinition.class);
+    Mockito.when(idDefinition.getKeyspace()).thenReturn(keyspace);
+    Mockito.when(idDefinition.getTable()).thenReturn(table);
+    ColumnDefinitions variables = Mockito.mock(ColumnDefinitions.class);
+    Mockito.when(variables.size()).thenReturn(2);
+    Mockito.when(variables.get(0)).thenReturn(idDefinition);
+    Mockito.when(variables.firstIndexOf(id)).thenReturn(0);
+    Mockito.when(mockPreparedStatement.getVariableDefinitions()).thenReturn(variables);
+    ColumnMetadata idMetadata = Mockito.mock(ColumnMetadata.class);
+    Mockito.when(idMetadata.getName()).thenReturn(id);
+    TableMetadata tableMetadata = Mockito.mock(TableMetadata.class);
+    Mockito.when(tableMetadata.getPrimaryKey()).thenReturn(List.of(idMetadata));
+    KeyspaceMetadata keyspaceMetadata = Mockito.mock(KeyspaceMetadata.class);
+    Mockito.when(keyspaceMetadata.getTable(table)).thenReturn(Optional.of(tableMetadata));
+    Metadata metadata = Mockito.mock(Metadata.class);
+    Mockito.when(metadata.getKeyspace(keyspace)).thenReturn(Optional.of(keyspaceMetadata));
+    Mockito.when(mockSession.getMetadata()).thenReturn(metadata);
+  }
+
+  private static BoundStatement mockBoundStatement(ByteBuffer partitionKey, int id) {
+    BoundStatement boundStatement = Mockito.mock(BoundStatement.class);
+    Mockito.when(boundStatement.getRoutingKey()).thenReturn(partitionKey);
+    Mockito.when(boundStatement.getBytesUnsafe(0))
+        .thenReturn(ByteBuffer.wrap(new byte[] {(byte) id}));
+    return boundStatement;
+  }
 }
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.cloud.teleport.v2.templates.dbutils.dml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.teleport.v2.spanner.migrations.schema.ColumnPK;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.Schema;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SourceColumnDefinition;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SourceColumnType;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SourceTable;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SpannerColumnDefinition;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SpannerColumnType;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SpannerTable;
+import com.google.cloud.teleport.v2.spanner.migrations.schema.SyntheticPKey;
+import com.google.cloud.teleport.v2.templates.models.DMLGeneratorRequest;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementGeneratedResponse;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementValueObject;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class CassandraDMLGeneratorTest {
+
+  private final CassandraDMLGenerator generator = new CassandraDMLGenerator();
+
+  @Test
+  public void testInsertBindsTypedValues() {
+    PreparedStatementGeneratedResponse statement =
+        generator.getPreparedDMLStatement(
+            getRequest(
+                "INSERT",
+                new JSONObject("{\"id\":\"42\"}"),
+                new JSONObject("{\"name\":\"alice\",\"updated_at\":\"2024-01-02T03:04:05Z\"}")));
+
+    assertEquals(
+        "INSERT INTO \"users\" (\"id\", \"name\", \"updated_at\") VALUES (?, ?, ?)",
+        statement.getDmlStatement());
+    assertEquals(List.of(42L, "alice", Instant.parse("2024-01-02T03:04:05Z")), values(statement));
+  }
+
+  @Test
+  public void testUpdateOnlyWritesColumnsOfTheRecord() {
+    PreparedStatementGeneratedResponse statement =
+        generator.getPreparedDMLStatement(
+            getRequest(
+                "UPDATE", new JSONObject("{\"id\":\"42\"}"), new JSONObject("{\"name\":null}")));
+
+    assertEquals(
+        "INSERT INTO \"users\" (\"id\", \"name\") VALUES (?, ?)", statement.getDmlStatement());
+    assertEquals(42L, statement.getValues().get(0).value());
+    assertNull(statement.getValues().get(1).value());
+  }
+
+  @Test
+  public void testDeleteOnPrimaryKey() {
+    PreparedStatementGeneratedResponse statement =
+        generator.getPreparedDMLStatement(
+            getRequest("DELETE", new JSONObject("{\"id\":\"42\"}"), new JSONObject("{}")));
+
+    assertEquals("DELETE FROM \"users\" WHERE \"id\" = ?", statement.getDmlStatement());
+    assertEquals(List.of(42L), values(statement));
+  }
+
+  @Test
+  public void testSameColumnsGiveSameStatementText() {
+    String first =
+        generator
+            .getPreparedDMLStatement(
+                getRequest(
+                    "INSERT",
+                    new JSONObject("{\"id\":\"1\"}"),
+                    new JSONObject("{\"name\":\"a\"}")))
+            .getDmlStatement();
+    String second =
+        generator
+            .getPreparedDMLStatement(
+                getRequest(
+                    "INSERT",
+                    new JSONObject("{\"id\":\"2\"}"),
+                    new JSONObject("{\"name\":\"b\"}")))
+            .getDmlStatement();
+
+    assertEquals(first, second);
+  }
+
+  @Test
+  public void testCustomTransformationValueIsConverted() {
+    Map<String, Object> customTransformationResponse = new HashMap<>();
+    customTransformationResponse.put("name", "transformed");
+    DMLGeneratorRequest request =
+        new DMLGeneratorRequest.Builder(
+                "INSERT",
+                "users",
+                new JSONObject("{\"name\":\"alice\"}"),
+                new JSONObject("{\"id\":\"42\"}"),
+                "+00:00")
+            .setSchema(getSchema("text"))
+            .setCustomTransformationResponse(customTransformationResponse)
+            .build();
+
+    PreparedStatementGeneratedResponse statement = generator.getPreparedDMLStatement(request);
+
+    assertEquals(List.of(42L, "transformed"), values(statement));
+  }
+
+  @Test
+  public void testMissingPrimaryKeyGivesEmptyStatement() {
+    PreparedStatementGeneratedResponse statement =
+        generator.getPreparedDMLStatement(
+            getRequest("INSERT", new JSONObject("{}"), new JSONObject("{\"name\":\"alice\"}")));
+
+    assertTrue(statement.getDmlStatement().isEmpty());
+  }
+
+  @Test
+  public void testUnsupportedColumnTypeFails() {
+    DMLGeneratorRequest request =
+        new DMLGeneratorRequest.Builder(
+                "INSERT",
+                "users",
+                new JSONObject("{\"name\":\"[1,2]\"}"),
+                new JSONObject("{\"id\":\"42\"}"),
+                "+00:00")
+            .setSchema(getSchema("list<int>"))
+            .build();
+
+    assertThrows(IllegalArgumentException.class, () -> generator.getPreparedDMLStatement(request));
+  }
+
+  @Test
+  public void testUpdateOfCounterTableFails() {
+    DMLGeneratorRequest request =
+        new DMLGeneratorRequest.Builder(
+                "UPDATE",
+                "users",
+                new JSONObject("{\"name\":\"5\"}"),
+                new JSONObject("{\"id\":\"42\"}"),
+                "+00:00")
+            .setSchema(getSchema("counter"))
+            .build();
+
+    assertThrows(IllegalArgumentException.class, () -> generator.getPreparedDMLStatement(request));
+  }
+
+  @Test
+  public void testDeleteOfCounterTable() {
+    DMLGeneratorRequest request =
+        new DMLGeneratorRequest.Builder(
+                "DELETE",
+                "users",
+                new JSONObject("{}"),
+                new JSONObject("{\"id\":\"42\"}"),
+                "+00:00")
+            .setSchema(getSchema("counter"))
+            .build();
+
+    PreparedStatementGeneratedResponse statement = generator.getPreparedDMLStatement(request);
+
+    assertEquals("DELETE FROM \"users\" WHERE \"id\" = ?", statement.getDmlStatement());
+    assertEquals(List.of(42L), values(statement));
+  }
+
+  @Test
+  public void testGetDMLStatementReturnsPreparedStatement() {
+    assertTrue(
+        generator.getDMLStatement(
+                getRequest(
+                    "INSERT",
+                    new JSONObject("{\"id\":\"42\"}"),
+                    new JSONObject("{\"name\":\"alice\"}")))
+            instanceof PreparedStatementGeneratedResponse);
+  }
+
+  private static List<Object> values(PreparedStatementGeneratedResponse statement) {
+    return statement.getValues().stream()
+        .map(PreparedStatementValueObject::value)
+        .collect(Collectors.toList());
+  }
+
+  private static DMLGeneratorRequest getRequest(
+      String modType, JSONObject keysJson, JSONObject newValuesJson) {
+    return new DMLGeneratorRequest.Builder(modType, "users", newValuesJson, keysJson, "+00:00")
+        .setSchema(getSchema("text"))
+        .build();
+  }
+
+  private static Schema getSchema(String nameType) {
+    Map<String, SpannerColumnDefinition> spannerColumns = new LinkedHashMap<>();
+    spannerColumns.put(
+        "c1", new SpannerColumnDefinition("id", new SpannerColumnType("INT64", false)));
+    spannerColumns.put(
+        "c2", new SpannerColumnDefinition("name", new SpannerColumnType("STRING", false)));
+    spannerColumns.put(
+        "c3", new SpannerColumnDefinition("updated_at", new SpannerColumnType("TIMESTAMP", false)));
+    Map<String, SourceColumnDefinition> sourceColumns = new LinkedHashMap<>();
+    sourceColumns.put(
+        "c1", new SourceColumnDefinition("id", new SourceColumnType("bigint", null, null)));
+    sourceColumns.put(
+        "c2", new SourceColumnDefinition("name", new SourceColumnType(nameType, null, null)));
+    sourceColumns.put(
+        "c3",
+        new SourceColumnDefinition("updated_at", new SourceColumnType("timestamp", null, null)));
+    ColumnPK[] primaryKeys = new ColumnPK[] {new ColumnPK("c1", 1)};
+    Map<String, SpannerTable> spSchema = new HashMap<>();
+    spSchema.put(
+        "t1",
+        new SpannerTable(
+            "users", new String[] {"c1", "c2", "c3"}, spannerColumns, primaryKeys, null));
+    Map<String, SourceTable> srcSchema = new HashMap<>();
+    srcSchema.put(
+        "t1",
+        new SourceTable(
+            "users", "ks", new String[] {"c1", "c2", "c3"}, sourceColumns, primaryKeys));
+    Schema schema = new Schema(spSchema, new HashMap<String, SyntheticPKey>(), srcSchema);
+    schema.setToSpanner(new HashMap<>());
+    schema.setToSource(new HashMap<>());
+    schema.setSrcToID(new HashMap<>());
+    schema.setSpannerToID(new HashMap<>());
+    schema.generateMappings();
+    return schema;
+  }
+}
@@ -15,6 +15,9 @@
  */
 package com.google.cloud.teleport.v2.templates.dbutils.dml;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -32,12 +35,14 @@ import com.google.cloud.teleport.v2.templates.changestream.TrimmedShardedDataCha
 import com.google.cloud.teleport.v2.templates.dbutils.processor.InputRecordProcessor;
 import com.google.cloud.teleport.v2.templates.models.DMLGeneratorRequest;
 import com.google.cloud.teleport.v2.templates.models.DMLGeneratorResponse;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementGeneratedResponse;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.GsonBuilder;
 import java.io.InputStream;
 import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.apache.beam.sdk.io.FileSystems;
 import org.apache.commons.io.IOUtils;
@@ -1115,6 +1120,235 @@ public final class MySQLDMLGeneratorTest {
     assertTrue(sql.contains("VALUES (1,'kk ll')"));
   }
 
+  @Test
+  public void preparedUpsertBindsColumnValues() {
+    Schema schema = SessionFileReader.read("src/test/resources/allMatchSession.json");
+    String tableName = "Singers";
+    String newValuesString = "{\"FirstName\":\"kk\",\"LastName\":\"l'l\"}";
+    JSONObject newValuesJson = new JSONObject(newValuesString);
+    String keyValueString = "{\"SingerId\":\"999\"}";
+    JSONObject keyValuesJson = new JSONObject(keyValueString);
+    String modType = "INSERT";
+
+    MySQLDMLGenerator mySQLDMLGenerator = new MySQLDMLGenerator();
+    PreparedStatementGeneratedResponse response =
+        mySQLDMLGenerator.getPreparedDMLStatement(
+            new DMLGeneratorRequest.Builder(
+                    modType, tableName, newValuesJson, keyValuesJson, "+00:00")
+                .setSchema(schema)
+                .build());
+    String sql = response.getDmlStatement();
+
+    assertTrue(sql.startsWith("INSERT INTO `Singers`(`SingerId`,"));
+    assertTrue(sql.contains("VALUES (?,?,?) ON DUPLICATE KEY UPDATE"));
+    assertTrue(sql.contains("`FirstName` = ?"));
+    assertTrue(sql.contains("`LastName` = ?"));
+    assertFalse(sql.contains("VALUES(`"));
+    // The values of the non-key columns are bound again for the update clause.
+    assertEquals(5, response.getValues().size());
+    assertEquals("999", response.getValues().get(0).value());
+    assertEquals(
+        2, response.getValues().stream().filter(value -> "l'l".equals(value.value())).count());
+  }
+
+  @Test
+  public void preparedStatementTextIsIndependentOfValues() {
+    Schema schema = SessionFileReader.read("src/test/resources/timeZoneSession.json");
+    String tableName = "Singers";
+    MySQLDMLGenerator mySQLDMLGenerator = new MySQLDMLGenerator();
+
+    PreparedStatementGeneratedResponse first =
+        mySQLDMLGenerator.getPreparedDMLStatement(
+            new DMLGeneratorRequest.Builder(
+                    "INSERT",
+                    tableName,
+                    new JSONObject("{\"Bday\":\"2023-05-18T12:01:13.088397258Z\"}"),
+                    new JSONObject("{\"SingerId\":\"999\"}"),
+                    "+10:00")
+                .setSchema(schema)
+                .build());
+    PreparedStatementGeneratedResponse second =
+        mySQLDMLGenerator.getPreparedDMLStatement(
+            new DMLGeneratorRequest.Builder(
+                    "UPDATE",
+                    tableName,
+                    new JSONObject("{\"Bday\":null}"),
+                    new JSONObject("{\"SingerId\":\"1000\"}"),
+                    "+10:00")
+                .setSchema(schema)
+                .build());
+
+    assertEquals(first.getDmlStatement(), second.getDmlStatement());
+    assertTrue(first.getDmlStatement().contains("CONVERT_TZ(?,'+00:00','+10:00')"));
+    assertEquals("2023-05-18T12:01:13.088397258", first.getValues().get(1).value());
+    assertNull(second.getValues().get(1).value());
+  }
+
+  @Test
+  public void preparedDeleteMultiplePKColumns() {
+    Schema schema = SessionFileReader.read("src/test/resources/MultiColmPKSession.json");
+    String tableName = "Singers";
+    JSONObject newValuesJson = new JSONObject("{\"LastName\":null}");
+    JSONObject keyValuesJson = new JSONObject("{\"SingerId\":\"999\",\"FirstName\":\"kk\"}");
+
+    MySQLDMLGenerator mySQLDMLGenerator = new MySQLDMLGenerator();
+    PreparedStatementGeneratedResponse response =
+        mySQLDMLGenerator.getPreparedDMLStatement(
+            new DMLGeneratorRequest.Builder(
+                    "DELETE", tableName, newValuesJson, keyValuesJson, "+00:00")
+                .setSchema(schema)
+                .build());
+    String sql = response.getDmlStatement();
+
+    assertTrue(sql.startsWith("DELETE FROM `Singers` WHERE"));
+    assertTrue(sql.contains("`FirstName` = ?"));
+    assertTrue(sql.contains("`SingerId` = ?"));
+    assertEquals(2, response.getValues().size());
+  }
+
+  @Test
+  public void preparedStatementInlinesCustomTransformation() {
+    Schema schema = SessionFileReader.read("src/test/resources/customTransformation.json");
+    String tableName = "Singers";
+    JSONObject newValuesJson = new JSONObject("{\"FirstName\":\"kk\",\"LastName\":\"ll\"}");
+    JSONObject keyValuesJson = new JSONObject("{\"SingerId\":\"999\"}");
+    Map<String, Object> customTransformation = new HashMap<>();
+    customTransformation.put("FullName", "\'kk ll\'");
+    customTransformation.put("SingerId", "1");
+
+    MySQLDMLGenerator mySQLDMLGenerator = new MySQLDMLGenerator();
+    PreparedStatementGeneratedResponse response =
+        mySQLDMLGenerator.getPreparedDMLStatement(
+            new DMLGeneratorRequest.Builder(
+                    "INSERT", tableName, newValuesJson, keyValuesJson, "+00:00")
+                .setSchema(schema)
+                .setCustomTransformationResponse(customTransformation)
+                .build());
+    String sql = response.getDmlStatement();
+
+    assertTrue(sql.contains("VALUES (1,'kk ll')"));
+    assertTrue(response.getValues().isEmpty());
+  }
+
+  @Test
+  public void preparedStatementForUnknownTableIsEmpty() {
+    Schema schema = SessionFileReader.read("src/test/resources/allMatchSession.json");
+    MySQLDMLGenerator mySQLDMLGenerator = new MySQLDMLGenerator();
+    PreparedStatementGeneratedResponse response =
+        mySQLDMLGenerator.getPreparedDMLStatement(
+            new DMLGeneratorRequest.Builder(
+                    "INSERT",
+                    "junk",
+                    new JSONObject("{}"),
+                    new JSONObject("{\"SingerId\":\"999\"}"),
+                    "+00:00")
+                .setSchema(schema)
+                .build());
+
+    assertTrue(response.getDmlStatement().isEmpty());
+  }
+
+  @Test
+  public void mergePreparedUpsertsWithDistinctKeys() {
+    Schema schema = SessionFileReader.read("src/test/resources/allMatchSession.json");
+    MySQLDMLGenerator mySQLDMLGenerator = new MySQLDMLGenerator();
+    PreparedStatementGeneratedResponse first = getPreparedSingersStatement(schema, "INSERT", "1");
+    PreparedStatementGeneratedResponse second = getPreparedSingersStatement(schema, "UPDATE", "2");
+    PreparedStatementGeneratedResponse secondAgain =
+        getPreparedSingersStatement(schema, "UPDATE", "2");
+    PreparedStatementGeneratedResponse delete = getPreparedSingersStatement(schema, "DELETE", "3");
+    PreparedStatementGeneratedResponse fourth = getPreparedSingersStatement(schema, "INSERT", "4");
+
+    List<PreparedStatementGeneratedResponse> merged =
+        mySQLDMLGenerator.mergePreparedDMLStatements(
+            List.of(first, second, secondAgain, delete, fourth), Long.MAX_VALUE, "8.0.36");
+
+    assertEquals(4, merged.size());
+    String insertClause = first.getDmlStatement().replaceAll("( VALUES \\([?,]*\\)).*", "$1");
+    String row = insertClause.replaceAll(".* VALUES ", "");
+    String sql = merged.get(0).getDmlStatement();
+    assertTrue(sql.startsWith(insertClause + "," + row + " AS `new` ON DUPLICATE KEY UPDATE"));
+    assertTrue(sql.contains("`FirstName` = `new`.`FirstName`"));
+    assertTrue(sql.contains("`LastName` = `new`.`LastName`"));
+    assertFalse(sql.contains("VALUES(`"));
+    assertEquals(6, merged.get(0).getValues().size());
+    assertEquals("1", merged.get(0).getValues().get(0).value());
+    assertEquals("2", merged.get(0).getValues().get(3).value());
+    assertEquals(secondAgain, merged.get(1));
+    assertEquals(delete, merged.get(2));
+    assertEquals(fourth, merged.get(3));
+  }
+
+  @Test
+  public void mergePreparedUpsertsIsCappedByStatementSize() {
+    Schema schema = SessionFileReader.read("src/test/resources/allMatchSession.json");
+    MySQLDMLGenerator mySQLDMLGenerator = new MySQLDMLGenerator();
+    PreparedStatementGeneratedResponse first = getPreparedSingersStatement(schema, "INSERT", "1");
+    PreparedStatementGeneratedResponse second = getPreparedSingersStatement(schema, "INSERT", "2");
+    PreparedStatementGeneratedResponse third = getPreparedSingersStatement(schema, "INSERT", "3");
+
+    // Two rows fit with the upper bound of their 42 bytes of values, three rows do not.
+    long maxStatementBytes =
+        mySQLDMLGenerator
+                .mergePreparedDMLStatements(List.of(first, second), Long.MAX_VALUE, "")
+                .get(0)
+                .getDmlStatement()
+                .length()
+            + 60;
+    List<PreparedStatementGeneratedResponse> merged =
+        mySQLDMLGenerator.mergePreparedDMLStatements(
+            List.of(first, second, third), maxStatementBytes, "");
+
+    assertEquals(2, merged.size());
+    assertEquals(6, merged.get(0).getValues().size());
+    assertEquals(third, merged.get(1));
+  }
+
+  @Test
+  public void mergePreparedUpsertsUsesValuesWithoutRowAlias() {
+    Schema schema = SessionFileReader.read("src/test/resources/allMatchSession.json");
+    MySQLDMLGenerator mySQLDMLGenerator = new MySQLDMLGenerator();
+    PreparedStatementGeneratedResponse first = getPreparedSingersStatement(schema, "INSERT", "1");
+    PreparedStatementGeneratedResponse second = getPreparedSingersStatement(schema, "INSERT", "2");
+
+    String sql =
+        mySQLDMLGenerator
+            .mergePreparedDMLStatements(List.of(first, second), Long.MAX_VALUE, "5.7.44-log")
+            .get(0)
+            .getDmlStatement();
+
+    assertTrue(sql.contains("`FirstName` = VALUES(`FirstName`)"));
+    assertTrue(sql.contains("`LastName` = VALUES(`LastName`)"));
+    assertFalse(sql.contains(" AS `new`"));
+  }
+
+  @Test
+  public void supportsRowAlias() {
+    assertTrue(MySQLDMLGenerator.supportsRowAlias("8.0.19"));
+    assertTrue(MySQLDMLGenerator.supportsRowAlias("8.0.36"));
+    assertTrue(MySQLDMLGenerator.supportsRowAlias("8.4.0"));
+    assertTrue(MySQLDMLGenerator.supportsRowAlias("9.0.1-commercial"));
+    assertFalse(MySQLDMLGenerator.supportsRowAlias("8.0.18"));
+    assertFalse(MySQLDMLGenerator.supportsRowAlias("5.7.44-log"));
+    assertFalse(MySQLDMLGenerator.supportsRowAlias("5.5.5-10.11.6-MariaDB"));
+    assertFalse(MySQLDMLGenerator.supportsRowAlias(""));
+    assertFalse(MySQLDMLGenerator.supportsRowAlias(null));
+  }
+
+  private static PreparedStatementGeneratedResponse getPreparedSingersStatement(
+      Schema schema, String modType, String singerId) {
+    return new MySQLDMLGenerator()
+        .getPreparedDMLStatement(
+            new DMLGeneratorRequest.Builder(
+                    modType,
+                    "Singers",
+                    new JSONObject("{\"FirstName\":\"kk\",\"LastName\":\"ll\"}"),
+                    new JSONObject("{\"SingerId\":\"" + singerId + "\"}"),
+                    "+00:00")
+                .setSchema(schema)
+                .build());
+  }
+
   public static Schema getSchemaObject() {
     Map<String, SyntheticPKey> syntheticPKeys = new HashMap<String, SyntheticPKey>();
     Map<String, SourceTable> srcSchema = new HashMap<String, SourceTable>();
@@ -20,8 +20,11 @@ import static org.mockito.Mockito.doNothing;
 
 import com.google.cloud.teleport.v2.spanner.migrations.shard.Shard;
 import com.google.cloud.teleport.v2.templates.constants.Constants;
+import com.google.cloud.teleport.v2.templates.dbutils.connection.CassandraConnectionHelper;
 import com.google.cloud.teleport.v2.templates.dbutils.connection.JdbcConnectionHelper;
+import com.google.cloud.teleport.v2.templates.dbutils.dao.source.CassandraDao;
 import com.google.cloud.teleport.v2.templates.dbutils.dao.source.JdbcDao;
+import com.google.cloud.teleport.v2.templates.dbutils.dml.CassandraDMLGenerator;
 import com.google.cloud.teleport.v2.templates.dbutils.dml.MySQLDMLGenerator;
 import com.google.cloud.teleport.v2.templates.exceptions.UnsupportedSourceException;
 import java.util.Arrays;
@@ -64,6 +67,58 @@ public class SourceProcessorFactoryTest {
     Assert.assertTrue(processor.getSourceDaoMap().get("shard1") instanceof JdbcDao);
   }
 
+  @Test
+  public void testCreateSourceProcessor_cassandraSource() throws Exception {
+    List<Shard> shards =
+        Arrays.asList(
+            new Shard(
+                "shard1",
+                "localhost",
+                "9042",
+                "myuser",
+                "mypassword",
+                "mykeyspace",
+                "mynamespace",
+                "projects/myproject/secrets/mysecret/versions/latest",
+                ""));
+    CassandraConnectionHelper mockConnectionHelper = Mockito.mock(CassandraConnectionHelper.class);
+    doNothing().when(mockConnectionHelper).init(any());
+    SourceProcessorFactory.setConnectionHelperMap(
+        Map.of(Constants.SOURCE_CASSANDRA, mockConnectionHelper));
+    SourceProcessor processor =
+        SourceProcessorFactory.createSourceProcessor(Constants.SOURCE_CASSANDRA, shards, 10);
+
+    Assert.assertTrue(processor.getDmlGenerator() instanceof CassandraDMLGenerator);
+    Assert.assertEquals(1, processor.getSourceDaoMap().size());
+    Assert.assertTrue(processor.getSourceDaoMap().get("shard1") instanceof CassandraDao);
+    Mockito.verify(mockConnectionHelper).init(any());
+  }
+
+  @Test
+  public void testCreateSourceProcessor_cassandraMaxInFlightWrites() throws Exception {
+    List<Shard> shards =
+        Arrays.asList(
+            new Shard(
+                "shard1",
+                "localhost",
+                "9042",
+                "myuser",
+                "mypassword",
+                "mykeyspace",
+                "mynamespace",
+                "projects/myproject/secrets/mysecret/versions/latest",
+                ""));
+    CassandraConnectionHelper mockConnectionHelper = Mockito.mock(CassandraConnectionHelper.class);
+    doNothing().when(mockConnectionHelper).init(any());
+    SourceProcessorFactory.setConnectionHelperMap(
+        Map.of(Constants.SOURCE_CASSANDRA, mockConnectionHelper));
+    SourceProcessor processor =
+        SourceProcessorFactory.createSourceProcessor(Constants.SOURCE_CASSANDRA, shards, 10, 7);
+
+    Assert.assertEquals(
+        7, ((CassandraDao) processor.getSourceDaoMap().get("shard1")).getMaxInFlightWrites());
+  }
+
   @Test(expected = UnsupportedSourceException.class)
   public void testCreateSourceProcessor_invalidSource() throws Exception {
     List<Shard> shards =
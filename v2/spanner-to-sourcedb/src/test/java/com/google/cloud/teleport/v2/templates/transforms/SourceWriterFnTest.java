@@ -15,6 +15,8 @@
  */
 package com.google.cloud.teleport.v2.templates.transforms;
 
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.contains;
@@ -22,13 +24,17 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.Mutation;
 import com.google.cloud.teleport.v2.spanner.ddl.Ddl;
 import com.google.cloud.teleport.v2.spanner.exceptions.InvalidTransformationException;
 import com.google.cloud.teleport.v2.spanner.migrations.schema.ColumnPK;
@@ -47,22 +53,27 @@ import com.google.cloud.teleport.v2.spanner.utils.MigrationTransformationRespons
 import com.google.cloud.teleport.v2.templates.changestream.ChangeStreamErrorRecord;
 import com.google.cloud.teleport.v2.templates.changestream.TrimmedShardedDataChangeRecord;
 import com.google.cloud.teleport.v2.templates.constants.Constants;
+import com.google.cloud.teleport.v2.templates.dbutils.dao.source.CassandraDao;
 import com.google.cloud.teleport.v2.templates.dbutils.dao.source.IDao;
 import com.google.cloud.teleport.v2.templates.dbutils.dao.source.JdbcDao;
 import com.google.cloud.teleport.v2.templates.dbutils.dao.spanner.SpannerDao;
 import com.google.cloud.teleport.v2.templates.dbutils.dml.MySQLDMLGenerator;
 import com.google.cloud.teleport.v2.templates.dbutils.processor.SourceProcessor;
+import com.google.cloud.teleport.v2.templates.models.PreparedStatementGeneratedResponse;
 import com.google.cloud.teleport.v2.templates.utils.ShadowTableRecord;
 import com.google.common.collect.ImmutableList;
 import com.google.gson.Gson;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.apache.beam.sdk.io.gcp.spanner.SpannerConfig;
 import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.Mod;
 import org.apache.beam.sdk.io.gcp.spanner.changestreams.model.ModType;
 import org.apache.beam.sdk.testing.TestPipeline;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
 import org.apache.beam.sdk.values.KV;
+import org.joda.time.Instant;
 import org.junit.Before;
 import org.junit.FixMethodOrder;
 import org.junit.Rule;
@@ -82,6 +93,7 @@ public class SourceWriterFnTest {
   @Mock HashMap<String, IDao> mockDaoMap;
   @Mock private SpannerConfig mockSpannerConfig;
   @Mock private DoFn.ProcessContext processContext;
+  @Mock private DoFn.FinishBundleContext finishBundleContext;
   @Mock private ISpannerMigrationTransformer mockSpannerMigrationTransformer;
   private static Gson gson = new Gson();
 
@@ -94,6 +106,7 @@ public class SourceWriterFnTest {
 
   @Before
   public void doBeforeEachTest() throws Exception {
+    SourceWriterFn.clearShadowTableRecordCache();
     when(mockDaoMap.get(any())).thenReturn(mockSqlDao);
     when(mockSpannerDao.getShadowTableRecord(eq("shadow_parent1"), any())).thenReturn(null);
     when(mockSpannerDao.getShadowTableRecord(eq("shadow_tableName"), any())).thenReturn(null);
@@ -161,7 +174,7 @@ public class SourceWriterFnTest {
     mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(mockSpannerDao, atLeast(1)).getShadowTableRecord(any(), any());
     verify(mockSqlDao, never()).write(any());
     verify(mockSpannerDao, never()).updateShadowTable(any());
@@ -189,7 +202,7 @@ public class SourceWriterFnTest {
     mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(mockSpannerDao, atLeast(1)).getShadowTableRecord(any(), any());
     verify(mockSqlDao, never()).write(any());
     verify(mockSpannerDao, never()).updateShadowTable(any());
@@ -217,7 +230,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSourceProcessor(sourceProcessor);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(mockSpannerDao, atLeast(1)).getShadowTableRecord(any(), any());
     verify(mockSqlDao, atLeast(1)).write(any());
     verify(mockSpannerDao, atLeast(1)).updateShadowTable(any());
@@ -250,7 +263,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setSourceProcessor(sourceProcessor);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setSpannerToSourceTransformer(mockSpannerMigrationTransformer);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(mockSpannerDao, atLeast(1)).getShadowTableRecord(any(), any());
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord =
@@ -289,7 +302,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setSourceProcessor(sourceProcessor);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setSpannerToSourceTransformer(mockSpannerMigrationTransformer);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     ArgumentCaptor<String> argumentCaptor = ArgumentCaptor.forClass(String.class);
     verify(mockSpannerDao, atLeast(1)).getShadowTableRecord(any(), any());
     verify(mockSqlDao, atLeast(1)).write(argumentCaptor.capture());
@@ -324,7 +337,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setSourceProcessor(sourceProcessor);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
     sourceWriterFn.setSpannerToSourceTransformer(mockSpannerMigrationTransformer);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(mockSpannerDao, atLeast(1)).getShadowTableRecord(any(), any());
     verify(mockSqlDao, atLeast(0)).write(any());
     verify(mockSpannerDao, atLeast(0)).updateShadowTable(any());
@@ -355,7 +368,7 @@ public class SourceWriterFnTest {
     mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord =
         new ChangeStreamErrorRecord(jsonRec, Constants.SHARD_NOT_PRESENT_ERROR_MESSAGE);
@@ -386,7 +399,7 @@ public class SourceWriterFnTest {
     mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord =
         new ChangeStreamErrorRecord(jsonRec, Constants.SKIPPED_TAG_MESSAGE);
@@ -415,7 +428,7 @@ public class SourceWriterFnTest {
     mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord =
         new ChangeStreamErrorRecord(
@@ -448,7 +461,7 @@ public class SourceWriterFnTest {
     mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord = new ChangeStreamErrorRecord(jsonRec, "Test exception");
     verify(processContext, atLeast(1))
@@ -478,7 +491,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSourceProcessor(sourceProcessor);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord =
         new ChangeStreamErrorRecord(jsonRec, "a foreign key constraint fails");
@@ -509,7 +522,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSourceProcessor(sourceProcessor);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord =
         new ChangeStreamErrorRecord(jsonRec, "transient connection error");
@@ -540,7 +553,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSourceProcessor(sourceProcessor);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord =
         new ChangeStreamErrorRecord(jsonRec, "permanent connection error");
@@ -571,7 +584,7 @@ public class SourceWriterFnTest {
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSourceProcessor(sourceProcessor);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     String jsonRec = gson.toJson(record, TrimmedShardedDataChangeRecord.class);
     ChangeStreamErrorRecord errorRecord = new ChangeStreamErrorRecord(jsonRec, "generic exception");
     verify(processContext, atLeast(1))
@@ -600,10 +613,329 @@ public class SourceWriterFnTest {
     mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
     sourceWriterFn.setObjectMapper(mapper);
     sourceWriterFn.setSpannerDao(mockSpannerDao);
-    sourceWriterFn.processElement(processContext);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
     verify(mockSqlDao, never()).write(contains("567890"));
   }
 
+  @Test
+  public void testBatchedWriteAppliesRecordsInCommitOrder() throws Exception {
+    TrimmedShardedDataChangeRecord newerRecord =
+        getParent1TrimmedDataChangeRecord("shardA", "43", "2020-12-01T10:15:31.000Z");
+    newerRecord.setShard("shardA");
+    TrimmedShardedDataChangeRecord olderRecord =
+        getParent1TrimmedDataChangeRecord("shardA", "42", "2020-12-01T10:15:30.000Z");
+    olderRecord.setShard("shardA");
+    when(processContext.element())
+        .thenReturn(KV.of(1L, newerRecord))
+        .thenReturn(KV.of(2L, olderRecord));
+    SourceWriterFn sourceWriterFn = getBatchedSourceWriterFn(2);
+    sourceWriterFn.startBundle();
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    verify(mockSqlDao, never()).batchWrite(any());
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+
+    ArgumentCaptor<List<PreparedStatementGeneratedResponse>> argumentCaptor =
+        ArgumentCaptor.forClass(List.class);
+    verify(mockSqlDao).batchWrite(argumentCaptor.capture());
+    List<PreparedStatementGeneratedResponse> statements = argumentCaptor.getValue();
+    assertEquals(2, statements.size());
+    assertEquals("42", statements.get(0).getValues().get(0).value());
+    assertEquals("43", statements.get(1).getValues().get(0).value());
+    verify(mockSqlDao, never()).write(any());
+    verify(mockSpannerDao).getShadowTableRecords(eq("shadow_parent1"), any(), any());
+    verify(mockSpannerDao, never()).getShadowTableRecord(any(), any());
+    ArgumentCaptor<List<Mutation>> mutationCaptor = ArgumentCaptor.forClass(List.class);
+    verify(mockSpannerDao).updateShadowTables(mutationCaptor.capture());
+    assertEquals(2, mutationCaptor.getValue().size());
+    verify(mockSpannerDao, never()).updateShadowTable(any());
+    verify(processContext, times(2)).output(eq(Constants.SUCCESS_TAG), any(String.class));
+  }
+
+  @Test
+  public void testBatchedWriteMergesUpserts() throws Exception {
+    TrimmedShardedDataChangeRecord firstRecord =
+        getParent1TrimmedDataChangeRecord("shardA", "42", "2020-12-01T10:15:30.000Z");
+    firstRecord.setShard("shardA");
+    TrimmedShardedDataChangeRecord secondRecord =
+        getParent1TrimmedDataChangeRecord("shardA", "43", "2020-12-01T10:15:31.000Z");
+    secondRecord.setShard("shardA");
+    when(processContext.element())
+        .thenReturn(KV.of(1L, firstRecord))
+        .thenReturn(KV.of(2L, secondRecord));
+    when(mockSqlDao.getMaxStatementBytes()).thenReturn(Long.MAX_VALUE);
+    SourceWriterFn sourceWriterFn = getBatchedSourceWriterFn(2, true, 1);
+    sourceWriterFn.startBundle();
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+
+    ArgumentCaptor<List<PreparedStatementGeneratedResponse>> argumentCaptor =
+        ArgumentCaptor.forClass(List.class);
+    verify(mockSqlDao).batchWrite(argumentCaptor.capture());
+    List<PreparedStatementGeneratedResponse> statements = argumentCaptor.getValue();
+    assertEquals(1, statements.size());
+    assertEquals("INSERT INTO `parent1`(`id`) VALUES (?),(?)", statements.get(0).getDmlStatement());
+    assertEquals("42", statements.get(0).getValues().get(0).value());
+    assertEquals("43", statements.get(0).getValues().get(1).value());
+    verify(processContext, times(2)).output(eq(Constants.SUCCESS_TAG), any(String.class));
+  }
+
+  @Test
+  public void testBatchedWriteAppliesLanesSeparately() throws Exception {
+    TrimmedShardedDataChangeRecord firstRecord =
+        getParent1TrimmedDataChangeRecord("shardA", "42", "2020-12-01T10:15:30.000Z");
+    firstRecord.setShard("shardA");
+    String otherLaneKey = "43";
+    while (SourceWriterFn.getLane(
+            getParent1TrimmedDataChangeRecord("shardA", otherLaneKey, "2020-12-01T10:15:31.000Z"),
+            2)
+        == SourceWriterFn.getLane(firstRecord, 2)) {
+      otherLaneKey = String.valueOf(Long.parseLong(otherLaneKey) + 1);
+    }
+    TrimmedShardedDataChangeRecord secondRecord =
+        getParent1TrimmedDataChangeRecord("shardA", otherLaneKey, "2020-12-01T10:15:31.000Z");
+    secondRecord.setShard("shardA");
+    TrimmedShardedDataChangeRecord sameKeyRecord =
+        getParent1TrimmedDataChangeRecord("shardA", "42", "2020-12-01T10:15:32.000Z");
+    sameKeyRecord.setShard("shardA");
+    when(processContext.element())
+        .thenReturn(KV.of(1L, firstRecord))
+        .thenReturn(KV.of(2L, secondRecord))
+        .thenReturn(KV.of(3L, sameKeyRecord));
+    SourceWriterFn sourceWriterFn = getBatchedSourceWriterFn(3, false, 2);
+    sourceWriterFn.startBundle();
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+
+    ArgumentCaptor<List<PreparedStatementGeneratedResponse>> argumentCaptor =
+        ArgumentCaptor.forClass(List.class);
+    verify(mockSqlDao, times(2)).batchWrite(argumentCaptor.capture());
+    List<Integer> laneSizes =
+        argumentCaptor.getAllValues().stream().map(List::size).sorted().collect(toList());
+    assertEquals(List.of(1, 2), laneSizes);
+    verify(mockSpannerDao, times(2)).updateShadowTables(any());
+    verify(processContext, times(3)).output(eq(Constants.SUCCESS_TAG), any(String.class));
+  }
+
+  @Test
+  public void testBatchedWriteLanesUseTheirOwnTransformer() throws Exception {
+    TrimmedShardedDataChangeRecord firstRecord =
+        getParent1TrimmedDataChangeRecord("shardA", "42", "2020-12-01T10:15:30.000Z");
+    firstRecord.setShard("shardA");
+    String otherLaneKey = "43";
+    while (SourceWriterFn.getLane(
+            getParent1TrimmedDataChangeRecord("shardA", otherLaneKey, "2020-12-01T10:15:31.000Z"),
+            2)
+        == SourceWriterFn.getLane(firstRecord, 2)) {
+      otherLaneKey = String.valueOf(Long.parseLong(otherLaneKey) + 1);
+    }
+    TrimmedShardedDataChangeRecord secondRecord =
+        getParent1TrimmedDataChangeRecord("shardA", otherLaneKey, "2020-12-01T10:15:31.000Z");
+    secondRecord.setShard("shardA");
+    when(processContext.element())
+        .thenReturn(KV.of(1L, firstRecord))
+        .thenReturn(KV.of(2L, secondRecord));
+    ISpannerMigrationTransformer firstLaneTransformer = mock(ISpannerMigrationTransformer.class);
+    ISpannerMigrationTransformer secondLaneTransformer = mock(ISpannerMigrationTransformer.class);
+    when(firstLaneTransformer.toSourceRow(any()))
+        .thenReturn(new MigrationTransformationResponse(Map.of(), false));
+    when(secondLaneTransformer.toSourceRow(any()))
+        .thenReturn(new MigrationTransformationResponse(Map.of(), false));
+    List<ISpannerMigrationTransformer> laneTransformers =
+        SourceWriterFn.getLane(firstRecord, 2) == 0
+            ? List.of(firstLaneTransformer, secondLaneTransformer)
+            : List.of(secondLaneTransformer, firstLaneTransformer);
+    SourceWriterFn sourceWriterFn = getBatchedSourceWriterFn(2, false, 2);
+    sourceWriterFn.setLaneTransformers(laneTransformers);
+    sourceWriterFn.startBundle();
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+
+    verify(firstLaneTransformer, times(1)).toSourceRow(any());
+    verify(secondLaneTransformer, times(1)).toSourceRow(any());
+    verify(mockSpannerMigrationTransformer, never()).toSourceRow(any());
+    verify(processContext, times(2)).output(eq(Constants.SUCCESS_TAG), any(String.class));
+  }
+
+  @Test
+  public void testBatchedWriteSkipsRecordsBehindShadowTable() throws Exception {
+    TrimmedShardedDataChangeRecord record =
+        getParent1TrimmedDataChangeRecord("shardA", "42", "2020-12-01T10:15:30.000Z");
+    record.setShard("shardA");
+    when(processContext.element()).thenReturn(KV.of(1L, record));
+    when(mockSpannerDao.getShadowTableRecords(eq("shadow_parent1"), any(), any()))
+        .thenReturn(
+            Map.of(
+                Key.of(42L),
+                new ShadowTableRecord(Timestamp.parseTimestamp("2020-12-01T10:15:31.000Z"), 0)));
+    SourceWriterFn sourceWriterFn = getBatchedSourceWriterFn(2);
+    sourceWriterFn.startBundle();
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+
+    ArgumentCaptor<List<PreparedStatementGeneratedResponse>> argumentCaptor =
+        ArgumentCaptor.forClass(List.class);
+    verify(mockSqlDao).batchWrite(argumentCaptor.capture());
+    assertEquals(0, argumentCaptor.getValue().size());
+    verify(mockSpannerDao).updateShadowTables(eq(List.of()));
+    verify(processContext, times(2)).output(eq(Constants.SUCCESS_TAG), any(String.class));
+  }
+
+  @Test
+  public void testBatchedWriteSkipsStaleRecordsFromCache() throws Exception {
+    TrimmedShardedDataChangeRecord newerRecord =
+        getParent1TrimmedDataChangeRecord("shardA", "42", "2020-12-01T10:15:31.000Z");
+    newerRecord.setShard("shardA");
+    TrimmedShardedDataChangeRecord olderRecord =
+        getParent1TrimmedDataChangeRecord("shardA", "42", "2020-12-01T10:15:30.000Z");
+    olderRecord.setShard("shardA");
+    when(processContext.element())
+        .thenReturn(KV.of(1L, newerRecord))
+        .thenReturn(KV.of(2L, olderRecord));
+    SourceWriterFn sourceWriterFn = getBatchedSourceWriterFn(10);
+    sourceWriterFn.startBundle();
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    sourceWriterFn.finishBundle(finishBundleContext);
+    sourceWriterFn.startBundle();
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    sourceWriterFn.finishBundle(finishBundleContext);
+
+    verify(mockSpannerDao).getShadowTableRecords(eq("shadow_parent1"), any(), any());
+    ArgumentCaptor<List<PreparedStatementGeneratedResponse>> argumentCaptor =
+        ArgumentCaptor.forClass(List.class);
+    verify(mockSqlDao, times(2)).batchWrite(argumentCaptor.capture());
+    assertEquals(1, argumentCaptor.getAllValues().get(0).size());
+    assertEquals(0, argumentCaptor.getAllValues().get(1).size());
+    verify(finishBundleContext, times(2))
+        .output(eq(Constants.SUCCESS_TAG), any(String.class), any(), any());
+  }
+
+  @Test
+  public void testBatchedWriteFallsBackToRecordWrites() throws Exception {
+    TrimmedShardedDataChangeRecord record =
+        getParent1TrimmedDataChangeRecord("shardA", "42", "2020-12-01T10:15:30.000Z");
+    record.setShard("shardA");
+    when(processContext.element()).thenReturn(KV.of(1L, record));
+    doThrow(new java.sql.SQLException("batch failed")).when(mockSqlDao).batchWrite(any());
+    SourceWriterFn sourceWriterFn = getBatchedSourceWriterFn(2);
+    sourceWriterFn.startBundle();
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+
+    verify(mockSqlDao).batchWrite(any());
+    verify(mockSqlDao, times(2)).write(contains("INSERT INTO `parent1`(`id`) VALUES (42)"));
+    verify(mockSpannerDao, times(2)).updateShadowTable(any());
+    verify(processContext, times(2)).output(eq(Constants.SUCCESS_TAG), any(String.class));
+  }
+
+  @Test
+  public void testBatchedWriteFallbackDoesNotTransformFilteredRecordsAgain() throws Exception {
+    TrimmedShardedDataChangeRecord record =
+        getParent1TrimmedDataChangeRecord("shardA", "42", "2020-12-01T10:15:30.000Z");
+    record.setShard("shardA");
+    when(processContext.element()).thenReturn(KV.of(1L, record));
+    when(mockSpannerMigrationTransformer.toSourceRow(any()))
+        .thenReturn(new MigrationTransformationResponse(null, true));
+    doThrow(new java.sql.SQLException("batch failed")).when(mockSqlDao).batchWrite(any());
+    SourceWriterFn sourceWriterFn = getBatchedSourceWriterFn(2);
+    sourceWriterFn.setSpannerToSourceTransformer(mockSpannerMigrationTransformer);
+    sourceWriterFn.startBundle();
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+
+    verify(mockSpannerMigrationTransformer, times(2)).toSourceRow(any());
+    verify(mockSqlDao, never()).write(any());
+    verify(mockSpannerDao, times(2)).updateShadowTable(any());
+    verify(processContext, times(2)).output(eq(Constants.FILTERED_TAG), any(String.class));
+    verify(processContext, times(2)).output(eq(Constants.SUCCESS_TAG), any(String.class));
+  }
+
+  @Test
+  public void testBatchedWriteEmitsOutputsAtRecordTimestamps() throws Exception {
+    TrimmedShardedDataChangeRecord firstRecord =
+        getParent1TrimmedDataChangeRecord("shardA", "42", "2020-12-01T10:15:30.000Z");
+    firstRecord.setShard("shardA");
+    TrimmedShardedDataChangeRecord secondRecord =
+        getParent1TrimmedDataChangeRecord("shardA", "43", "2020-12-01T10:15:31.000Z");
+    secondRecord.setShard("shardA");
+    when(processContext.element())
+        .thenReturn(KV.of(1L, firstRecord))
+        .thenReturn(KV.of(2L, secondRecord));
+    Instant firstTimestamp = Instant.ofEpochMilli(1000L);
+    Instant secondTimestamp = Instant.ofEpochMilli(2000L);
+    when(processContext.timestamp()).thenReturn(firstTimestamp).thenReturn(secondTimestamp);
+    SourceWriterFn sourceWriterFn = getBatchedSourceWriterFn(2);
+    sourceWriterFn.startBundle();
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+
+    verify(mockSqlDao).batchWrite(any());
+    verify(processContext, times(1)).output(eq(Constants.SUCCESS_TAG), any(String.class));
+    verify(finishBundleContext, never()).output(any(), any(), any(), any());
+
+    sourceWriterFn.finishBundle(finishBundleContext);
+    verify(finishBundleContext)
+        .output(
+            eq(Constants.SUCCESS_TAG),
+            any(String.class),
+            eq(firstTimestamp),
+            eq(GlobalWindow.INSTANCE));
+  }
+
+  @Test
+  public void testBatchedWriteFlushesOnFinishBundle() throws Exception {
+    TrimmedShardedDataChangeRecord record =
+        getParent1TrimmedDataChangeRecord("shardA", "42", "2020-12-01T10:15:30.000Z");
+    record.setShard("shardA");
+    when(processContext.element()).thenReturn(KV.of(1L, record));
+    Instant elementTimestamp = Instant.ofEpochMilli(1000L);
+    when(processContext.timestamp()).thenReturn(elementTimestamp);
+    SourceWriterFn sourceWriterFn = getBatchedSourceWriterFn(10);
+    sourceWriterFn.startBundle();
+    sourceWriterFn.processElement(processContext, GlobalWindow.INSTANCE);
+    verify(mockSqlDao, never()).batchWrite(any());
+
+    sourceWriterFn.finishBundle(finishBundleContext);
+    verify(mockSqlDao).batchWrite(any());
+    verify(mockSpannerDao).updateShadowTables(any());
+    verify(finishBundleContext)
+        .output(
+            eq(Constants.SUCCESS_TAG),
+            any(String.class),
+            eq(elementTimestamp),
+            eq(GlobalWindow.INSTANCE));
+  }
+
+  private SourceWriterFn getBatchedSourceWriterFn(int batchSize) {
+    return getBatchedSourceWriterFn(batchSize, false, 1);
+  }
+
+  private SourceWriterFn getBatchedSourceWriterFn(
+      int batchSize, boolean multiRowUpsert, int lanesPerShard) {
+    SourceWriterFn sourceWriterFn =
+        new SourceWriterFn(
+            ImmutableList.of(testShard),
+            testSchema,
+            mockSpannerConfig,
+            testSourceDbTimezoneOffset,
+            testDdl,
+            "shadow_",
+            "skip",
+            500,
+            "mysql",
+            null,
+            batchSize,
+            multiRowUpsert,
+            lanesPerShard,
+            CassandraDao.DEFAULT_MAX_IN_FLIGHT_WRITES);
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    sourceWriterFn.setObjectMapper(mapper);
+    sourceWriterFn.setSourceProcessor(sourceProcessor);
+    sourceWriterFn.setSpannerDao(mockSpannerDao);
+    return sourceWriterFn;
+  }
+
   static Ddl getTestDdl() {
     Ddl ddl =
         Ddl.builder()
@@ -730,6 +1062,19 @@ public class SourceWriterFnTest {
         "");
   }
 
+  private TrimmedShardedDataChangeRecord getParent1TrimmedDataChangeRecord(
+      String shardId, String id, String commitTimestamp) {
+    return new TrimmedShardedDataChangeRecord(
+        Timestamp.parseTimestamp(commitTimestamp),
+        "serverTxnId",
+        "0",
+        "parent1",
+        new Mod("{\"id\": \"" + id + "\"}", "{}", "{ \"migration_shard_id\": \"" + shardId + "\"}"),
+        ModType.valueOf("INSERT"),
+        1,
+        "");
+  }
+
   private TrimmedShardedDataChangeRecord getTrimmedDataChangeRecordToSimulateNullDML(
       String shardId) {
     return new TrimmedShardedDataChangeRecord(